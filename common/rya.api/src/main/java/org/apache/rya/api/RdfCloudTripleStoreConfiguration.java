@@ -44,6 +44,9 @@ public abstract class RdfCloudTripleStoreConfiguration extends Configuration {
     //    public static final String CONF_TIMEINDEXURIS = "query.timeindexuris";
     public static final String CONF_NUM_THREADS = "query.numthreads";
     public static final String CONF_PERFORMANT = "query.performant";
+    public static final String CONF_PIPELINE_JOINS = "query.join.pipeline";
+    public static final String CONF_PIPELINE_MAX_IN_FLIGHT = "query.join.pipeline.maxinflight";
+    public static final String CONF_PIPELINE_TARGET_LATENCY_MS = "query.join.pipeline.targetlatency.ms";
     public static final String CONF_INFER = "query.infer";
     public static final String CONF_USE_STATS = "query.usestats";
     public static final String CONF_USE_COMPOSITE = "query.usecompositecard";
@@ -171,6 +174,46 @@ public abstract class RdfCloudTripleStoreConfiguration extends Configuration {
         setBoolean(CONF_PERFORMANT, val);
     }
 
+    /**
+     * @return {@code true} if batched joins submit their next batches while the
+     *   results of the current batch are being consumed; otherwise {@code false}.
+     */
+    public Boolean isPipelineJoins() {
+        return getBoolean(CONF_PIPELINE_JOINS, false);
+    }
+
+    public void setPipelineJoins(final Boolean val) {
+        Preconditions.checkNotNull(val);
+        setBoolean(CONF_PIPELINE_JOINS, val);
+    }
+
+    /**
+     * @return The number of batches a pipelined join may have submitted but not yet consumed.
+     */
+    public Integer getPipelineMaxInFlight() {
+        return getInt(CONF_PIPELINE_MAX_IN_FLIGHT, 2);
+    }
+
+    public void setPipelineMaxInFlight(final Integer maxInFlight) {
+        Preconditions.checkNotNull(maxInFlight);
+        Preconditions.checkArgument(maxInFlight > 0, "maxInFlight must be greater than 0");
+        setInt(CONF_PIPELINE_MAX_IN_FLIGHT, maxInFlight);
+    }
+
+    /**
+     * @return How long, in milliseconds, a pipelined join aims to spend evaluating
+     *   each batch. The batch size grows or shrinks to stay near this latency.
+     */
+    public Long getPipelineTargetLatencyMs() {
+        return getLong(CONF_PIPELINE_TARGET_LATENCY_MS, 250L);
+    }
+
+    public void setPipelineTargetLatencyMs(final Long targetLatencyMs) {
+        Preconditions.checkNotNull(targetLatencyMs);
+        Preconditions.checkArgument(targetLatencyMs > 0, "targetLatencyMs must be greater than 0");
+        setLong(CONF_PIPELINE_TARGET_LATENCY_MS, targetLatencyMs);
+    }
+
     public Boolean isInfer() {
         return getBoolean(CONF_INFER, false);
     }
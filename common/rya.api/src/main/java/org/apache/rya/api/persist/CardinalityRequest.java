@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.api.persist;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.rya.api.persist.RdfEvalStatsDAO.CARDINALITY_OF;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+
+import com.google.common.collect.ImmutableList;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import net.jcip.annotations.Immutable;
+
+/**
+ * A single cardinality lookup that may be handed to
+ * {@link RdfEvalStatsDAO#getCardinalities(org.apache.rya.api.RdfCloudTripleStoreConfiguration, java.util.Collection)}.
+ * Instances are immutable and implement {@link #equals(Object)} and {@link #hashCode()}
+ * so that they may be used as cache keys.
+ */
+@Immutable
+@DefaultAnnotation(NonNull.class)
+public class CardinalityRequest {
+
+    private final CARDINALITY_OF card;
+    private final ImmutableList<Value> values;
+    private final Resource context;
+
+    /**
+     * Constructs an instance of {@link CardinalityRequest}.
+     *
+     * @param card - The kind of cardinality that is being requested. (not null)
+     * @param values - The values that make up the composite index, in order. (not null)
+     * @param context - The context the cardinality is scoped to. (optional)
+     */
+    public CardinalityRequest(final CARDINALITY_OF card, final List<Value> values, @Nullable final Resource context) {
+        this.card = requireNonNull(card);
+        this.values = ImmutableList.copyOf(requireNonNull(values));
+        this.context = context;
+    }
+
+    /**
+     * @return The kind of cardinality that is being requested.
+     */
+    public CARDINALITY_OF getCard() {
+        return card;
+    }
+
+    /**
+     * @return The values that make up the composite index, in order.
+     */
+    public List<Value> getValues() {
+        return values;
+    }
+
+    /**
+     * @return The context the cardinality is scoped to, or {@code null} if it is not scoped.
+     */
+    public @Nullable Resource getContext() {
+        return context;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(card, values, context);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if(this == o) {
+            return true;
+        }
+        if(o instanceof CardinalityRequest) {
+            final CardinalityRequest other = (CardinalityRequest) o;
+            return Objects.equals(card, other.card) &&
+                    Objects.equals(values, other.values) &&
+                    Objects.equals(context, other.context);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "CardinalityRequest [card=" + card + ", values=" + values + ", context=" + context + "]";
+    }
+}
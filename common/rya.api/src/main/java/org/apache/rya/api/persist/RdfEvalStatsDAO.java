@@ -19,7 +19,10 @@ package org.apache.rya.api.persist;
  * under the License.
  */
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
 import org.eclipse.rdf4j.model.Resource;
@@ -45,6 +48,27 @@ public interface RdfEvalStatsDAO<C extends RdfCloudTripleStoreConfiguration> {
     public double getCardinality(C conf, CARDINALITY_OF card, List<Value> val) throws RdfDAOException;
     public double getCardinality(C conf, CARDINALITY_OF card, List<Value> val, Resource context) throws RdfDAOException;
 
+    /**
+     * Looks up the cardinalities of many composite indices at once. Implementations
+     * that are backed by a remote store should override this to resolve all of the
+     * requests in as few round trips as possible.
+     *
+     * @param conf - The configuration used to perform the lookups. (not null)
+     * @param requests - The cardinalities that will be looked up. (not null)
+     * @return A map from each distinct request to its cardinality. A request maps
+     *   to -1 if no cardinality could be found.
+     * @throws RdfDAOException A lookup could not be performed.
+     */
+    public default Map<CardinalityRequest, Double> getCardinalities(final C conf, final Collection<CardinalityRequest> requests) throws RdfDAOException {
+        final Map<CardinalityRequest, Double> cardinalities = new HashMap<>();
+        for(final CardinalityRequest request : requests) {
+            if(!cardinalities.containsKey(request)) {
+                cardinalities.put(request, getCardinality(conf, request.getCard(), request.getValues(), request.getContext()));
+            }
+        }
+        return cardinalities;
+    }
+
     public void setConf(C conf);
 
     public C getConf();
@@ -85,7 +85,7 @@ public class RyaContext {
         public static final RyaContext INSTANCE = new RyaContext();
      }
 
-    public synchronized static RyaContext getInstance() {
+    public static RyaContext getInstance() {
         return RyaContextHolder.INSTANCE;
     }
     
@@ -128,6 +128,21 @@ public class RyaContext {
         return null;
     }
 
+    /**
+     * Deserializes a value whose data and type information are stored in separate regions.
+     * See {@link RyaTypeResolver#deserialize(byte[], int, int, byte[], int, int)}.
+     */
+    public RyaType deserialize(byte[] data, int dataOffset, int dataLength, byte[] type, int typeOffset, int typeLength) throws RyaTypeResolverException {
+        if (typeLength < 1) {
+            throw new RyaTypeResolverException("Bytes not deserializable");
+        }
+        RyaTypeResolver ryaTypeResolver = retrieveResolver(type[typeOffset + typeLength - 1]);
+        if (ryaTypeResolver != null) {
+            return ryaTypeResolver.deserialize(data, dataOffset, dataLength, type, typeOffset, typeLength);
+        }
+        return null;
+    }
+
     public void addRyaTypeResolverMapping(RyaTypeResolverMapping mapping) {
         if (!uriToResolver.containsKey(mapping.getRyaDataType())) {
             if (logger.isDebugEnabled()) {
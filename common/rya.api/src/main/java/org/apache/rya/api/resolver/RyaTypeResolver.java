@@ -35,6 +35,28 @@ public interface RyaTypeResolver {
 
     public RyaType deserialize(byte[] bytes) throws RyaTypeResolverException;
 
+    /**
+     * Deserializes a value whose data and type information are stored in separate regions,
+     * such as the components of a triple row, so they do not need to be copied into a single
+     * array first. Together the two regions must hold what {@link #serialize(RyaType)} returns.
+     *
+     * @param data - Holds the serialized data.
+     * @param dataOffset - Where the serialized data starts.
+     * @param dataLength - How many bytes of serialized data there are.
+     * @param type - Holds the serialized type information.
+     * @param typeOffset - Where the serialized type information starts.
+     * @param typeLength - How many bytes of serialized type information there are.
+     * @return The deserialized value.
+     * @throws RyaTypeResolverException The bytes could not be deserialized.
+     */
+    public default RyaType deserialize(final byte[] data, final int dataOffset, final int dataLength,
+            final byte[] type, final int typeOffset, final int typeLength) throws RyaTypeResolverException {
+        final byte[] bytes = new byte[dataLength + typeLength];
+        System.arraycopy(data, dataOffset, bytes, 0, dataLength);
+        System.arraycopy(type, typeOffset, bytes, dataLength, typeLength);
+        return deserialize(bytes);
+    }
+
     public RyaType newInstance();
 
     /**
@@ -68,4 +68,21 @@ public class CustomDatatypeResolver extends RyaTypeResolverImpl {
         rt.setData(label);
         return rt;
     }
+
+    @Override
+    public RyaType deserialize(final byte[] data, final int dataOffset, final int dataLength,
+            final byte[] type, final int typeOffset, final int typeLength) throws RyaTypeResolverException {
+        if (typeLength < 3 || type[typeOffset] != TYPE_DELIM_BYTE || type[typeOffset + typeLength - 2] != TYPE_DELIM_BYTE
+                || type[typeOffset + typeLength - 1] != getMarkerByte()) {
+            return deserializeCopy(data, dataOffset, dataLength, type, typeOffset, typeLength);
+        }
+        if (dataLength < 1) {
+            throw new RyaTypeResolverException("Not a datatype literal");
+        }
+        final RyaType rt = newInstance();
+        final String label = deserializeData(new String(data, dataOffset, dataLength, StandardCharsets.UTF_8));
+        rt.setDataType(SimpleValueFactory.getInstance().createIRI(new String(type, typeOffset + 1, typeLength - 3, StandardCharsets.UTF_8)));
+        rt.setData(label);
+        return rt;
+    }
 }
@@ -118,6 +118,29 @@ public class RyaTypeResolverImpl implements RyaTypeResolver {
         return rt;
     }
 
+    @Override
+    public RyaType deserialize(final byte[] data, final int dataOffset, final int dataLength,
+            final byte[] type, final int typeOffset, final int typeLength) throws RyaTypeResolverException {
+        if (typeLength != 2) {
+            return deserializeCopy(data, dataOffset, dataLength, type, typeOffset, typeLength);
+        }
+        if (type[typeOffset] != TYPE_DELIM_BYTE || type[typeOffset + 1] != getMarkerByte()) {
+            throw new RyaTypeResolverException("Bytes not deserializable");
+        }
+        final RyaType rt = newInstance();
+        rt.setDataType(getRyaDataType());
+        rt.setData(deserializeData(new String(data, dataOffset, dataLength, StandardCharsets.UTF_8)));
+        return rt;
+    }
+
+    /**
+     * Copies the data and type regions into a single array and deserializes it with {@link #deserialize(byte[])}.
+     */
+    protected RyaType deserializeCopy(final byte[] data, final int dataOffset, final int dataLength,
+            final byte[] type, final int typeOffset, final int typeLength) throws RyaTypeResolverException {
+        return RyaTypeResolver.super.deserialize(data, dataOffset, dataLength, type, typeOffset, typeLength);
+    }
+
     protected String deserializeData(final String data) throws RyaTypeResolverException {
         return STRING_TYPE_ENCODER.decode(data);
     }
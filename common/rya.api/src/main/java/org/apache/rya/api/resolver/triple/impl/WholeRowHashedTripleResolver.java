@@ -21,13 +21,11 @@ package org.apache.rya.api.resolver.triple.impl;
 import static org.apache.rya.api.RdfCloudTripleStoreConstants.DELIM_BYTE;
 import static org.apache.rya.api.RdfCloudTripleStoreConstants.DELIM_BYTES;
 import static org.apache.rya.api.RdfCloudTripleStoreConstants.EMPTY_BYTES;
-import static org.apache.rya.api.RdfCloudTripleStoreConstants.TYPE_DELIM_BYTE;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 import org.apache.commons.codec.binary.Hex;
@@ -50,6 +48,8 @@ import com.google.common.primitives.Bytes;
  */
 public class WholeRowHashedTripleResolver implements TripleRowResolver {
 
+    private final RyaContext ryaContext = RyaContext.getInstance();
+
     @Override
     public Map<TABLE_LAYOUT, TripleRow> serialize(final RyaStatement stmt) throws TripleRowResolverException {
         try {
@@ -64,13 +64,13 @@ public class WholeRowHashedTripleResolver implements TripleRowResolver {
             final byte[] value = stmt.getValue();
             assert subject != null && predicate != null && object != null;
             final byte[] cf = (context == null) ? EMPTY_BYTES : context.getData().getBytes(StandardCharsets.UTF_8);
-            final Map<TABLE_LAYOUT, TripleRow> tripleRowMap = new HashMap<TABLE_LAYOUT, TripleRow>();
+            final Map<TABLE_LAYOUT, TripleRow> tripleRowMap = new EnumMap<TABLE_LAYOUT, TripleRow>(TABLE_LAYOUT.class);
             final MessageDigest md = MessageDigest.getInstance("MD5");
             final byte[] subjBytes = subject.getData().getBytes(StandardCharsets.UTF_8);
             final byte[] subjHashBytes = md.digest(subjBytes);
             final byte[] predBytes = predicate.getData().getBytes(StandardCharsets.UTF_8);
             final byte[] predHashBytes = md.digest(predBytes);
-            final byte[][] objBytes = RyaContext.getInstance().serializeType(object);
+            final byte[][] objBytes = ryaContext.serializeType(object);
             tripleRowMap.put(TABLE_LAYOUT.SPO,
                     new TripleRow(Bytes.concat(Hex.encodeHexString(subjHashBytes).getBytes(StandardCharsets.UTF_8), DELIM_BYTES, subjBytes, DELIM_BYTES,
                             predBytes, DELIM_BYTES,
@@ -96,62 +96,14 @@ public class WholeRowHashedTripleResolver implements TripleRowResolver {
 
     @Override
     public RyaStatement deserialize(final TABLE_LAYOUT table_layout, final TripleRow tripleRow) throws TripleRowResolverException {
-        try {
-            assert tripleRow != null && table_layout != null;
-            byte[] row = tripleRow.getRow();
-
-            // if it is a hashed row, ony keep the row after the hash
-            if ((table_layout == TABLE_LAYOUT.SPO) || (table_layout == TABLE_LAYOUT.PO)) {
-            	final int hashStart = Bytes.indexOf(row, DELIM_BYTE);
-            	row = Arrays.copyOfRange(row, hashStart + 1, row.length);
-            }
+        assert tripleRow != null && table_layout != null;
 
-            final int firstIndex = Bytes.indexOf(row, DELIM_BYTE);
-            final byte[] first= Arrays.copyOf(row, firstIndex);
-            final int secondIndex = Bytes.lastIndexOf(row, DELIM_BYTE);
-            final int typeIndex = Bytes.indexOf(row, TYPE_DELIM_BYTE);
-            final byte[] second = Arrays.copyOfRange(row, firstIndex + 1, secondIndex);
-            final byte[] third = Arrays.copyOfRange(row, secondIndex + 1, typeIndex);
-            final byte[] type = Arrays.copyOfRange(row, typeIndex, row.length);
-            final byte[] columnFamily = tripleRow.getColumnFamily();
-            final boolean contextExists = columnFamily != null && columnFamily.length > 0;
-            final RyaURI context = (contextExists) ? (new RyaURI(new String(columnFamily, StandardCharsets.UTF_8))) : null;
-            final byte[] columnQualifier = tripleRow.getColumnQualifier();
-            final String qualifier = columnQualifier != null && columnQualifier.length > 0 ? new String(columnQualifier, StandardCharsets.UTF_8) : null;
-            final Long timestamp = tripleRow.getTimestamp();
-            final byte[] columnVisibility = tripleRow.getColumnVisibility();
-            final byte[] value = tripleRow.getValue();
-
-            switch (table_layout) {
-                case SPO: {
-                    final byte[] obj = Bytes.concat(third, type);
-                    return new RyaStatement(
-                            new RyaURI(new String(first, StandardCharsets.UTF_8)),
-                            new RyaURI(new String(second, StandardCharsets.UTF_8)),
-                            RyaContext.getInstance().deserialize(obj),
-                            context, qualifier, columnVisibility, value, timestamp);
-                }
-                case PO: {
-                    final byte[] obj = Bytes.concat(second, type);
-                    return new RyaStatement(
-                            new RyaURI(new String(third, StandardCharsets.UTF_8)),
-                            new RyaURI(new String(first, StandardCharsets.UTF_8)),
-                            RyaContext.getInstance().deserialize(obj),
-                            context, qualifier, columnVisibility, value, timestamp);
-                }
-                case OSP: {
-                    final byte[] obj = Bytes.concat(first, type);
-                    return new RyaStatement(
-                            new RyaURI(new String(second, StandardCharsets.UTF_8)),
-                            new RyaURI(new String(third, StandardCharsets.UTF_8)),
-                            RyaContext.getInstance().deserialize(obj),
-                            context, qualifier, columnVisibility, value, timestamp);
-                }
-            }
-        } catch (final RyaTypeResolverException e) {
-            throw new TripleRowResolverException(e);
+        // if it is a hashed row, ony keep the row after the hash
+        int rowStart = 0;
+        if ((table_layout == TABLE_LAYOUT.SPO) || (table_layout == TABLE_LAYOUT.PO)) {
+            rowStart = WholeRowTripleResolver.indexOf(tripleRow.getRow(), DELIM_BYTE, 0) + 1;
         }
-        throw new TripleRowResolverException("TripleRow[" + tripleRow + "] with Table layout[" + table_layout + "] is not deserializable");
+        return WholeRowTripleResolver.deserialize(ryaContext, table_layout, tripleRow, rowStart);
     }
 
 }
@@ -24,8 +24,7 @@ import static org.apache.rya.api.RdfCloudTripleStoreConstants.EMPTY_BYTES;
 import static org.apache.rya.api.RdfCloudTripleStoreConstants.TYPE_DELIM_BYTE;
 
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
@@ -47,6 +46,8 @@ import com.google.common.primitives.Bytes;
  */
 public class WholeRowTripleResolver implements TripleRowResolver {
 
+    private final RyaContext ryaContext = RyaContext.getInstance();
+
     @Override
     public Map<TABLE_LAYOUT, TripleRow> serialize(final RyaStatement stmt) throws TripleRowResolverException {
         try {
@@ -61,10 +62,10 @@ public class WholeRowTripleResolver implements TripleRowResolver {
             final byte[] value = stmt.getValue();
             assert subject != null && predicate != null && object != null;
             final byte[] cf = (context == null) ? EMPTY_BYTES : context.getData().getBytes(StandardCharsets.UTF_8);
-            final Map<TABLE_LAYOUT, TripleRow> tripleRowMap = new HashMap<TABLE_LAYOUT, TripleRow>();
+            final Map<TABLE_LAYOUT, TripleRow> tripleRowMap = new EnumMap<TABLE_LAYOUT, TripleRow>(TABLE_LAYOUT.class);
             final byte[] subjBytes = subject.getData().getBytes(StandardCharsets.UTF_8);
             final byte[] predBytes = predicate.getData().getBytes(StandardCharsets.UTF_8);
-            final byte[][] objBytes = RyaContext.getInstance().serializeType(object);
+            final byte[][] objBytes = ryaContext.serializeType(object);
             tripleRowMap.put(TABLE_LAYOUT.SPO,
                     new TripleRow(Bytes.concat(subjBytes, DELIM_BYTES,
                             predBytes, DELIM_BYTES,
@@ -88,16 +89,37 @@ public class WholeRowTripleResolver implements TripleRowResolver {
 
     @Override
     public RyaStatement deserialize(final TABLE_LAYOUT table_layout, final TripleRow tripleRow) throws TripleRowResolverException {
+        return deserialize(ryaContext, table_layout, tripleRow, 0);
+    }
+
+    /**
+     * Deserializes a whole row triple by decoding each component straight out of the row
+     * instead of copying the components into arrays of their own first.
+     *
+     * @param ryaContext - Deserializes the object.
+     * @param table_layout - The layout of the table the row was read from.
+     * @param tripleRow - The row that will be deserialized.
+     * @param rowStart - Where the triple starts within the row. Anything before it, such as a hash, is skipped.
+     * @return The statement that was stored in the row.
+     * @throws TripleRowResolverException The row could not be deserialized.
+     */
+    static RyaStatement deserialize(final RyaContext ryaContext, final TABLE_LAYOUT table_layout, final TripleRow tripleRow,
+            final int rowStart) throws TripleRowResolverException {
         try {
             assert tripleRow != null && table_layout != null;
             final byte[] row = tripleRow.getRow();
-            final int firstIndex = Bytes.indexOf(row, DELIM_BYTE);
-            final int secondIndex = Bytes.lastIndexOf(row, DELIM_BYTE);
-            final int typeIndex = Bytes.indexOf(row, TYPE_DELIM_BYTE);
-            final byte[] first = Arrays.copyOf(row, firstIndex);
-            final byte[] second = Arrays.copyOfRange(row, firstIndex + 1, secondIndex);
-            final byte[] third = Arrays.copyOfRange(row, secondIndex + 1, typeIndex);
-            final byte[] type = Arrays.copyOfRange(row, typeIndex, row.length);
+            final int firstIndex = indexOf(row, DELIM_BYTE, rowStart);
+            final int secondIndex = lastIndexOf(row, DELIM_BYTE);
+            final int typeIndex = indexOf(row, TYPE_DELIM_BYTE, rowStart);
+            if (firstIndex < 0 || secondIndex < firstIndex || typeIndex < secondIndex) {
+                throw new TripleRowResolverException("TripleRow[" + tripleRow + "] with Table layout[" + table_layout + "] is not deserializable");
+            }
+            final int firstLength = firstIndex - rowStart;
+            final int secondStart = firstIndex + 1;
+            final int secondLength = secondIndex - secondStart;
+            final int thirdStart = secondIndex + 1;
+            final int thirdLength = typeIndex - thirdStart;
+            final int typeLength = row.length - typeIndex;
             final byte[] columnFamily = tripleRow.getColumnFamily();
             final boolean contextExists = columnFamily != null && columnFamily.length > 0;
             final RyaURI context = (contextExists) ? (new RyaURI(new String(columnFamily, StandardCharsets.UTF_8))) : null;
@@ -109,27 +131,24 @@ public class WholeRowTripleResolver implements TripleRowResolver {
 
             switch (table_layout) {
                 case SPO: {
-                    final byte[] obj = Bytes.concat(third, type);
                     return new RyaStatement(
-                            new RyaURI(new String(first, StandardCharsets.UTF_8)),
-                            new RyaURI(new String(second, StandardCharsets.UTF_8)),
-                            RyaContext.getInstance().deserialize(obj),
+                            new RyaURI(new String(row, rowStart, firstLength, StandardCharsets.UTF_8)),
+                            new RyaURI(new String(row, secondStart, secondLength, StandardCharsets.UTF_8)),
+                            ryaContext.deserialize(row, thirdStart, thirdLength, row, typeIndex, typeLength),
                             context, qualifier, columnVisibility, value, timestamp);
                 }
                 case PO: {
-                    final byte[] obj = Bytes.concat(second, type);
                     return new RyaStatement(
-                            new RyaURI(new String(third, StandardCharsets.UTF_8)),
-                            new RyaURI(new String(first, StandardCharsets.UTF_8)),
-                            RyaContext.getInstance().deserialize(obj),
+                            new RyaURI(new String(row, thirdStart, thirdLength, StandardCharsets.UTF_8)),
+                            new RyaURI(new String(row, rowStart, firstLength, StandardCharsets.UTF_8)),
+                            ryaContext.deserialize(row, secondStart, secondLength, row, typeIndex, typeLength),
                             context, qualifier, columnVisibility, value, timestamp);
                 }
                 case OSP: {
-                    final byte[] obj = Bytes.concat(first, type);
                     return new RyaStatement(
-                            new RyaURI(new String(second, StandardCharsets.UTF_8)),
-                            new RyaURI(new String(third, StandardCharsets.UTF_8)),
-                            RyaContext.getInstance().deserialize(obj),
+                            new RyaURI(new String(row, secondStart, secondLength, StandardCharsets.UTF_8)),
+                            new RyaURI(new String(row, thirdStart, thirdLength, StandardCharsets.UTF_8)),
+                            ryaContext.deserialize(row, rowStart, firstLength, row, typeIndex, typeLength),
                             context, qualifier, columnVisibility, value, timestamp);
                 }
             }
@@ -139,4 +158,21 @@ public class WholeRowTripleResolver implements TripleRowResolver {
         throw new TripleRowResolverException("TripleRow[" + tripleRow + "] with Table layout[" + table_layout + "] is not deserializable");
     }
 
+    static int indexOf(final byte[] array, final byte target, final int start) {
+        for (int i = start; i < array.length; i++) {
+            if (array[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(final byte[] array, final byte target) {
+        for (int i = array.length - 1; i >= 0; i--) {
+            if (array[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
 }
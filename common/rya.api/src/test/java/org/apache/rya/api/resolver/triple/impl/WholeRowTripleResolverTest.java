@@ -24,10 +24,15 @@ package org.apache.rya.api.resolver.triple.impl;
 import junit.framework.TestCase;
 import org.apache.rya.api.RdfCloudTripleStoreConstants;
 import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
 import org.apache.rya.api.domain.RyaURI;
 import org.apache.rya.api.resolver.triple.TripleRow;
+import org.apache.rya.api.resolver.triple.TripleRowResolverException;
 import org.apache.rya.api.resolver.triple.TripleRowRegex;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -124,4 +129,35 @@ public class WholeRowTripleResolverTest extends TestCase {
         assertEquals(stmtContext, deserialize);
     }
 
+    public void testSerializeTypedLiterals() throws Exception {
+        RyaURI subj = new RyaURI("urn:test#1234");
+        RyaURI pred = new RyaURI("urn:test#pred");
+        RyaURI cntxt = new RyaURI("urn:test#cntxt");
+        RyaType[] objects = {
+                new RyaType("plain literal"),
+                new RyaType(XMLSchema.INTEGER, "42"),
+                new RyaType(XMLSchema.DOUBLE, "3.5"),
+                new RyaType(XMLSchema.DATETIME, "2000-01-01T00:00:01.111Z"),
+                new RyaType(SimpleValueFactory.getInstance().createIRI("urn:test#customDataType"), "custom")
+        };
+        for (RyaType obj : objects) {
+            final RyaStatement stmt = new RyaStatement(subj, pred, obj, cntxt, "qualifier", null, null, 100l);
+            Map<RdfCloudTripleStoreConstants.TABLE_LAYOUT, TripleRow> serialize = tripleResolver.serialize(stmt);
+            for (RdfCloudTripleStoreConstants.TABLE_LAYOUT layout : RdfCloudTripleStoreConstants.TABLE_LAYOUT.values()) {
+                RyaStatement deserialize = tripleResolver.deserialize(layout, serialize.get(layout));
+                assertEquals(layout + " " + obj, stmt, deserialize);
+                assertEquals(layout + " " + obj, obj.getDataType(), deserialize.getObject().getDataType());
+            }
+        }
+    }
+
+    public void testDeserializeMalformedRow() throws Exception {
+        TripleRow tripleRow = new TripleRow("no delimiters".getBytes(StandardCharsets.UTF_8), null, null);
+        try {
+            tripleResolver.deserialize(RdfCloudTripleStoreConstants.TABLE_LAYOUT.SPO, tripleRow);
+            fail();
+        } catch (TripleRowResolverException e) {
+            // expected
+        }
+    }
 }
@@ -44,11 +44,34 @@ public class AccumuloRdfConfiguration extends RdfCloudTripleStoreConfiguration {
     public static final String CLOUDBASE_PASSWORD = "sc.cloudbase.password";
 
     public static final String MAXRANGES_SCANNER = "ac.query.maxranges";
+    public static final String CONF_PARALLEL_SCAN_MIN_RANGES = "ac.query.parallelscan.minranges";
+    public static final String CONF_PARALLEL_SCAN_ORDERED = "ac.query.parallelscan.ordered";
+    public static final String CONF_PARALLEL_SCAN_BUFFER_SIZE = "ac.query.parallelscan.buffersize";
+    public static final String CONF_PARALLEL_SCAN_THREADS = "ac.query.parallelscan.threads";
+
+    /**
+     * Queries with up to this many ranges are scanned with one scanner per range, which are
+     * read in parallel when there are at least {@link #getParallelScanMinRanges()} of them.
+     * Queries with more ranges use a batch scanner. Raise {@link #MAXRANGES_SCANNER} to scan
+     * more ranges in parallel.
+     */
+    public static final int DEFAULT_MAX_RANGES_FOR_SCANNER = 2;
+
+    public static final String CONF_BULK_BUFFER_SIZE = "ac.bulk.buffersize";
+    public static final String CONF_BULK_EVAL_STATS = "ac.bulk.evalstats";
+    public static final String CONF_BULK_EVAL_STATS_MAX_KEYS = "ac.bulk.evalstats.maxkeys";
+    public static final String CONF_BULK_DIR_PERMISSION = "ac.bulk.dirpermission";
+    public static final String CONF_LOAD_THREADS = "ac.load.threads";
+    public static final String CONF_LOAD_QUEUE_SIZE = "ac.load.queuesize";
 
     public static final String CONF_ADDITIONAL_INDEXERS = "ac.additional.indexers";
 
     public static final String CONF_FLUSH_EACH_UPDATE = "ac.dao.flush";
 
+    public static final String CONF_STATS_CACHE_SIZE = "ac.stats.cache.size";
+    public static final String CONF_STATS_CACHE_TTL_MS = "ac.stats.cache.ttl.ms";
+    public static final String CONF_STATS_NUM_THREADS = "ac.stats.numthreads";
+
     public static final String ITERATOR_SETTINGS_SIZE = "ac.iterators.size";
     public static final String ITERATOR_SETTINGS_BASE = "ac.iterators.%d.";
     public static final String ITERATOR_SETTINGS_NAME = ITERATOR_SETTINGS_BASE + "name";
@@ -307,7 +330,212 @@ public class AccumuloRdfConfiguration extends RdfCloudTripleStoreConfiguration {
     }
 
     public Integer getMaxRangesForScanner() {
-        return getInt(MAXRANGES_SCANNER, 2);
+        return getInt(MAXRANGES_SCANNER, DEFAULT_MAX_RANGES_FOR_SCANNER);
+    }
+
+    /**
+     * @param size - The maximum number of cardinalities the eval stats DAO will cache.
+     *   A size of 0 disables the cache.
+     */
+    public void setStatsCacheSize(long size) {
+        setLong(CONF_STATS_CACHE_SIZE, size);
+    }
+
+    /**
+     * @return The maximum number of cardinalities the eval stats DAO will cache. Defaults to 10,000.
+     */
+    public long getStatsCacheSize() {
+        return getLong(CONF_STATS_CACHE_SIZE, 10000L);
+    }
+
+    /**
+     * @param ttlMillis - How long a cached cardinality may be used before it is looked up again.
+     */
+    public void setStatsCacheTtlMillis(long ttlMillis) {
+        setLong(CONF_STATS_CACHE_TTL_MS, ttlMillis);
+    }
+
+    /**
+     * @return How long a cached cardinality may be used before it is looked up again. Defaults to 5 minutes.
+     */
+    public long getStatsCacheTtlMillis() {
+        return getLong(CONF_STATS_CACHE_TTL_MS, 5L * 60L * 1000L);
+    }
+
+    /**
+     * @param numThreads - The number of query threads used by the eval stats DAO's batch scanner.
+     */
+    public void setStatsNumThreads(int numThreads) {
+        setInt(CONF_STATS_NUM_THREADS, numThreads);
+    }
+
+    /**
+     * @return The number of query threads used by the eval stats DAO's batch scanner. Defaults to 4.
+     */
+    public int getStatsNumThreads() {
+        return getInt(CONF_STATS_NUM_THREADS, 4);
+    }
+
+    /**
+     * @param minRanges - The fewest ranges a query must scan before they are scanned in parallel
+     *   instead of one after another. Queries with more than {@link #getMaxRangesForScanner()}
+     *   ranges still use a batch scanner.
+     */
+    public void setParallelScanMinRanges(int minRanges) {
+        Preconditions.checkArgument(minRanges > 1, "minRanges must be greater than 1");
+        setInt(CONF_PARALLEL_SCAN_MIN_RANGES, minRanges);
+    }
+
+    /**
+     * @return The fewest ranges a query must scan before they are scanned in parallel. Defaults to 2.
+     */
+    public int getParallelScanMinRanges() {
+        return getInt(CONF_PARALLEL_SCAN_MIN_RANGES, 2);
+    }
+
+    /**
+     * @param ordered - {@code true} if ranges that are scanned in parallel must return their
+     *   results in the same order as if they were scanned one after another; {@code false}
+     *   if results may be returned as soon as any range produces them.
+     */
+    public void setParallelScanOrdered(boolean ordered) {
+        setBoolean(CONF_PARALLEL_SCAN_ORDERED, ordered);
+    }
+
+    /**
+     * @return Whether ranges that are scanned in parallel return their results in range order. Defaults to {@code true}.
+     */
+    public boolean isParallelScanOrdered() {
+        return getBoolean(CONF_PARALLEL_SCAN_ORDERED, true);
+    }
+
+    /**
+     * @param bufferSize - How many entries each range that is scanned in parallel may read
+     *   ahead of the consumer before its scan blocks.
+     */
+    public void setParallelScanBufferSize(int bufferSize) {
+        Preconditions.checkArgument(bufferSize > 0, "bufferSize must be greater than 0");
+        setInt(CONF_PARALLEL_SCAN_BUFFER_SIZE, bufferSize);
+    }
+
+    /**
+     * @return How many entries each range that is scanned in parallel may read ahead. Defaults to 1,000.
+     */
+    public int getParallelScanBufferSize() {
+        return getInt(CONF_PARALLEL_SCAN_BUFFER_SIZE, 1000);
+    }
+
+    /**
+     * @param bufferSize - How many statements a bulk load holds in memory before they are
+     *   sorted and written to RFiles.
+     */
+    public void setBulkBufferSize(int bufferSize) {
+        Preconditions.checkArgument(bufferSize > 0, "bufferSize must be greater than 0");
+        setInt(CONF_BULK_BUFFER_SIZE, bufferSize);
+    }
+
+    /**
+     * @return How many statements a bulk load holds in memory before they are written to RFiles. Defaults to 100,000.
+     */
+    public int getBulkBufferSize() {
+        return getInt(CONF_BULK_BUFFER_SIZE, 100000);
+    }
+
+    /**
+     * @param evalStats - {@code true} if a bulk load adds the counts of the statements it loads
+     *   to the eval table; otherwise {@code false}.
+     */
+    public void setBulkEvalStats(boolean evalStats) {
+        setBoolean(CONF_BULK_EVAL_STATS, evalStats);
+    }
+
+    /**
+     * @return Whether a bulk load updates the eval table. Defaults to {@code true}.
+     */
+    public boolean isBulkEvalStats() {
+        return getBoolean(CONF_BULK_EVAL_STATS, true);
+    }
+
+    /**
+     * @param maxKeys - The most distinct subjects and predicates a bulk load counts in memory.
+     *   Subjects and predicates that are first seen after the limit has been reached are not
+     *   counted, so the eval table undercounts them. A warning is logged when that happens.
+     */
+    public void setBulkEvalStatsMaxKeys(int maxKeys) {
+        Preconditions.checkArgument(maxKeys > 0, "maxKeys must be greater than 0");
+        setInt(CONF_BULK_EVAL_STATS_MAX_KEYS, maxKeys);
+    }
+
+    /**
+     * @return The most distinct subjects and predicates a bulk load counts. Defaults to 1,000,000.
+     */
+    public int getBulkEvalStatsMaxKeys() {
+        return getInt(CONF_BULK_EVAL_STATS_MAX_KEYS, 1000000);
+    }
+
+    /**
+     * @param permission - The octal permission, such as 770, of the directories a bulk load
+     *   imports. The Accumulo tablet servers must be able to write to them.
+     */
+    public void setBulkDirPermission(String permission) {
+        Preconditions.checkNotNull(permission);
+        set(CONF_BULK_DIR_PERMISSION, permission);
+    }
+
+    /**
+     * @return The octal permission of the directories a bulk load imports. Defaults to 770,
+     *   which gives the owner and group of the directories full access and other users none.
+     */
+    public String getBulkDirPermission() {
+        return get(CONF_BULK_DIR_PERMISSION, "770");
+    }
+
+    /**
+     * @param threads - How many threads a parallel load uses to convert and write statements.
+     */
+    public void setLoadThreads(int threads) {
+        Preconditions.checkArgument(threads > 0, "threads must be greater than 0");
+        setInt(CONF_LOAD_THREADS, threads);
+    }
+
+    /**
+     * @return How many threads a parallel load uses to convert and write statements.
+     *   Defaults to the number of available processors.
+     */
+    public int getLoadThreads() {
+        return getInt(CONF_LOAD_THREADS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param queueSize - How many batches of parsed statements a parallel load holds
+     *   before its parsers block.
+     */
+    public void setLoadQueueSize(int queueSize) {
+        Preconditions.checkArgument(queueSize > 0, "queueSize must be greater than 0");
+        setInt(CONF_LOAD_QUEUE_SIZE, queueSize);
+    }
+
+    /**
+     * @return How many batches of parsed statements a parallel load holds. Defaults to 16.
+     */
+    public int getLoadQueueSize() {
+        return getInt(CONF_LOAD_QUEUE_SIZE, 16);
+    }
+
+    /**
+     * @param numThreads - The most ranges that are scanned in parallel at the same time, across
+     *   every query that uses the same query engine.
+     */
+    public void setParallelScanThreads(int numThreads) {
+        Preconditions.checkArgument(numThreads > 0, "numThreads must be greater than 0");
+        setInt(CONF_PARALLEL_SCAN_THREADS, numThreads);
+    }
+
+    /**
+     * @return The most ranges that are scanned in parallel at the same time by a query engine. Defaults to 16.
+     */
+    public int getParallelScanThreads() {
+        return getInt(CONF_PARALLEL_SCAN_THREADS, 16);
     }
 
     public void setAdditionalIndexers(Class<? extends AccumuloIndexer>... indexers) {
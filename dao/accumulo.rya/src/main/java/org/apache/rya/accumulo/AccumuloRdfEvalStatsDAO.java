@@ -29,11 +29,18 @@ import static org.apache.rya.api.RdfCloudTripleStoreConstants.SUBJECT_CF_TXT;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.admin.TableOperations;
@@ -43,11 +50,15 @@ import org.apache.accumulo.core.security.Authorizations;
 import org.apache.hadoop.io.Text;
 import org.apache.rya.api.RdfCloudTripleStoreStatement;
 import org.apache.rya.api.layout.TableLayoutStrategy;
+import org.apache.rya.api.persist.CardinalityRequest;
 import org.apache.rya.api.persist.RdfDAOException;
 import org.apache.rya.api.persist.RdfEvalStatsDAO;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * Class AccumuloRdfEvalStatsDAO
  * Date: Feb 28, 2012
@@ -64,6 +75,9 @@ public class AccumuloRdfEvalStatsDAO implements RdfEvalStatsDAO<AccumuloRdfConfi
     //    private String evalTable = TBL_EVAL;
     private TableLayoutStrategy tableLayoutStrategy;
 
+    // Shared by every connection that uses this DAO.
+    private Cache<CacheKey, Double> cache = CacheBuilder.newBuilder().maximumSize(0).build();
+
     @Override
     public void init() throws RdfDAOException {
         try {
@@ -72,6 +86,10 @@ public class AccumuloRdfEvalStatsDAO implements RdfEvalStatsDAO<AccumuloRdfConfi
             }
             checkNotNull(connector);
             tableLayoutStrategy = conf.getTableLayoutStrategy();
+            cache = CacheBuilder.newBuilder()
+                    .maximumSize(conf.getStatsCacheSize())
+                    .expireAfterWrite(conf.getStatsCacheTtlMillis(), TimeUnit.MILLISECONDS)
+                    .build();
 //            evalTable = conf.get(RdfCloudTripleStoreConfiguration.CONF_TBL_EVAL, evalTable);
 //            conf.set(RdfCloudTripleStoreConfiguration.CONF_TBL_EVAL, evalTable);
 
@@ -92,6 +110,7 @@ public class AccumuloRdfEvalStatsDAO implements RdfEvalStatsDAO<AccumuloRdfConfi
         if (!isInitialized()) {
             throw new IllegalStateException("Not initialized");
         }
+        cache.invalidateAll();
         initialized = false;
     }
 
@@ -122,47 +141,184 @@ public class AccumuloRdfEvalStatsDAO implements RdfEvalStatsDAO<AccumuloRdfConfi
     public double getCardinality(final AccumuloRdfConfiguration conf,
             final org.apache.rya.api.persist.RdfEvalStatsDAO.CARDINALITY_OF card, final List<Value> val,
             final Resource context) throws RdfDAOException {
+        final Text cfTxt = getColumnFamily(card);
+        if (cfTxt == null) {
+//            cfTxt = OBJ_CF_TXT;     //TODO: How do we do object cardinality
+            return Double.MAX_VALUE;
+        }
+
+        final Authorizations authorizations = conf.getAuthorizations();
+        final CacheKey cacheKey = new CacheKey(authorizations, new CardinalityRequest(card, val, context));
+        final Double cached = cache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        //default
+        double cardinality = -1;
         try {
-            final Authorizations authorizations = conf.getAuthorizations();
             final Scanner scanner = connector.createScanner(tableLayoutStrategy.getEval(), authorizations);
-            Text cfTxt = null;
-            if (CARDINALITY_OF.SUBJECT.equals(card)) {
-                cfTxt = SUBJECT_CF_TXT;
-            } else if (CARDINALITY_OF.PREDICATE.equals(card)) {
-                cfTxt = PRED_CF_TXT;
-            } else if (CARDINALITY_OF.OBJECT.equals(card)) {
-//                cfTxt = OBJ_CF_TXT;     //TODO: How do we do object cardinality
-                return Double.MAX_VALUE;
-            } else if (CARDINALITY_OF.SUBJECTOBJECT.equals(card)) {
-                cfTxt = SUBJECTOBJECT_CF_TXT;
-            } else if (CARDINALITY_OF.SUBJECTPREDICATE.equals(card)) {
-                cfTxt = SUBJECTPRED_CF_TXT;
-            } else if (CARDINALITY_OF.PREDICATEOBJECT.equals(card)) {
-                cfTxt = PREDOBJECT_CF_TXT;
-            } else {
-                throw new IllegalArgumentException("Not right Cardinality[" + card + "]");
-            }
-            Text cq = EMPTY_TEXT;
-            if (context != null) {
-                cq = new Text(context.stringValue().getBytes(StandardCharsets.UTF_8));
-            }
-            scanner.fetchColumn(cfTxt, cq);
-            final Iterator<Value> vals = val.iterator();
-            String compositeIndex = vals.next().stringValue();
-            while (vals.hasNext()){
-            	compositeIndex += DELIM + vals.next().stringValue();
-            }
-            scanner.setRange(new Range(new Text(compositeIndex.getBytes(StandardCharsets.UTF_8))));
+            scanner.fetchColumn(cfTxt, getColumnQualifier(context));
+            scanner.setRange(new Range(getRow(val)));
             final Iterator<Map.Entry<Key, org.apache.accumulo.core.data.Value>> iter = scanner.iterator();
             if (iter.hasNext()) {
-                return Double.parseDouble(new String(iter.next().getValue().get(), StandardCharsets.UTF_8));
+                cardinality = Double.parseDouble(new String(iter.next().getValue().get(), StandardCharsets.UTF_8));
             }
         } catch (final Exception e) {
             throw new RdfDAOException(e);
         }
 
-        //default
-        return -1;
+        cache.put(cacheKey, cardinality);
+        return cardinality;
+    }
+
+    /**
+     * Resolves every request that is not already cached using a single {@link BatchScanner}
+     * over the eval table.
+     */
+    @Override
+    public Map<CardinalityRequest, Double> getCardinalities(final AccumuloRdfConfiguration conf,
+            final Collection<CardinalityRequest> requests) throws RdfDAOException {
+        final Authorizations authorizations = conf.getAuthorizations();
+        final Map<CardinalityRequest, Double> cardinalities = new HashMap<>();
+
+        // Figure out which requests have to be looked up within the eval table.
+        final Map<List<Text>, CardinalityRequest> pending = new HashMap<>();
+        final Set<Range> ranges = new HashSet<>();
+        final Set<List<Text>> columns = new HashSet<>();
+        for (final CardinalityRequest request : requests) {
+            if (cardinalities.containsKey(request)) {
+                continue;
+            }
+
+            final Text cfTxt = getColumnFamily(request.getCard());
+            if (cfTxt == null) {
+                cardinalities.put(request, Double.MAX_VALUE);
+                continue;
+            }
+
+            final Double cached = cache.getIfPresent(new CacheKey(authorizations, request));
+            if (cached != null) {
+                cardinalities.put(request, cached);
+                continue;
+            }
+
+            final Text row = getRow(request.getValues());
+            final Text cq = getColumnQualifier(request.getContext());
+            pending.put(Arrays.asList(row, cfTxt, cq), request);
+            ranges.add(new Range(row));
+            columns.add(Arrays.asList(cfTxt, cq));
+            cardinalities.put(request, -1.0);
+        }
+
+        if (!pending.isEmpty()) {
+            BatchScanner scanner = null;
+            try {
+                scanner = connector.createBatchScanner(tableLayoutStrategy.getEval(), authorizations, conf.getStatsNumThreads());
+                for (final List<Text> column : columns) {
+                    scanner.fetchColumn(column.get(0), column.get(1));
+                }
+                scanner.setRanges(ranges);
+
+                for (final Map.Entry<Key, org.apache.accumulo.core.data.Value> entry : scanner) {
+                    final Key key = entry.getKey();
+                    final CardinalityRequest request = pending.get(
+                            Arrays.asList(key.getRow(), key.getColumnFamily(), key.getColumnQualifier()));
+                    // The fetched columns are a cross product, so some entries may not have been asked for.
+                    if (request != null && cardinalities.get(request) < 0) {
+                        cardinalities.put(request, Double.parseDouble(new String(entry.getValue().get(), StandardCharsets.UTF_8)));
+                    }
+                }
+            } catch (final Exception e) {
+                throw new RdfDAOException(e);
+            } finally {
+                if (scanner != null) {
+                    scanner.close();
+                }
+            }
+
+            for (final CardinalityRequest request : pending.values()) {
+                cache.put(new CacheKey(authorizations, request), cardinalities.get(request));
+            }
+        }
+
+        return cardinalities;
+    }
+
+    /**
+     * Discards every cached cardinality so that the next lookups read the eval table.
+     */
+    public void invalidateCache() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @param card - The kind of cardinality that is being looked up. (not null)
+     * @return The column family the cardinality is stored under, or {@code null}
+     *   if that kind of cardinality is not stored within the eval table.
+     */
+    private static Text getColumnFamily(final CARDINALITY_OF card) {
+        if (CARDINALITY_OF.SUBJECT.equals(card)) {
+            return SUBJECT_CF_TXT;
+        } else if (CARDINALITY_OF.PREDICATE.equals(card)) {
+            return PRED_CF_TXT;
+        } else if (CARDINALITY_OF.OBJECT.equals(card)) {
+            return null;
+        } else if (CARDINALITY_OF.SUBJECTOBJECT.equals(card)) {
+            return SUBJECTOBJECT_CF_TXT;
+        } else if (CARDINALITY_OF.SUBJECTPREDICATE.equals(card)) {
+            return SUBJECTPRED_CF_TXT;
+        } else if (CARDINALITY_OF.PREDICATEOBJECT.equals(card)) {
+            return PREDOBJECT_CF_TXT;
+        }
+        throw new IllegalArgumentException("Not right Cardinality[" + card + "]");
+    }
+
+    private static Text getColumnQualifier(final Resource context) {
+        if (context != null) {
+            return new Text(context.stringValue().getBytes(StandardCharsets.UTF_8));
+        }
+        return EMPTY_TEXT;
+    }
+
+    private static Text getRow(final List<Value> val) {
+        final Iterator<Value> vals = val.iterator();
+        final StringBuilder compositeIndex = new StringBuilder(vals.next().stringValue());
+        while (vals.hasNext()) {
+            compositeIndex.append(DELIM).append(vals.next().stringValue());
+        }
+        return new Text(compositeIndex.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cached cardinalities are scoped to the authorizations that were used to read them.
+     */
+    private static final class CacheKey {
+        private final Authorizations authorizations;
+        private final CardinalityRequest request;
+
+        public CacheKey(final Authorizations authorizations, final CardinalityRequest request) {
+            this.authorizations = authorizations;
+            this.request = request;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(authorizations, request);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o instanceof CacheKey) {
+                final CacheKey other = (CacheKey) o;
+                return Objects.equals(authorizations, other.authorizations) &&
+                        Objects.equals(request, other.request);
+            }
+            return false;
+        }
     }
 
     @Override
@@ -310,6 +310,11 @@ public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaName
                 logger.warn("Failed to destroy indexer", e);
             }
         }
+        try {
+            queryEngine.close();
+        } catch (final IOException e) {
+            logger.warn("Failed to close the query engine", e);
+        }
     }
 
     @Override
@@ -0,0 +1,442 @@
+package org.apache.rya.accumulo.bulk;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.TableExistsException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.system.MultiIterator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.AccumuloRdfConstants;
+import org.apache.rya.accumulo.AccumuloRdfUtils;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.layout.TableLayoutStrategy;
+import org.apache.rya.api.resolver.RdfToRyaConversions;
+import org.apache.rya.api.resolver.RyaTripleContext;
+import org.apache.rya.api.resolver.triple.TripleRow;
+import org.apache.rya.api.resolver.triple.TripleRowResolverException;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Loads statements into a Rya instance by writing them to sorted RFiles and bulk importing
+ * the files into the SPO, PO, and OSP tables instead of writing them through batch writers.
+ * This does not need a MapReduce cluster, so it may be used to load large files from a
+ * single process.
+ * <p>
+ * Statements are held in memory until {@link AccumuloRdfConfiguration#getBulkBufferSize()}
+ * of them have been added. The buffer is then sorted and written as one RFile per table.
+ * The files of one import may overlap, so the size of a load is limited by disk space
+ * instead of memory. The files are imported when the loader is closed.
+ * <p>
+ * When {@link AccumuloRdfConfiguration#isBulkEvalStats()} is set, the subjects and predicates
+ * of the loaded statements are counted and merged into the eval table. See {@link EvalStatsMerger}.
+ * They are counted when the loader is closed by reading the SPO files back in sorted order, so
+ * a statement that was added more than once is only counted once, and statements that are
+ * already stored in the SPO table are not counted again. At most {@link AccumuloRdfConfiguration#getBulkEvalStatsMaxKeys()} distinct subjects and
+ * predicates are counted. Those that are first seen after the limit has been reached are not
+ * counted at all, so their cardinalities in the eval table are too low, and a warning that says
+ * how many occurrences were skipped is logged when the loader is closed.
+ * <p>
+ * Secondary indexes, such as the free text, temporal, and entity indexes, are not updated.
+ * <p>
+ * This class is not thread safe.
+ */
+@DefaultAnnotation(NonNull.class)
+public class AccumuloRyaBulkLoader implements Closeable {
+    private static final Log logger = LogFactory.getLog(AccumuloRyaBulkLoader.class);
+
+    private static final TABLE_LAYOUT[] LAYOUTS = { TABLE_LAYOUT.SPO, TABLE_LAYOUT.PO, TABLE_LAYOUT.OSP };
+
+    private final Connector connector;
+    private final AccumuloRdfConfiguration conf;
+    private final FileSystem fs;
+    private final Path loadDir;
+    private final RyaTripleContext ryaContext;
+
+    /**
+     * The number of loaded statements that are looked up in the SPO table at a time.
+     */
+    private static final int STORED_BATCH_SIZE = 10000;
+
+    private final Map<TABLE_LAYOUT, String> tables = new EnumMap<>(TABLE_LAYOUT.class);
+    private final String evalTable;
+
+    private final int bufferSize;
+    private final Map<TABLE_LAYOUT, List<Entry<Key, Value>>> buffers = new EnumMap<>(TABLE_LAYOUT.class);
+    private int buffered = 0;
+    private int fileCount = 0;
+    private long statementCount = 0;
+
+    private final boolean evalStats;
+    private final int maxEvalKeys;
+    private final Map<Key, Long> evalCounts = new HashMap<>();
+    private long uncountedKeys = 0;
+
+    private boolean closed = false;
+
+    /**
+     * Constructs an instance of {@link AccumuloRyaBulkLoader}.
+     *
+     * @param connector - Connects to the Accumulo instance that hosts the Rya instance. (not null)
+     * @param conf - The configuration of the Rya instance the statements are loaded into. (not null)
+     * @param fs - The file system the RFiles are written to. The Accumulo tablet servers must
+     *   be able to read it, so this is usually the HDFS that Accumulo uses. (not null)
+     * @param workDir - A directory on {@code fs} the RFiles are written beneath. Each loader uses
+     *   its own subdirectory, which is deleted once its files have been imported. (not null)
+     * @throws IOException The work directory could not be created.
+     */
+    public AccumuloRyaBulkLoader(final Connector connector, final AccumuloRdfConfiguration conf, final FileSystem fs, final Path workDir) throws IOException {
+        this.connector = requireNonNull(connector);
+        this.conf = requireNonNull(conf);
+        this.fs = requireNonNull(fs);
+        requireNonNull(workDir);
+
+        ryaContext = RyaTripleContext.getInstance(conf);
+        final TableLayoutStrategy layoutStrategy = conf.getTableLayoutStrategy();
+        tables.put(TABLE_LAYOUT.SPO, layoutStrategy.getSpo());
+        tables.put(TABLE_LAYOUT.PO, layoutStrategy.getPo());
+        tables.put(TABLE_LAYOUT.OSP, layoutStrategy.getOsp());
+        evalTable = layoutStrategy.getEval();
+
+        bufferSize = conf.getBulkBufferSize();
+        for (final TABLE_LAYOUT layout : LAYOUTS) {
+            buffers.put(layout, new ArrayList<>());
+        }
+        evalStats = conf.isBulkEvalStats();
+        maxEvalKeys = conf.getBulkEvalStatsMaxKeys();
+
+        loadDir = new Path(workDir, "rya-bulk-" + UUID.randomUUID());
+        if (!fs.mkdirs(loadDir)) {
+            throw new IOException("Could not create the bulk load directory " + loadDir + ".");
+        }
+    }
+
+    /**
+     * @return The number of statements that have been added to this loader.
+     */
+    public long getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * Adds a statement to the load.
+     *
+     * @param statement - The statement that will be loaded. (not null)
+     * @throws IOException The statement could not be serialized or the buffer could not be written.
+     */
+    public void addStatement(final RyaStatement statement) throws IOException {
+        requireNonNull(statement);
+        checkNotClosed();
+
+        final Map<TABLE_LAYOUT, TripleRow> rows;
+        try {
+            rows = ryaContext.serializeTriple(statement);
+        } catch (final TripleRowResolverException e) {
+            throw new IOException("Could not serialize the statement " + statement + ".", e);
+        }
+
+        for (final TABLE_LAYOUT layout : LAYOUTS) {
+            final TripleRow row = rows.get(layout);
+            buffers.get(layout).add(new SimpleImmutableEntry<>(AccumuloRdfUtils.from(row), AccumuloRdfUtils.extractValue(row)));
+        }
+
+        statementCount++;
+        if (++buffered >= bufferSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Counts the subjects and predicates of the statements that are new to the Rya instance.
+     * The SPO files that have been written are merged in sorted order, so copies of the same
+     * statement are next to each other no matter which buffer they were added to.
+     */
+    private void countNewStatements(final EvalStatsMerger merger) throws IOException, TableNotFoundException {
+        final Path filesDir = new Path(new Path(loadDir, tables.get(TABLE_LAYOUT.SPO)), BulkImport.FILES_DIR);
+        if (!fs.exists(filesDir)) {
+            return;
+        }
+
+        final List<FileSKVIterator> readers = new ArrayList<>();
+        try {
+            for (final FileStatus file : fs.listStatus(filesDir)) {
+                readers.add(FileOperations.getInstance().openReader(file.getPath().toString(), true, fs, fs.getConf(),
+                        AccumuloConfiguration.getDefaultConfiguration()));
+            }
+
+            final MultiIterator spo = new MultiIterator(new ArrayList<SortedKeyValueIterator<Key, Value>>(readers), false);
+            spo.seek(new Range(), Collections.emptySet(), false);
+
+            final List<Key> batch = new ArrayList<>(STORED_BATCH_SIZE);
+            Key last = null;
+            while (spo.hasTop()) {
+                final Key key = spo.getTopKey();
+                if (last == null || !key.equals(last, PartialKey.ROW_COLFAM_COLQUAL_COLVIS)) {
+                    last = new Key(key);
+                    batch.add(last);
+                    if (batch.size() >= STORED_BATCH_SIZE) {
+                        countNewStatements(merger, batch);
+                        batch.clear();
+                    }
+                }
+                spo.next();
+            }
+            countNewStatements(merger, batch);
+        } finally {
+            for (final FileSKVIterator reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private void countNewStatements(final EvalStatsMerger merger, final List<Key> spoKeys) throws IOException, TableNotFoundException {
+        final Set<Key> stored = merger.findStored(tables.get(TABLE_LAYOUT.SPO), spoKeys);
+        for (final Key key : spoKeys) {
+            if (stored.contains(key)) {
+                continue;
+            }
+
+            final RyaStatement statement;
+            try {
+                statement = ryaContext.deserializeTriple(TABLE_LAYOUT.SPO, new TripleRow(key.getRowData().toArray(),
+                        key.getColumnFamilyData().toArray(), key.getColumnQualifierData().toArray(), key.getTimestamp(),
+                        key.getColumnVisibilityData().toArray(), null));
+            } catch (final TripleRowResolverException e) {
+                throw new IOException("Could not read the statement of the SPO entry " + key + ".", e);
+            }
+            count(EvalStatsMerger.subjectKey(statement));
+            count(EvalStatsMerger.predicateKey(statement));
+        }
+    }
+
+    private void count(final Key key) {
+        final Long count = evalCounts.get(key);
+        if (count != null) {
+            evalCounts.put(key, count + 1);
+        } else if (evalCounts.size() < maxEvalKeys) {
+            evalCounts.put(key, 1L);
+        } else {
+            uncountedKeys++;
+        }
+    }
+
+    /**
+     * Parses RDF and adds each of its statements to the load.
+     *
+     * @param in - The RDF that will be parsed. It is not closed. (not null)
+     * @param format - The format of the RDF. (not null)
+     * @return The number of statements that were added.
+     * @throws IOException The RDF could not be read or the buffer could not be written.
+     * @throws RDFParseException The RDF could not be parsed.
+     */
+    public long loadStatements(final InputStream in, final RDFFormat format) throws IOException, RDFParseException {
+        requireNonNull(in);
+        requireNonNull(format);
+        checkNotClosed();
+
+        final long start = statementCount;
+        final RDFParser parser = Rio.createParser(format);
+        parser.setRDFHandler(new AbstractRDFHandler() {
+            @Override
+            public void handleStatement(final Statement statement) throws RDFHandlerException {
+                try {
+                    addStatement(RdfToRyaConversions.convertStatement(statement));
+                } catch (final IOException e) {
+                    throw new RDFHandlerException(e);
+                }
+            }
+        });
+
+        try {
+            parser.parse(in, "");
+        } catch (final RDFHandlerException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e);
+        }
+        return statementCount - start;
+    }
+
+    /**
+     * Sorts the statements that are held in memory and writes them to one RFile per table.
+     *
+     * @throws IOException The files could not be written.
+     */
+    public void flush() throws IOException {
+        checkNotClosed();
+        if (buffered == 0) {
+            return;
+        }
+
+        final String fileName = String.format("part-%05d", fileCount++);
+        for (final TABLE_LAYOUT layout : LAYOUTS) {
+            final List<Entry<Key, Value>> buffer = buffers.get(layout);
+            buffer.sort(Entry.comparingByKey());
+            writeFile(tables.get(layout), fileName, buffer);
+            buffer.clear();
+        }
+        buffered = 0;
+    }
+
+    private void writeFile(final String table, final String fileName, final List<Entry<Key, Value>> sorted) throws IOException {
+        final Path file = new Path(new Path(new Path(loadDir, table), BulkImport.FILES_DIR), fileName);
+        final FileSKVWriter writer = BulkImport.openWriter(fs, file);
+        try {
+            Key last = null;
+            for (final Entry<Key, Value> entry : sorted) {
+                // The same statement may have been added more than once.
+                if (!entry.getKey().equals(last)) {
+                    writer.append(entry.getKey(), entry.getValue());
+                    last = entry.getKey();
+                }
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes the statements that are still held in memory and imports every file that has been
+     * written into the Rya instance's tables. The work directory is deleted once the files have
+     * been imported. If the import fails, it is left in place so that the files may be inspected.
+     *
+     * @throws IOException The files could not be written or imported.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        flush();
+        closed = true;
+
+        try {
+            createTables();
+
+            if (evalStats) {
+                final EvalStatsMerger merger = new EvalStatsMerger(connector, evalTable, conf.getAuthorizations(), conf.getStatsNumThreads());
+                countNewStatements(merger);
+                if (uncountedKeys > 0) {
+                    logger.warn("More than " + maxEvalKeys + " distinct subjects and predicates were loaded, so " +
+                            uncountedKeys + " occurrence(s) of the ones seen after the first " + maxEvalKeys +
+                            " were not counted and the eval table undercounts them. Increase " +
+                            AccumuloRdfConfiguration.CONF_BULK_EVAL_STATS_MAX_KEYS + " to count them.");
+                }
+                if (!evalCounts.isEmpty()) {
+                    final List<Entry<Key, Value>> entries = merger.merge(new TreeMap<>(evalCounts), AccumuloRdfConstants.EMPTY_CV, System.currentTimeMillis());
+                    evalCounts.clear();
+                    if (!entries.isEmpty()) {
+                        writeFile(evalTable, "part-00000", entries);
+                    }
+                }
+            }
+        } catch (AccumuloException | AccumuloSecurityException | TableExistsException | TableNotFoundException e) {
+            throw new IOException("Could not prepare the tables of the Rya instance for the bulk load.", e);
+        }
+
+        for (final TABLE_LAYOUT layout : LAYOUTS) {
+            importTable(tables.get(layout));
+        }
+        importTable(evalTable);
+
+        fs.delete(loadDir, true);
+        logger.info("Bulk loaded " + statementCount + " statement(s) from " + fileCount + " file(s) per table.");
+    }
+
+    /**
+     * Deletes the files that have been written without importing them. The loader may not be used afterwards.
+     *
+     * @throws IOException The work directory could not be deleted.
+     */
+    public void discard() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        fs.delete(loadDir, true);
+    }
+
+    private void createTables() throws AccumuloException, AccumuloSecurityException, TableExistsException {
+        for (final TABLE_LAYOUT layout : LAYOUTS) {
+            AccumuloRdfUtils.createTableIfNotExist(connector.tableOperations(), tables.get(layout));
+        }
+        if (evalStats) {
+            AccumuloRdfUtils.createTableIfNotExist(connector.tableOperations(), evalTable);
+        }
+    }
+
+    private void importTable(final String table) throws IOException {
+        final Path tableDir = new Path(loadDir, table);
+        if (fs.exists(new Path(tableDir, BulkImport.FILES_DIR))) {
+            BulkImport.importDirectory(connector, fs, table, tableDir, BulkImport.getDirPermission(conf));
+        }
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("The bulk loader has been closed.");
+        }
+    }
+}
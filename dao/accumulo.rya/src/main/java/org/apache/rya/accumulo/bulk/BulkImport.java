@@ -0,0 +1,163 @@
+package org.apache.rya.accumulo.bulk;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsAction;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Utilities for writing RFiles and bulk importing them into Accumulo tables.
+ * <p>
+ * The files that are imported into a table are kept in a directory named {@link #FILES_DIR}
+ * and the files Accumulo could not import are moved into a sibling directory named
+ * {@link #FAILURES_DIR}. The Accumulo tablet servers move the files out of these directories,
+ * so they are given the permission {@link AccumuloRdfConfiguration#CONF_BULK_DIR_PERMISSION}
+ * before they are imported. It defaults to {@link #DEFAULT_DIR_PERMISSION}, which only lets the
+ * owner and group of the directories use them, so the user that loads the files and the user the
+ * tablet servers run as must share a group.
+ */
+@DefaultAnnotation(NonNull.class)
+public final class BulkImport {
+
+    /**
+     * The name of the directory that holds the RFiles that will be imported into a table.
+     */
+    public static final String FILES_DIR = "files";
+
+    /**
+     * The name of the directory Accumulo moves the RFiles it could not import into.
+     */
+    public static final String FAILURES_DIR = "failures";
+
+    /**
+     * The permission of the directories that are imported when none is configured.
+     */
+    public static final FsPermission DEFAULT_DIR_PERMISSION = new FsPermission(FsAction.ALL, FsAction.ALL, FsAction.NONE);
+
+    private BulkImport() {
+        // Static utilities only.
+    }
+
+    /**
+     * Opens a writer that creates an RFile. Entries must be appended in sorted order.
+     *
+     * @param fs - The file system the file is written to. (not null)
+     * @param file - The path of the file. The RFile extension is appended if it is missing. (not null)
+     * @return A writer whose default locality group has been started.
+     * @throws IOException The file could not be created.
+     */
+    public static FileSKVWriter openWriter(final FileSystem fs, final Path file) throws IOException {
+        requireNonNull(fs);
+        requireNonNull(file);
+
+        String name = file.toString();
+        if (!name.endsWith("." + RFile.EXTENSION)) {
+            name += "." + RFile.EXTENSION;
+        }
+
+        final FileSKVWriter writer = FileOperations.getInstance().openWriter(name, fs, fs.getConf(), AccumuloConfiguration.getDefaultConfiguration());
+        writer.startDefaultLocalityGroup();
+        return writer;
+    }
+
+    /**
+     * Reads {@link AccumuloRdfConfiguration#CONF_BULK_DIR_PERMISSION} from a configuration.
+     *
+     * @param conf - The configuration of the load. (not null)
+     * @return The permission the directories that are imported are given.
+     * @throws IllegalArgumentException The configured permission is not an octal number.
+     */
+    public static FsPermission getDirPermission(final Configuration conf) {
+        requireNonNull(conf);
+        final String permission = conf.get(AccumuloRdfConfiguration.CONF_BULK_DIR_PERMISSION);
+        if (permission == null) {
+            return DEFAULT_DIR_PERMISSION;
+        }
+        try {
+            return new FsPermission(Short.parseShort(permission.trim(), 8));
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(AccumuloRdfConfiguration.CONF_BULK_DIR_PERMISSION +
+                    " must be an octal permission, such as 770, but was " + permission + ".", e);
+        }
+    }
+
+    /**
+     * Imports the RFiles that are in the {@link #FILES_DIR} directory of {@code tableDir} into a table.
+     * The files keep the timestamps they were written with.
+     *
+     * @param connector - The connector used to import the files. (not null)
+     * @param fs - The file system that holds the files. The Accumulo tablet servers must
+     *   be able to read it. (not null)
+     * @param table - The name of the table the files are imported into. (not null)
+     * @param tableDir - The directory that holds the {@link #FILES_DIR} directory. (not null)
+     * @param permission - The permission {@code tableDir} and the directories beneath it are given
+     *   so that the tablet servers can move the files. (not null)
+     * @throws IOException The files could not be imported or some of them were rejected.
+     */
+    public static void importDirectory(final Connector connector, final FileSystem fs, final String table, final Path tableDir,
+            final FsPermission permission) throws IOException {
+        requireNonNull(connector);
+        requireNonNull(fs);
+        requireNonNull(table);
+        requireNonNull(tableDir);
+        requireNonNull(permission);
+
+        final Path files = new Path(tableDir, FILES_DIR);
+        final Path failures = new Path(tableDir, FAILURES_DIR);
+        fs.mkdirs(failures);
+
+        // The tablet servers move the imported files, so they need to be able to write to both directories.
+        fs.setPermission(tableDir, permission);
+        fs.setPermission(files, permission);
+        fs.setPermission(failures, permission);
+
+        try {
+            connector.tableOperations().importDirectory(table, files.toString(), failures.toString(), false);
+        } catch (TableNotFoundException | AccumuloException | AccumuloSecurityException e) {
+            throw new IOException("Could not import the files in " + files + " into the table " + table + ".", e);
+        }
+
+        final FileStatus[] failed = fs.listStatus(failures);
+        if (failed.length > 0) {
+            throw new IOException(failed.length + " file(s) could not be imported into the table " + table +
+                    ". They were moved to " + failures + ".");
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.apache.rya.accumulo.bulk;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.EMPTY_TEXT;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.Text;
+import org.apache.rya.api.RdfCloudTripleStoreConstants;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaURI;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Builds the entries a bulk load writes to the eval table. Subjects and predicates are
+ * counted the same way the count tool counts them: the row is the value, the column family
+ * is {@link RdfCloudTripleStoreConstants#SUBJECT_CF} or {@link RdfCloudTripleStoreConstants#PRED_CF},
+ * and the column qualifier is the context, if there is one.
+ * <p>
+ * The eval table does not have a combiner, so an imported count replaces the count that was
+ * stored before it. The counts that are already stored are looked up and added to the counts
+ * of the loaded statements before they are written. For the totals to be right, a statement
+ * must only be counted once, and only if it is not stored yet. See {@link #findStored(String, Collection)}.
+ */
+@DefaultAnnotation(NonNull.class)
+public class EvalStatsMerger {
+
+    /**
+     * Totals that are not greater than this are not written to the eval table.
+     */
+    public static final long TOO_LOW = 10;
+
+    private final Connector connector;
+    private final String evalTable;
+    private final Authorizations authorizations;
+    private final int numThreads;
+
+    /**
+     * Constructs an instance of {@link EvalStatsMerger}.
+     *
+     * @param connector - Reads the counts that are already stored. (not null)
+     * @param evalTable - The name of the eval table. (not null)
+     * @param authorizations - The authorizations used to read the stored counts. (not null)
+     * @param numThreads - The number of threads used to read the stored counts.
+     */
+    public EvalStatsMerger(final Connector connector, final String evalTable, final Authorizations authorizations, final int numThreads) {
+        this.connector = requireNonNull(connector);
+        this.evalTable = requireNonNull(evalTable);
+        this.authorizations = requireNonNull(authorizations);
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * @param statement - The statement whose subject is counted. (not null)
+     * @return The key the statement's subject is counted under.
+     */
+    public static Key subjectKey(final RyaStatement statement) {
+        return createKey(statement.getSubject().getData(), RdfCloudTripleStoreConstants.SUBJECT_CF, statement.getContext());
+    }
+
+    /**
+     * @param statement - The statement whose predicate is counted. (not null)
+     * @return The key the statement's predicate is counted under.
+     */
+    public static Key predicateKey(final RyaStatement statement) {
+        return createKey(statement.getPredicate().getData(), RdfCloudTripleStoreConstants.PRED_CF, statement.getContext());
+    }
+
+    private static Key createKey(final String value, final String columnFamily, @Nullable final RyaURI context) {
+        final Text columnQualifier = context == null ? EMPTY_TEXT : new Text(context.getData());
+        return new Key(new Text(value), new Text(columnFamily), columnQualifier);
+    }
+
+    /**
+     * Finds which of the entries that will be loaded into a triple table are already stored.
+     * Statements that are loaded again do not change the table, so they must not be counted.
+     * Entries that the authorizations this merger reads with cannot see are not found.
+     *
+     * @param table - The name of the triple table that is checked, usually the SPO table. (not null)
+     * @param keys - The keys of the entries that will be loaded. (not null)
+     * @return The keys whose row, column, and visibility are already stored in the table.
+     * @throws TableNotFoundException The table does not exist.
+     */
+    public Set<Key> findStored(final String table, final Collection<Key> keys) throws TableNotFoundException {
+        requireNonNull(table);
+        requireNonNull(keys);
+
+        final Set<Key> stored = new HashSet<>();
+        if (keys.isEmpty()) {
+            return stored;
+        }
+
+        // Timestamps are ignored, so a statement is found no matter when it was stored.
+        final Map<Key, Key> loaded = new HashMap<>();
+        final List<Range> ranges = new ArrayList<>(keys.size());
+        for (final Key key : keys) {
+            loaded.put(withoutTimestamp(key), key);
+            ranges.add(Range.exact(key.getRow(), key.getColumnFamily(), key.getColumnQualifier(), key.getColumnVisibility()));
+        }
+
+        final BatchScanner scanner = connector.createBatchScanner(table, authorizations, numThreads);
+        try {
+            scanner.setRanges(ranges);
+            for (final Entry<Key, Value> entry : scanner) {
+                final Key key = loaded.get(withoutTimestamp(entry.getKey()));
+                if (key != null) {
+                    stored.add(key);
+                }
+            }
+        } finally {
+            scanner.close();
+        }
+        return stored;
+    }
+
+    private static Key withoutTimestamp(final Key key) {
+        return new Key(key.getRow(), key.getColumnFamily(), key.getColumnQualifier(), key.getColumnVisibility());
+    }
+
+    /**
+     * Adds the counts that are stored in the eval table to the counts of newly loaded statements.
+     *
+     * @param counts - The keys created by {@link #subjectKey(RyaStatement)} and
+     *   {@link #predicateKey(RyaStatement)} mapped to how many times they were loaded. (not null)
+     * @param visibility - The visibility of the entries that are created. (not null)
+     * @param timestamp - The timestamp of the entries that are created. It must be newer than
+     *   the timestamps of the counts that are stored.
+     * @return The eval table entries in sorted order. Totals that are not greater than
+     *   {@link #TOO_LOW} are left out.
+     * @throws TableNotFoundException The eval table does not exist.
+     */
+    public List<Entry<Key, Value>> merge(final SortedMap<Key, Long> counts, final ColumnVisibility visibility, final long timestamp) throws TableNotFoundException {
+        requireNonNull(counts);
+        requireNonNull(visibility);
+
+        final Map<Key, Long> stored = new HashMap<>();
+        if (!counts.isEmpty()) {
+            final List<Range> ranges = new ArrayList<>(counts.size());
+            for (final Key key : counts.keySet()) {
+                ranges.add(Range.exact(key.getRow(), key.getColumnFamily(), key.getColumnQualifier()));
+            }
+
+            final BatchScanner scanner = connector.createBatchScanner(evalTable, authorizations, numThreads);
+            try {
+                scanner.setRanges(ranges);
+                for (final Entry<Key, Value> entry : scanner) {
+                    final Key key = entry.getKey();
+                    final long count = (long) Double.parseDouble(new String(entry.getValue().get(), StandardCharsets.UTF_8));
+                    stored.putIfAbsent(new Key(key.getRow(), key.getColumnFamily(), key.getColumnQualifier()), count);
+                }
+            } finally {
+                scanner.close();
+            }
+        }
+
+        final List<Entry<Key, Value>> entries = new ArrayList<>(counts.size());
+        for (final Entry<Key, Long> count : counts.entrySet()) {
+            final Key key = count.getKey();
+            final Long storedCount = stored.get(key);
+            final long total = count.getValue() + (storedCount == null ? 0 : storedCount);
+            if (total > TOO_LOW) {
+                final Key entryKey = new Key(key.getRow(), key.getColumnFamily(), key.getColumnQualifier(), visibility, timestamp);
+                entries.add(new SimpleImmutableEntry<>(entryKey, new Value(Long.toString(total).getBytes(StandardCharsets.UTF_8))));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,618 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo.load;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.MultiTableBatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableExistsException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.Text;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.AccumuloRdfUtils;
+import org.apache.rya.accumulo.RyaTableMutationsFactory;
+import org.apache.rya.accumulo.experimental.AccumuloIndexer;
+import org.apache.rya.api.RdfCloudTripleStoreConstants;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.StatementMetadata;
+import org.apache.rya.api.layout.TableLayoutStrategy;
+import org.apache.rya.api.resolver.RdfToRyaConversions;
+import org.apache.rya.api.resolver.RyaTripleContext;
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+import org.eclipse.rdf4j.rio.helpers.BasicParserSettings;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Loads RDF files into a Rya instance using several threads. Files are parsed
+ * by a dedicated thread that hands batches of statements to a pool of workers
+ * through a bounded queue. The workers convert the statements, serialize them
+ * into the rows of the SPO, PO, and OSP tables, and write them through a shared
+ * {@link MultiTableBatchWriter}. Parsing blocks when the queue is full, so memory
+ * use does not grow with the size of the file.
+ * <p>
+ * Each line of an N-Triples or N-Quads file is self-contained, so those files are
+ * split into one chunk per worker at line boundaries and the chunks are parsed in
+ * parallel. Blank node labels are preserved so that the same label in two chunks
+ * is still the same node, and they are prefixed with an ID that is unique to each
+ * call to {@link #load(Path, RDFFormat)} so that the same label in two files, or
+ * in the same file loaded twice, is not merged into one node.
+ * <p>
+ * The secondary indexers that are configured by
+ * {@link AccumuloRdfConfiguration#getAdditionalIndexers()} are given every statement,
+ * the same as {@link org.apache.rya.accumulo.AccumuloRyaDAO} does. The indexers are
+ * not required to be thread safe, so only one batch is indexed at a time.
+ * <p>
+ * Progress is logged while a file is loaded and may be read with {@link #getProgress()}.
+ * <p>
+ * This class is not thread safe; load one file at a time.
+ */
+@DefaultAnnotation(NonNull.class)
+public class AccumuloParallelStatementLoader implements Closeable {
+    private static final Log logger = LogFactory.getLog(AccumuloParallelStatementLoader.class);
+
+    /**
+     * The number of statements that are handed from a parser to the workers at a time.
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * N-Triples and N-Quads files that are smaller than this are parsed by one thread.
+     */
+    private static final long MIN_CHUNK_BYTES = 16 * 1024 * 1024;
+
+    private static final long PROGRESS_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private static final List<Statement> END_OF_INPUT = Collections.emptyList();
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private final Connector connector;
+    private final AccumuloRdfConfiguration conf;
+    private final int threads;
+    private final int queueSize;
+    private final byte[] cv;
+
+    private final MultiTableBatchWriter writer;
+    private final BatchWriter spoWriter;
+    private final BatchWriter poWriter;
+    private final BatchWriter ospWriter;
+    private final BatchWriter nsWriter;
+    private final String nsTable;
+    private final List<AccumuloIndexer> indexers;
+    private final Set<String> namespaces = Collections.synchronizedSet(new HashSet<>());
+
+    private final AtomicLong statementCount = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private volatile long startMillis = System.currentTimeMillis();
+
+    private long minChunkBytes = MIN_CHUNK_BYTES;
+
+    /**
+     * Constructs an instance of {@link AccumuloParallelStatementLoader}.
+     *
+     * @param connector - Connects to the Accumulo instance that hosts the Rya instance. (not null)
+     * @param conf - The configuration of the Rya instance the statements are loaded into. It
+     *   determines the number of threads, the size of the queue, and the secondary indexers. (not null)
+     * @throws AccumuloException The tables could not be created or the indexers could not be initialized.
+     * @throws AccumuloSecurityException The user may not create or write to the tables.
+     */
+    public AccumuloParallelStatementLoader(final Connector connector, final AccumuloRdfConfiguration conf) throws AccumuloException, AccumuloSecurityException {
+        this.connector = requireNonNull(connector);
+        this.conf = requireNonNull(conf);
+        threads = conf.getLoadThreads();
+        queueSize = conf.getLoadQueueSize();
+        cv = conf.getCv() == null ? null : conf.getCv().getBytes(StandardCharsets.UTF_8);
+
+        final TableLayoutStrategy layout = conf.getTableLayoutStrategy();
+        nsTable = layout.getNs();
+        try {
+            for (final String table : new String[] { layout.getSpo(), layout.getPo(), layout.getOsp(), nsTable }) {
+                AccumuloRdfUtils.createTableIfNotExist(connector.tableOperations(), table);
+            }
+
+            writer = connector.createMultiTableBatchWriter(new BatchWriterConfig().setMaxWriteThreads(threads));
+            spoWriter = writer.getBatchWriter(layout.getSpo());
+            poWriter = writer.getBatchWriter(layout.getPo());
+            ospWriter = writer.getBatchWriter(layout.getOsp());
+            nsWriter = writer.getBatchWriter(nsTable);
+        } catch (final TableExistsException | TableNotFoundException e) {
+            throw new AccumuloException("Could not prepare the tables of the Rya instance.", e);
+        }
+
+        indexers = conf.getAdditionalIndexers();
+        try {
+            for (final AccumuloIndexer indexer : indexers) {
+                indexer.setConf(conf);
+                indexer.setConnector(connector);
+                indexer.setMultiTableBatchWriter(writer);
+                indexer.init();
+            }
+        } catch (final IOException e) {
+            throw new AccumuloException("Could not initialize the secondary indexers.", e);
+        }
+    }
+
+    /**
+     * Parses a file and loads its statements. The statements have been handed to the
+     * batch writer when this returns, but are not flushed until the loader is closed.
+     *
+     * @param file - The file that will be loaded. (not null)
+     * @param format - The format of the file. (not null)
+     * @return The progress of the load once the whole file has been read.
+     * @throws IOException The file could not be read or its statements could not be written.
+     * @throws RDFParseException The file could not be parsed.
+     */
+    public LoadProgress load(final Path file, final RDFFormat format) throws IOException, RDFParseException {
+        requireNonNull(file);
+        requireNonNull(format);
+
+        statementCount.set(0);
+        bytesRead.set(0);
+        startMillis = System.currentTimeMillis();
+
+        final List<long[]> chunks = split(file, format);
+        final String bnodePrefix = UUID.randomUUID().toString().replace("-", "") + "_";
+        logger.info("Loading " + file + " with " + chunks.size() + " parser(s) and " + threads + " worker(s).");
+
+        final BlockingQueue<List<Statement>> queue = new ArrayBlockingQueue<>(queueSize);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(chunks.size() + threads);
+        try {
+            final List<Future<?>> parsers = new ArrayList<>();
+            for (final long[] chunk : chunks) {
+                parsers.add(executor.submit(() -> parse(file, format, chunk[0], chunk[1], bnodePrefix, queue, failure)));
+            }
+            final List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> work(queue, failure)));
+            }
+
+            long lastReport = System.currentTimeMillis();
+            for (final Future<?> parser : parsers) {
+                boolean done = false;
+                while (!done) {
+                    try {
+                        parser.get(1, TimeUnit.SECONDS);
+                        done = true;
+                    } catch (final TimeoutException e) {
+                        if (System.currentTimeMillis() - lastReport >= PROGRESS_INTERVAL_MILLIS) {
+                            logger.info(getProgress());
+                            lastReport = System.currentTimeMillis();
+                        }
+                    }
+                }
+            }
+
+            // Every parser has finished, so tell the workers to stop once the queue is empty.
+            for (int i = 0; i < threads; i++) {
+                queue.put(END_OF_INPUT);
+            }
+            for (final Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (final ExecutionException e) {
+            failure.compareAndSet(null, new IOException(e.getCause()));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new InterruptedIOException("The load was interrupted."));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final Exception e = failure.get();
+        if (e instanceof RDFParseException) {
+            throw (RDFParseException) e;
+        } else if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e != null) {
+            throw new IOException("Could not load " + file + ".", e);
+        }
+
+        final LoadProgress progress = getProgress();
+        logger.info("Finished loading " + file + ". " + progress);
+        return progress;
+    }
+
+    /**
+     * @param minChunkBytes - The smallest chunk a line based file is split into.
+     */
+    @VisibleForTesting
+    void setMinChunkBytes(final long minChunkBytes) {
+        this.minChunkBytes = minChunkBytes;
+    }
+
+    /**
+     * @return The number of statements and bytes the current or last load has read.
+     */
+    public LoadProgress getProgress() {
+        return new LoadProgress(statementCount.get(), bytesRead.get(), System.currentTimeMillis() - startMillis);
+    }
+
+    /**
+     * Splits a file into the chunks that are parsed in parallel. Only line based formats
+     * are split, and each chunk ends at the end of a line.
+     *
+     * @return The first byte and the length of each chunk.
+     */
+    private List<long[]> split(final Path file, final RDFFormat format) throws IOException {
+        final List<long[]> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final boolean lineBased = RDFFormat.NTRIPLES.equals(format) || RDFFormat.NQUADS.equals(format);
+            final int count = lineBased ? (int) Math.max(1, Math.min(threads, size / minChunkBytes)) : 1;
+
+            long begin = 0;
+            for (int i = 1; i <= count && begin < size; i++) {
+                final long end = i == count ? size : findLineEnd(channel, i * (size / count));
+                if (end > begin) {
+                    chunks.add(new long[] { begin, end - begin });
+                }
+                begin = end;
+            }
+        }
+        if (chunks.isEmpty()) {
+            chunks.add(new long[] { 0, 0 });
+        }
+        return chunks;
+    }
+
+    /**
+     * @return The position just after the first line break at or after a position,
+     *   or the size of the file if there isn't one.
+     */
+    private static long findLineEnd(final FileChannel channel, final long position) throws IOException {
+        final InputStream in = Channels.newInputStream(channel.position(position));
+        long end = position;
+        int b;
+        while ((b = in.read()) != -1) {
+            end++;
+            if (b == '\n') {
+                return end;
+            }
+        }
+        return end;
+    }
+
+    private void parse(final Path file, final RDFFormat format, final long begin, final long length, final String bnodePrefix,
+            final BlockingQueue<List<Statement>> queue, final AtomicReference<Exception> failure) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final InputStream in = new CountingInputStream(ByteStreams.limit(Channels.newInputStream(channel.position(begin)), length), bytesRead);
+
+            final RDFParser parser = Rio.createParser(format);
+            parser.getParserConfig().set(BasicParserSettings.PRESERVE_BNODE_IDS, true);
+            parser.setRDFHandler(new AbstractRDFHandler() {
+                private List<Statement> batch = new ArrayList<>(BATCH_SIZE);
+
+                @Override
+                public void handleNamespace(final String prefix, final String uri) throws RDFHandlerException {
+                    try {
+                        addNamespace(prefix, uri);
+                    } catch (final Exception e) {
+                        throw new RDFHandlerException(e);
+                    }
+                }
+
+                @Override
+                public void handleStatement(final Statement statement) throws RDFHandlerException {
+                    batch.add(prefixBNodes(statement, bnodePrefix));
+                    if (batch.size() >= BATCH_SIZE) {
+                        put(batch);
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+
+                @Override
+                public void endRDF() throws RDFHandlerException {
+                    if (!batch.isEmpty()) {
+                        put(batch);
+                    }
+                }
+
+                private void put(final List<Statement> statements) throws RDFHandlerException {
+                    try {
+                        // Stop parsing as soon as another thread has failed.
+                        while (!queue.offer(statements, 1, TimeUnit.SECONDS)) {
+                            if (failure.get() != null) {
+                                throw new RDFHandlerException("The load has failed.");
+                            }
+                        }
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RDFHandlerException(e);
+                    }
+                }
+            });
+            parser.parse(in, "");
+        } catch (final RDFHandlerException e) {
+            failure.compareAndSet(null, e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        } catch (final IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * Prefixes the labels of a statement's blank nodes so that they do not collide
+     * with blank nodes that were loaded from other files.
+     */
+    private static Statement prefixBNodes(final Statement statement, final String bnodePrefix) {
+        final Resource subject = statement.getSubject();
+        final org.eclipse.rdf4j.model.Value object = statement.getObject();
+        final Resource context = statement.getContext();
+        if (!(subject instanceof BNode) && !(object instanceof BNode) && !(context instanceof BNode)) {
+            return statement;
+        }
+        final Resource prefixedSubject = (Resource) prefixBNode(subject, bnodePrefix);
+        final org.eclipse.rdf4j.model.Value prefixedObject = prefixBNode(object, bnodePrefix);
+        return context == null
+                ? VF.createStatement(prefixedSubject, statement.getPredicate(), prefixedObject)
+                : VF.createStatement(prefixedSubject, statement.getPredicate(), prefixedObject, (Resource) prefixBNode(context, bnodePrefix));
+    }
+
+    private static org.eclipse.rdf4j.model.Value prefixBNode(final org.eclipse.rdf4j.model.Value value, final String bnodePrefix) {
+        return value instanceof BNode ? VF.createBNode(bnodePrefix + ((BNode) value).getID()) : value;
+    }
+
+    private void work(final BlockingQueue<List<Statement>> queue, final AtomicReference<Exception> failure) {
+        final RyaTableMutationsFactory mutationsFactory = new RyaTableMutationsFactory(RyaTripleContext.getInstance(conf));
+        try {
+            while (true) {
+                final List<Statement> batch = queue.take();
+                if (batch == END_OF_INPUT) {
+                    return;
+                }
+                // Once the load has failed, keep draining the queue so that the parsers are not blocked.
+                if (failure.get() == null) {
+                    try {
+                        write(batch, mutationsFactory);
+                    } catch (final Exception e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(final List<Statement> batch, final RyaTableMutationsFactory mutationsFactory) throws IOException, MutationsRejectedException {
+        final List<RyaStatement> statements = new ArrayList<>(batch.size());
+        for (final Statement statement : batch) {
+            final RyaStatement ryaStatement = RdfToRyaConversions.convertStatement(statement);
+            ryaStatement.setStatementMetadata(new StatementMetadata());
+            if (cv != null) {
+                ryaStatement.setColumnVisibility(cv);
+            }
+            statements.add(ryaStatement);
+
+            final Map<TABLE_LAYOUT, Collection<Mutation>> mutations = mutationsFactory.serialize(ryaStatement);
+            spoWriter.addMutations(mutations.get(TABLE_LAYOUT.SPO));
+            poWriter.addMutations(mutations.get(TABLE_LAYOUT.PO));
+            ospWriter.addMutations(mutations.get(TABLE_LAYOUT.OSP));
+        }
+
+        if (!indexers.isEmpty()) {
+            synchronized (indexers) {
+                for (final AccumuloIndexer indexer : indexers) {
+                    indexer.storeStatements(statements);
+                }
+            }
+        }
+        statementCount.addAndGet(statements.size());
+    }
+
+    /**
+     * Writes a namespace that a file declares unless the prefix is already defined,
+     * the same as loading the file through a Sail connection does.
+     */
+    private void addNamespace(final String prefix, final String namespace) throws Exception {
+        if (!namespaces.add(prefix)) {
+            return;
+        }
+        final Scanner scanner = connector.createScanner(nsTable, new Authorizations());
+        try {
+            scanner.setRange(Range.exact(prefix));
+            if (scanner.iterator().hasNext()) {
+                return;
+            }
+        } finally {
+            scanner.close();
+        }
+
+        final Mutation m = new Mutation(new Text(prefix));
+        m.put(RdfCloudTripleStoreConstants.INFO_NAMESPACE_TXT, RdfCloudTripleStoreConstants.EMPTY_TEXT,
+                new Value(namespace.getBytes(StandardCharsets.UTF_8)));
+        nsWriter.addMutation(m);
+    }
+
+    /**
+     * Flushes the statements that have been loaded and releases the batch writer and indexers.
+     *
+     * @throws IOException The statements could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (final AccumuloIndexer indexer : indexers) {
+                indexer.flush();
+            }
+            writer.close();
+        } catch (final AccumuloException e) {
+            throw new IOException("Could not write the loaded statements.", e);
+        } finally {
+            for (final AccumuloIndexer indexer : indexers) {
+                try {
+                    indexer.close();
+                } catch (final IOException e) {
+                    logger.warn("Could not close the secondary indexer " + indexer.getClass().getName() + ".", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes that are read from a stream.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count;
+
+        private CountingInputStream(final InputStream in, final AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                count.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count.addAndGet(skipped);
+            return skipped;
+        }
+    }
+
+    /**
+     * How far a load has gotten.
+     */
+    public static class LoadProgress {
+        private final long statements;
+        private final long bytes;
+        private final long elapsedMillis;
+
+        /**
+         * Constructs an instance of {@link LoadProgress}.
+         *
+         * @param statements - The number of statements that have been written.
+         * @param bytes - The number of bytes of the file that have been read.
+         * @param elapsedMillis - How long the load has been running.
+         */
+        public LoadProgress(final long statements, final long bytes, final long elapsedMillis) {
+            this.statements = statements;
+            this.bytes = bytes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * @return The number of statements that have been written.
+         */
+        public long getStatements() {
+            return statements;
+        }
+
+        /**
+         * @return The number of bytes of the file that have been read.
+         */
+        public long getBytesRead() {
+            return bytes;
+        }
+
+        /**
+         * @return How long the load has been running.
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * @return The average number of statements that have been written per second.
+         */
+        public double getStatementsPerSecond() {
+            return elapsedMillis == 0 ? 0 : statements * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Loaded %d statements (%.0f/sec) from %d bytes in %.1f seconds.",
+                    statements, getStatementsPerSecond(), bytes, elapsedMillis / 1000.0);
+        }
+    }
+}
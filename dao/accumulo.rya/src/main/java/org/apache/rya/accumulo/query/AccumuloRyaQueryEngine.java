@@ -22,11 +22,16 @@ package org.apache.rya.accumulo.query;
 import static org.apache.rya.api.RdfCloudTripleStoreUtils.layoutToTable;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.Connector;
@@ -60,10 +65,13 @@ import org.apache.rya.api.resolver.RyaContext;
 import org.apache.rya.api.resolver.RyaTripleContext;
 import org.apache.rya.api.resolver.triple.TripleRowRegex;
 import org.apache.rya.api.utils.CloseableIterableIteration;
+import org.calrissian.mango.collect.AbstractCloseableIterable;
 import org.calrissian.mango.collect.CloseableIterable;
 import org.calrissian.mango.collect.CloseableIterables;
 import org.calrissian.mango.collect.FluentCloseableIterable;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.LimitIteration;
+import org.eclipse.rdf4j.common.iteration.UnionIteration;
 import org.eclipse.rdf4j.query.BindingSet;
 
 import com.google.common.base.Function;
@@ -81,6 +89,11 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
     private RyaTripleContext ryaContext;
     private final Map<TABLE_LAYOUT, KeyValueToRyaStatementFunction> keyValueToRyaStatementFunctionMap = new HashMap<TABLE_LAYOUT, KeyValueToRyaStatementFunction>();
 
+    /**
+     * The threads that every parallel range scan shares. Created when it is first needed.
+     */
+    private ExecutorService parallelScanExecutor;
+
     public AccumuloRyaQueryEngine(Connector connector) {
         this(connector, new AccumuloRdfConfiguration());
     }
@@ -124,30 +137,14 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
         Integer maxRanges = conf.getMaxRangesForScanner();
         Integer numThreads = conf.getNumThreads();
 
-        // TODO: cannot span multiple tables here
         try {
-            Collection<Range> ranges = new HashSet<Range>();
-            RangeBindingSetEntries rangeMap = new RangeBindingSetEntries();
-            TABLE_LAYOUT layout = null;
-            RyaURI context = null;
-            TriplePatternStrategy strategy = null;
-            RyaURI columnFamily = null;
-            boolean columnFamilySet = false;
+            // The statements may be answered by different tables, so their ranges are grouped by table.
+            Map<TABLE_LAYOUT, LayoutRanges> layoutRanges = new EnumMap<TABLE_LAYOUT, LayoutRanges>(TABLE_LAYOUT.class);
             for (Map.Entry<RyaStatement, BindingSet> stmtbs : stmts) {
                 RyaStatement stmt = stmtbs.getKey();
-                context = stmt.getContext();
-                // if all RyaStatements for this query have the same context,
-                // then set the columnFamily to be that value so that Scanner can fetch
-                // only that ColumnFamily. Otherwise set columnFamily to null so that
-                // Scanner will fetch all ColumnFamilies.
-                if (!columnFamilySet) {
-                    columnFamily = context;
-                    columnFamilySet = true;
-                } else if (columnFamily != null && !columnFamily.equals(context)) {
-                    columnFamily = null;
-                }
+                RyaURI context = stmt.getContext();
                 BindingSet bs = stmtbs.getValue();
-                strategy = ryaContext.retrieveStrategy(stmt);
+                TriplePatternStrategy strategy = ryaContext.retrieveStrategy(stmt);
                 if (strategy == null) {
                     throw new IllegalArgumentException("TriplePattern[" + stmt + "] not supported");
                 }
@@ -157,7 +154,17 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
 
                 // use range to set scanner
                 // populate scanner based on authorizations, ttl
-                layout = entry.getKey();
+                LayoutRanges group = layoutRanges.get(entry.getKey());
+                if (group == null) {
+                    group = new LayoutRanges(strategy);
+                    layoutRanges.put(entry.getKey(), group);
+                }
+                // if all RyaStatements for this table have the same context,
+                // then set the columnFamily to be that value so that Scanner can fetch
+                // only that ColumnFamily. Otherwise set columnFamily to null so that
+                // Scanner will fetch all ColumnFamilies.
+                group.addContext(context);
+
                 ByteRange byteRange = entry.getValue();
                 Range range = new Range(new Text(byteRange.getStart()), new Text(byteRange.getEnd()));
                 Range rangeMapRange = range;
@@ -190,48 +197,79 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
                 // process to allow for the Statement contexts to be compared
                 // with the BindingSet contexts
                 // See {@link RangeBindingSetEntries#containsKey}.
-                ranges.add(range);
-                rangeMap.put(rangeMapRange, bs);
+                group.ranges.add(range);
+                group.rangeMap.put(rangeMapRange, bs);
             }
             // no ranges
-            if (layout == null)
+            if (layoutRanges.isEmpty())
                 return null;
-            String regexSubject = conf.getRegexSubject();
-            String regexPredicate = conf.getRegexPredicate();
-            String regexObject = conf.getRegexObject();
-            TripleRowRegex tripleRowRegex = strategy.buildRegex(regexSubject, regexPredicate, regexObject, null, null);
-
-            String table = layoutToTable(layout, conf);
-            boolean useBatchScanner = ranges.size() > maxRanges;
-            RyaStatementBindingSetKeyValueIterator iterator = null;
-            if (useBatchScanner) {
-                ScannerBase scanner = connector.createBatchScanner(table, authorizations, numThreads);
-                ((BatchScanner) scanner).setRanges(ranges);
-                fillScanner(scanner, columnFamily, null, ttl, null, tripleRowRegex, conf);
-                iterator = new RyaStatementBindingSetKeyValueIterator(layout, ryaContext, scanner, rangeMap);
-            } else {
-                Scanner scannerBase = null;
-                Iterator<Map.Entry<Key, Value>>[] iters = new Iterator[ranges.size()];
-                int i = 0;
-                for (Range range : ranges) {
-                    scannerBase = connector.createScanner(table, authorizations);
-                    scannerBase.setRange(range);
-                    fillScanner(scannerBase, columnFamily, null, ttl, null, tripleRowRegex, conf);
-                    iters[i] = scannerBase.iterator();
-                    i++;
-                }
-                iterator = new RyaStatementBindingSetKeyValueIterator(layout, Iterators.concat(iters), rangeMap, ryaContext);
+
+            // Every table's scan is started before any results are read so that the tables are scanned concurrently.
+            List<RyaStatementBindingSetKeyValueIterator> iterators = new ArrayList<RyaStatementBindingSetKeyValueIterator>();
+            for (Map.Entry<TABLE_LAYOUT, LayoutRanges> entry : layoutRanges.entrySet()) {
+                iterators.add(scanWithBindingSets(entry.getKey(), entry.getValue(), authorizations, ttl, maxResults, maxRanges, numThreads, conf));
+            }
+            if (iterators.size() == 1) {
+                return iterators.get(0);
             }
+
+            CloseableIteration<Map.Entry<RyaStatement, BindingSet>, RyaDAOException> union =
+                    new UnionIteration<Map.Entry<RyaStatement, BindingSet>, RyaDAOException>(iterators);
             if (maxResults != null) {
-                iterator.setMaxResults(maxResults);
+                union = new LimitIteration<Map.Entry<RyaStatement, BindingSet>, RyaDAOException>(union, maxResults);
             }
-            return iterator;
+            return union;
         } catch (Exception e) {
             throw new RyaDAOException(e);
         }
 
     }
 
+    private RyaStatementBindingSetKeyValueIterator scanWithBindingSets(TABLE_LAYOUT layout, LayoutRanges group,
+            final Authorizations authorizations, final Long ttl, Long maxResults, int maxRanges, int numThreads,
+            final AccumuloRdfConfiguration conf) throws Exception {
+        String regexSubject = conf.getRegexSubject();
+        String regexPredicate = conf.getRegexPredicate();
+        String regexObject = conf.getRegexObject();
+        final TripleRowRegex tripleRowRegex = group.strategy.buildRegex(regexSubject, regexPredicate, regexObject, null, null);
+
+        final String table = layoutToTable(layout, conf);
+        final Collection<Range> ranges = group.ranges;
+        final RyaURI columnFamily = group.context;
+        RangeScanPlan plan = RangeScanPlan.choose(ranges.size(), maxResults, maxRanges, conf.getParallelScanMinRanges(), numThreads);
+        RyaStatementBindingSetKeyValueIterator iterator = null;
+        if (plan == RangeScanPlan.BATCH) {
+            ScannerBase scanner = connector.createBatchScanner(table, authorizations, numThreads);
+            ((BatchScanner) scanner).setRanges(ranges);
+            fillScanner(scanner, columnFamily, null, ttl, null, tripleRowRegex, conf);
+            iterator = new RyaStatementBindingSetKeyValueIterator(layout, ryaContext, scanner, group.rangeMap);
+        } else if (plan == RangeScanPlan.PARALLEL) {
+            ParallelRangeScanIterator scans = new ParallelRangeScanIterator(new ArrayList<Range>(ranges), range -> {
+                Scanner scanner = connector.createScanner(table, authorizations);
+                scanner.setRange(range);
+                fillScanner(scanner, columnFamily, null, ttl, null, tripleRowRegex, conf);
+                return scanner;
+            }, getParallelScanExecutor(), numThreads, conf.getParallelScanBufferSize(), conf.isParallelScanOrdered());
+            iterator = new RyaStatementBindingSetKeyValueIterator(layout, scans, group.rangeMap, ryaContext);
+        } else {
+            Scanner scannerBase = null;
+            Iterator<Map.Entry<Key, Value>>[] iters = new Iterator[ranges.size()];
+            int i = 0;
+            for (Range range : ranges) {
+                scannerBase = connector.createScanner(table, authorizations);
+                scannerBase.setRange(range);
+                fillScanner(scannerBase, columnFamily, null, ttl, null, tripleRowRegex, conf);
+                iters[i] = scannerBase.iterator();
+                i++;
+            }
+            iterator = new RyaStatementBindingSetKeyValueIterator(layout, Iterators.concat(iters), group.rangeMap, ryaContext);
+        }
+        if (maxResults != null) {
+            iterator.setMaxResults(maxResults);
+        }
+        return iterator;
+    }
+
     @Override
     public CloseableIteration<RyaStatement, RyaDAOException> batchQuery(Collection<RyaStatement> stmts, AccumuloRdfConfiguration conf)
             throws RyaDAOException {
@@ -331,26 +369,16 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
         // query configuration
         String[] auths = ryaQuery.getAuths();
         final Authorizations authorizations = auths != null ? new Authorizations(auths) : configuration.getAuthorizations();
-        final Long ttl = ryaQuery.getTtl();
-        Long currentTime = ryaQuery.getCurrentTime();
         Long maxResults = ryaQuery.getMaxResults();
-        Integer batchSize = ryaQuery.getBatchSize();
-        Integer numQueryThreads = ryaQuery.getNumQueryThreads();
-        String regexSubject = ryaQuery.getRegexSubject();
-        String regexPredicate = ryaQuery.getRegexPredicate();
-        String regexObject = ryaQuery.getRegexObject();
         TableLayoutStrategy tableLayoutStrategy = configuration.getTableLayoutStrategy();
-        int maxRanges = ryaQuery.getMaxRanges();
 
-        // TODO: cannot span multiple tables here
         try {
-            Collection<Range> ranges = new HashSet<Range>();
-            TABLE_LAYOUT layout = null;
-            RyaURI context = null;
-            TriplePatternStrategy strategy = null;
+            // The statements may be answered by different tables and may be in different contexts,
+            // so their ranges are grouped by table and then by context.
+            Map<TABLE_LAYOUT, Map<RyaURI, LayoutRanges>> layoutRanges = new EnumMap<TABLE_LAYOUT, Map<RyaURI, LayoutRanges>>(TABLE_LAYOUT.class);
             for (RyaStatement stmt : stmts) {
-                context = stmt.getContext(); // TODO: This will be overwritten
-                strategy = ryaContext.retrieveStrategy(stmt);
+                RyaURI context = stmt.getContext();
+                TriplePatternStrategy strategy = ryaContext.retrieveStrategy(stmt);
                 if (strategy == null) {
                     throw new IllegalArgumentException("TriplePattern[" + stmt + "] not supported");
                 }
@@ -360,45 +388,42 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
 
                 // use range to set scanner
                 // populate scanner based on authorizations, ttl
-                layout = entry.getKey();
+                Map<RyaURI, LayoutRanges> contextRanges = layoutRanges.get(entry.getKey());
+                if (contextRanges == null) {
+                    contextRanges = new LinkedHashMap<RyaURI, LayoutRanges>();
+                    layoutRanges.put(entry.getKey(), contextRanges);
+                }
+                LayoutRanges group = contextRanges.get(context);
+                if (group == null) {
+                    group = new LayoutRanges(strategy);
+                    group.addContext(context);
+                    contextRanges.put(context, group);
+                }
                 ByteRange byteRange = entry.getValue();
                 Range range = new Range(new Text(byteRange.getStart()), new Text(byteRange.getEnd()));
-                ranges.add(range);
+                group.ranges.add(range);
             }
             // no ranges
-            if (layout == null)
+            if (layoutRanges.isEmpty())
                 throw new IllegalArgumentException("No table layout specified");
 
-            final TripleRowRegex tripleRowRegex = strategy.buildRegex(regexSubject, regexPredicate, regexObject, null, null);
+            List<CloseableIterable<RyaStatement>> scans = new ArrayList<CloseableIterable<RyaStatement>>();
+            for (Map.Entry<TABLE_LAYOUT, Map<RyaURI, LayoutRanges>> entry : layoutRanges.entrySet()) {
+                for (LayoutRanges group : entry.getValue().values()) {
+                    scans.add(scanBatch(entry.getKey(), group, ryaQuery, authorizations, tableLayoutStrategy));
+                }
+            }
 
-            final String table = layoutToTable(layout, tableLayoutStrategy);
-            boolean useBatchScanner = ranges.size() > maxRanges;
             FluentCloseableIterable<RyaStatement> results = null;
-            if (useBatchScanner) {
-                BatchScanner scanner = connector.createBatchScanner(table, authorizations, numQueryThreads);
-                scanner.setRanges(ranges);
-                fillScanner(scanner, context, null, ttl, null, tripleRowRegex, ryaQuery.getConf());
-                results = FluentCloseableIterable.from(new ScannerBaseCloseableIterable(scanner))
-                        .transform(keyValueToRyaStatementFunctionMap.get(layout));
+            if (scans.size() == 1) {
+                results = FluentCloseableIterable.from(scans.get(0));
             } else {
-                final RyaURI fcontext = context;
-                final RdfCloudTripleStoreConfiguration fconf = ryaQuery.getConf();
-                FluentIterable<RyaStatement> fluent = FluentIterable.from(ranges)
-                        .transformAndConcat(new Function<Range, Iterable<Map.Entry<Key, Value>>>() {
-                            @Override
-                            public Iterable<Map.Entry<Key, Value>> apply(Range range) {
-                                try {
-                                    Scanner scanner = connector.createScanner(table, authorizations);
-                                    scanner.setRange(range);
-                                    fillScanner(scanner, fcontext, null, ttl, null, tripleRowRegex, fconf);
-                                    return scanner;
-                                } catch (Exception e) {
-                                    throw new RuntimeException(e);
-                                }
-                            }
-                        }).transform(keyValueToRyaStatementFunctionMap.get(layout));
-
-                results = FluentCloseableIterable.from(CloseableIterables.wrap(fluent));
+                // Start every scan before any results are read so that the tables are scanned concurrently.
+                List<CloseableIterable<RyaStatement>> started = new ArrayList<CloseableIterable<RyaStatement>>();
+                for (CloseableIterable<RyaStatement> scan : scans) {
+                    started.add(new StartedCloseableIterable<RyaStatement>(scan));
+                }
+                results = FluentCloseableIterable.from(CloseableIterables.chain(started));
             }
             if (maxResults != null) {
                 results = results.limit(maxResults.intValue());
@@ -409,6 +434,58 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
         }
     }
 
+    private FluentCloseableIterable<RyaStatement> scanBatch(TABLE_LAYOUT layout, LayoutRanges group, BatchRyaQuery ryaQuery,
+            final Authorizations authorizations, TableLayoutStrategy tableLayoutStrategy) throws Exception {
+        final Long ttl = ryaQuery.getTtl();
+        Long maxResults = ryaQuery.getMaxResults();
+        Integer numQueryThreads = ryaQuery.getNumQueryThreads();
+        String regexSubject = ryaQuery.getRegexSubject();
+        String regexPredicate = ryaQuery.getRegexPredicate();
+        String regexObject = ryaQuery.getRegexObject();
+        int maxRanges = ryaQuery.getMaxRanges();
+
+        final TripleRowRegex tripleRowRegex = group.strategy.buildRegex(regexSubject, regexPredicate, regexObject, null, null);
+
+        final String table = layoutToTable(layout, tableLayoutStrategy);
+        final Collection<Range> ranges = group.ranges;
+        final RyaURI context = group.context;
+        final RdfCloudTripleStoreConfiguration conf = ryaQuery.getConf();
+        RangeScanPlan plan = RangeScanPlan.choose(ranges.size(), maxResults, maxRanges, configuration.getParallelScanMinRanges(),
+                numQueryThreads != null ? numQueryThreads : 1);
+        if (plan == RangeScanPlan.BATCH) {
+            BatchScanner scanner = connector.createBatchScanner(table, authorizations, numQueryThreads);
+            scanner.setRanges(ranges);
+            fillScanner(scanner, context, null, ttl, null, tripleRowRegex, conf);
+            return FluentCloseableIterable.from(new ScannerBaseCloseableIterable(scanner))
+                    .transform(keyValueToRyaStatementFunctionMap.get(layout));
+        } else if (plan == RangeScanPlan.PARALLEL) {
+            ParallelRangeScanCloseableIterable scans = new ParallelRangeScanCloseableIterable(new ArrayList<Range>(ranges), range -> {
+                Scanner scanner = connector.createScanner(table, authorizations);
+                scanner.setRange(range);
+                fillScanner(scanner, context, null, ttl, null, tripleRowRegex, conf);
+                return scanner;
+            }, getParallelScanExecutor(), numQueryThreads, configuration.getParallelScanBufferSize(), configuration.isParallelScanOrdered());
+            return FluentCloseableIterable.from(scans).transform(keyValueToRyaStatementFunctionMap.get(layout));
+        } else {
+            FluentIterable<RyaStatement> fluent = FluentIterable.from(ranges)
+                    .transformAndConcat(new Function<Range, Iterable<Map.Entry<Key, Value>>>() {
+                        @Override
+                        public Iterable<Map.Entry<Key, Value>> apply(Range range) {
+                            try {
+                                Scanner scanner = connector.createScanner(table, authorizations);
+                                scanner.setRange(range);
+                                fillScanner(scanner, context, null, ttl, null, tripleRowRegex, conf);
+                                return scanner;
+                            } catch (Exception e) {
+                                throw new RuntimeException(e);
+                            }
+                        }
+                    }).transform(keyValueToRyaStatementFunctionMap.get(layout));
+
+            return FluentCloseableIterable.from(CloseableIterables.wrap(fluent));
+        }
+    }
+
     protected void fillScanner(ScannerBase scanner, RyaURI context, String qualifier, Long ttl, Long currentTime,
             TripleRowRegex tripleRowRegex, RdfCloudTripleStoreConfiguration conf) throws IOException {
         if (context != null && qualifier != null) {
@@ -444,6 +521,63 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
         }
     }
 
+    /**
+     * The ranges of a query that are scanned from the same table.
+     */
+    private static class LayoutRanges {
+        private final TriplePatternStrategy strategy;
+        private final Collection<Range> ranges = new HashSet<Range>();
+        private final RangeBindingSetEntries rangeMap = new RangeBindingSetEntries();
+        private RyaURI context = null;
+        private boolean contextSet = false;
+
+        public LayoutRanges(TriplePatternStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        /**
+         * Keeps the context of the statements if they all share the same one; otherwise
+         * the context becomes null so that every column family is fetched.
+         */
+        public void addContext(RyaURI stmtContext) {
+            if (!contextSet) {
+                context = stmtContext;
+                contextSet = true;
+            } else if (context != null && !context.equals(stmtContext)) {
+                context = null;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the iterator of a {@link CloseableIterable} as soon as it is constructed,
+     * which starts any background scanning, and then hands that iterator out first.
+     */
+    private static class StartedCloseableIterable<T> extends AbstractCloseableIterable<T> {
+        private final CloseableIterable<T> iterable;
+        private Iterator<T> started;
+
+        public StartedCloseableIterable(CloseableIterable<T> iterable) {
+            this.iterable = iterable;
+            this.started = iterable.iterator();
+        }
+
+        @Override
+        protected void doClose() throws IOException {
+            iterable.close();
+        }
+
+        @Override
+        protected Iterator<T> retrieveIterator() {
+            if (started != null) {
+                Iterator<T> iterator = started;
+                started = null;
+                return iterator;
+            }
+            return iterable.iterator();
+        }
+    }
+
     @Override
     public void setConf(AccumuloRdfConfiguration conf) {
         this.configuration = conf;
@@ -454,7 +588,19 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
         return configuration;
     }
 
+    private synchronized ExecutorService getParallelScanExecutor() {
+        if (parallelScanExecutor == null) {
+            final int numThreads = configuration.getParallelScanThreads();
+            parallelScanExecutor = ParallelRangeScanIterator.createExecutor(numThreads, numThreads * 4);
+        }
+        return parallelScanExecutor;
+    }
+
     @Override
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
+        if (parallelScanExecutor != null) {
+            parallelScanExecutor.shutdownNow();
+            parallelScanExecutor = null;
+        }
     }
 }
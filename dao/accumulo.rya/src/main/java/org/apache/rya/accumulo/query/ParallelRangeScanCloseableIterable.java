@@ -0,0 +1,77 @@
+package org.apache.rya.accumulo.query;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.calrissian.mango.collect.AbstractCloseableIterable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Iterates over the entries of many ranges that are scanned at the same time.
+ * Each call to {@link #iterator()} starts a new {@link ParallelRangeScanIterator}.
+ */
+public class ParallelRangeScanCloseableIterable extends AbstractCloseableIterable<Map.Entry<Key, Value>> {
+
+    private final List<Range> ranges;
+    private final ParallelRangeScanIterator.ScannerFactory scannerFactory;
+    private final ExecutorService executor;
+    private final int numThreads;
+    private final int bufferSize;
+    private final boolean ordered;
+    private final List<ParallelRangeScanIterator> iterators = new ArrayList<>();
+
+    public ParallelRangeScanCloseableIterable(List<Range> ranges, ParallelRangeScanIterator.ScannerFactory scannerFactory,
+            ExecutorService executor, int numThreads, int bufferSize, boolean ordered) {
+        Preconditions.checkNotNull(ranges);
+        Preconditions.checkNotNull(scannerFactory);
+        Preconditions.checkNotNull(executor);
+        this.ranges = ranges;
+        this.scannerFactory = scannerFactory;
+        this.executor = executor;
+        this.numThreads = numThreads;
+        this.bufferSize = bufferSize;
+        this.ordered = ordered;
+    }
+
+    @Override
+    protected synchronized void doClose() throws IOException {
+        for (ParallelRangeScanIterator iterator : iterators) {
+            iterator.close();
+        }
+        iterators.clear();
+    }
+
+    @Override
+    protected synchronized Iterator<Map.Entry<Key, Value>> retrieveIterator() {
+        ParallelRangeScanIterator iterator = new ParallelRangeScanIterator(ranges, scannerFactory, executor, numThreads, bufferSize, ordered);
+        iterators.add(iterator);
+        return iterator;
+    }
+}
@@ -0,0 +1,328 @@
+package org.apache.rya.accumulo.query;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Scans many {@link Range}s at the same time, one {@link Scanner} per range, using a
+ * pool of threads that is shared by every iterator. See {@link #createExecutor(int, int)}.
+ * <p>
+ * No more than {@code numThreads} ranges of an iterator are scanned at once. Each scan reads
+ * ahead of the consumer into a bounded buffer and blocks once the buffer is full, so a slow
+ * consumer does not cause the results to pile up in memory. When the results are ordered,
+ * they are returned range by range in the order the ranges were provided, just as if they
+ * had been scanned one after another. Otherwise they are returned as soon as any range
+ * produces them.
+ * <p>
+ * If the consumer needs the results of a range that no pool thread has started scanning yet,
+ * because the pool is busy with other queries, the consumer scans that range itself. An
+ * iterator never waits on the pool, so it cannot be starved by other iterators.
+ * <p>
+ * The scans are stopped once the iterator has been exhausted or {@link #close()} is called.
+ */
+public class ParallelRangeScanIterator extends AbstractIterator<Map.Entry<Key, Value>> implements Closeable {
+
+    /**
+     * Creates the {@link Scanner} that reads a single range.
+     */
+    public interface ScannerFactory {
+        /**
+         * @param range - The range that will be scanned.
+         * @return A scanner that reads the range.
+         * @throws Exception The scanner could not be created.
+         */
+        Scanner createScanner(Range range) throws Exception;
+    }
+
+    private final Iterator<Range> pendingRanges;
+    private final ScannerFactory scannerFactory;
+    private final ExecutorService executor;
+    private final int bufferSize;
+    private final boolean ordered;
+
+    /**
+     * The scans that have been started but not consumed yet, in range order.
+     */
+    private final Deque<RangeScan> scans = new ConcurrentLinkedDeque<>();
+
+    /**
+     * The buffer every scan writes to when the results are not ordered.
+     */
+    private final BlockingQueue<Object> sharedBuffer;
+
+    private RangeScan consumerScan = null;
+    private Iterator<Map.Entry<Key, Value>> consumerScanner = null;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a pool of threads that may be shared by many {@link ParallelRangeScanIterator}s.
+     * Scans that are submitted while the pool's queue is full are dropped, and are instead
+     * scanned by their iterator's consumer once it reaches them. Idle threads are stopped.
+     *
+     * @param numThreads - The most ranges that are scanned at the same time across every iterator.
+     * @param queueSize - The most scans that may wait for a thread.
+     * @return The pool of threads. It must be shut down by its owner.
+     */
+    public static ExecutorService createExecutor(final int numThreads, final int queueSize) {
+        Preconditions.checkArgument(numThreads > 0, "numThreads must be greater than 0");
+        Preconditions.checkArgument(queueSize > 0, "queueSize must be greater than 0");
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(numThreads, numThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("rya-range-scan-%d")
+                    .build(),
+                new ThreadPoolExecutor.DiscardPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Constructs an instance of {@link ParallelRangeScanIterator} and starts scanning.
+     *
+     * @param ranges - The ranges that will be scanned. (not null)
+     * @param scannerFactory - Creates the scanner for each range. (not null)
+     * @param executor - The pool of threads that scans the ranges. (not null)
+     * @param numThreads - The most ranges of this iterator that are scanned at the same time.
+     * @param bufferSize - How many entries each range may read ahead of the consumer.
+     * @param ordered - Whether the results are returned in range order.
+     */
+    public ParallelRangeScanIterator(final List<Range> ranges, final ScannerFactory scannerFactory, final ExecutorService executor,
+            final int numThreads, final int bufferSize, final boolean ordered) {
+        Preconditions.checkNotNull(ranges);
+        Preconditions.checkNotNull(scannerFactory);
+        Preconditions.checkNotNull(executor);
+        Preconditions.checkArgument(numThreads > 0, "numThreads must be greater than 0");
+        Preconditions.checkArgument(bufferSize > 0, "bufferSize must be greater than 0");
+        this.pendingRanges = new ArrayList<>(ranges).iterator();
+        this.scannerFactory = scannerFactory;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.ordered = ordered;
+
+        final int window = Math.max(1, Math.min(numThreads, ranges.size()));
+        sharedBuffer = ordered ? null : new LinkedBlockingQueue<>(bufferSize * window);
+        for (int i = 0; i < window; i++) {
+            startNextScan();
+        }
+    }
+
+    /**
+     * Hands the next range that has not been scanned to the pool, if there is one.
+     */
+    private void startNextScan() {
+        if (closed || !pendingRanges.hasNext()) {
+            return;
+        }
+        final RangeScan scan = new RangeScan(pendingRanges.next(), ordered ? new LinkedBlockingQueue<>(bufferSize) : sharedBuffer);
+        scans.addLast(scan);
+        try {
+            scan.future = executor.submit(scan);
+        } catch (final RejectedExecutionException e) {
+            // The consumer scans the range itself once it reaches it.
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Map.Entry<Key, Value> computeNext() {
+        try {
+            while (!closed) {
+                if (consumerScanner != null) {
+                    if (consumerScanner.hasNext()) {
+                        return consumerScanner.next();
+                    }
+                    finishScan(consumerScan);
+                    consumerScan = null;
+                    consumerScanner = null;
+                    continue;
+                }
+                if (scans.isEmpty()) {
+                    break;
+                }
+
+                final Object next;
+                if (ordered) {
+                    final RangeScan scan = scans.peekFirst();
+                    if (scanItself(scan)) {
+                        continue;
+                    }
+                    next = scan.buffer.take();
+                } else {
+                    final Object buffered = sharedBuffer.poll();
+                    if (buffered == null && scanItself(findUnclaimedScan())) {
+                        continue;
+                    }
+                    next = buffered != null ? buffered : sharedBuffer.take();
+                }
+
+                if (next instanceof RangeScan) {
+                    finishScan((RangeScan) next);
+                } else if (next instanceof ScanFailure) {
+                    close();
+                    final ScanFailure failure = (ScanFailure) next;
+                    throw new RuntimeException("Could not scan the range " + failure.range, failure.cause);
+                } else {
+                    return (Map.Entry<Key, Value>) next;
+                }
+            }
+        } catch (final InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the ranges to be scanned.", e);
+        }
+
+        return endOfData();
+    }
+
+    /**
+     * Claims a scan that the pool has not started so that the consumer reads it directly.
+     *
+     * @return {@code true} if the consumer is now reading the scan's range.
+     */
+    private boolean scanItself(final RangeScan scan) {
+        if (scan == null || !scan.claim()) {
+            return false;
+        }
+        try {
+            consumerScanner = scannerFactory.createScanner(scan.range).iterator();
+        } catch (final Exception e) {
+            close();
+            throw new RuntimeException("Could not scan the range " + scan.range, e);
+        }
+        consumerScan = scan;
+        return true;
+    }
+
+    private RangeScan findUnclaimedScan() {
+        for (final RangeScan scan : scans) {
+            if (!scan.claimed.get()) {
+                return scan;
+            }
+        }
+        return null;
+    }
+
+    private void finishScan(final RangeScan scan) {
+        scans.remove(scan);
+        startNextScan();
+    }
+
+    /**
+     * Stops all of the scans that have not finished yet.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        consumerScanner = null;
+        for (final RangeScan scan : scans) {
+            scan.claim();
+            if (scan.future != null) {
+                scan.future.cancel(true);
+            }
+            scan.buffer.clear();
+        }
+        scans.clear();
+    }
+
+    /**
+     * Scans one range into a buffer on a pool thread, unless the consumer claims it first.
+     * The scan itself is written to the buffer to mark the end of the range.
+     */
+    private final class RangeScan implements Runnable {
+        private final Range range;
+        private final BlockingQueue<Object> buffer;
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private volatile Future<?> future;
+
+        private RangeScan(final Range range, final BlockingQueue<Object> buffer) {
+            this.range = range;
+            this.buffer = buffer;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public void run() {
+            if (!claim()) {
+                return;
+            }
+            try {
+                try {
+                    final Scanner scanner = scannerFactory.createScanner(range);
+                    for (final Map.Entry<Key, Value> entry : scanner) {
+                        if (closed) {
+                            return;
+                        }
+                        buffer.put(entry);
+                    }
+                    buffer.put(this);
+                } catch (final InterruptedException e) {
+                    throw e;
+                } catch (final Exception e) {
+                    buffer.put(new ScanFailure(range, e));
+                }
+            } catch (final InterruptedException e) {
+                // The iterator was closed, so nothing is waiting for the results.
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Holds the reason the scan of a range failed until the consumer reaches it.
+     */
+    private static final class ScanFailure {
+        private final Range range;
+        private final Exception cause;
+
+        private ScanFailure(final Range range, final Exception cause) {
+            this.range = range;
+            this.cause = cause;
+        }
+    }
+}
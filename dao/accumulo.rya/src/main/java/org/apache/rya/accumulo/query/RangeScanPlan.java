@@ -0,0 +1,71 @@
+package org.apache.rya.accumulo.query;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * How the ranges of a query are scanned.
+ */
+public enum RangeScanPlan {
+    /**
+     * One {@link org.apache.accumulo.core.client.Scanner} per range, read one after another.
+     */
+    SEQUENTIAL,
+
+    /**
+     * One {@link org.apache.accumulo.core.client.Scanner} per range, read at the same
+     * time by a bounded pool of threads. See {@link ParallelRangeScanIterator}.
+     */
+    PARALLEL,
+
+    /**
+     * A single {@link org.apache.accumulo.core.client.BatchScanner} over all of the ranges.
+     */
+    BATCH;
+
+    /**
+     * Picks how a query's ranges will be scanned. The choice only depends on the number of
+     * ranges and the query's result limit. It does not estimate how many rows each range holds.
+     * <p>
+     * Queries that scan more than {@code maxRanges} ranges use a batch scanner. Queries that
+     * scan fewer are scanned in parallel when there are at least {@code minParallelRanges} of
+     * them, unless the query is limited to fewer results than it has ranges. Those are expected
+     * to be satisfied by the first few ranges, so they are scanned sequentially so that the
+     * ranges that are never read are never scanned.
+     *
+     * @param numRanges - The number of ranges the query scans.
+     * @param maxResults - The maximum number of results the query returns. (may be null)
+     * @param maxRanges - The most ranges that may be scanned without a batch scanner.
+     * @param minParallelRanges - The fewest ranges that are scanned in parallel.
+     * @param numThreads - The number of threads that may be used to scan the query.
+     * @return How the ranges will be scanned.
+     */
+    public static RangeScanPlan choose(int numRanges, Long maxResults, int maxRanges, int minParallelRanges, int numThreads) {
+        if (numRanges > maxRanges) {
+            return BATCH;
+        }
+        if (numRanges < Math.max(2, minParallelRanges) || numThreads < 2) {
+            return SEQUENTIAL;
+        }
+        if (maxResults != null && maxResults >= 0 && maxResults < numRanges) {
+            return SEQUENTIAL;
+        }
+        return PARALLEL;
+    }
+}
@@ -19,6 +19,8 @@ package org.apache.rya.accumulo.query;
  * under the License.
  */
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
@@ -69,6 +71,13 @@ public class RyaStatementBindingSetKeyValueIterator implements CloseableIteratio
 
     @Override
     public void close() throws RyaDAOException {
+        if (dataIterator instanceof Closeable) {
+            try {
+                ((Closeable) dataIterator).close();
+            } catch (IOException e) {
+                throw new RyaDAOException(e);
+            }
+        }
         dataIterator = null;
         if (scanner != null && isBatchScanner) {
             scanner.close();
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo;
+
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.DELIM;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.EMPTY_TEXT;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.PREDOBJECT_CF_TXT;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.PRED_CF_TXT;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.SUBJECT_CF_TXT;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.hadoop.io.Text;
+import org.apache.rya.api.persist.CardinalityRequest;
+import org.apache.rya.api.persist.RdfEvalStatsDAO.CARDINALITY_OF;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the methods of {@link AccumuloRdfEvalStatsDAO}.
+ */
+public class AccumuloRdfEvalStatsDAOTest {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private static final IRI ALICE = VF.createIRI("urn:alice");
+    private static final IRI BOB = VF.createIRI("urn:bob");
+    private static final IRI WORKS_AT = VF.createIRI("urn:worksAt");
+    private static final IRI BURGER_JOINT = VF.createIRI("urn:burgerJoint");
+
+    private AccumuloRdfEvalStatsDAO dao;
+    private AccumuloRdfConfiguration conf;
+    private Connector connector;
+
+    @Before
+    public void setUp() throws Exception {
+        connector = new MockInstance().getConnector("", "");
+        conf = new AccumuloRdfConfiguration();
+        conf.setTablePrefix("evalstats_");
+
+        dao = new AccumuloRdfEvalStatsDAO();
+        dao.setConnector(connector);
+        dao.setConf(conf);
+        dao.init();
+
+        writeCount(SUBJECT_CF_TXT, 3, ALICE);
+        writeCount(PRED_CF_TXT, 10, WORKS_AT);
+        writeCount(PREDOBJECT_CF_TXT, 2, WORKS_AT, BURGER_JOINT);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dao.destroy();
+        connector.tableOperations().delete(conf.getTableLayoutStrategy().getEval());
+    }
+
+    @Test
+    public void getCardinalities() throws Exception {
+        final CardinalityRequest alice = request(CARDINALITY_OF.SUBJECT, ALICE);
+        final CardinalityRequest bob = request(CARDINALITY_OF.SUBJECT, BOB);
+        final CardinalityRequest worksAt = request(CARDINALITY_OF.PREDICATE, WORKS_AT);
+        final CardinalityRequest worksAtBurgers = request(CARDINALITY_OF.PREDICATEOBJECT, WORKS_AT, BURGER_JOINT);
+        final CardinalityRequest object = request(CARDINALITY_OF.OBJECT, BURGER_JOINT);
+
+        final Map<CardinalityRequest, Double> cardinalities = dao.getCardinalities(conf,
+                Arrays.asList(alice, bob, worksAt, worksAtBurgers, object, alice));
+
+        assertEquals(5, cardinalities.size());
+        assertEquals(3.0, cardinalities.get(alice), 0.0);
+        assertEquals(-1.0, cardinalities.get(bob), 0.0);
+        assertEquals(10.0, cardinalities.get(worksAt), 0.0);
+        assertEquals(2.0, cardinalities.get(worksAtBurgers), 0.0);
+        assertEquals(Double.MAX_VALUE, cardinalities.get(object), 0.0);
+    }
+
+    @Test
+    public void getCardinalities_matchesGetCardinality() throws Exception {
+        final CardinalityRequest worksAtBurgers = request(CARDINALITY_OF.PREDICATEOBJECT, WORKS_AT, BURGER_JOINT);
+        final double single = dao.getCardinality(conf, CARDINALITY_OF.PREDICATEOBJECT, Arrays.<Value>asList(WORKS_AT, BURGER_JOINT));
+        dao.invalidateCache();
+        final double batched = dao.getCardinalities(conf, Collections.singleton(worksAtBurgers)).get(worksAtBurgers);
+        assertEquals(single, batched, 0.0);
+    }
+
+    @Test
+    public void cachedUntilInvalidated() throws Exception {
+        final List<Value> values = Arrays.<Value>asList(WORKS_AT);
+        assertEquals(10.0, dao.getCardinality(conf, CARDINALITY_OF.PREDICATE, values), 0.0);
+
+        // Update the count. The cached value is still returned.
+        writeCount(PRED_CF_TXT, 20, WORKS_AT);
+        assertEquals(10.0, dao.getCardinality(conf, CARDINALITY_OF.PREDICATE, values), 0.0);
+
+        // Once the cache is cleared the new value is read.
+        dao.invalidateCache();
+        assertEquals(20.0, dao.getCardinality(conf, CARDINALITY_OF.PREDICATE, values), 0.0);
+    }
+
+    @Test
+    public void cacheDisabled() throws Exception {
+        dao.destroy();
+        conf.setStatsCacheSize(0);
+        dao.init();
+
+        final List<Value> values = Arrays.<Value>asList(WORKS_AT);
+        assertEquals(10.0, dao.getCardinality(conf, CARDINALITY_OF.PREDICATE, values), 0.0);
+        writeCount(PRED_CF_TXT, 20, WORKS_AT);
+        assertEquals(20.0, dao.getCardinality(conf, CARDINALITY_OF.PREDICATE, values), 0.0);
+    }
+
+    private static CardinalityRequest request(final CARDINALITY_OF card, final Value... values) {
+        return new CardinalityRequest(card, Arrays.asList(values), null);
+    }
+
+    private void writeCount(final Text cf, final long count, final Value... values) throws Exception {
+        String row = values[0].stringValue();
+        for (int i = 1; i < values.length; i++) {
+            row += DELIM + values[i].stringValue();
+        }
+
+        final BatchWriter writer = connector.createBatchWriter(conf.getTableLayoutStrategy().getEval(), new BatchWriterConfig());
+        try {
+            final Mutation mutation = new Mutation(new Text(row.getBytes(StandardCharsets.UTF_8)));
+            mutation.put(cf, EMPTY_TEXT, new org.apache.accumulo.core.data.Value(Long.toString(count).getBytes(StandardCharsets.UTF_8)));
+            writer.addMutation(mutation);
+        } finally {
+            writer.close();
+        }
+    }
+}
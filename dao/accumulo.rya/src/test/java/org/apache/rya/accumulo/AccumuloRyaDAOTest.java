@@ -25,8 +25,10 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.apache.accumulo.core.client.Connector;
@@ -36,6 +38,7 @@ import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.mock.MockInstance;
 import org.apache.accumulo.core.iterators.FirstEntryInRowIterator;
 import org.apache.rya.accumulo.query.AccumuloRyaQueryEngine;
+import org.apache.rya.api.RdfCloudTripleStoreUtils;
 import org.apache.rya.api.domain.RyaStatement;
 import org.apache.rya.api.domain.RyaType;
 import org.apache.rya.api.domain.RyaURI;
@@ -49,6 +52,8 @@ import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -407,6 +412,59 @@ public class AccumuloRyaDAOTest {
         assertEquals(4, count);
     }
 
+    @Test
+    public void testQueryAcrossTables() throws Exception {
+        RyaURI cpu = new RyaURI(litdupsNS + "cpu");
+        RyaURI mem = new RyaURI(litdupsNS + "mem");
+        RyaURI loadPerc = new RyaURI(litdupsNS + "loadPerc");
+        RyaURI uri1 = new RyaURI(litdupsNS + "uri1");
+        RyaURI uri2 = new RyaURI(litdupsNS + "uri2");
+        RyaURI uri3 = new RyaURI(litdupsNS + "uri3");
+        dao.add(new RyaStatement(cpu, loadPerc, uri1));
+        dao.add(new RyaStatement(cpu, loadPerc, uri2));
+        dao.add(new RyaStatement(mem, loadPerc, uri3));
+
+        AccumuloRyaQueryEngine queryEngine = dao.getQueryEngine();
+
+        // The first pattern is answered by the SPO table and the second by the PO table.
+        Collection<RyaStatement> coll = new ArrayList<>();
+        coll.add(new RyaStatement(cpu, loadPerc, null));
+        coll.add(new RyaStatement(null, loadPerc, uri3));
+        CloseableIteration<RyaStatement, RyaDAOException> iter = queryEngine.batchQuery(coll, conf);
+        List<RyaType> objects = new ArrayList<>();
+        while (iter.hasNext()) {
+            objects.add(iter.next().getObject());
+        }
+        iter.close();
+        assertEquals(3, objects.size());
+        assertTrue(objects.containsAll(Arrays.asList(uri1, uri2, uri3)));
+
+        Collection<Map.Entry<RyaStatement, BindingSet>> stmts = new ArrayList<>();
+        QueryBindingSet bs1 = new QueryBindingSet();
+        bs1.addBinding("x", vf.createLiteral("spo"));
+        QueryBindingSet bs2 = new QueryBindingSet();
+        bs2.addBinding("x", vf.createLiteral("po"));
+        stmts.add(new RdfCloudTripleStoreUtils.CustomEntry<RyaStatement, BindingSet>(new RyaStatement(cpu, loadPerc, null), bs1));
+        stmts.add(new RdfCloudTripleStoreUtils.CustomEntry<RyaStatement, BindingSet>(new RyaStatement(null, loadPerc, uri3), bs2));
+        CloseableIteration<? extends Map.Entry<RyaStatement, BindingSet>, RyaDAOException> bsIter = queryEngine.queryWithBindingSet(stmts, conf);
+        int spoCount = 0;
+        int poCount = 0;
+        while (bsIter.hasNext()) {
+            Map.Entry<RyaStatement, BindingSet> result = bsIter.next();
+            if (result.getValue().equals(bs1)) {
+                assertEquals(cpu, result.getKey().getSubject());
+                spoCount++;
+            } else {
+                assertEquals(bs2, result.getValue());
+                assertEquals(uri3, result.getKey().getObject());
+                poCount++;
+            }
+        }
+        bsIter.close();
+        assertEquals(2, spoCount);
+        assertEquals(1, poCount);
+    }
+
 	@Test
 	public void testQueryDates() throws Exception {
 	    RyaURI cpu = new RyaURI(litdupsNS + "cpu");
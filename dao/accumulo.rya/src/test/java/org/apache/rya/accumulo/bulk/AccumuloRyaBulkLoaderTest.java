@@ -0,0 +1,245 @@
+package org.apache.rya.accumulo.bulk;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.AccumuloRyaDAO;
+import org.apache.rya.api.RdfCloudTripleStoreConstants;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.api.persist.RyaDAOException;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the methods of {@link AccumuloRyaBulkLoader}.
+ */
+public class AccumuloRyaBulkLoaderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Connector connector;
+    private AccumuloRdfConfiguration conf;
+    private AccumuloRyaDAO dao;
+    private FileSystem fs;
+    private Path workDir;
+
+    @Before
+    public void setUp() throws Exception {
+        connector = new MockInstance("bulkLoaderTest").getConnector("root", new PasswordToken(""));
+        conf = new AccumuloRdfConfiguration();
+        conf.setTablePrefix("bulk_");
+        conf.setBulkBufferSize(4);
+
+        dao = new AccumuloRyaDAO();
+        dao.setConnector(connector);
+        dao.setConf(conf);
+        dao.init();
+
+        fs = FileSystem.getLocal(new Configuration());
+        workDir = new Path(tempFolder.getRoot().getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dao.purge(conf);
+        dao.destroy();
+    }
+
+    @Test
+    public void loadStatements() throws Exception {
+        final StringBuilder ntriples = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            ntriples.append("<urn:person" + i + "> <urn:worksAt> <urn:company" + (i % 3) + "> .\n");
+        }
+        // Duplicates are only written and counted once, even when they are in different buffers.
+        ntriples.append("<urn:person0> <urn:worksAt> <urn:company0> .\n");
+        ntriples.append("<urn:person0> <urn:age> \"30\"^^<http://www.w3.org/2001/XMLSchema#integer> .\n");
+
+        try (AccumuloRyaBulkLoader loader = new AccumuloRyaBulkLoader(connector, conf, fs, workDir)) {
+            final long loaded = loader.loadStatements(new ByteArrayInputStream(ntriples.toString().getBytes(StandardCharsets.UTF_8)), RDFFormat.NTRIPLES);
+            assertEquals(14, loaded);
+        }
+
+        // Every table can be queried.
+        assertEquals(12, count(new RyaStatement(null, new RyaURI("urn:worksAt"), null)));
+        assertEquals(2, count(new RyaStatement(new RyaURI("urn:person0"), null, null)));
+        assertEquals(4, count(new RyaStatement(null, null, new RyaURI("urn:company1"))));
+        assertEquals(1, count(new RyaStatement(null, null, new RyaType(XMLSchema.INTEGER, "30"))));
+
+        // Only counts that are greater than the minimum are written to the eval table.
+        final Map<String, String> evalCounts = readEvalTable();
+        assertEquals("12", evalCounts.get("urn:worksAt"));
+        assertEquals(1, evalCounts.size());
+
+        // The bulk load directory is removed after its files are imported.
+        assertEquals(0, fs.listStatus(workDir).length);
+    }
+
+    @Test
+    public void loadStatements_addsToStoredEvalCounts() throws Exception {
+        final RyaURI predicate = new RyaURI("urn:knows");
+        try (AccumuloRyaBulkLoader loader = new AccumuloRyaBulkLoader(connector, conf, fs, workDir)) {
+            for (int i = 0; i < 11; i++) {
+                loader.addStatement(new RyaStatement(new RyaURI("urn:a" + i), predicate, new RyaURI("urn:b")));
+            }
+        }
+        assertEquals("11", readEvalTable().get("urn:knows"));
+
+        try (AccumuloRyaBulkLoader loader = new AccumuloRyaBulkLoader(connector, conf, fs, workDir)) {
+            for (int i = 0; i < 5; i++) {
+                loader.addStatement(new RyaStatement(new RyaURI("urn:c" + i), predicate, new RyaURI("urn:b")));
+            }
+        }
+        assertEquals("16", readEvalTable().get("urn:knows"));
+        assertEquals(16, count(new RyaStatement(null, predicate, null)));
+    }
+
+    @Test
+    public void loadStatements_storedStatementsNotCounted() throws Exception {
+        final RyaURI predicate = new RyaURI("urn:knows");
+        try (AccumuloRyaBulkLoader loader = new AccumuloRyaBulkLoader(connector, conf, fs, workDir)) {
+            for (int i = 0; i < 11; i++) {
+                loader.addStatement(new RyaStatement(new RyaURI("urn:a" + i), predicate, new RyaURI("urn:b")));
+            }
+        }
+        assertEquals("11", readEvalTable().get("urn:knows"));
+
+        // Loading the same statements again only counts the two that are new.
+        try (AccumuloRyaBulkLoader loader = new AccumuloRyaBulkLoader(connector, conf, fs, workDir)) {
+            for (int i = 0; i < 13; i++) {
+                loader.addStatement(new RyaStatement(new RyaURI("urn:a" + i), predicate, new RyaURI("urn:b")));
+            }
+        }
+        assertEquals("13", readEvalTable().get("urn:knows"));
+        assertEquals(13, count(new RyaStatement(null, predicate, null)));
+    }
+
+    @Test
+    public void evalStatsDisabled() throws Exception {
+        conf.setBulkEvalStats(false);
+        try (AccumuloRyaBulkLoader loader = new AccumuloRyaBulkLoader(connector, conf, fs, workDir)) {
+            for (int i = 0; i < 20; i++) {
+                loader.addStatement(new RyaStatement(new RyaURI("urn:a" + i), new RyaURI("urn:knows"), new RyaURI("urn:b")));
+            }
+        }
+        assertEquals(20, count(new RyaStatement(null, new RyaURI("urn:knows"), null)));
+        assertTrue(readEvalTable().isEmpty());
+    }
+
+    @Test
+    public void evalStatsMaxKeys() throws Exception {
+        // Only the first subject and the first predicate are counted.
+        conf.setBulkEvalStatsMaxKeys(2);
+        try (AccumuloRyaBulkLoader loader = new AccumuloRyaBulkLoader(connector, conf, fs, workDir)) {
+            for (int i = 0; i < 11; i++) {
+                loader.addStatement(new RyaStatement(new RyaURI("urn:a" + i), new RyaURI("urn:knows"), new RyaURI("urn:b")));
+            }
+            for (int i = 0; i < 11; i++) {
+                loader.addStatement(new RyaStatement(new RyaURI("urn:a" + i), new RyaURI("urn:likes"), new RyaURI("urn:b")));
+            }
+        }
+        assertEquals(11, count(new RyaStatement(null, new RyaURI("urn:likes"), null)));
+
+        final Map<String, String> evalCounts = readEvalTable();
+        assertEquals("11", evalCounts.get("urn:knows"));
+        assertFalse(evalCounts.containsKey("urn:likes"));
+    }
+
+    @Test
+    public void dirPermission() throws Exception {
+        assertEquals(new FsPermission((short) 0770), BulkImport.getDirPermission(conf));
+
+        conf.setBulkDirPermission("750");
+        assertEquals(new FsPermission((short) 0750), BulkImport.getDirPermission(conf));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void dirPermission_notOctal() throws Exception {
+        conf.setBulkDirPermission("rwxrwx---");
+        BulkImport.getDirPermission(conf);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addStatement_closed() throws Exception {
+        final AccumuloRyaBulkLoader loader = new AccumuloRyaBulkLoader(connector, conf, fs, workDir);
+        loader.close();
+        loader.addStatement(new RyaStatement(new RyaURI("urn:a"), new RyaURI("urn:b"), new RyaURI("urn:c")));
+    }
+
+    private int count(final RyaStatement query) throws RyaDAOException {
+        int count = 0;
+        final CloseableIteration<RyaStatement, RyaDAOException> it = dao.getQueryEngine().query(query, conf);
+        try {
+            final Set<RyaStatement> seen = new HashSet<>();
+            while (it.hasNext()) {
+                assertTrue(seen.add(it.next()));
+                count++;
+            }
+        } finally {
+            it.close();
+        }
+        return count;
+    }
+
+    private Map<String, String> readEvalTable() throws Exception {
+        final Map<String, String> counts = new HashMap<>();
+        final String evalTable = conf.getTablePrefix() + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX;
+        if (!connector.tableOperations().exists(evalTable)) {
+            return counts;
+        }
+        final Scanner scanner = connector.createScanner(evalTable, new Authorizations());
+        for (final Entry<Key, Value> entry : scanner) {
+            counts.put(entry.getKey().getRow().toString(), entry.getValue().toString());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo.load;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.AccumuloRyaDAO;
+import org.apache.rya.accumulo.load.AccumuloParallelStatementLoader.LoadProgress;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.api.persist.RyaDAOException;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the methods of {@link AccumuloParallelStatementLoader}.
+ */
+public class AccumuloParallelStatementLoaderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Connector connector;
+    private AccumuloRdfConfiguration conf;
+    private AccumuloRyaDAO dao;
+
+    @Before
+    public void setUp() throws Exception {
+        connector = new MockInstance("parallelLoaderTest").getConnector("root", new PasswordToken(""));
+        conf = new AccumuloRdfConfiguration();
+        conf.setTablePrefix("load_");
+        conf.setLoadThreads(3);
+        conf.setLoadQueueSize(2);
+
+        dao = new AccumuloRyaDAO();
+        dao.setConnector(connector);
+        dao.setConf(conf);
+        dao.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dao.purge(conf);
+        dao.destroy();
+    }
+
+    @Test
+    public void load_chunkedNTriples() throws Exception {
+        final StringBuilder ntriples = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            ntriples.append("<urn:person" + i + "> <urn:worksAt> <urn:company" + (i % 3) + "> .\n");
+        }
+        // The same blank node is referenced from the first and last chunks.
+        ntriples.insert(0, "_:shared <urn:name> \"shared\" .\n");
+        ntriples.append("<urn:person0> <urn:knows> _:shared .\n");
+        final File file = write("statements.nt", ntriples.toString());
+
+        final LoadProgress progress;
+        try (AccumuloParallelStatementLoader loader = new AccumuloParallelStatementLoader(connector, conf)) {
+            loader.setMinChunkBytes(1024);
+            progress = loader.load(file.toPath(), RDFFormat.NTRIPLES);
+        }
+
+        assertEquals(5002, progress.getStatements());
+        assertEquals(file.length(), progress.getBytesRead());
+        assertEquals(5000, count(new RyaStatement(null, new RyaURI("urn:worksAt"), null)));
+
+        final List<RyaStatement> named = query(new RyaStatement(null, new RyaURI("urn:name"), null));
+        final List<RyaStatement> known = query(new RyaStatement(new RyaURI("urn:person0"), new RyaURI("urn:knows"), null));
+        assertEquals(1, named.size());
+        assertEquals(1, known.size());
+        assertEquals(named.get(0).getSubject().getData(), known.get(0).getObject().getData());
+    }
+
+    @Test
+    public void load_blankNodesNotSharedAcrossLoads() throws Exception {
+        final File first = write("first.nt", "_:b0 <urn:name> \"first\" .\n");
+        final File second = write("second.nt", "_:b0 <urn:name> \"second\" .\n");
+
+        try (AccumuloParallelStatementLoader loader = new AccumuloParallelStatementLoader(connector, conf)) {
+            loader.load(first.toPath(), RDFFormat.NTRIPLES);
+            loader.load(second.toPath(), RDFFormat.NTRIPLES);
+            // Loading the same file again must not merge into the nodes that were already loaded.
+            loader.load(first.toPath(), RDFFormat.NTRIPLES);
+        }
+
+        final Set<String> subjects = new HashSet<>();
+        for (final RyaStatement statement : query(new RyaStatement(null, new RyaURI("urn:name"), null))) {
+            subjects.add(statement.getSubject().getData());
+        }
+        assertEquals(3, subjects.size());
+    }
+
+    @Test
+    public void load_turtle() throws Exception {
+        final File file = write("statements.ttl",
+                "@prefix ex: <urn:example:> .\n" +
+                "ex:alice ex:talksTo ex:bob, ex:charlie .\n");
+
+        try (AccumuloParallelStatementLoader loader = new AccumuloParallelStatementLoader(connector, conf)) {
+            assertEquals(2, loader.load(file.toPath(), RDFFormat.TURTLE).getStatements());
+        }
+
+        assertEquals(2, count(new RyaStatement(new RyaURI("urn:example:alice"), null, null)));
+        assertEquals("urn:example:", dao.getNamespace("ex"));
+    }
+
+    @Test(expected = RDFParseException.class)
+    public void load_parseError() throws Exception {
+        final File file = write("statements.nt", "<urn:a> <urn:b> .\n");
+        try (AccumuloParallelStatementLoader loader = new AccumuloParallelStatementLoader(connector, conf)) {
+            loader.load(file.toPath(), RDFFormat.NTRIPLES);
+        }
+    }
+
+    private File write(final String name, final String content) throws Exception {
+        final File file = tempFolder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private int count(final RyaStatement query) throws RyaDAOException {
+        return new HashSet<>(query(query)).size();
+    }
+
+    private List<RyaStatement> query(final RyaStatement query) throws RyaDAOException {
+        final List<RyaStatement> results = new ArrayList<>();
+        final CloseableIteration<RyaStatement, RyaDAOException> it = dao.getQueryEngine().query(query, conf);
+        try {
+            while (it.hasNext()) {
+                results.add(it.next());
+            }
+        } finally {
+            it.close();
+        }
+        return results;
+    }
+}
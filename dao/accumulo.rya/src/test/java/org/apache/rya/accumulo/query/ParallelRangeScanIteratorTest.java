@@ -0,0 +1,193 @@
+package org.apache.rya.accumulo.query;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the methods of {@link ParallelRangeScanIterator} and {@link RangeScanPlan}.
+ */
+public class ParallelRangeScanIteratorTest {
+    private static final String TABLE = "parallel_scan_test";
+
+    private Connector connector;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        connector = new MockInstance("parallelScanInstance").getConnector("root", "");
+        if (connector.tableOperations().exists(TABLE)) {
+            connector.tableOperations().delete(TABLE);
+        }
+        connector.tableOperations().create(TABLE);
+
+        // Ten rows per prefix, for the prefixes a through e.
+        BatchWriter writer = connector.createBatchWriter(TABLE, new BatchWriterConfig());
+        for (char prefix = 'a'; prefix <= 'e'; prefix++) {
+            for (int i = 0; i < 10; i++) {
+                Mutation mutation = new Mutation(prefix + "_" + i);
+                mutation.put("cf", "cq", new Value(new byte[0]));
+                writer.addMutation(mutation);
+            }
+        }
+        writer.close();
+
+        executor = ParallelRangeScanIterator.createExecutor(4, 4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void ordered() throws Exception {
+        // The ranges are not in key order, so a sorted result would not match.
+        List<Range> ranges = Arrays.asList(Range.prefix("d"), Range.prefix("a"), Range.prefix("c"));
+        List<String> expected = scanSequentially(ranges);
+
+        // A buffer of 1 forces the scans to block on the consumer.
+        ParallelRangeScanIterator iter = new ParallelRangeScanIterator(ranges, this::createScanner, executor, 2, 1, true);
+        assertEquals(expected, getRows(iter));
+    }
+
+    @Test
+    public void unordered() throws Exception {
+        List<Range> ranges = Arrays.asList(Range.prefix("d"), Range.prefix("a"), Range.prefix("c"), Range.prefix("e"));
+        List<String> expected = scanSequentially(ranges);
+
+        ParallelRangeScanIterator iter = new ParallelRangeScanIterator(ranges, this::createScanner, executor, 3, 2, false);
+        List<String> rows = getRows(iter);
+        Collections.sort(expected);
+        Collections.sort(rows);
+        assertEquals(expected, rows);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void scanFails() throws Exception {
+        List<Range> ranges = Arrays.asList(Range.prefix("a"), Range.prefix("b"));
+        ParallelRangeScanIterator iter = new ParallelRangeScanIterator(ranges, range -> {
+            if (range.equals(Range.prefix("b"))) {
+                throw new IllegalStateException("Could not create the scanner.");
+            }
+            return createScanner(range);
+        }, executor, 2, 1, true);
+        getRows(iter);
+    }
+
+    @Test
+    public void busyExecutor() throws Exception {
+        // Every thread of the pool is busy and its queue is full, so the consumer must scan the ranges itself.
+        ExecutorService busy = ParallelRangeScanIterator.createExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            busy.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            busy.execute(() -> { });
+
+            List<Range> ranges = Arrays.asList(Range.prefix("c"), Range.prefix("a"), Range.prefix("e"));
+            List<String> expected = scanSequentially(ranges);
+            assertEquals(expected, getRows(new ParallelRangeScanIterator(ranges, this::createScanner, busy, 2, 1, true)));
+
+            List<String> rows = getRows(new ParallelRangeScanIterator(ranges, this::createScanner, busy, 2, 1, false));
+            Collections.sort(expected);
+            Collections.sort(rows);
+            assertEquals(expected, rows);
+        } finally {
+            release.countDown();
+            busy.shutdownNow();
+        }
+    }
+
+    @Test
+    public void closeStopsScans() throws Exception {
+        List<Range> ranges = Arrays.asList(Range.prefix("a"), Range.prefix("b"), Range.prefix("c"));
+        ParallelRangeScanIterator iter = new ParallelRangeScanIterator(ranges, this::createScanner, executor, 2, 1, true);
+        iter.next();
+        iter.close();
+        assertEquals(false, iter.hasNext());
+    }
+
+    @Test
+    public void choosePlan() {
+        assertEquals(RangeScanPlan.BATCH, RangeScanPlan.choose(50, null, 40, 2, 4));
+        assertEquals(RangeScanPlan.PARALLEL, RangeScanPlan.choose(40, null, 40, 2, 4));
+        assertEquals(RangeScanPlan.SEQUENTIAL, RangeScanPlan.choose(1, null, 40, 2, 4));
+        assertEquals(RangeScanPlan.SEQUENTIAL, RangeScanPlan.choose(3, null, 40, 4, 4));
+        assertEquals(RangeScanPlan.SEQUENTIAL, RangeScanPlan.choose(10, null, 40, 2, 1));
+        assertEquals(RangeScanPlan.SEQUENTIAL, RangeScanPlan.choose(10, 5L, 40, 2, 4));
+        assertEquals(RangeScanPlan.PARALLEL, RangeScanPlan.choose(10, 100L, 40, 2, 4));
+    }
+
+    private Scanner createScanner(Range range) throws Exception {
+        Scanner scanner = connector.createScanner(TABLE, new Authorizations());
+        scanner.setRange(range);
+        return scanner;
+    }
+
+    private List<String> scanSequentially(List<Range> ranges) throws Exception {
+        List<String> rows = new ArrayList<>();
+        for (Range range : ranges) {
+            for (Map.Entry<Key, Value> entry : createScanner(range)) {
+                rows.add(entry.getKey().getRow().toString());
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> getRows(ParallelRangeScanIterator iter) {
+        List<String> rows = new ArrayList<>();
+        try {
+            while (iter.hasNext()) {
+                rows.add(iter.next().getKey().getRow().toString());
+            }
+        } finally {
+            iter.close();
+        }
+        return rows;
+    }
+}
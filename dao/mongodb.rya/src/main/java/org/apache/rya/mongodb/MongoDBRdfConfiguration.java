@@ -41,6 +41,8 @@ public class MongoDBRdfConfiguration extends RdfCloudTripleStoreConfiguration {
     public static final String CONF_ADDITIONAL_INDEXERS = "ac.additional.indexers";
     public static final String USE_MOCK_MONGO = ".useMockInstance";
     public static final String CONF_FLUSH_EACH_UPDATE = "rya.mongodb.dao.flusheachupdate";
+    public static final String CONF_MAINTAIN_EVAL_STATS = "rya.mongodb.dao.evalstats";
+    public static final String CONF_USE_AGGREGATION_PIPELINE = "rya.mongodb.query.aggregation";
 
     private MongoClient mongoClient;
 
@@ -122,6 +124,43 @@ public class MongoDBRdfConfiguration extends RdfCloudTripleStoreConfiguration {
         setBoolean(CONF_FLUSH_EACH_UPDATE, flush);
     }
 
+    /**
+     * @return {@code true} if the cardinalities used to order joins are counted
+     * as statements are added and deleted, and read by the Sail that is built by
+     * the Rya Sail factory. Queries only use them when {@link #CONF_USE_STATS}
+     * is set as well. Defaults to {@code false} if nothing is specified.
+     */
+    public boolean isMaintainEvalStats() {
+        return getBoolean(CONF_MAINTAIN_EVAL_STATS, false);
+    }
+
+    /**
+     * Sets the {@link #CONF_MAINTAIN_EVAL_STATS} property of the configuration.
+     * @param maintain {@code true} if the cardinalities used to order joins
+     * should be counted as statements are added and deleted.
+     */
+    public void setMaintainEvalStats(final boolean maintain) {
+        setBoolean(CONF_MAINTAIN_EVAL_STATS, maintain);
+    }
+
+    /**
+     * @return {@code true} if joins of statement patterns are evaluated as a
+     * single MongoDB aggregation pipeline instead of one pattern at a time.
+     * Defaults to {@code false} if nothing is specified.
+     */
+    public boolean isUseAggregationPipeline() {
+        return getBoolean(CONF_USE_AGGREGATION_PIPELINE, false);
+    }
+
+    /**
+     * Sets the {@link #CONF_USE_AGGREGATION_PIPELINE} property of the configuration.
+     * @param useAggregationPipeline {@code true} if joins of statement patterns
+     * should be evaluated as a single MongoDB aggregation pipeline.
+     */
+    public void setUseAggregationPipeline(final boolean useAggregationPipeline) {
+        setBoolean(CONF_USE_AGGREGATION_PIPELINE, useAggregationPipeline);
+    }
+
     /**
      * @return name of Mongo Collection containing Rya triples
      */
@@ -211,6 +250,13 @@ public class MongoDBRdfConfiguration extends RdfCloudTripleStoreConfiguration {
         return getBoolean(USE_MOCK_MONGO, false);
     }
 
+    /**
+     * @return name of the Mongo Collection containing the cardinalities used to order joins
+     */
+    public String getEvalStatsCollectionName() {
+        return this.get(MONGO_COLLECTION_PREFIX, "rya") + "_eval_stats";
+    }
+
     /**
      * @return name of NameSpace Mongo Collection
      */
@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.mongodb;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.DELIM;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.log4j.Logger;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.persist.CardinalityRequest;
+import org.apache.rya.api.persist.RdfDAOException;
+import org.apache.rya.api.persist.RdfEvalStatsDAO;
+import org.apache.rya.mongodb.dao.SimpleMongoDBStorageStrategy;
+import org.bson.Document;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+
+/**
+ * A {@link RdfEvalStatsDAO} that reads the cardinalities of subjects, predicates,
+ * objects, and each pair of them from a MongoDB collection. The counts are kept
+ * up to date by {@link MongoDBRyaDAO} as statements are added and deleted when
+ * {@link MongoDBRdfConfiguration#CONF_MAINTAIN_EVAL_STATS} is set. Use
+ * {@link #rebuild()} to count the statements that were stored before then.
+ * <p>
+ * Each count is a document whose id is a hash of the kind of cardinality, the
+ * values it counts, and the context. Statements are counted once without a context
+ * and once more within their context if they have one. The counts do not take
+ * document visibilities into account.
+ */
+public class MongoDBRdfEvalStatsDAO implements RdfEvalStatsDAO<MongoDBRdfConfiguration> {
+    private static final Logger log = Logger.getLogger(MongoDBRdfEvalStatsDAO.class);
+
+    private static final String COUNT = "count";
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final MongoClient mongoClient;
+    private MongoDBRdfConfiguration conf;
+    private MongoCollection<Document> stats;
+    private boolean initialized = false;
+
+    /**
+     * Constructs an instance of {@link MongoDBRdfEvalStatsDAO}.
+     *
+     * @param mongoClient - Connects to the MongoDB that holds the counts. (not null)
+     */
+    public MongoDBRdfEvalStatsDAO(final MongoClient mongoClient) {
+        this.mongoClient = requireNonNull(mongoClient);
+    }
+
+    @Override
+    public void init() throws RdfDAOException {
+        if (initialized) {
+            throw new IllegalStateException("Already initialized");
+        }
+        requireNonNull(conf);
+        stats = mongoClient.getDatabase(conf.getMongoDBName()).getCollection(conf.getEvalStatsCollectionName());
+        initialized = true;
+    }
+
+    @Override
+    public boolean isInitialized() throws RdfDAOException {
+        return initialized;
+    }
+
+    @Override
+    public void destroy() throws RdfDAOException {
+        if (!initialized) {
+            throw new IllegalStateException("Not initialized");
+        }
+        initialized = false;
+    }
+
+    @Override
+    public MongoDBRdfConfiguration getConf() {
+        return conf;
+    }
+
+    @Override
+    public void setConf(final MongoDBRdfConfiguration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public double getCardinality(final MongoDBRdfConfiguration conf, final CARDINALITY_OF card, final List<Value> val) throws RdfDAOException {
+        return getCardinality(conf, card, val, null);
+    }
+
+    @Override
+    public double getCardinality(final MongoDBRdfConfiguration conf, final CARDINALITY_OF card, final List<Value> val, final Resource context) throws RdfDAOException {
+        final CardinalityRequest request = new CardinalityRequest(card, val, context);
+        return getCardinalities(conf, Arrays.asList(request)).get(request);
+    }
+
+    /**
+     * Reads all of the requested counts with a single query.
+     */
+    @Override
+    public Map<CardinalityRequest, Double> getCardinalities(final MongoDBRdfConfiguration conf, final Collection<CardinalityRequest> requests) throws RdfDAOException {
+        final Map<String, CardinalityRequest> pending = new HashMap<>();
+        final Map<CardinalityRequest, Double> cardinalities = new HashMap<>();
+        for (final CardinalityRequest request : requests) {
+            final List<String> values = new ArrayList<>();
+            for (final Value value : request.getValues()) {
+                values.add(value.stringValue());
+            }
+            final String context = request.getContext() == null ? "" : request.getContext().stringValue();
+            pending.put(makeId(request.getCard(), values, context), request);
+            cardinalities.put(request, -1.0);
+        }
+
+        if (!pending.isEmpty()) {
+            try (final MongoCursor<Document> counts = stats.find(Filters.in("_id", pending.keySet())).iterator()) {
+                while (counts.hasNext()) {
+                    final Document count = counts.next();
+                    cardinalities.put(pending.get(count.getString("_id")), ((Number) count.get(COUNT)).doubleValue());
+                }
+            } catch (final MongoException e) {
+                throw new RdfDAOException(e);
+            }
+        }
+        return cardinalities;
+    }
+
+    /**
+     * Count statements that have been added to the triples collection.
+     *
+     * @param statements - The statements that were added. (not null)
+     * @throws RdfDAOException The counts could not be updated.
+     */
+    public void addStatements(final Collection<RyaStatement> statements) throws RdfDAOException {
+        updateCounts(statements, 1);
+    }
+
+    /**
+     * Stop counting statements that have been deleted from the triples collection.
+     *
+     * @param statements - The statements that were deleted. (not null)
+     * @throws RdfDAOException The counts could not be updated.
+     */
+    public void removeStatements(final Collection<RyaStatement> statements) throws RdfDAOException {
+        updateCounts(statements, -1);
+    }
+
+    /**
+     * Replaces every count with a fresh count of the statements in the triples
+     * collection. Statements that are added or deleted while this runs may be
+     * counted wrong, so it should be run while nothing else writes to Rya.
+     *
+     * @return The number of statements that were counted.
+     * @throws RdfDAOException The counts could not be rebuilt.
+     */
+    public long rebuild() throws RdfDAOException {
+        final MongoCollection<Document> triples = mongoClient.getDatabase(conf.getMongoDBName()).getCollection(conf.getTriplesCollectionName());
+        long counted = 0;
+        try {
+            stats.drop();
+            final Map<String, Long> deltas = new HashMap<>();
+            try (final MongoCursor<Document> cursor = triples.find()
+                    .projection(Projections.include(
+                            SimpleMongoDBStorageStrategy.SUBJECT,
+                            SimpleMongoDBStorageStrategy.PREDICATE,
+                            SimpleMongoDBStorageStrategy.OBJECT,
+                            SimpleMongoDBStorageStrategy.CONTEXT))
+                    .iterator()) {
+                while (cursor.hasNext()) {
+                    final Document triple = cursor.next();
+                    addDeltas(deltas,
+                            triple.getString(SimpleMongoDBStorageStrategy.SUBJECT),
+                            triple.getString(SimpleMongoDBStorageStrategy.PREDICATE),
+                            triple.getString(SimpleMongoDBStorageStrategy.OBJECT),
+                            triple.getString(SimpleMongoDBStorageStrategy.CONTEXT),
+                            1);
+                    counted++;
+                    if (counted % REBUILD_BATCH_SIZE == 0) {
+                        writeDeltas(deltas);
+                        deltas.clear();
+                    }
+                }
+            }
+            writeDeltas(deltas);
+        } catch (final MongoException e) {
+            throw new RdfDAOException(e);
+        }
+        log.info("Rebuilt the eval stats of " + counted + " statements.");
+        return counted;
+    }
+
+    private void updateCounts(final Collection<RyaStatement> statements, final long delta) throws RdfDAOException {
+        requireNonNull(statements);
+        final Map<String, Long> deltas = new HashMap<>();
+        for (final RyaStatement statement : statements) {
+            addDeltas(deltas,
+                    statement.getSubject().getData(),
+                    statement.getPredicate().getData(),
+                    statement.getObject().getData(),
+                    statement.getContext() == null ? "" : statement.getContext().getData(),
+                    delta);
+        }
+
+        try {
+            writeDeltas(deltas);
+        } catch (final MongoException e) {
+            throw new RdfDAOException(e);
+        }
+    }
+
+    private static void addDeltas(final Map<String, Long> deltas, final String subject, final String predicate,
+            final String object, final String context, final long delta) {
+        final List<String> contexts = context == null || context.isEmpty() ? Arrays.asList("") : Arrays.asList("", context);
+        for (final String ctx : contexts) {
+            deltas.merge(makeId(CARDINALITY_OF.SUBJECT, Arrays.asList(subject), ctx), delta, Long::sum);
+            deltas.merge(makeId(CARDINALITY_OF.PREDICATE, Arrays.asList(predicate), ctx), delta, Long::sum);
+            deltas.merge(makeId(CARDINALITY_OF.OBJECT, Arrays.asList(object), ctx), delta, Long::sum);
+            deltas.merge(makeId(CARDINALITY_OF.SUBJECTPREDICATE, Arrays.asList(subject, predicate), ctx), delta, Long::sum);
+            deltas.merge(makeId(CARDINALITY_OF.SUBJECTOBJECT, Arrays.asList(subject, object), ctx), delta, Long::sum);
+            deltas.merge(makeId(CARDINALITY_OF.PREDICATEOBJECT, Arrays.asList(predicate, object), ctx), delta, Long::sum);
+        }
+    }
+
+    private void writeDeltas(final Map<String, Long> deltas) {
+        final List<WriteModel<Document>> updates = new ArrayList<>();
+        for (final Map.Entry<String, Long> delta : deltas.entrySet()) {
+            if (delta.getValue() != 0) {
+                updates.add(new UpdateOneModel<>(
+                        Filters.eq("_id", delta.getKey()),
+                        Updates.inc(COUNT, delta.getValue()),
+                        new UpdateOptions().upsert(true)));
+            }
+        }
+        if (!updates.isEmpty()) {
+            stats.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        }
+    }
+
+    /**
+     * The values are hashed because they may be longer than MongoDB allows an indexed value to be.
+     */
+    private static String makeId(final CARDINALITY_OF card, final List<String> values, final String context) {
+        final StringBuilder id = new StringBuilder(card.name());
+        for (final String value : values) {
+            id.append(DELIM).append(value);
+        }
+        id.append(DELIM).append(context);
+        return DigestUtils.sha256Hex(id.toString());
+    }
+}
@@ -32,6 +32,7 @@ import org.apache.log4j.Logger;
 import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
 import org.apache.rya.api.domain.RyaStatement;
 import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.api.persist.RdfDAOException;
 import org.apache.rya.api.persist.RyaDAO;
 import org.apache.rya.api.persist.RyaDAOException;
 import org.apache.rya.api.persist.RyaNamespaceManager;
@@ -50,6 +51,7 @@ import org.apache.rya.mongodb.document.util.DocumentVisibilityUtil;
 
 import com.mongodb.DB;
 import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
 import com.mongodb.DuplicateKeyException;
 import com.mongodb.MongoClient;
@@ -75,6 +77,8 @@ public final class MongoDBRyaDAO implements RyaDAO<MongoDBRdfConfiguration>{
 
     private MongoDbBatchWriter<DBObject> mongoDbBatchWriter;
 
+    private MongoDBRdfEvalStatsDAO evalStatsDAO;
+
     /**
      * Creates a new instance of {@link MongoDBRyaDAO}.
      * @param conf the {@link MongoDBRdfConfiguration}.
@@ -143,9 +147,18 @@ public final class MongoDBRyaDAO implements RyaDAO<MongoDBRdfConfiguration>{
         for(final MongoSecondaryIndex index: secondaryIndexers) {
             index.init();
         }
+        if (conf.isMaintainEvalStats()) {
+            evalStatsDAO = new MongoDBRdfEvalStatsDAO(mongoClient);
+            evalStatsDAO.setConf(conf);
+            try {
+                evalStatsDAO.init();
+            } catch (final RdfDAOException e) {
+                throw new RyaDAOException("Error initializing the eval stats", e);
+            }
+        }
 
         final MongoDbBatchWriterConfig mongoDbBatchWriterConfig = MongoDbBatchWriterUtils.getMongoDbBatchWriterConfig(conf);
-        mongoDbBatchWriter = new MongoDbBatchWriter<DBObject>(new DbCollectionType(coll), mongoDbBatchWriterConfig);
+        mongoDbBatchWriter = new MongoDbBatchWriter<DBObject>(new DbCollectionType(coll), mongoDbBatchWriterConfig, this::countInserted);
         try {
             mongoDbBatchWriter.start();
         } catch (final MongoDbBatchWriterException e) {
@@ -252,7 +265,9 @@ public final class MongoDBRyaDAO implements RyaDAO<MongoDBRdfConfiguration>{
         final boolean canDelete = DocumentVisibilityUtil.doesUserHaveDocumentAccess(auths, statement.getColumnVisibility());
         if (canDelete) {
             final DBObject obj = storageStrategy.getQuery(statement);
+            final List<RyaStatement> removed = findForEvalStats(obj);
             coll.remove(obj);
+            updateEvalStats(removed, false);
             for (final RyaSecondaryIndexer index : secondaryIndexers) {
                 try {
                     index.deleteStatement(statement);
@@ -278,7 +293,10 @@ public final class MongoDBRyaDAO implements RyaDAO<MongoDBRdfConfiguration>{
             final RyaStatement ryaStatement = statements.next();
             final boolean canDelete = DocumentVisibilityUtil.doesUserHaveDocumentAccess(auths, ryaStatement.getColumnVisibility());
             if (canDelete) {
-                coll.remove(storageStrategy.getQuery(ryaStatement));
+                final DBObject query = storageStrategy.getQuery(ryaStatement);
+                final List<RyaStatement> removed = findForEvalStats(query);
+                coll.remove(query);
+                updateEvalStats(removed, false);
                 for (final RyaSecondaryIndexer index : secondaryIndexers) {
                     try {
                         index.deleteStatement(ryaStatement);
@@ -292,6 +310,57 @@ public final class MongoDBRyaDAO implements RyaDAO<MongoDBRdfConfiguration>{
         }
     }
 
+    /**
+     * The statement that is deleted may have wildcards, so the statements that
+     * match it are read so the eval stats only count down the ones that are deleted.
+     */
+    private List<RyaStatement> findForEvalStats(final DBObject query) {
+        final List<RyaStatement> found = new ArrayList<>();
+        if (evalStatsDAO != null) {
+            try (final DBCursor cursor = coll.find(query)) {
+                while (cursor.hasNext()) {
+                    found.add(storageStrategy.deserializeDBObject(cursor.next()));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Statements are only counted once the batch writer has inserted them, so
+     * statements that were skipped because they were already stored are not
+     * counted twice.
+     */
+    private void countInserted(final List<DBObject> inserted) {
+        if (evalStatsDAO == null) {
+            return;
+        }
+        final List<RyaStatement> statements = new ArrayList<>(inserted.size());
+        for (final DBObject obj : inserted) {
+            statements.add(storageStrategy.deserializeDBObject(obj));
+        }
+        try {
+            updateEvalStats(statements, true);
+        } catch (final RyaDAOException e) {
+            log.error("Unable to count " + statements.size() + " inserted statements in the eval stats.", e);
+        }
+    }
+
+    private void updateEvalStats(final List<RyaStatement> statements, final boolean added) throws RyaDAOException {
+        if (evalStatsDAO == null || statements.isEmpty()) {
+            return;
+        }
+        try {
+            if (added) {
+                evalStatsDAO.addStatements(statements);
+            } else {
+                evalStatsDAO.removeStatements(statements);
+            }
+        } catch (final RdfDAOException e) {
+            throw new RyaDAOException("Error updating the eval stats", e);
+        }
+    }
+
     @Override
     public String getVersion() throws RyaDAOException {
         return "1.0";
@@ -0,0 +1,531 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.mongodb.aggregation;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.rya.mongodb.document.operators.aggregation.PipelineOperators.lookup;
+import static org.apache.rya.mongodb.document.operators.aggregation.PipelineOperators.match;
+import static org.apache.rya.mongodb.document.operators.aggregation.PipelineOperators.project;
+import static org.apache.rya.mongodb.document.operators.aggregation.PipelineOperators.redact;
+import static org.apache.rya.mongodb.document.operators.aggregation.PipelineOperators.unwind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.resolver.RdfToRyaConversions;
+import org.apache.rya.mongodb.dao.SimpleMongoDBStorageStrategy;
+import org.apache.rya.mongodb.document.operators.aggregation.AggregationUtil;
+import org.apache.rya.mongodb.document.operators.aggregation.PipelineOperators.RedactAggregationResult;
+import org.bson.Document;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.Compare;
+import org.eclipse.rdf4j.query.algebra.Compare.CompareOp;
+import org.eclipse.rdf4j.query.algebra.SameTerm;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.ValueConstant;
+import org.eclipse.rdf4j.query.algebra.ValueExpr;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.ExternalSet;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Evaluates a connected set of {@link StatementPattern}s, and the simple filters
+ * over their variables, as a single MongoDB aggregation pipeline over the triples
+ * collection, so the join is done by MongoDB instead of by fetching the matches
+ * of one pattern at a time.
+ * <p>
+ * The pipeline matches the first pattern, then joins each following pattern
+ * with a $lookup on a variable it shares with the patterns before it. The
+ * variables that have been bound are carried between stages as embedded
+ * documents that hold the value, its hash, and its type.
+ * <p>
+ * Use {@link #isSupported(Collection)} to check whether a set of patterns may be
+ * evaluated by this node. Patterns that name a context are not supported.
+ */
+@DefaultAnnotation(NonNull.class)
+public class AggregationPipelineQueryNode extends ExternalSet {
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private static final String JOINED_TRIPLE = "joined";
+    private static final String VALUE = "value";
+    private static final String HASH = "hash";
+    private static final String TYPE = "type";
+
+    /**
+     * The positions of a statement pattern that may be stored in the triples collection.
+     */
+    private static enum Position {
+        SUBJECT(SimpleMongoDBStorageStrategy.SUBJECT, SimpleMongoDBStorageStrategy.SUBJECT_HASH),
+        PREDICATE(SimpleMongoDBStorageStrategy.PREDICATE, SimpleMongoDBStorageStrategy.PREDICATE_HASH),
+        OBJECT(SimpleMongoDBStorageStrategy.OBJECT, SimpleMongoDBStorageStrategy.OBJECT_HASH);
+
+        private final String valueField;
+        private final String hashField;
+
+        private Position(final String valueField, final String hashField) {
+            this.valueField = valueField;
+            this.hashField = hashField;
+        }
+
+        /**
+         * @param root - The path of the triple within the pipeline's documents, or empty if it is the document.
+         * @return An expression that resolves to the type of the value at this position.
+         */
+        private Object typeExpression(final String root) {
+            return this == OBJECT ? "$" + root + SimpleMongoDBStorageStrategy.OBJECT_TYPE : literal(SimpleMongoDBStorageStrategy.OBJECT_TYPE_VALUE);
+        }
+    }
+
+    private final MongoCollection<Document> triples;
+    private final List<StatementPattern> patterns;
+    private final Authorizations auths;
+    private final List<ValueExpr> constraints = new ArrayList<>();
+
+    // The field of the pipeline's documents that holds each variable.
+    private final Map<String, String> varFields = new LinkedHashMap<>();
+    private final Set<String> bindingNames;
+
+    /**
+     * Constructs an instance of {@link AggregationPipelineQueryNode}.
+     *
+     * @param triples - The collection that holds the triples. (not null)
+     * @param patterns - The patterns that are joined by this node. They must be
+     *   {@link #isSupported(Collection) supported}. (not null)
+     * @param auths - The authorizations that the matched triples must be visible to. (not null)
+     * @throws IllegalArgumentException The patterns are not supported.
+     */
+    public AggregationPipelineQueryNode(final MongoCollection<Document> triples, final Collection<StatementPattern> patterns, final Authorizations auths) {
+        this.triples = requireNonNull(triples);
+        requireNonNull(patterns);
+        this.auths = requireNonNull(auths);
+
+        if (!isSupported(patterns)) {
+            throw new IllegalArgumentException("The statement patterns may not be joined with a single aggregation pipeline: " + patterns);
+        }
+        this.patterns = orderPatterns(patterns);
+
+        for (final StatementPattern sp : this.patterns) {
+            for (final Var var : sp.getVarList()) {
+                if (!var.hasValue() && !varFields.containsKey(var.getName())) {
+                    varFields.put(var.getName(), "v" + varFields.size());
+                }
+            }
+        }
+        bindingNames = varFields.keySet();
+    }
+
+    /**
+     * @param patterns - The patterns that may be joined by a node. (not null)
+     * @return {@code true} if there are at least two patterns, none of them names
+     *   a context, and every pattern shares a variable with another one.
+     */
+    public static boolean isSupported(final Collection<StatementPattern> patterns) {
+        requireNonNull(patterns);
+        if (patterns.size() < 2) {
+            return false;
+        }
+        for (final StatementPattern sp : patterns) {
+            if (sp.getContextVar() != null) {
+                return false;
+            }
+        }
+        return orderPatterns(patterns).size() == patterns.size();
+    }
+
+    /**
+     * Orders the patterns so that the pipeline begins with the pattern that has
+     * the most constants, and every pattern after it shares a variable with a
+     * pattern before it. Of the patterns that may come next, the one with the
+     * most constants is picked.
+     *
+     * @return The ordered patterns. If the patterns are not connected, only the
+     *   ones that are connected to the first pattern are returned.
+     */
+    private static List<StatementPattern> orderPatterns(final Collection<StatementPattern> patterns) {
+        final List<StatementPattern> remaining = new ArrayList<>(patterns);
+        final List<StatementPattern> ordered = new ArrayList<>();
+        final Set<String> bound = new HashSet<>();
+        while (!remaining.isEmpty()) {
+            StatementPattern next = null;
+            for (final StatementPattern sp : remaining) {
+                if ((ordered.isEmpty() || sharesVariable(sp, bound)) &&
+                        (next == null || countConstants(sp) > countConstants(next))) {
+                    next = sp;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            remaining.remove(next);
+            ordered.add(next);
+            bound.addAll(variableNames(next));
+        }
+        return ordered;
+    }
+
+    private static int countConstants(final StatementPattern sp) {
+        int constants = 0;
+        for (final Var var : sp.getVarList()) {
+            if (var.hasValue()) {
+                constants++;
+            }
+        }
+        return constants;
+    }
+
+    private static Set<String> variableNames(final StatementPattern sp) {
+        final Set<String> names = new HashSet<>();
+        for (final Var var : sp.getVarList()) {
+            if (!var.hasValue()) {
+                names.add(var.getName());
+            }
+        }
+        return names;
+    }
+
+    private static boolean sharesVariable(final StatementPattern sp, final Set<String> names) {
+        for (final String name : variableNames(sp)) {
+            if (names.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluate a filter condition within the pipeline. A condition is supported
+     * if it is an equality, inequality, or sameTerm test between one of this
+     * node's variables and an IRI.
+     *
+     * @param condition - The condition that this node's results must meet. (not null)
+     * @return {@code true} if the condition was added to this node; {@code false}
+     *   if it is not supported and must still be evaluated outside of it.
+     */
+    public boolean addConstraint(final ValueExpr condition) {
+        requireNonNull(condition);
+        if (toMatch(condition) == null) {
+            return false;
+        }
+        constraints.add(condition);
+        return true;
+    }
+
+    /**
+     * @return The query that matches documents whose variable meets the condition,
+     *   or {@code null} if the condition is not supported.
+     */
+    private Document toMatch(final ValueExpr condition) {
+        final ValueExpr left;
+        final ValueExpr right;
+        final boolean equal;
+        if (condition instanceof SameTerm) {
+            left = ((SameTerm) condition).getLeftArg();
+            right = ((SameTerm) condition).getRightArg();
+            equal = true;
+        } else if (condition instanceof Compare &&
+                (((Compare) condition).getOperator() == CompareOp.EQ || ((Compare) condition).getOperator() == CompareOp.NE)) {
+            left = ((Compare) condition).getLeftArg();
+            right = ((Compare) condition).getRightArg();
+            equal = ((Compare) condition).getOperator() == CompareOp.EQ;
+        } else {
+            return null;
+        }
+
+        String var = getVariableName(left);
+        Value constant = getConstant(right);
+        if (var == null || constant == null) {
+            var = getVariableName(right);
+            constant = getConstant(left);
+        }
+        if (var == null || !(constant instanceof IRI) || !varFields.containsKey(var)) {
+            return null;
+        }
+
+        final String field = varFields.get(var);
+        final RyaType ryaConstant = RdfToRyaConversions.convertValue(constant);
+        final Document hash = new Document(field + "." + HASH, DigestUtils.sha256Hex(ryaConstant.getData()));
+        final Document type = new Document(field + "." + TYPE, ryaConstant.getDataType().stringValue());
+        if (equal) {
+            return new Document("$and", Arrays.asList(hash, type));
+        }
+        return new Document("$nor", Arrays.asList(new Document("$and", Arrays.asList(hash, type))));
+    }
+
+    private static String getVariableName(final ValueExpr expr) {
+        return expr instanceof Var && !((Var) expr).hasValue() ? ((Var) expr).getName() : null;
+    }
+
+    private static Value getConstant(final ValueExpr expr) {
+        if (expr instanceof ValueConstant) {
+            return ((ValueConstant) expr).getValue();
+        }
+        return expr instanceof Var ? ((Var) expr).getValue() : null;
+    }
+
+    /**
+     * @return The patterns that are joined by this node, in the order they are joined.
+     */
+    public List<StatementPattern> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * @return The filter conditions that are evaluated by this node.
+     */
+    public List<ValueExpr> getConstraints() {
+        return constraints;
+    }
+
+    @Override
+    public Set<String> getBindingNames() {
+        return bindingNames;
+    }
+
+    @Override
+    public Set<String> getAssuredBindingNames() {
+        return bindingNames;
+    }
+
+    /**
+     * Builds the aggregation pipeline that finds the results that are compatible
+     * with a binding set.
+     *
+     * @param bindingSet - The values that the results must have. (not null)
+     * @return The stages of the pipeline.
+     */
+    public List<Document> getPipeline(final BindingSet bindingSet) {
+        requireNonNull(bindingSet);
+        final List<Document> pipeline = new ArrayList<>();
+        final Set<String> projected = new HashSet<>();
+
+        for (int i = 0; i < patterns.size(); i++) {
+            final StatementPattern sp = patterns.get(i);
+            final Map<Position, Var> positions = getPositions(sp);
+            final String root;
+            if (i == 0) {
+                root = "";
+            } else {
+                root = JOINED_TRIPLE + ".";
+                // Join with the triples that match one of the variables that have already been bound.
+                Position joinPosition = null;
+                for (final Map.Entry<Position, Var> entry : positions.entrySet()) {
+                    if (joinPosition == null && !entry.getValue().hasValue() && projected.contains(entry.getValue().getName())) {
+                        joinPosition = entry.getKey();
+                    }
+                }
+                final String joinField = varFields.get(positions.get(joinPosition).getName());
+                pipeline.add(lookup(triples.getNamespace().getCollectionName(), joinField + "." + HASH, joinPosition.hashField, JOINED_TRIPLE));
+                pipeline.add(unwind(JOINED_TRIPLE));
+            }
+
+            // The constants, and the values the binding set gives the variables, are matched by their indexed hashes.
+            final Document query = new Document();
+            final List<Document> comparisons = new ArrayList<>();
+            final Map<String, Position> firstPositions = new HashMap<>();
+            for (final Map.Entry<Position, Var> entry : positions.entrySet()) {
+                final Position position = entry.getKey();
+                final Var var = entry.getValue();
+                final Value value = var.hasValue() ? var.getValue() : bindingSet.getValue(var.getName());
+                final boolean newVariable = !var.hasValue() && !projected.contains(var.getName()) && !firstPositions.containsKey(var.getName());
+
+                if (value != null && (var.hasValue() || newVariable)) {
+                    final RyaType ryaValue = RdfToRyaConversions.convertValue(value);
+                    query.append(root + position.hashField, DigestUtils.sha256Hex(ryaValue.getData()));
+                    if (position == Position.OBJECT) {
+                        query.append(root + SimpleMongoDBStorageStrategy.OBJECT_TYPE, ryaValue.getDataType().stringValue());
+                    }
+                }
+
+                if (var.hasValue()) {
+                    continue;
+                } else if (projected.contains(var.getName())) {
+                    final String field = "$" + varFields.get(var.getName());
+                    comparisons.add(eq(field + "." + HASH, "$" + root + position.hashField));
+                    comparisons.add(eq(field + "." + TYPE, position.typeExpression(root)));
+                } else if (firstPositions.containsKey(var.getName())) {
+                    final Position first = firstPositions.get(var.getName());
+                    comparisons.add(eq("$" + root + first.hashField, "$" + root + position.hashField));
+                    comparisons.add(eq(first.typeExpression(root), position.typeExpression(root)));
+                } else {
+                    firstPositions.put(var.getName(), position);
+                }
+            }
+
+            if (!query.isEmpty()) {
+                pipeline.add(match(query));
+            }
+            pipeline.addAll(AggregationUtil.createRedactPipeline(auths, root + SimpleMongoDBStorageStrategy.DOCUMENT_VISIBILITY));
+            if (!comparisons.isEmpty()) {
+                pipeline.add(redact(new Document("$and", comparisons), RedactAggregationResult.KEEP, RedactAggregationResult.PRUNE));
+            }
+
+            // Carry the bound variables to the next stage.
+            final Document projection = new Document("_id", 0);
+            for (final String name : projected) {
+                projection.append(varFields.get(name), 1);
+            }
+            for (final Map.Entry<String, Position> entry : firstPositions.entrySet()) {
+                final Position position = entry.getValue();
+                projection.append(varFields.get(entry.getKey()), new Document(VALUE, "$" + root + position.valueField)
+                        .append(HASH, "$" + root + position.hashField)
+                        .append(TYPE, position.typeExpression(root)));
+                projected.add(entry.getKey());
+            }
+            pipeline.add(project(projection));
+        }
+
+        for (final ValueExpr constraint : constraints) {
+            pipeline.add(match(toMatch(constraint)));
+        }
+        return pipeline;
+    }
+
+    private static Map<Position, Var> getPositions(final StatementPattern sp) {
+        final Map<Position, Var> positions = new LinkedHashMap<>();
+        positions.put(Position.SUBJECT, sp.getSubjectVar());
+        positions.put(Position.PREDICATE, sp.getPredicateVar());
+        positions.put(Position.OBJECT, sp.getObjectVar());
+        return positions;
+    }
+
+    private static Document eq(final Object expression1, final Object expression2) {
+        return new Document("$eq", Arrays.asList(expression1, expression2));
+    }
+
+    private static Document literal(final Object value) {
+        return new Document("$literal", value);
+    }
+
+    @Override
+    public CloseableIteration<BindingSet, QueryEvaluationException> evaluate(final BindingSet bindingSet) throws QueryEvaluationException {
+        requireNonNull(bindingSet);
+        final MongoCursor<Document> cursor;
+        try {
+            cursor = triples.aggregate(getPipeline(bindingSet)).allowDiskUse(true).batchSize(1000).iterator();
+        } catch (final MongoException e) {
+            throw new QueryEvaluationException("Could not run the aggregation pipeline.", e);
+        }
+
+        return new CloseableIteration<BindingSet, QueryEvaluationException>() {
+            @Override
+            public boolean hasNext() throws QueryEvaluationException {
+                try {
+                    return cursor.hasNext();
+                } catch (final MongoException e) {
+                    throw new QueryEvaluationException("Could not read the results of the aggregation pipeline.", e);
+                }
+            }
+
+            @Override
+            public BindingSet next() throws QueryEvaluationException {
+                try {
+                    return toBindingSet(cursor.next(), bindingSet);
+                } catch (final MongoException e) {
+                    throw new QueryEvaluationException("Could not read the results of the aggregation pipeline.", e);
+                }
+            }
+
+            @Override
+            public void remove() throws QueryEvaluationException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() throws QueryEvaluationException {
+                cursor.close();
+            }
+        };
+    }
+
+    /**
+     * Creates the result of joining a binding set with one of the pipeline's results.
+     */
+    private BindingSet toBindingSet(final Document result, final BindingSet bindingSet) {
+        final MapBindingSet resultSet = new MapBindingSet();
+        for (final Binding binding : bindingSet) {
+            resultSet.addBinding(binding);
+        }
+        for (final Map.Entry<String, String> entry : varFields.entrySet()) {
+            final Document var = (Document) result.get(entry.getValue());
+            if (var != null && !resultSet.hasBinding(entry.getKey())) {
+                final String value = var.getString(VALUE);
+                final String type = var.getString(TYPE);
+                if (type.equalsIgnoreCase(SimpleMongoDBStorageStrategy.OBJECT_TYPE_VALUE)) {
+                    resultSet.addBinding(entry.getKey(), VF.createIRI(value));
+                } else {
+                    resultSet.addBinding(entry.getKey(), VF.createLiteral(value, VF.createIRI(type)));
+                }
+            }
+        }
+        return resultSet;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(patterns, constraints);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (other instanceof AggregationPipelineQueryNode) {
+            final AggregationPipelineQueryNode otherNode = (AggregationPipelineQueryNode) other;
+            return Objects.equals(patterns, otherNode.patterns) &&
+                    Objects.equals(constraints, otherNode.constraints);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AggregationPipelineQueryNode\n");
+        for (final StatementPattern sp : patterns) {
+            sb.append(sp.toString());
+        }
+        for (final ValueExpr constraint : constraints) {
+            sb.append("Filter: ").append(constraint.toString()).append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.mongodb.aggregation;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.rya.mongodb.MongoDBRdfConfiguration;
+import org.bson.Document;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.Dataset;
+import org.eclipse.rdf4j.query.algebra.Filter;
+import org.eclipse.rdf4j.query.algebra.Join;
+import org.eclipse.rdf4j.query.algebra.QueryModelNode;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryOptimizer;
+import org.eclipse.rdf4j.query.algebra.helpers.AbstractQueryModelVisitor;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.MongoCollection;
+
+/**
+ * Replaces each connected group of {@link StatementPattern}s that are joined
+ * together with an {@link AggregationPipelineQueryNode}, so that MongoDB joins
+ * them with a single aggregation pipeline. The filters above a group that
+ * the node supports are evaluated by the node as well.
+ * <p>
+ * Patterns that may not be joined by a pipeline, such as patterns that name a
+ * context or share no variables with the others, are left in the query and
+ * evaluated one at a time as before.
+ */
+public class MongoAggregationOptimizer implements QueryOptimizer, Configurable {
+
+    private MongoDBRdfConfiguration conf;
+    private MongoCollection<Document> triples;
+
+    @Override
+    public void setConf(final Configuration conf) {
+        requireNonNull(conf);
+        checkArgument(conf instanceof MongoDBRdfConfiguration, "The aggregation optimizer requires a MongoDBRdfConfiguration.");
+        this.conf = (MongoDBRdfConfiguration) conf;
+
+        final MongoClient client = this.conf.getMongoClient();
+        checkArgument(client != null, "The configuration must hold the MongoClient that is used to query Rya.");
+        triples = client.getDatabase(this.conf.getMongoDBName()).getCollection(this.conf.getTriplesCollectionName());
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    @Override
+    public void optimize(final TupleExpr tupleExpr, final Dataset dataset, final BindingSet bindings) {
+        requireNonNull(tupleExpr);
+        requireNonNull(triples, "The configuration must be set before a query is optimized.");
+
+        final JoinCollector collector = new JoinCollector();
+        tupleExpr.visit(collector);
+        for (final Join join : collector.joins) {
+            replaceJoin(join);
+        }
+    }
+
+    /**
+     * Replaces the connected groups of patterns within a tree of joins.
+     */
+    private void replaceJoin(final Join join) {
+        final List<TupleExpr> leaves = new ArrayList<>();
+        flatten(join, leaves);
+
+        final List<StatementPattern> patterns = new ArrayList<>();
+        final List<TupleExpr> others = new ArrayList<>();
+        for (final TupleExpr leaf : leaves) {
+            if (leaf instanceof StatementPattern && ((StatementPattern) leaf).getContextVar() == null) {
+                patterns.add((StatementPattern) leaf);
+            } else {
+                others.add(leaf);
+            }
+        }
+
+        final List<TupleExpr> replacements = new ArrayList<>();
+        final List<AggregationPipelineQueryNode> nodes = new ArrayList<>();
+        for (final List<StatementPattern> group : groupConnected(patterns)) {
+            if (AggregationPipelineQueryNode.isSupported(group)) {
+                final AggregationPipelineQueryNode node = new AggregationPipelineQueryNode(triples, group, conf.getAuthorizations());
+                nodes.add(node);
+                replacements.add(node);
+            } else {
+                replacements.addAll(group);
+            }
+        }
+        if (nodes.isEmpty()) {
+            return;
+        }
+        replacements.addAll(others);
+
+        TupleExpr replacement = replacements.get(0);
+        for (int i = 1; i < replacements.size(); i++) {
+            replacement = new Join(replacement, replacements.get(i));
+        }
+        join.replaceWith(replacement);
+
+        for (final AggregationPipelineQueryNode node : nodes) {
+            pushFilters(node);
+        }
+    }
+
+    private static void flatten(final TupleExpr expr, final List<TupleExpr> leaves) {
+        if (expr instanceof Join) {
+            flatten(((Join) expr).getLeftArg(), leaves);
+            flatten(((Join) expr).getRightArg(), leaves);
+        } else {
+            leaves.add(expr);
+        }
+    }
+
+    /**
+     * Splits the patterns into groups that are connected by the variables they share.
+     */
+    private static List<List<StatementPattern>> groupConnected(final List<StatementPattern> patterns) {
+        final List<List<StatementPattern>> groups = new ArrayList<>();
+        final List<StatementPattern> remaining = new ArrayList<>(patterns);
+        while (!remaining.isEmpty()) {
+            final List<StatementPattern> group = new ArrayList<>();
+            final Set<String> names = new HashSet<>();
+            group.add(remaining.remove(0));
+            names.addAll(variableNames(group.get(0)));
+
+            boolean grew = true;
+            while (grew) {
+                grew = false;
+                for (final StatementPattern sp : new ArrayList<>(remaining)) {
+                    final Set<String> spNames = variableNames(sp);
+                    spNames.retainAll(names);
+                    if (!spNames.isEmpty()) {
+                        remaining.remove(sp);
+                        group.add(sp);
+                        names.addAll(variableNames(sp));
+                        grew = true;
+                    }
+                }
+            }
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    private static Set<String> variableNames(final StatementPattern sp) {
+        final Set<String> names = new HashSet<>();
+        for (final Var var : sp.getVarList()) {
+            if (!var.hasValue()) {
+                names.add(var.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Moves the conditions of the filters above a node into the node, as long
+     * as the node supports them. Only the joins and filters directly above the
+     * node are searched, because those filters apply to every result of the node.
+     */
+    private static void pushFilters(final AggregationPipelineQueryNode node) {
+        QueryModelNode parent = node.getParentNode();
+        while (parent instanceof Join || parent instanceof Filter) {
+            final QueryModelNode next = parent.getParentNode();
+            if (parent instanceof Filter) {
+                final Filter filter = (Filter) parent;
+                if (node.addConstraint(filter.getCondition())) {
+                    filter.replaceWith(filter.getArg());
+                }
+            }
+            parent = next;
+        }
+    }
+
+    /**
+     * Collects the joins that are not the argument of another join.
+     */
+    private static class JoinCollector extends AbstractQueryModelVisitor<RuntimeException> {
+        private final List<Join> joins = new ArrayList<>();
+
+        @Override
+        public void meet(final Join node) {
+            joins.add(node);
+
+            final List<TupleExpr> leaves = new ArrayList<>();
+            flatten(node, leaves);
+            for (final TupleExpr leaf : leaves) {
+                leaf.visit(this);
+            }
+        }
+    }
+}
@@ -54,6 +54,7 @@ public class MongoDbBatchWriter<T> {
 
     private final CollectionType<T> collectionType;
     private final long batchFlushTimeMs;
+    private final FlushListener<T> flushListener;
 
     private final ArrayBlockingQueue<T> statementInsertionQueue;
     private final ScheduledThreadPoolExecutor scheduledExecutor = (ScheduledThreadPoolExecutor) Executors.newScheduledThreadPool(0);
@@ -70,8 +71,21 @@ public class MongoDbBatchWriter<T> {
      * (not {@code null})
      */
     public MongoDbBatchWriter(final CollectionType<T> collectionType, final MongoDbBatchWriterConfig mongoDbBatchWriterConfig) {
+        this(collectionType, mongoDbBatchWriterConfig, null);
+    }
+
+    /**
+     * Creates a new instance of {@link MongoDbBatchWriter}.
+     * @param collectionType the {@link CollectionType}. (not {@code null})
+     * @param mongoDbBatchWriterConfig the {@link MongoDbBatchWriterConfig}.
+     * (not {@code null})
+     * @param flushListener notified with the objects that each flush
+     * actually inserted. (may be {@code null})
+     */
+    public MongoDbBatchWriter(final CollectionType<T> collectionType, final MongoDbBatchWriterConfig mongoDbBatchWriterConfig, final FlushListener<T> flushListener) {
         this.collectionType = checkNotNull(collectionType);
         this.batchFlushTimeMs = checkNotNull(mongoDbBatchWriterConfig).getBatchFlushTimeMs();
+        this.flushListener = flushListener;
 
         statementInsertionQueue = new ArrayBlockingQueue<>(mongoDbBatchWriterConfig.getBatchSize());
         flushBatchTask = new BatchFlusher();
@@ -217,7 +231,10 @@ public class MongoDbBatchWriter<T> {
         try {
             statementInsertionQueue.drainTo(batch);
             if (!batch.isEmpty()) {
-                collectionType.insertMany(batch);
+                final List<T> inserted = collectionType.insertMany(batch);
+                if (flushListener != null) {
+                    flushListener.flushed(inserted);
+                }
             }
         } catch (final DuplicateKeyException e) {
             log.warn(e); // Suppress the stack trace so log doesn't get flooded.
@@ -244,4 +261,16 @@ public class MongoDbBatchWriter<T> {
             throw new MongoDbBatchWriterException("Error starting batch flusher", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Notified after the objects in the queue have been written.
+     * @param <T> the type of object that was written.
+     */
+    public interface FlushListener<T> {
+        /**
+         * @param inserted the objects that were inserted. Objects that were
+         * skipped because they were already stored are not included.
+         */
+        public void flushed(List<T> inserted);
+    }
+}
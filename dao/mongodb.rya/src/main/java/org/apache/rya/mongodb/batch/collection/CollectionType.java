@@ -36,8 +36,10 @@ public interface CollectionType<T> {
     public void insertOne(final T item);
 
     /**
-     * Insert a list of items.
+     * Insert a list of items. Every item is attempted even if some of them
+     * fail, and items that duplicate one that is already stored are skipped.
      * @param items the {@link List} of items.
+     * @return the items that were actually inserted.
      */
-    public void insertMany(final List<T> items);
+    public List<T> insertMany(final List<T> items);
 }
\ No newline at end of file
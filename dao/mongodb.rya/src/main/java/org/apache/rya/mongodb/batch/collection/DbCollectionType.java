@@ -20,17 +20,24 @@ package org.apache.rya.mongodb.batch.collection;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
 import com.mongodb.DBCollection;
 import com.mongodb.DBObject;
-import com.mongodb.InsertOptions;
 import com.mongodb.WriteConcern;
 
 /**
  * Provides access to the {@link DBCollection} type.
  */
 public class DbCollectionType implements CollectionType<DBObject> {
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
     private final DBCollection collection;
 
     /**
@@ -47,7 +54,35 @@ public class DbCollectionType implements CollectionType<DBObject> {
     }
 
     @Override
-    public void insertMany(final List<DBObject> items) {
-        collection.insert(items, new InsertOptions().continueOnError(true));
+    public List<DBObject> insertMany(final List<DBObject> items) {
+        final BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+        for (final DBObject item : items) {
+            bulk.insert(item);
+        }
+
+        try {
+            bulk.execute();
+            return items;
+        } catch (final BulkWriteException e) {
+            // Only duplicates are skipped. Any other failure is reported.
+            final Set<Integer> duplicates = new HashSet<>();
+            for (final BulkWriteError error : e.getWriteErrors()) {
+                if (error.getCode() != DUPLICATE_KEY_ERROR_CODE) {
+                    throw e;
+                }
+                duplicates.add(error.getIndex());
+            }
+            if (e.getWriteConcernError() != null) {
+                throw e;
+            }
+
+            final List<DBObject> inserted = new ArrayList<>(items.size() - duplicates.size());
+            for (int i = 0; i < items.size(); i++) {
+                if (!duplicates.contains(i)) {
+                    inserted.add(items.get(i));
+                }
+            }
+            return inserted;
+        }
     }
 }
\ No newline at end of file
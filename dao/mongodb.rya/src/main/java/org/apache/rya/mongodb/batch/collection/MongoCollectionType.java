@@ -20,10 +20,15 @@ package org.apache.rya.mongodb.batch.collection;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.bson.Document;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.InsertManyOptions;
 
@@ -31,6 +36,8 @@ import com.mongodb.client.model.InsertManyOptions;
  * Provides access to the {@link MongoCollection} type.
  */
 public class MongoCollectionType implements CollectionType<Document> {
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
     private final MongoCollection<Document> collection;
 
     /**
@@ -47,7 +54,30 @@ public class MongoCollectionType implements CollectionType<Document> {
     }
 
     @Override
-    public void insertMany(final List<Document> items) {
-        collection.insertMany(items, new InsertManyOptions().ordered(false));
+    public List<Document> insertMany(final List<Document> items) {
+        try {
+            collection.insertMany(items, new InsertManyOptions().ordered(false));
+            return items;
+        } catch (final MongoBulkWriteException e) {
+            // Only duplicates are skipped. Any other failure is reported.
+            final Set<Integer> duplicates = new HashSet<>();
+            for (final BulkWriteError error : e.getWriteErrors()) {
+                if (error.getCode() != DUPLICATE_KEY_ERROR_CODE) {
+                    throw e;
+                }
+                duplicates.add(error.getIndex());
+            }
+            if (e.getWriteConcernError() != null) {
+                throw e;
+            }
+
+            final List<Document> inserted = new ArrayList<>(items.size() - duplicates.size());
+            for (int i = 0; i < items.size(); i++) {
+                if (!duplicates.contains(i)) {
+                    inserted.add(items.get(i));
+                }
+            }
+            return inserted;
+        }
     }
 }
\ No newline at end of file
@@ -25,6 +25,9 @@ import com.mongodb.DBObject;
 
 import org.apache.rya.api.domain.RyaStatement;
 import org.apache.rya.api.persist.query.RyaQuery;
+import org.bson.Document;
+
+import com.mongodb.BasicDBObject;
 
 /**
  * Defines how objects are stored in MongoDB.
@@ -36,6 +39,17 @@ public interface MongoDBStorageStrategy<T> {
 
 	public RyaStatement deserializeDBObject(DBObject queryResult);
 
+	/**
+	 * Deserializes a {@link Document} that was read using the MongoDB driver's
+	 * newer API, such as the results of an aggregation.
+	 *
+	 * @param queryResult - The document to deserialize. (not null)
+	 * @return The statement that is stored in the document.
+	 */
+	public default RyaStatement deserializeDocument(final Document queryResult) {
+		return deserializeDBObject(new BasicDBObject(queryResult));
+	}
+
 	public DBObject serialize(T statement);
 
 	public DBObject getQuery(RyaQuery ryaQuery);
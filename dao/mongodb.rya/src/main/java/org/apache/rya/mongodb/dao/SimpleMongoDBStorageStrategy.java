@@ -36,6 +36,7 @@ import org.apache.rya.api.persist.query.RyaQuery;
 import org.apache.rya.mongodb.document.visibility.DocumentVisibility;
 import org.apache.rya.mongodb.document.visibility.DocumentVisibilityAdapter;
 import org.apache.rya.mongodb.document.visibility.DocumentVisibilityAdapter.MalformedDocumentVisibilityException;
+import org.bson.Document;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
 
@@ -108,18 +109,36 @@ public class SimpleMongoDBStorageStrategy implements MongoDBStorageStrategy<RyaS
 
     @Override
     public RyaStatement deserializeDBObject(final DBObject queryResult) {
-        final Map<?, ?> result = queryResult.toMap();
-        final String subject = (String) result.get(SUBJECT);
-        final String object = (String) result.get(OBJECT);
-        final String objectType = (String) result.get(OBJECT_TYPE);
-        final String predicate = (String) result.get(PREDICATE);
-        final String context = (String) result.get(CONTEXT);
         DocumentVisibility documentVisibility = null;
         try {
             documentVisibility = DocumentVisibilityAdapter.toDocumentVisibility(queryResult);
         } catch (final MalformedDocumentVisibilityException e) {
             LOG.error("Unable to convert document visibility");
         }
+        return deserialize(queryResult.toMap(), documentVisibility);
+    }
+
+    /**
+     * Reads the fields of a {@link Document} directly instead of first converting
+     * it into a {@link DBObject}.
+     */
+    @Override
+    public RyaStatement deserializeDocument(final Document queryResult) {
+        DocumentVisibility documentVisibility = null;
+        try {
+            documentVisibility = DocumentVisibilityAdapter.toDocumentVisibilityFromDocument(queryResult);
+        } catch (final MalformedDocumentVisibilityException e) {
+            LOG.error("Unable to convert document visibility");
+        }
+        return deserialize(queryResult, documentVisibility);
+    }
+
+    private RyaStatement deserialize(final Map<?, ?> result, final DocumentVisibility documentVisibility) {
+        final String subject = (String) result.get(SUBJECT);
+        final String object = (String) result.get(OBJECT);
+        final String objectType = (String) result.get(OBJECT_TYPE);
+        final String predicate = (String) result.get(PREDICATE);
+        final String context = (String) result.get(CONTEXT);
         final Long timestamp = (Long) result.get(TIMESTAMP);
         final String statementMetadata = (String) result.get(STATEMENT_METADATA);
         RyaType objectRya = null;
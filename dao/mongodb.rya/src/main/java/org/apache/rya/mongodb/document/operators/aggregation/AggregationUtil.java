@@ -59,13 +59,33 @@ public final class AggregationUtil {
      * aggregation pipeline.
      */
     public static List<Document> createRedactPipeline(final Authorizations authorizations) {
+        return createRedactPipeline(authorizations, SimpleMongoDBStorageStrategy.DOCUMENT_VISIBILITY, RedactAggregationResult.DESCEND);
+    }
+
+    /**
+     * Creates a MongoDB $redact aggregation pipeline that only include
+     * documents whose embedded triple has a document visibility that matches
+     * the provided authorizations. The documents that are included are kept
+     * whole, so other embedded documents are not checked.
+     * @param authorizations the {@link Authorization}s to include in the
+     * $redact. Only documents that match the authorizations will be returned.
+     * @param documentVisibilityField the path of the document visibility field
+     * that is checked, such as "joined.documentVisibility".
+     * @return the {@link List} of {@link DBObject}s that represents the $redact
+     * aggregation pipeline.
+     */
+    public static List<Document> createRedactPipeline(final Authorizations authorizations, final String documentVisibilityField) {
+        return createRedactPipeline(authorizations, documentVisibilityField, RedactAggregationResult.KEEP);
+    }
+
+    private static List<Document> createRedactPipeline(final Authorizations authorizations, final String visibilityFieldPath, final RedactAggregationResult acceptResult) {
         if (MongoDbRdfConstants.ALL_AUTHORIZATIONS.equals(authorizations)) {
             return Lists.newArrayList();
         }
 
         final List<String> authList = AuthorizationsUtil.getAuthorizationsStrings(authorizations);
 
-        final String documentVisibilityField = "$" + SimpleMongoDBStorageStrategy.DOCUMENT_VISIBILITY;
+        final String documentVisibilityField = "$" + visibilityFieldPath;
 
         final String mapVariableCursorName = "dvItemCursorTag";
 
@@ -95,7 +115,7 @@ public final class AggregationUtil {
         pipeline.add(
             redact(
                 orExpression,
-                RedactAggregationResult.DESCEND,
+                acceptResult,
                 RedactAggregationResult.PRUNE
             )
         );
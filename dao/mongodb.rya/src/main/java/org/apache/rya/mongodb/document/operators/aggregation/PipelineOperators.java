@@ -90,4 +90,52 @@ public final class PipelineOperators {
     public static Document redact(final Document expression, final RedactAggregationResult acceptResult, final RedactAggregationResult rejectResult) {
         return new Document("$redact", cond(expression, acceptResult.toString(), rejectResult.toString()));
     }
+
+    /**
+     * Creates a $match pipeline stage.
+     * @param query the query that documents must match to pass through the
+     * stage.
+     * @return the $match stage {@link Document}.
+     */
+    public static Document match(final Document query) {
+        return new Document("$match", checkNotNull(query));
+    }
+
+    /**
+     * Creates a $lookup pipeline stage that joins each document with the
+     * documents of another collection whose field equals one of its fields.
+     * @param from the collection that is joined with. (not {@code null})
+     * @param localField the field of the documents that enter the stage.
+     * (not {@code null})
+     * @param foreignField the field of the documents in the joined collection.
+     * (not {@code null})
+     * @param as the field of the output documents that holds the array of
+     * joined documents. (not {@code null})
+     * @return the $lookup stage {@link Document}.
+     */
+    public static Document lookup(final String from, final String localField, final String foreignField, final String as) {
+        return new Document("$lookup", new Document("from", checkNotNull(from))
+                .append("localField", checkNotNull(localField))
+                .append("foreignField", checkNotNull(foreignField))
+                .append("as", checkNotNull(as)));
+    }
+
+    /**
+     * Creates an $unwind pipeline stage that outputs one document for each
+     * element of an array field.
+     * @param field the array field to unwind. (not {@code null})
+     * @return the $unwind stage {@link Document}.
+     */
+    public static Document unwind(final String field) {
+        return new Document("$unwind", "$" + checkNotNull(field));
+    }
+
+    /**
+     * Creates a $project pipeline stage.
+     * @param projection the fields of the output documents. (not {@code null})
+     * @return the $project stage {@link Document}.
+     */
+    public static Document project(final Document projection) {
+        return new Document("$project", checkNotNull(projection));
+    }
 }
\ No newline at end of file
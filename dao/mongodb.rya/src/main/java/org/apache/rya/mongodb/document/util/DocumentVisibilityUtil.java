@@ -317,11 +317,21 @@ public final class DocumentVisibilityUtil {
      * @return the array of {@link Object}s.
      */
     public static Object[] convertBasicDBListToObjectArray(final BasicDBList basicDbList) {
+        return convertListToObjectArray(basicDbList);
+    }
+
+    /**
+     * Converts a {@link List}, such as an array that was read from a BSON
+     * document, into an array of {@link Object}s. Nested lists are converted
+     * into nested arrays.
+     * @param sourceList the {@link List} to convert.
+     * @return the array of {@link Object}s.
+     */
+    public static Object[] convertListToObjectArray(final List<?> sourceList) {
         final List<Object> list = new ArrayList<>();
-        final Object[] array = basicDbList.toArray();
-        for (final Object child : array) {
-            if (child instanceof BasicDBList) {
-                list.add(convertBasicDBListToObjectArray((BasicDBList)child));
+        for (final Object child : sourceList) {
+            if (child instanceof List) {
+                list.add(convertListToObjectArray((List<?>)child));
             } else {
                 list.add(child);
             }
@@ -18,13 +18,15 @@
  */
 package org.apache.rya.mongodb.document.visibility;
 
+import java.util.List;
+
 import org.apache.log4j.Logger;
 import org.apache.rya.mongodb.MongoDbRdfConstants;
 import org.apache.rya.mongodb.dao.SimpleMongoDBStorageStrategy;
 import org.apache.rya.mongodb.document.util.DocumentVisibilityConversionException;
 import org.apache.rya.mongodb.document.util.DocumentVisibilityUtil;
+import org.bson.Document;
 
-import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.BasicDBObjectBuilder;
 import com.mongodb.DBObject;
@@ -106,24 +108,38 @@ public final class DocumentVisibilityAdapter {
     public static DocumentVisibility toDocumentVisibility(final DBObject mongoObj) throws MalformedDocumentVisibilityException {
         try {
             final BasicDBObject basicObj = (BasicDBObject) mongoObj;
-
-            final Object documentVisibilityObject = basicObj.get(DOCUMENT_VISIBILITY_KEY);
-            Object[] documentVisibilityArray = null;
-            if (documentVisibilityObject instanceof Object[]) {
-                documentVisibilityArray = (Object[]) documentVisibilityObject;
-            } else if (documentVisibilityObject instanceof BasicDBList) {
-                documentVisibilityArray = DocumentVisibilityUtil.convertBasicDBListToObjectArray((BasicDBList) documentVisibilityObject);
-            }
-
-            final String documentVisibilityString = DocumentVisibilityUtil.multidimensionalArrayToBooleanString(documentVisibilityArray);
-            final DocumentVisibility dv = documentVisibilityString == null ? MongoDbRdfConstants.EMPTY_DV : new DocumentVisibility(documentVisibilityString);
-
-            return dv;
+            return toDocumentVisibility(basicObj.get(DOCUMENT_VISIBILITY_KEY));
         } catch(final Exception e) {
             throw new MalformedDocumentVisibilityException("Failed to make Document Visibility from Mongo Object, it is malformed.", e);
         }
     }
 
+    /**
+     * Deserializes a MongoDB {@link Document} to a {@link DocumentVisibility}.
+     * @param document the {@link Document} to be deserialized.
+     * @return the {@link DocumentVisibility} object.
+     * @throws MalformedDocumentVisibilityException
+     */
+    public static DocumentVisibility toDocumentVisibilityFromDocument(final Document document) throws MalformedDocumentVisibilityException {
+        try {
+            return toDocumentVisibility(document.get(DOCUMENT_VISIBILITY_KEY));
+        } catch(final Exception e) {
+            throw new MalformedDocumentVisibilityException("Failed to make Document Visibility from Mongo Document, it is malformed.", e);
+        }
+    }
+
+    private static DocumentVisibility toDocumentVisibility(final Object documentVisibilityObject) {
+        Object[] documentVisibilityArray = null;
+        if (documentVisibilityObject instanceof Object[]) {
+            documentVisibilityArray = (Object[]) documentVisibilityObject;
+        } else if (documentVisibilityObject instanceof List) {
+            documentVisibilityArray = DocumentVisibilityUtil.convertListToObjectArray((List<?>) documentVisibilityObject);
+        }
+
+        final String documentVisibilityString = DocumentVisibilityUtil.multidimensionalArrayToBooleanString(documentVisibilityArray);
+        return documentVisibilityString == null ? MongoDbRdfConstants.EMPTY_DV : new DocumentVisibility(documentVisibilityString);
+    }
+
     /**
      * Exception thrown when a MongoDB {@link DBObject} is malformed when
      * attempting to adapt it into a {@link DocumentVisibility}.
@@ -19,9 +19,11 @@
 package org.apache.rya.mongodb.iter;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -43,7 +45,6 @@ import com.google.common.collect.Multimap;
 import com.mongodb.DBObject;
 import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.util.JSON;
 
 public class RyaStatementBindingSetCursorIterator implements CloseableIteration<Entry<RyaStatement, BindingSet>, RyaDAOException> {
     private static final Logger log = Logger.getLogger(RyaStatementBindingSetCursorIterator.class);
@@ -52,7 +53,12 @@ public class RyaStatementBindingSetCursorIterator implements CloseableIteration<
 
     private final MongoCollection<Document> coll;
     private final Multimap<RyaStatement, BindingSet> rangeMap;
-    private final Multimap<RyaStatement, BindingSet> executedRangeMap = HashMultimap.create();
+    /**
+     * The binding sets of the queries in the current batch, grouped by which of the
+     * subject, predicate, object, and context positions the queries bind and then
+     * keyed by the values at those positions.
+     */
+    private final Map<Integer, Multimap<List<RyaType>, BindingSet>> executedRangeMap = new HashMap<>();
     private final Iterator<RyaStatement> queryIterator;
     private Iterator<Document> batchQueryResultsIterator;
     private RyaStatement currentResultStatement;
@@ -102,16 +108,13 @@ public class RyaStatementBindingSetCursorIterator implements CloseableIteration<
         if (currentBatchQueryResultCursorIsValid()) {
             // convert to Rya Statement
             final Document queryResult = batchQueryResultsIterator.next();
-            final DBObject dbo = (DBObject) JSON.parse(queryResult.toJson());
-            currentResultStatement = strategy.deserializeDBObject(dbo);
+            currentResultStatement = strategy.deserializeDocument(queryResult);
             
             // Find all of the queries in the executed RangeMap that this result matches
             // and collect all of those binding sets
             Set<BindingSet> bsList = new HashSet<>();
-            for (RyaStatement executedQuery : executedRangeMap.keys()) {
-                if (isResultForQuery(executedQuery, currentResultStatement)) {
-                    bsList.addAll(executedRangeMap.get(executedQuery));
-                }
+            for (final Entry<Integer, Multimap<List<RyaType>, BindingSet>> executed : executedRangeMap.entrySet()) {
+                bsList.addAll(executed.getValue().get(getBoundValues(executed.getKey(), currentResultStatement)));
             }
             currentBindingSetIterator = bsList.iterator();
         }
@@ -122,15 +125,40 @@ public class RyaStatementBindingSetCursorIterator implements CloseableIteration<
         }
     }
     
-    private static boolean isResultForQuery(RyaStatement query, RyaStatement result) {
-        return isResult(query.getSubject(), result.getSubject()) &&
-                isResult(query.getPredicate(), result.getPredicate()) &&
-                isResult(query.getObject(), result.getObject()) &&
-                isResult(query.getContext(), result.getContext());
+    /**
+     * @param statement - A query or a result of a query.
+     * @return A mask whose bits indicate which of the subject, predicate, object, and context are set.
+     */
+    private static int getBoundMask(final RyaStatement statement) {
+        final RyaType[] positions = getPositions(statement);
+        int mask = 0;
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] != null) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
     }
-    
-    private static boolean isResult(RyaType query, RyaType result) {
-        return (query == null) || query.equals(result);
+
+    /**
+     * @param boundMask - Indicates which positions are included in the returned values.
+     * @param statement - A query or a result of a query.
+     * @return The statement's values at the positions in the mask. A result matches a
+     *   query if they have the same values at the positions the query binds.
+     */
+    private static List<RyaType> getBoundValues(final int boundMask, final RyaStatement statement) {
+        final RyaType[] positions = getPositions(statement);
+        final List<RyaType> values = new ArrayList<>(positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            if ((boundMask & (1 << i)) != 0) {
+                values.add(positions[i]);
+            }
+        }
+        return values;
+    }
+
+    private static RyaType[] getPositions(final RyaStatement statement) {
+        return new RyaType[] { statement.getSubject(), statement.getPredicate(), statement.getObject(), statement.getContext() };
     }
 
     private void submitBatchQuery() {
@@ -142,7 +170,9 @@ public class RyaStatementBindingSetCursorIterator implements CloseableIteration<
         while (queryIterator.hasNext() && count < QUERY_BATCH_SIZE){
             count++;
             RyaStatement query = queryIterator.next();
-            executedRangeMap.putAll(query, rangeMap.get(query));
+            final int boundMask = getBoundMask(query);
+            executedRangeMap.computeIfAbsent(boundMask, mask -> HashMultimap.create())
+                    .putAll(getBoundValues(boundMask, query), rangeMap.get(query));
             final DBObject currentQuery = strategy.getQuery(query);
             match.add(currentQuery);
         }
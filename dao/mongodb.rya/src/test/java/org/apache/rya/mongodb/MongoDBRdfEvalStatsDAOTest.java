@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.mongodb;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.api.persist.CardinalityRequest;
+import org.apache.rya.api.persist.RdfEvalStatsDAO.CARDINALITY_OF;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.Test;
+
+/**
+ * Tests the methods of {@link MongoDBRdfEvalStatsDAO}.
+ */
+public class MongoDBRdfEvalStatsDAOTest extends MongoTestBase {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    @Test
+    public void countsMaintainedByDAO() throws Exception {
+        conf.setMaintainEvalStats(true);
+        final MongoDBRyaDAO dao = new MongoDBRyaDAO(conf, getMongoClient());
+        final MongoDBRdfEvalStatsDAO stats = new MongoDBRdfEvalStatsDAO(getMongoClient());
+        stats.setConf(conf);
+        stats.init();
+
+        dao.add(Arrays.asList(
+                statement("urn:alice", "urn:talksTo", "urn:bob"),
+                statement("urn:alice", "urn:talksTo", "urn:charlie"),
+                statement("urn:bob", "urn:talksTo", "urn:charlie"),
+                statement("urn:bob", "urn:worksAt", "urn:acme")).iterator());
+
+        assertEquals(3.0, stats.getCardinality(conf, CARDINALITY_OF.PREDICATE, values("urn:talksTo")), 0.0);
+        assertEquals(2.0, stats.getCardinality(conf, CARDINALITY_OF.SUBJECT, values("urn:bob")), 0.0);
+        assertEquals(2.0, stats.getCardinality(conf, CARDINALITY_OF.PREDICATEOBJECT, values("urn:talksTo", "urn:charlie")), 0.0);
+        assertEquals(-1.0, stats.getCardinality(conf, CARDINALITY_OF.PREDICATE, values("urn:unknown")), 0.0);
+
+        // Deleting with a wildcard only counts down the statements that were deleted.
+        dao.delete(new RyaStatement(new RyaURI("urn:alice"), null, null), conf);
+        assertEquals(1.0, stats.getCardinality(conf, CARDINALITY_OF.PREDICATE, values("urn:talksTo")), 0.0);
+        assertEquals(0.0, stats.getCardinality(conf, CARDINALITY_OF.SUBJECT, values("urn:alice")), 0.0);
+    }
+
+    @Test
+    public void duplicatesNotCounted() throws Exception {
+        conf.setMaintainEvalStats(true);
+        final MongoDBRyaDAO dao = new MongoDBRyaDAO(conf, getMongoClient());
+        final MongoDBRdfEvalStatsDAO stats = new MongoDBRdfEvalStatsDAO(getMongoClient());
+        stats.setConf(conf);
+        stats.init();
+
+        // The duplicates within the batch and the one that is added again later are not stored, so they are not counted.
+        dao.add(Arrays.asList(
+                statement("urn:alice", "urn:talksTo", "urn:bob"),
+                statement("urn:alice", "urn:talksTo", "urn:bob"),
+                statement("urn:bob", "urn:talksTo", "urn:charlie")).iterator());
+        dao.add(statement("urn:alice", "urn:talksTo", "urn:bob"));
+        dao.flush();
+
+        assertEquals(2, getRyaCollection().count());
+        assertEquals(2.0, stats.getCardinality(conf, CARDINALITY_OF.PREDICATE, values("urn:talksTo")), 0.0);
+        assertEquals(1.0, stats.getCardinality(conf, CARDINALITY_OF.SUBJECT, values("urn:alice")), 0.0);
+    }
+
+    @Test
+    public void rebuild() throws Exception {
+        final MongoDBRyaDAO dao = new MongoDBRyaDAO(conf, getMongoClient());
+        dao.add(Arrays.asList(
+                statement("urn:alice", "urn:talksTo", "urn:bob"),
+                statement("urn:bob", "urn:talksTo", "urn:charlie")).iterator());
+
+        final MongoDBRdfEvalStatsDAO stats = new MongoDBRdfEvalStatsDAO(getMongoClient());
+        stats.setConf(conf);
+        stats.init();
+        assertEquals(2, stats.rebuild());
+
+        final CardinalityRequest talksTo = new CardinalityRequest(CARDINALITY_OF.PREDICATE, values("urn:talksTo"), null);
+        final CardinalityRequest bob = new CardinalityRequest(CARDINALITY_OF.OBJECT, values("urn:bob"), null);
+        final Map<CardinalityRequest, Double> cardinalities = stats.getCardinalities(conf, Arrays.asList(talksTo, bob));
+        assertEquals(2.0, cardinalities.get(talksTo), 0.0);
+        assertEquals(1.0, cardinalities.get(bob), 0.0);
+    }
+
+    private static RyaStatement statement(final String subject, final String predicate, final String object) {
+        return new RyaStatement(new RyaURI(subject), new RyaURI(predicate), new RyaURI(object));
+    }
+
+    private static List<Value> values(final String... iris) {
+        final List<Value> values = new ArrayList<>();
+        for (final String iri : iris) {
+            values.add(VF.createIRI(iri));
+        }
+        return values;
+    }
+}
@@ -146,6 +146,34 @@ public class MongoDBRyaBatchWriterIT extends MongoTestBase {
         Assert.assertEquals(4, getRyaCollection().count());
     }
 
+    @Test
+    public void testFlushListener() throws Exception {
+        final MongoDBStorageStrategy<RyaStatement> storageStrategy = new SimpleMongoDBStorageStrategy();
+
+        final List<DBObject> objects = Lists.newArrayList(
+                storageStrategy.serialize(statement(1)),
+                storageStrategy.serialize(statement(2)),
+                storageStrategy.serialize(statement(2)),
+                storageStrategy.serialize(statement(3))
+            );
+
+        final List<DBObject> inserted = new ArrayList<>();
+        final DbCollectionType collectionType = new DbCollectionType(getRyaDbCollection());
+        final MongoDbBatchWriterConfig mongoDbBatchWriterConfig = MongoDbBatchWriterUtils.getMongoDbBatchWriterConfig(conf);
+        final MongoDbBatchWriter<DBObject> mongoDbBatchWriter = new MongoDbBatchWriter<DBObject>(collectionType, mongoDbBatchWriterConfig, inserted::addAll);
+
+        mongoDbBatchWriter.start();
+        mongoDbBatchWriter.addObjectsToQueue(objects);
+        mongoDbBatchWriter.flush();
+        Assert.assertEquals(3, inserted.size());
+
+        // Everything is already stored, so nothing else is reported as inserted.
+        mongoDbBatchWriter.addObjectsToQueue(Lists.newArrayList(storageStrategy.serialize(statement(1))));
+        mongoDbBatchWriter.flush();
+        mongoDbBatchWriter.shutdown();
+        Assert.assertEquals(3, inserted.size());
+    }
+
     private static Document toDocument(final DBObject dbObject) {
         if (dbObject == null) {
             return null;
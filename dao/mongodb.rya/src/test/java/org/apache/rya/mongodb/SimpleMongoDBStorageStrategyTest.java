@@ -32,11 +32,13 @@ import org.apache.rya.mongodb.dao.SimpleMongoDBStorageStrategy;
 import org.apache.rya.mongodb.document.util.DocumentVisibilityConversionException;
 import org.apache.rya.mongodb.document.util.DocumentVisibilityUtil;
 import org.apache.rya.mongodb.document.visibility.DocumentVisibility;
+import org.bson.Document;
 import org.junit.Test;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBObject;
 import com.mongodb.MongoException;
+import com.mongodb.util.JSON;
 
 public class SimpleMongoDBStorageStrategyTest {
     private static final String SUBJECT = "http://subject.com";
@@ -97,4 +99,13 @@ public class SimpleMongoDBStorageStrategyTest {
         statement.setTimestamp(null);
         assertEquals(testStatement, statement);
     }
+
+    @Test
+    public void testDeSerializeStatementFromDocument() throws RyaDAOException, MongoException, IOException {
+        // Parsing the JSON form yields the same nested Lists the driver produces when it reads BSON.
+        final Document document = Document.parse(JSON.serialize(testDBO));
+        final RyaStatement statement = storageStrategy.deserializeDocument(document);
+        statement.setTimestamp(null);
+        assertEquals(testStatement, statement);
+    }
 }
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.mongodb.aggregation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.mongodb.MongoDBRyaDAO;
+import org.apache.rya.mongodb.MongoTestBase;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.Compare;
+import org.eclipse.rdf4j.query.algebra.Compare.CompareOp;
+import org.eclipse.rdf4j.query.algebra.Filter;
+import org.eclipse.rdf4j.query.algebra.Join;
+import org.eclipse.rdf4j.query.algebra.Projection;
+import org.eclipse.rdf4j.query.algebra.ProjectionElem;
+import org.eclipse.rdf4j.query.algebra.ProjectionElemList;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.ValueConstant;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Tests the methods of {@link AggregationPipelineQueryNode} and {@link MongoAggregationOptimizer}.
+ */
+public class AggregationPipelineQueryNodeTest extends MongoTestBase {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    @Test
+    public void evaluate_join() throws Exception {
+        storeStatements();
+        final AggregationPipelineQueryNode node = new AggregationPipelineQueryNode(getRyaCollection(),
+                Arrays.asList(
+                        pattern(var("person"), constant("urn:talksTo"), var("friend")),
+                        pattern(var("friend"), constant("urn:age"), var("age"))),
+                conf.getAuthorizations());
+
+        final Set<BindingSet> expected = new HashSet<>();
+        expected.add(result("person", "urn:alice", "friend", "urn:bob", "age", "30"));
+        expected.add(result("person", "urn:alice", "friend", "urn:charlie", "age", "40"));
+        expected.add(result("person", "urn:bob", "friend", "urn:charlie", "age", "40"));
+        assertEquals(expected, evaluate(node, new MapBindingSet()));
+    }
+
+    @Test
+    public void evaluate_boundVariable() throws Exception {
+        storeStatements();
+        final AggregationPipelineQueryNode node = new AggregationPipelineQueryNode(getRyaCollection(),
+                Arrays.asList(
+                        pattern(var("person"), constant("urn:talksTo"), var("friend")),
+                        pattern(var("friend"), constant("urn:age"), var("age"))),
+                conf.getAuthorizations());
+
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("person", VF.createIRI("urn:bob"));
+
+        final Set<BindingSet> expected = Sets.<BindingSet>newHashSet(
+                result("person", "urn:bob", "friend", "urn:charlie", "age", "40"));
+        assertEquals(expected, evaluate(node, bindings));
+    }
+
+    @Test
+    public void evaluate_constraint() throws Exception {
+        storeStatements();
+        final AggregationPipelineQueryNode node = new AggregationPipelineQueryNode(getRyaCollection(),
+                Arrays.asList(
+                        pattern(var("person"), constant("urn:talksTo"), var("friend")),
+                        pattern(var("friend"), constant("urn:age"), var("age"))),
+                conf.getAuthorizations());
+        assertTrue(node.addConstraint(new Compare(var("friend"), new ValueConstant(VF.createIRI("urn:charlie")), CompareOp.NE)));
+        assertFalse(node.addConstraint(new Compare(var("age"), new ValueConstant(VF.createLiteral(30)), CompareOp.GT)));
+
+        final Set<BindingSet> expected = Sets.<BindingSet>newHashSet(
+                result("person", "urn:alice", "friend", "urn:bob", "age", "30"));
+        assertEquals(expected, evaluate(node, new MapBindingSet()));
+    }
+
+    @Test
+    public void optimize_replacesConnectedPatterns() throws Exception {
+        final StatementPattern talksTo = pattern(var("person"), constant("urn:talksTo"), var("friend"));
+        final StatementPattern age = pattern(var("friend"), constant("urn:age"), var("age"));
+        final StatementPattern unrelated = pattern(var("x"), constant("urn:worksAt"), var("y"));
+        final Filter filter = new Filter(new Join(new Join(talksTo, age), unrelated),
+                new Compare(var("friend"), new ValueConstant(VF.createIRI("urn:bob")), CompareOp.EQ));
+        final TupleExpr query = new Projection(filter, new ProjectionElemList(new ProjectionElem("person")));
+
+        final MongoAggregationOptimizer optimizer = new MongoAggregationOptimizer();
+        optimizer.setConf(conf);
+        optimizer.optimize(query, null, null);
+
+        // The filter was moved into the node, which is joined with the pattern it is not connected to.
+        final Join join = (Join) ((Projection) query).getArg();
+        final AggregationPipelineQueryNode node = (AggregationPipelineQueryNode) join.getLeftArg();
+        assertEquals(Sets.newHashSet(talksTo, age), new HashSet<>(node.getPatterns()));
+        assertEquals(1, node.getConstraints().size());
+        assertEquals(unrelated, join.getRightArg());
+    }
+
+    @Test
+    public void optimize_unsupportedPatterns() throws Exception {
+        final StatementPattern first = pattern(var("a"), constant("urn:talksTo"), var("b"));
+        final StatementPattern second = pattern(var("c"), constant("urn:worksAt"), var("d"));
+        final TupleExpr query = new Projection(new Join(first, second), new ProjectionElemList(new ProjectionElem("a")));
+
+        final MongoAggregationOptimizer optimizer = new MongoAggregationOptimizer();
+        optimizer.setConf(conf);
+        optimizer.optimize(query, null, null);
+
+        assertEquals(new Join(first, second), ((Projection) query).getArg());
+    }
+
+    private void storeStatements() throws Exception {
+        final MongoDBRyaDAO dao = new MongoDBRyaDAO(conf, getMongoClient());
+        dao.add(Arrays.asList(
+                statement("urn:alice", "urn:talksTo", new RyaURI("urn:bob")),
+                statement("urn:alice", "urn:talksTo", new RyaURI("urn:charlie")),
+                statement("urn:bob", "urn:talksTo", new RyaURI("urn:charlie")),
+                statement("urn:bob", "urn:age", new RyaType(XMLSchema.INTEGER, "30")),
+                statement("urn:charlie", "urn:age", new RyaType(XMLSchema.INTEGER, "40")),
+                statement("urn:dave", "urn:age", new RyaType(XMLSchema.INTEGER, "50"))).iterator());
+    }
+
+    private static Set<BindingSet> evaluate(final AggregationPipelineQueryNode node, final BindingSet bindings) throws QueryEvaluationException {
+        final Set<BindingSet> results = new HashSet<>();
+        final CloseableIteration<BindingSet, QueryEvaluationException> it = node.evaluate(bindings);
+        try {
+            while (it.hasNext()) {
+                results.add(it.next());
+            }
+        } finally {
+            it.close();
+        }
+        return results;
+    }
+
+    private static BindingSet result(final String personVar, final String person, final String friendVar, final String friend,
+            final String ageVar, final String age) {
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding(personVar, VF.createIRI(person));
+        bs.addBinding(friendVar, VF.createIRI(friend));
+        bs.addBinding(ageVar, VF.createLiteral(age, XMLSchema.INTEGER));
+        return bs;
+    }
+
+    private static RyaStatement statement(final String subject, final String predicate, final RyaType object) {
+        return new RyaStatement(new RyaURI(subject), new RyaURI(predicate), object);
+    }
+
+    private static StatementPattern pattern(final Var subject, final Var predicate, final Var object) {
+        return new StatementPattern(subject, predicate, object);
+    }
+
+    private static Var var(final String name) {
+        return new Var(name);
+    }
+
+    private static Var constant(final String iri) {
+        return new Var("-const-" + iri, VF.createIRI(iri));
+    }
+}
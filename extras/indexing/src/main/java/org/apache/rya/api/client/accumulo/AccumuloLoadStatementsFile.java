@@ -21,40 +21,55 @@ package org.apache.rya.api.client.accumulo;
 import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.Connector;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.log4j.Logger;
 import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.bulk.AccumuloRyaBulkLoader;
+import org.apache.rya.accumulo.instance.AccumuloRyaInstanceDetailsRepository;
+import org.apache.rya.accumulo.load.AccumuloParallelStatementLoader;
 import org.apache.rya.api.client.InstanceDoesNotExistException;
 import org.apache.rya.api.client.InstanceExists;
 import org.apache.rya.api.client.LoadStatementsFile;
 import org.apache.rya.api.client.RyaClientException;
-import org.apache.rya.api.persist.RyaDAOException;
-import org.apache.rya.rdftriplestore.inference.InferenceEngineException;
+import org.apache.rya.api.instance.RyaDetails;
+import org.apache.rya.api.instance.RyaDetailsRepository.NotInitializedException;
+import org.apache.rya.api.instance.RyaDetailsRepository.RyaDetailsRepositoryException;
+import org.apache.rya.indexing.accumulo.ConfigUtils;
 import org.apache.rya.sail.config.RyaSailFactory;
-import org.eclipse.rdf4j.repository.RepositoryException;
-import org.eclipse.rdf4j.repository.sail.SailRepository;
-import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFParseException;
 import org.eclipse.rdf4j.rio.UnsupportedRDFormatException;
-import org.eclipse.rdf4j.sail.Sail;
-import org.eclipse.rdf4j.sail.SailException;
+
+import com.google.common.base.Optional;
 
 import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
 import edu.umd.cs.findbugs.annotations.NonNull;
 
 /**
  * An Accumulo implementation of the {@link LoadStatementsFile} command.
+ * <p>
+ * Files are loaded with an {@link AccumuloParallelStatementLoader}, which parses,
+ * converts, and writes statements on several threads and updates the secondary
+ * indexes the Rya instance maintains.
+ * <p>
+ * If a bulk load work directory is provided, files are loaded with an {@link AccumuloRyaBulkLoader}
+ * instead of being written through batch writers, as long as the Rya instance does not
+ * maintain any secondary indexes the bulk loader would leave out of date.
  */
 @DefaultAnnotation(NonNull.class)
 public class AccumuloLoadStatementsFile extends AccumuloCommand implements LoadStatementsFile {
     private static final Logger log = Logger.getLogger(AccumuloLoadStatementsFile.class);
 
     private final InstanceExists instanceExists;
+    private final Optional<org.apache.hadoop.fs.Path> bulkWorkDir;
 
     /**
      * Constructs an instance of {@link AccumuloLoadStatementsFile}.
@@ -65,8 +80,25 @@ public class AccumuloLoadStatementsFile extends AccumuloCommand implements LoadS
      *   that hosts Rya instance. (not null)
      */
     public AccumuloLoadStatementsFile(final AccumuloConnectionDetails connectionDetails, final Connector connector) {
+        this(connectionDetails, connector, Optional.<org.apache.hadoop.fs.Path>absent());
+    }
+
+    /**
+     * Constructs an instance of {@link AccumuloLoadStatementsFile}.
+     *
+     * @param connectionDetails - Details about the values that were used to create
+     *   the connector to the cluster. (not null)
+     * @param connector - Provides programmatic access to the instance of Accumulo
+     *   that hosts Rya instance. (not null)
+     * @param bulkWorkDir - If present, the directory the bulk loader writes RFiles beneath.
+     *   The Accumulo tablet servers must be able to read it, so it is usually a fully
+     *   qualified HDFS path. (not null)
+     */
+    public AccumuloLoadStatementsFile(final AccumuloConnectionDetails connectionDetails, final Connector connector,
+            final Optional<org.apache.hadoop.fs.Path> bulkWorkDir) {
         super(connectionDetails, connector);
         instanceExists = new AccumuloInstanceExists(connectionDetails, connector);
+        this.bulkWorkDir = requireNonNull(bulkWorkDir);
     }
 
     @Override
@@ -80,50 +112,72 @@ public class AccumuloLoadStatementsFile extends AccumuloCommand implements LoadS
             throw new InstanceDoesNotExistException(String.format("There is no Rya instance named '%s'.", ryaInstanceName));
         }
 
-        Sail sail = null;
-        SailRepository sailRepo = null;
-        SailRepositoryConnection sailRepoConn = null;
+        if(bulkWorkDir.isPresent() && canBulkLoad(ryaInstanceName)) {
+            bulkLoad(ryaInstanceName, statementsFile, format);
+            return;
+        }
 
+        // Get a configuration that maintains the indexes the Rya instance was installed with.
+        final AccumuloRdfConfiguration ryaConf = getAccumuloConnectionDetails().buildAccumuloRdfConfiguration(ryaInstanceName);
         try {
-            // Get a Sail object that is connected to the Rya instance.
-            final AccumuloRdfConfiguration ryaConf = getAccumuloConnectionDetails().buildAccumuloRdfConfiguration(ryaInstanceName);
-            ryaConf.setFlush(false); //RYA-327 should address this hardcoded value.
-            sail = RyaSailFactory.getInstance(ryaConf);
-
-            // Load the file.
-            sailRepo = new SailRepository(sail);
-            sailRepoConn = sailRepo.getConnection();
-            sailRepoConn.add(statementsFile.toFile(), null, format);
+            RyaSailFactory.updateAccumuloConfig(ryaConf, ryaConf.getAccumuloUser(), ryaConf.getAccumuloPassword(), ryaInstanceName);
+        } catch (final AccumuloException | AccumuloSecurityException e) {
+            throw new RyaClientException("Could not read the details of the Rya instance named '" + ryaInstanceName + "'.", e);
+        }
+        ConfigUtils.setIndexers(ryaConf);
 
-        } catch (final SailException | AccumuloException | AccumuloSecurityException | RyaDAOException | InferenceEngineException  e) {
+        // Load the file.
+        try(final AccumuloParallelStatementLoader loader = new AccumuloParallelStatementLoader(getConnector(), ryaConf)) {
+            loader.load(statementsFile, format);
+        } catch (final AccumuloException | AccumuloSecurityException e) {
             log.warn("Exception while loading:", e);
             throw new RyaClientException("A problem connecting to the Rya instance named '" + ryaInstanceName + "' has caused the load to fail.", e);
-        } catch (final RepositoryException | RDFParseException | UnsupportedRDFormatException | IOException e) {
+        } catch (final RDFParseException | UnsupportedRDFormatException | IOException e) {
             log.warn("Exception while loading:", e);
-            throw new RyaClientException("A problem processing the RDF file has caused the load into Rya instance named " + ryaInstanceName + "to fail.", e);
-        } finally {
-            // Shut it all down.
-            if(sailRepoConn != null) {
-                try {
-                    sailRepoConn.close();
-                } catch (final RepositoryException e) {
-                    log.warn("Couldn't close the SailRepoConnection that is attached to the Rya instance.", e);
-                }
-            }
-            if(sailRepo != null) {
-                try {
-                    sailRepo.shutDown();
-                } catch (final RepositoryException e) {
-                    log.warn("Couldn't shut down the SailRepository that is attached to the Rya instance.", e);
-                }
-            }
-            if(sail != null) {
-                try {
-                    sail.shutDown();
-                } catch (final SailException e) {
-                    log.warn("Couldn't shut down the Sail that is attached to the Rya instance.", e);
-                }
+            throw new RyaClientException("A problem processing the RDF file has caused the load into Rya instance named " + ryaInstanceName + " to fail.", e);
+        }
+    }
+
+    /**
+     * The bulk loader only writes the triple tables and the eval table, so it may only be used
+     * when the instance does not maintain any other indexes.
+     */
+    private boolean canBulkLoad(final String ryaInstanceName) throws RyaClientException {
+        final RyaDetails details;
+        try {
+            details = new AccumuloRyaInstanceDetailsRepository(getConnector(), ryaInstanceName).getRyaInstanceDetails();
+        } catch (final NotInitializedException e) {
+            throw new InstanceDoesNotExistException("No RyaDetails are initialized for the Rya instance named '" + ryaInstanceName + "'.", e);
+        } catch (final RyaDetailsRepositoryException e) {
+            throw new RyaClientException("Could not fetch the RyaDetails for the Rya instance named '" + ryaInstanceName + "'.", e);
+        }
+
+        final boolean indexed = details.getEntityCentricIndexDetails().isEnabled() ||
+                details.getTemporalIndexDetails().isEnabled() ||
+                details.getFreeTextIndexDetails().isEnabled() ||
+                details.getPCJIndexDetails().getFluoDetails().isPresent();
+        if(indexed) {
+            log.info("The Rya instance named '" + ryaInstanceName + "' maintains secondary indexes, so the file will not be bulk loaded.");
+        }
+        return !indexed;
+    }
+
+    private void bulkLoad(final String ryaInstanceName, final Path statementsFile, final RDFFormat format) throws RyaClientException {
+        final AccumuloRdfConfiguration ryaConf = getAccumuloConnectionDetails().buildAccumuloRdfConfiguration(ryaInstanceName);
+        try(final InputStream in = Files.newInputStream(statementsFile)) {
+            final FileSystem fs = bulkWorkDir.get().getFileSystem(new Configuration());
+            final AccumuloRyaBulkLoader loader = new AccumuloRyaBulkLoader(getConnector(), ryaConf, fs, bulkWorkDir.get());
+            try {
+                loader.loadStatements(in, format);
+            } catch (final RDFParseException | UnsupportedRDFormatException | IOException e) {
+                // Do not import part of a file.
+                loader.discard();
+                throw e;
             }
+            loader.close();
+        } catch (final RDFParseException | UnsupportedRDFormatException | IOException e) {
+            log.warn("Exception while bulk loading:", e);
+            throw new RyaClientException("A problem bulk loading the RDF file has caused the load into Rya instance named " + ryaInstanceName + " to fail.", e);
         }
     }
-}
\ No newline at end of file
+}
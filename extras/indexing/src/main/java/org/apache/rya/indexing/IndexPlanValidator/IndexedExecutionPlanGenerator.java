@@ -32,11 +32,32 @@ import com.google.common.collect.Lists;
 
 public class IndexedExecutionPlanGenerator implements ExternalIndexMatcher {
 
+    /**
+     * Finds the forms of an index whose variables are named after the variables of a query.
+     */
+    public interface IndexNormalizer {
+        List<TupleExpr> getNormalizedIndex(TupleExpr query, ExternalTupleSet index) throws Exception;
+    }
+
+    private static final IndexNormalizer DEFAULT_NORMALIZER =
+            (query, index) -> QueryVariableNormalizer.getNormalizedIndex(query, index.getTupleExpr());
+
     private final TupleExpr query;
+    private final IndexNormalizer normalizer;
     private final List<ExternalTupleSet> normalizedIndexList;
 
     public IndexedExecutionPlanGenerator(TupleExpr query, List<ExternalTupleSet> indexList) {
+        this(query, indexList, DEFAULT_NORMALIZER);
+    }
+
+    /**
+     * @param query - The query the indices are matched against.
+     * @param indexList - The indices that may be used to answer the query.
+     * @param normalizer - Finds the normalized forms of each index, which allows them to be cached.
+     */
+    public IndexedExecutionPlanGenerator(TupleExpr query, List<ExternalTupleSet> indexList, IndexNormalizer normalizer) {
         this.query = query;
+        this.normalizer = normalizer;
         final VarConstantIndexListPruner vci = new VarConstantIndexListPruner(query);
         normalizedIndexList = getNormalizedIndices(vci.getRelevantIndices(indexList));
     }
@@ -107,7 +128,7 @@ public class IndexedExecutionPlanGenerator implements ExternalIndexMatcher {
         for (final ExternalTupleSet e : indexSet) {
             List<TupleExpr> tupList = null;
             try {
-                tupList = QueryVariableNormalizer.getNormalizedIndex(query, e.getTupleExpr());
+                tupList = normalizer.getNormalizedIndex(query, e);
             } catch (final Exception e1) {
                 e1.printStackTrace();
             }
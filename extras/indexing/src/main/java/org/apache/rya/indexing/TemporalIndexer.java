@@ -160,4 +160,21 @@ public interface TemporalIndexer extends RyaSecondaryIndexer {
     public CloseableIteration<Statement, QueryEvaluationException> queryIntervalAfter(
             TemporalInterval query, StatementConstraints contraints)
             throws QueryEvaluationException;
+
+    /**
+     * Returns statements that contain a time interval that shares at least one
+     * instant with the queried {@link TemporalInterval} and meet the
+     * {@link StatementConstraints}. Unlike the Allen "overlaps" relation, this
+     * includes intervals that meet, start, finish, contain, or are during the
+     * queried interval.
+     *
+     * @param query
+     *            the queried time interval
+     * @param contraints
+     *            the {@link StatementConstraints}
+     * @return
+     */
+    public CloseableIteration<Statement, QueryEvaluationException> queryIntervalOverlaps(
+            TemporalInterval query, StatementConstraints contraints)
+            throws QueryEvaluationException;
 }
@@ -274,6 +274,20 @@ public class TemporalTupleSet extends ExternalTupleSet {
             }
         };
 
+        private final SearchFunction TEMPORAL_IntervalOverlapsInterval = new SearchFunction() {
+            @Override
+            public CloseableIteration<Statement, QueryEvaluationException> performSearch(final String searchTerms,
+                    final StatementConstraints contraints) throws QueryEvaluationException {
+                final TemporalInterval queryInterval = TemporalInstantRfc3339.parseInterval(searchTerms);
+                return temporalIndexer.queryIntervalOverlaps(queryInterval, contraints);
+            }
+
+            @Override
+            public String toString() {
+                return "TEMPORAL_IntervalOverlapsInterval";
+            }
+        };
+
         {
             final String TEMPORAL_NS = "tag:rya-rdf.org,2015:temporal#";
 
@@ -287,6 +301,7 @@ public class TemporalTupleSet extends ExternalTupleSet {
             SEARCH_FUNCTION_MAP.put(VF.createIRI(TEMPORAL_NS+"hasBeginningInterval"),
                     TEMPORAL_InstantHasBeginningInterval);
             SEARCH_FUNCTION_MAP.put(VF.createIRI(TEMPORAL_NS+"hasEndInterval"), TEMPORAL_InstantHasEndInterval);
+            SEARCH_FUNCTION_MAP.put(VF.createIRI(TEMPORAL_NS+"overlapsInterval"), TEMPORAL_IntervalOverlapsInterval);
         }
     }
 }
\ No newline at end of file
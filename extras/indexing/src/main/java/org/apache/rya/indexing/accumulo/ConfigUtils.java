@@ -60,6 +60,8 @@ import org.apache.rya.indexing.mongodb.freetext.MongoFreeTextIndexer;
 import org.apache.rya.indexing.mongodb.temporal.MongoTemporalIndexer;
 import org.apache.rya.indexing.pcj.matching.PCJOptimizer;
 import org.apache.rya.indexing.statement.metadata.matching.StatementMetadataOptimizer;
+import org.apache.rya.mongodb.MongoDBRdfConfiguration;
+import org.apache.rya.mongodb.aggregation.MongoAggregationOptimizer;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 
@@ -115,6 +117,8 @@ public class ConfigUtils {
     public static final String CLOUDBASE_WRITER_MAX_MEMORY = "sc.cloudbase.writer.maxmemory";
 
     public static final String FREE_TEXT_QUERY_TERM_LIMIT = "sc.freetext.querytermlimit";
+    public static final String FREE_TEXT_QUERY_NUM_THREADS = "sc.freetext.query.numThreads";
+    public static final String FREE_TEXT_QUERY_RESULT_LIMIT = "sc.freetext.query.resultLimit";
 
     public static final String USE_FREETEXT = "sc.use_freetext";
     public static final String USE_TEMPORAL = "sc.use_temporal";
@@ -147,6 +151,8 @@ public class ConfigUtils {
     public static final String GEO_PREDICATES_LIST = "sc.geo.predicates";
 
     public static final String TEMPORAL_PREDICATES_LIST = "sc.temporal.predicates";
+    public static final String TEMPORAL_INTERVAL_BUCKET_SECONDS = "sc.temporal.interval.bucketSeconds";
+    public static final String TEMPORAL_INTERVAL_USE_BUCKETS = "sc.temporal.interval.useBuckets";
 
     public static final String USE_MONGO = "sc.useMongo";
 
@@ -210,6 +216,24 @@ public class ConfigUtils {
         return conf.getInt(FREE_TEXT_QUERY_TERM_LIMIT, 100);
     }
 
+    /**
+     * @param conf - The configuration of the free text index. (not null)
+     * @return The number of threads that scan the document table's partitions when
+     *   a free text query is evaluated. A single thread scans the partitions in order.
+     */
+    public static int getFreeTextQueryNumThreads(final Configuration conf) {
+        return conf.getInt(FREE_TEXT_QUERY_NUM_THREADS, 1);
+    }
+
+    /**
+     * @param conf - The configuration of the free text index. (not null)
+     * @return The maximum number of statements a free text query returns. A value
+     *   that is not positive means the results are not limited.
+     */
+    public static long getFreeTextQueryResultLimit(final Configuration conf) {
+        return conf.getLong(FREE_TEXT_QUERY_RESULT_LIMIT, 0L);
+    }
+
     public static Set<IRI> getFreeTextPredicates(final Configuration conf) {
         return getPredicates(conf, FREETEXT_PREDICATES_LIST);
     }
@@ -229,6 +253,28 @@ public class ConfigUtils {
         return getPredicates(conf, TEMPORAL_PREDICATES_LIST);
     }
 
+    /**
+     * @param conf - The configuration of the temporal index. (not null)
+     * @return The number of seconds of time each bucket of the temporal index's
+     *   interval buckets covers. Every writer and reader of a temporal table must
+     *   use the same value.
+     */
+    public static long getTemporalIntervalBucketSeconds(final Configuration conf) {
+        return conf.getLong(TEMPORAL_INTERVAL_BUCKET_SECONDS, 3600L);
+    }
+
+    /**
+     * @param conf - The configuration of the temporal index. (not null)
+     * @return {@code true} if the interval buckets are written when intervals are
+     *   indexed, and interval queries read them instead of scanning the interval
+     *   beginnings and endings. Once enabled it must stay enabled, otherwise removed
+     *   intervals would stay in the buckets. Intervals that were indexed before it
+     *   was enabled must be migrated with TemporalIntervalBucketMigration.
+     */
+    public static boolean isTemporalIntervalBucketsEnabled(final Configuration conf) {
+        return conf.getBoolean(TEMPORAL_INTERVAL_USE_BUCKETS, false);
+    }
+
     protected static Set<IRI> getPredicates(final Configuration conf, final String confName) {
         final String[] validPredicateStrings = conf.getStrings(confName, new String[] {});
         final Set<IRI> predicates = new HashSet<>();
@@ -271,14 +317,19 @@ public class ConfigUtils {
 
     public static BatchScanner createBatchScanner(final String tablename, final Configuration conf)
             throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
-        final Connector connector = ConfigUtils.getConnector(conf);
-        final Authorizations auths = ConfigUtils.getAuthorizations(conf);
         Integer numThreads = null;
         if (conf instanceof RdfCloudTripleStoreConfiguration) {
             numThreads = ((RdfCloudTripleStoreConfiguration) conf).getNumThreads();
         } else {
             numThreads = conf.getInt(RdfCloudTripleStoreConfiguration.CONF_NUM_THREADS, 2);
         }
+        return createBatchScanner(tablename, conf, numThreads);
+    }
+
+    public static BatchScanner createBatchScanner(final String tablename, final Configuration conf, final int numThreads)
+            throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+        final Connector connector = ConfigUtils.getConnector(conf);
+        final Authorizations auths = ConfigUtils.getAuthorizations(conf);
         return connector.createBatchScanner(tablename, auths, numThreads);
     }
 
@@ -466,6 +517,10 @@ public class ConfigUtils {
                 indexList.add(MongoTemporalIndexer.class.getName());
                 useFilterIndex = true;
             }
+
+            if (conf.getBoolean(MongoDBRdfConfiguration.CONF_USE_AGGREGATION_PIPELINE, false)) {
+                optimizers.add(MongoAggregationOptimizer.class.getName());
+            }
         } else {
             if (getUsePCJ(conf) || getUseOptimalPCJ(conf)) {
                 conf.setPcjOptimizer(PCJOptimizer.class);
@@ -29,6 +29,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
@@ -36,12 +37,14 @@ import java.util.TreeSet;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.MultiTableBatchWriter;
 import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.client.TableExistsException;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.admin.TableOperations;
@@ -205,6 +208,10 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
 
     private int queryTermLimit;
 
+    private int queryNumThreads;
+
+    private long queryResultLimit;
+
     private int docTableNumPartitions;
 
     private Set<IRI> validPredicates;
@@ -280,6 +287,8 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
         validPredicates = ConfigUtils.getFreeTextPredicates(conf);
 
         queryTermLimit = ConfigUtils.getFreeTextTermLimit(conf);
+        queryNumThreads = ConfigUtils.getFreeTextQueryNumThreads(conf);
+        queryResultLimit = ConfigUtils.getFreeTextQueryResultLimit(conf);
     }
 
     /**
@@ -501,12 +510,45 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
         }
     }
 
-    /** {@inheritDoc} */
+    private BatchScanner getBatchScanner(final String tablename, final int numThreads) throws IOException {
+        try {
+            return ConfigUtils.createBatchScanner(tablename, conf, numThreads);
+        } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
+            logger.error("Error connecting to " + tablename);
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Creates one range per document table partition. The ranges are contiguous, so
+     * together they cover the whole table even if rows were written using a different
+     * number of partitions.
+     *
+     * @return The ranges that scan each of the document table's partitions.
+     */
+    private List<Range> getPartitionRanges() {
+        final List<Range> ranges = new ArrayList<>();
+        Text start = null;
+        for (int i = 1; i < docTableNumPartitions; i++) {
+            final Text end = genPartition(i, docTableNumPartitions);
+            ranges.add(new Range(start, true, end, false));
+            start = end;
+        }
+        ranges.add(new Range(start, true, null, false));
+        return ranges;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When more than one query thread is configured, all of the document table's partitions
+     * are scanned concurrently using a {@link BatchScanner} and the statements are returned
+     * in no particular order. When a result limit is configured, the scan of every partition
+     * stops as soon as that many statements have been returned.
+     */
     @Override
     public CloseableIteration<Statement, QueryEvaluationException> queryText(final String query, final StatementConstraints contraints)
             throws IOException {
-        final Scanner docTableScan = getScanner(getFreeTextDocTablename(conf));
-
         // test the query to see if it's parses correctly.
         SimpleNode root = parseQuery(query);
 
@@ -545,31 +587,49 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
         }
 
         // perform query
-        docTableScan.clearScanIterators();
-        docTableScan.clearColumns();
-
         final int iteratorPriority = 20;
         final String iteratorName = "booleanTree";
         final IteratorSetting ii = new IteratorSetting(iteratorPriority, iteratorName, BooleanTreeIterator.class);
         BooleanTreeIterator.setQuery(ii, constrainedQuery.toString());
+
+        final ScannerBase docTableScan;
+        if (queryNumThreads > 1) {
+            final BatchScanner batchScan = getBatchScanner(getFreeTextDocTablename(conf), queryNumThreads);
+            batchScan.setRanges(getPartitionRanges());
+            docTableScan = batchScan;
+        } else {
+            final Scanner scan = getScanner(getFreeTextDocTablename(conf));
+            scan.setRange(new Range());
+            docTableScan = scan;
+        }
         docTableScan.addScanIterator(ii);
-        docTableScan.setRange(new Range());
 
-        return getIteratorWrapper(docTableScan);
+        return getIteratorWrapper(docTableScan, queryResultLimit);
     }
 
-    private static CloseableIteration<Statement, QueryEvaluationException> getIteratorWrapper(final Scanner s) {
+    private static CloseableIteration<Statement, QueryEvaluationException> getIteratorWrapper(final ScannerBase s, final long resultLimit) {
 
         final Iterator<Entry<Key, Value>> i = s.iterator();
 
         return new CloseableIteration<Statement, QueryEvaluationException>() {
+            private long count = 0;
+
             @Override
             public boolean hasNext() {
+                if (resultLimit > 0 && count >= resultLimit) {
+                    // Stop the scans of the partitions that have not finished.
+                    s.close();
+                    return false;
+                }
                 return i.hasNext();
             }
 
             @Override
             public Statement next() throws QueryEvaluationException {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                count++;
                 final Entry<Key, Value> entry = i.next();
                 final Value v = entry.getValue();
                 try {
@@ -30,7 +30,9 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -99,6 +101,8 @@ public class AccumuloTemporalIndexer extends AbstractAccumuloIndexer implements
 
     private Set<IRI> validPredicates;
     private String temporalIndexTableName;
+    private TemporalIntervalBuckets intervalBuckets;
+    private boolean useIntervalBuckets;
 
     private boolean isInit = false;
 
@@ -156,6 +160,8 @@ public class AccumuloTemporalIndexer extends AbstractAccumuloIndexer implements
 			throw new Error("Failed to initialize temporal index, setConf() was not set.");
 		temporalIndexTableName = getTableName();
 		validPredicates = ConfigUtils.getTemporalPredicates(conf);
+		intervalBuckets = new TemporalIntervalBuckets(ConfigUtils.getTemporalIntervalBucketSeconds(conf));
+		useIntervalBuckets = ConfigUtils.isTemporalIntervalBucketsEnabled(conf);
 	}
 
     /**
@@ -297,6 +303,11 @@ public class AccumuloTemporalIndexer extends AbstractAccumuloIndexer implements
         m = new Mutation(keyText);
         m.putDelete(cf, cqEnd);
         writer.addMutation(m);
+
+        // and the buckets the interval spans:
+        if (useIntervalBuckets) {
+            intervalBuckets.removeInterval(writer, interval, statement);
+        }
     }
 
     /**
@@ -346,6 +357,11 @@ public class AccumuloTemporalIndexer extends AbstractAccumuloIndexer implements
         m.put(cf, cqEnd, new Value(statementValue));
         // System.out.println("mutations add end row=" + m.getRow() + " value=" + value.toString());
         writer.addMutation(m);
+
+        // and the buckets the interval spans, see TemporalIntervalBuckets:
+        if (useIntervalBuckets) {
+            intervalBuckets.addInterval(writer, interval, statement);
+        }
     }
 
 
@@ -576,11 +592,23 @@ public class AccumuloTemporalIndexer extends AbstractAccumuloIndexer implements
      * before the given beginning.
      * Indexing Intervals  will probably change or be removed.
      * Currently predicate and subject constraints are filtered on the client.
+     * If interval buckets are enabled, only the buckets from the first one that was written
+     * up to the given beginning are read.
      */
     @Override
     public CloseableIteration<Statement, QueryEvaluationException> queryIntervalBefore(
             final TemporalInterval queryInterval, final StatementConstraints constraints) throws QueryEvaluationException
     {
+        if (useIntervalBuckets) {
+            final Optional<TemporalIntervalBuckets.Extent> extent = TemporalIntervalBuckets.readExtent(getScanner());
+            final List<Range> ranges = intervalBuckets.getRanges(
+                    extent.map(TemporalIntervalBuckets.Extent::getFirst).orElse(Long.MAX_VALUE),
+                    Math.min(intervalBuckets.getBucket(queryInterval.getHasBeginning()), extent.map(TemporalIntervalBuckets.Extent::getLast).orElse(Long.MIN_VALUE)));
+            final String[] columns = { TemporalIntervalBuckets.CQ_BUCKET_END, TemporalIntervalBuckets.CQ_BUCKET_BEGIN_END, TemporalIntervalBuckets.CQ_LONG_INTERVAL };
+            return queryIntervalBuckets(ranges, columns, constraints,
+                    (key, interval) -> interval.getHasEnd().compareTo(queryInterval.getHasBeginning()) < 0);
+        }
+
         final Scanner scanner = getScanner();
         if (scanner != null) {
             // get rows where the end date is less than the queryInterval.getBefore()
@@ -600,11 +628,22 @@ public class AccumuloTemporalIndexer extends AbstractAccumuloIndexer implements
      * Use the special following prefix mechanism to avoid matching the beginning date.
      * Indexing Intervals  will probably change or be removed.
      * Currently predicate and subject and context constraints are filtered on the client.
+     * If interval buckets are enabled, only the buckets from the given ending up to the last
+     * one that was written are read.
      */
     @Override
     public CloseableIteration<Statement, QueryEvaluationException> queryIntervalAfter(
             final TemporalInterval queryInterval, final StatementConstraints constraints)
             throws QueryEvaluationException {
+        if (useIntervalBuckets) {
+            final Optional<TemporalIntervalBuckets.Extent> extent = TemporalIntervalBuckets.readExtent(getScanner());
+            final List<Range> ranges = intervalBuckets.getRanges(
+                    Math.max(intervalBuckets.getBucket(queryInterval.getHasEnd()), extent.map(TemporalIntervalBuckets.Extent::getFirst).orElse(Long.MAX_VALUE)),
+                    extent.map(TemporalIntervalBuckets.Extent::getLast).orElse(Long.MIN_VALUE));
+            final String[] columns = { TemporalIntervalBuckets.CQ_BUCKET_BEGIN, TemporalIntervalBuckets.CQ_BUCKET_BEGIN_END, TemporalIntervalBuckets.CQ_LONG_INTERVAL };
+            return queryIntervalBuckets(ranges, columns, constraints,
+                    (key, interval) -> interval.getHasBeginning().compareTo(queryInterval.getHasEnd()) > 0);
+        }
 
         final Scanner scanner = getScanner();
         if (scanner != null) {
@@ -621,6 +660,78 @@ public class AccumuloTemporalIndexer extends AbstractAccumuloIndexer implements
         // TODO currently predicate, subject and context constraints are filtered on the clients
         return getIteratorWrapper(scanner);
     }
+
+    /**
+     * Find intervals that share at least one instant with the given interval.
+     * If interval buckets are enabled, only the buckets the given interval spans are read.
+     * Otherwise every interval that begins before the given ending is read.
+     * Currently predicate and subject constraints are filtered on the client.
+     */
+    @Override
+    public CloseableIteration<Statement, QueryEvaluationException> queryIntervalOverlaps(
+            final TemporalInterval queryInterval, final StatementConstraints constraints)
+            throws QueryEvaluationException {
+        if (!useIntervalBuckets) {
+            final Scanner scanner = getScanner();
+            // get rows where the start date is less than or equal to the queryInterval.getEnd()
+            final Range range = new Range(null, false, new Key(Range.followingPrefix(new Text(queryInterval.getHasEnd().getAsKeyBytes()))), false);
+            scanner.setRange(range);
+            scanner.fetchColumn(new Text(constraints.hasContext() ? constraints.getContext().toString() : ""), new Text(KeyParts.CQ_BEGIN));
+            return new ConstrainedIteratorWrapper(scanner) {
+                @Override
+                public boolean allowedBy(final Statement statement) {
+                    final TemporalInterval interval = TemporalInstantRfc3339.parseInterval(statement.getObject().stringValue());
+                    return interval.getHasEnd().compareTo(queryInterval.getHasBeginning()) >= 0;
+                }
+            };
+        }
+
+        final long firstBucket = intervalBuckets.getBucket(queryInterval.getHasBeginning());
+        final List<Range> ranges = intervalBuckets.getRanges(firstBucket, intervalBuckets.getBucket(queryInterval.getHasEnd()));
+        final String[] columns = { TemporalIntervalBuckets.CQ_BUCKET_BEGIN, TemporalIntervalBuckets.CQ_BUCKET_END,
+                TemporalIntervalBuckets.CQ_BUCKET_BEGIN_END, TemporalIntervalBuckets.CQ_BUCKET_SPAN, TemporalIntervalBuckets.CQ_LONG_INTERVAL };
+        return queryIntervalBuckets(ranges, columns, constraints, (key, interval) -> {
+            // An interval is in every bucket it spans, so only return it from the first one that was read.
+            final String cq = key.getColumnQualifier().toString();
+            final boolean isFirstRead = !cq.equals(TemporalIntervalBuckets.CQ_BUCKET_END) && !cq.equals(TemporalIntervalBuckets.CQ_BUCKET_SPAN)
+                    || TemporalIntervalBuckets.getBucket(key) == firstBucket;
+            return isFirstRead
+                    && interval.getHasBeginning().compareTo(queryInterval.getHasEnd()) <= 0
+                    && interval.getHasEnd().compareTo(queryInterval.getHasBeginning()) >= 0;
+        });
+    }
+
+    /**
+     * Reads the interval buckets and the long intervals.
+     *
+     * @param ranges  the buckets to read.
+     * @param columnQualifiers  the kinds of bucket entries to read.
+     * @param constraints  only the context is used, the other constraints are filtered on the client.
+     * @param allowedBy  the filter that decides which of the entries that were read are returned.
+     * @return the statements of the intervals that were allowed.
+     */
+    private CloseableIteration<Statement, QueryEvaluationException> queryIntervalBuckets(final Collection<Range> ranges,
+            final String[] columnQualifiers, final StatementConstraints constraints, final BiPredicate<Key, TemporalInterval> allowedBy)
+            throws QueryEvaluationException {
+        final BatchScanner scanner = getBatchScanner();
+        scanner.setRanges(ranges);
+        final Text cf = new Text(constraints.hasContext() ? constraints.getContext().toString() : "");
+        for (final String cq : columnQualifiers) {
+            scanner.fetchColumn(cf, new Text(cq));
+        }
+        return new ConstrainedIteratorWrapper(scanner) {
+            @Override
+            public boolean allowedBy(final Statement statement) {
+                return true;
+            }
+
+            @Override
+            protected boolean allowedBy(final Key key, final Statement statement) {
+                final TemporalInterval interval = TemporalInstantRfc3339.parseInterval(statement.getObject().stringValue());
+                return allowedBy.test(key, interval);
+            }
+        };
+    }
     // --
     // -- END of Query functions.  Next up, general stuff used by the queries above.
     // --
@@ -811,7 +922,7 @@ public class AccumuloTemporalIndexer extends AbstractAccumuloIndexer implements
                         logger.error("Error de-serializing statement, string=" + v.get(), e);
                         throw new QueryEvaluationException(e);
                     }
-                    if (allowedBy(statement)) {
+                    if (allowedBy(entry.getKey(), statement)) {
                         nextStatement = statement;
                         return;
                     }
@@ -819,6 +930,13 @@ public class AccumuloTemporalIndexer extends AbstractAccumuloIndexer implements
             }
             public abstract boolean allowedBy(Statement s);
 
+            /**
+             * Override to filter on the key as well as the statement.
+             */
+            protected boolean allowedBy(final Key key, final Statement s) {
+                return allowedBy(s);
+            }
+
             @Override
             public void remove() {
                 throw new UnsupportedOperationException("Remove not implemented");
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.accumulo.temporal;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+import org.apache.rya.indexing.KeyParts;
+import org.apache.rya.indexing.StatementSerializer;
+import org.apache.rya.indexing.TemporalInstantRfc3339;
+import org.apache.rya.indexing.TemporalInterval;
+import org.apache.rya.indexing.accumulo.ConfigUtils;
+import org.eclipse.rdf4j.model.Statement;
+
+/**
+ * Writes the interval buckets of a temporal index table that was written before
+ * {@link ConfigUtils#TEMPORAL_INTERVAL_USE_BUCKETS} was enabled. Every interval
+ * beginning that is stored in the table is read and written to the buckets it spans.
+ * Writing the buckets of an interval twice has no effect, so the migration may be
+ * run again if it fails, or while statements are still being indexed.
+ * <p>
+ * Enable the buckets on every indexer first, so that the intervals indexed while the
+ * migration runs are written to their buckets too. Until the migration has finished,
+ * interval queries do not return the intervals that have not been migrated yet. The
+ * migration must use the same {@link ConfigUtils#TEMPORAL_INTERVAL_BUCKET_SECONDS} as
+ * the indexer.
+ */
+public class TemporalIntervalBucketMigration {
+    private static final Logger logger = Logger.getLogger(TemporalIntervalBucketMigration.class);
+
+    private final Configuration conf;
+    private final TemporalIntervalBuckets intervalBuckets;
+
+    /**
+     * Constructs an instance of {@link TemporalIntervalBucketMigration}.
+     *
+     * @param conf - Identifies the Rya instance whose temporal index is migrated. (not null)
+     */
+    public TemporalIntervalBucketMigration(final Configuration conf) {
+        this.conf = requireNonNull(conf);
+        intervalBuckets = new TemporalIntervalBuckets(ConfigUtils.getTemporalIntervalBucketSeconds(conf));
+    }
+
+    /**
+     * Write the buckets of every interval that is stored in the temporal index table.
+     *
+     * @return The number of intervals whose buckets were written.
+     * @throws AccumuloException The table could not be read or written.
+     * @throws AccumuloSecurityException The user may not read or write the table.
+     * @throws TableNotFoundException The temporal index table does not exist.
+     * @throws IOException A stored statement could not be read.
+     */
+    public long migrate() throws AccumuloException, AccumuloSecurityException, TableNotFoundException, IOException {
+        final String tableName = AccumuloTemporalIndexer.makeTableName(ConfigUtils.getTablePrefix(conf));
+        logger.info("Writing the interval buckets of temporal index table: " + tableName);
+
+        final Scanner scanner = ConfigUtils.createScanner(tableName, conf);
+        // Every interval is stored once by its beginning, so only read those entries.
+        final IteratorSetting beginnings = new IteratorSetting(20, "intervalBeginnings", RegExFilter.class);
+        RegExFilter.setRegexs(beginnings, null, null, KeyParts.CQ_BEGIN, null, false);
+        scanner.addScanIterator(beginnings);
+
+        long migrated = 0;
+        final BatchWriter writer = ConfigUtils.getConnector(conf).createBatchWriter(tableName, new BatchWriterConfig());
+        try {
+            for (final Entry<Key, Value> entry : scanner) {
+                final Value value = entry.getValue();
+                final Statement statement = StatementSerializer.readStatement(Text.decode(value.get(), 0, value.getSize()));
+                final TemporalInterval interval = TemporalInstantRfc3339.parseInterval(statement.getObject().stringValue());
+                intervalBuckets.addInterval(writer, interval, statement);
+                migrated++;
+            }
+        } finally {
+            scanner.close();
+            writer.close();
+        }
+
+        logger.info("Wrote the interval buckets of " + migrated + " intervals.");
+        return migrated;
+    }
+}
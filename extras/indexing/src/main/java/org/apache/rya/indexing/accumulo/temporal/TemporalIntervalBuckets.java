@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.accumulo.temporal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.commons.codec.binary.StringUtils;
+import org.apache.hadoop.io.Text;
+import org.apache.rya.indexing.KeyParts;
+import org.apache.rya.indexing.StatementSerializer;
+import org.apache.rya.indexing.TemporalInstant;
+import org.apache.rya.indexing.TemporalInterval;
+import org.eclipse.rdf4j.model.Statement;
+
+/**
+ * Stores intervals in fixed size buckets of time so that interval queries only
+ * read the buckets that may hold matching intervals, instead of every interval
+ * that begins before or ends after the queried time.
+ * <p>
+ * An interval is written to every bucket it spans. Its row within a bucket is:
+ * <pre>
+ *     rowkey = 0x02 bucket interval.getAsKeyBeginning() uniquesuffix
+ * </pre>
+ * where bucket is the bucket's number encoded so that the buckets sort in time order.
+ * The column qualifier tells whether the interval begins, ends, begins and ends, or
+ * only passes through the bucket, so a query that only cares about where intervals
+ * begin or end may skip the other entries.
+ * <p>
+ * Intervals that span more than {@link #MAX_BUCKETS_PER_INTERVAL} buckets would
+ * cost too many entries, so they are written once to a separate list of long
+ * intervals that is read by every query:
+ * <pre>
+ *     rowkey = 0x03 interval.getAsKeyBeginning() uniquesuffix
+ * </pre>
+ * <p>
+ * The first and last buckets that have been written are kept in a single row so that
+ * queries that are open ended, such as every interval before a time, only read the
+ * buckets that exist:
+ * <pre>
+ *     rowkey = 0x04, cq = firstBucket, timestamp = -bucket
+ *     rowkey = 0x04, cq = lastBucket, timestamp = bucket
+ * </pre>
+ * The table's versioning iterator only keeps the entry with the highest timestamp, so
+ * the row holds the lowest first bucket and the highest last bucket that were written.
+ * The extent is not shrunk when intervals are removed.
+ */
+public class TemporalIntervalBuckets {
+
+    public static final byte[] BUCKET_PREFIX = new byte[] {2};
+    public static final byte[] LONG_INTERVAL_PREFIX = new byte[] {3};
+    public static final byte[] EXTENT_ROW = new byte[] {4};
+
+    /**
+     * The interval begins within the bucket and ends in a later one.
+     */
+    public static final String CQ_BUCKET_BEGIN = "bucketBegin";
+    /**
+     * The interval begins in an earlier bucket and ends within the bucket.
+     */
+    public static final String CQ_BUCKET_END = "bucketEnd";
+    /**
+     * The interval begins and ends within the bucket.
+     */
+    public static final String CQ_BUCKET_BEGIN_END = "bucketBeginEnd";
+    /**
+     * The interval begins before the bucket and ends after it.
+     */
+    public static final String CQ_BUCKET_SPAN = "bucketSpan";
+    /**
+     * The interval is stored in the list of long intervals.
+     */
+    public static final String CQ_LONG_INTERVAL = "longInterval";
+
+    /**
+     * The most buckets an interval is written to before it is stored as a long interval instead.
+     */
+    public static final int MAX_BUCKETS_PER_INTERVAL = 1000;
+
+    private static final String CQ_FIRST_BUCKET = "firstBucket";
+    private static final String CQ_LAST_BUCKET = "lastBucket";
+
+    private final long bucketMillis;
+
+    /**
+     * The extent this instance has already written, so it is only written again when it grows.
+     */
+    private long firstWritten = Long.MAX_VALUE;
+    private long lastWritten = Long.MIN_VALUE;
+
+    /**
+     * Constructs an instance of {@link TemporalIntervalBuckets}.
+     *
+     * @param bucketSeconds - The number of seconds of time each bucket covers. (> 0)
+     */
+    public TemporalIntervalBuckets(final long bucketSeconds) {
+        checkArgument(bucketSeconds > 0, "The bucket size must be greater than 0 seconds.");
+        bucketMillis = TimeUnit.SECONDS.toMillis(bucketSeconds);
+    }
+
+    /**
+     * @param instant - The instant whose bucket will be returned. (not null)
+     * @return The number of the bucket that holds the instant.
+     */
+    public long getBucket(final TemporalInstant instant) {
+        requireNonNull(instant);
+        return Math.floorDiv(instant.getAsDateTime().getMillis(), bucketMillis);
+    }
+
+    /**
+     * @param key - A key that was read from a bucket. (not null)
+     * @return The number of the bucket the key belongs to.
+     */
+    public static long getBucket(final Key key) {
+        requireNonNull(key);
+        final byte[] row = key.getRowData().toArray();
+        return ByteBuffer.wrap(row, BUCKET_PREFIX.length, 8).getLong() ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Write an interval to the buckets it spans.
+     *
+     * @param writer - Writes to the temporal index table. (not null)
+     * @param interval - The interval that is indexed. (not null)
+     * @param statement - The statement whose object is the interval. (not null)
+     * @throws MutationsRejectedException The interval could not be written.
+     */
+    public void addInterval(final BatchWriter writer, final TemporalInterval interval, final Statement statement) throws MutationsRejectedException {
+        writeInterval(writer, interval, statement, false);
+    }
+
+    /**
+     * Remove an interval from the buckets it spans.
+     *
+     * @param writer - Writes to the temporal index table. (not null)
+     * @param interval - The interval that is removed. (not null)
+     * @param statement - The statement whose object is the interval. (not null)
+     * @throws MutationsRejectedException The interval could not be removed.
+     */
+    public void removeInterval(final BatchWriter writer, final TemporalInterval interval, final Statement statement) throws MutationsRejectedException {
+        writeInterval(writer, interval, statement, true);
+    }
+
+    private void writeInterval(final BatchWriter writer, final TemporalInterval interval, final Statement statement, final boolean delete) throws MutationsRejectedException {
+        requireNonNull(writer);
+        requireNonNull(interval);
+        requireNonNull(statement);
+
+        final Value statementValue = new Value(StringUtils.getBytesUtf8(StatementSerializer.writeStatement(statement)));
+        final Text cf = new Text(StatementSerializer.writeContext(statement));
+
+        final long first = getBucket(interval.getHasBeginning());
+        final long last = getBucket(interval.getHasEnd());
+        if (last - first >= MAX_BUCKETS_PER_INTERVAL) {
+            final Text keyText = new Text(LONG_INTERVAL_PREFIX);
+            keyText.append(interval.getAsKeyBeginning(), 0, interval.getAsKeyBeginning().length);
+            KeyParts.appendUniqueness(statement, keyText);
+            writer.addMutation(makeMutation(keyText, cf, CQ_LONG_INTERVAL, statementValue, delete));
+            return;
+        }
+
+        final List<Mutation> mutations = new ArrayList<>();
+        for (long bucket = first; bucket <= last; bucket++) {
+            final String cq;
+            if (bucket == first) {
+                cq = bucket == last ? CQ_BUCKET_BEGIN_END : CQ_BUCKET_BEGIN;
+            } else {
+                cq = bucket == last ? CQ_BUCKET_END : CQ_BUCKET_SPAN;
+            }
+
+            final Text keyText = makeBucketRow(bucket);
+            keyText.append(interval.getAsKeyBeginning(), 0, interval.getAsKeyBeginning().length);
+            KeyParts.appendUniqueness(statement, keyText);
+            mutations.add(makeMutation(keyText, cf, cq, statementValue, delete));
+        }
+        writer.addMutations(mutations);
+        if (!delete) {
+            writeExtent(writer, first, last);
+        }
+    }
+
+    private void writeExtent(final BatchWriter writer, final long first, final long last) throws MutationsRejectedException {
+        final Mutation m = new Mutation(new Text(EXTENT_ROW));
+        synchronized (this) {
+            if (first < firstWritten) {
+                m.put(new Text(), new Text(CQ_FIRST_BUCKET), -first, new Value(encodeBucket(first)));
+                firstWritten = first;
+            }
+            if (last > lastWritten) {
+                m.put(new Text(), new Text(CQ_LAST_BUCKET), last, new Value(encodeBucket(last)));
+                lastWritten = last;
+            }
+        }
+        if (m.size() > 0) {
+            writer.addMutation(m);
+        }
+    }
+
+    /**
+     * Reads the first and last buckets that have been written to the temporal index table.
+     *
+     * @param scanner - Scans the temporal index table. (not null)
+     * @return The first and last buckets, or absent if no buckets have been written.
+     */
+    public static Optional<Extent> readExtent(final Scanner scanner) {
+        requireNonNull(scanner);
+        scanner.setRange(Range.exact(new Text(EXTENT_ROW)));
+        Long first = null;
+        Long last = null;
+        for (final Map.Entry<Key, Value> entry : scanner) {
+            final long bucket = ByteBuffer.wrap(entry.getValue().get()).getLong();
+            if (entry.getKey().getColumnQualifier().toString().equals(CQ_FIRST_BUCKET)) {
+                first = bucket;
+            } else if (entry.getKey().getColumnQualifier().toString().equals(CQ_LAST_BUCKET)) {
+                last = bucket;
+            }
+        }
+        return first == null || last == null ? Optional.empty() : Optional.of(new Extent(first, last));
+    }
+
+    private static byte[] encodeBucket(final long bucket) {
+        return ByteBuffer.allocate(8).putLong(bucket).array();
+    }
+
+    private static Mutation makeMutation(final Text row, final Text cf, final String cq, final Value value, final boolean delete) {
+        final Mutation m = new Mutation(row);
+        if (delete) {
+            m.putDelete(cf, new Text(cq));
+        } else {
+            m.put(cf, new Text(cq), new Value(value));
+        }
+        return m;
+    }
+
+    /**
+     * @param from - The first bucket that is read.
+     * @param to - The last bucket that is read.
+     * @return The ranges that read the buckets from {@code from} through {@code to}
+     *   as well as the list of long intervals. No buckets are read if {@code from}
+     *   is after {@code to}.
+     */
+    public List<Range> getRanges(final long from, final long to) {
+        final List<Range> ranges = new ArrayList<>();
+        if (from <= to) {
+            ranges.add(new Range(new Key(makeBucketRow(from)), true, new Key(makeBucketRow(to + 1)), false));
+        }
+        ranges.add(Range.prefix(new Text(LONG_INTERVAL_PREFIX)));
+        return ranges;
+    }
+
+    private static Text makeBucketRow(final long bucket) {
+        // Flipping the sign bit makes the buckets before 1970 sort before the ones after it.
+        final byte[] row = ByteBuffer.allocate(BUCKET_PREFIX.length + 8)
+                .put(BUCKET_PREFIX)
+                .putLong(bucket ^ Long.MIN_VALUE)
+                .array();
+        return new Text(row);
+    }
+
+    /**
+     * The first and last buckets that have been written to a temporal index table.
+     */
+    public static final class Extent {
+        private final long first;
+        private final long last;
+
+        public Extent(final long first, final long last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * @return The number of the first bucket that has been written.
+         */
+        public long getFirst() {
+            return first;
+        }
+
+        /**
+         * @return The number of the last bucket that has been written.
+         */
+        public long getLast() {
+            return last;
+        }
+    }
+}
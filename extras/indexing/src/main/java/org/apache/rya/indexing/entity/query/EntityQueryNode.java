@@ -20,15 +20,19 @@ package org.apache.rya.indexing.entity.query;
 
 import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Consumer;
 
 import org.apache.rya.api.domain.RyaType;
 import org.apache.rya.api.domain.RyaURI;
@@ -43,6 +47,9 @@ import org.apache.rya.indexing.entity.storage.mongo.ConvertingCursor;
 import org.apache.rya.indexing.entity.update.EntityIndexer;
 import org.apache.rya.rdftriplestore.evaluation.ExternalBatchingIterator;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.query.Binding;
@@ -53,12 +60,10 @@ import org.eclipse.rdf4j.query.algebra.Var;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.ExternalSet;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.CollectionIteration;
 import org.eclipse.rdf4j.query.impl.MapBindingSet;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
+import com.google.common.collect.Iterables;
 
 import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -70,13 +75,18 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 @DefaultAnnotation(NonNull.class)
 public class EntityQueryNode extends ExternalSet implements ExternalBatchingIterator {
 
-    private static final Logger LOG = LoggerFactory.getLogger(EntityQueryNode.class);
-
     /**
      * The RyaURI that when used as the Predicate of a Statement Pattern indicates the Type of the Entities.
      */
     private static final RyaURI TYPE_ID_URI = new RyaURI(RDF.TYPE.toString());
 
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    /**
+     * The maximum number of subjects whose Entities are fetched with a single search.
+     */
+    private static final int MAX_SUBJECTS_PER_SEARCH = 1000;
+
     // Provided at construction time.
     private final Type type;
     private final Collection<StatementPattern> patterns;
@@ -253,17 +263,62 @@ public class EntityQueryNode extends ExternalSet implements ExternalBatchingIter
         }
     }
 
+    /**
+     * Evaluates a batch of {@link BindingSet}s. The batch is grouped by the value the
+     * binding sets have for the subject variable so that the {@link EntityStorage} is
+     * searched once for every {@value #MAX_SUBJECTS_PER_SEARCH} subjects instead of once
+     * per binding set. Binding sets that do not bind the subject share a single search.
+     */
     @Override
     public CloseableIteration<BindingSet, QueryEvaluationException> evaluate(final Collection<BindingSet> bindingSets) throws QueryEvaluationException {
         requireNonNull(bindingSets);
+
+        // Group the binding sets by the subject they require the Entities to have.
+        final Map<RyaURI, List<BindingSet>> bySubject = new LinkedHashMap<>();
+        final List<BindingSet> anySubject = new ArrayList<>();
+        for(final BindingSet bindingSet : bindingSets) {
+            final Optional<RyaURI> subject = getSubject(bindingSet);
+            if(subject.isPresent()) {
+                bySubject.computeIfAbsent(subject.get(), key -> new ArrayList<>()).add(bindingSet);
+            } else {
+                anySubject.add(bindingSet);
+            }
+        }
+
         final List<BindingSet> list = new ArrayList<>();
-        bindingSets.forEach(bindingSet -> {
-            try {
-                list.addAll(findBindings(bindingSet));
-            } catch (final Exception e) {
-                LOG.error("Unable to evaluate bindingset.", e);
+        try {
+            // Fetch the Entities of the bound subjects and join them with the binding sets that require them.
+            for(final List<RyaURI> subjects : Iterables.partition(bySubject.keySet(), MAX_SUBJECTS_PER_SEARCH)) {
+                final Map<RyaURI, List<TypedEntity>> entitiesBySubject = new HashMap<>();
+                try(final ConvertingCursor<TypedEntity> entitiesCursor = entities.search(subjects, type, properties)) {
+                    while(entitiesCursor.hasNext()) {
+                        final TypedEntity typedEntity = entitiesCursor.next();
+                        entitiesBySubject.computeIfAbsent(typedEntity.getSubject(), key -> new ArrayList<>()).add(typedEntity);
+                    }
+                }
+
+                for(final RyaURI subject : subjects) {
+                    final List<TypedEntity> matches = entitiesBySubject.getOrDefault(subject, Collections.emptyList());
+                    for(final BindingSet bindingSet : bySubject.get(subject)) {
+                        list.addAll(join(bindingSet, matches));
+                    }
+                }
             }
-        });
+
+            // The remaining binding sets may be joined with any of the Entities.
+            if(!anySubject.isEmpty()) {
+                final List<TypedEntity> matches = new ArrayList<>();
+                try(final ConvertingCursor<TypedEntity> entitiesCursor = entities.search(Optional.empty(), type, properties)) {
+                    entitiesCursor.forEachRemaining(matches::add);
+                }
+
+                for(final BindingSet bindingSet : anySubject) {
+                    list.addAll(join(bindingSet, matches));
+                }
+            }
+        } catch (final EntityStorageException | IOException e) {
+            throw new QueryEvaluationException("Failed to evaluate the binding sets", e);
+        }
 
         return new CollectionIteration<>(list);
     }
@@ -271,47 +326,52 @@ public class EntityQueryNode extends ExternalSet implements ExternalBatchingIter
     @Override
     public CloseableIteration<BindingSet, QueryEvaluationException> evaluate(final BindingSet bindingSet) throws QueryEvaluationException {
         requireNonNull(bindingSet);
-        return new CollectionIteration<>(findBindings(bindingSet));
+        return evaluate(Collections.singleton(bindingSet));
     }
 
-    private List<BindingSet> findBindings(final BindingSet bindingSet) throws QueryEvaluationException {
-        final MapBindingSet resultSet = new MapBindingSet();
-        try {
-            final ConvertingCursor<TypedEntity> entitiesCursor;
-            final String subj;
-            // If the subject needs to be filled in, check if the subject variable is in the binding set.
-            if(subjectIsConstant) {
-                // if it is, fetch that value and then fetch the entity for the subject.
-                subj = subjectConstant.get();
-                entitiesCursor = entities.search(Optional.of(new RyaURI(subj)), type, properties);
-            } else {
-                entitiesCursor = entities.search(Optional.empty(), type, properties);
-            }
+    /**
+     * Get the subject a {@link BindingSet} requires the matched Entities to have.
+     *
+     * @param bindingSet - The binding set that is being evaluated. (not null)
+     * @return The subject the Entities must have, or absent if any subject matches.
+     */
+    private Optional<RyaURI> getSubject(final BindingSet bindingSet) {
+        if(subjectIsConstant) {
+            return Optional.of(new RyaURI(subjectConstant.get()));
+        }
 
-            while(entitiesCursor.hasNext()) {
-                final TypedEntity typedEntity = entitiesCursor.next();
-                final ImmutableCollection<Property> properties = typedEntity.getProperties();
-                //ensure properties match and only add properties that are in the statement patterns to the binding set
-                for(final RyaURI key : objectVariables.keySet()) {
-                    final Optional<RyaType> prop = typedEntity.getPropertyValue(new RyaURI(key.getData()));
-                    if(prop.isPresent()) {
-                        final RyaType type = prop.get();
-                        final String bindingName = objectVariables.get(key).getName();
-                        resultSet.addBinding(bindingName, SimpleValueFactory.getInstance().createLiteral(type.getData()));
-                    }
+        final Value subject = bindingSet.getValue(subjectVar.get());
+        if(subject instanceof IRI) {
+            return Optional.of(new RyaURI(subject.stringValue()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Creates the results of joining a {@link BindingSet} with the Entities that match it.
+     *
+     * @param bindingSet - The binding set that is being evaluated. (not null)
+     * @param matches - The Entities that match the binding set's subject. (not null)
+     * @return One result per matching Entity.
+     */
+    private List<BindingSet> join(final BindingSet bindingSet, final List<TypedEntity> matches) {
+        final List<BindingSet> list = new ArrayList<>(matches.size());
+        for(final TypedEntity typedEntity : matches) {
+            final MapBindingSet resultSet = new MapBindingSet();
+            //only add properties that are in the statement patterns to the binding set
+            for(final RyaURI key : objectVariables.keySet()) {
+                final Optional<RyaType> prop = typedEntity.getPropertyValue(key);
+                if(prop.isPresent()) {
+                    final String bindingName = objectVariables.get(key).getName();
+                    resultSet.addBinding(bindingName, VF.createLiteral(prop.get().getData()));
                 }
             }
-        } catch (final EntityStorageException e) {
-            throw new QueryEvaluationException("Failed to evaluate the binding set", e);
-        }
-        bindingSet.forEach(new Consumer<Binding>() {
-            @Override
-            public void accept(final Binding binding) {
+
+            for(final Binding binding : bindingSet) {
                 resultSet.addBinding(binding);
             }
-        });
-        final List<BindingSet> list = new ArrayList<>();
-        list.add(resultSet);
+            list.add(resultSet);
+        }
         return list;
     }
 
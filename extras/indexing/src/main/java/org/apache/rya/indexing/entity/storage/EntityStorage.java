@@ -18,6 +18,8 @@
  */
 package org.apache.rya.indexing.entity.storage;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -50,6 +52,46 @@ public interface EntityStorage extends RyaObjectStorage<Entity> {
      */
     public ConvertingCursor<TypedEntity> search(final Optional<RyaURI> subject, Type type, Set<Property> properties) throws EntityStorageException;
 
+    /**
+     * Search the stored {@link Entity}s whose subject is one of the provided subjects and
+     * that have a specific {@link Type} as well as the provided {@link Property} values.
+     * This lets the Entities of many subjects be fetched with a single search.
+     *
+     * @param subjects - The {@link RyaURI} subjects of the Entities. (not null)
+     * @param type - The {@link Type} of the Entities. (not null)
+     * @param properties - The {@link Property} values that must be set on the Entity. (not null)
+     * @return A {@link CloseableIterator} over the {@link TypedEntity}s that match the search parameters.
+     * @throws EntityStorageException A problem occurred while searching the storage.
+     */
+    public ConvertingCursor<TypedEntity> search(final Collection<RyaURI> subjects, Type type, Set<Property> properties) throws EntityStorageException;
+
+    /**
+     * Get the {@link Entity}s of many subjects with a single request.
+     *
+     * @param subjects - The {@link RyaURI} subjects of the Entities. (not null)
+     * @return The Entities that exist, keyed by their subjects. Subjects that do
+     *   not have an Entity are not included.
+     * @throws EntityStorageException A problem occurred while fetching the Entities from the storage.
+     */
+    public Map<RyaURI, Entity> get(final Collection<RyaURI> subjects) throws EntityStorageException;
+
+    /**
+     * Creates and updates many {@link Entity}s with a single request. An updated Entity
+     * only replaces the stored Entity if the stored Entity's version is one less than the
+     * updated Entity's version, the same way {@link #update(Entity, Entity)} checks for
+     * stale updates.
+     * <p>
+     * The writes that conflict with something else that wrote the same Entities are
+     * not applied. The subjects of those Entities are returned so that the caller may
+     * retry them.
+     *
+     * @param created - The Entities that will be created. (not null)
+     * @param updated - The Entities that will replace the stored version of themselves. (not null)
+     * @return The subjects of the Entities that could not be written because of a conflict.
+     * @throws EntityStorageException A problem occurred while writing the Entities.
+     */
+    public Set<RyaURI> bulkWrite(final Collection<Entity> created, final Collection<Entity> updated) throws EntityStorageException;
+
     /**
      * Indicates a problem while interacting with an {@link EntityStorage}.
      */
@@ -21,16 +21,21 @@ package org.apache.rya.indexing.entity.storage.mongo;
 import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.log4j.Logger;
+import org.apache.rya.api.domain.RyaType;
 import org.apache.rya.api.domain.RyaURI;
 import org.apache.rya.indexing.entity.model.Entity;
 import org.apache.rya.indexing.entity.model.Property;
@@ -42,19 +47,30 @@ import org.apache.rya.indexing.entity.storage.mongo.ConvertingCursor.Converter;
 import org.apache.rya.indexing.entity.storage.mongo.DocumentConverter.DocumentConverterException;
 import org.apache.rya.indexing.entity.storage.mongo.key.MongoDbSafeKey;
 import org.apache.rya.indexing.smarturi.SmartUriException;
+import org.apache.rya.indexing.smarturi.duplication.BlockingKey;
+import org.apache.rya.indexing.smarturi.duplication.BlockingRange;
 import org.apache.rya.indexing.smarturi.duplication.DuplicateDataDetector;
 import org.apache.rya.indexing.smarturi.duplication.EntityNearDuplicateException;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
 
 import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -70,6 +86,25 @@ public class MongoEntityStorage implements EntityStorage {
 
     private static final EntityDocumentConverter ENTITY_CONVERTER = new EntityDocumentConverter();
 
+    /**
+     * The field of an Entity's document that identifies the bulk write that
+     * stored it, so the writes that did not apply can be told apart from the
+     * ones that did, even when something else stored the same version.
+     */
+    protected static final String WRITE_TOKEN = "writeToken";
+
+    /**
+     * The field of an Entity's document that holds the {@link BlockingKey}s
+     * of its property values. Near duplicates are searched for by these keys,
+     * so only the Entities that may be nearly identical are compared.
+     */
+    protected static final String DUPLICATE_KEYS = "duplicateKeys";
+    private static final String KEY_PATH = "path";
+    private static final String KEY_DATA_TYPE = "dataType";
+    private static final String KEY_NUMBER = "number";
+    private static final String KEY_TERM = "term";
+    private static final String KEY_LENGTH = "length";
+
     /**
      * A client connected to the Mongo instance that hosts the Rya instance.
      */
@@ -82,6 +117,7 @@ public class MongoEntityStorage implements EntityStorage {
 
     private final DuplicateDataDetector duplicateDataDetector;
     private MongoTypeStorage mongoTypeStorage = null;
+    private boolean duplicateKeyIndicesCreated = false;
 
     /**
      * Constructs an instance of {@link MongoEntityStorage}.
@@ -126,7 +162,7 @@ public class MongoEntityStorage implements EntityStorage {
             if (!hasDuplicate) {
                 mongo.getDatabase(ryaInstanceName)
                     .getCollection(COLLECTION_NAME)
-                    .insertOne( ENTITY_CONVERTER.toDocument(entity) );
+                    .insertOne( toDocument(entity) );
             } else {
                 throw new EntityNearDuplicateException("Duplicate data found and will not be inserted for Entity with Subject: "  + entity);
             }
@@ -166,7 +202,7 @@ public class MongoEntityStorage implements EntityStorage {
 
         // Do a find and replace.
         final Bson oldEntityFilter = Filters.and(filters);
-        final Document updatedDoc = ENTITY_CONVERTER.toDocument(updated);
+        final Document updatedDoc = toDocument(updated);
 
         final MongoCollection<Document> collection = mongo.getDatabase(ryaInstanceName).getCollection(COLLECTION_NAME);
         if(collection.findOneAndReplace(oldEntityFilter, updatedDoc) == null) {
@@ -193,8 +229,124 @@ public class MongoEntityStorage implements EntityStorage {
         }
     }
 
+    @Override
+    public Map<RyaURI, Entity> get(final Collection<RyaURI> subjects) throws EntityStorageException {
+        requireNonNull(subjects);
+
+        final Map<RyaURI, Entity> found = new HashMap<>();
+        if(subjects.isEmpty()) {
+            return found;
+        }
+
+        try(final MongoCursor<Document> cursor = mongo.getDatabase(ryaInstanceName)
+                .getCollection(COLLECTION_NAME)
+                .find( makeSubjectsFilter(subjects) )
+                .iterator()) {
+            while(cursor.hasNext()) {
+                final Entity entity = ENTITY_CONVERTER.fromDocument(cursor.next());
+                found.put(entity.getSubject(), entity);
+            }
+            return found;
+        } catch(final MongoException | DocumentConverterException e) {
+            throw new EntityStorageException("Could not get the Entities of " + subjects.size() + " Subjects.", e);
+        }
+    }
+
+    @Override
+    public Set<RyaURI> bulkWrite(final Collection<Entity> created, final Collection<Entity> updated) throws EntityStorageException {
+        requireNonNull(created);
+        requireNonNull(updated);
+
+        final Set<RyaURI> conflicts = new HashSet<>();
+        final List<WriteModel<Document>> writes = new ArrayList<>();
+        final List<RyaURI> writeSubjects = new ArrayList<>();
+        final String writeToken = UUID.randomUUID().toString();
+
+        for(final Entity entity : created) {
+            if(duplicateDataDetector.isDetectionEnabled()) {
+                // Each new Entity has to be compared with the stored Entities before it may be inserted.
+                try {
+                    create(entity);
+                } catch (final EntityAlreadyExistsException e) {
+                    conflicts.add(entity.getSubject());
+                }
+            } else {
+                writes.add(new InsertOneModel<>( toDocument(entity).append(WRITE_TOKEN, writeToken) ));
+                writeSubjects.add(entity.getSubject());
+            }
+        }
+
+        for(final Entity entity : updated) {
+            final Bson oldEntityFilter = Filters.and(
+                    makeSubjectFilter(entity.getSubject()),
+                    makeVersionFilter(entity.getVersion() - 1));
+            writes.add(new ReplaceOneModel<>(oldEntityFilter, toDocument(entity).append(WRITE_TOKEN, writeToken)));
+            writeSubjects.add(entity.getSubject());
+        }
+
+        if(writes.isEmpty()) {
+            return conflicts;
+        }
+
+        final MongoCollection<Document> collection = mongo.getDatabase(ryaInstanceName).getCollection(COLLECTION_NAME);
+        int matched;
+        try {
+            matched = collection.bulkWrite(writes, new BulkWriteOptions().ordered(false)).getMatchedCount();
+        } catch(final MongoBulkWriteException e) {
+            // Inserts of Entities that were created by something else fail with duplicate keys.
+            for(final BulkWriteError error : e.getWriteErrors()) {
+                if(ErrorCategory.fromErrorCode( error.getCode() ) != ErrorCategory.DUPLICATE_KEY) {
+                    throw new EntityStorageException("Failed to write " + writes.size() + " Entities.", e);
+                }
+                conflicts.add( writeSubjects.get(error.getIndex()) );
+            }
+            matched = e.getWriteResult().getMatchedCount();
+        } catch(final MongoException e) {
+            throw new EntityStorageException("Failed to write " + writes.size() + " Entities.", e);
+        }
+
+        // The replaces that did not match were stale. Find them by checking which stored
+        // Entities were not written by this bulk write. Comparing versions is not enough,
+        // because something else may have stored the same version with different content.
+        if(matched < updated.size()) {
+            final Set<RyaURI> replaced = new HashSet<>();
+            try(final MongoCursor<Document> cursor = collection.find( makeSubjectsFilter(
+                        updated.stream().map(Entity::getSubject).collect(Collectors.toList())) )
+                    .projection( Projections.include(EntityDocumentConverter.SUBJECT, WRITE_TOKEN) )
+                    .iterator()) {
+                while(cursor.hasNext()) {
+                    final Document document = cursor.next();
+                    if(writeToken.equals( document.getString(WRITE_TOKEN) )) {
+                        replaced.add( new RyaURI(document.getString(EntityDocumentConverter.SUBJECT)) );
+                    }
+                }
+            } catch(final MongoException e) {
+                throw new EntityStorageException("Could not check which of " + updated.size() + " Entities were updated.", e);
+            }
+
+            for(final Entity entity : updated) {
+                if(!replaced.contains(entity.getSubject())) {
+                    conflicts.add(entity.getSubject());
+                }
+            }
+        }
+
+        return conflicts;
+    }
+
     @Override
     public ConvertingCursor<TypedEntity> search(final Optional<RyaURI> subject, final Type type, final Set<Property> properties) throws EntityStorageException {
+        requireNonNull(subject);
+        return searchMatching(subject.map(MongoEntityStorage::makeSubjectFilter), type, properties);
+    }
+
+    @Override
+    public ConvertingCursor<TypedEntity> search(final Collection<RyaURI> subjects, final Type type, final Set<Property> properties) throws EntityStorageException {
+        requireNonNull(subjects);
+        return searchMatching(Optional.of(makeSubjectsFilter(subjects)), type, properties);
+    }
+
+    private ConvertingCursor<TypedEntity> searchMatching(final Optional<Bson> subjectFilter, final Type type, final Set<Property> properties) throws EntityStorageException {
         requireNonNull(type);
         requireNonNull(properties);
 
@@ -207,6 +359,11 @@ public class MongoEntityStorage implements EntityStorage {
             // Only match explicitly Typed entities.
             filters.add( makeExplicitTypeFilter(type.getId()) );
 
+            // Only match the requested subjects.
+            if(subjectFilter.isPresent()) {
+                filters.add( subjectFilter.get() );
+            }
+
             // Get a cursor over the Mongo Document that represent the search results.
             final MongoCursor<Document> cursor = mongo.getDatabase(ryaInstanceName)
                 .getCollection(COLLECTION_NAME)
@@ -257,6 +414,13 @@ public class MongoEntityStorage implements EntityStorage {
         return Filters.eq(EntityDocumentConverter.SUBJECT, subject.getData());
     }
 
+    private static Bson makeSubjectsFilter(final Collection<RyaURI> subjects) {
+        final List<String> subjectData = subjects.stream()
+                .map(RyaURI::getData)
+                .collect(Collectors.toList());
+        return Filters.in(EntityDocumentConverter.SUBJECT, subjectData);
+    }
+
     private static Bson makeVersionFilter(final int version) {
         return Filters.eq(EntityDocumentConverter.VERSION, version);
     }
@@ -284,12 +448,105 @@ public class MongoEntityStorage implements EntityStorage {
         return Stream.of(dataTypeFilter, valueFilter);
     }
 
+    /**
+     * Converts an Entity into the document that stores it, along with the
+     * {@link BlockingKey}s of its property values.
+     */
+    @VisibleForTesting
+    Document toDocument(final Entity entity) {
+        final Document document = ENTITY_CONVERTER.toDocument(entity);
+        final List<Document> keys = new ArrayList<>();
+        for (final Entry<RyaURI, ImmutableMap<RyaURI, Property>> entry : entity.getProperties().entrySet()) {
+            for (final Property property : entry.getValue().values()) {
+                final RyaType value = property.getValue();
+                final Document key = new Document(KEY_PATH, DuplicateDataDetector.getPropertyPath(entry.getKey(), property.getName()))
+                        .append(KEY_DATA_TYPE, value.getDataType().stringValue());
+                final Optional<BlockingKey> blockingKey = duplicateDataDetector.getBlockingKey(value);
+                if (blockingKey.isPresent()) {
+                    if (blockingKey.get().getNumber().isPresent()) {
+                        key.append(KEY_NUMBER, blockingKey.get().getNumber().get());
+                    } else {
+                        final String term = blockingKey.get().getTerm().get();
+                        key.append(KEY_TERM, term).append(KEY_LENGTH, term.length());
+                    }
+                }
+                keys.add(key);
+            }
+        }
+        document.append(DUPLICATE_KEYS, keys);
+        return document;
+    }
+
+    private void createDuplicateKeyIndices(final MongoCollection<Document> collection) {
+        if (!duplicateKeyIndicesCreated) {
+            final String path = DUPLICATE_KEYS + "." + KEY_PATH;
+            collection.createIndex(new Document(path, 1).append(DUPLICATE_KEYS + "." + KEY_NUMBER, 1));
+            collection.createIndex(new Document(path, 1).append(DUPLICATE_KEYS + "." + KEY_TERM, 1));
+            collection.createIndex(new Document(path, 1).append(DUPLICATE_KEYS + "." + KEY_LENGTH, 1));
+            duplicateKeyIndicesCreated = true;
+        }
+    }
+
+    /**
+     * Makes a filter that matches the stored Entities which may be nearly
+     * identical to an Entity. They must have all of its explicit types and,
+     * for each of its properties, a value whose key is within the
+     * {@link BlockingRange} of its value or whose type differs from it.
+     * Entities that were stored without keys always match.
+     */
+    @VisibleForTesting
+    Bson makeDuplicateCandidateFilter(final Entity entity) {
+        final List<Bson> keyFilters = new ArrayList<>();
+        for (final Entry<RyaURI, ImmutableMap<RyaURI, Property>> entry : entity.getProperties().entrySet()) {
+            for (final Property property : entry.getValue().values()) {
+                final String path = DuplicateDataDetector.getPropertyPath(entry.getKey(), property.getName());
+                final RyaType value = property.getValue();
+                final Optional<BlockingRange> range = duplicateDataDetector.getBlockingRange(value);
+                if (!range.isPresent()) {
+                    keyFilters.add(Filters.eq(DUPLICATE_KEYS + "." + KEY_PATH, path));
+                    continue;
+                }
+
+                final Bson pathFilter = Filters.eq(KEY_PATH, path);
+                final Bson dataTypeFilter = Filters.eq(KEY_DATA_TYPE, value.getDataType().stringValue());
+                final List<Bson> matches = new ArrayList<>();
+                // The detector of the value's type decides how values of other types compare.
+                matches.add(Filters.elemMatch(DUPLICATE_KEYS, Filters.and(pathFilter,
+                        Filters.ne(KEY_DATA_TYPE, value.getDataType().stringValue()))));
+                // Values that could not be keyed are always compared.
+                matches.add(Filters.elemMatch(DUPLICATE_KEYS, Filters.and(pathFilter, dataTypeFilter,
+                        Filters.exists(KEY_NUMBER, false), Filters.exists(KEY_TERM, false))));
+                if (range.get().isNumeric()) {
+                    matches.add(Filters.elemMatch(DUPLICATE_KEYS, Filters.and(pathFilter, dataTypeFilter,
+                            Filters.gte(KEY_NUMBER, range.get().getMin()), Filters.lte(KEY_NUMBER, range.get().getMax()))));
+                } else {
+                    matches.add(Filters.elemMatch(DUPLICATE_KEYS, Filters.and(pathFilter, dataTypeFilter,
+                            Filters.in(KEY_TERM, range.get().getTerms()))));
+                    if (range.get().hasLengthRange()) {
+                        matches.add(Filters.elemMatch(DUPLICATE_KEYS, Filters.and(pathFilter, dataTypeFilter,
+                                Filters.gte(KEY_LENGTH, range.get().getMinLength()), Filters.lte(KEY_LENGTH, range.get().getMaxLength()))));
+                    }
+                }
+                keyFilters.add(Filters.or(matches));
+            }
+        }
+
+        final List<String> explicitTypeIds = entity.getExplicitTypeIds().stream()
+                .map(RyaURI::getData)
+                .collect(Collectors.toList());
+        final Bson typesFilter = Filters.all(EntityDocumentConverter.EXPLICIT_TYPE_IDS, explicitTypeIds);
+        if (keyFilters.isEmpty()) {
+            return typesFilter;
+        }
+        return Filters.and(typesFilter, Filters.or(Filters.exists(DUPLICATE_KEYS, false), Filters.and(keyFilters)));
+    }
+
     private boolean detectDuplicates(final Entity entity) throws EntityStorageException {
         boolean hasDuplicate = false;
         if (duplicateDataDetector.isDetectionEnabled()) {
-            // Grab all entities that have all the same explicit types as our
-            // original Entity.
-            final List<Entity> comparisonEntities = searchHasAllExplicitTypes(entity.getExplicitTypeIds());
+            // Grab the entities that have all the same explicit types as our
+            // original Entity and whose values may be nearly identical.
+            final List<Entity> comparisonEntities = searchDuplicateCandidates(entity);
 
             // Now that we have our set of potential duplicates, compare them.
             // We can stop when we find one duplicate.
@@ -308,23 +565,21 @@ public class MongoEntityStorage implements EntityStorage {
     }
 
     /**
-     * Searches the Entity storage for all Entities that contain all the
-     * specified explicit type IDs.
-     * @param explicitTypeIds the {@link ImmutableList} of {@link RyaURI}s that
-     * are being searched for.
-     * @return the {@link List} of {@link Entity}s that have all the specified
-     * explicit type IDs. If nothing was found an empty {@link List} is
-     * returned.
+     * Searches the Entity storage for the Entities that contain all the
+     * explicit type IDs of an Entity and that may be nearly identical to it.
+     * @param entity the {@link Entity} whose candidates are being searched for.
+     * @return the {@link List} of candidate {@link Entity}s. If nothing was
+     * found an empty {@link List} is returned.
      * @throws EntityStorageException
      */
-    private List<Entity> searchHasAllExplicitTypes(final ImmutableList<RyaURI> explicitTypeIds) throws EntityStorageException {
-        final List<Entity> hasAllExplicitTypesEntities = new ArrayList<>();
+    private List<Entity> searchDuplicateCandidates(final Entity entity) throws EntityStorageException {
+        final List<Entity> candidates = new ArrayList<>();
+        final ImmutableList<RyaURI> explicitTypeIds = entity.getExplicitTypeIds();
         if (!explicitTypeIds.isEmpty()) {
             // Grab the first type from the explicit type IDs.
             final RyaURI firstType = explicitTypeIds.get(0);
 
             // Check if that type exists anywhere in storage.
-            final List<RyaURI> subjects = new ArrayList<>();
             Optional<Type> type;
             try {
                 if (mongoTypeStorage == null) {
@@ -335,32 +590,21 @@ public class MongoEntityStorage implements EntityStorage {
                 throw new EntityStorageException("Unable to get entity type: " + firstType, e);
             }
             if (type.isPresent()) {
-                // Grab the subjects for all the types we found matching "firstType"
-                final ConvertingCursor<TypedEntity> cursor = search(Optional.empty(), type.get(), Collections.emptySet());
-                while (cursor.hasNext()) {
-                    final TypedEntity typedEntity = cursor.next();
-                    final RyaURI subject = typedEntity.getSubject();
-                    subjects.add(subject);
-                }
-            }
-
-            // Now grab all the Entities that have the subjects we found.
-            for (final RyaURI subject : subjects) {
-                final Optional<Entity> entityFromSubject = get(subject);
-                if (entityFromSubject.isPresent()) {
-                    final Entity candidateEntity = entityFromSubject.get();
-                    // Filter out any entities that don't have all the same
-                    // types associated with them as our original list of
-                    // explicit type IDs. We already know the entities we found
-                    // have "firstType" but now we have access to all the other
-                    // types they have.
-                    if (candidateEntity.getExplicitTypeIds().containsAll(explicitTypeIds)) {
-                        hasAllExplicitTypesEntities.add(candidateEntity);
+                final MongoCollection<Document> collection = mongo.getDatabase(ryaInstanceName).getCollection(COLLECTION_NAME);
+                try {
+                    createDuplicateKeyIndices(collection);
+                    try (final MongoCursor<Document> cursor = collection.find(makeDuplicateCandidateFilter(entity)).iterator()) {
+                        while (cursor.hasNext()) {
+                            candidates.add(ENTITY_CONVERTER.fromDocument(cursor.next()));
+                        }
                     }
+                } catch (final MongoException | DocumentConverterException e) {
+                    throw new EntityStorageException("Could not search for near duplicates of the Entity with Subject '" +
+                            entity.getSubject().getData() + "'.", e);
                 }
             }
         }
 
-        return hasAllExplicitTypesEntities;
+        return candidates;
     }
 }
\ No newline at end of file
@@ -24,13 +24,16 @@ import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.groupingBy;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.log4j.Logger;
@@ -95,19 +98,55 @@ public abstract class BaseEntityIndexer implements EntityIndexer, MongoSecondary
         storeStatements( singleton(statement) );
     }
 
+    /**
+     * Updates the {@link Entity}s the statements are about. All of the affected Entities
+     * are read with a single request, updated in memory, and written back with a single
+     * bulk write. Only the Entities that were concurrently written by something else are
+     * updated one at a time.
+     */
     @Override
     public void storeStatements(final Collection<RyaStatement> statements) throws IOException {
         requireNonNull(statements);
 
+        final EntityStorage entities = this.entities.get();
+        final TypeStorage types = this.types.get();
+        checkState(entities != null, "Must set this indexers configuration before storing statements.");
+        checkState(types != null, "Must set this indexers configuration before storing statements.");
+
         final Map<RyaURI,List<RyaStatement>> groupedBySubject = statements.stream()
             .collect(groupingBy(RyaStatement::getSubject));
 
-        for(final Entry<RyaURI, List<RyaStatement>> entry : groupedBySubject.entrySet()) {
-            try {
-                updateEntity(entry.getKey(), entry.getValue());
-            } catch (final IndexingException e) {
-                throw new IOException("Failed to update the Entity index.", e);
+        try {
+            // Look up the Types that include each of the properties once for the whole batch.
+            final Map<RyaURI, List<RyaURI>> typeIdsByProperty = new HashMap<>();
+            for(final RyaStatement statement : statements) {
+                final RyaURI propertyName = statement.getPredicate();
+                if(!Objects.equal(TYPE_URI, propertyName) && !typeIdsByProperty.containsKey(propertyName)) {
+                    typeIdsByProperty.put(propertyName, findTypeIds(types, propertyName));
+                }
             }
+
+            // Fetch the current state of the Entities and apply the Statements to them.
+            final Map<RyaURI, Entity> oldEntities = entities.get(groupedBySubject.keySet());
+            final List<Entity> created = new ArrayList<>();
+            final List<Entity> updated = new ArrayList<>();
+            for(final Entry<RyaURI, List<RyaStatement>> entry : groupedBySubject.entrySet()) {
+                final Optional<Entity> old = Optional.ofNullable( oldEntities.get(entry.getKey()) );
+                final Entity entity = applyStatements(entry.getKey(), old, entry.getValue(), typeIdsByProperty::get);
+                if(old.isPresent()) {
+                    updated.add(entity);
+                } else {
+                    created.add(entity);
+                }
+            }
+
+            // Write them back, then retry the Entities that something else changed in the meantime.
+            for(final RyaURI conflict : entities.bulkWrite(created, updated)) {
+                log.debug("Concurrent update of the Entity with Subject '" + conflict.getData() + "'. Retrying it on its own.");
+                updateEntity(conflict, groupedBySubject.get(conflict));
+            }
+        } catch (final IndexingException e) {
+            throw new IOException("Failed to update the Entity index.", e);
         }
     }
 
@@ -127,48 +166,84 @@ public abstract class BaseEntityIndexer implements EntityIndexer, MongoSecondary
         checkState(entities != null, "Must set this indexers configuration before storing statements.");
         checkState(types != null, "Must set this indexers configuration before storing statements.");
 
-        new EntityUpdater(entities).update(subject, old -> {
-            // Create a builder with the updated Version.
-            final Entity.Builder updated;
-            if(!old.isPresent()) {
-                updated = Entity.builder()
-                        .setSubject(subject)
-                        .setVersion(0);
-            } else {
-                final int updatedVersion = old.get().getVersion() + 1;
-                updated = Entity.builder(old.get())
-                        .setVersion( updatedVersion );
+        new EntityUpdater(entities).update(subject, old -> Optional.of( applyStatements(subject, old, statements, propertyName -> {
+            try {
+                return findTypeIds(types, propertyName);
+            } catch (final TypeStorageException e) {
+                throw new RuntimeException(e.getMessage(), e);
             }
+        })));
+    }
 
-            // Update the entity based on the Statements.
-            for(final RyaStatement statement : statements) {
+    /**
+     * Creates the next version of an {@link Entity} that reflects new {@link RyaStatement}s.
+     *
+     * @param subject - The Subject of the {@link Entity} the statements are for. (not null)
+     * @param old - The current state of the Entity, if it exists. (not null)
+     * @param statements - Statements that the {@link Entity} will be updated with. (not null)
+     * @param typeIds - Finds the IDs of the {@link Type}s that include a property name. (not null)
+     * @return The updated Entity.
+     */
+    private static Entity applyStatements(
+            final RyaURI subject,
+            final Optional<Entity> old,
+            final Collection<RyaStatement> statements,
+            final Function<RyaURI, List<RyaURI>> typeIds) {
+        // Create a builder with the updated Version.
+        final Entity.Builder updated;
+        if(!old.isPresent()) {
+            updated = Entity.builder()
+                    .setSubject(subject)
+                    .setVersion(0);
+        } else {
+            final int updatedVersion = old.get().getVersion() + 1;
+            updated = Entity.builder(old.get())
+                    .setVersion( updatedVersion );
+        }
 
-                // The Statement is setting an Explicit Type ID for the Entity.
-                if(Objects.equal(TYPE_URI, statement.getPredicate())) {
-                    final RyaURI typeId = new RyaURI(statement.getObject().getData());
-                    updated.setExplicitType(typeId);
-                }
+        // Update the entity based on the Statements.
+        for(final RyaStatement statement : statements) {
 
-                // The Statement is adding a Property to the Entity.
-                else {
-                    final RyaURI propertyName = statement.getPredicate();
-                    final RyaType propertyValue = statement.getObject();
+            // The Statement is setting an Explicit Type ID for the Entity.
+            if(Objects.equal(TYPE_URI, statement.getPredicate())) {
+                final RyaURI typeId = new RyaURI(statement.getObject().getData());
+                updated.setExplicitType(typeId);
+            }
 
-                    try(final ConvertingCursor<Type> typesIt = types.search(propertyName)) {
-                        // Set the Property for each type that includes the Statement's predicate.
-                        while(typesIt.hasNext()) {
-                            final RyaURI typeId = typesIt.next().getId();
-                            updated.setProperty(typeId, new Property(propertyName, propertyValue));
-                        }
-                    } catch (final TypeStorageException | IOException e) {
-                        throw new RuntimeException("Failed to fetch Types that include the property name '" +
-                                statement.getPredicate().getData() + "'.", e);
-                    }
+            // The Statement is adding a Property to the Entity.
+            else {
+                final RyaURI propertyName = statement.getPredicate();
+                final RyaType propertyValue = statement.getObject();
+
+                // Set the Property for each type that includes the Statement's predicate.
+                for(final RyaURI typeId : typeIds.apply(propertyName)) {
+                    updated.setProperty(typeId, new Property(propertyName, propertyValue));
                 }
             }
+        }
+
+        return updated.build();
+    }
 
-            return Optional.of( updated.build() );
-        });
+    /**
+     * Find the IDs of the {@link Type}s that include a property name.
+     *
+     * @param types - The storage that holds the Types. (not null)
+     * @param propertyName - The name of the property. (not null)
+     * @return The IDs of the Types that include the property.
+     * @throws TypeStorageException The Types could not be fetched.
+     */
+    private static List<RyaURI> findTypeIds(final TypeStorage types, final RyaURI propertyName) throws TypeStorageException {
+        final List<RyaURI> typeIds = new ArrayList<>();
+        try(final ConvertingCursor<Type> typesIt = types.search(propertyName)) {
+            while(typesIt.hasNext()) {
+                typeIds.add( typesIt.next().getId() );
+            }
+        } catch (final IOException e) {
+            throw new TypeStorageException("Failed to fetch Types that include the property name '" +
+                    propertyName.getData() + "'.", e);
+        }
+        return typeIds;
     }
 
     @Override
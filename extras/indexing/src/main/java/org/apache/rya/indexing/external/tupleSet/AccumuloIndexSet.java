@@ -147,9 +147,34 @@ public class AccumuloIndexSet extends ExternalTupleSet implements
 	public AccumuloIndexSet(final String sparql, final Configuration conf,
 			final String tablename) throws MalformedQueryException, SailException,
 			QueryEvaluationException, TableNotFoundException, AccumuloException, AccumuloSecurityException, PCJStorageException {
+		this(sparql, ConfigUtils.getConnector(conf), getAuthorizations(conf), tablename);
+	}
+
+	/**
+	 *
+	 * @param sparql
+	 *            - name of sparql query whose results will be stored in PCJ
+	 *            table
+	 * @param accCon
+	 *            - connection to a valid Accumulo instance
+	 * @param auths
+	 *            - the authorizations the PCJ table is scanned with
+	 * @param tablename
+	 *            - name of an existing PCJ table
+	 * @throws MalformedQueryException
+	 * @throws SailException
+	 * @throws QueryEvaluationException
+	 * @throws TableNotFoundException
+	 * @throws AccumuloSecurityException
+	 * @throws AccumuloException
+	 * @throws PCJStorageException
+	 */
+	public AccumuloIndexSet(final String sparql, final Connector accCon, final Authorizations auths,
+			final String tablename) throws MalformedQueryException, SailException,
+			QueryEvaluationException, TableNotFoundException, AccumuloException, AccumuloSecurityException, PCJStorageException {
 		this.tablename = tablename;
-		this.accCon = ConfigUtils.getConnector(conf);
-		this.auths = getAuthorizations(conf);
+		this.accCon = accCon;
+		this.auths = auths;
 		final SPARQLParser sp = new SPARQLParser();
 		final ParsedTupleQuery pq = (ParsedTupleQuery) sp.parseQuery(sparql, null);
 		final TupleExpr te = pq.getTupleExpr();
@@ -215,7 +240,7 @@ public class AccumuloIndexSet extends ExternalTupleSet implements
 	}
 
 
-	private Authorizations getAuthorizations(final Configuration conf) {
+	private static Authorizations getAuthorizations(final Configuration conf) {
 		final String authString = conf.get(RdfCloudTripleStoreConfiguration.CONF_QUERY_AUTH, "");
         if (authString.isEmpty()) {
             return new Authorizations();
@@ -140,6 +140,16 @@ public class MongoTemporalIndexer extends AbstractMongoIndexer<TemporalMongoDBSt
         return withConstraints(constraints, qb.get());
     }
 
+    @Override
+    public CloseableIteration<Statement, QueryEvaluationException> queryIntervalOverlaps(final TemporalInterval query,
+            final StatementConstraints constraints) throws QueryEvaluationException {
+        final QueryBuilder qb = QueryBuilder.start(INTERVAL_START)
+            .lessThanEquals(query.getHasEnd().getAsDateTime().toDate())
+            .and(INTERVAL_END)
+            .greaterThanEquals(query.getHasBeginning().getAsDateTime().toDate());
+        return withConstraints(constraints, qb.get());
+    }
+
     @Override
     public String getCollectionName() {
         return ConfigUtils.getTablePrefix(conf)  + COLLECTION_SUFFIX;
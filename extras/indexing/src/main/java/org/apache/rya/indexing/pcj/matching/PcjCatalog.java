@@ -0,0 +1,412 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.matching;
+
+import static java.util.Objects.requireNonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.impl.thrift.SecurityErrorCode;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.log4j.Logger;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.instance.AccumuloRyaInstanceDetailsRepository;
+import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
+import org.apache.rya.api.instance.RyaDetailsRepository;
+import org.apache.rya.api.instance.RyaDetailsRepository.RyaDetailsRepositoryException;
+import org.apache.rya.indexing.accumulo.ConfigUtils;
+import org.apache.rya.indexing.external.tupleSet.AccumuloIndexSet;
+import org.apache.rya.indexing.external.tupleSet.ExternalTupleSet;
+import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage;
+import org.apache.rya.indexing.pcj.storage.accumulo.AccumuloPcjStorage;
+import org.apache.rya.indexing.pcj.storage.accumulo.PcjTableNameFactory;
+import org.apache.rya.indexing.pcj.storage.accumulo.PcjTables;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A process wide catalog of the PCJs that may be used to answer queries. Each
+ * {@link ExternalTupleSet} is only parsed, and has its metadata read from Accumulo,
+ * once. Every {@link AccumuloIndexSetProvider} that is configured to use the same
+ * Rya instance shares the same catalog.
+ * <p>
+ * The catalog notices when PCJs are created or deleted by comparing the IDs of the
+ * PCJ tables, which Accumulo serves from its cached ZooKeeper table map, against the
+ * IDs it was loaded with. Only the PCJs whose tables changed are loaded again. A table
+ * that is dropped and then created again with the same name gets a new ID, so it is
+ * also picked up.
+ * <p>
+ * Catalogs are keyed by the Accumulo instance, user, authorizations, and PCJ tables they
+ * read, but not by the user's password, and they do not keep the configuration they were
+ * created with. The credentials of every configuration a catalog is fetched with are
+ * authenticated before the catalog is handed out. A successful authentication is
+ * remembered by a salted hash of the password for {@link #AUTHENTICATION_TTL_MS}, so
+ * fetching the catalog for each query does not call Accumulo every time.
+ * <p>
+ * The forms of each PCJ that have been normalized against a query are cached with the
+ * PCJ, so planning the same query again does not normalize its PCJs again.
+ */
+@ThreadSafe
+@DefaultAnnotation(NonNull.class)
+public class PcjCatalog {
+    private static final Logger log = Logger.getLogger(PcjCatalog.class);
+
+    private static final ConcurrentMap<CatalogKey, PcjCatalog> CATALOGS = new ConcurrentHashMap<>();
+
+    /**
+     * How long a password that was accepted by Accumulo is trusted without asking Accumulo again.
+     */
+    static final long AUTHENTICATION_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * The number of queries each PCJ keeps normalized forms for.
+     */
+    private static final int NORMALIZED_CACHE_SIZE = 100;
+
+    private final Connector conn;
+    private final Authorizations auths;
+    private final String tablePrefix;
+    private final List<String> providedTables;
+
+    // Salted hashes of the passwords that were accepted for the catalog's user.
+    private final byte[] salt = new byte[16];
+    private final Cache<String, Boolean> authenticated = CacheBuilder.newBuilder()
+            .expireAfterWrite(AUTHENTICATION_TTL_MS, TimeUnit.MILLISECONDS)
+            .maximumSize(16)
+            .build();
+
+    // PCJ table name -> the PCJ that was loaded from that table. Guarded by this.
+    private final Map<String, CatalogEntry> entries = new LinkedHashMap<>();
+    // The loaded PCJ -> its entry, so that its normalized forms can be found. Guarded by this.
+    private final Map<ExternalTupleSet, CatalogEntry> entriesByIndex = new IdentityHashMap<>();
+    private Map<String, String> loadedTableIds = null;
+    private List<ExternalTupleSet> indices = Collections.emptyList();
+
+    /**
+     * Constructs an instance of {@link PcjCatalog}.
+     *
+     * @param conf - Configures which Rya instance's PCJs are held by the catalog. (not null)
+     * @throws Exception The catalog could not connect to Accumulo.
+     */
+    private PcjCatalog(final Configuration conf) throws Exception {
+        requireNonNull(conf);
+        tablePrefix = requireNonNull(conf.get(RdfCloudTripleStoreConfiguration.CONF_TBL_PREFIX));
+        conn = requireNonNull(ConfigUtils.getConnector(conf));
+        auths = ConfigUtils.getAuthorizations(conf);
+        providedTables = getProvidedTables(conf);
+
+        // Connecting authenticated the configured user.
+        new SecureRandom().nextBytes(salt);
+        authenticated.put(hashPassword(new AccumuloRdfConfiguration(conf).getPassword()), Boolean.TRUE);
+    }
+
+    /**
+     * Fetches the catalog that holds the PCJs of the Rya instance a configuration points to.
+     *
+     * @param conf - Configures which Rya instance's PCJs are held by the catalog. (not null)
+     * @return The catalog that is shared by every configuration that points to the same
+     *   Rya instance with the same user, authorizations, and PCJ tables.
+     * @throws AccumuloSecurityException The configured credentials are not valid.
+     * @throws Exception The catalog could not connect to Accumulo.
+     */
+    public static PcjCatalog getInstance(final Configuration conf) throws Exception {
+        requireNonNull(conf);
+        final CatalogKey key = new CatalogKey(conf);
+        PcjCatalog catalog = CATALOGS.get(key);
+        if(catalog == null) {
+            final PcjCatalog created = new PcjCatalog(conf);
+            catalog = CATALOGS.putIfAbsent(key, created);
+            if(catalog == null) {
+                return created;
+            }
+        }
+        catalog.authenticate(conf);
+        return catalog;
+    }
+
+    /**
+     * Ensures that the credentials of a configuration are valid for the user the catalog reads as.
+     * The catalog is keyed by the Accumulo instance and user, so only the password has to match
+     * one that was accepted within the last {@link #AUTHENTICATION_TTL_MS}.
+     */
+    private void authenticate(final Configuration conf) throws AccumuloException, AccumuloSecurityException {
+        final AccumuloRdfConfiguration accConf = new AccumuloRdfConfiguration(conf);
+        final String user = accConf.getUsername();
+        final String password = accConf.getPassword();
+        final String passwordHash = hashPassword(password);
+        if(authenticated.getIfPresent(passwordHash) != null) {
+            return;
+        }
+        if(!conn.securityOperations().authenticateUser(user, new PasswordToken(password))) {
+            throw new AccumuloSecurityException(user, SecurityErrorCode.BAD_CREDENTIALS);
+        }
+        authenticated.put(passwordHash, Boolean.TRUE);
+    }
+
+    private String hashPassword(final String password) {
+        return Hashing.sha256().newHasher()
+                .putBytes(salt)
+                .putString(password == null ? "" : password, StandardCharsets.UTF_8)
+                .hash()
+                .toString();
+    }
+
+    /**
+     * Discards every catalog so that the next use of each one loads all of its PCJs again.
+     */
+    public static void invalidateAll() {
+        CATALOGS.clear();
+    }
+
+    /**
+     * Fetches the PCJs that are currently registered with the Rya instance.
+     *
+     * @return An immutable list of the valid PCJs. The {@link ExternalTupleSet}s are
+     *   shared with other queries, so they must be cloned before they are modified.
+     * @throws Exception The PCJs could not be loaded.
+     */
+    public synchronized List<ExternalTupleSet> getIndices() throws Exception {
+        final Map<String, String> tableIds = getPcjTableIds();
+        if(tableIds.equals(loadedTableIds)) {
+            return indices;
+        }
+
+        // The PCJ tables changed, so load any PCJs that have not been seen yet.
+        final Map<String, CatalogEntry> updated = new LinkedHashMap<>();
+        final List<ExternalTupleSet> valid = new ArrayList<>();
+        for(final String table : listPcjTables(tableIds)) {
+            final String tableId = tableIds.get(table);
+            CatalogEntry entry = entries.get(table);
+            if(entry == null || tableId == null || !tableId.equals(entry.tableId)) {
+                entry = load(table, tableId);
+            }
+            updated.put(table, entry);
+            if(entry.valid) {
+                valid.add(entry.index);
+            }
+        }
+
+        if(updated.isEmpty()) {
+            log.info("No Index found");
+        }
+
+        entries.clear();
+        entries.putAll(updated);
+        entriesByIndex.clear();
+        for(final CatalogEntry entry : updated.values()) {
+            entriesByIndex.put(entry.index, entry);
+        }
+        loadedTableIds = tableIds;
+        indices = Collections.unmodifiableList(valid);
+        return indices;
+    }
+
+    /**
+     * Normalizes a PCJ against a query. The normalized forms of the PCJs that were loaded
+     * by this catalog are cached, so they are only computed once for each query.
+     *
+     * @param query - The query the PCJ is matched against. (not null)
+     * @param index - The PCJ that is normalized. (not null)
+     * @return The forms of the PCJ whose variables are named after the query's variables.
+     *   They are copies, so they may be modified.
+     * @throws Exception The PCJ could not be normalized.
+     */
+    public List<TupleExpr> getNormalizedIndex(final TupleExpr query, final ExternalTupleSet index) throws Exception {
+        requireNonNull(query);
+        requireNonNull(index);
+
+        final CatalogEntry entry;
+        synchronized(this) {
+            entry = entriesByIndex.get(index);
+        }
+        if(entry == null) {
+            return QueryVariableNormalizer.getNormalizedIndex(query, index.getTupleExpr());
+        }
+
+        final List<TupleExpr> cached = entry.normalized.getIfPresent(query);
+        if(cached != null) {
+            return copy(cached);
+        }
+
+        // The query is copied because it is modified as it is optimized.
+        final TupleExpr key = query.clone();
+        final List<TupleExpr> normalized = QueryVariableNormalizer.getNormalizedIndex(query, index.getTupleExpr());
+        entry.normalized.put(key, copy(normalized));
+        return normalized;
+    }
+
+    private static List<TupleExpr> copy(final List<TupleExpr> tupleExprs) {
+        final List<TupleExpr> copies = new ArrayList<>(tupleExprs.size());
+        for(final TupleExpr tupleExpr : tupleExprs) {
+            copies.add(tupleExpr.clone());
+        }
+        return copies;
+    }
+
+    private CatalogEntry load(final String table, final String tableId) throws Exception {
+        log.debug("Loading the PCJ stored in table " + table);
+        final String sparql = new PcjTables().getPcjMetadata(conn, table).getSparql();
+        final ExternalTupleSet index = new AccumuloIndexSet(sparql, conn, auths, table);
+        return new CatalogEntry(tableId, index, PCJOptimizerUtilities.isPCJValid(index));
+    }
+
+    /**
+     * @return PCJ table name -> Accumulo table ID of every table that may hold a PCJ.
+     */
+    private Map<String, String> getPcjTableIds() {
+        final Map<String, String> tableIds = new HashMap<>();
+        for(final Entry<String, String> table : conn.tableOperations().tableIdMap().entrySet()) {
+            final String name = table.getKey();
+            final boolean isPcjTable = providedTables.isEmpty() ?
+                    name.startsWith(tablePrefix + "INDEX") : providedTables.contains(name);
+            if(isPcjTable) {
+                tableIds.put(name, table.getValue());
+            }
+        }
+        return tableIds;
+    }
+
+    /**
+     * @param tableIds - The tables that may hold a PCJ. (not null)
+     * @return The names of the tables whose PCJs may be used to answer queries.
+     *   This is either the tables specified in the configuration, the PCJs that are
+     *   registered with Rya Details, or all tables that look like a PCJ table.
+     */
+    private List<String> listPcjTables(final Map<String, String> tableIds) throws Exception {
+        if(!providedTables.isEmpty()) {
+            return providedTables;
+        }
+
+        if(hasRyaDetails(tablePrefix, conn)) {
+            // If this is a newer install of Rya, and it has PCJ Details, then use those.
+            final PcjTableNameFactory pcjFactory = new PcjTableNameFactory();
+            final List<String> tables = new ArrayList<>();
+            try(final PrecomputedJoinStorage storage = new AccumuloPcjStorage(conn, tablePrefix)) {
+                for(final String id : storage.listPcjs()) {
+                    // Skip PCJs whose tables have not been created yet.
+                    final String table = pcjFactory.makeTableName(tablePrefix, id);
+                    if(tableIds.containsKey(table)) {
+                        tables.add(table);
+                    }
+                }
+            }
+            return tables;
+        }
+
+        // Otherwise use every table that looks like a PCJ table.
+        final List<String> tables = new ArrayList<>(tableIds.keySet());
+        Collections.sort(tables);
+        return tables;
+    }
+
+    private static List<String> getProvidedTables(final Configuration conf) {
+        if(conf instanceof RdfCloudTripleStoreConfiguration) {
+            final List<String> tables = ((RdfCloudTripleStoreConfiguration) conf).getPcjTables();
+            if(tables != null) {
+                return Collections.unmodifiableList(new ArrayList<>(tables));
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private static boolean hasRyaDetails(final String ryaInstanceName, final Connector conn) {
+        final RyaDetailsRepository detailsRepo = new AccumuloRyaInstanceDetailsRepository(conn, ryaInstanceName);
+        try {
+            detailsRepo.getRyaInstanceDetails();
+            return true;
+        } catch (final RyaDetailsRepositoryException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A PCJ that has been loaded into the catalog.
+     */
+    private static final class CatalogEntry {
+        private final String tableId;
+        private final ExternalTupleSet index;
+        private final boolean valid;
+        // Query -> the forms of the PCJ that were normalized against it.
+        private final Cache<TupleExpr, List<TupleExpr>> normalized = CacheBuilder.newBuilder()
+                .maximumSize(NORMALIZED_CACHE_SIZE)
+                .build();
+
+        private CatalogEntry(final String tableId, final ExternalTupleSet index, final boolean valid) {
+            this.tableId = tableId;
+            this.index = index;
+            this.valid = valid;
+        }
+    }
+
+    /**
+     * Identifies the configuration values that determine which PCJs a catalog holds
+     * and how they are read. It does not include the password, so that it may be held
+     * for as long as the process runs.
+     */
+    private static final class CatalogKey {
+        private final List<String> values;
+
+        private CatalogKey(final Configuration conf) {
+            values = Arrays.asList(
+                    String.valueOf(ConfigUtils.useMockInstance(conf)),
+                    conf.get(ConfigUtils.CLOUDBASE_INSTANCE),
+                    conf.get(ConfigUtils.CLOUDBASE_ZOOKEEPERS),
+                    conf.get(ConfigUtils.CLOUDBASE_USER),
+                    conf.get(ConfigUtils.CLOUDBASE_AUTHS, ""),
+                    conf.get(RdfCloudTripleStoreConfiguration.CONF_TBL_PREFIX),
+                    String.valueOf(getProvidedTables(conf)));
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof CatalogKey && values.equals(((CatalogKey) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(values);
+        }
+    }
+}
@@ -18,6 +18,8 @@
  */
 package org.apache.rya.indexing.smarturi.duplication;
 
+import java.util.Optional;
+
 import org.apache.rya.indexing.smarturi.SmartUriException;
 import org.eclipse.rdf4j.model.IRI;
 
@@ -75,4 +77,28 @@ public interface ApproxEqualsDetector<T> {
         final T object2 = convertStringToObject(rhs);
         return areObjectsApproxEquals(object1, object2);
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the {@link BlockingKey} a value is indexed by.
+     * @param value the string representation of the value.
+     * @return the {@link BlockingKey}, or {@link Optional#empty()} if values of
+     * this type are not indexed.
+     * @throws SmartUriException
+     */
+    public default Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+        return Optional.empty();
+    }
+
+    /**
+     * Creates the {@link BlockingRange} of the keys whose values may be
+     * approximately equal to a value when it is the left hand side of the
+     * comparison.
+     * @param lhs the left hand side string object representation.
+     * @return the {@link BlockingRange}, or {@link Optional#empty()} if any
+     * value may be approximately equal.
+     * @throws SmartUriException
+     */
+    public default Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+        return Optional.empty();
+    }
+}
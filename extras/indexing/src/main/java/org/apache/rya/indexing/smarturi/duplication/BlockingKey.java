@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.smarturi.duplication;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The form of a property value that is indexed so the values that may be
+ * nearly identical to another value can be looked up without comparing every
+ * value. Values that can be ordered, like numbers and dates, are indexed as a
+ * number. Textual values are indexed as a case normalized term, along with the
+ * term's length.
+ * <p>
+ * A key only depends on the value it was made from, never on the configured
+ * tolerances, so keys that have been stored stay valid when the tolerances
+ * change. The tolerances are applied by the {@link BlockingRange} that is
+ * matched against the keys.
+ */
+public class BlockingKey {
+    private final Double number;
+    private final String term;
+
+    private BlockingKey(final Double number, final String term) {
+        this.number = number;
+        this.term = term;
+    }
+
+    /**
+     * @param number the numeric form of the value.
+     * @return a {@link BlockingKey} for a value that can be ordered.
+     */
+    public static BlockingKey ofNumber(final double number) {
+        return new BlockingKey(number, null);
+    }
+
+    /**
+     * @param term the textual value. (not {@code null})
+     * @return a {@link BlockingKey} for a textual value.
+     */
+    public static BlockingKey ofTerm(final String term) {
+        return new BlockingKey(null, normalize(requireNonNull(term)));
+    }
+
+    /**
+     * @return the numeric form of the value, if the value can be ordered.
+     */
+    public Optional<Double> getNumber() {
+        return Optional.ofNullable(number);
+    }
+
+    /**
+     * @return the case normalized term, if the value is textual.
+     */
+    public Optional<String> getTerm() {
+        return Optional.ofNullable(term);
+    }
+
+    /**
+     * Normalizes the case of a term the same way
+     * {@link String#equalsIgnoreCase(String)} compares characters, so two
+     * terms are equal ignoring case exactly when their normalized forms are
+     * equal. Normalizing does not change the length of the term.
+     * @param term the term to normalize. (not {@code null})
+     * @return the normalized term.
+     */
+    public static String normalize(final String term) {
+        final char[] chars = term.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof BlockingKey) {
+            final BlockingKey other = (BlockingKey) o;
+            return Objects.equals(number, other.number) && Objects.equals(term, other.term);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(number, term);
+    }
+
+    @Override
+    public String toString() {
+        return number != null ? number.toString() : term;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.smarturi.duplication;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Describes every {@link BlockingKey} whose value may be nearly identical to
+ * some value, based on the tolerance of the value's type. A range never
+ * leaves out a key whose value is nearly identical, but it may include keys
+ * whose values are not, so the values it matches still have to be compared.
+ * <p>
+ * A numeric range matches the numbers between its bounds. A textual range
+ * matches its terms and any term whose length is between its length bounds.
+ */
+public class BlockingRange {
+    /**
+     * How far the numeric bounds are widened, relative to their size, so that
+     * rounding values to doubles never excludes a value that is in range.
+     */
+    private static final double WIDENING = 1e-9;
+
+    private final boolean numeric;
+    private final double min;
+    private final double max;
+    private final ImmutableSet<String> terms;
+    private final int minLength;
+    private final int maxLength;
+
+    private BlockingRange(final boolean numeric, final double min, final double max,
+            final ImmutableSet<String> terms, final int minLength, final int maxLength) {
+        this.numeric = numeric;
+        this.min = min;
+        this.max = max;
+        this.terms = terms;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @param min the smallest number that may be nearly identical.
+     * @param max the largest number that may be nearly identical.
+     * @return a range of numbers.
+     */
+    public static BlockingRange ofNumbers(final double min, final double max) {
+        return new BlockingRange(true, min - (Math.abs(min) + 1) * WIDENING, max + (Math.abs(max) + 1) * WIDENING,
+                ImmutableSet.of(), 0, -1);
+    }
+
+    /**
+     * @param terms the terms that may be nearly identical regardless of their
+     * length. (not {@code null})
+     * @param minLength the shortest length of a term that may be nearly identical.
+     * @param maxLength the longest length of a term that may be nearly
+     * identical. A {@code maxLength} smaller than the {@code minLength} means
+     * only the {@code terms} match.
+     * @return a range of terms.
+     */
+    public static BlockingRange ofTerms(final Collection<String> terms, final int minLength, final int maxLength) {
+        requireNonNull(terms);
+        final Set<String> normalized = new HashSet<>();
+        for (final String term : terms) {
+            normalized.add(BlockingKey.normalize(term));
+        }
+        return new BlockingRange(false, 0, -1, ImmutableSet.copyOf(normalized), Math.max(0, minLength), maxLength);
+    }
+
+    /**
+     * @return {@code true} if this is a range of numbers. {@code false} if
+     * this is a range of terms.
+     */
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * @return the lower bound of a range of numbers.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the upper bound of a range of numbers.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return the normalized terms of a range of terms.
+     */
+    public ImmutableSet<String> getTerms() {
+        return terms;
+    }
+
+    /**
+     * @return the shortest length matched by a range of terms.
+     */
+    public int getMinLength() {
+        return minLength;
+    }
+
+    /**
+     * @return the longest length matched by a range of terms.
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @return {@code true} if a range of terms matches terms by their length.
+     */
+    public boolean hasLengthRange() {
+        return minLength <= maxLength;
+    }
+
+    /**
+     * @param key the {@link BlockingKey} to check. (not {@code null})
+     * @return {@code true} if the key's value may be nearly identical.
+     */
+    public boolean matches(final BlockingKey key) {
+        requireNonNull(key);
+        if (numeric) {
+            return key.getNumber().map(number -> number >= min && number <= max).orElse(false);
+        }
+        return key.getTerm().map(term -> terms.contains(term) ||
+                (term.length() >= minLength && term.length() <= maxLength)).orElse(false);
+    }
+
+    @Override
+    public String toString() {
+        return numeric ? "[" + min + ", " + max + "]" : terms + " or length [" + minLength + ", " + maxLength + "]";
+    }
+}
@@ -22,6 +22,9 @@ import static java.util.Objects.requireNonNull;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -200,11 +203,14 @@ public class DuplicateDataDetector {
         // Use a Sorted Set in reverse order to hold the indices
         final Set<Integer> indicesToRemove = new TreeSet<>((a, b) -> Integer.compare(b, a));
         if (entities != null && entities.size() > 1) {
-            // Compare all entities to each other while avoiding making the
-            // same comparisons again and not comparing an entity to itself.
+            // Compare each entity to the candidates that come after it while
+            // avoiding making the same comparisons again and not comparing an
+            // entity to itself.
+            final EntityBlockingIndex blockingIndex = new EntityBlockingIndex(this, entities);
             for (int i = 0; i < entities.size() - 1; i++) {
                 final Entity entity1 = entities.get(i);
-                for (int j = entities.size() - 1; j > i; j--) {
+                final BitSet candidates = blockingIndex.getCandidates(entity1);
+                for (int j = candidates.nextSetBit(i + 1); j >= 0; j = candidates.nextSetBit(j + 1)) {
                     final Entity entity2 = entities.get(j);
                     final boolean areDuplicates = compareEntities(entity1, entity2);
                     if (areDuplicates) {
@@ -304,10 +310,137 @@ public class DuplicateDataDetector {
         return classMap.get(clazz);
     }
 
+    /**
+     * Gets the {@link BlockingKey} that a property value is indexed by.
+     * @param value the property value. (not {@code null})
+     * @return the {@link BlockingKey}, or {@link Optional#empty()} if the
+     * value's type has no detector or the value can't be parsed.
+     */
+    public Optional<BlockingKey> getBlockingKey(final RyaType value) {
+        requireNonNull(value);
+        final ApproxEqualsDetector<?> approxEqualsDetector = uriMap.get(value.getDataType());
+        if (approxEqualsDetector == null) {
+            return Optional.empty();
+        }
+        try {
+            return approxEqualsDetector.getBlockingKey(value.getData());
+        } catch (final SmartUriException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the {@link BlockingRange} of keys that the values which are nearly
+     * identical to a property value are indexed by, when the property value
+     * is the left hand side of the comparison. Values of other types are not
+     * covered by the range.
+     * @param value the property value. (not {@code null})
+     * @return the {@link BlockingRange}, or {@link Optional#empty()} if any
+     * value may be nearly identical.
+     */
+    public Optional<BlockingRange> getBlockingRange(final RyaType value) {
+        requireNonNull(value);
+        final ApproxEqualsDetector<?> approxEqualsDetector = uriMap.get(value.getDataType());
+        if (approxEqualsDetector == null) {
+            return Optional.empty();
+        }
+        try {
+            return approxEqualsDetector.getBlockingRange(value.getData());
+        } catch (final SmartUriException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the path that identifies a property of an entity's type in a
+     * blocking index.
+     * @param typeId the type's ID. (not {@code null})
+     * @param propertyName the property's name. (not {@code null})
+     * @return the property path.
+     */
+    public static String getPropertyPath(final RyaURI typeId, final RyaURI propertyName) {
+        requireNonNull(typeId);
+        requireNonNull(propertyName);
+        return typeId.getData() + " " + propertyName.getData();
+    }
+
     private static boolean isOnlyOneNull(final Object lhs, final Object rhs) {
         return (lhs == null && rhs != null) || (lhs != null && rhs == null);
     }
 
+    /**
+     * Finds the range of numbers that may be approximately equal to a number
+     * by the same rules the numeric detectors compare with.
+     * @param lhs the left hand side number.
+     * @param tolerance the {@link Tolerance} of the number's type.
+     * @return the {@link BlockingRange}, or {@link Optional#empty()} if any
+     * number may be approximately equal.
+     */
+    private static Optional<BlockingRange> getNumericBlockingRange(final double lhs, final Tolerance tolerance) {
+        if (Double.isNaN(lhs) || Double.isInfinite(lhs)) {
+            return Optional.empty();
+        }
+        final double value = tolerance.getValue();
+        if (value == 0) {
+            return Optional.of(BlockingRange.ofNumbers(lhs, lhs));
+        }
+        switch (tolerance.getToleranceType()) {
+            case PERCENTAGE:
+                if (lhs == 0) {
+                    return Optional.of(BlockingRange.ofNumbers(lhs, lhs));
+                }
+                // The percentage is relative to the left hand side, so every
+                // number is within it when the left hand side is negative.
+                if (value >= 1 || lhs < 0) {
+                    return Optional.empty();
+                }
+                final double percentage = Math.max(0, value);
+                return Optional.of(BlockingRange.ofNumbers(lhs - lhs * percentage, lhs + lhs * percentage));
+            case DIFFERENCE:
+            default:
+                final double difference = Math.max(0, value);
+                return Optional.of(BlockingRange.ofNumbers(lhs - difference, lhs + difference));
+        }
+    }
+
+    /**
+     * Finds the range of terms that may be approximately equal to a term by
+     * the same rules the textual detectors compare with. Terms that are
+     * within the Levenshtein distance allowed by the tolerance can only
+     * differ in length by that distance.
+     * @param lhs the left hand side term.
+     * @param terms the terms that are equivalent to the left hand side term.
+     * @param tolerance the {@link Tolerance} of the term's type.
+     * @return the {@link BlockingRange}, or {@link Optional#empty()} if any
+     * term may be approximately equal.
+     */
+    private static Optional<BlockingRange> getTextualBlockingRange(final String lhs, final Collection<String> terms, final Tolerance tolerance) {
+        final double value = tolerance.getValue();
+        if (value == 0) {
+            return Optional.of(BlockingRange.ofTerms(terms, 1, 0));
+        }
+        final int length = lhs.length();
+        final double distance;
+        switch (tolerance.getToleranceType()) {
+            case PERCENTAGE:
+                if (length == 0) {
+                    return Optional.of(BlockingRange.ofTerms(terms, 0, 0));
+                }
+                if (value >= 1) {
+                    return Optional.empty();
+                }
+                distance = Math.ceil(value * length);
+                break;
+            case DIFFERENCE:
+            default:
+                distance = Math.ceil(value);
+                break;
+        }
+        final int minLength = (int) Math.max(0, length - distance);
+        final int maxLength = (int) Math.min(Integer.MAX_VALUE, length + distance);
+        return Optional.of(BlockingRange.ofTerms(terms, minLength, maxLength));
+    }
+
     /**
      * Class to detect if two booleans are considered approximately equal to
      * each other.
@@ -331,6 +464,20 @@ public class DuplicateDataDetector {
             return tolerance.getValue() != 0 || Objects.equals(lhs, rhs);
         }
 
+        @Override
+        public Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+            return Optional.of(BlockingKey.ofNumber(convertStringToObject(value) ? 1 : 0));
+        }
+
+        @Override
+        public Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+            if (tolerance.getValue() != 0) {
+                return Optional.empty();
+            }
+            final double number = convertStringToObject(lhs) ? 1 : 0;
+            return Optional.of(BlockingRange.ofNumbers(number, number));
+        }
+
         @Override
         public Tolerance getDefaultTolerance() {
             return DEFAULT_TOLERANCE;
@@ -396,6 +543,16 @@ public class DuplicateDataDetector {
             }
         }
 
+        @Override
+        public Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+            return Optional.of(BlockingKey.ofNumber(convertStringToObject(value).doubleValue()));
+        }
+
+        @Override
+        public Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+            return getNumericBlockingRange(convertStringToObject(lhs).doubleValue(), tolerance);
+        }
+
         @Override
         public Tolerance getDefaultTolerance() {
             return DEFAULT_TOLERANCE;
@@ -463,6 +620,16 @@ public class DuplicateDataDetector {
             }
         }
 
+        @Override
+        public Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+            return Optional.of(BlockingKey.ofNumber(convertStringToObject(value).getTime()));
+        }
+
+        @Override
+        public Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+            return getNumericBlockingRange(convertStringToObject(lhs).getTime(), tolerance);
+        }
+
         @Override
         public Tolerance getDefaultTolerance() {
             return DEFAULT_TOLERANCE;
@@ -537,6 +704,16 @@ public class DuplicateDataDetector {
             }
         }
 
+        @Override
+        public Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+            return Optional.of(BlockingKey.ofNumber(convertStringToObject(value).getMillis()));
+        }
+
+        @Override
+        public Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+            return getNumericBlockingRange(convertStringToObject(lhs).getMillis(), tolerance);
+        }
+
         @Override
         public Tolerance getDefaultTolerance() {
             return DEFAULT_TOLERANCE;
@@ -622,6 +799,16 @@ public class DuplicateDataDetector {
             }
         }
 
+        @Override
+        public Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+            return Optional.of(BlockingKey.ofNumber(convertStringToObject(value)));
+        }
+
+        @Override
+        public Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+            return getNumericBlockingRange(convertStringToObject(lhs), tolerance);
+        }
+
         @Override
         public Tolerance getDefaultTolerance() {
             return DEFAULT_TOLERANCE;
@@ -702,6 +889,16 @@ public class DuplicateDataDetector {
             }
         }
 
+        @Override
+        public Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+            return Optional.of(BlockingKey.ofNumber(convertStringToObject(value).doubleValue()));
+        }
+
+        @Override
+        public Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+            return getNumericBlockingRange(convertStringToObject(lhs).doubleValue(), tolerance);
+        }
+
         @Override
         public Tolerance getDefaultTolerance() {
             return DEFAULT_TOLERANCE;
@@ -767,6 +964,16 @@ public class DuplicateDataDetector {
             }
         }
 
+        @Override
+        public Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+            return Optional.of(BlockingKey.ofNumber(convertStringToObject(value).doubleValue()));
+        }
+
+        @Override
+        public Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+            return getNumericBlockingRange(convertStringToObject(lhs).doubleValue(), tolerance);
+        }
+
         @Override
         public Tolerance getDefaultTolerance() {
             return DEFAULT_TOLERANCE;
@@ -832,6 +1039,16 @@ public class DuplicateDataDetector {
             }
         }
 
+        @Override
+        public Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+            return Optional.of(BlockingKey.ofNumber(convertStringToObject(value).doubleValue()));
+        }
+
+        @Override
+        public Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+            return getNumericBlockingRange(convertStringToObject(lhs).doubleValue(), tolerance);
+        }
+
         @Override
         public Tolerance getDefaultTolerance() {
             return DEFAULT_TOLERANCE;
@@ -897,6 +1114,16 @@ public class DuplicateDataDetector {
             }
         }
 
+        @Override
+        public Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+            return Optional.of(BlockingKey.ofNumber(convertStringToObject(value).doubleValue()));
+        }
+
+        @Override
+        public Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+            return getNumericBlockingRange(convertStringToObject(lhs).doubleValue(), tolerance);
+        }
+
         @Override
         public Tolerance getDefaultTolerance() {
             return DEFAULT_TOLERANCE;
@@ -972,6 +1199,22 @@ public class DuplicateDataDetector {
             }
         }
 
+        @Override
+        public Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+            return Optional.of(BlockingKey.ofTerm(value));
+        }
+
+        @Override
+        public Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+            final List<String> terms = new ArrayList<>();
+            terms.add(lhs);
+            final List<String> lhsTermEquivalents = equivalentTermsMap.get(lhs);
+            if (tolerance.getValue() != 0 && lhsTermEquivalents != null) {
+                terms.addAll(lhsTermEquivalents);
+            }
+            return getTextualBlockingRange(lhs, terms, tolerance);
+        }
+
         @Override
         public Tolerance getDefaultTolerance() {
             return DEFAULT_TOLERANCE;
@@ -1043,6 +1286,17 @@ public class DuplicateDataDetector {
             }
         }
 
+        @Override
+        public Optional<BlockingKey> getBlockingKey(final String value) throws SmartUriException {
+            return Optional.of(BlockingKey.ofTerm(convertStringToObject(value).stringValue()));
+        }
+
+        @Override
+        public Optional<BlockingRange> getBlockingRange(final String lhs) throws SmartUriException {
+            final String uriString = convertStringToObject(lhs).stringValue();
+            return getTextualBlockingRange(uriString, Collections.singletonList(uriString), tolerance);
+        }
+
         @Override
         public Tolerance getDefaultTolerance() {
             return DEFAULT_TOLERANCE;
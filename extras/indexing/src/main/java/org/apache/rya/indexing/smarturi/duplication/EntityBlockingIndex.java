@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.smarturi.duplication;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.indexing.entity.model.Entity;
+import org.apache.rya.indexing.entity.model.Property;
+import org.eclipse.rdf4j.model.IRI;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * An in memory index of the property values of a list of {@link Entity}s,
+ * keyed by their {@link BlockingKey}s. It finds the entities that may be
+ * nearly identical to an entity without comparing it to all of them.
+ * <p>
+ * An entity can only be nearly identical to entities that have every one of
+ * its properties with a value that is within the tolerance, so the candidates
+ * are the entities whose keys are in the {@link BlockingRange} of every one
+ * of its properties. Values of a different type than the entity's value are
+ * always candidates, since the detector decides how they compare.
+ */
+public class EntityBlockingIndex {
+    private final DuplicateDataDetector duplicateDataDetector;
+    private final Map<String, PropertyIndex> propertyIndices = new HashMap<>();
+    private final int size;
+
+    /**
+     * Creates a new instance of {@link EntityBlockingIndex}.
+     * @param duplicateDataDetector the {@link DuplicateDataDetector} whose
+     * tolerances are used. (not {@code null})
+     * @param entities the {@link Entity}s to index. They are identified by
+     * their position in the list. (not {@code null})
+     */
+    public EntityBlockingIndex(final DuplicateDataDetector duplicateDataDetector, final List<Entity> entities) {
+        this.duplicateDataDetector = requireNonNull(duplicateDataDetector);
+        requireNonNull(entities);
+        size = entities.size();
+        for (int i = 0; i < size; i++) {
+            for (final Entry<RyaURI, ImmutableMap<RyaURI, Property>> entry : entities.get(i).getProperties().entrySet()) {
+                for (final Property property : entry.getValue().values()) {
+                    final String path = DuplicateDataDetector.getPropertyPath(entry.getKey(), property.getName());
+                    propertyIndices.computeIfAbsent(path, key -> new PropertyIndex()).add(i, property.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the entities that may be nearly identical to an entity when it is
+     * the first entity of {@link DuplicateDataDetector#compareEntities(Entity, Entity)}.
+     * @param entity the {@link Entity} to find candidates for. (not {@code null})
+     * @return the positions of the candidate entities.
+     */
+    public BitSet getCandidates(final Entity entity) {
+        requireNonNull(entity);
+        final BitSet candidates = new BitSet(size);
+        candidates.set(0, size);
+        for (final Entry<RyaURI, ImmutableMap<RyaURI, Property>> entry : entity.getProperties().entrySet()) {
+            for (final Property property : entry.getValue().values()) {
+                final PropertyIndex propertyIndex = propertyIndices.get(DuplicateDataDetector.getPropertyPath(entry.getKey(), property.getName()));
+                if (propertyIndex == null) {
+                    return new BitSet();
+                }
+                candidates.and(propertyIndex.getCandidates(property.getValue()));
+                if (candidates.isEmpty()) {
+                    return candidates;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * The values of one property of the indexed entities.
+     */
+    private class PropertyIndex {
+        private final BitSet all = new BitSet();
+        private final Map<IRI, TypeIndex> typeIndices = new HashMap<>();
+
+        private void add(final int position, final RyaType value) {
+            all.set(position);
+            typeIndices.computeIfAbsent(value.getDataType(), key -> new TypeIndex())
+                .add(position, duplicateDataDetector.getBlockingKey(value));
+        }
+
+        private BitSet getCandidates(final RyaType value) {
+            final Optional<BlockingRange> range = duplicateDataDetector.getBlockingRange(value);
+            if (!range.isPresent()) {
+                return all;
+            }
+            final BitSet candidates = (BitSet) all.clone();
+            final TypeIndex typeIndex = typeIndices.get(value.getDataType());
+            if (typeIndex != null) {
+                candidates.andNot(typeIndex.all);
+                candidates.or(typeIndex.getCandidates(range.get()));
+            }
+            return candidates;
+        }
+    }
+
+    /**
+     * The values of one property of the indexed entities that have the same type.
+     */
+    private static class TypeIndex {
+        private final BitSet all = new BitSet();
+        private final BitSet unkeyed = new BitSet();
+        private final NavigableMap<Double, BitSet> numbers = new TreeMap<>();
+        private final Map<String, BitSet> terms = new HashMap<>();
+        private final NavigableMap<Integer, BitSet> lengths = new TreeMap<>();
+
+        private void add(final int position, final Optional<BlockingKey> key) {
+            all.set(position);
+            if (!key.isPresent()) {
+                unkeyed.set(position);
+            } else if (key.get().getNumber().isPresent()) {
+                numbers.computeIfAbsent(key.get().getNumber().get(), number -> new BitSet()).set(position);
+            } else {
+                final String term = key.get().getTerm().get();
+                terms.computeIfAbsent(term, t -> new BitSet()).set(position);
+                lengths.computeIfAbsent(term.length(), length -> new BitSet()).set(position);
+            }
+        }
+
+        private BitSet getCandidates(final BlockingRange range) {
+            final BitSet candidates = (BitSet) unkeyed.clone();
+            if (range.isNumeric()) {
+                for (final BitSet positions : numbers.subMap(range.getMin(), true, range.getMax(), true).values()) {
+                    candidates.or(positions);
+                }
+            } else {
+                for (final String term : range.getTerms()) {
+                    final BitSet positions = terms.get(term);
+                    if (positions != null) {
+                        candidates.or(positions);
+                    }
+                }
+                if (range.hasLengthRange()) {
+                    for (final BitSet positions : lengths.subMap(range.getMinLength(), true, range.getMaxLength(), true).values()) {
+                        candidates.or(positions);
+                    }
+                }
+            }
+            return candidates;
+        }
+    }
+}
@@ -39,6 +39,7 @@ import org.apache.rya.api.persist.RyaDAOException;
 import org.apache.rya.indexing.accumulo.ConfigUtils;
 import org.apache.rya.mongodb.MongoConnectorFactory;
 import org.apache.rya.mongodb.MongoDBRdfConfiguration;
+import org.apache.rya.mongodb.MongoDBRdfEvalStatsDAO;
 import org.apache.rya.mongodb.MongoDBRyaDAO;
 import org.apache.rya.mongodb.instance.MongoRyaInstanceDetailsRepository;
 import org.apache.rya.rdftriplestore.RdfCloudTripleStore;
@@ -89,6 +90,9 @@ public class RyaSailFactory {
                LOG.info("Instance does not have a rya details collection, skipping.");
            }
             dao = getMongoDAO((MongoDBRdfConfiguration)rdfConfig, client);
+            if (mongoConfig.isMaintainEvalStats()) {
+                store.setRdfEvalStatsDAO(new MongoDBRdfEvalStatsDAO(client));
+            }
         } else {
             rdfConfig = new AccumuloRdfConfiguration(config);
             user = rdfConfig.get(ConfigUtils.CLOUDBASE_USER);
@@ -44,13 +44,20 @@ import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Optional;
 
 /**
  * Integration tests the methods of {@link AccumuloLoadStatementsFile}.
  */
 public class AccumuloLoadStatementsFileIT extends AccumuloITBase {
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     @Test(expected = InstanceDoesNotExistException.class)
     public void instanceDoesNotExist() throws Exception {
         final AccumuloConnectionDetails connectionDetails = new AccumuloConnectionDetails(
@@ -90,6 +97,40 @@ public class AccumuloLoadStatementsFileIT extends AccumuloITBase {
         ryaClient.getLoadStatementsFile().loadStatements(getRyaInstanceName(), Paths.get("src/test/resources/example.ttl"), RDFFormat.TURTLE);
 
         // Verify that the statements were loaded.
+        assertExampleStatementsLoaded();
+    }
+
+    @Test
+    public void bulkLoadTurtleFile() throws Exception {
+        // Install an instance of Rya that does not maintain any secondary indexes.
+        final InstallConfiguration installConfig = InstallConfiguration.builder()
+                .setEnableTableHashPrefix(false)
+                .setEnableEntityCentricIndex(false)
+                .setEnableFreeTextIndex(false)
+                .setEnableTemporalIndex(false)
+                .setEnablePcjIndex(false)
+                .setEnableGeoIndex(false)
+                .build();
+
+        final AccumuloConnectionDetails connectionDetails = new AccumuloConnectionDetails(
+                getUsername(),
+                getPassword().toCharArray(),
+                getInstanceName(),
+                getZookeepers());
+
+        final RyaClient ryaClient = AccumuloRyaClientFactory.build(connectionDetails, getConnector());
+        ryaClient.getInstall().install(getRyaInstanceName(), installConfig);
+
+        // Bulk load the test statement file.
+        final org.apache.hadoop.fs.Path workDir = new org.apache.hadoop.fs.Path(tempFolder.newFolder().getAbsolutePath());
+        final AccumuloLoadStatementsFile loadStatementsFile = new AccumuloLoadStatementsFile(connectionDetails, getConnector(), Optional.of(workDir));
+        loadStatementsFile.loadStatements(getRyaInstanceName(), Paths.get("src/test/resources/example.ttl"), RDFFormat.TURTLE);
+
+        // Verify that the statements were loaded.
+        assertExampleStatementsLoaded();
+    }
+
+    private void assertExampleStatementsLoaded() throws Exception {
         final ValueFactory vf = SimpleValueFactory.getInstance();
 
         final List<Statement> expected = new ArrayList<>();
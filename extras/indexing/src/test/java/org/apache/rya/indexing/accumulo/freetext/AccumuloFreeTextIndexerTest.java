@@ -128,6 +128,58 @@ public class AccumuloFreeTextIndexerTest {
         }
     }
 
+    @Test
+    public void testSearch_parallelPartitions() throws Exception {
+        conf.setInt(ConfigUtils.FREETEXT_DOC_NUM_PARTITIONS, 5);
+        conf.setInt(ConfigUtils.FREE_TEXT_QUERY_NUM_THREADS, 4);
+
+        try (AccumuloFreeTextIndexer f = new AccumuloFreeTextIndexer()) {
+            f.setConf(conf);
+            f.setMultiTableBatchWriter(ConfigUtils.createMultitableBatchWriter(conf));
+            f.init();
+
+            ValueFactory vf = SimpleValueFactory.getInstance();
+
+            // Enough statements that they are spread across the partitions.
+            Set<Statement> hats = new HashSet<>();
+            for (int i = 0; i < 20; i++) {
+                Statement statement = vf.createStatement(vf.createIRI("foo:subj" + i), RDFS.LABEL, vf.createLiteral("hat number " + i));
+                f.storeStatement(RdfToRyaConversions.convertStatement(statement));
+                hats.add(statement);
+            }
+            f.flush();
+
+            Assert.assertEquals(hats, getSet(f.queryText("hat", EMPTY_CONSTRAINTS)));
+            Assert.assertEquals(Sets.newHashSet(), getSet(f.queryText("bat", EMPTY_CONSTRAINTS)));
+
+            // Constraints are still applied to every partition.
+            StatementConstraints subjectConstraint = new StatementConstraints().setSubject(vf.createIRI("foo:subj7"));
+            Assert.assertEquals(1, getSet(f.queryText("hat", subjectConstraint)).size());
+        }
+    }
+
+    @Test
+    public void testSearch_resultLimit() throws Exception {
+        conf.setInt(ConfigUtils.FREETEXT_DOC_NUM_PARTITIONS, 5);
+        conf.setInt(ConfigUtils.FREE_TEXT_QUERY_NUM_THREADS, 4);
+        conf.setLong(ConfigUtils.FREE_TEXT_QUERY_RESULT_LIMIT, 3);
+
+        try (AccumuloFreeTextIndexer f = new AccumuloFreeTextIndexer()) {
+            f.setConf(conf);
+            f.setMultiTableBatchWriter(ConfigUtils.createMultitableBatchWriter(conf));
+            f.init();
+
+            ValueFactory vf = SimpleValueFactory.getInstance();
+            for (int i = 0; i < 20; i++) {
+                Statement statement = vf.createStatement(vf.createIRI("foo:subj" + i), RDFS.LABEL, vf.createLiteral("hat number " + i));
+                f.storeStatement(RdfToRyaConversions.convertStatement(statement));
+            }
+            f.flush();
+
+            Assert.assertEquals(3, getSet(f.queryText("hat", EMPTY_CONSTRAINTS)).size());
+        }
+    }
+
     @Test
     public void testDelete() throws Exception {
         try (AccumuloFreeTextIndexer f = new AccumuloFreeTextIndexer()) {
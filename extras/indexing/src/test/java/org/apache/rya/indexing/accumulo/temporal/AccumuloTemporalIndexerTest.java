@@ -46,6 +46,7 @@ import org.apache.accumulo.core.client.TableExistsException;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.admin.TableOperations;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.commons.codec.binary.StringUtils;
@@ -75,6 +76,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 /**
  * JUnit tests for TemporalIndexer and it's implementation AccumuloTemporalIndexer
@@ -871,6 +873,154 @@ public final class AccumuloTemporalIndexerTest {
 
     }
 
+    /**
+     * Same as {@link #testQueryIntervalBefore()}, but the intervals are read from small buckets.
+     */
+    @Test
+    public void testQueryIntervalBeforeWithBuckets() throws IOException, QueryEvaluationException {
+        useIntervalBuckets(10);
+        tIndexer.storeStatement(convertStatement(spo_B00_E01));
+        tIndexer.storeStatement(convertStatement(spo_B02_E30));
+        tIndexer.storeStatement(convertStatement(spo_B02_E31));
+        tIndexer.storeStatement(convertStatement(spo_B02_E40));
+        tIndexer.storeStatement(convertStatement(spo_B03_E20));
+        tIndexer.storeStatement(convertStatement(spo_B30_E32));
+        tIndexer.storeStatement(convertStatement(seriesSpo[1]));
+        tIndexer.flush();
+
+        Assert.assertEquals(Lists.newArrayList(spo_B00_E01), toList(tIndexer.queryIntervalBefore(tvB02_E31, EMPTY_CONSTRAINTS)));
+        Assert.assertEquals(Sets.newHashSet(spo_B00_E01, spo_B03_E20),
+                Sets.newHashSet(toList(tIndexer.queryIntervalBefore(tvB29_E30, EMPTY_CONSTRAINTS))));
+    }
+
+    /**
+     * Same as {@link #testQueryIntervalAfter()}, but the intervals are read from small buckets.
+     */
+    @Test
+    public void testQueryIntervalAfterWithBuckets() throws IOException, QueryEvaluationException {
+        useIntervalBuckets(10);
+        tIndexer.storeStatement(convertStatement(spo_B00_E01));
+        tIndexer.storeStatement(convertStatement(spo_B02_E29));
+        tIndexer.storeStatement(convertStatement(spo_B02_E30));
+        tIndexer.storeStatement(convertStatement(spo_B02_E40));
+        tIndexer.storeStatement(convertStatement(spo_B03_E20));
+        tIndexer.storeStatement(convertStatement(spo_B29_E30));
+        tIndexer.storeStatement(convertStatement(spo_B30_E32));
+        tIndexer.storeStatement(convertStatement(spo_B02));
+        tIndexer.flush();
+
+        Assert.assertEquals(Lists.newArrayList(spo_B30_E32), toList(tIndexer.queryIntervalAfter(tvB02_E29, EMPTY_CONSTRAINTS)));
+        Assert.assertEquals(Sets.newHashSet(spo_B03_E20, spo_B29_E30, spo_B30_E32),
+                Sets.newHashSet(toList(tIndexer.queryIntervalAfter(new TemporalInterval(makeInstant(0), makeInstant(2)), EMPTY_CONSTRAINTS))));
+    }
+
+    /**
+     * Test intervals that share an instant with a given interval, including an interval
+     * that is too long to be written to buckets.
+     */
+    @Test
+    public void testQueryIntervalOverlaps() throws IOException, QueryEvaluationException {
+        useIntervalBuckets(10);
+        ValueFactory vf = SimpleValueFactory.getInstance();
+        TemporalInterval tvWholeDay = new TemporalInterval(
+                new TemporalInstantRfc3339(2015, 12, 30, 0, 0, 0),
+                new TemporalInstantRfc3339(2015, 12, 31, 0, 0, 0));
+        Statement spoWholeDay = vf.createStatement(vf.createIRI("foo:event7"), vf.createIRI(URI_PROPERTY_AT_TIME), vf.createLiteral(tvWholeDay.toString()));
+
+        tIndexer.storeStatement(convertStatement(spo_B00_E01));
+        tIndexer.storeStatement(convertStatement(spo_B02_E29));
+        tIndexer.storeStatement(convertStatement(spo_B02_E40));
+        tIndexer.storeStatement(convertStatement(spo_B03_E20));
+        tIndexer.storeStatement(convertStatement(spo_B29_E30));
+        tIndexer.storeStatement(convertStatement(spo_B30_E32));
+        tIndexer.storeStatement(convertStatement(spoWholeDay));
+        tIndexer.storeStatement(convertStatement(seriesSpo[31]));
+        tIndexer.flush();
+
+        // Each interval is only returned once, even though it is stored in several buckets.
+        List<Statement> results = toList(tIndexer.queryIntervalOverlaps(tvB30_E32, EMPTY_CONSTRAINTS));
+        Assert.assertEquals(Sets.newHashSet(spo_B02_E40, spo_B29_E30, spo_B30_E32, spoWholeDay), Sets.newHashSet(results));
+        Assert.assertEquals(4, results.size());
+    }
+
+    /**
+     * Test that the first and last buckets that were written are recorded, so open ended queries only read those.
+     */
+    @Test
+    public void testIntervalBucketExtent() throws Exception {
+        useIntervalBuckets(10);
+        Assert.assertFalse(TemporalIntervalBuckets.readExtent(ConfigUtils.createScanner(tIndexer.getTableName(), conf)).isPresent());
+
+        tIndexer.storeStatement(convertStatement(spo_B02_E30));
+        tIndexer.storeStatement(convertStatement(spo_B00_E01));
+        tIndexer.storeStatement(convertStatement(spo_B02_E40));
+        tIndexer.storeStatement(convertStatement(spo_B03_E20));
+        tIndexer.flush();
+
+        TemporalIntervalBuckets buckets = new TemporalIntervalBuckets(10);
+        TemporalIntervalBuckets.Extent extent = TemporalIntervalBuckets.readExtent(ConfigUtils.createScanner(tIndexer.getTableName(), conf)).get();
+        Assert.assertEquals(buckets.getBucket(makeInstant(0)), extent.getFirst());
+        Assert.assertEquals(buckets.getBucket(makeInstant(40)), extent.getLast());
+    }
+
+    /**
+     * Same as {@link #testQueryIntervalOverlaps()}, but without buckets.
+     */
+    @Test
+    public void testQueryIntervalOverlapsWithoutBuckets() throws Exception {
+        tIndexer.storeStatement(convertStatement(spo_B00_E01));
+        tIndexer.storeStatement(convertStatement(spo_B02_E29));
+        tIndexer.storeStatement(convertStatement(spo_B02_E40));
+        tIndexer.storeStatement(convertStatement(spo_B03_E20));
+        tIndexer.storeStatement(convertStatement(spo_B29_E30));
+        tIndexer.storeStatement(convertStatement(spo_B30_E32));
+        tIndexer.storeStatement(convertStatement(seriesSpo[31]));
+        tIndexer.flush();
+
+        // No buckets are written unless they are enabled.
+        Scanner buckets = ConfigUtils.getConnector(conf).createScanner(tIndexer.getTableName(), Authorizations.EMPTY);
+        buckets.setRange(Range.prefix(new Text(TemporalIntervalBuckets.BUCKET_PREFIX)));
+        Assert.assertFalse(buckets.iterator().hasNext());
+        Assert.assertEquals(Sets.newHashSet(spo_B02_E40, spo_B29_E30, spo_B30_E32),
+                Sets.newHashSet(toList(tIndexer.queryIntervalOverlaps(tvB30_E32, EMPTY_CONSTRAINTS))));
+    }
+
+    /**
+     * Test that intervals that were indexed before buckets were enabled are returned once they have been migrated.
+     */
+    @Test
+    public void testMigrateIntervalBuckets() throws Exception {
+        tIndexer.storeStatement(convertStatement(spo_B00_E01));
+        tIndexer.storeStatement(convertStatement(spo_B02_E30));
+        tIndexer.storeStatement(convertStatement(spo_B30_E32));
+        tIndexer.storeStatement(convertStatement(seriesSpo[1]));
+        tIndexer.flush();
+
+        useIntervalBuckets(ConfigUtils.getTemporalIntervalBucketSeconds(conf));
+        Assert.assertEquals(0, toList(tIndexer.queryIntervalBefore(tvB30_E32, EMPTY_CONSTRAINTS)).size());
+
+        Assert.assertEquals(3, new TemporalIntervalBucketMigration(conf).migrate());
+        Assert.assertEquals(Sets.newHashSet(spo_B00_E01),
+                Sets.newHashSet(toList(tIndexer.queryIntervalBefore(tvB30_E32, EMPTY_CONSTRAINTS))));
+        Assert.assertEquals(Sets.newHashSet(spo_B00_E01, spo_B02_E30, spo_B30_E32),
+                Sets.newHashSet(toList(tIndexer.queryIntervalOverlaps(new TemporalInterval(makeInstant(0), makeInstant(30)), EMPTY_CONSTRAINTS))));
+    }
+
+    private void useIntervalBuckets(long bucketSeconds) {
+        conf.setLong(ConfigUtils.TEMPORAL_INTERVAL_BUCKET_SECONDS, bucketSeconds);
+        conf.setBoolean(ConfigUtils.TEMPORAL_INTERVAL_USE_BUCKETS, true);
+        tIndexer.setConf(conf);
+    }
+
+    private static List<Statement> toList(CloseableIteration<Statement, QueryEvaluationException> iter) throws QueryEvaluationException {
+        List<Statement> statements = new ArrayList<>();
+        while (iter.hasNext()) {
+            statements.add(iter.next());
+        }
+        iter.close();
+        return statements;
+    }
+
     /**
      * Test instant after a given instant WITH two different predicates as constraints.
      */
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.entity.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.indexing.entity.model.Entity;
+import org.apache.rya.indexing.entity.model.Property;
+import org.apache.rya.indexing.entity.model.Type;
+import org.apache.rya.indexing.entity.model.TypedEntity;
+import org.apache.rya.indexing.entity.storage.EntityStorage;
+import org.apache.rya.indexing.entity.storage.mongo.ConvertingCursor;
+import org.bson.Document;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.helpers.StatementPatternCollector;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableSet;
+import com.mongodb.client.MongoCursor;
+
+/**
+ * Tests how {@link EntityQueryNode} joins a batch of binding sets with the Entities that match them.
+ */
+public class EntityQueryNodeBatchTest {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private static final Type PERSON_TYPE =
+            new Type(new RyaURI("urn:person"),
+                ImmutableSet.<RyaURI>builder()
+                    .add(new RyaURI("urn:name"))
+                    .add(new RyaURI("urn:age"))
+                    .build());
+
+    private static final TypedEntity ALICE = makePerson("urn:alice", "Alice", "30");
+    private static final TypedEntity BOB = makePerson("urn:bob", "Bob", "40");
+
+    private EntityQueryNode node;
+
+    @Before
+    public void setup() throws Exception {
+        final EntityStorage storage = mock(EntityStorage.class);
+        when(storage.search(Mockito.anyCollectionOf(RyaURI.class), Mockito.any(), Mockito.any()))
+            .thenAnswer(invocation -> makeCursor(ALICE, BOB));
+        when(storage.search(Mockito.eq(Optional.empty()), Mockito.any(), Mockito.any()))
+            .thenAnswer(invocation -> makeCursor(ALICE, BOB));
+
+        final StatementPatternCollector collector = new StatementPatternCollector();
+        new SPARQLParser().parseQuery(
+                "SELECT * WHERE { " +
+                    "?subject <" + RDF.TYPE + "> <urn:person> ." +
+                    "?subject <urn:name> ?name . " +
+                    "?subject <urn:age> ?age . " +
+                "}", null).getTupleExpr().visit(collector);
+        final List<StatementPattern> patterns = collector.getStatementPatterns();
+        node = new EntityQueryNode(PERSON_TYPE, patterns, storage);
+    }
+
+    @Test
+    public void evaluate_boundSubjects() throws Exception {
+        final BindingSet first = bindings("urn:alice", "a");
+        final BindingSet second = bindings("urn:bob", "b");
+        final BindingSet third = bindings("urn:alice", "c");
+
+        final Set<BindingSet> expected = new HashSet<>();
+        expected.add(result(first, "Alice", "30"));
+        expected.add(result(second, "Bob", "40"));
+        expected.add(result(third, "Alice", "30"));
+
+        assertEquals(expected, evaluate(first, second, third));
+    }
+
+    @Test
+    public void evaluate_unboundSubject() throws Exception {
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("other", VF.createLiteral("x"));
+
+        final Set<BindingSet> expected = new HashSet<>();
+        expected.add(result(bindings, "Alice", "30"));
+        expected.add(result(bindings, "Bob", "40"));
+
+        assertEquals(expected, evaluate(bindings));
+    }
+
+    @Test
+    public void evaluate_subjectWithoutEntity() throws Exception {
+        assertEquals(new HashSet<>(), evaluate(bindings("urn:charlie", "a")));
+    }
+
+    private Set<BindingSet> evaluate(final BindingSet... bindingSets) throws QueryEvaluationException {
+        final Set<BindingSet> results = new HashSet<>();
+        final CloseableIteration<BindingSet, QueryEvaluationException> rez = node.evaluate(Arrays.asList(bindingSets));
+        while(rez.hasNext()) {
+            // Each binding set is only returned once.
+            assertTrue(results.add(rez.next()));
+        }
+        return results;
+    }
+
+    private static MapBindingSet bindings(final String subject, final String other) {
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("subject", VF.createIRI(subject));
+        bindings.addBinding("other", VF.createLiteral(other));
+        return bindings;
+    }
+
+    private static BindingSet result(final BindingSet bindings, final String name, final String age) {
+        final MapBindingSet result = new MapBindingSet();
+        bindings.forEach(result::addBinding);
+        result.addBinding("name", VF.createLiteral(name));
+        result.addBinding("age", VF.createLiteral(age));
+        return result;
+    }
+
+    private static TypedEntity makePerson(final String subject, final String name, final String age) {
+        return Entity.builder()
+                .setSubject(new RyaURI(subject))
+                .setExplicitType(PERSON_TYPE.getId())
+                .setProperty(PERSON_TYPE.getId(), new Property(new RyaURI("urn:name"), new RyaType(name)))
+                .setProperty(PERSON_TYPE.getId(), new Property(new RyaURI("urn:age"), new RyaType(age)))
+                .build()
+                .makeTypedEntity(PERSON_TYPE.getId())
+                .get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConvertingCursor<TypedEntity> makeCursor(final TypedEntity... entities) {
+        final Iterator<TypedEntity> it = Arrays.asList(entities).iterator();
+        final MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> it.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> new Document("entity", it.next()));
+        return new ConvertingCursor<>(document -> (TypedEntity) document.get("entity"), cursor);
+    }
+}
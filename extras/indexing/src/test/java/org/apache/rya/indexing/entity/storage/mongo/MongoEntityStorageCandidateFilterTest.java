@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.entity.storage.mongo;
+
+import static org.apache.rya.api.domain.RyaTypeUtils.doubleRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.intRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.stringRyaType;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.indexing.entity.model.Entity;
+import org.apache.rya.indexing.entity.model.Property;
+import org.apache.rya.indexing.smarturi.duplication.DuplicateDataDetector;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mongodb.MongoClient;
+
+/**
+ * Tests the filter {@link MongoEntityStorage} uses to find the stored
+ * Entities that may be nearly identical to a new Entity. The filter is
+ * evaluated against the stored documents here, so no Mongo instance is needed.
+ */
+public class MongoEntityStorageCandidateFilterTest {
+
+    private static final RyaURI PERSON_TYPE = new RyaURI("urn:example/person");
+    private static final RyaURI EMPLOYEE_TYPE = new RyaURI("urn:example/employee");
+    private static final RyaURI HAS_AGE = new RyaURI("urn:example/hasAge");
+    private static final RyaURI HAS_HEIGHT = new RyaURI("urn:example/hasHeight");
+    private static final RyaURI HAS_NAME = new RyaURI("urn:example/hasName");
+
+    private DuplicateDataDetector detector;
+    private MongoEntityStorage storage;
+
+    @Before
+    public void setup() throws Exception {
+        // Use the default tolerance of each type.
+        detector = new DuplicateDataDetector(null, null, null, null, null, null, null, null, null, null,
+                new HashMap<>(), true);
+        storage = new MongoEntityStorage(mock(MongoClient.class), "testInstance", detector);
+    }
+
+    @Test
+    public void candidatesIncludeEveryDuplicate() throws Exception {
+        final Random random = new Random(42);
+        final List<Entity> stored = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            stored.add(makePerson("urn:example/stored" + i, 18 + random.nextInt(60),
+                    55 + random.nextInt(300) * 0.1, "Person " + random.nextInt(1000)));
+        }
+
+        int duplicates = 0;
+        int candidates = 0;
+        for (int i = 0; i < 50; i++) {
+            // Some of the new Entities copy the values of a stored one.
+            final Entity entity = i % 5 == 0
+                    ? Entity.builder(stored.get(i)).setSubject(new RyaURI("urn:example/new" + i)).build()
+                    : makePerson("urn:example/new" + i, 18 + random.nextInt(60),
+                            55 + random.nextInt(300) * 0.1, "Person " + random.nextInt(1000));
+            final BsonDocument filter = render(storage.makeDuplicateCandidateFilter(entity));
+            for (final Entity compareEntity : stored) {
+                final boolean candidate = matches(filter, render(storage.toDocument(compareEntity)));
+                if (detector.compareEntities(entity, compareEntity)) {
+                    duplicates++;
+                    assertTrue(compareEntity + " is a duplicate of " + entity + " but was not a candidate.", candidate);
+                }
+                if (candidate) {
+                    candidates++;
+                }
+            }
+        }
+
+        // The filter must not simply match everything.
+        assertTrue(candidates < 50 * stored.size());
+        assertTrue(duplicates > 0);
+        assertTrue(candidates >= duplicates);
+    }
+
+    @Test
+    public void nearlyIdenticalEntity_isCandidate() throws Exception {
+        final Entity entity = makePerson("urn:example/alice", 30, 65.0, "Alice Smith");
+        final Entity stored = makePerson("urn:example/alice2", 30, 65.0, "Alice Smith");
+
+        assertTrue(detector.compareEntities(entity, stored));
+        assertTrue(matches(render(storage.makeDuplicateCandidateFilter(entity)), render(storage.toDocument(stored))));
+    }
+
+    @Test
+    public void distantValues_notCandidate() throws Exception {
+        final Entity entity = makePerson("urn:example/alice", 20, 60.0, "Alice Smith");
+        final Entity stored = makePerson("urn:example/bob", 70, 80.0, "Bob Jones");
+
+        assertFalse(matches(render(storage.makeDuplicateCandidateFilter(entity)), render(storage.toDocument(stored))));
+    }
+
+    @Test
+    public void differentExplicitType_notCandidate() throws Exception {
+        final Entity entity = makePerson("urn:example/alice", 30, 65.0, "Alice Smith");
+        final Entity stored = Entity.builder(makePerson("urn:example/alice2", 30, 65.0, "Alice Smith"))
+                .unsetExplicitType(PERSON_TYPE)
+                .setExplicitType(EMPLOYEE_TYPE)
+                .build();
+
+        assertFalse(matches(render(storage.makeDuplicateCandidateFilter(entity)), render(storage.toDocument(stored))));
+    }
+
+    @Test
+    public void storedWithoutKeys_isCandidate() throws Exception {
+        // Entities that were stored before the keys were written are always compared.
+        final Entity entity = makePerson("urn:example/alice", 20, 60.0, "Alice Smith");
+        final Entity stored = makePerson("urn:example/bob", 70, 80.0, "Bob Jones");
+
+        assertTrue(matches(render(storage.makeDuplicateCandidateFilter(entity)),
+                render(new EntityDocumentConverter().toDocument(stored))));
+    }
+
+    private static Entity makePerson(final String subject, final int age, final double height, final String name) {
+        return Entity.builder()
+                .setSubject(new RyaURI(subject))
+                .setExplicitType(PERSON_TYPE)
+                .setProperty(PERSON_TYPE, new Property(HAS_AGE, intRyaType(age)))
+                .setProperty(PERSON_TYPE, new Property(HAS_HEIGHT, doubleRyaType(height)))
+                .setProperty(PERSON_TYPE, new Property(HAS_NAME, stringRyaType(name)))
+                .build();
+    }
+
+    private static BsonDocument render(final Bson bson) {
+        return bson.toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+    }
+
+    /**
+     * Evaluates the subset of the Mongo query language the candidate filter uses.
+     */
+    private static boolean matches(final BsonDocument filter, final BsonValue document) {
+        for (final Entry<String, BsonValue> clause : filter.entrySet()) {
+            final boolean matched;
+            switch (clause.getKey()) {
+                case "$and":
+                    matched = clause.getValue().asArray().stream().allMatch(sub -> matches(sub.asDocument(), document));
+                    break;
+                case "$or":
+                    matched = clause.getValue().asArray().stream().anyMatch(sub -> matches(sub.asDocument(), document));
+                    break;
+                default:
+                    matched = matchesField(clause.getValue(), resolve(document, clause.getKey()));
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesField(final BsonValue condition, final List<BsonValue> values) {
+        if (!condition.isDocument() || condition.asDocument().isEmpty()
+                || !condition.asDocument().keySet().iterator().next().startsWith("$")) {
+            return values.stream().anyMatch(value -> equal(value, condition));
+        }
+
+        for (final Entry<String, BsonValue> operator : condition.asDocument().entrySet()) {
+            final BsonValue operand = operator.getValue();
+            final boolean matched;
+            switch (operator.getKey()) {
+                case "$exists":
+                    matched = operand.asBoolean().getValue() != values.isEmpty();
+                    break;
+                case "$ne":
+                    matched = values.stream().noneMatch(value -> equal(value, operand));
+                    break;
+                case "$gte":
+                    matched = values.stream().anyMatch(value ->
+                            value.isNumber() && value.asNumber().doubleValue() >= operand.asNumber().doubleValue());
+                    break;
+                case "$lte":
+                    matched = values.stream().anyMatch(value ->
+                            value.isNumber() && value.asNumber().doubleValue() <= operand.asNumber().doubleValue());
+                    break;
+                case "$in":
+                    matched = values.stream().anyMatch(value -> operand.asArray().stream().anyMatch(term -> equal(value, term)));
+                    break;
+                case "$all":
+                    matched = operand.asArray().stream().allMatch(term -> values.stream().anyMatch(value -> equal(value, term)));
+                    break;
+                case "$elemMatch":
+                    matched = values.stream().anyMatch(value -> value.isDocument() && matches(operand.asDocument(), value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported operator: " + operator.getKey());
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the values at a dotted path, descending into the elements of any arrays along the way.
+     */
+    private static List<BsonValue> resolve(final BsonValue document, final String path) {
+        List<BsonValue> current = Collections.singletonList(document);
+        for (final String part : path.split("\\.")) {
+            final List<BsonValue> next = new ArrayList<>();
+            for (final BsonValue value : current) {
+                if (value.isDocument() && value.asDocument().containsKey(part)) {
+                    final BsonValue child = value.asDocument().get(part);
+                    if (child.isArray()) {
+                        next.addAll(child.asArray().getValues());
+                    } else {
+                        next.add(child);
+                    }
+                }
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private static boolean equal(final BsonValue lhs, final BsonValue rhs) {
+        if (lhs.isNumber() && rhs.isNumber()) {
+            return lhs.asNumber().doubleValue() == rhs.asNumber().doubleValue();
+        }
+        return lhs.equals(rhs);
+    }
+}
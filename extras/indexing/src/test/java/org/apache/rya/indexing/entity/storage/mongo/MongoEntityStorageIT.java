@@ -387,4 +387,55 @@ public class MongoEntityStorageIT extends MongoTestBase {
         final EntityStorage storage = new MongoEntityStorage(super.getMongoClient(), RYA_INSTANCE_NAME);
         storage.update(old, updated);
     }
+
+    @Test
+    public void bulkWrite_conflicts() throws Exception {
+        final EntityStorage storage = new MongoEntityStorage(super.getMongoClient(), RYA_INSTANCE_NAME);
+
+        // Store Alice and Bob in the repository.
+        final Entity alice = Entity.builder()
+                .setSubject( new RyaURI("urn:SSN/111-11-1111") )
+                .setExplicitType(new RyaURI("urn:person"))
+                .setProperty(new RyaURI("urn:person"), new Property(new RyaURI("urn:name"), new RyaType(XMLSchema.STRING, "Alice")))
+                .build();
+        final Entity bob = Entity.builder()
+                .setSubject( new RyaURI("urn:SSN/222-22-2222") )
+                .setExplicitType(new RyaURI("urn:person"))
+                .setProperty(new RyaURI("urn:person"), new Property(new RyaURI("urn:name"), new RyaType(XMLSchema.STRING, "Bob")))
+                .build();
+        storage.create(alice);
+        storage.create(bob);
+
+        // Something else stores the same next version of Alice with different content.
+        final Entity concurrentAlice = Entity.builder(alice)
+                .setVersion(alice.getVersion() + 1)
+                .setProperty(new RyaURI("urn:person"), new Property(new RyaURI("urn:eye"), new RyaType(XMLSchema.STRING, "blue")))
+                .build();
+        storage.update(alice, concurrentAlice);
+
+        // Bulk write new versions of Alice and Bob, and create Charlie and another Alice.
+        final Entity updatedAlice = Entity.builder(alice)
+                .setVersion(alice.getVersion() + 1)
+                .setProperty(new RyaURI("urn:person"), new Property(new RyaURI("urn:eye"), new RyaType(XMLSchema.STRING, "brown")))
+                .build();
+        final Entity updatedBob = Entity.builder(bob)
+                .setVersion(bob.getVersion() + 1)
+                .setProperty(new RyaURI("urn:person"), new Property(new RyaURI("urn:eye"), new RyaType(XMLSchema.STRING, "green")))
+                .build();
+        final Entity charlie = Entity.builder()
+                .setSubject( new RyaURI("urn:SSN/333-33-3333") )
+                .setExplicitType(new RyaURI("urn:person"))
+                .build();
+        final Entity existingAlice = Entity.builder()
+                .setSubject( new RyaURI("urn:SSN/111-11-1111") )
+                .setExplicitType(new RyaURI("urn:person"))
+                .build();
+        final Set<RyaURI> conflicts = storage.bulkWrite(Sets.newHashSet(charlie, existingAlice), Sets.newHashSet(updatedAlice, updatedBob));
+
+        // Alice conflicts even though the stored version is the one that was written.
+        assertEquals(Sets.newHashSet(alice.getSubject()), conflicts);
+        assertEquals(concurrentAlice, storage.get(alice.getSubject()).get());
+        assertEquals(updatedBob, storage.get(bob.getSubject()).get());
+        assertEquals(charlie, storage.get(charlie.getSubject()).get());
+    }
 }
\ No newline at end of file
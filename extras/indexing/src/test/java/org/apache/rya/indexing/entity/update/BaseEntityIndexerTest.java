@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.entity.update;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.indexing.entity.model.Entity;
+import org.apache.rya.indexing.entity.model.Property;
+import org.apache.rya.indexing.entity.model.Type;
+import org.apache.rya.indexing.entity.storage.EntityStorage;
+import org.apache.rya.indexing.entity.storage.TypeStorage;
+import org.apache.rya.indexing.entity.storage.mongo.ConvertingCursor;
+import org.bson.Document;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.mongodb.MongoClient;
+import com.mongodb.client.MongoCursor;
+
+/**
+ * Tests how {@link BaseEntityIndexer} updates the Entities of a batch of statements.
+ */
+public class BaseEntityIndexerTest {
+    private static final RyaURI PERSON = new RyaURI("urn:person");
+    private static final RyaURI NAME = new RyaURI("urn:name");
+    private static final RyaURI AGE = new RyaURI("urn:age");
+    private static final RyaURI EYE = new RyaURI("urn:eye");
+    private static final RyaURI ALICE = new RyaURI("urn:alice");
+    private static final RyaURI BOB = new RyaURI("urn:bob");
+
+    private static final Type PERSON_TYPE = new Type(PERSON, ImmutableSet.of(NAME, AGE, EYE));
+
+    private EntityStorage entities;
+    private TypeStorage types;
+    private BaseEntityIndexer indexer;
+
+    @Before
+    public void setup() throws Exception {
+        entities = mock(EntityStorage.class);
+        types = mock(TypeStorage.class);
+        when(types.search(any(RyaURI.class))).thenAnswer(invocation -> makeCursor(PERSON_TYPE));
+
+        indexer = new BaseEntityIndexer() {
+            @Override
+            public EntityStorage getEntityStorage(final Configuration conf) {
+                return entities;
+            }
+
+            @Override
+            public TypeStorage getTypeStorage(final Configuration conf) {
+                return types;
+            }
+
+            @Override
+            public void init() { }
+
+            @Override
+            public void setClient(final MongoClient client) { }
+        };
+        indexer.setConf(new Configuration());
+    }
+
+    @Test
+    public void storeStatements_batch() throws Exception {
+        final Entity aliceV0 = Entity.builder()
+                .setSubject(ALICE)
+                .setExplicitType(PERSON)
+                .setProperty(PERSON, new Property(NAME, new RyaType("Alice")))
+                .setVersion(0)
+                .build();
+        final Map<RyaURI, Entity> stored = new HashMap<>();
+        stored.put(ALICE, aliceV0);
+        when(entities.get(anyCollectionOf(RyaURI.class))).thenReturn(stored);
+        when(entities.bulkWrite(anyCollectionOf(Entity.class), anyCollectionOf(Entity.class))).thenReturn(Collections.emptySet());
+
+        indexer.storeStatements(Arrays.asList(
+                new RyaStatement(ALICE, AGE, new RyaType("30")),
+                new RyaStatement(BOB, new RyaURI(RDF.TYPE.toString()), PERSON),
+                new RyaStatement(BOB, NAME, new RyaType("Bob"))));
+
+        // The Types of each property are looked up once, and the Entities are read and written together.
+        verify(types, times(1)).search(AGE);
+        verify(types, times(1)).search(NAME);
+        verify(entities, times(1)).get(anyCollectionOf(RyaURI.class));
+
+        final ArgumentCaptor<Collection> created = ArgumentCaptor.forClass(Collection.class);
+        final ArgumentCaptor<Collection> updated = ArgumentCaptor.forClass(Collection.class);
+        verify(entities, times(1)).bulkWrite(created.capture(), updated.capture());
+
+        final Entity bobV0 = Entity.builder()
+                .setSubject(BOB)
+                .setExplicitType(PERSON)
+                .setProperty(PERSON, new Property(NAME, new RyaType("Bob")))
+                .setVersion(0)
+                .build();
+        final Entity aliceV1 = Entity.builder(aliceV0)
+                .setProperty(PERSON, new Property(AGE, new RyaType("30")))
+                .setVersion(1)
+                .build();
+        assertEquals(Arrays.asList(bobV0), created.getValue());
+        assertEquals(Arrays.asList(aliceV1), updated.getValue());
+
+        // Nothing conflicted, so nothing is written on its own.
+        verify(entities, never()).get(any(RyaURI.class));
+        verify(entities, never()).update(any(Entity.class), any(Entity.class));
+        verify(entities, never()).create(any(Entity.class));
+    }
+
+    @Test
+    public void storeStatements_retriesConflicts() throws Exception {
+        final Entity aliceV0 = Entity.builder()
+                .setSubject(ALICE)
+                .setExplicitType(PERSON)
+                .setVersion(0)
+                .build();
+        final Entity bobV0 = Entity.builder()
+                .setSubject(BOB)
+                .setExplicitType(PERSON)
+                .setVersion(0)
+                .build();
+        final Map<RyaURI, Entity> stored = new HashMap<>();
+        stored.put(ALICE, aliceV0);
+        stored.put(BOB, bobV0);
+        when(entities.get(anyCollectionOf(RyaURI.class))).thenReturn(stored);
+
+        // Something else stored version 1 of Alice with different content, so only Alice conflicts.
+        final Entity concurrentAliceV1 = Entity.builder(aliceV0)
+                .setProperty(PERSON, new Property(EYE, new RyaType("blue")))
+                .setVersion(1)
+                .build();
+        when(entities.bulkWrite(anyCollectionOf(Entity.class), anyCollectionOf(Entity.class))).thenReturn(Sets.newHashSet(ALICE));
+        when(entities.get(ALICE)).thenReturn(Optional.of(concurrentAliceV1));
+
+        indexer.storeStatements(Arrays.asList(
+                new RyaStatement(ALICE, AGE, new RyaType("30")),
+                new RyaStatement(BOB, AGE, new RyaType("40"))));
+
+        // Only Alice is retried, on top of the version that was stored concurrently.
+        final Entity aliceV2 = Entity.builder(concurrentAliceV1)
+                .setProperty(PERSON, new Property(AGE, new RyaType("30")))
+                .setVersion(2)
+                .build();
+        verify(entities, times(1)).update(concurrentAliceV1, aliceV2);
+        verify(entities, never()).get(BOB);
+        verify(entities, never()).create(any(Entity.class));
+    }
+
+    private static <T> ConvertingCursor<T> makeCursor(final T... values) {
+        final Iterator<T> it = Arrays.asList(values).iterator();
+        @SuppressWarnings("unchecked")
+        final MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> it.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> new Document("value", it.next()));
+        return new ConvertingCursor<>(document -> (T) document.get("value"), cursor);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.matching;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.indexing.accumulo.ConfigUtils;
+import org.apache.rya.indexing.external.tupleSet.ExternalTupleSet;
+import org.apache.rya.indexing.pcj.storage.accumulo.PcjTables;
+import org.apache.rya.indexing.pcj.storage.accumulo.VariableOrder;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the methods of {@link PcjCatalog}.
+ */
+public class PcjCatalogTest {
+
+    private static final String INSTANCE = "pcjCatalogInstance";
+    private static final String PREFIX = "catalog_";
+    private static final String SPARQL = "SELECT ?x ?y WHERE { ?x <uri:talksTo> ?y . ?y a <uri:Person> . }";
+    private static final String OTHER_SPARQL = "SELECT ?x ?y WHERE { ?x <uri:worksAt> ?y . ?y a <uri:Company> . }";
+
+    private final PcjTables pcjTables = new PcjTables();
+    private AccumuloRdfConfiguration conf;
+    private Connector accCon;
+
+    @Before
+    public void init() throws Exception {
+        accCon = new MockInstance(INSTANCE).getConnector("root", new PasswordToken(""));
+
+        conf = new AccumuloRdfConfiguration();
+        conf.setTablePrefix(PREFIX);
+        conf.set(ConfigUtils.USE_MOCK_INSTANCE, "true");
+        conf.set(ConfigUtils.CLOUDBASE_INSTANCE, INSTANCE);
+        conf.set(ConfigUtils.CLOUDBASE_USER, "root");
+        conf.set(ConfigUtils.CLOUDBASE_PASSWORD, "");
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        PcjCatalog.invalidateAll();
+        for(final String table : accCon.tableOperations().list()) {
+            if(table.startsWith(PREFIX)) {
+                accCon.tableOperations().delete(table);
+            }
+        }
+    }
+
+    @Test
+    public void getIndices_cached() throws Exception {
+        createPcj(PREFIX + "INDEX_1", SPARQL);
+
+        final PcjCatalog catalog = PcjCatalog.getInstance(conf);
+        final List<ExternalTupleSet> indices = catalog.getIndices();
+        assertEquals(1, indices.size());
+
+        // Nothing changed, so the same PCJs are returned.
+        assertSame(indices, catalog.getIndices());
+        assertSame(catalog, PcjCatalog.getInstance(new AccumuloRdfConfiguration(conf)));
+    }
+
+    @Test
+    public void getIndices_pcjsChanged() throws Exception {
+        createPcj(PREFIX + "INDEX_1", SPARQL);
+
+        final PcjCatalog catalog = PcjCatalog.getInstance(conf);
+        final ExternalTupleSet first = catalog.getIndices().get(0);
+
+        // Adding a PCJ only loads the new one.
+        createPcj(PREFIX + "INDEX_2", OTHER_SPARQL);
+        List<ExternalTupleSet> indices = catalog.getIndices();
+        assertEquals(2, indices.size());
+        assertSame(first, indices.get(0));
+
+        // Recreating a PCJ table with the same name picks up its new query.
+        pcjTables.dropPcjTable(accCon, PREFIX + "INDEX_1");
+        createPcj(PREFIX + "INDEX_1", OTHER_SPARQL);
+        indices = catalog.getIndices();
+        assertEquals(2, indices.size());
+        assertEquals(indices.get(1).getTupleExpr(), indices.get(0).getTupleExpr());
+
+        // Dropping a PCJ removes it from the catalog.
+        pcjTables.dropPcjTable(accCon, PREFIX + "INDEX_2");
+        assertEquals(1, catalog.getIndices().size());
+    }
+
+    @Test(expected = AccumuloSecurityException.class)
+    public void getInstance_badPassword() throws Exception {
+        PcjCatalog.getInstance(conf);
+
+        // The cached catalog is not handed to a caller that cannot authenticate as its user.
+        final AccumuloRdfConfiguration badPassword = new AccumuloRdfConfiguration(conf);
+        badPassword.set(ConfigUtils.CLOUDBASE_PASSWORD, "wrong");
+        PcjCatalog.getInstance(badPassword);
+    }
+
+    @Test
+    public void getInstance_authenticationCached() throws Exception {
+        accCon.securityOperations().createLocalUser("catalogUser", new PasswordToken("first"));
+        conf.set(ConfigUtils.CLOUDBASE_USER, "catalogUser");
+        conf.set(ConfigUtils.CLOUDBASE_PASSWORD, "first");
+        final PcjCatalog catalog = PcjCatalog.getInstance(conf);
+
+        // The accepted password is trusted until it expires, even though it changed.
+        accCon.securityOperations().changeLocalUserPassword("catalogUser", new PasswordToken("second"));
+        assertSame(catalog, PcjCatalog.getInstance(conf));
+
+        // A password that has not been accepted yet is checked with Accumulo.
+        final AccumuloRdfConfiguration newPassword = new AccumuloRdfConfiguration(conf);
+        newPassword.set(ConfigUtils.CLOUDBASE_PASSWORD, "second");
+        assertSame(catalog, PcjCatalog.getInstance(newPassword));
+    }
+
+    @Test
+    public void getNormalizedIndex_cached() throws Exception {
+        createPcj(PREFIX + "INDEX_1", SPARQL);
+        final PcjCatalog catalog = PcjCatalog.getInstance(conf);
+        final ExternalTupleSet index = catalog.getIndices().get(0);
+
+        final String query = "SELECT ?a ?b ?c WHERE { ?a <uri:talksTo> ?b . ?b a <uri:Person> . ?b <uri:worksAt> ?c . }";
+        final List<TupleExpr> normalized = catalog.getNormalizedIndex(parse(query), index);
+        assertFalse(normalized.isEmpty());
+
+        // Normalizing against the same query again returns copies of the cached forms.
+        final List<TupleExpr> cached = catalog.getNormalizedIndex(parse(query), index);
+        assertEquals(normalized, cached);
+        assertNotSame(normalized.get(0), cached.get(0));
+    }
+
+    private static TupleExpr parse(final String sparql) throws Exception {
+        return new SPARQLParser().parseQuery(sparql, null).getTupleExpr();
+    }
+
+    private void createPcj(final String table, final String sparql) throws Exception {
+        pcjTables.createPcjTable(accCon, table, Collections.singleton(new VariableOrder("x;y")), sparql);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.smarturi.duplication;
+
+import static org.apache.rya.api.domain.RyaTypeUtils.booleanRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.dateRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.doubleRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.intRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.longRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.stringRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.uriRyaType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.indexing.entity.model.Entity;
+import org.apache.rya.indexing.entity.model.Property;
+import org.apache.rya.indexing.smarturi.SmartUriException;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests the methods of {@link EntityBlockingIndex}.
+ */
+public class EntityBlockingIndexTest {
+    private static final RyaURI PERSON_TYPE_URI = new RyaURI("urn:example/person");
+    private static final RyaURI EMPLOYEE_TYPE_URI = new RyaURI("urn:example/employee");
+
+    private static final RyaURI HAS_AGE = new RyaURI("urn:example/hasAge");
+    private static final RyaURI HAS_HEIGHT = new RyaURI("urn:example/hasHeight");
+    private static final RyaURI HAS_LICENSE_NUMBER = new RyaURI("urn:example/hasLicenseNumber");
+    private static final RyaURI HAS_EYE_COLOR = new RyaURI("urn:example/hasEyeColor");
+    private static final RyaURI HAS_NAME = new RyaURI("urn:example/hasName");
+    private static final RyaURI HAS_DATE_OF_BIRTH = new RyaURI("urn:example/hasDateOfBirth");
+    private static final RyaURI HAS_EXPIRATION_DATE = new RyaURI("urn:example/hasExpirationDate");
+    private static final RyaURI HAS_GLASSES = new RyaURI("urn:example/hasGlasses");
+    private static final RyaURI HAS_EMAIL_ADDRESS = new RyaURI("urn:example/hasEmailAddress");
+    private static final RyaURI HAS_EXTENSION = new RyaURI("urn:example/hasExtension");
+
+    private static final String[] EYE_COLORS = { "blue", "Blue", "brown", "green", "hazel", "grey", "gray", "" };
+    private static final String[] NAMES = { "Bob", "Bobby", "Robert", "Rob", "Alice", "Alicia", "Al" };
+
+    @Test
+    public void testCandidatesIncludeAllDuplicates_difference() throws SmartUriException {
+        final DuplicateDataDetector detector = new DuplicateDataDetector(new Tolerance(2.0, ToleranceType.DIFFERENCE), createEquivalentTermsMap());
+        assertCandidatesIncludeAllDuplicates(detector, createEntities(400, 1L));
+    }
+
+    @Test
+    public void testCandidatesIncludeAllDuplicates_percentage() throws SmartUriException {
+        final DuplicateDataDetector detector = new DuplicateDataDetector(new Tolerance(0.25, ToleranceType.PERCENTAGE), createEquivalentTermsMap());
+        assertCandidatesIncludeAllDuplicates(detector, createEntities(400, 2L));
+    }
+
+    @Test
+    public void testCandidatesIncludeAllDuplicates_zero() throws SmartUriException {
+        final DuplicateDataDetector detector = new DuplicateDataDetector(new Tolerance(0.0, ToleranceType.DIFFERENCE), createEquivalentTermsMap());
+        assertCandidatesIncludeAllDuplicates(detector, createEntities(400, 3L));
+    }
+
+    @Test
+    public void testCandidatesIncludeAllDuplicates_defaults() throws SmartUriException {
+        final DuplicateDataDetector detector = new DuplicateDataDetector(null, null, null, null, null, null, null, null, null, null,
+                createEquivalentTermsMap(), true);
+        assertCandidatesIncludeAllDuplicates(detector, createEntities(400, 4L));
+    }
+
+    @Test
+    public void testCandidatesAreBlocked() {
+        final DuplicateDataDetector detector = new DuplicateDataDetector(0.0);
+        final List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entities.add(Entity.builder()
+                .setSubject(new RyaURI("urn:example/person" + i))
+                .setExplicitType(PERSON_TYPE_URI)
+                .setProperty(PERSON_TYPE_URI, new Property(HAS_AGE, intRyaType(i % 10)))
+                .build());
+        }
+        final EntityBlockingIndex blockingIndex = new EntityBlockingIndex(detector, entities);
+        final BitSet candidates = blockingIndex.getCandidates(entities.get(3));
+        assertEquals(10, candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            assertEquals(3, i % 10);
+        }
+    }
+
+    @Test
+    public void testCandidatesMissingProperty() {
+        final DuplicateDataDetector detector = new DuplicateDataDetector(0.0);
+        final Entity withAge = Entity.builder()
+            .setSubject(new RyaURI("urn:example/person1"))
+            .setExplicitType(PERSON_TYPE_URI)
+            .setProperty(PERSON_TYPE_URI, new Property(HAS_AGE, intRyaType(40)))
+            .build();
+        final Entity withoutAge = Entity.builder()
+            .setSubject(new RyaURI("urn:example/person2"))
+            .setExplicitType(PERSON_TYPE_URI)
+            .build();
+        final EntityBlockingIndex blockingIndex = new EntityBlockingIndex(detector, Lists.newArrayList(withoutAge));
+        assertTrue(blockingIndex.getCandidates(withAge).isEmpty());
+        // An entity without properties may be nearly identical to any entity.
+        assertEquals(1, new EntityBlockingIndex(detector, Lists.newArrayList(withAge)).getCandidates(withoutAge).cardinality());
+    }
+
+    @Test
+    public void testRemoveDuplicatesFromCollection() throws SmartUriException {
+        final DuplicateDataDetector detector = new DuplicateDataDetector(new Tolerance(0.25, ToleranceType.PERCENTAGE), createEquivalentTermsMap());
+        final List<Entity> entities = createEntities(300, 5L);
+
+        // Find the duplicates by comparing every pair.
+        final List<Entity> expected = new ArrayList<>();
+        final BitSet duplicates = new BitSet();
+        for (int i = 0; i < entities.size(); i++) {
+            for (int j = i + 1; j < entities.size(); j++) {
+                if (detector.compareEntities(entities.get(i), entities.get(j))) {
+                    duplicates.set(j);
+                }
+            }
+            if (!duplicates.get(i)) {
+                expected.add(entities.get(i));
+            }
+        }
+        assertTrue(duplicates.cardinality() > 0);
+
+        detector.removeDuplicatesFromCollection(entities);
+        assertEquals(expected, entities);
+    }
+
+    private static void assertCandidatesIncludeAllDuplicates(final DuplicateDataDetector detector, final List<Entity> entities) throws SmartUriException {
+        final EntityBlockingIndex blockingIndex = new EntityBlockingIndex(detector, entities);
+        int duplicateCount = 0;
+        int candidateCount = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            final BitSet candidates = blockingIndex.getCandidates(entities.get(i));
+            candidateCount += candidates.cardinality();
+            for (int j = 0; j < entities.size(); j++) {
+                if (detector.compareEntities(entities.get(i), entities.get(j))) {
+                    duplicateCount++;
+                    assertTrue("Entity " + j + " is a duplicate of entity " + i + " but not a candidate", candidates.get(j));
+                }
+            }
+        }
+        // Every entity is a duplicate of itself.
+        assertTrue(duplicateCount > entities.size());
+        assertTrue(candidateCount < entities.size() * entities.size());
+    }
+
+    private static Map<String, List<String>> createEquivalentTermsMap() {
+        final Map<String, List<String>> equivalentTermsMap = new HashMap<>();
+        equivalentTermsMap.put("Bob", Lists.newArrayList("Robert", "Rob"));
+        equivalentTermsMap.put("grey", Lists.newArrayList("gray"));
+        return equivalentTermsMap;
+    }
+
+    /**
+     * Creates entities whose property values are drawn from small ranges, so
+     * that many of them are nearly identical to each other.
+     */
+    private static List<Entity> createEntities(final int count, final long seed) {
+        final Random random = new Random(seed);
+        final long now = new Date().getTime();
+        final List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final Entity.Builder builder = Entity.builder()
+                .setSubject(new RyaURI("urn:example/person" + i))
+                .setExplicitType(PERSON_TYPE_URI);
+            if (random.nextInt(4) != 0) {
+                builder.setProperty(PERSON_TYPE_URI, new Property(HAS_AGE, intRyaType(random.nextInt(20) - 5)));
+            }
+            if (random.nextInt(4) != 0) {
+                builder.setProperty(PERSON_TYPE_URI, new Property(HAS_HEIGHT, doubleRyaType(60 + random.nextInt(40) * 0.5)));
+            }
+            if (random.nextInt(4) != 0) {
+                builder.setProperty(PERSON_TYPE_URI, new Property(HAS_LICENSE_NUMBER, longRyaType(123456789000L + random.nextInt(8))));
+            }
+            if (random.nextInt(4) != 0) {
+                builder.setProperty(PERSON_TYPE_URI, new Property(HAS_EYE_COLOR, stringRyaType(EYE_COLORS[random.nextInt(EYE_COLORS.length)])));
+            }
+            if (random.nextInt(4) != 0) {
+                builder.setProperty(PERSON_TYPE_URI, new Property(HAS_NAME, stringRyaType(NAMES[random.nextInt(NAMES.length)])));
+            }
+            if (random.nextInt(4) != 0) {
+                builder.setProperty(PERSON_TYPE_URI, new Property(HAS_DATE_OF_BIRTH, dateRyaType(new DateTime(now).minusMillis(random.nextInt(4) * 300))));
+            }
+            if (random.nextInt(4) != 0) {
+                builder.setProperty(PERSON_TYPE_URI, new Property(HAS_EXPIRATION_DATE, dateRyaType(new Date(now + random.nextInt(4) * 300))));
+            }
+            if (random.nextInt(4) != 0) {
+                builder.setProperty(PERSON_TYPE_URI, new Property(HAS_GLASSES, booleanRyaType(random.nextBoolean())));
+            }
+            if (random.nextInt(4) != 0) {
+                builder.setProperty(PERSON_TYPE_URI, new Property(HAS_EMAIL_ADDRESS,
+                        uriRyaType(SimpleValueFactory.getInstance().createIRI("mailto:person" + random.nextInt(3) + "@example.com"))));
+            }
+            if (random.nextInt(3) == 0) {
+                builder.setExplicitType(EMPLOYEE_TYPE_URI);
+                builder.setProperty(EMPLOYEE_TYPE_URI, new Property(HAS_EXTENSION, intRyaType(random.nextInt(5))));
+            }
+            entities.add(builder.build());
+        }
+        return entities;
+    }
+}
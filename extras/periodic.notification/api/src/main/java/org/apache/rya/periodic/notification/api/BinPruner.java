@@ -18,6 +18,8 @@
  */
 package org.apache.rya.periodic.notification.api;
 
+import java.util.Collection;
+
 import org.eclipse.rdf4j.query.Binding;
 import org.eclipse.rdf4j.query.BindingSet;
 
@@ -36,5 +38,18 @@ public interface BinPruner {
      * @param bin - NodeBin that indicates which BindingSets to delete..
      */
     public void pruneBindingSetBin(NodeBin bin);
+
+    /**
+     * Cleans up all {@link BindingSet}s associated with several bins of the same node.
+     * Implementations should override this method if they are able to prune many bins
+     * at once more cheaply than one at a time.
+     * @param nodeId - id of the node whose bins are deleted
+     * @param bins - bins of the node to delete
+     */
+    public default void pruneBindingSetBins(String nodeId, Collection<Long> bins) {
+        for (long bin : bins) {
+            pruneBindingSetBin(new NodeBin(nodeId, bin));
+        }
+    }
     
 }
@@ -18,6 +18,8 @@
  */
 package org.apache.rya.periodic.notification.api;
 
+import java.util.Collection;
+
 import org.eclipse.rdf4j.query.BindingSet;
 
 /**
@@ -34,4 +36,19 @@ public interface BindingSetExporter {
      */
     public void exportNotification(BindingSetRecord bindingSet) throws BindingSetRecordExportException;
 
+    /**
+     * This method exports a chunk of BindingSets to the same topic and returns once all of them
+     * have been accepted by the external repository or queuing system.  Implementations should
+     * override this method if they are able to export many BindingSets at once more cheaply than
+     * one at a time.
+     * @param topic - topic that the BindingSets are exported to
+     * @param bindingSets - {@link BindingSet}s to be exported
+     * @throws BindingSetRecordExportException
+     */
+    public default void exportBindingSets(String topic, Collection<BindingSet> bindingSets) throws BindingSetRecordExportException {
+        for (BindingSet bindingSet : bindingSets) {
+            exportNotification(new BindingSetRecord(bindingSet, topic));
+        }
+    }
+
 }
@@ -32,6 +32,7 @@ public class BindingSetRecord {
 
     private BindingSet bs;
     private String topic;
+    private final long creationTime = System.currentTimeMillis();
     
     public BindingSetRecord(BindingSet bs, String topic) {
         this.bs = bs;
@@ -52,6 +53,14 @@ public class BindingSetRecord {
         return topic;
     }
     
+    /**
+     * @return time in milliseconds at which this BindingSetRecord was created, which is
+     * not considered by {@link #equals(Object)}
+     */
+    public long getCreationTime() {
+        return creationTime;
+    }
+    
     @Override 
     public boolean equals(Object o) {
         if(this == o) {
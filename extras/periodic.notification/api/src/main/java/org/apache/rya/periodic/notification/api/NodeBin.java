@@ -31,6 +31,7 @@ public class NodeBin {
 
     private long bin;
     private String nodeId;
+    private final long creationTime = System.currentTimeMillis();
 
     public NodeBin(String nodeId, long bin) {
         this.bin = bin;
@@ -50,6 +51,14 @@ public class NodeBin {
         return bin;
     }
 
+    /**
+     * @return time in milliseconds at which this NodeBin was created, which is
+     * not considered by {@link #equals(Object)}
+     */
+    public long getCreationTime() {
+        return creationTime;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other) {
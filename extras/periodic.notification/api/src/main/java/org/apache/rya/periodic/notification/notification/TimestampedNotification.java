@@ -21,6 +21,8 @@ package org.apache.rya.periodic.notification.notification;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
 
+import com.google.common.base.Preconditions;
+
 /**
  * {@link PeriodicNotification} Object used by the Periodic Query Service to inform workers to
  * process results for a given Periodic Query with the indicated id.  Additionally
@@ -54,6 +56,16 @@ public class TimestampedNotification extends PeriodicNotification {
         date = new Date();
     }
 
+    /**
+     * Creates a TimestampedNotification
+     * @param notification - PeriodicNotification used to create this TimestampedNotification
+     * @param date - time stamp of the TimestampedNotification, such as the time at which it was due
+     */
+    public TimestampedNotification(PeriodicNotification notification, Date date) {
+        super(notification);
+        this.date = Preconditions.checkNotNull(date);
+    }
+
     /**
      * @return timestamp at which this notification was generated
      */
@@ -21,6 +21,9 @@ package org.apache.rya.periodic.notification.application;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.rya.indexing.pcj.fluo.app.util.PeriodicQueryUtil;
 import org.apache.rya.periodic.notification.api.BinPruner;
@@ -28,6 +31,7 @@ import org.apache.rya.periodic.notification.api.BindingSetRecord;
 import org.apache.rya.periodic.notification.api.LifeCycle;
 import org.apache.rya.periodic.notification.api.NodeBin;
 import org.apache.rya.periodic.notification.api.NotificationCoordinatorExecutor;
+import org.apache.rya.periodic.notification.coordinator.PeriodicNotificationCoordinatorExecutor;
 import org.apache.rya.periodic.notification.exporter.KafkaExporterExecutor;
 import org.apache.rya.periodic.notification.processor.NotificationProcessorExecutor;
 import org.apache.rya.periodic.notification.pruner.PeriodicQueryPrunerExecutor;
@@ -88,6 +92,7 @@ import com.google.common.base.Preconditions;
 public class PeriodicNotificationApplication implements LifeCycle {
 
     private static final Logger log = LoggerFactory.getLogger(PeriodicNotificationApplication.class);
+    private static final long LAG_REPORT_MINUTES = 1;
     private final NotificationCoordinatorExecutor coordinator;
     private final KafkaNotificationProvider provider;
     private final PeriodicQueryPrunerExecutor pruner;
@@ -95,6 +100,7 @@ public class PeriodicNotificationApplication implements LifeCycle {
     private final KafkaExporterExecutor exporter;
     private boolean running = false;
     private Optional<CompletableFuture<Void>> finished = Optional.empty();
+    private ScheduledExecutorService lagReporter;
 
 
     /**
@@ -123,6 +129,8 @@ public class PeriodicNotificationApplication implements LifeCycle {
             processor.start();
             pruner.start();
             exporter.start();
+            lagReporter = Executors.newSingleThreadScheduledExecutor();
+            lagReporter.scheduleAtFixedRate(this::logLag, LAG_REPORT_MINUTES, LAG_REPORT_MINUTES, TimeUnit.MINUTES);
             running = true;
             finished = Optional.of(new CompletableFuture<>());
         }
@@ -148,6 +156,7 @@ public class PeriodicNotificationApplication implements LifeCycle {
         if(!finished.isPresent()) {
             throw new IllegalStateException("Cannot stop if the application has not been started yet");
         }
+        lagReporter.shutdownNow();
         provider.stop();
         coordinator.stop();
         processor.stop();
@@ -157,6 +166,19 @@ public class PeriodicNotificationApplication implements LifeCycle {
         finished.get().complete(null);
     }
 
+    /**
+     * Logs how far behind each stage of the application is running, and how quickly old bins are pruned.
+     */
+    private void logLag() {
+        if (coordinator instanceof PeriodicNotificationCoordinatorExecutor) {
+            log.info("{}", ((PeriodicNotificationCoordinatorExecutor) coordinator).getLagMetrics());
+        }
+        log.info("{}", processor.getLagMetrics());
+        log.info("{}", exporter.getLagMetrics());
+        log.info("{}", pruner.getLagMetrics());
+        log.info("{}", pruner.getThroughputMetrics());
+    }
+
     /**
      * @return boolean indicating whether the application is running
      */
@@ -42,6 +42,17 @@ public class PeriodicNotificationApplicationConfiguration extends AccumuloRdfCon
     public static final String EXPORTER_THREADS = RYA_PERIODIC_PREFIX + "exporter.threads";
     public static final String PROCESSOR_THREADS = RYA_PERIODIC_PREFIX + "processor.threads";
     public static final String PRUNER_THREADS = RYA_PERIODIC_PREFIX + "pruner.threads";
+    public static final String EXPORTER_STREAMING = RYA_PERIODIC_PREFIX + "exporter.streaming";
+    public static final String EXPORTER_CHUNK_SIZE = RYA_PERIODIC_PREFIX + "exporter.chunk.size";
+    public static final String EXPORTER_MAX_ATTEMPTS = RYA_PERIODIC_PREFIX + "exporter.max.attempts";
+    public static final String EXPORTER_RETRY_BACKOFF_MILLIS = RYA_PERIODIC_PREFIX + "exporter.retry.backoff.millis";
+    public static final String PRUNER_BATCH_SIZE = RYA_PERIODIC_PREFIX + "pruner.batch.size";
+    public static final String PRUNER_RANGE_DELETE_MIN_BINS = RYA_PERIODIC_PREFIX + "pruner.range.delete.min.bins";
+    public static final String COORDINATOR_TICK_MILLIS = RYA_PERIODIC_PREFIX + "coordinator.tick.millis";
+    public static final String COORDINATOR_WHEEL_SIZE = RYA_PERIODIC_PREFIX + "coordinator.wheel.size";
+    public static final String NOTIFICATION_QUEUE_CAPACITY = RYA_PERIODIC_PREFIX + "notification.queue.capacity";
+    public static final String BIN_QUEUE_CAPACITY = RYA_PERIODIC_PREFIX + "bin.queue.capacity";
+    public static final String BINDING_SET_QUEUE_CAPACITY = RYA_PERIODIC_PREFIX + "bindingset.queue.capacity";
 
     public PeriodicNotificationApplicationConfiguration() {}
 
@@ -62,11 +73,22 @@ public class PeriodicNotificationApplicationConfiguration extends AccumuloRdfCon
      * <li>"rya.periodic.notification.kafka.topic" - Topic to which new Periodic Notifications are published. Default is "notifications".
      * <li>"rya.periodic.notification.kafka.client.id" - Client Id for notification topic.  Default is "consumer0"
      * <li>"rya.periodic.notification.kafka.group.id" - Group Id for notification topic.  Default is "group0"
-     * <li>"rya.periodic.notification.coordinator.threads" - Number of threads used by coordinator. Default is 1.
+     * <li>"rya.periodic.notification.coordinator.threads" - No longer used.  The coordinator is advanced by a single thread.
+     * <li>"rya.periodic.notification.coordinator.tick.millis" - Resolution of the coordinator's timing wheel in milliseconds.  Default is 100.
+     * <li>"rya.periodic.notification.coordinator.wheel.size" - Number of slots in each level of the coordinator's timing wheel.  Default is 512.
      * <li>"rya.periodic.notification.producer.threads" - Number of threads used by producer.  Default is 1.
      * <li>"rya.periodic.notification.exporter.threads" - Number of threads used by exporter.  Default is 1.
      * <li>"rya.periodic.notification.processor.threads" - Number of threads used by processor.  Default is 1.
+     * <li>"rya.periodic.notification.exporter.streaming" - Whether the processor streams results straight to Kafka.  Default is false.
+     * <li>"rya.periodic.notification.exporter.chunk.size" - Number of results streamed to Kafka at a time.  Default is 1000.
+     * <li>"rya.periodic.notification.exporter.max.attempts" - Number of attempts made to stream a bin to Kafka before it is requeued.  Default is 3.
+     * <li>"rya.periodic.notification.exporter.retry.backoff.millis" - Milliseconds to wait before streaming a bin again, doubled with each attempt.  Default is 1000.
      * <li>"rya.periodic.notification.pruner.threads" - Number of threads used by pruner.  Default is 1.
+     * <li>"rya.periodic.notification.pruner.batch.size" - Maximum number of waiting bins pruned together.  Default is 100.
+     * <li>"rya.periodic.notification.pruner.range.delete.min.bins" - Fewest bins of a query pruned together whose results are deleted by row range.  Default is 0, which never deletes by row range.
+     * <li>"rya.periodic.notification.notification.queue.capacity" - Notifications waiting for the processor.  Default is 10000.
+     * <li>"rya.periodic.notification.bin.queue.capacity" - Bins waiting for the pruner.  Default is 10000.
+     * <li>"rya.periodic.notification.bindingset.queue.capacity" - Results waiting for the exporter.  Default is 100000.
      * </ul>
      * <br>
      * @param props - Properties file containing Accumulo specific configuration parameters
@@ -84,6 +106,17 @@ public class PeriodicNotificationApplicationConfiguration extends AccumuloRdfCon
        setExporterThreads(Integer.parseInt(props.getProperty(EXPORTER_THREADS, "1")));
        setPrunerThreads(Integer.parseInt(props.getProperty(PRUNER_THREADS, "1")));
        setCoordinatorThreads(Integer.parseInt(props.getProperty(COORDINATOR_THREADS, "1")));
+       setExporterStreaming(Boolean.parseBoolean(props.getProperty(EXPORTER_STREAMING, "false")));
+       setExporterChunkSize(Integer.parseInt(props.getProperty(EXPORTER_CHUNK_SIZE, "1000")));
+       setExporterMaxAttempts(Integer.parseInt(props.getProperty(EXPORTER_MAX_ATTEMPTS, "3")));
+       setExporterRetryBackoffMillis(Long.parseLong(props.getProperty(EXPORTER_RETRY_BACKOFF_MILLIS, "1000")));
+       setPrunerBatchSize(Integer.parseInt(props.getProperty(PRUNER_BATCH_SIZE, "100")));
+       setPrunerRangeDeleteMinBins(Integer.parseInt(props.getProperty(PRUNER_RANGE_DELETE_MIN_BINS, "0")));
+       setCoordinatorTickMillis(Long.parseLong(props.getProperty(COORDINATOR_TICK_MILLIS, "100")));
+       setCoordinatorWheelSize(Integer.parseInt(props.getProperty(COORDINATOR_WHEEL_SIZE, "512")));
+       setNotificationQueueCapacity(Integer.parseInt(props.getProperty(NOTIFICATION_QUEUE_CAPACITY, "10000")));
+       setBinQueueCapacity(Integer.parseInt(props.getProperty(BIN_QUEUE_CAPACITY, "10000")));
+       setBindingSetQueueCapacity(Integer.parseInt(props.getProperty(BINDING_SET_QUEUE_CAPACITY, "100000")));
     }
 
     /**
@@ -174,6 +207,100 @@ public class PeriodicNotificationApplicationConfiguration extends AccumuloRdfCon
         setInt(PROCESSOR_THREADS, threads);
     }
 
+    /**
+     * Sets whether the processor streams the results of each bin straight to Kafka in chunks, and only
+     * prunes the bin once every chunk has been acknowledged, rather than queueing the results for the exporter
+     * @param streaming
+     */
+    public void setExporterStreaming(final boolean streaming) {
+        setBoolean(EXPORTER_STREAMING, streaming);
+    }
+
+    /**
+     * Sets the number of results that are streamed to Kafka at a time
+     * @param chunkSize
+     */
+    public void setExporterChunkSize(final int chunkSize) {
+        setInt(EXPORTER_CHUNK_SIZE, chunkSize);
+    }
+
+    /**
+     * Sets the number of attempts made to stream a bin to Kafka.  Once every attempt has failed, the bin
+     * is not pruned and its notification is requeued
+     * @param maxAttempts
+     */
+    public void setExporterMaxAttempts(final int maxAttempts) {
+        setInt(EXPORTER_MAX_ATTEMPTS, maxAttempts);
+    }
+
+    /**
+     * Sets the number of milliseconds to wait before streaming a bin to Kafka again.  The backoff is
+     * doubled with each attempt
+     * @param backoffMillis
+     */
+    public void setExporterRetryBackoffMillis(final long backoffMillis) {
+        setLong(EXPORTER_RETRY_BACKOFF_MILLIS, backoffMillis);
+    }
+
+    /**
+     * Sets the maximum number of waiting bins that the bin pruner deletes together.  A batch size of
+     * 1 prunes each bin on its own.
+     * @param batchSize
+     */
+    public void setPrunerBatchSize(final int batchSize) {
+        setInt(PRUNER_BATCH_SIZE, batchSize);
+    }
+
+    /**
+     * Sets the fewest bins of a query that must be pruned together before their results are deleted by
+     * row range, rather than by writing a delete marker for each result.  Deleting by row range requires
+     * the Accumulo user to be able to alter the periodic result tables.  0 never deletes by row range.
+     * @param minBins
+     */
+    public void setPrunerRangeDeleteMinBins(final int minBins) {
+        setInt(PRUNER_RANGE_DELETE_MIN_BINS, minBins);
+    }
+
+    /**
+     * Sets the resolution of the coordinator's timing wheel
+     * @param tickMillis
+     */
+    public void setCoordinatorTickMillis(final long tickMillis) {
+        setLong(COORDINATOR_TICK_MILLIS, tickMillis);
+    }
+
+    /**
+     * Sets the number of slots in each level of the coordinator's timing wheel
+     * @param wheelSize
+     */
+    public void setCoordinatorWheelSize(final int wheelSize) {
+        setInt(COORDINATOR_WHEEL_SIZE, wheelSize);
+    }
+
+    /**
+     * Sets the number of notifications that may wait for the processor
+     * @param capacity
+     */
+    public void setNotificationQueueCapacity(final int capacity) {
+        setInt(NOTIFICATION_QUEUE_CAPACITY, capacity);
+    }
+
+    /**
+     * Sets the number of bins that may wait for the pruner
+     * @param capacity
+     */
+    public void setBinQueueCapacity(final int capacity) {
+        setInt(BIN_QUEUE_CAPACITY, capacity);
+    }
+
+    /**
+     * Sets the number of results that may wait for the exporter
+     * @param capacity
+     */
+    public void setBindingSetQueueCapacity(final int capacity) {
+        setInt(BINDING_SET_QUEUE_CAPACITY, capacity);
+    }
+
     /**
      * @return name of the Fluo application
      */
@@ -251,4 +378,81 @@ public class PeriodicNotificationApplicationConfiguration extends AccumuloRdfCon
         return getInt(PROCESSOR_THREADS, 1);
     }
 
+    /**
+     * @return whether the processor streams results straight to Kafka
+     */
+    public boolean isExporterStreaming() {
+        return getBoolean(EXPORTER_STREAMING, false);
+    }
+
+    /**
+     * @return number of results that are streamed to Kafka at a time
+     */
+    public int getExporterChunkSize() {
+        return getInt(EXPORTER_CHUNK_SIZE, 1000);
+    }
+
+    /**
+     * @return number of attempts made to stream a bin to Kafka
+     */
+    public int getExporterMaxAttempts() {
+        return getInt(EXPORTER_MAX_ATTEMPTS, 3);
+    }
+
+    /**
+     * @return milliseconds to wait before streaming a bin to Kafka again
+     */
+    public long getExporterRetryBackoffMillis() {
+        return getLong(EXPORTER_RETRY_BACKOFF_MILLIS, 1000);
+    }
+
+    /**
+     * @return maximum number of waiting bins that the bin pruner deletes together
+     */
+    public int getPrunerBatchSize() {
+        return getInt(PRUNER_BATCH_SIZE, 100);
+    }
+
+    /**
+     * @return fewest bins of a query pruned together whose results are deleted by row range
+     */
+    public int getPrunerRangeDeleteMinBins() {
+        return getInt(PRUNER_RANGE_DELETE_MIN_BINS, 0);
+    }
+
+    /**
+     * @return resolution of the coordinator's timing wheel in milliseconds
+     */
+    public long getCoordinatorTickMillis() {
+        return getLong(COORDINATOR_TICK_MILLIS, 100);
+    }
+
+    /**
+     * @return number of slots in each level of the coordinator's timing wheel
+     */
+    public int getCoordinatorWheelSize() {
+        return getInt(COORDINATOR_WHEEL_SIZE, 512);
+    }
+
+    /**
+     * @return number of notifications that may wait for the processor
+     */
+    public int getNotificationQueueCapacity() {
+        return getInt(NOTIFICATION_QUEUE_CAPACITY, 10000);
+    }
+
+    /**
+     * @return number of bins that may wait for the pruner
+     */
+    public int getBinQueueCapacity() {
+        return getInt(BIN_QUEUE_CAPACITY, 10000);
+    }
+
+    /**
+     * @return number of results that may wait for the exporter
+     */
+    public int getBindingSetQueueCapacity() {
+        return getInt(BINDING_SET_QUEUE_CAPACITY, 100000);
+    }
+
 }
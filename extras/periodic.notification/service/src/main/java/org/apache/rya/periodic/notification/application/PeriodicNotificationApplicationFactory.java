@@ -39,11 +39,13 @@ import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.rya.indexing.pcj.fluo.app.util.FluoClientFactory;
 import org.apache.rya.indexing.pcj.storage.PeriodicQueryResultStorage;
 import org.apache.rya.indexing.pcj.storage.accumulo.AccumuloPeriodicQueryResultStorage;
+import org.apache.rya.periodic.notification.api.BindingSetExporter;
 import org.apache.rya.periodic.notification.api.BindingSetRecord;
 import org.apache.rya.periodic.notification.api.NodeBin;
 import org.apache.rya.periodic.notification.api.NotificationCoordinatorExecutor;
 import org.apache.rya.periodic.notification.coordinator.PeriodicNotificationCoordinatorExecutor;
 import org.apache.rya.periodic.notification.exporter.KafkaExporterExecutor;
+import org.apache.rya.periodic.notification.exporter.KafkaPeriodicBindingSetExporter;
 import org.apache.rya.periodic.notification.notification.TimestampedNotification;
 import org.apache.rya.periodic.notification.processor.NotificationProcessorExecutor;
 import org.apache.rya.periodic.notification.pruner.PeriodicQueryPrunerExecutor;
@@ -69,19 +71,23 @@ public class PeriodicNotificationApplicationFactory {
         final Properties kafkaConsumerProps = getKafkaConsumerProperties(conf);
         final Properties kafkaProducerProps = getKafkaProducerProperties(conf);
 
-        final BlockingQueue<TimestampedNotification> notifications = new LinkedBlockingQueue<>();
-        final BlockingQueue<NodeBin> bins = new LinkedBlockingQueue<>();
-        final BlockingQueue<BindingSetRecord> bindingSets = new LinkedBlockingQueue<>();
+        // bounded so that a slow stage makes the stages that feed it wait instead of exhausting the heap
+        final BlockingQueue<TimestampedNotification> notifications = new LinkedBlockingQueue<>(conf.getNotificationQueueCapacity());
+        final BlockingQueue<NodeBin> bins = new LinkedBlockingQueue<>(conf.getBinQueueCapacity());
+        final BlockingQueue<BindingSetRecord> bindingSets = new LinkedBlockingQueue<>(conf.getBindingSetQueueCapacity());
 
         FluoClient fluo = null;
         try {
             final PeriodicQueryResultStorage storage = getPeriodicQueryResultStorage(conf);
             fluo = FluoClientFactory.getFluoClient(conf.getFluoAppName(), Optional.of(conf.getFluoTableName()), conf);
-            final NotificationCoordinatorExecutor coordinator = getCoordinator(conf.getCoordinatorThreads(), notifications);
+            final NotificationCoordinatorExecutor coordinator = getCoordinator(conf.getCoordinatorTickMillis(), conf.getCoordinatorWheelSize(), notifications);
             addRegisteredNotices(coordinator, fluo.newSnapshot());
-            final KafkaExporterExecutor exporter = getExporter(conf.getExporterThreads(), kafkaProducerProps, bindingSets);
-            final PeriodicQueryPrunerExecutor pruner = getPruner(storage, fluo, conf.getPrunerThreads(), bins);
-            final NotificationProcessorExecutor processor = getProcessor(storage, notifications, bins, bindingSets, conf.getProcessorThreads());
+            final KafkaProducer<String, BindingSet> producer = new KafkaProducer<>(kafkaProducerProps, new StringSerializer(), new BindingSetSerDe());
+            final KafkaExporterExecutor exporter = getExporter(conf.getExporterThreads(), producer, bindingSets);
+            final PeriodicQueryPrunerExecutor pruner = getPruner(storage, fluo, conf.getPrunerThreads(), conf.getPrunerBatchSize(), bins);
+            final NotificationProcessorExecutor processor = getProcessor(storage, notifications, bins, bindingSets, conf.getProcessorThreads(),
+                    getStreamingExporter(conf, producer, bindingSets), conf.getExporterChunkSize(), conf.getExporterMaxAttempts(),
+                    conf.getExporterRetryBackoffMillis());
             final KafkaNotificationProvider provider = getProvider(conf.getProducerThreads(), conf.getNotificationTopic(), coordinator, kafkaConsumerProps);
             return PeriodicNotificationApplication.builder().setCoordinator(coordinator).setProvider(provider).setExporter(exporter)
                     .setProcessor(processor).setPruner(pruner).build();
@@ -96,24 +102,35 @@ public class PeriodicNotificationApplicationFactory {
         provider.processRegisteredNotifications(coord, sx);
     }
 
-    private static NotificationCoordinatorExecutor getCoordinator(final int numThreads, final BlockingQueue<TimestampedNotification> notifications) {
-        return new PeriodicNotificationCoordinatorExecutor(numThreads, notifications);
+    private static NotificationCoordinatorExecutor getCoordinator(final long tickMillis, final int wheelSize,
+            final BlockingQueue<TimestampedNotification> notifications) {
+        return new PeriodicNotificationCoordinatorExecutor(notifications, tickMillis, wheelSize);
     }
 
-    private static KafkaExporterExecutor getExporter(final int numThreads, final Properties props, final BlockingQueue<BindingSetRecord> bindingSets) {
-        final KafkaProducer<String, BindingSet> producer = new KafkaProducer<>(props, new StringSerializer(), new BindingSetSerDe());
+    private static KafkaExporterExecutor getExporter(final int numThreads, final KafkaProducer<String, BindingSet> producer,
+            final BlockingQueue<BindingSetRecord> bindingSets) {
         return new KafkaExporterExecutor(producer, numThreads, bindingSets);
     }
 
+    private static Optional<BindingSetExporter> getStreamingExporter(final PeriodicNotificationApplicationConfiguration conf,
+            final KafkaProducer<String, BindingSet> producer, final BlockingQueue<BindingSetRecord> bindingSets) {
+        if (conf.isExporterStreaming()) {
+            return Optional.of(new KafkaPeriodicBindingSetExporter(producer, 0, bindingSets));
+        }
+        return Optional.empty();
+    }
+
     private static PeriodicQueryPrunerExecutor getPruner(final PeriodicQueryResultStorage storage, final FluoClient fluo, final int numThreads,
-            final BlockingQueue<NodeBin> bins) {
-        return new PeriodicQueryPrunerExecutor(storage, fluo, numThreads, bins);
+            final int batchSize, final BlockingQueue<NodeBin> bins) {
+        return new PeriodicQueryPrunerExecutor(storage, fluo, numThreads, batchSize, bins);
     }
 
     private static NotificationProcessorExecutor getProcessor(final PeriodicQueryResultStorage periodicStorage,
             final BlockingQueue<TimestampedNotification> notifications, final BlockingQueue<NodeBin> bins, final BlockingQueue<BindingSetRecord> bindingSets,
-            final int numThreads) {
-        return new NotificationProcessorExecutor(periodicStorage, notifications, bins, bindingSets, numThreads);
+            final int numThreads, final Optional<BindingSetExporter> exporter, final int exportChunkSize, final int maxExportAttempts,
+            final long exportRetryBackoffMs) {
+        return new NotificationProcessorExecutor(periodicStorage, notifications, bins, bindingSets, numThreads, exporter, exportChunkSize,
+                maxExportAttempts, exportRetryBackoffMs);
     }
 
     private static KafkaNotificationProvider getProvider(final int numThreads, final String topic, final NotificationCoordinatorExecutor coord,
@@ -127,7 +144,7 @@ public class PeriodicNotificationApplicationFactory {
         final Instance instance = new ZooKeeperInstance(conf.getAccumuloInstance(), conf.getAccumuloZookeepers());
         final Connector conn = instance.getConnector(conf.getAccumuloUser(), new PasswordToken(conf.getAccumuloPassword()));
         final String ryaInstance = conf.getTablePrefix();
-        return new AccumuloPeriodicQueryResultStorage(conn, ryaInstance);
+        return new AccumuloPeriodicQueryResultStorage(conn, ryaInstance, conf.getPrunerRangeDeleteMinBins());
     }
 
     private static Properties getKafkaConsumerProperties(final PeriodicNotificationApplicationConfiguration conf) {
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.coordinator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A hierarchical timing wheel that holds items until the time they are due.
+ * <p>
+ * The lowest wheel is divided into {@code wheelSize} slots that each cover one
+ * tick of time. Items that are due further away than the lowest wheel covers
+ * are held by an overflow wheel whose ticks span the whole of the wheel below
+ * it, and are moved down a level each time the wheel below comes around to
+ * them. Scheduling an item and advancing the wheel by one tick are constant
+ * time operations, no matter how many items are held.
+ * <p>
+ * Deadlines are rounded up to the next tick, so an item is never returned
+ * before it is due, and all of the items that are due within the same tick are
+ * returned together by a single call to {@link #advance(long)}.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @param <T> - the type of the items held by the wheel
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long intervalMillis;
+    private final List<List<Timeout<T>>> slots;
+    private final List<Timeout<T>> overdue = new ArrayList<>();
+    private long currentTime;
+    private HierarchicalTimingWheel<T> overflow;
+
+    /**
+     * Creates a HierarchicalTimingWheel.
+     * @param tickMillis - the number of milliseconds covered by each slot of the lowest wheel
+     * @param wheelSize - the number of slots in each wheel
+     * @param startMillis - the time at which the wheel starts
+     */
+    public HierarchicalTimingWheel(final long tickMillis, final int wheelSize, final long startMillis) {
+        Preconditions.checkArgument(tickMillis > 0, "The tick must be a positive number of milliseconds.");
+        Preconditions.checkArgument(wheelSize > 1, "The wheel must have more than one slot.");
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.intervalMillis = tickMillis * wheelSize;
+        this.currentTime = startMillis - (startMillis % tickMillis);
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedules an item. An item whose deadline has already passed is returned
+     * by the next call to {@link #advance(long)}.
+     * @param item - the item to schedule
+     * @param deadlineMillis - the time at which the item is due
+     */
+    public void schedule(final T item, final long deadlineMillis) {
+        Preconditions.checkNotNull(item);
+        final long expiration = ((deadlineMillis + tickMillis - 1) / tickMillis) * tickMillis;
+        final Timeout<T> timeout = new Timeout<>(item, deadlineMillis, expiration);
+        if (!insert(timeout)) {
+            overdue.add(timeout);
+        }
+    }
+
+    /**
+     * Moves the wheel forward to the indicated time.
+     * @param timeMillis - the current time
+     * @return the items that became due, grouped by the tick in which they became due
+     */
+    public List<Timeout<T>> advance(final long timeMillis) {
+        final List<Timeout<T>> due = new ArrayList<>(overdue);
+        overdue.clear();
+        due.addAll(advanceClock(timeMillis));
+        return due;
+    }
+
+    /**
+     * @return the time of the most recent tick that the wheel has advanced to
+     */
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * Adds a timeout to this wheel or one of the wheels above it.
+     * @return {@code false} if the timeout expires before the next tick of this wheel
+     */
+    private boolean insert(final Timeout<T> timeout) {
+        final long expiration = timeout.expiration;
+        if (expiration < currentTime + tickMillis) {
+            return false;
+        } else if (expiration < currentTime + intervalMillis) {
+            slots.get(slotIndex(expiration)).add(timeout);
+        } else {
+            if (overflow == null) {
+                overflow = new HierarchicalTimingWheel<>(intervalMillis, wheelSize, currentTime);
+            }
+            overflow.insert(timeout);
+        }
+        return true;
+    }
+
+    /**
+     * Moves this wheel forward one tick at a time, cascading the timeouts held by
+     * the overflow wheel down into this one as it comes around to them.
+     * @return the timeouts that expire before the next tick of this wheel
+     */
+    private List<Timeout<T>> advanceClock(final long timeMillis) {
+        final List<Timeout<T>> expired = new ArrayList<>();
+        while (currentTime + tickMillis <= timeMillis) {
+            currentTime += tickMillis;
+            if (overflow != null) {
+                for (final Timeout<T> timeout : overflow.advanceClock(currentTime)) {
+                    if (!insert(timeout)) {
+                        expired.add(timeout);
+                    }
+                }
+            }
+            final List<Timeout<T>> slot = slots.get(slotIndex(currentTime));
+            expired.addAll(slot);
+            slot.clear();
+        }
+        return expired;
+    }
+
+    private int slotIndex(final long time) {
+        return (int) ((time / tickMillis) % wheelSize);
+    }
+
+    /**
+     * An item held by a {@link HierarchicalTimingWheel} along with the time it is due.
+     *
+     * @param <T> - the type of the item
+     */
+    public static class Timeout<T> {
+        private final T item;
+        private final long deadline;
+        private final long expiration;
+
+        private Timeout(final T item, final long deadline, final long expiration) {
+            this.item = item;
+            this.deadline = deadline;
+            this.expiration = expiration;
+        }
+
+        /**
+         * @return the item that is due
+         */
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * @return the time at which the item was scheduled to be due
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
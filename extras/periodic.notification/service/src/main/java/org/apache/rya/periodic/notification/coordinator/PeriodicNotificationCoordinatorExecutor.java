@@ -18,18 +18,22 @@
  */
 package org.apache.rya.periodic.notification.coordinator;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.rya.periodic.notification.api.Notification;
 import org.apache.rya.periodic.notification.api.NotificationCoordinatorExecutor;
 import org.apache.rya.periodic.notification.api.NotificationProcessor;
+import org.apache.rya.periodic.notification.coordinator.HierarchicalTimingWheel.Timeout;
+import org.apache.rya.periodic.notification.metrics.StageLagMetrics;
 import org.apache.rya.periodic.notification.notification.CommandNotification;
 import org.apache.rya.periodic.notification.notification.PeriodicNotification;
 import org.apache.rya.periodic.notification.notification.TimestampedNotification;
@@ -43,21 +47,50 @@ import com.google.common.base.Preconditions;
  * Implementation of {@link NotificationCoordinatorExecutor} that generates regular notifications
  * as indicated by {@link PeriodicNotification}s that are registered with this Object. When notifications
  * are generated they are placed on a work queue to be processed by the {@link NotificationProcessor}.
- *
+ * <p>
+ * The registered notifications are held by a {@link HierarchicalTimingWheel} that is advanced by a
+ * single thread, so the cost of the coordinator does not grow with the number of registered
+ * notifications, and all of the notifications that are due within the same tick are generated
+ * together. Each generated notification is stamped with the time it was due rather than the time
+ * it was generated. If the work queue is bounded and full, the coordinator waits for room before
+ * generating any more notifications.
  */
 public class PeriodicNotificationCoordinatorExecutor implements NotificationCoordinatorExecutor {
 
     private static final Logger LOG = LoggerFactory.getLogger(PeriodicNotificationCoordinatorExecutor.class);
-    private int numThreads;
-    private ScheduledExecutorService producerThreadPool;
-    private Map<String, ScheduledFuture<?>> serviceMap = new HashMap<>();
+    public static final long DEFAULT_TICK_MILLIS = 100;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long tickMillis;
+    private final HierarchicalTimingWheel<PeriodicNotification> wheel;
+    private final StageLagMetrics lagMetrics = new StageLagMetrics("coordinator");
+    private ScheduledExecutorService tickThread;
+    private Map<String, PeriodicNotification> serviceMap = new HashMap<>();
     private BlockingQueue<TimestampedNotification> notifications;
     private final ReentrantLock lock = new ReentrantLock(true);
     private boolean running = false;
 
+    /**
+     * Creates a PeriodicNotificationCoordinatorExecutor that uses the default tick and wheel size.
+     * @param numThreads - no longer used, the timing wheel is advanced by a single thread
+     * @param notifications - work queue that generated notifications are placed on
+     * @deprecated use {@link #PeriodicNotificationCoordinatorExecutor(BlockingQueue, long, int)}
+     */
+    @Deprecated
     public PeriodicNotificationCoordinatorExecutor(int numThreads, BlockingQueue<TimestampedNotification> notifications) {
-        this.numThreads = numThreads;
-        this.notifications = notifications;
+        this(notifications, DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Creates a PeriodicNotificationCoordinatorExecutor.
+     * @param notifications - work queue that generated notifications are placed on
+     * @param tickMillis - resolution of the timing wheel in milliseconds
+     * @param wheelSize - number of slots in each level of the timing wheel
+     */
+    public PeriodicNotificationCoordinatorExecutor(BlockingQueue<TimestampedNotification> notifications, long tickMillis, int wheelSize) {
+        this.notifications = Preconditions.checkNotNull(notifications);
+        this.tickMillis = tickMillis;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
     }
 
     @Override
@@ -73,7 +106,8 @@ public class PeriodicNotificationCoordinatorExecutor implements NotificationCoor
     @Override
     public void start() {
         if (!running) {
-            producerThreadPool = Executors.newScheduledThreadPool(numThreads);
+            tickThread = Executors.newSingleThreadScheduledExecutor();
+            tickThread.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
             running = true;
         }
     }
@@ -81,21 +115,28 @@ public class PeriodicNotificationCoordinatorExecutor implements NotificationCoor
     @Override
     public void stop() {
 
-        if (producerThreadPool != null) {
-            producerThreadPool.shutdown();
+        if (tickThread != null) {
+            tickThread.shutdown();
         }
 
         running = false;
 
         try {
-            if (!producerThreadPool.awaitTermination(5000, TimeUnit.MILLISECONDS)) {
-                producerThreadPool.shutdownNow();
+            if (!tickThread.awaitTermination(5000, TimeUnit.MILLISECONDS)) {
+                tickThread.shutdownNow();
             }
         } catch (Exception e) {
             LOG.info("Service Executor Shutdown has been called.  Terminating NotificationRunnable");
         }
     }
 
+    /**
+     * @return lag between the time each notification was due and the time it was placed on the work queue
+     */
+    public StageLagMetrics getLagMetrics() {
+        return lagMetrics;
+    }
+
     private void processNotification(CommandNotification notification) {
         Command command = notification.getCommand();
         Notification periodic = notification.getNotification();
@@ -113,43 +154,50 @@ public class PeriodicNotificationCoordinatorExecutor implements NotificationCoor
         Preconditions.checkArgument(notification instanceof PeriodicNotification);
         PeriodicNotification notify = (PeriodicNotification) notification;
         if (!serviceMap.containsKey(notification.getId())) {
-            ScheduledFuture<?> future = producerThreadPool.scheduleAtFixedRate(new NotificationProducer(notify), notify.getInitialDelay(),
-                    notify.getPeriod(), notify.getTimeUnit());
-            serviceMap.put(notify.getId(), future);
+            long delay = notify.getTimeUnit().toMillis(notify.getInitialDelay());
+            wheel.schedule(notify, System.currentTimeMillis() + delay);
+            serviceMap.put(notify.getId(), notify);
         }
     }
 
     private boolean deleteNotification(Notification notification) {
-        if (serviceMap.containsKey(notification.getId())) {
-            ScheduledFuture<?> future = serviceMap.remove(notification.getId());
-            future.cancel(true);
-            return true;
-        }
-        return false;
+        // The notification is left in the wheel and dropped the next time it is due.
+        return serviceMap.remove(notification.getId()) != null;
     }
 
     /**
-     * Scheduled Task that places a {@link PeriodicNotification}
-     * in the work queue at regular intervals. 
-     *
+     * Advances the timing wheel to the current time, reschedules every notification that
+     * became due for its next period, and places them on the work queue. The lock is not
+     * held while waiting for room on the work queue, so new notifications can still be
+     * registered while the processors catch up.
      */
-    class NotificationProducer implements Runnable {
-
-        private PeriodicNotification notification;
-
-        public NotificationProducer(PeriodicNotification notification) {
-            this.notification = notification;
-        }
-
-        public void run() {
+    private void tick() {
+        try {
+            List<TimestampedNotification> due = new ArrayList<>();
+            lock.lock();
             try {
-                notifications.put(new TimestampedNotification(notification));
-            } catch (InterruptedException e) {
-                LOG.info("Unable to add notification.  Process interrupted. ");
-                throw new RuntimeException(e);
+                for (Timeout<PeriodicNotification> timeout : wheel.advance(System.currentTimeMillis())) {
+                    PeriodicNotification notify = timeout.getItem();
+                    // skip notifications that were deleted, or deleted and registered again
+                    if (serviceMap.get(notify.getId()) == notify) {
+                        due.add(new TimestampedNotification(notify, new Date(timeout.getDeadline())));
+                        wheel.schedule(notify, timeout.getDeadline() + notify.getTimeUnit().toMillis(notify.getPeriod()));
+                    }
+                }
+            } finally {
+                lock.unlock();
             }
-        }
 
+            for (TimestampedNotification notification : due) {
+                notifications.put(notification);
+                lagMetrics.record(System.currentTimeMillis() - notification.getTimestamp().getTime());
+            }
+        } catch (InterruptedException e) {
+            LOG.info("Unable to add notification.  Process interrupted. ");
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to generate notifications.", e);
+        }
     }
 
     @Override
@@ -29,6 +29,7 @@ import java.util.concurrent.TimeUnit;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.rya.periodic.notification.api.BindingSetRecord;
 import org.apache.rya.periodic.notification.api.LifeCycle;
+import org.apache.rya.periodic.notification.metrics.StageLagMetrics;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +46,7 @@ public class KafkaExporterExecutor implements LifeCycle {
     private ExecutorService executor;
     private final List<KafkaPeriodicBindingSetExporter> exporters;
     private final int numThreads;
+    private final StageLagMetrics lagMetrics = new StageLagMetrics("exporter");
     private boolean running = false;
 
     /**
@@ -67,7 +69,7 @@ public class KafkaExporterExecutor implements LifeCycle {
 
             for (int threadNumber = 0; threadNumber < numThreads; threadNumber++) {
                 log.info("Creating exporter: {}", threadNumber);
-                final KafkaPeriodicBindingSetExporter exporter = new KafkaPeriodicBindingSetExporter(producer, threadNumber, bindingSets);
+                final KafkaPeriodicBindingSetExporter exporter = new KafkaPeriodicBindingSetExporter(producer, threadNumber, bindingSets, lagMetrics);
                 exporters.add(exporter);
                 executor.submit(exporter);
             }
@@ -100,6 +102,13 @@ public class KafkaExporterExecutor implements LifeCycle {
         }
     }
 
+    /**
+     * @return lag between the time each result was read and the time it was exported
+     */
+    public StageLagMetrics getLagMetrics() {
+        return lagMetrics;
+    }
+
     @Override
     public boolean currentlyRunning() {
         return running;
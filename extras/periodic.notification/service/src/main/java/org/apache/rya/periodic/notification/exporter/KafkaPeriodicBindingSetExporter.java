@@ -18,6 +18,9 @@
  */
 package org.apache.rya.periodic.notification.exporter;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Future;
@@ -31,6 +34,7 @@ import org.apache.rya.indexing.pcj.fluo.app.IncrementalUpdateConstants;
 import org.apache.rya.periodic.notification.api.BindingSetExporter;
 import org.apache.rya.periodic.notification.api.BindingSetRecord;
 import org.apache.rya.periodic.notification.api.BindingSetRecordExportException;
+import org.apache.rya.periodic.notification.metrics.StageLagMetrics;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.slf4j.Logger;
@@ -48,12 +52,19 @@ public class KafkaPeriodicBindingSetExporter implements BindingSetExporter, Runn
     private final BlockingQueue<BindingSetRecord> bindingSets;
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final int threadNumber;
+    private final StageLagMetrics lagMetrics;
 
     public KafkaPeriodicBindingSetExporter(final KafkaProducer<String, BindingSet> producer, final int threadNumber,
             final BlockingQueue<BindingSetRecord> bindingSets) {
+        this(producer, threadNumber, bindingSets, new StageLagMetrics("exporter"));
+    }
+
+    public KafkaPeriodicBindingSetExporter(final KafkaProducer<String, BindingSet> producer, final int threadNumber,
+            final BlockingQueue<BindingSetRecord> bindingSets, final StageLagMetrics lagMetrics) {
         this.threadNumber = threadNumber;
         this.producer = Objects.requireNonNull(producer);
         this.bindingSets = Objects.requireNonNull(bindingSets);
+        this.lagMetrics = Objects.requireNonNull(lagMetrics);
     }
 
     /**
@@ -79,11 +90,37 @@ public class KafkaPeriodicBindingSetExporter implements BindingSetExporter, Runn
         }
     }
 
+    /**
+     * Exports a chunk of BindingSets to Kafka.  Every BindingSet in the chunk is sent before
+     * waiting for Kafka to acknowledge them, so the chunk is published without a round trip
+     * per BindingSet.
+     */
+    @Override
+    public void exportBindingSets(final String topic, final Collection<BindingSet> bindingSets) throws BindingSetRecordExportException {
+        try {
+            log.info("Exporting {} results to Kafka to topic: {}", bindingSets.size(), topic);
+            final String bindingName = IncrementalUpdateConstants.PERIODIC_BIN_ID;
+            final List<Future<RecordMetadata>> futures = new ArrayList<>(bindingSets.size());
+            for (final BindingSet bindingSet : bindingSets) {
+                final long binId = ((Literal) bindingSet.getValue(bindingName)).longValue();
+                futures.add(producer.send(new ProducerRecord<String, BindingSet>(topic, Long.toString(binId), bindingSet)));
+            }
+            //wait for confirmation that results have been received
+            for (final Future<RecordMetadata> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } catch (final Exception e) {  // catch all possible exceptional behavior and throw as our checked exception.
+            throw new BindingSetRecordExportException(e.getMessage(), e);
+        }
+    }
+
     @Override
     public void run() {
         try {
             while (!closed.get()) {
-                exportNotification(bindingSets.take());
+                final BindingSetRecord record = bindingSets.take();
+                lagMetrics.record(System.currentTimeMillis() - record.getCreationTime());
+                exportNotification(record);
             }
         } catch (InterruptedException | BindingSetRecordExportException e) {
             log.warn("Thread " + threadNumber + " is unable to process message.", e);
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks how quickly the bin pruners of the Periodic Notification Service remove
+ * processed bins. This class is thread safe, so the pruner threads may share one
+ * instance.
+ */
+public class PruningThroughputMetrics {
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder bins = new LongAdder();
+    private final LongAdder pruneNanos = new LongAdder();
+
+    /**
+     * Records one batch of pruned bins.
+     * @param binCount - the number of bins that were pruned
+     * @param elapsedNanos - the time it took to prune them
+     */
+    public void record(final int binCount, final long elapsedNanos) {
+        batches.increment();
+        bins.add(binCount);
+        pruneNanos.add(elapsedNanos);
+    }
+
+    /**
+     * @return the number of batches that have been pruned
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return the number of bins that have been pruned
+     */
+    public long getBinCount() {
+        return bins.sum();
+    }
+
+    /**
+     * @return the average number of bins pruned per batch, or 0 if nothing has been pruned
+     */
+    public double getMeanBatchSize() {
+        final long n = batches.sum();
+        return n == 0 ? 0 : (double) bins.sum() / n;
+    }
+
+    /**
+     * @return the number of bins pruned per second spent pruning, or 0 if nothing has been pruned
+     */
+    public double getBinsPerSecond() {
+        final long nanos = pruneNanos.sum();
+        return nanos == 0 ? 0 : bins.sum() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pruner throughput: bins=%d, batches=%d, mean batch=%.1f, bins/s=%.1f", getBinCount(), getBatchCount(),
+                getMeanBatchSize(), getBinsPerSecond());
+    }
+}
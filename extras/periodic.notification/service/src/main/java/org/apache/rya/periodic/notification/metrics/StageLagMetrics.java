@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.metrics;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks how far behind one stage of the Periodic Notification Service is
+ * running. The lag of a piece of work is the number of milliseconds between the
+ * time it was handed to the stage and the time the stage picked it up. This
+ * class is thread safe, so the worker threads of a stage may share one instance.
+ */
+public class StageLagMetrics {
+
+    private final String stage;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalLag = new LongAdder();
+    private final AtomicLong maxLag = new AtomicLong();
+    private volatile long lastLag = 0;
+
+    /**
+     * Creates a StageLagMetrics.
+     * @param stage - the name of the stage whose lag is tracked
+     */
+    public StageLagMetrics(final String stage) {
+        this.stage = Objects.requireNonNull(stage);
+    }
+
+    /**
+     * Records the lag of one piece of work.
+     * @param lagMillis - milliseconds between the time the work was handed to the stage and now
+     */
+    public void record(final long lagMillis) {
+        final long lag = Math.max(0, lagMillis);
+        count.increment();
+        totalLag.add(lag);
+        lastLag = lag;
+        maxLag.accumulateAndGet(lag, Math::max);
+    }
+
+    /**
+     * @return the name of the stage whose lag is tracked
+     */
+    public String getStage() {
+        return stage;
+    }
+
+    /**
+     * @return the number of pieces of work that have been recorded
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the lag of the most recently recorded piece of work
+     */
+    public long getLastLagMillis() {
+        return lastLag;
+    }
+
+    /**
+     * @return the largest lag that has been recorded
+     */
+    public long getMaxLagMillis() {
+        return maxLag.get();
+    }
+
+    /**
+     * @return the average lag of the recorded work, or 0 if none has been recorded
+     */
+    public double getMeanLagMillis() {
+        final long n = count.sum();
+        return n == 0 ? 0 : (double) totalLag.sum() / n;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s lag: count=%d, last=%dms, mean=%.1fms, max=%dms", stage, getCount(), getLastLagMillis(),
+                getMeanLagMillis(), getMaxLagMillis());
+    }
+}
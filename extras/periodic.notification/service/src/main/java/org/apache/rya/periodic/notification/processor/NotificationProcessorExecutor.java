@@ -21,15 +21,18 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.rya.indexing.pcj.storage.PeriodicQueryResultStorage;
+import org.apache.rya.periodic.notification.api.BindingSetExporter;
 import org.apache.rya.periodic.notification.api.BindingSetRecord;
 import org.apache.rya.periodic.notification.api.LifeCycle;
 import org.apache.rya.periodic.notification.api.NodeBin;
+import org.apache.rya.periodic.notification.metrics.StageLagMetrics;
 import org.apache.rya.periodic.notification.notification.TimestampedNotification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +60,11 @@ public class NotificationProcessorExecutor implements LifeCycle {
     private final PeriodicQueryResultStorage periodicStorage;
     private final List<TimestampedNotificationProcessor> processors;
     private final int numberThreads;
+    private final Optional<BindingSetExporter> exporter;
+    private final int exportChunkSize;
+    private final int maxExportAttempts;
+    private final long exportRetryBackoffMs;
+    private final StageLagMetrics lagMetrics = new StageLagMetrics("processor");
     private ExecutorService executor;
     private boolean running = false;
 
@@ -70,11 +78,50 @@ public class NotificationProcessorExecutor implements LifeCycle {
      */
     public NotificationProcessorExecutor(final PeriodicQueryResultStorage periodicStorage, final BlockingQueue<TimestampedNotification> notifications,
             final BlockingQueue<NodeBin> bins, final BlockingQueue<BindingSetRecord> bindingSets, final int numberThreads) {
+        this(periodicStorage, notifications, bins, bindingSets, numberThreads, Optional.empty(), 1);
+    }
+
+    /**
+     * Creates NotificationProcessorExecutor.
+     * @param periodicStorage - storage layer that periodic results are read from
+     * @param notifications - notifications are pulled from this queue, and the timestamp indicates which bin of results to query for
+     * @param bins - after notifications are processed, they are added to the bin to be deleted
+     * @param bindingSets - results read from the storage layer to be exported, if no exporter is given
+     * @param numberThreads - number of threads used for processing
+     * @param exporter - if present, results are streamed to this exporter instead of being added to bindingSets
+     * @param exportChunkSize - number of results streamed to the exporter at a time
+     */
+    public NotificationProcessorExecutor(final PeriodicQueryResultStorage periodicStorage, final BlockingQueue<TimestampedNotification> notifications,
+            final BlockingQueue<NodeBin> bins, final BlockingQueue<BindingSetRecord> bindingSets, final int numberThreads,
+            final Optional<BindingSetExporter> exporter, final int exportChunkSize) {
+        this(periodicStorage, notifications, bins, bindingSets, numberThreads, exporter, exportChunkSize, 3, 1000);
+    }
+
+    /**
+     * Creates NotificationProcessorExecutor.
+     * @param periodicStorage - storage layer that periodic results are read from
+     * @param notifications - notifications are pulled from this queue, and the timestamp indicates which bin of results to query for
+     * @param bins - after notifications are processed, they are added to the bin to be deleted
+     * @param bindingSets - results read from the storage layer to be exported, if no exporter is given
+     * @param numberThreads - number of threads used for processing
+     * @param exporter - if present, results are streamed to this exporter instead of being added to bindingSets
+     * @param exportChunkSize - number of results streamed to the exporter at a time
+     * @param maxExportAttempts - number of attempts made to export each bin before its notification is requeued
+     * @param exportRetryBackoffMs - milliseconds to wait before exporting a bin again, doubled with each attempt
+     */
+    public NotificationProcessorExecutor(final PeriodicQueryResultStorage periodicStorage, final BlockingQueue<TimestampedNotification> notifications,
+            final BlockingQueue<NodeBin> bins, final BlockingQueue<BindingSetRecord> bindingSets, final int numberThreads,
+            final Optional<BindingSetExporter> exporter, final int exportChunkSize, final int maxExportAttempts,
+            final long exportRetryBackoffMs) {
         this.notifications = Objects.requireNonNull(notifications);
         this.bins = Objects.requireNonNull(bins);
         this.bindingSets = Objects.requireNonNull(bindingSets);
         this.periodicStorage = periodicStorage;
         this.numberThreads = numberThreads;
+        this.exporter = Objects.requireNonNull(exporter);
+        this.exportChunkSize = exportChunkSize;
+        this.maxExportAttempts = maxExportAttempts;
+        this.exportRetryBackoffMs = exportRetryBackoffMs;
         processors = new ArrayList<>();
     }
 
@@ -86,7 +133,8 @@ public class NotificationProcessorExecutor implements LifeCycle {
                 log.info("Creating processor for thread: {}", threadNumber);
                 final TimestampedNotificationProcessor processor = TimestampedNotificationProcessor.builder().setBindingSets(bindingSets)
                         .setBins(bins).setPeriodicStorage(periodicStorage).setNotifications(notifications).setThreadNumber(threadNumber)
-                        .build();
+                        .setLagMetrics(lagMetrics).setExporter(exporter.orElse(null)).setExportChunkSize(exportChunkSize)
+                        .setMaxExportAttempts(maxExportAttempts).setExportRetryBackoffMs(exportRetryBackoffMs).build();
                 processors.add(processor);
                 executor.submit(processor);
             }
@@ -113,6 +161,13 @@ public class NotificationProcessorExecutor implements LifeCycle {
         }
     }
 
+    /**
+     * @return lag between the time each notification was due and the time it was processed
+     */
+    public StageLagMetrics getLagMetrics() {
+        return lagMetrics;
+    }
+
     @Override
     public boolean currentlyRunning() {
         return running;
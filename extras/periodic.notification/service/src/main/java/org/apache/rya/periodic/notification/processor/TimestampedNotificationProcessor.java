@@ -18,6 +18,8 @@
  */
 package org.apache.rya.periodic.notification.processor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -25,10 +27,13 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.rya.indexing.pcj.storage.PeriodicQueryResultStorage;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage.CloseableIterator;
 import org.apache.rya.periodic.notification.api.BinPruner;
+import org.apache.rya.periodic.notification.api.BindingSetExporter;
 import org.apache.rya.periodic.notification.api.BindingSetRecord;
+import org.apache.rya.periodic.notification.api.BindingSetRecordExportException;
 import org.apache.rya.periodic.notification.api.NodeBin;
 import org.apache.rya.periodic.notification.api.NotificationProcessor;
 import org.apache.rya.periodic.notification.exporter.KafkaPeriodicBindingSetExporter;
+import org.apache.rya.periodic.notification.metrics.StageLagMetrics;
 import org.apache.rya.periodic.notification.notification.TimestampedNotification;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.slf4j.Logger;
@@ -43,7 +48,16 @@ import com.google.common.base.Preconditions;
  * Periodic Query. The TimestampedNotificationProcessor then parses the results
  * and adds them to work queues to be processed by the {@link BinPruner} and the
  * {@link KafkaPeriodicBindingSetExporter}.
- *
+ * <p>
+ * If the processor is given a {@link BindingSetExporter}, the results are
+ * instead streamed straight to the exporter in chunks of at most
+ * {@code exportChunkSize} results, so no more than one chunk of a bin is held
+ * in memory. The bin is only queued for pruning once every chunk has been
+ * acknowledged by the exporter. If a chunk cannot be exported, the whole bin is
+ * exported again after a backoff that doubles with each attempt, so the chunks
+ * that were already exported may be delivered more than once. Once
+ * {@code maxExportAttempts} have failed, the bin is not pruned and its
+ * notification is queued again so that the bin is exported later.
  */
 public class TimestampedNotificationProcessor implements NotificationProcessor, Runnable {
 
@@ -66,16 +80,40 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
     private final BlockingQueue<BindingSetRecord> bindingSets;
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final int threadNumber;
+    private final StageLagMetrics lagMetrics;
+
+    /**
+     * exports results directly when present, otherwise results are added to bindingSets
+     */
+    private final Optional<BindingSetExporter> exporter;
+    private final int exportChunkSize;
+    private final int maxExportAttempts;
+    private final long exportRetryBackoffMs;
 
 
     public TimestampedNotificationProcessor(final PeriodicQueryResultStorage periodicStorage,
             final BlockingQueue<TimestampedNotification> notifications, final BlockingQueue<NodeBin> bins, final BlockingQueue<BindingSetRecord> bindingSets,
             final int threadNumber) {
+        this(periodicStorage, notifications, bins, bindingSets, threadNumber, new StageLagMetrics("processor"), Optional.empty(), 1, 1, 0);
+    }
+
+    public TimestampedNotificationProcessor(final PeriodicQueryResultStorage periodicStorage,
+            final BlockingQueue<TimestampedNotification> notifications, final BlockingQueue<NodeBin> bins, final BlockingQueue<BindingSetRecord> bindingSets,
+            final int threadNumber, final StageLagMetrics lagMetrics, final Optional<BindingSetExporter> exporter, final int exportChunkSize,
+            final int maxExportAttempts, final long exportRetryBackoffMs) {
+        Preconditions.checkArgument(exportChunkSize > 0);
+        Preconditions.checkArgument(maxExportAttempts > 0);
+        Preconditions.checkArgument(exportRetryBackoffMs >= 0);
         this.notifications = Preconditions.checkNotNull(notifications);
         this.bins = Preconditions.checkNotNull(bins);
         this.bindingSets = Preconditions.checkNotNull(bindingSets);
         this.periodicStorage = periodicStorage;
         this.threadNumber = threadNumber;
+        this.lagMetrics = Preconditions.checkNotNull(lagMetrics);
+        this.exporter = Preconditions.checkNotNull(exporter);
+        this.exportChunkSize = exportChunkSize;
+        this.maxExportAttempts = maxExportAttempts;
+        this.exportRetryBackoffMs = exportRetryBackoffMs;
     }
 
     /**
@@ -84,7 +122,10 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
      * {@link TimestampedNotification#getTimestamp()} and adding them to the
      * export BlockingQueue. The TimestampNotification is then used to form a
      * {@link NodeBin} that is passed to the BinPruner BlockingQueue so that the
-     * bins can be deleted from Fluo and Accumulo.
+     * bins can be deleted from Fluo and Accumulo. If either queue is full, this
+     * method waits until there is room. When streaming to an exporter, the
+     * results are exported directly instead of being added to the export queue,
+     * and the export is retried if it fails.
      */
     @Override
     public void processNotification(final TimestampedNotification notification) {
@@ -95,19 +136,79 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
         final long bin = getBinFromTimestamp(ts, period);
         final NodeBin nodeBin = new NodeBin(id, bin);
 
-        try (CloseableIterator<BindingSet> iter = periodicStorage.listResults(id, Optional.of(bin))) {
-
-            while(iter.hasNext()) {
-                bindingSets.add(new BindingSetRecord(iter.next(), id));
+        try {
+            if (exporter.isPresent()) {
+                if (!exportWithRetries(nodeBin, exporter.get())) {
+                    // leave the bin in storage so that its results are not lost
+                    if (!notifications.offer(notification)) {
+                        log.error("Unable to requeue bin: " + bin + " for query: " + id
+                                + ". The bin will remain in storage until it is pruned.");
+                    }
+                    return;
+                }
+            } else {
+                try (CloseableIterator<BindingSet> iter = periodicStorage.listResults(id, Optional.of(bin))) {
+                    while(iter.hasNext()) {
+                        bindingSets.put(new BindingSetRecord(iter.next(), id));
+                    }
+                }
             }
             // add NodeBin to BinPruner queue so that bin can be deleted from
             // Fluo and Accumulo
-            bins.add(nodeBin);
+            bins.put(nodeBin);
+        } catch (final InterruptedException e) {
+            log.warn("Interrupted while processing bin: " + bin + " for query: " + id);
+            Thread.currentThread().interrupt();
         } catch (final Exception e) {
             log.warn("Encountered exception while accessing periodic results for bin: " + bin + " for query: " + id, e);
         }
     }
 
+    /**
+     * Streams the results of a bin to the exporter, starting over from the first
+     * result after a backoff if a chunk cannot be exported.
+     *
+     * @return {@code true} if the bin was exported, {@code false} if every attempt failed
+     */
+    private boolean exportWithRetries(final NodeBin nodeBin, final BindingSetExporter exporter) throws Exception {
+        final String id = nodeBin.getNodeId();
+        final long bin = nodeBin.getBin();
+        long backoffMs = exportRetryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try (CloseableIterator<BindingSet> iter = periodicStorage.listResults(id, Optional.of(bin))) {
+                streamResults(iter, id, exporter);
+                return true;
+            } catch (final BindingSetRecordExportException e) {
+                if (attempt >= maxExportAttempts) {
+                    log.error("Unable to export results for bin: " + bin + " for query: " + id + " after " + attempt
+                            + " attempts. The bin will be exported again later.", e);
+                    return false;
+                }
+                log.warn("Unable to export results for bin: " + bin + " for query: " + id + ". Retrying in " + backoffMs + " ms.", e);
+                Thread.sleep(backoffMs);
+                backoffMs *= 2;
+            }
+        }
+    }
+
+    /**
+     * Exports the results in chunks, waiting for each chunk to be acknowledged before reading the next.
+     */
+    private void streamResults(final CloseableIterator<BindingSet> iter, final String id, final BindingSetExporter exporter)
+            throws BindingSetRecordExportException {
+        final List<BindingSet> chunk = new ArrayList<>(exportChunkSize);
+        while(iter.hasNext()) {
+            chunk.add(iter.next());
+            if(chunk.size() == exportChunkSize) {
+                exporter.exportBindingSets(id, chunk);
+                chunk.clear();
+            }
+        }
+        if(!chunk.isEmpty()) {
+            exporter.exportBindingSets(id, chunk);
+        }
+    }
+
     /**
      * Computes left bin end point containing event time ts
      *
@@ -125,7 +226,9 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
     public void run() {
         try {
             while(!closed.get()) {
-                processNotification(notifications.take());
+                final TimestampedNotification notification = notifications.take();
+                lagMetrics.record(System.currentTimeMillis() - notification.getTimestamp().getTime());
+                processNotification(notification);
             }
         } catch (final Exception e) {
             log.warn("Thread {} is unable to process next notification.", threadNumber);
@@ -152,6 +255,11 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
         private BlockingQueue<BindingSetRecord> bindingSets; // query results to export
 
         private int threadNumber;
+        private StageLagMetrics lagMetrics;
+        private BindingSetExporter exporter;
+        private int exportChunkSize = 1000;
+        private int maxExportAttempts = 3;
+        private long exportRetryBackoffMs = 1000;
 
         /**
          * Set notification queue
@@ -203,12 +311,65 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
             return this;
         }
 
+        /**
+         * Set the lag metrics
+         * @param lagMetrics - records the lag between the time each notification was due and the time it was processed
+         * @return - this Builder for chaining method calls
+         */
+        public Builder setLagMetrics(final StageLagMetrics lagMetrics) {
+            this.lagMetrics = lagMetrics;
+            return this;
+        }
+
+        /**
+         * Set the exporter that results are streamed to.  If no exporter is set, results are
+         * added to the BindingSet queue instead.
+         * @param exporter - exporter that results are streamed to
+         * @return - this Builder for chaining method calls
+         */
+        public Builder setExporter(final BindingSetExporter exporter) {
+            this.exporter = exporter;
+            return this;
+        }
+
+        /**
+         * Set the number of results that are streamed to the exporter at a time
+         * @param exportChunkSize - maximum number of results held in memory while streaming a bin
+         * @return - this Builder for chaining method calls
+         */
+        public Builder setExportChunkSize(final int exportChunkSize) {
+            this.exportChunkSize = exportChunkSize;
+            return this;
+        }
+
+        /**
+         * Set the number of times a bin is streamed to the exporter before it is given up on
+         * @param maxExportAttempts - number of attempts made to export each bin
+         * @return - this Builder for chaining method calls
+         */
+        public Builder setMaxExportAttempts(final int maxExportAttempts) {
+            this.maxExportAttempts = maxExportAttempts;
+            return this;
+        }
+
+        /**
+         * Set the time to wait before the first retry of a failed export; it doubles with each retry
+         * @param exportRetryBackoffMs - milliseconds to wait before exporting a bin again
+         * @return - this Builder for chaining method calls
+         */
+        public Builder setExportRetryBackoffMs(final long exportRetryBackoffMs) {
+            this.exportRetryBackoffMs = exportRetryBackoffMs;
+            return this;
+        }
+
         /**
          * Builds a TimestampedNotificationProcessor
          * @return - TimestampedNotificationProcessor built from arguments passed to this Builder
          */
         public TimestampedNotificationProcessor build() {
-            return new TimestampedNotificationProcessor(periodicStorage, notifications, bins, bindingSets, threadNumber);
+            return new TimestampedNotificationProcessor(periodicStorage, notifications, bins, bindingSets, threadNumber,
+                    lagMetrics == null ? new StageLagMetrics("processor") : lagMetrics, Optional.ofNullable(exporter), exportChunkSize,
+                    maxExportAttempts, exportRetryBackoffMs);
         }
 
     }
@@ -18,6 +18,9 @@
  */
 package org.apache.rya.periodic.notification.pruner;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.apache.fluo.api.client.FluoClient;
 import org.apache.fluo.api.client.Transaction;
 import org.apache.fluo.api.data.Bytes;
@@ -55,8 +58,21 @@ public class FluoBinPruner implements BinPruner {
      */
     @Override
     public void pruneBindingSetBin(final NodeBin nodeBin) {
-        final String id = nodeBin.getNodeId();
-        final long bin = nodeBin.getBin();
+        pruneBindingSetBins(nodeBin.getNodeId(), Collections.singleton(nodeBin.getBin()));
+    }
+
+    /**
+     * This method deletes BindingSets in the specified bins from the BindingSet
+     * Column of the indicated Fluo nodeId. The deletion of every bin is
+     * scheduled within a single transaction.
+     *
+     * @param id
+     *            - Fluo nodeId
+     * @param bins
+     *            - bins to delete
+     */
+    @Override
+    public void pruneBindingSetBins(final String id, final Collection<Long> bins) {
         try (Transaction tx = client.newTransaction()) {
             final Optional<NodeType> type = NodeType.fromNodeId(id);
             if (!type.isPresent()) {
@@ -64,10 +80,12 @@ public class FluoBinPruner implements BinPruner {
                 throw new RuntimeException();
             }
             final Column batchInfoColumn = type.get().getResultColumn();
-            final String batchInfoSpanPrefix = id + IncrementalUpdateConstants.NODEID_BS_DELIM + bin;
-            final SpanBatchDeleteInformation batchInfo = SpanBatchDeleteInformation.builder().setColumn(batchInfoColumn)
-                    .setSpan(Span.prefix(Bytes.of(batchInfoSpanPrefix))).build();
-            BatchInformationDAO.addBatch(tx, id, batchInfo);
+            for (final long bin : bins) {
+                final String batchInfoSpanPrefix = id + IncrementalUpdateConstants.NODEID_BS_DELIM + bin;
+                final SpanBatchDeleteInformation batchInfo = SpanBatchDeleteInformation.builder().setColumn(batchInfoColumn)
+                        .setSpan(Span.prefix(Bytes.of(batchInfoSpanPrefix))).build();
+                BatchInformationDAO.addBatch(tx, id, batchInfo);
+            }
             tx.commit();
         }
     }
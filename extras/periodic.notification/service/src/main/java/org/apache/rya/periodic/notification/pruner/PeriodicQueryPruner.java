@@ -18,9 +18,16 @@
  */
 package org.apache.rya.periodic.notification.pruner;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -31,14 +38,22 @@ import org.apache.rya.indexing.pcj.fluo.app.NodeType;
 import org.apache.rya.indexing.pcj.fluo.app.util.PeriodicQueryUtil;
 import org.apache.rya.periodic.notification.api.BinPruner;
 import org.apache.rya.periodic.notification.api.NodeBin;
+import org.apache.rya.periodic.notification.metrics.PruningThroughputMetrics;
+import org.apache.rya.periodic.notification.metrics.StageLagMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+
 /**
  * Implementation of {@link BinPruner} that deletes old, already processed
  * Periodic Query results from Fluo and the PCJ table to which the Fluo results
  * are exported.
- *
+ * <p>
+ * When bins arrive faster than they are pruned, up to {@code batchSize} of the
+ * waiting bins are taken from the queue at once. The bins of each query in the
+ * batch are then deleted together, with a single batch deletion from the PCJ
+ * table and a single Fluo transaction per query node.
  */
 public class PeriodicQueryPruner implements BinPruner, Runnable {
 
@@ -49,20 +64,51 @@ public class PeriodicQueryPruner implements BinPruner, Runnable {
     private final BlockingQueue<NodeBin> bins;
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final int threadNumber;
+    private final int batchSize;
+    private final StageLagMetrics lagMetrics;
+    private final PruningThroughputMetrics throughputMetrics;
 
     public PeriodicQueryPruner(final FluoBinPruner fluoPruner, final AccumuloBinPruner accPruner, final FluoClient client, final BlockingQueue<NodeBin> bins, final int threadNumber) {
+        this(fluoPruner, accPruner, client, bins, threadNumber, 1, new StageLagMetrics("pruner"), new PruningThroughputMetrics());
+    }
+
+    /**
+     * Creates a PeriodicQueryPruner.
+     * @param fluoPruner - prunes bins from Fluo
+     * @param accPruner - prunes bins from the PCJ tables
+     * @param client - client for reading the query structure from Fluo
+     * @param bins - work queue containing the bins to prune
+     * @param threadNumber - number of the thread that runs this pruner
+     * @param batchSize - maximum number of bins that are pruned together
+     * @param lagMetrics - records how long each bin waited to be pruned
+     * @param throughputMetrics - records how quickly bins are pruned
+     */
+    public PeriodicQueryPruner(final FluoBinPruner fluoPruner, final AccumuloBinPruner accPruner, final FluoClient client, final BlockingQueue<NodeBin> bins,
+            final int threadNumber, final int batchSize, final StageLagMetrics lagMetrics, final PruningThroughputMetrics throughputMetrics) {
+        Preconditions.checkArgument(batchSize > 0);
         this.fluoPruner = Objects.requireNonNull(fluoPruner);
         this.accPruner = Objects.requireNonNull(accPruner);
         this.client = Objects.requireNonNull(client);
         this.bins = Objects.requireNonNull(bins);
         this.threadNumber = threadNumber;
+        this.batchSize = batchSize;
+        this.lagMetrics = Objects.requireNonNull(lagMetrics);
+        this.throughputMetrics = Objects.requireNonNull(throughputMetrics);
     }
 
     @Override
     public void run() {
         try {
+            final List<NodeBin> batch = new ArrayList<>();
             while (!closed.get()) {
-                pruneBindingSetBin(bins.take());
+                batch.add(bins.take());
+                bins.drainTo(batch, batchSize - 1);
+                final long now = System.currentTimeMillis();
+                for (final NodeBin nodeBin : batch) {
+                    lagMetrics.record(now - nodeBin.getCreationTime());
+                }
+                pruneBindingSetBins(batch);
+                batch.clear();
             }
         } catch (final InterruptedException e) {
             log.warn("Thread {} is unable to prune the next message.", threadNumber);
@@ -78,21 +124,45 @@ public class PeriodicQueryPruner implements BinPruner, Runnable {
      */
     @Override
     public void pruneBindingSetBin(final NodeBin nodeBin) {
-        final String pcjId = nodeBin.getNodeId();
-        final long bin = nodeBin.getBin();
+        pruneBindingSetBins(Collections.singletonList(nodeBin));
+    }
+
+    /**
+     * Prunes BindingSet bins from the Rya Fluo Application in addition to the BindingSet
+     * bins created in the PCJ tables.  The bins are grouped by query so that each query's
+     * bins are deleted together.
+     * @param nodeBins - bins to be deleted
+     */
+    public void pruneBindingSetBins(final Collection<NodeBin> nodeBins) {
+        final long start = System.nanoTime();
+        final Map<String, Set<Long>> binsByQuery = new LinkedHashMap<>();
+        for (final NodeBin nodeBin : nodeBins) {
+            binsByQuery.computeIfAbsent(nodeBin.getNodeId(), id -> new TreeSet<>()).add(nodeBin.getBin());
+        }
+
+        int pruned = 0;
         try(Snapshot sx = client.newSnapshot()) {
-            final String queryId = NodeType.generateNewIdForType(NodeType.QUERY, pcjId);
-            final Set<String> fluoIds = getNodeIdsFromResultId(sx, queryId);
-            accPruner.pruneBindingSetBin(nodeBin);
-            for(final String fluoId: fluoIds) {
-                fluoPruner.pruneBindingSetBin(new NodeBin(fluoId, bin));
+            for (final Map.Entry<String, Set<Long>> entry : binsByQuery.entrySet()) {
+                final String pcjId = entry.getKey();
+                final Set<Long> queryBins = entry.getValue();
+                try {
+                    final String queryId = NodeType.generateNewIdForType(NodeType.QUERY, pcjId);
+                    final Set<String> fluoIds = getNodeIdsFromResultId(sx, queryId);
+                    accPruner.pruneBindingSetBins(pcjId, queryBins);
+                    for(final String fluoId: fluoIds) {
+                        fluoPruner.pruneBindingSetBins(fluoId, queryBins);
+                    }
+                    pruned += queryBins.size();
+                } catch (final Exception e) {
+                    log.warn("Could not prune bins " + queryBins + " for query: " + pcjId, e);
+                }
             }
         } catch (final Exception e) {
             log.warn("Could not successfully initialize PeriodicQueryBinPruner.", e);
         }
+        throughputMetrics.record(pruned, System.nanoTime() - start);
     }
 
-
     public void shutdown() {
         closed.set(true);
     }
@@ -29,6 +29,8 @@ import org.apache.fluo.api.client.FluoClient;
 import org.apache.rya.indexing.pcj.storage.PeriodicQueryResultStorage;
 import org.apache.rya.periodic.notification.api.LifeCycle;
 import org.apache.rya.periodic.notification.api.NodeBin;
+import org.apache.rya.periodic.notification.metrics.PruningThroughputMetrics;
+import org.apache.rya.periodic.notification.metrics.StageLagMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,17 +45,35 @@ public class PeriodicQueryPrunerExecutor implements LifeCycle {
     private static final Logger log = LoggerFactory.getLogger(PeriodicQueryPrunerExecutor.class);
     private final FluoClient client;
     private final int numThreads;
+    private final int batchSize;
     private final ExecutorService executor;
     private final BlockingQueue<NodeBin> bins;
     private final PeriodicQueryResultStorage periodicStorage;
     private final List<PeriodicQueryPruner> pruners;
+    private final StageLagMetrics lagMetrics = new StageLagMetrics("pruner");
+    private final PruningThroughputMetrics throughputMetrics = new PruningThroughputMetrics();
     private boolean running = false;
 
     public PeriodicQueryPrunerExecutor(final PeriodicQueryResultStorage periodicStorage, final FluoClient client, final int numThreads,
             final BlockingQueue<NodeBin> bins) {
+        this(periodicStorage, client, numThreads, 1, bins);
+    }
+
+    /**
+     * Creates a PeriodicQueryPrunerExecutor.
+     * @param periodicStorage - storage layer that periodic results are deleted from
+     * @param client - client for deleting periodic results from Fluo
+     * @param numThreads - number of threads used for pruning
+     * @param batchSize - maximum number of waiting bins that each thread prunes together
+     * @param bins - work queue containing the bins to prune
+     */
+    public PeriodicQueryPrunerExecutor(final PeriodicQueryResultStorage periodicStorage, final FluoClient client, final int numThreads,
+            final int batchSize, final BlockingQueue<NodeBin> bins) {
         Preconditions.checkArgument(numThreads > 0);
+        Preconditions.checkArgument(batchSize > 0);
         this.periodicStorage = periodicStorage;
         this.numThreads = numThreads;
+        this.batchSize = batchSize;
         executor = Executors.newFixedThreadPool(numThreads);
         this.bins = bins;
         this.client = client;
@@ -67,7 +87,8 @@ public class PeriodicQueryPrunerExecutor implements LifeCycle {
             final FluoBinPruner fluoPruner = new FluoBinPruner(client);
 
             for (int threadNumber = 0; threadNumber < numThreads; threadNumber++) {
-                final PeriodicQueryPruner pruner = new PeriodicQueryPruner(fluoPruner, accPruner, client, bins, threadNumber);
+                final PeriodicQueryPruner pruner = new PeriodicQueryPruner(fluoPruner, accPruner, client, bins, threadNumber, batchSize,
+                        lagMetrics, throughputMetrics);
                 pruners.add(pruner);
                 executor.submit(pruner);
             }
@@ -97,6 +118,20 @@ public class PeriodicQueryPrunerExecutor implements LifeCycle {
         }
     }
 
+    /**
+     * @return lag between the time each bin was processed and the time it was pruned
+     */
+    public StageLagMetrics getLagMetrics() {
+        return lagMetrics;
+    }
+
+    /**
+     * @return number of bins pruned and how quickly they were pruned
+     */
+    public PruningThroughputMetrics getThroughputMetrics() {
+        return throughputMetrics;
+    }
+
     @Override
     public boolean currentlyRunning() {
         return running;
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.coordinator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.rya.periodic.notification.coordinator.HierarchicalTimingWheel.Timeout;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HierarchicalTimingWheelTest {
+
+    @Test
+    public void notDueBeforeDeadlineTest() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1000);
+        wheel.schedule("a", 1025);
+
+        Assert.assertTrue(wheel.advance(1029).isEmpty());
+        Assert.assertEquals(Arrays.asList("a"), items(wheel.advance(1030)));
+        Assert.assertTrue(wheel.advance(2000).isEmpty());
+    }
+
+    @Test
+    public void coalesceSameTickTest() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1000);
+        wheel.schedule("a", 1041);
+        wheel.schedule("b", 1050);
+        wheel.schedule("c", 1060);
+
+        Assert.assertTrue(wheel.advance(1049).isEmpty());
+        List<String> due = items(wheel.advance(1050));
+        Collections.sort(due);
+        Assert.assertEquals(Arrays.asList("a", "b"), due);
+        Assert.assertEquals(Arrays.asList("c"), items(wheel.advance(1060)));
+    }
+
+    @Test
+    public void overflowTest() {
+        // the lowest wheel covers 80 ms, the next 640 ms, and the one after that 5120 ms
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1000);
+        wheel.schedule("near", 1070);
+        wheel.schedule("far", 1500);
+        wheel.schedule("farther", 4000);
+
+        List<String> fired = new ArrayList<>();
+        List<Long> firedAt = new ArrayList<>();
+        for (long time = 1000; time <= 5000; time += 10) {
+            for (Timeout<String> timeout : wheel.advance(time)) {
+                fired.add(timeout.getItem());
+                firedAt.add(time);
+                Assert.assertTrue(time >= timeout.getDeadline());
+            }
+        }
+        Assert.assertEquals(Arrays.asList("near", "far", "farther"), fired);
+        Assert.assertEquals(Arrays.asList(1070L, 1500L, 4000L), firedAt);
+    }
+
+    @Test
+    public void advanceSkipsTicksTest() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1000);
+        wheel.schedule("a", 1200);
+        wheel.schedule("b", 3000);
+
+        List<String> due = items(wheel.advance(5000));
+        Assert.assertEquals(Arrays.asList("a", "b"), due);
+        Assert.assertEquals(5000, wheel.getCurrentTime());
+    }
+
+    @Test
+    public void overdueTest() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1000);
+        wheel.advance(1100);
+        wheel.schedule("late", 1050);
+        wheel.schedule("now", 1100);
+
+        List<Timeout<String>> due = wheel.advance(1100);
+        Assert.assertEquals(Arrays.asList("late", "now"), items(due));
+        Assert.assertEquals(1050, due.get(0).getDeadline());
+    }
+
+    private static List<String> items(List<Timeout<String>> timeouts) {
+        List<String> items = new ArrayList<>();
+        for (Timeout<String> timeout : timeouts) {
+            items.add(timeout.getItem());
+        }
+        return items;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.rya.indexing.pcj.storage.PeriodicQueryResultStorage;
+import org.apache.rya.indexing.pcj.storage.PeriodicQueryStorageMetadata;
+import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage.CloseableIterator;
+import org.apache.rya.indexing.pcj.storage.accumulo.VariableOrder;
+import org.apache.rya.indexing.pcj.storage.accumulo.VisibilityBindingSet;
+import org.apache.rya.periodic.notification.api.BindingSetExporter;
+import org.apache.rya.periodic.notification.api.BindingSetRecord;
+import org.apache.rya.periodic.notification.api.BindingSetRecordExportException;
+import org.apache.rya.periodic.notification.api.NodeBin;
+import org.apache.rya.periodic.notification.notification.PeriodicNotification;
+import org.apache.rya.periodic.notification.notification.TimestampedNotification;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimestampedNotificationProcessorTest {
+
+    private static final String ID = "query";
+    private static final long PERIOD = 1000;
+    private static final long BIN = 5000;
+
+    private final BlockingQueue<TimestampedNotification> notifications = new LinkedBlockingQueue<>();
+    private final BlockingQueue<NodeBin> bins = new LinkedBlockingQueue<>();
+    private final BlockingQueue<BindingSetRecord> bindingSets = new LinkedBlockingQueue<>();
+
+    @Test
+    public void streamingExportTest() {
+        List<List<BindingSet>> chunks = new ArrayList<>();
+        BindingSetExporter exporter = new BindingSetExporter() {
+            @Override
+            public void exportNotification(BindingSetRecord bindingSet) {
+                Assert.fail("Results should be exported in chunks.");
+            }
+
+            @Override
+            public void exportBindingSets(String topic, Collection<BindingSet> bindingSets) {
+                Assert.assertEquals(ID, topic);
+                // the bin may only be pruned after its last chunk is exported
+                Assert.assertTrue(bins.isEmpty());
+                chunks.add(new ArrayList<>(bindingSets));
+            }
+        };
+
+        getProcessor(5, exporter).processNotification(getNotification());
+
+        Assert.assertEquals(3, chunks.size());
+        Assert.assertEquals(2, chunks.get(0).size());
+        Assert.assertEquals(2, chunks.get(1).size());
+        Assert.assertEquals(1, chunks.get(2).size());
+        Assert.assertTrue(bindingSets.isEmpty());
+        Assert.assertEquals(Collections.singletonList(new NodeBin(ID, BIN)), new ArrayList<>(bins));
+    }
+
+    @Test
+    public void failedExportRetriedTest() {
+        AtomicInteger attempts = new AtomicInteger();
+        List<BindingSet> exported = new ArrayList<>();
+        BindingSetExporter exporter = new BindingSetExporter() {
+            @Override
+            public void exportNotification(BindingSetRecord bindingSet) {
+                Assert.fail("Results should be exported in chunks.");
+            }
+
+            @Override
+            public void exportBindingSets(String topic, Collection<BindingSet> bindingSets) throws BindingSetRecordExportException {
+                // fail the second chunk of the first attempt
+                if (exported.size() == 2 && attempts.getAndIncrement() == 0) {
+                    throw new BindingSetRecordExportException("Kafka is unavailable.");
+                }
+                exported.addAll(bindingSets);
+            }
+        };
+
+        getProcessor(3, exporter).processNotification(getNotification());
+
+        // the first chunk is exported again when the bin is retried
+        Assert.assertEquals(5, exported.size());
+        Assert.assertEquals(Collections.singletonList(new NodeBin(ID, BIN)), new ArrayList<>(bins));
+    }
+
+    @Test
+    public void failedExportRequeuedAfterMaxAttemptsTest() {
+        AtomicInteger attempts = new AtomicInteger();
+        BindingSetExporter exporter = new BindingSetExporter() {
+            @Override
+            public void exportNotification(BindingSetRecord bindingSet) throws BindingSetRecordExportException {
+                attempts.incrementAndGet();
+                throw new BindingSetRecordExportException("Kafka is unavailable.");
+            }
+        };
+
+        TimestampedNotification notification = getNotification();
+        getProcessor(3, exporter).processNotification(notification);
+
+        // the bin is left in storage and exported again when its notification is processed
+        Assert.assertEquals(3, attempts.get());
+        Assert.assertTrue(bins.isEmpty());
+        Assert.assertEquals(Collections.singletonList(notification), new ArrayList<>(notifications));
+    }
+
+    @Test
+    public void queuedExportTest() {
+        TimestampedNotificationProcessor processor = TimestampedNotificationProcessor.builder().setPeriodicStorage(new ResultStorage(3))
+                .setNotifications(new LinkedBlockingQueue<>()).setBins(bins).setBindingSets(bindingSets).build();
+
+        processor.processNotification(getNotification());
+
+        Assert.assertEquals(3, bindingSets.size());
+        Assert.assertEquals(Collections.singletonList(new NodeBin(ID, BIN)), new ArrayList<>(bins));
+    }
+
+    private TimestampedNotificationProcessor getProcessor(int numResults, BindingSetExporter exporter) {
+        return TimestampedNotificationProcessor.builder().setPeriodicStorage(new ResultStorage(numResults))
+                .setNotifications(notifications).setBins(bins).setBindingSets(bindingSets).setExporter(exporter)
+                .setExportChunkSize(2).setMaxExportAttempts(3).setExportRetryBackoffMs(0).build();
+    }
+
+    private static TimestampedNotification getNotification() {
+        PeriodicNotification notification = PeriodicNotification.builder().id(ID).period(PERIOD).timeUnit(TimeUnit.MILLISECONDS).build();
+        return new TimestampedNotification(notification, new Date(BIN + 10));
+    }
+
+    /**
+     * Returns the indicated number of results for any bin.
+     */
+    private static class ResultStorage implements PeriodicQueryResultStorage {
+
+        private final int numResults;
+
+        public ResultStorage(int numResults) {
+            this.numResults = numResults;
+        }
+
+        @Override
+        public CloseableIterator<BindingSet> listResults(String queryId, Optional<Long> binID) {
+            List<BindingSet> results = new ArrayList<>();
+            for (int i = 0; i < numResults; i++) {
+                MapBindingSet bs = new MapBindingSet();
+                bs.addBinding(PeriodicBinId, SimpleValueFactory.getInstance().createLiteral(binID.get()));
+                bs.addBinding("i", SimpleValueFactory.getInstance().createLiteral(i));
+                results.add(bs);
+            }
+            Iterator<BindingSet> iter = results.iterator();
+            return new CloseableIterator<BindingSet>() {
+                @Override
+                public boolean hasNext() {
+                    return iter.hasNext();
+                }
+
+                @Override
+                public BindingSet next() {
+                    return iter.next();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        @Override
+        public String createPeriodicQuery(String sparql) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String createPeriodicQuery(String queryId, String sparql) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void createPeriodicQuery(String queryId, String sparql, VariableOrder varOrder) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PeriodicQueryStorageMetadata getPeriodicQueryMetadata(String queryID) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addPeriodicQueryResults(String queryId, Collection<VisibilityBindingSet> results) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deletePeriodicQueryResults(String queryId, long binID) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deletePeriodicQuery(String queryID) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> listPeriodicTables() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.benchmark.entity;
+
+import static org.apache.rya.api.domain.RyaTypeUtils.dateRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.doubleRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.intRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.stringRyaType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.indexing.entity.model.Entity;
+import org.apache.rya.indexing.entity.model.Property;
+import org.apache.rya.indexing.smarturi.duplication.DuplicateDataDetector;
+import org.apache.rya.indexing.smarturi.duplication.EntityBlockingIndex;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A benchmark that measures how long it takes to check whether a new
+ * {@link Entity} is nearly identical to any of the Entities that are already
+ * stored, which is the work done each time an Entity is created while
+ * duplicate detection is enabled. It pivots over the number of stored
+ * Entities and compares checking every stored Entity against checking only
+ * the candidates an {@link EntityBlockingIndex} finds.
+ * <p>
+ * To execute this benchmark, build the project by executing:
+ * <pre>
+ * mvn clean install -P benchmark
+ * </pre>
+ * Transport the "target/benchmarking.jar" file to the system that will execute
+ * the benchmark and then execute:
+ * <pre>
+ * java -cp benchmarks.jar org.apache.rya.benchmark.entity.DuplicateDetectionBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@DefaultAnnotation(NonNull.class)
+public class DuplicateDetectionBenchmark {
+
+    private static final RyaURI PERSON_TYPE = new RyaURI("urn:example/person");
+    private static final RyaURI HAS_AGE = new RyaURI("urn:example/hasAge");
+    private static final RyaURI HAS_HEIGHT = new RyaURI("urn:example/hasHeight");
+    private static final RyaURI HAS_NAME = new RyaURI("urn:example/hasName");
+    private static final RyaURI HAS_DATE_OF_BIRTH = new RyaURI("urn:example/hasDateOfBirth");
+
+    private static final int NUM_NEW_ENTITIES = 64;
+
+    @Param({"100", "1000", "10000"})
+    public int numEntities;
+
+    private DuplicateDataDetector detector;
+    private List<Entity> stored;
+    private List<Entity> newEntities;
+    private EntityBlockingIndex blockingIndex;
+    private int next = 0;
+
+    @Setup
+    public void setup() throws Exception {
+        // Use the default tolerance of each type.
+        detector = new DuplicateDataDetector(null, null, null, null, null, null, null, null, null, null,
+                new HashMap<>(), true);
+
+        final Random random = new Random(42);
+        stored = new ArrayList<>(numEntities);
+        for(int i = 0; i < numEntities; i++) {
+            stored.add( makeEntity("urn:example/stored" + i, random) );
+        }
+        newEntities = new ArrayList<>(NUM_NEW_ENTITIES);
+        for(int i = 0; i < NUM_NEW_ENTITIES; i++) {
+            newEntities.add( makeEntity("urn:example/new" + i, random) );
+        }
+        blockingIndex = new EntityBlockingIndex(detector, stored);
+    }
+
+    /**
+     * Compares the new Entity with every stored Entity.
+     */
+    @Benchmark
+    public boolean detectByScan() throws Exception {
+        final Entity entity = nextNewEntity();
+        for(final Entity compareEntity : stored) {
+            if(detector.compareEntities(entity, compareEntity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares the new Entity with the candidates found by the blocking index.
+     */
+    @Benchmark
+    public boolean detectByBlocking() throws Exception {
+        final Entity entity = nextNewEntity();
+        final BitSet candidates = blockingIndex.getCandidates(entity);
+        for(int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if(detector.compareEntities(entity, stored.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the nearly identical Entities from a copy of the stored Entities.
+     */
+    @Benchmark
+    public List<Entity> removeDuplicatesFromCollection() throws Exception {
+        final List<Entity> entities = new ArrayList<>(stored);
+        detector.removeDuplicatesFromCollection(entities);
+        return entities;
+    }
+
+    private Entity nextNewEntity() {
+        next = (next + 1) % NUM_NEW_ENTITIES;
+        return newEntities.get(next);
+    }
+
+    private static Entity makeEntity(final String subject, final Random random) {
+        return Entity.builder()
+                .setSubject(new RyaURI(subject))
+                .setExplicitType(PERSON_TYPE)
+                .setProperty(PERSON_TYPE, new Property(HAS_AGE, intRyaType(18 + random.nextInt(60))))
+                .setProperty(PERSON_TYPE, new Property(HAS_HEIGHT, doubleRyaType(55 + random.nextInt(300) * 0.1)))
+                .setProperty(PERSON_TYPE, new Property(HAS_NAME, stringRyaType("Person " + random.nextInt(1_000_000))))
+                .setProperty(PERSON_TYPE, new Property(HAS_DATE_OF_BIRTH,
+                        dateRyaType(new DateTime(2000, 1, 1, 0, 0).minusDays(random.nextInt(20_000)))))
+                .build();
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args - Command line arguments that are passed to JMH.
+     */
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+        final OptionsBuilder opts = new OptionsBuilder();
+        opts.parent( new CommandLineOptions(args) );
+        opts.include(DuplicateDetectionBenchmark.class.getSimpleName());
+
+        new Runner(opts.build()).run();
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.benchmark.entity;
+
+import static org.apache.rya.api.domain.RyaTypeUtils.doubleRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.intRyaType;
+import static org.apache.rya.api.domain.RyaTypeUtils.stringRyaType;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.indexing.entity.model.Entity;
+import org.apache.rya.indexing.entity.model.Property;
+import org.apache.rya.indexing.entity.model.Type;
+import org.apache.rya.indexing.entity.storage.mongo.MongoEntityStorage;
+import org.apache.rya.indexing.entity.storage.mongo.MongoTypeStorage;
+import org.apache.rya.indexing.smarturi.duplication.DuplicateDataDetector;
+import org.apache.rya.indexing.smarturi.duplication.EntityNearDuplicateException;
+import org.apache.rya.mongodb.EmbeddedMongoFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.ImmutableSet;
+import com.mongodb.MongoClient;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A benchmark that measures how long {@link MongoEntityStorage#create(Entity)}
+ * takes while duplicate detection is enabled, which is when the stored
+ * Entities that may be nearly identical to the new one are found with a Mongo
+ * query over their blocking keys. It pivots over the number of stored Entities
+ * and compares against creating Entities with detection disabled.
+ * <p>
+ * The benchmark starts an embedded Mongo instance, so the system that executes
+ * it must be able to run one.
+ * <p>
+ * To execute this benchmark, build the project by executing:
+ * <pre>
+ * mvn clean install -P benchmark
+ * </pre>
+ * Transport the "target/benchmarking.jar" file to the system that will execute
+ * the benchmark and then execute:
+ * <pre>
+ * java -cp benchmarks.jar org.apache.rya.benchmark.entity.MongoEntityCreateBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@DefaultAnnotation(NonNull.class)
+public class MongoEntityCreateBenchmark {
+
+    private static final String RYA_INSTANCE_NAME = "benchmark_";
+
+    private static final RyaURI PERSON_TYPE = new RyaURI("urn:example/person");
+    private static final RyaURI HAS_AGE = new RyaURI("urn:example/hasAge");
+    private static final RyaURI HAS_HEIGHT = new RyaURI("urn:example/hasHeight");
+    private static final RyaURI HAS_NAME = new RyaURI("urn:example/hasName");
+
+    @Param({"100", "1000", "10000"})
+    public int numEntities;
+
+    @Param({"true", "false"})
+    public boolean detectionEnabled;
+
+    private EmbeddedMongoFactory mongoFactory;
+    private MongoClient mongoClient;
+    private MongoEntityStorage storage;
+    private Random random;
+    private int next = 0;
+    private RyaURI created = null;
+
+    @Setup
+    public void setup() throws Exception {
+        mongoFactory = EmbeddedMongoFactory.newFactory();
+        mongoClient = mongoFactory.newMongoClient();
+
+        // Candidates are only searched for once the Entity's explicit type is stored.
+        new MongoTypeStorage(mongoClient, RYA_INSTANCE_NAME)
+                .create(new Type(PERSON_TYPE, ImmutableSet.of(HAS_AGE, HAS_HEIGHT, HAS_NAME)));
+
+        // Use the default tolerance of each type.
+        final DuplicateDataDetector detector = new DuplicateDataDetector(null, null, null, null, null, null, null,
+                null, null, null, new HashMap<>(), detectionEnabled);
+        storage = new MongoEntityStorage(mongoClient, RYA_INSTANCE_NAME, detector);
+
+        random = new Random(42);
+        for(int i = 0; i < numEntities; i++) {
+            try {
+                storage.create( makeEntity("urn:example/stored" + i) );
+            } catch(final EntityNearDuplicateException e) {
+                // The random values made a near duplicate, so it is skipped.
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoClient.close();
+        mongoFactory.shutdown();
+    }
+
+    /**
+     * Removes the Entity the last invocation created so that the number of
+     * stored Entities stays the same across invocations.
+     */
+    @TearDown(Level.Invocation)
+    public void removeCreated() throws Exception {
+        if(created != null) {
+            storage.delete(created);
+            created = null;
+        }
+    }
+
+    /**
+     * Creates a new Entity, which is rejected if it is nearly identical to a
+     * stored Entity.
+     */
+    @Benchmark
+    public boolean create() throws Exception {
+        final Entity entity = makeEntity("urn:example/new" + next++);
+        try {
+            storage.create(entity);
+            created = entity.getSubject();
+            return true;
+        } catch(final EntityNearDuplicateException e) {
+            return false;
+        }
+    }
+
+    private Entity makeEntity(final String subject) {
+        return Entity.builder()
+                .setSubject(new RyaURI(subject))
+                .setExplicitType(PERSON_TYPE)
+                .setProperty(PERSON_TYPE, new Property(HAS_AGE, intRyaType(18 + random.nextInt(60))))
+                .setProperty(PERSON_TYPE, new Property(HAS_HEIGHT, doubleRyaType(55 + random.nextInt(300) * 0.1)))
+                .setProperty(PERSON_TYPE, new Property(HAS_NAME, stringRyaType("Person " + random.nextInt(1_000_000))))
+                .build();
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args - Command line arguments that are passed to JMH.
+     */
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+        final OptionsBuilder opts = new OptionsBuilder();
+        opts.parent( new CommandLineOptions(args) );
+        opts.include(MongoEntityCreateBenchmark.class.getSimpleName());
+
+        new Runner(opts.build()).run();
+    }
+}
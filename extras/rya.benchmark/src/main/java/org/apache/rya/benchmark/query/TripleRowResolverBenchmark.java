@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.benchmark.query;
+
+import java.util.Map;
+
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.api.resolver.triple.TripleRow;
+import org.apache.rya.api.resolver.triple.TripleRowResolver;
+import org.apache.rya.api.resolver.triple.impl.WholeRowHashedTripleResolver;
+import org.apache.rya.api.resolver.triple.impl.WholeRowTripleResolver;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A benchmark that measures how quickly the whole row {@link TripleRowResolver}s turn
+ * statements into the rows that are written to the SPO, PO, and OSP tables and turn
+ * those rows back into statements. It pivots over whether the rows are prefixed with
+ * a hash, which table the row belongs to, and the kind of object the statement has.
+ * <p>
+ * To execute this benchmark, build the project by executing:
+ * <pre>
+ * mvn clean install -P benchmark
+ * </pre>
+ * Transport the "target/benchmarking.jar" file to the system that will execute
+ * the benchmark and then execute:
+ * <pre>
+ * java -cp benchmarks.jar org.apache.rya.benchmark.query.TripleRowResolverBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@DefaultAnnotation(NonNull.class)
+public class TripleRowResolverBenchmark {
+
+    @Param({"false", "true"})
+    public boolean hashed;
+
+    @Param({"SPO", "PO", "OSP"})
+    public TABLE_LAYOUT layout;
+
+    @Param({"URI", "STRING", "INTEGER", "CUSTOM"})
+    public String objectType;
+
+    private TripleRowResolver resolver;
+    private RyaStatement statement;
+    private TripleRow row;
+
+    @Setup
+    public void setup() throws Exception {
+        final RyaType object;
+        switch(objectType) {
+            case "URI":
+                object = new RyaURI("http://example.org/people#Bob");
+                break;
+            case "STRING":
+                object = new RyaType("Alice has known Bob since they met at work.");
+                break;
+            case "INTEGER":
+                object = new RyaType(XMLSchema.INTEGER, "42");
+                break;
+            default:
+                object = new RyaType(SimpleValueFactory.getInstance().createIRI("http://www.opengis.net/ont/geosparql#wktLiteral"),
+                        "POINT(-77.03524 38.889468)");
+                break;
+        }
+
+        statement = new RyaStatement(
+                new RyaURI("http://example.org/people#Alice"),
+                new RyaURI("http://example.org/ontology#knows"),
+                object,
+                new RyaURI("http://example.org/graphs#friends"),
+                null, new byte[0], new byte[0], 1000L);
+
+        resolver = hashed ? new WholeRowHashedTripleResolver() : new WholeRowTripleResolver();
+        final Map<TABLE_LAYOUT, TripleRow> rows = resolver.serialize(statement);
+        row = rows.get(layout);
+    }
+
+    @Benchmark
+    public Map<TABLE_LAYOUT, TripleRow> serialize() throws Exception {
+        return resolver.serialize(statement);
+    }
+
+    @Benchmark
+    public RyaStatement deserialize() throws Exception {
+        return resolver.deserialize(layout, row);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args - Command line arguments that are passed to JMH.
+     */
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+        final OptionsBuilder opts = new OptionsBuilder();
+        opts.parent( new CommandLineOptions(args) );
+        opts.include(TripleRowResolverBenchmark.class.getSimpleName());
+
+        new Runner(opts.build()).run();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.benchmark.query;
+
+import org.apache.fluo.api.data.Bytes;
+import org.apache.rya.indexing.pcj.storage.accumulo.VisibilityBindingSet;
+import org.apache.rya.indexing.pcj.storage.accumulo.VisibilityBindingSetSerDe;
+import org.apache.rya.indexing.pcj.storage.accumulo.VisibilityBindingSetSerDe.Format;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A benchmark that compares the {@link Format}s {@link VisibilityBindingSetSerDe} is able
+ * to write. It pivots over the serialization format and how many bindings are in the
+ * {@link VisibilityBindingSet} that is being serialized.
+ * <p>
+ * To execute this benchmark, build the project by executing:
+ * <pre>
+ * mvn clean install -P benchmark
+ * </pre>
+ * Transport the "target/benchmarking.jar" file to the system that will execute
+ * the benchmark and then execute:
+ * <pre>
+ * java -cp benchmarks.jar org.apache.rya.benchmark.query.VisibilityBindingSetSerDeBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@DefaultAnnotation(NonNull.class)
+public class VisibilityBindingSetSerDeBenchmark {
+
+    @Param({"JAVA_SERIALIZATION", "COMPACT"})
+    public Format format;
+
+    @Param({"1", "4", "16"})
+    public int numBindings;
+
+    private VisibilityBindingSetSerDe serde;
+    private VisibilityBindingSet bindingSet;
+    private Bytes serialized;
+
+    @Setup
+    public void setup() throws Exception {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+
+        // Cycle through the most common kinds of values a PCJ result holds.
+        final MapBindingSet bs = new MapBindingSet();
+        for(int i = 0; i < numBindings; i++) {
+            switch(i % 4) {
+                case 0:
+                    bs.addBinding("person" + i, vf.createIRI("http://example.org/people#Person" + i));
+                    break;
+                case 1:
+                    bs.addBinding("age" + i, vf.createLiteral(20 + i));
+                    break;
+                case 2:
+                    bs.addBinding("name" + i, vf.createLiteral("Person Number " + i));
+                    break;
+                default:
+                    bs.addBinding("score" + i, vf.createLiteral(i * 1.5));
+                    break;
+            }
+        }
+
+        serde = new VisibilityBindingSetSerDe(format);
+        bindingSet = new VisibilityBindingSet(bs, "A&(B|C)");
+        serialized = serde.serialize(bindingSet);
+    }
+
+    @Benchmark
+    public Bytes serialize() throws Exception {
+        return serde.serialize(bindingSet);
+    }
+
+    @Benchmark
+    public VisibilityBindingSet deserialize() throws Exception {
+        return serde.deserialize(serialized);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args - Command line arguments that are passed to JMH.
+     */
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+        final OptionsBuilder opts = new OptionsBuilder();
+        opts.parent( new CommandLineOptions(args) );
+        opts.include(VisibilityBindingSetSerDeBenchmark.class.getSimpleName());
+
+        new Runner(opts.build()).run();
+    }
+}
@@ -21,8 +21,12 @@ package org.apache.rya.export.accumulo;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
@@ -141,6 +145,31 @@ public class AccumuloRyaStatementStore implements RyaStatementStore {
         }
     }
 
+    @Override
+    public void addStatements(final Collection<RyaStatement> statements) throws AddStatementException {
+        try {
+            accumuloRyaDao.add(statements.iterator());
+            accumuloRyaDao.flush();
+            //Same hack as addStatement(), applied to every statement of the batch that did not reappear.
+            final Set<RyaStatement> contained = containsStatements(statements);
+            final List<RyaStatement> missing = new ArrayList<>();
+            for (final RyaStatement statement : statements) {
+                if (!contained.contains(statement)) {
+                    missing.add(statement);
+                }
+            }
+            if (!missing.isEmpty()) {
+                for (final RyaStatement statement : missing) {
+                    statement.setTimestamp(statement.getTimestamp() + 1L);
+                }
+                accumuloRyaDao.add(missing.iterator());
+                accumuloRyaDao.flush();
+            }
+        } catch (final RyaDAOException | ContainsStatementException e) {
+            throw new AddStatementException("Unable to add the Rya Statements", e);
+        }
+    }
+
     @Override
     public void removeStatement(final RyaStatement statement) throws RemoveStatementException {
         try {
@@ -150,6 +179,15 @@ public class AccumuloRyaStatementStore implements RyaStatementStore {
         }
     }
 
+    @Override
+    public void removeStatements(final Collection<RyaStatement> statements) throws RemoveStatementException {
+        try {
+            accumuloRyaDao.delete(statements.iterator(), accumuloRyaDao.getConf());
+        } catch (final RyaDAOException e) {
+            throw new RemoveStatementException("Unable to delete the Rya Statements", e);
+        }
+    }
+
     @Override
     public void updateStatement(final RyaStatement original, final RyaStatement update) throws UpdateStatementException {
         try {
@@ -170,6 +208,50 @@ public class AccumuloRyaStatementStore implements RyaStatementStore {
         }
     }
 
+    /**
+     * Looks up all of the statements with a single batch query. A statement is
+     * contained when a statement with the same subject, predicate, object,
+     * and context is found, which is what {@link #containsStatement(RyaStatement)}
+     * checks for.
+     */
+    @Override
+    public Set<RyaStatement> containsStatements(final Collection<RyaStatement> statements) throws ContainsStatementException {
+        final Set<RyaStatement> contained = new HashSet<>();
+        if (statements.isEmpty()) {
+            return contained;
+        }
+
+        final Set<List<Object>> found = new HashSet<>();
+        CloseableIteration<RyaStatement, RyaDAOException> iter = null;
+        try {
+            iter = accumuloRyaDao.getQueryEngine().batchQuery(statements, accumuloRyaDao.getConf());
+            while (iter.hasNext()) {
+                found.add(toTriple(iter.next()));
+            }
+        } catch (final RyaDAOException e) {
+            throw new ContainsStatementException("Encountered an error while querying for statements.", e);
+        } finally {
+            if (iter != null) {
+                try {
+                    iter.close();
+                } catch (final RyaDAOException e) {
+                    log.warn("Unable to close the statement query.", e);
+                }
+            }
+        }
+
+        for (final RyaStatement statement : statements) {
+            if (found.contains(toTriple(statement))) {
+                contained.add(statement);
+            }
+        }
+        return contained;
+    }
+
+    private static List<Object> toTriple(final RyaStatement statement) {
+        return Arrays.asList(statement.getSubject(), statement.getPredicate(), statement.getObject(), statement.getContext());
+    }
+
     @Override
     public Optional<MergeParentMetadata> getParentMetadata() {
         MergeParentMetadata metadata = null;
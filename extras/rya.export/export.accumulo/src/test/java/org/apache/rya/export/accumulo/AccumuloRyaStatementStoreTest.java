@@ -24,8 +24,11 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.log4j.LogManager;
@@ -49,6 +52,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Tests the methods of {@link AccumuloRyaStatementStore}.
@@ -180,6 +184,23 @@ public class AccumuloRyaStatementStoreTest {
         assertEquals(1, count(accumuloRyaStatementStore));
     }
 
+    @Test
+    public void testAddContainsRemoveStatements() throws Exception {
+        final AccumuloRyaStatementStore accumuloRyaStatementStore = createAccumuloRyaStatementStore();
+        final RyaStatement notAdded = TestUtils.createRyaStatement("Statement", "not found", "here", DATE);
+
+        accumuloRyaStatementStore.addStatements(RYA_STATEMENTS.subList(0, 3));
+        assertEquals(3, count(accumuloRyaStatementStore));
+
+        final List<RyaStatement> lookup = new ArrayList<>(RYA_STATEMENTS);
+        lookup.add(notAdded);
+        assertEquals(new HashSet<>(RYA_STATEMENTS.subList(0, 3)), accumuloRyaStatementStore.containsStatements(lookup));
+
+        accumuloRyaStatementStore.removeStatements(RYA_STATEMENTS.subList(1, 3));
+        assertEquals(ImmutableSet.of(RYA_STATEMENTS.get(0)), accumuloRyaStatementStore.containsStatements(lookup));
+        assertEquals(1, count(accumuloRyaStatementStore));
+    }
+
     private int count(final RyaStatementStore store) throws FetchStatementException {
         final Iterator<RyaStatement> statements = store.fetchStatements();
         int count = 0;
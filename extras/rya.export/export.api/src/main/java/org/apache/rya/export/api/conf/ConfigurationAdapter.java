@@ -55,7 +55,9 @@ public class ConfigurationAdapter {
             .setChildPort(jConfig.getChildPort())
             .setMergePolicy(jConfig.getMergePolicy())
             .setUseNtpServer(jConfig.isUseNtpServer())
-            .setNtpServerHost(jConfig.getNtpServerHost());
+            .setNtpServerHost(jConfig.getNtpServerHost())
+            .setTransferThreads(jConfig.getTransferThreads())
+            .setTransferBatchSize(jConfig.getTransferBatchSize());
         return configBuilder;
     }
 }
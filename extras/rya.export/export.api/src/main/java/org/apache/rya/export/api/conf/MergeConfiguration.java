@@ -30,6 +30,16 @@ import org.apache.rya.export.MergePolicy;
  */
 @Immutable
 public class MergeConfiguration {
+    /**
+     * The number of threads used to transfer statements when none is configured.
+     */
+    public static final int DEFAULT_TRANSFER_THREADS = 4;
+
+    /**
+     * The number of statements transferred at a time when no batch size is configured.
+     */
+    public static final int DEFAULT_TRANSFER_BATCH_SIZE = 1000;
+
     /**
      * Information needed to connect to the parent database
      */
@@ -59,6 +69,9 @@ public class MergeConfiguration {
     private final boolean useNtpServer;
     private final String ntpServerHost;
 
+    private final int transferThreads;
+    private final int transferBatchSize;
+
     /**
      * Constructs a {@link MergeConfiguration}.
      */
@@ -83,6 +96,8 @@ public class MergeConfiguration {
             mergePolicy = builder.mergePolicy;
             useNtpServer = builder.useNtpServer;
             ntpServerHost = builder.ntpServerHost;
+            transferThreads = builder.transferThreads == null ? DEFAULT_TRANSFER_THREADS : builder.transferThreads;
+            transferBatchSize = builder.transferBatchSize == null ? DEFAULT_TRANSFER_BATCH_SIZE : builder.transferBatchSize;
         } catch(final NullPointerException npe) {
             //fix this.
             throw new MergeConfigurationException("The configuration was missing required field(s)", npe);
@@ -223,6 +238,20 @@ public class MergeConfiguration {
         return ntpServerHost;
     }
 
+    /**
+     * @return The number of threads used to transfer statements from the parent to the child.
+     */
+    public int getTransferThreads() {
+        return transferThreads;
+    }
+
+    /**
+     * @return The number of statements transferred from the parent to the child at a time.
+     */
+    public int getTransferBatchSize() {
+        return transferBatchSize;
+    }
+
     /**
      * Builder to help create {@link MergeConfiguration}s.
      */
@@ -250,6 +279,9 @@ public class MergeConfiguration {
         private Boolean useNtpServer;
         private String ntpServerHost;
 
+        private Integer transferThreads;
+        private Integer transferBatchSize;
+
         /**
          * Creates a new Builder to create a {@link MergeConfiguration}.
          */
@@ -283,6 +315,9 @@ public class MergeConfiguration {
 
             useNtpServer = builder.useNtpServer;
             ntpServerHost = builder.ntpServerHost;
+
+            transferThreads = builder.transferThreads;
+            transferBatchSize = builder.transferBatchSize;
         }
 
         /**
@@ -459,6 +494,26 @@ public class MergeConfiguration {
             return this;
         }
 
+        /**
+         * @param transferThreads - The number of threads used to transfer
+         * statements from the parent to the child.
+         * @return the updated {@link Builder}.
+         */
+        public Builder setTransferThreads(final Integer transferThreads) {
+            this.transferThreads = transferThreads;
+            return this;
+        }
+
+        /**
+         * @param transferBatchSize - The number of statements transferred
+         * from the parent to the child at a time.
+         * @return the updated {@link Builder}.
+         */
+        public Builder setTransferBatchSize(final Integer transferBatchSize) {
+            this.transferBatchSize = transferBatchSize;
+            return this;
+        }
+
         public MergeConfiguration build() throws MergeConfigurationException {
             return new MergeConfiguration(this);
         }
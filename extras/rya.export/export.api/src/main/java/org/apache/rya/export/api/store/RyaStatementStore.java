@@ -18,8 +18,11 @@
  */
 package org.apache.rya.export.api.store;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.rya.api.domain.RyaStatement;
 import org.apache.rya.export.api.metadata.MergeParentMetadata;
@@ -34,6 +37,10 @@ import org.apache.rya.export.api.metadata.ParentMetadataExistsException;
  * <li>remove a rya statement from the store</li>
  * <li>update an existing rya statement with a new one</li>
  *
+ * Adding, removing, and checking for statements may also be done a batch at a
+ * time. The default batch operations handle the statements one at a time, so
+ * implementations should override them when the storage system can do better.
+ * <p>
  * One would use this {@link RyaStatementStore} when they have a database or
  * some storage system that is used when merging in data or exporting data.
  */
@@ -59,6 +66,26 @@ public interface RyaStatementStore {
      */
     public void removeStatement(final RyaStatement statement) throws RemoveStatementException;
 
+    /**
+     * @param statements - The {@link RyaStatement}s to add to this {@link RyaStatementStore}.
+     * @throws AddStatementException Thrown when adding the statements fails.
+     */
+    public default void addStatements(final Collection<RyaStatement> statements) throws AddStatementException {
+        for (final RyaStatement statement : statements) {
+            addStatement(statement);
+        }
+    }
+
+    /**
+     * @param statements - The {@link RyaStatement}s to remove from this {@link RyaStatementStore}.
+     * @throws RemoveStatementException - Thrown when the statements are not removed
+     */
+    public default void removeStatements(final Collection<RyaStatement> statements) throws RemoveStatementException {
+        for (final RyaStatement statement : statements) {
+            removeStatement(statement);
+        }
+    }
+
     /**
      * Updates the original {@link RyaStatement} with a new one.
      * @param original - The {@link RyaStatement} to update.
@@ -76,6 +103,22 @@ public interface RyaStatementStore {
      */
     public boolean containsStatement(final RyaStatement ryaStatement) throws ContainsStatementException;
 
+    /**
+     * Queries to see which of the statements are contained in the statement store.
+     * @param statements - The {@link RyaStatement}s to search for.
+     * @return The statements from {@code statements} that the statement store contains.
+     * @throws ContainsStatementException - Thrown when an exception occurs trying to check for the statements.
+     */
+    public default Set<RyaStatement> containsStatements(final Collection<RyaStatement> statements) throws ContainsStatementException {
+        final Set<RyaStatement> contained = new HashSet<>();
+        for (final RyaStatement statement : statements) {
+            if (containsStatement(statement)) {
+                contained.add(statement);
+            }
+        }
+        return contained;
+    }
+
     /**
      * @return - The {@link MergeParentMetadata}, if it exists, of this Statement Store.
      */
@@ -20,8 +20,10 @@ package org.apache.rya.export.api.store;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.rya.api.domain.RyaStatement;
 import org.apache.rya.export.api.metadata.MergeParentMetadata;
@@ -58,6 +60,16 @@ public abstract class RyaStatementStorePolicy implements RyaStatementStore {
         store.removeStatement(statement);
     }
 
+    @Override
+    public void addStatements(final Collection<RyaStatement> statements) throws AddStatementException {
+        store.addStatements(statements);
+    }
+
+    @Override
+    public void removeStatements(final Collection<RyaStatement> statements) throws RemoveStatementException {
+        store.removeStatements(statements);
+    }
+
     @Override
     public void updateStatement(final RyaStatement original, final RyaStatement update) throws UpdateStatementException {
         store.updateStatement(original, update);
@@ -68,6 +80,11 @@ public abstract class RyaStatementStorePolicy implements RyaStatementStore {
         return store.containsStatement(statement);
     }
 
+    @Override
+    public Set<RyaStatement> containsStatements(final Collection<RyaStatement> statements) throws ContainsStatementException {
+        return store.containsStatements(statements);
+    }
+
     @Override
     public Optional<MergeParentMetadata> getParentMetadata() {
         return store.getParentMetadata();
@@ -117,7 +117,8 @@ public class MergeDriverClient {
                     }
                     final MemoryTimeMerger merger = new MemoryTimeMerger(parentStore, childStore,
                             new VisibilityStatementMerger(), timeConfig.getToolStartTime(),
-                            configuration.getParentRyaInstanceName(), timeOffset);
+                            configuration.getParentRyaInstanceName(), timeOffset,
+                            configuration.getTransferThreads(), configuration.getTransferBatchSize());
                     merger.runJob();
                 }
             }
@@ -20,28 +20,35 @@ package org.apache.rya.export.client.merge;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 import org.apache.rya.api.domain.RyaStatement;
 import org.apache.rya.export.api.Merger;
+import org.apache.rya.export.api.MergerException;
 import org.apache.rya.export.api.StatementMerger;
+import org.apache.rya.export.api.conf.MergeConfiguration;
 import org.apache.rya.export.api.metadata.MergeParentMetadata;
 import org.apache.rya.export.api.metadata.ParentMetadataExistsException;
 import org.apache.rya.export.api.store.AddStatementException;
-import org.apache.rya.export.api.store.ContainsStatementException;
-import org.apache.rya.export.api.store.FetchStatementException;
-import org.apache.rya.export.api.store.RemoveStatementException;
 import org.apache.rya.export.api.store.RyaStatementStore;
 
+import com.google.common.collect.AbstractIterator;
+
 /**
  * An in memory {@link Merger}.  Merges {@link RyaStatement}s from a parent
  * to a child.  The statements merged will be any that have a timestamp after
  * the provided time.  If there are any conflicting statements, the provided
  * {@link StatementMerger} will merge the statements and produce the desired
  * {@link RyaStatement}.
+ * <p>
+ * The statements are moved a batch at a time by several threads, see
+ * {@link ParallelStatementTransfer}.
  */
 public class MemoryTimeMerger implements Merger {
     private static final Logger LOG = Logger.getLogger(MemoryTimeMerger.class);
@@ -52,25 +59,48 @@ public class MemoryTimeMerger implements Merger {
     private final Date timestamp;
     private final String ryaInstanceName;
     private final Long timeOffset;
+    private final int numThreads;
+    private final int batchSize;
 
     /**
-     * Creates a new {@link MemoryTimeMerger} to merge the statements from the parent to a child.
+     * Creates a new {@link MemoryTimeMerger} to merge the statements from the parent to a child
+     * using the default number of threads and batch size.
      * @param parentStore
      * @param childStore
-     * @param childMetadata
-     * @param parentMetadata
      * @param statementMerger
      * @param timestamp - The timestamp from which all parent statements will be merged into the child.
+     * @param ryaInstanceName
+     * @param timeOffset
      */
     public MemoryTimeMerger(final RyaStatementStore parentStore, final RyaStatementStore childStore,
             final StatementMerger statementMerger, final Date timestamp, final String ryaInstanceName,
             final Long timeOffset) {
+        this(parentStore, childStore, statementMerger, timestamp, ryaInstanceName, timeOffset,
+                MergeConfiguration.DEFAULT_TRANSFER_THREADS, MergeConfiguration.DEFAULT_TRANSFER_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a new {@link MemoryTimeMerger} to merge the statements from the parent to a child.
+     * @param parentStore
+     * @param childStore
+     * @param statementMerger
+     * @param timestamp - The timestamp from which all parent statements will be merged into the child.
+     * @param ryaInstanceName
+     * @param timeOffset
+     * @param numThreads - The number of threads used to transfer statements.
+     * @param batchSize - The number of statements transferred at a time.
+     */
+    public MemoryTimeMerger(final RyaStatementStore parentStore, final RyaStatementStore childStore,
+            final StatementMerger statementMerger, final Date timestamp, final String ryaInstanceName,
+            final Long timeOffset, final int numThreads, final int batchSize) {
         this.parentStore = checkNotNull(parentStore);
         this.childStore = checkNotNull(childStore);
         this.statementMerger = checkNotNull(statementMerger);
         this.timestamp = checkNotNull(timestamp);
         this.ryaInstanceName = checkNotNull(ryaInstanceName);
         this.timeOffset = checkNotNull(timeOffset);
+        this.numThreads = numThreads;
+        this.batchSize = batchSize;
     }
 
     @Override
@@ -84,16 +114,22 @@ public class MemoryTimeMerger implements Merger {
             if(parentMetadata.getRyaInstanceName().equals(ryaInstanceName)) {
                 try {
                     importStatements(parentMetadata);
-                } catch (AddStatementException | ContainsStatementException | RemoveStatementException | FetchStatementException e) {
+                } catch (final MergerException e) {
                     LOG.error("Failed to import statements.", e);
+                } catch (final InterruptedException e) {
+                    LOG.error("Interrupted while importing statements.", e);
+                    Thread.currentThread().interrupt();
                 }
             }
         } else {
             try {
                 LOG.info("Cloning statements...");
                 export();
-            } catch (final ParentMetadataExistsException | FetchStatementException e) {
+            } catch (final ParentMetadataExistsException | MergerException e) {
                 LOG.error("Failed to export statements.", e);
+            } catch (final InterruptedException e) {
+                LOG.error("Interrupted while exporting statements.", e);
+                Thread.currentThread().interrupt();
             }
         }
     }
@@ -101,9 +137,10 @@ public class MemoryTimeMerger implements Merger {
     /**
      * Exports all statements after the provided timestamp.
      * @throws ParentMetadataExistsException -
-     * @throws FetchStatementException
+     * @throws MergerException
+     * @throws InterruptedException
      */
-    private void export() throws ParentMetadataExistsException, FetchStatementException {
+    private void export() throws ParentMetadataExistsException, MergerException, InterruptedException {
         LOG.info("Creating parent metadata in the child.");
         //setup parent metadata repo in the child
         final MergeParentMetadata metadata = new MergeParentMetadata.Builder()
@@ -117,45 +154,65 @@ public class MemoryTimeMerger implements Merger {
         //fetch all statements after timestamp from the parent
         final Iterator<RyaStatement> statements = parentStore.fetchStatements();
         LOG.info("Exporting statements.");
-        while(statements.hasNext()) {
-            System.out.print(".");
-            final RyaStatement statement = statements.next();
+        final long exported = new ParallelStatementTransfer("Export", numThreads, batchSize).run(statements, batch -> {
             try {
-                childStore.addStatement(statement);
+                childStore.addStatements(batch);
             } catch (final AddStatementException e) {
-                LOG.error("Failed to add statement: " + statement + " to the statement store.", e);
+                LOG.error("Failed to add " + batch.size() + " statements to the statement store.", e);
             }
-        }
+        });
+        LOG.info("Exported " + exported + " statements.");
     }
 
-    private void importStatements(final MergeParentMetadata metadata) throws AddStatementException, ContainsStatementException, RemoveStatementException, FetchStatementException {
+    private void importStatements(final MergeParentMetadata metadata) throws MergerException, InterruptedException {
         LOG.info("Importing statements.");
-        final Iterator<RyaStatement> parentStatements = parentStore.fetchStatements();
-        final Iterator<RyaStatement> childStatements = childStore.fetchStatements();
         //statements are in order by timestamp.
+        //after the timestamp has passed, there is no need to keep checking the parent
+        final long mergeTime = metadata.getTimestamp().getTime();
+        final Iterator<RyaStatement> allChildStatements = childStore.fetchStatements();
+        final Iterator<RyaStatement> childStatements = new AbstractIterator<RyaStatement>() {
+            @Override
+            protected RyaStatement computeNext() {
+                if (allChildStatements.hasNext()) {
+                    final RyaStatement statement = allChildStatements.next();
+                    if (statement.getTimestamp() <= mergeTime) {
+                        return statement;
+                    }
+                }
+                return endOfData();
+            }
+        };
 
         //Remove statements that were removed in the child.
-        //after the timestamp has passed, there is no need to keep checking the parent
-        while(childStatements.hasNext()) {
-            final RyaStatement statement = childStatements.next();
-            if(statement.getTimestamp() > metadata.getTimestamp().getTime()) {
-                break;
+        new ParallelStatementTransfer("Import removal", numThreads, batchSize).run(childStatements, batch -> {
+            final Set<RyaStatement> inParent = parentStore.containsStatements(batch);
+            final List<RyaStatement> removed = new ArrayList<>();
+            for (final RyaStatement statement : batch) {
+                if (!inParent.contains(statement)) {
+                    removed.add(statement);
+                }
             }
-            if(!parentStore.containsStatement(statement)) {
-                System.out.println(statement.toString());
-                childStore.removeStatement(statement);
+            if (!removed.isEmpty()) {
+                childStore.removeStatements(removed);
             }
-        }
+        });
 
-        long curTime = -1L;
         //Add all of the child statements that are not in the parent
-        while(parentStatements.hasNext()) {
-            final RyaStatement statement = parentStatements.next();
-            curTime = statement.getTimestamp();
-            if(!childStore.containsStatement(statement)) {
+        final Iterator<RyaStatement> parentStatements = parentStore.fetchStatements();
+        new ParallelStatementTransfer("Import addition", numThreads, batchSize).run(parentStatements, batch -> {
+            final Set<RyaStatement> inChild = childStore.containsStatements(batch);
+            final List<RyaStatement> added = new ArrayList<>();
+            for (final RyaStatement statement : batch) {
+                if (!inChild.contains(statement)) {
+                    added.add(statement);
+                }
+            }
+            for (final RyaStatement statement : added) {
                 statement.setTimestamp(statement.getTimestamp() - timeOffset);
-                childStore.addStatement(statement);
             }
-        }
+            if (!added.isEmpty()) {
+                childStore.addStatements(added);
+            }
+        });
     }
 }
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.export.client.merge;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.Logger;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.export.api.MergerException;
+
+/**
+ * Moves {@link RyaStatement}s from a source iterator to a {@link BatchHandler}
+ * a batch at a time, using several worker threads.
+ * <p>
+ * The statements are partitioned by subject, so every statement about a
+ * subject is handled by the same worker, in the order it was read from the
+ * source. Each worker has a small bounded queue of batches, so reading the
+ * source blocks when the workers fall behind instead of buffering the source
+ * in memory. Progress and throughput are logged while the transfer runs.
+ */
+public class ParallelStatementTransfer {
+    private static final Logger LOG = Logger.getLogger(ParallelStatementTransfer.class);
+
+    private static final int QUEUED_BATCHES_PER_WORKER = 2;
+    private static final long REPORT_PERIOD_SECONDS = 30;
+    private static final List<RyaStatement> END_OF_STATEMENTS = Collections.emptyList();
+
+    private final String name;
+    private final int numThreads;
+    private final int batchSize;
+
+    /**
+     * Handles one batch of statements.
+     */
+    public interface BatchHandler {
+        /**
+         * @param batch - The statements to handle. (not null)
+         * @throws MergerException - Thrown when the batch could not be handled.
+         */
+        public void handle(List<RyaStatement> batch) throws MergerException;
+    }
+
+    /**
+     * Creates a new {@link ParallelStatementTransfer}.
+     * @param name - The name of the transfer, used when reporting progress. (not null)
+     * @param numThreads - The number of worker threads.
+     * @param batchSize - The maximum number of statements handed to the {@link BatchHandler} at a time.
+     */
+    public ParallelStatementTransfer(final String name, final int numThreads, final int batchSize) {
+        this.name = checkNotNull(name);
+        checkArgument(numThreads > 0, "The number of threads must be positive.");
+        checkArgument(batchSize > 0, "The batch size must be positive.");
+        this.numThreads = numThreads;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reads all of the statements from the source and hands them to the handler.
+     * The first batch that fails stops the transfer.
+     * @param statements - The statements to transfer. (not null)
+     * @param handler - Handles each batch of statements. (not null)
+     * @return The number of statements that were handled.
+     * @throws MergerException - The exception thrown by the first batch that failed.
+     * @throws InterruptedException - Thrown when the transfer is interrupted.
+     */
+    public long run(final Iterator<RyaStatement> statements, final BatchHandler handler) throws MergerException, InterruptedException {
+        checkNotNull(statements);
+        checkNotNull(handler);
+
+        final AtomicLong read = new AtomicLong();
+        final AtomicLong handled = new AtomicLong();
+        final AtomicReference<MergerException> failure = new AtomicReference<>();
+        final long start = System.currentTimeMillis();
+
+        final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> report(read.get(), handled.get(), start), REPORT_PERIOD_SECONDS,
+                REPORT_PERIOD_SECONDS, TimeUnit.SECONDS);
+
+        final ExecutorService workers = Executors.newFixedThreadPool(numThreads);
+        final List<BlockingQueue<List<RyaStatement>>> queues = new ArrayList<>(numThreads);
+        final List<Future<?>> futures = new ArrayList<>(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            final BlockingQueue<List<RyaStatement>> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES_PER_WORKER);
+            queues.add(queue);
+            futures.add(workers.submit(() -> {
+                work(queue, handler, handled, failure);
+                return null;
+            }));
+        }
+
+        try {
+            final List<List<RyaStatement>> batches = new ArrayList<>(numThreads);
+            for (int i = 0; i < numThreads; i++) {
+                batches.add(new ArrayList<>(batchSize));
+            }
+            while (statements.hasNext() && failure.get() == null) {
+                final RyaStatement statement = statements.next();
+                final int partition = partition(statement);
+                final List<RyaStatement> batch = batches.get(partition);
+                batch.add(statement);
+                read.incrementAndGet();
+                if (batch.size() == batchSize) {
+                    queues.get(partition).put(batch);
+                    batches.set(partition, new ArrayList<>(batchSize));
+                }
+            }
+            for (int i = 0; i < numThreads; i++) {
+                if (!batches.get(i).isEmpty()) {
+                    queues.get(i).put(batches.get(i));
+                }
+                queues.get(i).put(END_OF_STATEMENTS);
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("A " + name + " worker failed unexpectedly.", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            reporter.shutdownNow();
+        }
+
+        report(read.get(), handled.get(), start);
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return handled.get();
+    }
+
+    /**
+     * Handles the batches of one partition until the end of the statements is
+     * reached. Once any batch has failed, the remaining batches are drained
+     * without being handled so the reader never blocks on a full queue.
+     */
+    private static void work(final BlockingQueue<List<RyaStatement>> queue, final BatchHandler handler,
+            final AtomicLong handled, final AtomicReference<MergerException> failure) throws InterruptedException {
+        List<RyaStatement> batch = queue.take();
+        while (batch != END_OF_STATEMENTS) {
+            if (failure.get() == null) {
+                try {
+                    handler.handle(batch);
+                    handled.addAndGet(batch.size());
+                } catch (final MergerException e) {
+                    failure.compareAndSet(null, e);
+                } catch (final RuntimeException e) {
+                    failure.compareAndSet(null, new MergerException("Failed to handle a batch of statements.", e));
+                }
+            }
+            batch = queue.take();
+        }
+    }
+
+    private int partition(final RyaStatement statement) {
+        final Object subject = statement.getSubject();
+        return subject == null ? 0 : Math.floorMod(subject.hashCode(), numThreads);
+    }
+
+    private void report(final long read, final long handled, final long start) {
+        final double seconds = Math.max(1, System.currentTimeMillis() - start) / 1000.0;
+        LOG.info(String.format("%s: read %d statements, handled %d statements (%.1f statements/s).", name, read, handled,
+                handled / seconds));
+    }
+}
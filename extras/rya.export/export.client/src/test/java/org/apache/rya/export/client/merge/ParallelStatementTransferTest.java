@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.export.client.merge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.export.api.MergerException;
+import org.junit.Test;
+
+/**
+ * Tests the methods of {@link ParallelStatementTransfer}.
+ */
+public class ParallelStatementTransferTest {
+    private static final RyaURI PREDICATE = new RyaURI("urn:hasSequence");
+
+    @Test
+    public void runTest() throws Exception {
+        final List<RyaStatement> handled = new CopyOnWriteArrayList<>();
+        final ParallelStatementTransfer transfer = new ParallelStatementTransfer("test", 3, 7);
+
+        final long count = transfer.run(new CountingIterator(createStatements(10, 100)), handled::addAll);
+        assertEquals(1000, count);
+        assertEquals(1000, handled.size());
+    }
+
+    @Test
+    public void perSubjectOrderTest() throws Exception {
+        final Map<String, List<Integer>> sequences = new ConcurrentHashMap<>();
+        final ParallelStatementTransfer transfer = new ParallelStatementTransfer("test", 4, 3);
+
+        transfer.run(new CountingIterator(createStatements(20, 50)), batch -> {
+            for (final RyaStatement statement : batch) {
+                sequences.computeIfAbsent(statement.getSubject().getData(), subject -> new CopyOnWriteArrayList<>())
+                    .add(sequenceOf(statement));
+            }
+        });
+
+        // Every statement about a subject is handled in the order it was read.
+        assertEquals(20, sequences.size());
+        for (final List<Integer> sequence : sequences.values()) {
+            assertEquals(50, sequence.size());
+            for (int i = 0; i < sequence.size(); i++) {
+                assertEquals(i, (int) sequence.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void failurePropagatedTest() throws Exception {
+        final MergerException expected = new MergerException("Could not handle the batch.");
+        final ParallelStatementTransfer transfer = new ParallelStatementTransfer("test", 2, 5);
+
+        try {
+            transfer.run(new CountingIterator(createStatements(10, 10)), batch -> {
+                throw expected;
+            });
+            fail("The failure of the batch handler should have been thrown.");
+        } catch (final MergerException e) {
+            assertSame(expected, e);
+        }
+    }
+
+    @Test
+    public void runtimeFailureWrappedTest() throws Exception {
+        final IllegalStateException expected = new IllegalStateException("The store is closed.");
+        final ParallelStatementTransfer transfer = new ParallelStatementTransfer("test", 2, 5);
+
+        try {
+            transfer.run(new CountingIterator(createStatements(10, 10)), batch -> {
+                throw expected;
+            });
+            fail("The failure of the batch handler should have been thrown.");
+        } catch (final MergerException e) {
+            assertSame(expected, e.getCause());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void readerBlocksTest() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger handled = new AtomicInteger();
+        final CountingIterator statements = new CountingIterator(createStatements(1, 100));
+        final ParallelStatementTransfer transfer = new ParallelStatementTransfer("test", 1, 1);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Long> result = executor.submit(() -> transfer.run(statements, batch -> {
+                awaitRelease(release);
+                handled.addAndGet(batch.size());
+            }));
+
+            // One batch is being handled, two are queued, and the reader is blocked putting the fourth.
+            awaitConsumed(statements, 4);
+            Thread.sleep(200);
+            assertEquals(4, statements.getConsumed());
+            assertEquals(0, handled.get());
+
+            release.countDown();
+            assertEquals(100L, (long) result.get());
+            assertEquals(100, handled.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void blockedReaderDrainedOnFailureTest() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final MergerException expected = new MergerException("Could not handle the batch.");
+        final CountingIterator statements = new CountingIterator(createStatements(1, 1000));
+        final ParallelStatementTransfer transfer = new ParallelStatementTransfer("test", 1, 1);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Long> result = executor.submit(() -> transfer.run(statements, batch -> {
+                calls.incrementAndGet();
+                awaitRelease(release);
+                throw expected;
+            }));
+
+            // Fail the first batch only once the reader is blocked on the full queue.
+            awaitConsumed(statements, 4);
+            release.countDown();
+            try {
+                result.get();
+                fail("The failure of the batch handler should have been thrown.");
+            } catch (final ExecutionException e) {
+                assertSame(expected, e.getCause());
+            }
+
+            // The queued batches were drained without being handled and the reader stopped
+            // as soon as its blocked batch was accepted.
+            assertEquals(1, calls.get());
+            assertEquals(4, statements.getConsumed());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void progressLoggedTest() throws Exception {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        final AppenderSkeleton appender = new AppenderSkeleton() {
+            @Override
+            protected void append(final LoggingEvent event) {
+                messages.add(event.getRenderedMessage());
+            }
+
+            @Override
+            public boolean requiresLayout() {
+                return false;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        final Logger log = Logger.getLogger(ParallelStatementTransfer.class);
+        log.addAppender(appender);
+        try {
+            new ParallelStatementTransfer("progressTest", 2, 10).run(new CountingIterator(createStatements(5, 20)), batch -> {});
+        } finally {
+            log.removeAppender(appender);
+        }
+
+        assertEquals(1, messages.size());
+        assertTrue(messages.get(0), messages.get(0).startsWith("progressTest: read 100 statements, handled 100 statements ("));
+    }
+
+    /**
+     * Creates statements about several subjects, interleaving the subjects.
+     * The object of each statement is its sequence number within its subject.
+     */
+    private static List<RyaStatement> createStatements(final int numSubjects, final int perSubject) {
+        final List<RyaStatement> statements = new ArrayList<>();
+        for (int i = 0; i < perSubject; i++) {
+            for (int subject = 0; subject < numSubjects; subject++) {
+                statements.add(new RyaStatement(new RyaURI("urn:subject" + subject), PREDICATE, new RyaURI("urn:" + i)));
+            }
+        }
+        return statements;
+    }
+
+    private static int sequenceOf(final RyaStatement statement) {
+        return Integer.parseInt(statement.getObject().getData().substring("urn:".length()));
+    }
+
+    private static void awaitConsumed(final CountingIterator statements, final int consumed) throws InterruptedException {
+        while (statements.getConsumed() < consumed) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitRelease(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Counts how many statements the transfer has read.
+     */
+    private static class CountingIterator implements Iterator<RyaStatement> {
+        private final Iterator<RyaStatement> statements;
+        private final AtomicInteger consumed = new AtomicInteger();
+
+        public CountingIterator(final List<RyaStatement> statements) {
+            this.statements = statements.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return statements.hasNext();
+        }
+
+        @Override
+        public RyaStatement next() {
+            consumed.incrementAndGet();
+            return statements.next();
+        }
+
+        public int getConsumed() {
+            return consumed.get();
+        }
+    }
+}
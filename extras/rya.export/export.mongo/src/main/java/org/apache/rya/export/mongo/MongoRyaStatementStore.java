@@ -22,9 +22,14 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.apache.rya.mongodb.dao.SimpleMongoDBStorageStrategy.TIMESTAMP;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.rya.api.domain.RyaStatement;
 import org.apache.rya.api.persist.RyaDAOException;
@@ -39,6 +44,7 @@ import org.apache.rya.export.mongo.parent.MongoParentMetadataRepository;
 import org.apache.rya.mongodb.MongoDBRyaDAO;
 import org.apache.rya.mongodb.dao.SimpleMongoDBStorageStrategy;
 
+import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.Cursor;
 import com.mongodb.DB;
@@ -77,11 +83,12 @@ public class MongoRyaStatementStore implements RyaStatementStore {
 
     @Override
     public Iterator<RyaStatement> fetchStatements() {
-        final Cursor cur = db.getCollection(TRIPLES_COLLECTION).find().sort(new BasicDBObject(TIMESTAMP, 1));
         final List<RyaStatement> statements = new ArrayList<>();
-        while(cur.hasNext()) {
-            final RyaStatement statement = adapter.deserializeDBObject(cur.next());
-            statements.add(statement);
+        try(final Cursor cur = db.getCollection(TRIPLES_COLLECTION).find().sort(new BasicDBObject(TIMESTAMP, 1))) {
+            while(cur.hasNext()) {
+                final RyaStatement statement = adapter.deserializeDBObject(cur.next());
+                statements.add(statement);
+            }
         }
         return statements.iterator();
     }
@@ -95,6 +102,15 @@ public class MongoRyaStatementStore implements RyaStatementStore {
         }
     }
 
+    @Override
+    public void addStatements(final Collection<RyaStatement> statements) throws AddStatementException {
+        try {
+            dao.add(statements.iterator());
+        } catch (final RyaDAOException e) {
+            throw new AddStatementException("Unable to add " + statements.size() + " statements", e);
+        }
+    }
+
     @Override
     public void removeStatement(final RyaStatement statement) throws RemoveStatementException {
         try {
@@ -105,12 +121,69 @@ public class MongoRyaStatementStore implements RyaStatementStore {
         }
     }
 
+    @Override
+    public void removeStatements(final Collection<RyaStatement> statements) throws RemoveStatementException {
+        try {
+            //mongo dao does not need a config to remove.
+            dao.delete(statements.iterator(), null);
+        } catch (final RyaDAOException e) {
+            throw new RemoveStatementException("Unable to remove " + statements.size() + " statements", e);
+        }
+    }
+
     @Override
     public boolean containsStatement(final RyaStatement statement) throws ContainsStatementException {
         final DBObject dbo = adapter.serialize(statement);
         return db.getCollection(TRIPLES_COLLECTION).find(dbo).count() > 0;
     }
 
+    /**
+     * Looks up all of the statements with a single query that matches any of
+     * their serialized documents, the same documents {@link #containsStatement(RyaStatement)}
+     * searches for. The matches are read back by id, so statements that share
+     * an id within the batch are checked one at a time.
+     */
+    @Override
+    public Set<RyaStatement> containsStatements(final Collection<RyaStatement> statements) throws ContainsStatementException {
+        final Set<RyaStatement> contained = new HashSet<>();
+        if (statements.isEmpty()) {
+            return contained;
+        }
+
+        final Map<Object, List<RyaStatement>> byId = new HashMap<>();
+        final BasicDBList matches = new BasicDBList();
+        for (final RyaStatement statement : statements) {
+            final DBObject dbo = adapter.serialize(statement);
+            byId.computeIfAbsent(dbo.get(SimpleMongoDBStorageStrategy.ID), id -> new ArrayList<>()).add(statement);
+            matches.add(dbo);
+        }
+
+        final Set<Object> matchedIds = new HashSet<>();
+        try (final Cursor cur = db.getCollection(TRIPLES_COLLECTION).find(new BasicDBObject("$or", matches),
+                new BasicDBObject(SimpleMongoDBStorageStrategy.ID, 1))) {
+            while (cur.hasNext()) {
+                matchedIds.add(cur.next().get(SimpleMongoDBStorageStrategy.ID));
+            }
+        }
+
+        for (final Object id : matchedIds) {
+            final List<RyaStatement> withId = byId.get(id);
+            if (withId == null) {
+                continue;
+            }
+            if (withId.size() == 1) {
+                contained.addAll(withId);
+            } else {
+                for (final RyaStatement statement : withId) {
+                    if (containsStatement(statement)) {
+                        contained.add(statement);
+                    }
+                }
+            }
+        }
+        return contained;
+    }
+
     /**
      * @return The {@link MongoClient} to connect to mongo.
      */
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.export.mongo;
+
+import static org.apache.rya.export.mongo.MongoRyaStatementStore.TRIPLES_COLLECTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.mongodb.MongoDBRdfConfiguration;
+import org.apache.rya.mongodb.MongoDBRyaDAO;
+import org.apache.rya.mongodb.dao.SimpleMongoDBStorageStrategy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoClient;
+
+/**
+ * Tests the methods of {@link MongoRyaStatementStore}. The triples collection
+ * is backed by a list of stored documents, so no Mongo instance is needed.
+ */
+public class MongoRyaStatementStoreTest {
+    private static final String RYA_INSTANCE = "test_instance";
+
+    private final SimpleMongoDBStorageStrategy adapter = new SimpleMongoDBStorageStrategy();
+    private final List<DBObject> stored = new ArrayList<>();
+    private final List<DBCursor> batchCursors = new ArrayList<>();
+    private MongoDBRyaDAO dao;
+    private MongoRyaStatementStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        final DBCollection triples = mock(DBCollection.class);
+        when(triples.find(any(DBObject.class))).thenAnswer(invocation ->
+            cursor(matching((DBObject) invocation.getArguments()[0])));
+        when(triples.find(any(DBObject.class), any(DBObject.class))).thenAnswer(invocation -> {
+            final DBCursor cursor = cursor(matching((DBObject) invocation.getArguments()[0]));
+            batchCursors.add(cursor);
+            return cursor;
+        });
+
+        final DB db = mock(DB.class);
+        when(db.getCollection(anyString())).thenReturn(mock(DBCollection.class));
+        when(db.getCollection(TRIPLES_COLLECTION)).thenReturn(triples);
+
+        final MongoClient client = mock(MongoClient.class);
+        when(client.getDB(RYA_INSTANCE)).thenReturn(db);
+
+        final MongoDBRdfConfiguration conf = new MongoDBRdfConfiguration();
+        conf.set(MongoDBRdfConfiguration.MONGO_DB_NAME, RYA_INSTANCE);
+        dao = new MongoDBRyaDAO(conf, client);
+        store = new MongoRyaStatementStore(client, RYA_INSTANCE, dao);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dao.destroy();
+    }
+
+    @Test
+    public void containsStatementsTest() throws Exception {
+        final RyaStatement adam = createRyaStatement("Adam", "analyzes", "apple", 1L);
+        final RyaStatement bob = createRyaStatement("Bob", "bites", "burger", 1L);
+        final RyaStatement charlie = createRyaStatement("Charlie", "checks", "chores", 1L);
+        store(adam);
+        store(charlie);
+
+        final Set<RyaStatement> expected = new HashSet<>(Arrays.asList(adam, charlie));
+        assertEquals(expected, store.containsStatements(Arrays.asList(adam, bob, charlie)));
+        assertEquals(1, batchCursors.size());
+        assertCursorsClosed();
+    }
+
+    @Test
+    public void containsStatements_sharedIdTest() throws Exception {
+        // Statements that only differ by timestamp have the same id.
+        final RyaStatement first = createRyaStatement("Adam", "analyzes", "apple", 1L);
+        final RyaStatement second = createRyaStatement("Adam", "analyzes", "apple", 2L);
+        final RyaStatement third = createRyaStatement("Adam", "analyzes", "apple", 3L);
+        assertEquals(adapter.serialize(first).get(SimpleMongoDBStorageStrategy.ID),
+                adapter.serialize(second).get(SimpleMongoDBStorageStrategy.ID));
+        store(first);
+        store(third);
+
+        final Set<RyaStatement> expected = new HashSet<>(Arrays.asList(first, third));
+        assertEquals(expected, store.containsStatements(Arrays.asList(first, second, third)));
+        assertCursorsClosed();
+    }
+
+    @Test
+    public void containsStatements_noneStoredTest() throws Exception {
+        final RyaStatement adam = createRyaStatement("Adam", "analyzes", "apple", 1L);
+        assertTrue(store.containsStatements(Collections.singletonList(adam)).isEmpty());
+        assertTrue(store.containsStatements(Collections.emptyList()).isEmpty());
+        assertCursorsClosed();
+    }
+
+    private static RyaStatement createRyaStatement(final String subject, final String predicate, final String object, final long timestamp) {
+        final RyaStatement statement = new RyaStatement(new RyaURI("urn:" + subject), new RyaURI("urn:" + predicate), new RyaURI("urn:" + object));
+        statement.setTimestamp(timestamp);
+        return statement;
+    }
+
+    private void store(final RyaStatement statement) {
+        stored.add(adapter.serialize(statement));
+    }
+
+    /**
+     * Evaluates the equality and {@code $or} queries the store issues against the stored documents.
+     */
+    private List<DBObject> matching(final DBObject query) {
+        @SuppressWarnings("unchecked")
+        final List<Object> or = query.containsField("$or") ? (List<Object>) query.get("$or") : Collections.singletonList(query);
+        return stored.stream()
+            .filter(document -> or.contains(document))
+            .collect(Collectors.toList());
+    }
+
+    private DBCursor cursor(final List<DBObject> results) {
+        final Iterator<DBObject> it = results.iterator();
+        final DBCursor cursor = mock(DBCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> it.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> it.next());
+        when(cursor.count()).thenReturn(results.size());
+        return cursor;
+    }
+
+    private void assertCursorsClosed() {
+        for (final DBCursor cursor : batchCursors) {
+            verify(cursor, times(1)).close();
+        }
+    }
+}
@@ -22,9 +22,13 @@ import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -42,6 +46,7 @@ import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.Binding;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.FunctionCall;
@@ -53,11 +58,17 @@ import org.eclipse.rdf4j.query.impl.MapBindingSet;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 
+import com.google.common.collect.Iterables;
 import com.vividsolutions.jts.geom.Geometry;
 
 public class EventQueryNode extends ExternalSet implements ExternalBatchingIterator {
     private static final ValueFactory VF = SimpleValueFactory.getInstance();
 
+    /**
+     * The maximum number of subjects whose Events are fetched with a single search.
+     */
+    private static final int MAX_SUBJECTS_PER_SEARCH = 1000;
+
     private final Collection<FunctionCall> usedFilters;
     private final Collection<IndexingExpr> geoFilters;
     private final Collection<IndexingExpr> temporalFilters;
@@ -68,9 +79,7 @@ public class EventQueryNode extends ExternalSet implements ExternalBatchingItera
     //Information about the subject of the patterns.
     private final boolean subjectIsConstant;
     private final Optional<String> subjectVar;
-    //not final because if the subject is a variable and the evaluate() is
-    //  provided a binding set that contains the subject, this optional is used.
-    private Optional<String> subjectConstant;
+    private final Optional<String> subjectConstant;
 
     //since and EventQueryNode exists in a single segment, all binding names are garunteed to be assured.
     private final Set<String> bindingNames;
@@ -162,62 +171,148 @@ public class EventQueryNode extends ExternalSet implements ExternalBatchingItera
         }
     }
 
+    /**
+     * Evaluates a {@link BindingSet}. Each result holds the provided bindings as well as the
+     * bindings of the matching Event, because joins use the results of their right argument
+     * as the joined rows.
+     */
     @Override
     public CloseableIteration<BindingSet, QueryEvaluationException> evaluate(final BindingSet bindings) throws QueryEvaluationException {
-        final List<BindingSet> list = new ArrayList<>();
-        try {
-            final Collection<Event> searchEvents;
-            final String subj;
-            //if the provided binding set has the subject already, set it to the constant subject.
-            if(!subjectConstant.isPresent() && bindings.hasBinding(subjectVar.get())) {
-                subjectConstant = Optional.of(bindings.getValue(subjectVar.get()).stringValue());
-            } else if(bindings.size() != 0) {
-                list.add(bindings);
-            }
+        requireNonNull(bindings);
+        return evaluate(Collections.singleton(bindings));
+    }
 
-            // If the subject needs to be filled in, check if the subject variable is in the binding set.
-            if(subjectConstant.isPresent()) {
-                // if it is, fetch that value and then fetch the entity for the subject.
-                subj = subjectConstant.get();
-                searchEvents = eventStore.search(Optional.of(new RyaURI(subj)), Optional.of(geoFilters), Optional.of(temporalFilters));
+    /**
+     * Evaluates a batch of {@link BindingSet}s. Binding sets that provide the subject are
+     * grouped so that the {@link EventStorage} is searched once for every
+     * {@value #MAX_SUBJECTS_PER_SEARCH} subjects instead of once per binding set. The
+     * binding sets that do not provide the subject share a single search.
+     * <p>
+     * As with {@link #evaluate(BindingSet)}, each result is a binding set joined with one of
+     * its Events. A binding set without any matching Events produces no results.
+     */
+    @Override
+    public CloseableIteration<BindingSet, QueryEvaluationException> evaluate(final Collection<BindingSet> bindingset)
+            throws QueryEvaluationException {
+        requireNonNull(bindingset);
+
+        // Group the binding sets by the subject they provide.
+        final Map<RyaURI, List<BindingSet>> bySubject = new LinkedHashMap<>();
+        final List<BindingSet> withoutSubject = new ArrayList<>();
+        for(final BindingSet bindings : bindingset) {
+            if(!subjectIsConstant && bindings.hasBinding(subjectVar.get())) {
+                final RyaURI subject = new RyaURI(bindings.getValue(subjectVar.get()).stringValue());
+                bySubject.computeIfAbsent(subject, key -> new ArrayList<>()).add(bindings);
             } else {
-                searchEvents = eventStore.search(Optional.empty(), Optional.of(geoFilters), Optional.of(temporalFilters));
+                withoutSubject.add(bindings);
             }
+        }
+
+        final List<BindingSet> list = new ArrayList<>();
+        try {
+            // Fetch the Events of the provided subjects.
+            for(final List<RyaURI> subjects : Iterables.partition(bySubject.keySet(), MAX_SUBJECTS_PER_SEARCH)) {
+                final Map<RyaURI, List<BindingSet>> resultsBySubject = new HashMap<>();
+                for(final Event event : eventStore.search(subjects, Optional.of(geoFilters), Optional.of(temporalFilters))) {
+                    resultsBySubject.computeIfAbsent(event.getSubject(), key -> new ArrayList<>()).add(makeResult(event));
+                }
 
-            for(final Event event : searchEvents) {
-                final MapBindingSet resultSet = new MapBindingSet();
-                if(event.getGeometry().isPresent()) {
-                    final Geometry geo = event.getGeometry().get();
-                    final Value geoValue = VF.createLiteral(geo.toText());
-                    final Var geoObj = geoPattern.getObjectVar();
-                    resultSet.addBinding(geoObj.getName(), geoValue);
+                for(final RyaURI subject : subjects) {
+                    final List<BindingSet> results = resultsBySubject.getOrDefault(subject, Collections.emptyList());
+                    for(final BindingSet bindings : bySubject.get(subject)) {
+                        list.addAll(join(bindings, results));
+                    }
                 }
+            }
 
-                final Value temporalValue;
-                if(event.isInstant() && event.getInstant().isPresent()) {
-                    final Optional<TemporalInstant> opt = event.getInstant();
-                    DateTime dt = opt.get().getAsDateTime();
-                    dt = dt.toDateTime(DateTimeZone.UTC);
-                    final String str = dt.toString(TemporalInstantRfc3339.FORMATTER);
-                    temporalValue = VF.createLiteral(str);
-                } else if(event.getInterval().isPresent()) {
-                    temporalValue = VF.createLiteral(event.getInterval().get().getAsPair());
-                } else {
-                    temporalValue = null;
+            // The rest of the binding sets are evaluated against the node's own subject.
+            if(!withoutSubject.isEmpty()) {
+                final Optional<RyaURI> subject = subjectConstant.map(RyaURI::new);
+                final List<BindingSet> results = new ArrayList<>();
+                for(final Event event : eventStore.search(subject, Optional.of(geoFilters), Optional.of(temporalFilters))) {
+                    results.add(makeResult(event));
                 }
 
-                if(temporalValue != null) {
-                    final Var temporalObj = temporalPattern.getObjectVar();
-                    resultSet.addBinding(temporalObj.getName(), temporalValue);
+                for(final BindingSet bindings : withoutSubject) {
+                    list.addAll(join(bindings, results));
                 }
-                list.add(resultSet);
             }
         } catch (final ObjectStorageException e) {
-            throw new QueryEvaluationException("Failed to evaluate the binding set", e);
+            throw new QueryEvaluationException("Failed to evaluate the binding sets", e);
         }
         return new CollectionIteration<>(list);
     }
 
+    /**
+     * Joins a {@link BindingSet} with the results of the Events that matched it. A result
+     * that binds a variable to a different value than the binding set does is dropped.
+     *
+     * @param bindings - The binding set that is being evaluated. (not null)
+     * @param results - The results of the Events that matched the binding set. (not null)
+     * @return One joined result per compatible Event result.
+     */
+    private static List<BindingSet> join(final BindingSet bindings, final List<BindingSet> results) {
+        final List<BindingSet> joined = new ArrayList<>(results.size());
+        for(final BindingSet result : results) {
+            final MapBindingSet resultSet = new MapBindingSet();
+            for(final Binding binding : bindings) {
+                resultSet.addBinding(binding);
+            }
+
+            boolean compatible = true;
+            for(final Binding binding : result) {
+                final Value existing = bindings.getValue(binding.getName());
+                if(existing == null) {
+                    resultSet.addBinding(binding);
+                } else if(!existing.equals(binding.getValue())) {
+                    compatible = false;
+                    break;
+                }
+            }
+
+            if(compatible) {
+                joined.add(resultSet);
+            }
+        }
+        return joined;
+    }
+
+    /**
+     * Creates the {@link BindingSet} that binds an {@link Event}'s geometry and time
+     * to the objects of the geo and temporal patterns.
+     *
+     * @param event - The Event that matched the node. (not null)
+     * @return The bindings of the Event.
+     */
+    private BindingSet makeResult(final Event event) {
+        final MapBindingSet resultSet = new MapBindingSet();
+        if(event.getGeometry().isPresent()) {
+            final Geometry geo = event.getGeometry().get();
+            final Value geoValue = VF.createLiteral(geo.toText());
+            final Var geoObj = geoPattern.getObjectVar();
+            resultSet.addBinding(geoObj.getName(), geoValue);
+        }
+
+        final Value temporalValue;
+        if(event.isInstant() && event.getInstant().isPresent()) {
+            final Optional<TemporalInstant> opt = event.getInstant();
+            DateTime dt = opt.get().getAsDateTime();
+            dt = dt.toDateTime(DateTimeZone.UTC);
+            final String str = dt.toString(TemporalInstantRfc3339.FORMATTER);
+            temporalValue = VF.createLiteral(str);
+        } else if(event.getInterval().isPresent()) {
+            temporalValue = VF.createLiteral(event.getInterval().get().getAsPair());
+        } else {
+            temporalValue = null;
+        }
+
+        if(temporalValue != null) {
+            final Var temporalObj = temporalPattern.getObjectVar();
+            resultSet.addBinding(temporalObj.getName(), temporalValue);
+        }
+        return resultSet;
+    }
+
     public Collection<IndexingExpr> getGeoFilters() {
         return geoFilters;
     }
@@ -293,12 +388,6 @@ public class EventQueryNode extends ExternalSet implements ExternalBatchingItera
         return sb.toString();
     }
 
-    @Override
-    public CloseableIteration<BindingSet, QueryEvaluationException> evaluate(final Collection<BindingSet> bindingset)
-            throws QueryEvaluationException {
-        return null;
-    }
-
     /**
      * Builder for {@link EventQueryNode}s.
      */
@@ -40,6 +40,18 @@ public interface EventStorage extends RyaObjectStorage<Event> {
      */
     public Collection<Event> search(final Optional<RyaURI> subject, Optional<Collection<IndexingExpr>> geoFilters, Optional<Collection<IndexingExpr>> temporalFilters) throws ObjectStorageException;
 
+    /**
+     * Search for the {@link Event}s of many subjects from the storage at once.
+     * Will query based on present parameters.
+     *
+     * @param subjects - The subject keys to find events for. (not null)
+     * @param geoFilters - The geo filters to find Events.
+     * @param temporalFilters - The temporal filters to find Events.
+     * @return The {@link Event}s that exist for any of the subjects.
+     * @throws ObjectStorageException A problem occurred while fetching the Events from the storage.
+     */
+    public Collection<Event> search(final Collection<RyaURI> subjects, Optional<Collection<IndexingExpr>> geoFilters, Optional<Collection<IndexingExpr>> temporalFilters) throws ObjectStorageException;
+
     /**
      * Indicates a problem while interacting with an {@link EventStorage}.
      */
@@ -40,6 +40,7 @@ import org.bson.BsonString;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
+import com.mongodb.BasicDBObject;
 import com.mongodb.BasicDBObjectBuilder;
 import com.mongodb.DBObject;
 import com.mongodb.ErrorCategory;
@@ -121,7 +122,21 @@ public class MongoEventStorage implements EventStorage {
     @Override
     public Collection<Event> search(final Optional<RyaURI> subject, final Optional<Collection<IndexingExpr>> geoFilters, final Optional<Collection<IndexingExpr>> temporalFilters) throws EventStorageException {
         requireNonNull(subject);
+        return searchMatching(subject.<Object>map(RyaURI::getData), geoFilters, temporalFilters);
+    }
+
+    @Override
+    public Collection<Event> search(final Collection<RyaURI> subjects, final Optional<Collection<IndexingExpr>> geoFilters, final Optional<Collection<IndexingExpr>> temporalFilters) throws EventStorageException {
+        requireNonNull(subjects);
+
+        final List<String> subjectData = new ArrayList<>(subjects.size());
+        for(final RyaURI subject : subjects) {
+            subjectData.add(subject.getData());
+        }
+        return searchMatching(Optional.<Object>of(new BasicDBObject("$in", subjectData)), geoFilters, temporalFilters);
+    }
 
+    private Collection<Event> searchMatching(final Optional<Object> subjectFilter, final Optional<Collection<IndexingExpr>> geoFilters, final Optional<Collection<IndexingExpr>> temporalFilters) throws EventStorageException {
         try {
             final Collection<IndexingExpr> geos = (geoFilters.isPresent() ? geoFilters.get() : new ArrayList<>());
             final Collection<IndexingExpr> tempos = (temporalFilters.isPresent() ? temporalFilters.get() : new ArrayList<>());
@@ -129,8 +144,8 @@ public class MongoEventStorage implements EventStorage {
 
             final BasicDBObjectBuilder builder = BasicDBObjectBuilder
             .start(filterObj.toMap());
-            if(subject.isPresent()) {
-                builder.append(EventDocumentConverter.SUBJECT, subject.get().getData());
+            if(subjectFilter.isPresent()) {
+                builder.append(EventDocumentConverter.SUBJECT, subjectFilter.get());
             }
             final MongoCursor<Document> results = mongo.getDatabase(ryaInstanceName)
                 .getCollection(COLLECTION_NAME)
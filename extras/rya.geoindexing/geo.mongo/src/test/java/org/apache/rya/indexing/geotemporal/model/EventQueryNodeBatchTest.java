@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.geotemporal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.indexing.TemporalInstant;
+import org.apache.rya.indexing.TemporalInstantRfc3339;
+import org.apache.rya.indexing.geotemporal.GeoTemporalTestBase;
+import org.apache.rya.indexing.geotemporal.storage.EventStorage;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests how {@link EventQueryNode} joins a batch of binding sets with the Events that match them.
+ */
+public class EventQueryNodeBatchTest extends GeoTemporalTestBase {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+    private static final TemporalInstant TIME = new TemporalInstantRfc3339(2015, 12, 30, 12, 00, 0);
+
+    private static final Event EVENT_1 = Event.builder()
+            .setSubject(new RyaURI("urn:event-1111"))
+            .setGeometry(point(1, 1))
+            .setTemporalInstant(TIME)
+            .build();
+    private static final Event EVENT_2 = Event.builder()
+            .setSubject(new RyaURI("urn:event-2222"))
+            .setGeometry(point(-1, -1))
+            .setTemporalInstant(TIME)
+            .build();
+
+    private EventStorage storage;
+    private EventQueryNode node;
+
+    @Before
+    public void setup() throws Exception {
+        storage = mock(EventStorage.class);
+        when(storage.search(Mockito.anyCollectionOf(RyaURI.class), Mockito.any(), Mockito.any()))
+            .thenReturn(Arrays.asList(EVENT_1, EVENT_2));
+        when(storage.search(Mockito.eq(Optional.empty()), Mockito.any(), Mockito.any()))
+            .thenReturn(Arrays.asList(EVENT_1, EVENT_2));
+
+        final List<StatementPattern> sps = getSps(
+                "PREFIX time: <http://www.w3.org/2006/time#> \n"
+              + "PREFIX geo: <http://www.opengis.net/ont/geosparql#>"
+              + "SELECT * WHERE { "
+                + "  ?event time:atTime ?time . "
+                + "  ?event geo:asWKT ?wkt . "
+              + "}");
+        node = new EventQueryNode.EventQueryNodeBuilder()
+            .setStorage(storage)
+            .setGeoPattern(sps.get(1))
+            .setTemporalPattern(sps.get(0))
+            .setGeoFilters(new ArrayList<>())
+            .setTemporalFilters(new ArrayList<>())
+            .setUsedFilters(new ArrayList<>())
+            .build();
+    }
+
+    @Test
+    public void evaluate_boundSubjects() throws Exception {
+        final BindingSet first = bindings("urn:event-1111", "a");
+        final BindingSet second = bindings("urn:event-2222", "b");
+        final BindingSet third = bindings("urn:event-1111", "c");
+
+        final Set<BindingSet> expected = new HashSet<>();
+        expected.add(result(first, "POINT (1 1)"));
+        expected.add(result(second, "POINT (-1 -1)"));
+        expected.add(result(third, "POINT (1 1)"));
+
+        assertEquals(expected, evaluate(first, second, third));
+    }
+
+    @Test
+    public void evaluate_unboundSubject() throws Exception {
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("other", VF.createLiteral("x"));
+
+        // Every Event is joined with the binding set, which is not returned on its own.
+        final Set<BindingSet> expected = new HashSet<>();
+        expected.add(result(bindings, "POINT (1 1)"));
+        expected.add(result(bindings, "POINT (-1 -1)"));
+
+        assertEquals(expected, evaluate(bindings));
+    }
+
+    @Test
+    public void evaluate_conflictingBinding() throws Exception {
+        final MapBindingSet bindings = bindings("urn:event-1111", "a");
+        bindings.addBinding("wkt", VF.createLiteral("POINT (5 5)"));
+
+        assertEquals(new HashSet<>(), evaluate(bindings));
+    }
+
+    private Set<BindingSet> evaluate(final BindingSet... bindingSets) throws QueryEvaluationException {
+        final Set<BindingSet> results = new HashSet<>();
+        final CloseableIteration<BindingSet, QueryEvaluationException> rez = node.evaluate(Arrays.asList(bindingSets));
+        while(rez.hasNext()) {
+            // Each binding set is only returned once.
+            assertEquals(true, results.add(rez.next()));
+        }
+        return results;
+    }
+
+    private static MapBindingSet bindings(final String event, final String other) {
+        final MapBindingSet bindings = new MapBindingSet();
+        bindings.addBinding("event", VF.createIRI(event));
+        bindings.addBinding("other", VF.createLiteral(other));
+        return bindings;
+    }
+
+    private static BindingSet result(final BindingSet bindings, final String wkt) {
+        final MapBindingSet result = new MapBindingSet();
+        bindings.forEach(result::addBinding);
+        result.addBinding("wkt", VF.createLiteral(wkt));
+        result.addBinding("time", VF.createLiteral(TIME.toString()));
+        return result;
+    }
+}
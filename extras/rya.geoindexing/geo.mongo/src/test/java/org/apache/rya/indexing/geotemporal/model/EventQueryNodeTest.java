@@ -252,6 +252,7 @@ public class EventQueryNodeTest extends MongoITBase {
         existingBindings.addBinding("event", VF.createIRI("urn:event-2222"));
         final CloseableIteration<BindingSet, QueryEvaluationException> rez = node.evaluate(existingBindings);
         final MapBindingSet expected = new MapBindingSet();
+        expected.addBinding("event", VF.createIRI("urn:event-2222"));
         expected.addBinding("wkt", VF.createLiteral("POINT (-1 -1)"));
         expected.addBinding("time", VF.createLiteral(new TemporalInstantRfc3339(2015, 12, 30, 12, 00, 0).toString()));
 
@@ -90,6 +90,20 @@ public interface PeriodicQueryResultStorage {
      */
     public void deletePeriodicQueryResults(String queryId, long binID) throws PeriodicQueryStorageException;
 
+    /**
+     * Deletes periodic query results for several bins from the storage layer.  Implementations
+     * should override this method if they are able to delete many bins at once more cheaply
+     * than one at a time.
+     * @param queryId - id indicating the storage layer that results will be deleted from
+     * @param binIDs - bin ids indicating the periodic ids of results to be deleted
+     * @throws PeriodicQueryStorageException
+     */
+    public default void deletePeriodicQueryResults(String queryId, Collection<Long> binIDs) throws PeriodicQueryStorageException {
+        for(long binID : binIDs) {
+            deletePeriodicQueryResults(queryId, binID);
+        }
+    }
+
     /**
      * Deletes all results for the storage layer indicated by the given query id 
      * @param queryID - id indicating the storage layer whose results will be deleted
@@ -24,10 +24,16 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.rya.accumulo.instance.AccumuloRyaInstanceDetailsRepository;
 import org.apache.rya.accumulo.utils.TablePermissions;
@@ -49,6 +55,15 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 
 /**
  * An Accumulo backed implementation of {@link PrecomputedJoinStorage}.
+ * <p>
+ * A {@link BatchWriter} is kept open for each PCJ table results are added to, so
+ * adding results does not pay for creating a writer and reading the table's
+ * variable orders every time. The writers are closed when their PCJ is dropped
+ * or when this storage is closed.
+ * <p>
+ * {@link BatchWriter}s are thread safe, so results for the same PCJ may be added
+ * by many threads at once without holding a lock. Each call flushes the writer
+ * before it returns, so the results it added have been written once it does.
  */
 @DefaultAnnotation(NonNull.class)
 public class AccumuloPcjStorage implements PrecomputedJoinStorage {
@@ -65,6 +80,9 @@ public class AccumuloPcjStorage implements PrecomputedJoinStorage {
     private final String ryaInstanceName;
     private final PcjTables pcjTables = new PcjTables();
 
+    // The writers that add results to the PCJ tables, keyed by table name.
+    private final ConcurrentMap<String, PcjTableWriter> writers = new ConcurrentHashMap<>();
+
     // Used to update the instance's metadata.
     private final RyaDetailsRepository ryaDetailsRepo;
 
@@ -151,8 +169,24 @@ public class AccumuloPcjStorage implements PrecomputedJoinStorage {
     public void addResults(final String pcjId, final Collection<VisibilityBindingSet> results) throws PCJStorageException {
         requireNonNull(pcjId);
         requireNonNull(results);
+        if(results.isEmpty()) {
+            return;
+        }
+
         final String pcjTableName = pcjTableNameFactory.makeTableName(ryaInstanceName, pcjId);
-        pcjTables.addResults(accumuloConn, pcjTableName, results);
+        final PcjTableWriter writer = getWriter(pcjTableName);
+        try {
+            pcjTables.writeResults(writer.writer, writer.varOrders, results);
+            writer.writer.flush();
+        } catch (final PCJStorageException | MutationsRejectedException e) {
+            // A writer that rejected mutations may not be used again.
+            try {
+                closeWriter(pcjTableName);
+            } catch (final PCJStorageException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw new PCJStorageException("Could not add results to the PCJ table named: " + pcjTableName, e);
+        }
     }
 
     @Override
@@ -200,11 +234,82 @@ public class AccumuloPcjStorage implements PrecomputedJoinStorage {
 
         // Delete the table that hold's the PCJ's results.
         final String pcjTableName = pcjTableNameFactory.makeTableName(ryaInstanceName, pcjId);
+        closeWriter(pcjTableName);
         pcjTables.dropPcjTable(accumuloConn, pcjTableName);
     }
 
     @Override
     public void close() throws PCJStorageException {
-        // Accumulo Connectors don't require closing.
+        // Accumulo Connectors don't require closing, but the writers do.
+        PCJStorageException failure = null;
+        for(final String pcjTableName : writers.keySet()) {
+            try {
+                closeWriter(pcjTableName);
+            } catch (final PCJStorageException e) {
+                failure = e;
+            }
+        }
+
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Get the writer for a PCJ table, creating it if this is the first time results are added to the table.
+     *
+     * @param pcjTableName - The name of the PCJ table. (not null)
+     * @return The writer for the PCJ table.
+     * @throws PCJStorageException The writer could not be created.
+     */
+    private PcjTableWriter getWriter(final String pcjTableName) throws PCJStorageException {
+        PcjTableWriter writer = writers.get(pcjTableName);
+        if(writer == null) {
+            synchronized(writers) {
+                writer = writers.get(pcjTableName);
+                if(writer == null) {
+                    // The table's cardinality may only be written as deltas once the combiner is attached.
+                    pcjTables.attachCardinalityCombiner(accumuloConn, pcjTableName);
+                    final Set<VariableOrder> varOrders = pcjTables.getPcjMetadata(accumuloConn, pcjTableName).getVarOrders();
+                    try {
+                        writer = new PcjTableWriter(accumuloConn.createBatchWriter(pcjTableName, new BatchWriterConfig()), varOrders);
+                    } catch (final TableNotFoundException e) {
+                        throw new PCJStorageException("Could not add results to the PCJ table named: " + pcjTableName, e);
+                    }
+                    writers.put(pcjTableName, writer);
+                }
+            }
+        }
+        return writer;
+    }
+
+    /**
+     * Closes the writer for a PCJ table if one is open.
+     *
+     * @param pcjTableName - The name of the PCJ table. (not null)
+     * @throws PCJStorageException The writer's remaining mutations were rejected.
+     */
+    private void closeWriter(final String pcjTableName) throws PCJStorageException {
+        final PcjTableWriter writer = writers.remove(pcjTableName);
+        if(writer != null) {
+            try {
+                writer.writer.close();
+            } catch (final MutationsRejectedException e) {
+                throw new PCJStorageException("Could not close the writer for the PCJ table named: " + pcjTableName, e);
+            }
+        }
+    }
+
+    /**
+     * A {@link BatchWriter} for a PCJ table and the variable orders the table's results are written with.
+     */
+    private static final class PcjTableWriter {
+        private final BatchWriter writer;
+        private final Set<VariableOrder> varOrders;
+
+        public PcjTableWriter(final BatchWriter writer, final Set<VariableOrder> varOrders) {
+            this.writer = requireNonNull(writer);
+            this.varOrders = requireNonNull(varOrders);
+        }
     }
 }
\ No newline at end of file
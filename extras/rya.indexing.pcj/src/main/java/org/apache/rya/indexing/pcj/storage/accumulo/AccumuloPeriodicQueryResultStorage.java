@@ -21,6 +21,7 @@ package org.apache.rya.indexing.pcj.storage.accumulo;
 import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -34,6 +35,7 @@ import org.apache.accumulo.core.client.BatchDeleter;
 import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.admin.TableOperations;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.hadoop.io.Text;
@@ -70,6 +72,8 @@ public class AccumuloPeriodicQueryResultStorage implements PeriodicQueryResultSt
     private final AccumuloPcjSerializer converter = new AccumuloPcjSerializer();
     private static final PcjTables pcjTables = new PcjTables();
     private static final PeriodicQueryTableNameFactory tableNameFactory = new PeriodicQueryTableNameFactory();
+    private static final int MAX_DELETE_THREADS = 4;
+    private final int rangeDeleteMinBins;
 
     /**
      * Creates a AccumuloPeriodicQueryResultStorage Object.
@@ -77,8 +81,22 @@ public class AccumuloPeriodicQueryResultStorage implements PeriodicQueryResultSt
      * @param ryaInstance - Rya Instance name for connecting to Rya
      */
     public AccumuloPeriodicQueryResultStorage(final Connector accumuloConn, final String ryaInstance) {
+        this(accumuloConn, ryaInstance, 0);
+    }
+
+    /**
+     * Creates a AccumuloPeriodicQueryResultStorage Object.
+     * @param accumuloConn - Accumulo Connector for connecting to an Accumulo instance
+     * @param ryaInstance - Rya Instance name for connecting to Rya
+     * @param rangeDeleteMinBins - Deletes of at least this many bins remove the rows of each bin with
+     *   {@link TableOperations#deleteRows(String, Text, Text)} instead of a {@link BatchDeleter}, which
+     *   requires the user to be able to alter the table.  0 always uses a BatchDeleter.
+     */
+    public AccumuloPeriodicQueryResultStorage(final Connector accumuloConn, final String ryaInstance, final int rangeDeleteMinBins) {
+        Preconditions.checkArgument(rangeDeleteMinBins >= 0, "rangeDeleteMinBins must not be negative");
         this.accumuloConn = Preconditions.checkNotNull(accumuloConn);
         this.ryaInstance = Preconditions.checkNotNull(ryaInstance);
+        this.rangeDeleteMinBins = rangeDeleteMinBins;
         final String user = accumuloConn.whoami();
         try {
             this.auths = accumuloConn.securityOperations().getUserAuthorizations(user);
@@ -149,12 +167,36 @@ public class AccumuloPeriodicQueryResultStorage implements PeriodicQueryResultSt
 
     @Override
     public void deletePeriodicQueryResults(final String queryId, final long binId) throws PeriodicQueryStorageException {
+        deletePeriodicQueryResults(queryId, Collections.singleton(binId));
+    }
+
+    /**
+     * Deletes the results in all of the indicated bins with a single {@link BatchDeleter}, so the bins
+     * are scanned in parallel and their delete markers are written together rather than one bin at a time.
+     * If range deletes are enabled and there are enough bins, the rows of each bin are removed with
+     * {@link TableOperations#deleteRows(String, Text, Text)} instead, so no delete marker is written
+     * for each result.
+     */
+    @Override
+    public void deletePeriodicQueryResults(final String queryId, final Collection<Long> binIds) throws PeriodicQueryStorageException {
+        requireNonNull(binIds);
+        if(binIds.isEmpty()) {
+            return;
+        }
         final String tableName = tableNameFactory.makeTableName(ryaInstance, queryId);
+        if(rangeDeleteMinBins > 0 && binIds.size() >= rangeDeleteMinBins) {
+            deleteBinRows(tableName, binIds);
+            return;
+        }
         BatchDeleter deleter = null;
         try {
-            final Text prefix = getRowPrefix(binId);
-            deleter = accumuloConn.createBatchDeleter(tableName, auths, 1, new BatchWriterConfig());
-            deleter.setRanges(Collections.singleton(Range.prefix(prefix)));
+            final List<Range> ranges = new ArrayList<>();
+            for(final long binId : binIds) {
+                ranges.add(Range.prefix(getRowPrefix(binId)));
+            }
+            final int numThreads = Math.min(ranges.size(), MAX_DELETE_THREADS);
+            deleter = accumuloConn.createBatchDeleter(tableName, auths, numThreads, new BatchWriterConfig());
+            deleter.setRanges(ranges);
             deleter.delete();
         } catch (final Exception e) {
             throw new PeriodicQueryStorageException(e.getMessage());
@@ -169,6 +211,22 @@ public class AccumuloPeriodicQueryResultStorage implements PeriodicQueryResultSt
         }
     }
 
+    private void deleteBinRows(final String tableName, final Collection<Long> binIds) throws PeriodicQueryStorageException {
+        try {
+            final TableOperations tableOps = accumuloConn.tableOperations();
+            for(final long binId : binIds) {
+                // deleteRows removes the rows after the start row, up to and including the end row. Every row
+                // ends with a value delimiter, so a bin's rows are exactly the rows after its prefix without the
+                // delimiter, up to and including the row that follows its prefix.
+                final byte[] prefix = getRowPrefix(binId).copyBytes();
+                final Text start = new Text(Arrays.copyOf(prefix, prefix.length - 1));
+                tableOps.deleteRows(tableName, start, Range.followingPrefix(new Text(prefix)));
+            }
+        } catch (final Exception e) {
+            throw new PeriodicQueryStorageException(e.getMessage());
+        }
+    }
+
     public void deletePeriodicQueryResults(final String queryId) throws PeriodicQueryStorageException {
         try {
             pcjTables.purgePcjTable(accumuloConn, tableNameFactory.makeTableName(ryaInstance, queryId));
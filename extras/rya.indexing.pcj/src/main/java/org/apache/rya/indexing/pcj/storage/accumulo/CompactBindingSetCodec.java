@@ -0,0 +1,427 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.storage.accumulo;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+
+import com.google.common.collect.ImmutableList;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A compact, versioned binary encoding of {@link VisibilityBindingSet}s. It replaces
+ * Java Serialization within the Fluo PCJ pipeline.
+ * <p>
+ * Every encoded value starts with the {@link #MAGIC} byte followed by the {@link #VERSION}
+ * byte. Java Serialization streams always start with {@code 0xACED}, so the two formats
+ * may be told apart by looking at the first byte. After the header comes a flags byte,
+ * the visibility, the number of bindings, and then each binding. All lengths and counts
+ * are written as unsigned variable length integers and all values are tagged with their
+ * kind. Binding names are either written inline or, when the binding set is encoded with
+ * a {@link VariableOrder}, as an index into that variable order.
+ */
+@DefaultAnnotation(NonNull.class)
+public final class CompactBindingSetCodec {
+
+    /**
+     * The first byte of every encoded value.
+     */
+    public static final byte MAGIC = (byte) 0x52;
+
+    /**
+     * The version of the encoding that is written.
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * Set within the flags byte when binding names are indices into a {@link VariableOrder}.
+     */
+    private static final int FLAG_VAR_ORDER_INDEXED = 0x01;
+
+    // Value tags.
+    private static final int TAG_IRI = 0;
+    private static final int TAG_BNODE = 1;
+    private static final int TAG_STRING_LITERAL = 2;
+    private static final int TAG_LANGUAGE_LITERAL = 3;
+    private static final int TAG_KNOWN_DATATYPE_LITERAL = 4;
+    private static final int TAG_DATATYPE_LITERAL = 5;
+
+    /**
+     * Datatypes that are written as a single index instead of their IRI. The order
+     * of this list is part of the encoding, so new types may only be appended.
+     */
+    private static final List<IRI> KNOWN_DATATYPES = ImmutableList.of(
+            XMLSchema.INTEGER,
+            XMLSchema.INT,
+            XMLSchema.LONG,
+            XMLSchema.SHORT,
+            XMLSchema.BYTE,
+            XMLSchema.DECIMAL,
+            XMLSchema.DOUBLE,
+            XMLSchema.FLOAT,
+            XMLSchema.BOOLEAN,
+            XMLSchema.DATETIME,
+            XMLSchema.DATE,
+            XMLSchema.TIME,
+            XMLSchema.ANYURI);
+
+    private static final Map<IRI, Integer> KNOWN_DATATYPE_INDICES = new HashMap<>();
+    static {
+        for(int i = 0; i < KNOWN_DATATYPES.size(); i++) {
+            KNOWN_DATATYPE_INDICES.put(KNOWN_DATATYPES.get(i), i);
+        }
+    }
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private CompactBindingSetCodec() { }
+
+    /**
+     * @param bytes - The bytes that will be inspected. (not null)
+     * @return {@code true} if the bytes were written using this codec; otherwise {@code false}.
+     */
+    public static boolean isCompact(final byte[] bytes) {
+        requireNonNull(bytes);
+        return bytes.length >= 2 && bytes[0] == MAGIC;
+    }
+
+    /**
+     * Encodes a {@link VisibilityBindingSet}.
+     *
+     * @param bindingSet - The binding set that will be encoded. (not null)
+     * @param varOrder - If provided, binding names are written as indices into this variable
+     *   order. The same variable order must be provided when decoding. (optional)
+     * @return The encoded binding set.
+     */
+    public static byte[] encode(final VisibilityBindingSet bindingSet, @Nullable final VariableOrder varOrder) {
+        requireNonNull(bindingSet);
+
+        final Writer writer = new Writer();
+        writer.writeHeader(varOrder == null ? 0 : FLAG_VAR_ORDER_INDEXED);
+        writer.writeString(bindingSet.getVisibility());
+        writer.writeBindings(bindingSet, varOrder);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes a {@link VisibilityBindingSet}.
+     *
+     * @param bytes - The bytes that will be decoded. (not null)
+     * @param varOrder - The variable order the binding set was encoded with, if it was encoded with one. (optional)
+     * @return The decoded binding set.
+     * @throws IllegalArgumentException The bytes are not a compact binding set or could not be decoded.
+     */
+    public static VisibilityBindingSet decode(final byte[] bytes, @Nullable final VariableOrder varOrder) {
+        requireNonNull(bytes);
+
+        final Reader reader = new Reader(bytes);
+        final int flags = reader.readHeader();
+        final String visibility = reader.readString();
+        final QueryBindingSet bindingSet = reader.readBindings((flags & FLAG_VAR_ORDER_INDEXED) != 0, varOrder);
+        return new VisibilityBindingSet(bindingSet, visibility);
+    }
+
+    /**
+     * Writes the primitives of the compact encoding to a growing byte array.
+     */
+    public static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+
+        /**
+         * Writes the magic byte, version, and flags.
+         *
+         * @param flags - The flags that describe how the rest of the value was written.
+         */
+        public void writeHeader(final int flags) {
+            out.write(MAGIC);
+            out.write(VERSION);
+            out.write(flags);
+        }
+
+        /**
+         * @param value - An unsigned value that will be written using as few bytes as possible.
+         */
+        public void writeVarInt(int value) {
+            while((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        /**
+         * @param bytes - Bytes that will be written with a length prefix. (not null)
+         */
+        public void writeBytes(final byte[] bytes) {
+            writeVarInt(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        /**
+         * @param value - A String that will be written as UTF-8 with a length prefix. (not null)
+         */
+        public void writeString(final String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @param value - The RDF value that will be written along with a tag that indicates its kind. (not null)
+         */
+        public void writeValue(final Value value) {
+            if(value instanceof IRI) {
+                writeVarInt(TAG_IRI);
+                writeString(value.stringValue());
+            } else if(value instanceof BNode) {
+                writeVarInt(TAG_BNODE);
+                writeString(((BNode) value).getID());
+            } else if(value instanceof Literal) {
+                final Literal literal = (Literal) value;
+                final Optional<String> language = literal.getLanguage();
+                final IRI datatype = literal.getDatatype();
+                if(language.isPresent()) {
+                    writeVarInt(TAG_LANGUAGE_LITERAL);
+                    writeString(literal.getLabel());
+                    writeString(language.get());
+                } else if(datatype == null || XMLSchema.STRING.equals(datatype)) {
+                    writeVarInt(TAG_STRING_LITERAL);
+                    writeString(literal.getLabel());
+                } else if(KNOWN_DATATYPE_INDICES.containsKey(datatype)) {
+                    writeVarInt(TAG_KNOWN_DATATYPE_LITERAL);
+                    writeVarInt(KNOWN_DATATYPE_INDICES.get(datatype));
+                    writeString(literal.getLabel());
+                } else {
+                    writeVarInt(TAG_DATATYPE_LITERAL);
+                    writeString(literal.getLabel());
+                    writeString(datatype.stringValue());
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported Value type: " + value.getClass());
+            }
+        }
+
+        /**
+         * Writes the number of bindings followed by each binding's name and value.
+         *
+         * @param bindingSet - The bindings that will be written. (not null)
+         * @param varOrder - If provided, names are written as indices into this variable order. (optional)
+         */
+        public void writeBindings(final BindingSet bindingSet, @Nullable final VariableOrder varOrder) {
+            writeVarInt(bindingSet.size());
+
+            if(varOrder == null) {
+                for(final Binding binding : bindingSet) {
+                    writeString(binding.getName());
+                    writeValue(binding.getValue());
+                }
+            } else {
+                final List<String> names = varOrder.getVariableOrders();
+                for(final Binding binding : bindingSet) {
+                    final int index = names.indexOf(binding.getName());
+                    if(index < 0) {
+                        throw new IllegalArgumentException("The binding named '" + binding.getName() +
+                                "' is not part of the variable order " + varOrder + ".");
+                    }
+                    writeVarInt(index);
+                    writeValue(binding.getValue());
+                }
+            }
+        }
+
+        /**
+         * @return The bytes that have been written.
+         */
+        public byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Reads the primitives of the compact encoding from a byte array.
+     */
+    public static final class Reader {
+        private final byte[] bytes;
+        private int position = 0;
+
+        /**
+         * Constructs an instance of {@link Reader}.
+         *
+         * @param bytes - The bytes that will be read. (not null)
+         */
+        public Reader(final byte[] bytes) {
+            this.bytes = requireNonNull(bytes);
+        }
+
+        /**
+         * Reads and verifies the magic byte and version.
+         *
+         * @return The flags that describe how the rest of the value was written.
+         */
+        public int readHeader() {
+            if(readByte() != MAGIC) {
+                throw new IllegalArgumentException("The bytes were not written using the compact binding set encoding.");
+            }
+            final byte version = readByte();
+            if(version != VERSION) {
+                throw new IllegalArgumentException("Unsupported compact binding set encoding version: " + version);
+            }
+            return readByte() & 0xFF;
+        }
+
+        /**
+         * @return An unsigned value that was written using {@link Writer#writeVarInt(int)}.
+         */
+        public int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if(shift > 28) {
+                    throw new IllegalArgumentException("Malformed variable length integer.");
+                }
+                b = readByte();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while((b & 0x80) != 0);
+            return value;
+        }
+
+        /**
+         * @return Bytes that were written using {@link Writer#writeBytes(byte[])}.
+         */
+        public byte[] readBytes() {
+            final int length = readVarInt();
+            checkRemaining(length);
+            final byte[] value = new byte[length];
+            System.arraycopy(bytes, position, value, 0, length);
+            position += length;
+            return value;
+        }
+
+        /**
+         * @return A String that was written using {@link Writer#writeString(String)}.
+         */
+        public String readString() {
+            final int length = readVarInt();
+            checkRemaining(length);
+            final String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        /**
+         * @return An RDF value that was written using {@link Writer#writeValue(Value)}.
+         */
+        public Value readValue() {
+            final int tag = readVarInt();
+            switch(tag) {
+                case TAG_IRI:
+                    return VF.createIRI(readString());
+                case TAG_BNODE:
+                    return VF.createBNode(readString());
+                case TAG_STRING_LITERAL:
+                    return VF.createLiteral(readString());
+                case TAG_LANGUAGE_LITERAL: {
+                    final String label = readString();
+                    return VF.createLiteral(label, readString());
+                }
+                case TAG_KNOWN_DATATYPE_LITERAL: {
+                    final int index = readVarInt();
+                    if(index >= KNOWN_DATATYPES.size()) {
+                        throw new IllegalArgumentException("Unknown datatype index: " + index);
+                    }
+                    return VF.createLiteral(readString(), KNOWN_DATATYPES.get(index));
+                }
+                case TAG_DATATYPE_LITERAL: {
+                    final String label = readString();
+                    return VF.createLiteral(label, VF.createIRI(readString()));
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown value tag: " + tag);
+            }
+        }
+
+        /**
+         * Reads bindings that were written using {@link Writer#writeBindings(BindingSet, VariableOrder)}.
+         *
+         * @param varOrderIndexed - Whether the names were written as indices into a variable order.
+         * @param varOrder - The variable order the names index into. Required if {@code varOrderIndexed} is set. (optional)
+         * @return The bindings that were read.
+         */
+        public QueryBindingSet readBindings(final boolean varOrderIndexed, @Nullable final VariableOrder varOrder) {
+            final List<String> names;
+            if(varOrderIndexed) {
+                if(varOrder == null) {
+                    throw new IllegalArgumentException("The binding set was encoded using a VariableOrder, " +
+                            "so one must be provided to decode it.");
+                }
+                names = varOrder.getVariableOrders();
+            } else {
+                names = null;
+            }
+
+            final int size = readVarInt();
+            final QueryBindingSet bindingSet = new QueryBindingSet(size);
+            for(int i = 0; i < size; i++) {
+                final String name;
+                if(names == null) {
+                    name = readString();
+                } else {
+                    final int index = readVarInt();
+                    if(index >= names.size()) {
+                        throw new IllegalArgumentException("Binding index " + index + " is outside of the variable order " + varOrder + ".");
+                    }
+                    name = names.get(index);
+                }
+                bindingSet.addBinding(name, readValue());
+            }
+            return bindingSet;
+        }
+
+        private byte readByte() {
+            checkRemaining(1);
+            return bytes[position++];
+        }
+
+        private void checkRemaining(final int length) {
+            if(length < 0 || position + length > bytes.length) {
+                throw new IllegalArgumentException("Unexpected end of the encoded binding set.");
+            }
+        }
+    }
+}
@@ -23,20 +23,22 @@ import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.BatchWriterConfig;
-import org.apache.accumulo.core.client.ConditionalWriter;
-import org.apache.accumulo.core.client.ConditionalWriterConfig;
 import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.TableExistsException;
@@ -45,12 +47,13 @@ import org.apache.accumulo.core.client.admin.TableOperations;
 import org.apache.accumulo.core.client.lexicoder.ListLexicoder;
 import org.apache.accumulo.core.client.lexicoder.LongLexicoder;
 import org.apache.accumulo.core.client.lexicoder.StringLexicoder;
-import org.apache.accumulo.core.client.mock.MockInstance;
-import org.apache.accumulo.core.data.Condition;
-import org.apache.accumulo.core.data.ConditionalMutation;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.hadoop.io.Text;
@@ -104,6 +107,23 @@ public class PcjTables {
      */
     private static final Text PCJ_METADATA_VARIABLE_ORDERS = new Text("variableOrders");
 
+    /**
+     * The name of the iterator that sums the cardinality deltas that are written to a PCJ table.
+     */
+    private static final String CARDINALITY_COMBINER_NAME = "pcjCardinality";
+
+    /**
+     * The cardinality combiner must run before the table's versioning iterator,
+     * otherwise only the most recent delta would be summed.
+     */
+    private static final int CARDINALITY_COMBINER_PRIORITY = 10;
+
+    /**
+     * The PCJ tables the cardinality combiner is known to be attached to, keyed by
+     * Accumulo instance name and table name, so that it is only looked up once per table.
+     */
+    private final Set<String> combinerAttached = ConcurrentHashMap.newKeySet();
+
     // Lexicoders used to read/write PcjMetadata to/from Accumulo.
     private static final LongLexicoder longLexicoder = new LongLexicoder();
     private static final StringLexicoder stringLexicoder = new StringLexicoder();
@@ -137,6 +157,8 @@ public class PcjTables {
      *   <tr> <td>pcjMetadata</td> <td>metadata:cardinality</td> <td> The query's cardinality </td> </tr>
      *   <tr> <td>pcjMetadata</td> <td>metadata:variableOrders</td> <td> The variable orders the results are written to </td> </tr>
      * </table>
+     * The cardinality is maintained by a {@link SummingCombiner} that is attached to the table,
+     * so adding results only has to write how much the cardinality changed.
      *
      * @param accumuloConn - A connection to the Accumulo that hosts the PCJ table. (not null)
      * @param pcjTableName - The name of the table that will be created. (not null)
@@ -161,6 +183,7 @@ public class PcjTables {
             try {
                 // Create the new table in Accumulo.
                 tableOps.create(pcjTableName);
+                attachCardinalityCombiner(accumuloConn, pcjTableName);
 
                 // Write the PCJ Metadata to the newly created table.
                 final PcjMetadata pcjMetadata = new PcjMetadata(sparql, 0L, varOrders);
@@ -302,17 +325,103 @@ public class PcjTables {
         checkNotNull(pcjTableName);
         checkNotNull(results);
 
-        // Write a result to each of the variable orders that are in the table.
-        writeResults(accumuloConn, pcjTableName, results);
+        // Tables that were created before the cardinality was combined need the combiner before deltas are written.
+        attachCardinalityCombiner(accumuloConn, pcjTableName);
+
+        // Fetch the variable orders from the PCJ table.
+        final PcjMetadata metadata = getPcjMetadata(accumuloConn, pcjTableName);
+
+        BatchWriter writer = null;
+        try {
+            writer = accumuloConn.createBatchWriter(pcjTableName, new BatchWriterConfig());
+            writeResults(writer, metadata.getVarOrders(), results);
+        } catch (final TableNotFoundException e) {
+            throw new PCJStorageException("Could not add results to the PCJ table named: " + pcjTableName, e);
+        } finally {
+            if(writer != null) {
+                try {
+                    writer.close();
+                } catch (final MutationsRejectedException e) {
+                    throw new PCJStorageException("Could not add results to a PCJ table because some of the mutations were rejected.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add a collection of results to a PCJ table using a writer that belongs to the caller.
+     * The results and the change to the table's cardinality are added to the writer, but
+     * they are not flushed.
+     * <p>
+     * This method assumes the PCJ table has already been created and has had the
+     * cardinality combiner attached to it using {@link #attachCardinalityCombiner(Connector, String)}.
+     *
+     * @param writer - A writer for the PCJ table that will receive the results. (not null)
+     * @param varOrders - The variable orders that are stored in the PCJ table. (not null)
+     * @param results - Binding sets that will be written to the PCJ table. (not null)
+     * @throws PCJStorageException A result could not be serialized or the mutations were rejected.
+     */
+    public void writeResults(
+            final BatchWriter writer,
+            final Set<VariableOrder> varOrders,
+            final Collection<VisibilityBindingSet> results) throws PCJStorageException {
+        checkNotNull(writer);
+        checkNotNull(varOrders);
+        checkNotNull(results);
+
+        if(results.isEmpty()) {
+            return;
+        }
 
-        // Increment the cardinality of the query by the number of new results.
-        if(accumuloConn.getInstance().getClass().equals(MockInstance.class)) {
-        	updateMockCardinality(accumuloConn, pcjTableName, results.size());
-        } else {
-        	updateCardinality(accumuloConn, pcjTableName, results.size());
+        try {
+            // Write each result formatted using each of the variable orders.
+            for(final VisibilityBindingSet result : results) {
+                final Set<Mutation> addResultMutations = makeWriteResultMutations(varOrders, result);
+                writer.addMutations( addResultMutations );
+            }
+
+            // Increment the cardinality of the query by the number of new results.
+            writer.addMutation( makeUpdateCardinalityMutation(results.size()) );
+        } catch (final MutationsRejectedException e) {
+            throw new PCJStorageException("Could not add results to a PCJ table because some of the mutations were rejected.", e);
         }
     }
 
+    /**
+     * Attaches the {@link SummingCombiner} that maintains a PCJ table's cardinality
+     * if it has not already been attached to the table. The table's iterators are only
+     * listed the first time this is called for the table.
+     *
+     * @param accumuloConn - A connection to the Accumulo that hosts the PCJ table. (not null)
+     * @param pcjTableName - The name of the PCJ table. (not null)
+     * @throws PCJStorageException The combiner could not be attached.
+     */
+    public void attachCardinalityCombiner(final Connector accumuloConn, final String pcjTableName) throws PCJStorageException {
+        checkNotNull(accumuloConn);
+        checkNotNull(pcjTableName);
+
+        final String combinerKey = accumuloConn.getInstance().getInstanceName() + "/" + pcjTableName;
+        if(combinerAttached.contains(combinerKey)) {
+            return;
+        }
+
+        final TableOperations tableOps = accumuloConn.tableOperations();
+        try {
+            if(!tableOps.listIterators(pcjTableName).containsKey(CARDINALITY_COMBINER_NAME)) {
+                final IteratorSetting setting = new IteratorSetting(CARDINALITY_COMBINER_PRIORITY, CARDINALITY_COMBINER_NAME, SummingCombiner.class);
+                LongCombiner.setEncodingType(setting, LongLexicoder.class);
+                Combiner.setColumns(setting, Collections.singletonList(new IteratorSetting.Column(PCJ_METADATA_FAMILY, PCJ_METADATA_CARDINALITY)));
+                tableOps.attachIterator(pcjTableName, setting, EnumSet.allOf(IteratorScope.class));
+            }
+        } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
+            throw new PCJStorageException("Could not attach the cardinality combiner to the PCJ table named: " + pcjTableName, e);
+        } catch (final IllegalArgumentException e) {
+            // Something else attached the combiner after we checked for it.
+            log.debug("The cardinality combiner was already attached to the PCJ table named: " + pcjTableName, e);
+        }
+        combinerAttached.add(combinerKey);
+    }
+
     /**
      * Get an {@link Iterator} over the {@link BindingSet}s that are stored in the PCJ table.
      *
@@ -344,47 +453,6 @@ public class PcjTables {
         }
     }
 
-    /**
-     * Add a collection of results to a specific PCJ table.
-     *
-     * @param accumuloConn - A connection to the Accumulo that hosts the PCJ table. (not null)
-     * @param pcjTableName - The name of the PCJ table that will receive the results. (not null)
-     * @param results - Binding sets that will be written to the PCJ table. (not null)
-     * @throws PCJStorageException The provided PCJ table doesn't exist, is missing the
-     *   PCJ metadata, or the result could not be written to it.
-     */
-    private void writeResults(
-            final Connector accumuloConn,
-            final String pcjTableName,
-            final Collection<VisibilityBindingSet> results) throws PCJStorageException {
-        checkNotNull(accumuloConn);
-        checkNotNull(pcjTableName);
-        checkNotNull(results);
-
-        // Fetch the variable orders from the PCJ table.
-        final PcjMetadata metadata = getPcjMetadata(accumuloConn, pcjTableName);
-
-        // Write each result formatted using each of the variable orders.
-        BatchWriter writer = null;
-        try {
-            writer = accumuloConn.createBatchWriter(pcjTableName, new BatchWriterConfig());
-            for(final VisibilityBindingSet result : results) {
-                final Set<Mutation> addResultMutations = makeWriteResultMutations(metadata.getVarOrders(), result);
-                writer.addMutations( addResultMutations );
-            }
-        } catch (TableNotFoundException | MutationsRejectedException e) {
-            throw new PCJStorageException("Could not add results to the PCJ table named: " + pcjTableName, e);
-        } finally {
-            if(writer != null) {
-                try {
-                    writer.close();
-                } catch (final MutationsRejectedException e) {
-                    throw new PCJStorageException("Could not add results to a PCJ table because some of the mutations were rejected.", e);
-                }
-            }
-        }
-    }
-
     /**
      * Create the {@link Mutations} required to write a new {@link BindingSet}
      * to a PCJ table for each {@link VariableOrder} that is provided.
@@ -423,123 +491,16 @@ public class PcjTables {
     }
 
     /**
-     * Update the cardinality of a PCJ by a {@code delta}.
-     *
-     * @param accumuloConn - A connection to the Accumulo that hosts the PCJ table. (not null)
-     * @param pcjTableName - The name of the PCJ table that will have its cardinality updated. (not null)
-     * @param delta - How much the cardinality will change.
-     * @throws PCJStorageException The cardinality could not be updated.
-     */
-    private void updateCardinality(final Connector accumuloConn, final String pcjTableName, final long delta) throws PCJStorageException {
-        checkNotNull(accumuloConn);
-        checkNotNull(pcjTableName);
-
-        ConditionalWriter conditionalWriter = null;
-        try {
-            conditionalWriter = accumuloConn.createConditionalWriter(pcjTableName, new ConditionalWriterConfig());
-
-            boolean updated = false;
-            while (!updated) {
-                // Write the conditional update request to Accumulo.
-                final long cardinality = getPcjMetadata(accumuloConn,pcjTableName).getCardinality();
-                final ConditionalMutation mutation = makeUpdateCardinalityMutation(cardinality, delta);
-                final ConditionalWriter.Result result = conditionalWriter.write(mutation);
-
-                // Interpret the result.
-                switch (result.getStatus()) {
-                case ACCEPTED:
-                    updated = true;
-                    break;
-                case REJECTED:
-                    break;
-                case UNKNOWN:
-                    // We do not know if the mutation succeeded. At best, we
-                    // can hope the metadata hasn't been updated
-                    // since we originally fetched it and try again.
-                    // Otherwise, continue forwards as if it worked. It's
-                    // okay if this number is slightly off.
-                    final long newCardinality = getPcjMetadata(accumuloConn,pcjTableName).getCardinality();
-                    if (newCardinality != cardinality) {
-                        updated = true;
-                    }
-                    break;
-                case VIOLATED:
-                    throw new PCJStorageException("The cardinality could not be updated because the commit violated a table constraint.");
-                case INVISIBLE_VISIBILITY:
-                    throw new PCJStorageException("The condition contains a visibility the updater can not satisfy.");
-                }
-            }
-        } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
-            throw new PCJStorageException("Could not update the cardinality value of the PCJ Table named: " + pcjTableName, e);
-        } finally {
-            if (conditionalWriter != null) {
-                conditionalWriter.close();
-            }
-        }
-    }
-
-    /**
-     * Update the cardinality of a PCJ by a {@code delta}.
-     *
-     * This method updates the PCJ table cardinality using a BatchWriter in the event that
-     * the Accumulo Connector is for a MockInstance.  In the event that the cardinality is
-     * being updated asynchronously, there are no guarantees that the resulting cardinality
-     * will be correct.
-     *
-     * @param accumuloConn - A connection to a Mock Accumulo Instance that hosts the PCJ table. (not null)
-     * @param pcjTableName - The name of the PCJ table that will have its cardinality updated. (not null)
-     * @param delta - How much the cardinality will change.
-     * @throws PCJStorageException The cardinality could not be updated.
-     */
-    private void updateMockCardinality(final Connector accumuloConn, final String pcjTableName, final long delta) throws PCJStorageException {
-        checkNotNull(accumuloConn);
-        checkNotNull(pcjTableName);
-
-        BatchWriter batchWriter = null;
-        try {
-            batchWriter = accumuloConn.createBatchWriter(pcjTableName, new BatchWriterConfig());
-            final long cardinality = getPcjMetadata(accumuloConn, pcjTableName).getCardinality();
-            final Mutation mutation = new Mutation(PCJ_METADATA_ROW_ID);
-            final Value newCardinality = new Value(longLexicoder.encode(cardinality + delta));
-            mutation.put(PCJ_METADATA_FAMILY, PCJ_METADATA_CARDINALITY, newCardinality);
-            batchWriter.addMutation(mutation);
-        } catch (TableNotFoundException | MutationsRejectedException e) {
-            throw new PCJStorageException("Could not update the cardinality value of the PCJ Table named: " + pcjTableName, e);
-        } finally {
-            if (batchWriter != null) {
-                try {
-                    batchWriter.close();
-                } catch (final MutationsRejectedException e) {
-                    throw new PCJStorageException("Could not update the cardinality value of the PCJ Table named: " + pcjTableName, e);
-                }
-            }
-        }
-    }
-
-    /**
-     * Creates a {@link ConditionalMutation} that only updates the cardinality
-     * of the PCJ table if the old value has not changed by the time this mutation
-     * is committed to Accumulo.
+     * Creates a {@link Mutation} that changes the cardinality of the PCJ table
+     * by a {@code delta}. The table's cardinality combiner adds it to the
+     * cardinality that is already stored.
      *
-     * @param current - The current cardinality value.
      * @param delta - How much the cardinality will change.
-     * @return The mutation that will perform the conditional update.
+     * @return The mutation that will perform the update.
      */
-    private static ConditionalMutation makeUpdateCardinalityMutation(final long current, final long delta) {
-        // Try to update the cardinality by the delta.
-        final ConditionalMutation mutation = new ConditionalMutation(PCJ_METADATA_ROW_ID);
-        final Condition lastCardinalityStillCurrent = new Condition(
-                PCJ_METADATA_FAMILY,
-                PCJ_METADATA_CARDINALITY);
-
-        // Require the old cardinality to be the value we just read.
-        final byte[] currentCardinalityBytes = longLexicoder.encode( current );
-        lastCardinalityStillCurrent.setValue( currentCardinalityBytes );
-        mutation.addCondition(lastCardinalityStillCurrent);
-
-        // If that is the case, then update to the new value.
-        final Value newCardinality = new Value( longLexicoder.encode(current + delta) );
-        mutation.put(PCJ_METADATA_FAMILY, PCJ_METADATA_CARDINALITY, newCardinality);
+    private static Mutation makeUpdateCardinalityMutation(final long delta) {
+        final Mutation mutation = new Mutation(PCJ_METADATA_ROW_ID);
+        mutation.put(PCJ_METADATA_FAMILY, PCJ_METADATA_CARDINALITY, new Value( longLexicoder.encode(delta) ));
         return mutation;
     }
 
@@ -733,6 +694,7 @@ public class PcjTables {
     public void dropPcjTable(final Connector accumuloConn, final String pcjTableName) throws PCJStorageException {
         checkNotNull(accumuloConn);
         checkNotNull(pcjTableName);
+        combinerAttached.remove(accumuloConn.getInstance().getInstanceName() + "/" + pcjTableName);
         try {
             accumuloConn.tableOperations().delete(pcjTableName);
         } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
@@ -29,13 +29,75 @@ import org.apache.fluo.api.data.Bytes;
 
 import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 
 /**
  * Serializes and deserializes a {@link VisibilityBindingSet} to and from {@link Bytes} objects.
+ * <p>
+ * Values may be written either using Java Serialization or the {@link CompactBindingSetCodec}.
+ * Deserialization always accepts both formats, which lets a deployment move to the compact
+ * format in two steps: first deploy code that is able to read it, and then switch the writers
+ * over by setting the {@value #FORMAT_PROPERTY} system property to {@code COMPACT}. Values that
+ * were written before the switch continue to be readable.
  */
 @DefaultAnnotation(NonNull.class)
 public class VisibilityBindingSetSerDe {
 
+    /**
+     * The system property that selects the {@link Format} used by the no-argument constructor.
+     */
+    public static final String FORMAT_PROPERTY = "rya.pcj.serde.format";
+
+    /**
+     * The formats a {@link VisibilityBindingSet} may be serialized with.
+     */
+    public static enum Format {
+        /**
+         * Java Serialization. This is how all values were written before the compact format existed.
+         */
+        JAVA_SERIALIZATION,
+
+        /**
+         * The {@link CompactBindingSetCodec} encoding.
+         */
+        COMPACT;
+
+        /**
+         * @return The format named by the {@value VisibilityBindingSetSerDe#FORMAT_PROPERTY} system property,
+         *   or {@link #JAVA_SERIALIZATION} if it has not been set.
+         */
+        public static Format fromSystemProperty() {
+            final String format = System.getProperty(FORMAT_PROPERTY);
+            return format == null ? JAVA_SERIALIZATION : Format.valueOf(format.trim().toUpperCase());
+        }
+    }
+
+    private final Format format;
+
+    /**
+     * Constructs an instance of {@link VisibilityBindingSetSerDe} that writes using the
+     * format named by the {@value #FORMAT_PROPERTY} system property.
+     */
+    public VisibilityBindingSetSerDe() {
+        this(Format.fromSystemProperty());
+    }
+
+    /**
+     * Constructs an instance of {@link VisibilityBindingSetSerDe}.
+     *
+     * @param format - The format binding sets are serialized with. (not null)
+     */
+    public VisibilityBindingSetSerDe(final Format format) {
+        this.format = requireNonNull(format);
+    }
+
+    /**
+     * @return The format binding sets are serialized with.
+     */
+    public Format getFormat() {
+        return format;
+    }
+
     /**
      * Serializes a {@link VisibilityBindingSet} into a {@link Bytes} object.
      *
@@ -44,8 +106,28 @@ public class VisibilityBindingSetSerDe {
      * @throws Exception A problem was encountered while serializing the object.
      */
     public Bytes serialize(final VisibilityBindingSet bindingSet) throws Exception {
+        return serialize(bindingSet, null);
+    }
+
+    /**
+     * Serializes a {@link VisibilityBindingSet} into a {@link Bytes} object. When the
+     * {@link Format#COMPACT} format is used and every binding is part of the variable
+     * order, binding names are written as indices into it instead of being written out.
+     * The same variable order must then be provided to {@link #deserialize(Bytes, VariableOrder)}.
+     *
+     * @param bindingSet - The binding set that will be serialized. (not null)
+     * @param varOrder - The variable order of the node the binding set belongs to. (optional)
+     * @return The serialized object.
+     * @throws Exception A problem was encountered while serializing the object.
+     */
+    public Bytes serialize(final VisibilityBindingSet bindingSet, @Nullable final VariableOrder varOrder) throws Exception {
         requireNonNull(bindingSet);
 
+        if(format == Format.COMPACT) {
+            final boolean indexed = varOrder != null && varOrder.getVariableOrders().containsAll(bindingSet.getBindingNames());
+            return Bytes.of(CompactBindingSetCodec.encode(bindingSet, indexed ? varOrder : null));
+        }
+
         final ByteArrayOutputStream boas = new ByteArrayOutputStream();
         try(final ObjectOutputStream oos = new ObjectOutputStream(boas)) {
             oos.writeObject(bindingSet);
@@ -55,16 +137,37 @@ public class VisibilityBindingSetSerDe {
     }
 
     /**
-     * Deserializes a {@link VisibilityBindingSet} from a {@link Bytes} object.
+     * Deserializes a {@link VisibilityBindingSet} from a {@link Bytes} object. Both
+     * {@link Format}s are accepted regardless of the format this SerDe writes.
      *
      * @param bytes - The bytes that will be deserialized. (not null)
      * @return The deserialized object.
      * @throws Exception A problem was encountered while deserializing the object.
      */
     public VisibilityBindingSet deserialize(final Bytes bytes) throws Exception {
+        return deserialize(bytes, null);
+    }
+
+    /**
+     * Deserializes a {@link VisibilityBindingSet} from a {@link Bytes} object that may have
+     * been written using {@link #serialize(VisibilityBindingSet, VariableOrder)}. Both
+     * {@link Format}s are accepted regardless of the format this SerDe writes.
+     *
+     * @param bytes - The bytes that will be deserialized. (not null)
+     * @param varOrder - The variable order the binding set was serialized with. Required if it
+     *   was serialized with one. (optional)
+     * @return The deserialized object.
+     * @throws Exception A problem was encountered while deserializing the object.
+     */
+    public VisibilityBindingSet deserialize(final Bytes bytes, @Nullable final VariableOrder varOrder) throws Exception {
         requireNonNull(bytes);
 
-        try(final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toArray()))) {
+        final byte[] array = bytes.toArray();
+        if(CompactBindingSetCodec.isCompact(array)) {
+            return CompactBindingSetCodec.decode(array, varOrder);
+        }
+
+        try(final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(array))) {
             final Object o = ois.readObject();
             if(o instanceof VisibilityBindingSet) {
                 return (VisibilityBindingSet) o;
@@ -73,4 +176,4 @@ public class VisibilityBindingSetSerDe {
             }
         }
     }
-}
\ No newline at end of file
+}
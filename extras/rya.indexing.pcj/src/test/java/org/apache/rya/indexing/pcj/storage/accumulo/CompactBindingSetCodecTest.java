@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.storage.accumulo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.junit.Test;
+
+/**
+ * Tests the methods of {@link CompactBindingSetCodec}.
+ */
+public class CompactBindingSetCodecTest {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    @Test
+    public void roundTrip_allValueKinds() {
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("iri", VF.createIRI("urn:Alice"));
+        bs.addBinding("bnode", VF.createBNode("b1"));
+        bs.addBinding("plain", VF.createLiteral("Alice"));
+        bs.addBinding("lang", VF.createLiteral("Alice", "en"));
+        bs.addBinding("int", VF.createLiteral(5));
+        bs.addBinding("double", VF.createLiteral(3.5));
+        bs.addBinding("bool", VF.createLiteral(true));
+        bs.addBinding("decimal", VF.createLiteral(new BigDecimal("1.25")));
+        bs.addBinding("integer", VF.createLiteral(BigInteger.TEN));
+        bs.addBinding("custom", VF.createLiteral("POINT(1 2)", VF.createIRI("http://www.opengis.net/ont/geosparql#wktLiteral")));
+        bs.addBinding("unicode", VF.createLiteral("été ☃"));
+        final VisibilityBindingSet original = new VisibilityBindingSet(bs, "a&(b|c)");
+
+        final byte[] bytes = CompactBindingSetCodec.encode(original, null);
+        assertTrue(CompactBindingSetCodec.isCompact(bytes));
+        assertEquals(original, CompactBindingSetCodec.decode(bytes, null));
+    }
+
+    @Test
+    public void roundTrip_varOrderIndexed() {
+        final VariableOrder varOrder = new VariableOrder("name", "age", "employer");
+
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("employer", VF.createIRI("urn:BurgerJoint"));
+        bs.addBinding("age", VF.createLiteral("5", XMLSchema.INTEGER));
+        final VisibilityBindingSet original = new VisibilityBindingSet(bs, "u");
+
+        final byte[] indexed = CompactBindingSetCodec.encode(original, varOrder);
+        final byte[] inline = CompactBindingSetCodec.encode(original, null);
+        assertTrue(indexed.length < inline.length);
+        assertEquals(original, CompactBindingSetCodec.decode(indexed, varOrder));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_varOrderIndexedWithoutVarOrder() {
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("name", VF.createLiteral("Alice"));
+        final byte[] bytes = CompactBindingSetCodec.encode(new VisibilityBindingSet(bs), new VariableOrder("name"));
+        CompactBindingSetCodec.decode(bytes, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_bindingNotInVarOrder() {
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("name", VF.createLiteral("Alice"));
+        CompactBindingSetCodec.encode(new VisibilityBindingSet(bs), new VariableOrder("age"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_truncated() {
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("name", VF.createLiteral("Alice"));
+        final byte[] bytes = CompactBindingSetCodec.encode(new VisibilityBindingSet(bs), null);
+
+        final byte[] truncated = new byte[bytes.length - 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        CompactBindingSetCodec.decode(truncated, null);
+    }
+
+    @Test
+    public void varInt_roundTrip() {
+        final int[] values = { 0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE };
+
+        final CompactBindingSetCodec.Writer writer = new CompactBindingSetCodec.Writer();
+        for(final int value : values) {
+            writer.writeVarInt(value);
+        }
+
+        final CompactBindingSetCodec.Reader reader = new CompactBindingSetCodec.Reader(writer.toByteArray());
+        for(final int value : values) {
+            assertEquals(value, reader.readVarInt());
+        }
+    }
+
+    @Test
+    public void isCompact_javaSerialization() throws Exception {
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("name", VF.createLiteral("Alice"));
+        final byte[] bytes = new VisibilityBindingSetSerDe(VisibilityBindingSetSerDe.Format.JAVA_SERIALIZATION)
+                .serialize(new VisibilityBindingSet(bs)).toArray();
+        assertFalse(CompactBindingSetCodec.isCompact(bytes));
+    }
+}
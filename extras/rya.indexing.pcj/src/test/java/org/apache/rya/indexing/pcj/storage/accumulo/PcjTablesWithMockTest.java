@@ -19,8 +19,12 @@
 package org.apache.rya.indexing.pcj.storage.accumulo;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -31,6 +35,7 @@ import org.apache.accumulo.core.client.Instance;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.mock.MockInstance;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
 import org.apache.log4j.Logger;
 import org.apache.rya.accumulo.AccumuloRdfConfiguration;
 import org.apache.rya.accumulo.AccumuloRyaDAO;
@@ -43,6 +48,7 @@ import org.apache.rya.rdftriplestore.RyaSailRepository;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
 import org.eclipse.rdf4j.repository.RepositoryException;
 import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
 import org.junit.After;
@@ -110,6 +116,46 @@ public class PcjTablesWithMockTest {
     }
 
 
+    @Test
+    public void addResults_cardinalitySummed() throws PcjException {
+        final String pcjTableName = new PcjTableNameFactory().makeTableName(RYA_TABLE_PREFIX, "cardinalityPcj");
+        final PcjTables pcjs = new PcjTables();
+        final Set<VariableOrder> varOrders = Collections.singleton(new VariableOrder("name"));
+        pcjs.createPcjTable(accumuloConn, pcjTableName, varOrders, "SELECT ?name { ?name <http://playsSport> \"Soccer\" }");
+
+        // Add the results in more than one batch so that the cardinality has to be summed.
+        pcjs.addResults(accumuloConn, pcjTableName, Arrays.asList(makeResult("http://Alice"), makeResult("http://Bob")));
+        pcjs.addResults(accumuloConn, pcjTableName, Collections.singleton(makeResult("http://Charlie")));
+        assertEquals(3, pcjs.getPcjMetadata(accumuloConn, pcjTableName).getCardinality());
+
+        // Purging the table resets the cardinality.
+        pcjs.purgePcjTable(accumuloConn, pcjTableName);
+        pcjs.addResults(accumuloConn, pcjTableName, Collections.singleton(makeResult("http://Eve")));
+        assertEquals(1, pcjs.getPcjMetadata(accumuloConn, pcjTableName).getCardinality());
+    }
+
+    @Test
+    public void addResults_attachesCombinerToOldTables() throws Exception {
+        final String pcjTableName = new PcjTableNameFactory().makeTableName(RYA_TABLE_PREFIX, "oldPcj");
+        new PcjTables().createPcjTable(accumuloConn, pcjTableName, Collections.singleton(new VariableOrder("name")),
+                "SELECT ?name { ?name <http://playsSport> \"Soccer\" }");
+
+        // Tables that were created before the cardinality was combined do not have the combiner.
+        accumuloConn.tableOperations().removeIterator(pcjTableName, "pcjCardinality", EnumSet.allOf(IteratorScope.class));
+
+        final PcjTables pcjs = new PcjTables();
+        pcjs.addResults(accumuloConn, pcjTableName, Collections.singleton(makeResult("http://Alice")));
+        pcjs.addResults(accumuloConn, pcjTableName, Collections.singleton(makeResult("http://Bob")));
+        assertTrue(accumuloConn.tableOperations().listIterators(pcjTableName).containsKey("pcjCardinality"));
+        assertEquals(2, pcjs.getPcjMetadata(accumuloConn, pcjTableName).getCardinality());
+    }
+
+    private static VisibilityBindingSet makeResult(final String name) {
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("name", VF.createIRI(name));
+        return new VisibilityBindingSet(bs);
+    }
+
 	@After
 	public void shutdown() {
 		if (ryaConn != null) {
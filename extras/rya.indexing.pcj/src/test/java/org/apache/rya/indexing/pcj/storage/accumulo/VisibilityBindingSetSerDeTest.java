@@ -20,8 +20,10 @@
 package org.apache.rya.indexing.pcj.storage.accumulo;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.apache.fluo.api.data.Bytes;
+import org.apache.rya.indexing.pcj.storage.accumulo.VisibilityBindingSetSerDe.Format;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.query.impl.MapBindingSet;
@@ -47,4 +49,83 @@ public class VisibilityBindingSetSerDeTest {
 
         assertEquals(original, result);
     }
+
+    @Test
+    public void rountTrip_compact() throws Exception {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("name", vf.createLiteral("Alice"));
+        bs.addBinding("age", vf.createLiteral(5));
+        final VisibilityBindingSet original = new VisibilityBindingSet(bs, "u");
+
+        final VisibilityBindingSetSerDe serde = new VisibilityBindingSetSerDe(Format.COMPACT);
+        final Bytes bytes = serde.serialize(original);
+        final VisibilityBindingSet result = serde.deserialize(bytes);
+
+        assertEquals(original, result);
+    }
+
+    @Test
+    public void compactIsSmaller() throws Exception {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("name", vf.createIRI("urn:Alice"));
+        bs.addBinding("age", vf.createLiteral(5));
+        final VisibilityBindingSet original = new VisibilityBindingSet(bs, "u");
+
+        final int javaLength = new VisibilityBindingSetSerDe(Format.JAVA_SERIALIZATION).serialize(original).length();
+        final int compactLength = new VisibilityBindingSetSerDe(Format.COMPACT).serialize(original).length();
+        assertTrue(compactLength < javaLength);
+    }
+
+    @Test
+    public void readsEitherFormat() throws Exception {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("name", vf.createLiteral("Alice"));
+        final VisibilityBindingSet original = new VisibilityBindingSet(bs, "u");
+
+        final VisibilityBindingSetSerDe javaSerDe = new VisibilityBindingSetSerDe(Format.JAVA_SERIALIZATION);
+        final VisibilityBindingSetSerDe compactSerDe = new VisibilityBindingSetSerDe(Format.COMPACT);
+
+        // Values written before a migration must still be readable after it, and vice versa.
+        assertEquals(original, compactSerDe.deserialize(javaSerDe.serialize(original)));
+        assertEquals(original, javaSerDe.deserialize(compactSerDe.serialize(original)));
+    }
+
+    @Test
+    public void rountTrip_compactVarOrder() throws Exception {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("name", vf.createLiteral("Alice"));
+        bs.addBinding("age", vf.createLiteral(5));
+        final VisibilityBindingSet original = new VisibilityBindingSet(bs, "u");
+        final VariableOrder varOrder = new VariableOrder("age;name");
+
+        final VisibilityBindingSetSerDe serde = new VisibilityBindingSetSerDe(Format.COMPACT);
+        final Bytes indexed = serde.serialize(original, varOrder);
+        assertEquals(original, serde.deserialize(indexed, varOrder));
+
+        // Binding names are not written when the variable order is used.
+        assertTrue(indexed.length() < serde.serialize(original).length());
+    }
+
+    @Test
+    public void rountTrip_compactVarOrder_extraBinding() throws Exception {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("name", vf.createLiteral("Alice"));
+        bs.addBinding("age", vf.createLiteral(5));
+        final VisibilityBindingSet original = new VisibilityBindingSet(bs, "u");
+
+        // The binding set has a binding that is not in the variable order, so the names are written out.
+        final VisibilityBindingSetSerDe serde = new VisibilityBindingSetSerDe(Format.COMPACT);
+        final Bytes bytes = serde.serialize(original, new VariableOrder("name"));
+        assertEquals(original, serde.deserialize(bytes));
+    }
 }
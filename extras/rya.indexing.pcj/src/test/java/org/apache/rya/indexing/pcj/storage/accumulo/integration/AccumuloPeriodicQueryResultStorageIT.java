@@ -268,4 +268,99 @@ public class AccumuloPeriodicQueryResultStorageIT extends AccumuloITBase {
         }
         periodicStorage.deletePeriodicQuery(id);
     }
+    
+    @Test
+    public void deleteMultipleBinsTest() throws Exception {
+        String sparql = "prefix function: <http://org.apache.rya/function#> " //n
+                + "prefix time: <http://www.w3.org/2006/time#> " //n
+                + "select ?id (count(?obs) as ?total) where {" //n
+                + "Filter(function:periodic(?time, 2, .5, time:hours)) " //n
+                + "?obs <uri:hasTime> ?time. " //n
+                + "?obs <uri:hasId> ?id } group by ?id"; //n
+        
+        String queryId = UUID.randomUUID().toString().replace("-", "");
+        long period = 1800000;
+        long binId = (System.currentTimeMillis()/period)*period;
+        
+        Set<VisibilityBindingSet> storageResults = new HashSet<>();
+        Set<BindingSet> expected = new HashSet<>();
+        for(int i = 0; i < 3; i++) {
+            MapBindingSet bs = new MapBindingSet();
+            bs.addBinding("total", VF.createLiteral("1", XMLSchema.INTEGER));
+            bs.addBinding("id", VF.createLiteral("id_" + i, XMLSchema.STRING));
+            bs.addBinding("periodicBinId", VF.createLiteral(binId + i*period));
+            storageResults.add(new VisibilityBindingSet(bs));
+            if(i == 1) {
+                expected.add(bs);
+            }
+        }
+        
+        periodicStorage.createPeriodicQuery(queryId, sparql);
+        periodicStorage.addPeriodicQueryResults(queryId, storageResults);
+        periodicStorage.deletePeriodicQueryResults(queryId, Arrays.asList(binId, binId + 2*period));
+        
+        Set<BindingSet> actual = new HashSet<>();
+        try(CloseableIterator<BindingSet> iter = periodicStorage.listResults(queryId, Optional.empty())) {
+            iter.forEachRemaining(x -> actual.add(x));
+        }
+        Assert.assertEquals(expected, actual);
+        periodicStorage.deletePeriodicQuery(queryId);
+    }
+    
+    @Test
+    public void deleteMultipleBinsByRowRangeTest() throws Exception {
+        PeriodicQueryResultStorage rangeStorage = new AccumuloPeriodicQueryResultStorage(super.getConnector(), RYA, 2);
+        String groupedSparql = "prefix function: <http://org.apache.rya/function#> " //n
+                + "prefix time: <http://www.w3.org/2006/time#> " //n
+                + "select ?id (count(?obs) as ?total) where {" //n
+                + "Filter(function:periodic(?time, 2, .5, time:hours)) " //n
+                + "?obs <uri:hasTime> ?time. " //n
+                + "?obs <uri:hasId> ?id } group by ?id"; //n
+        // The rows of this query hold nothing but the bin id.
+        String countSparql = "prefix function: <http://org.apache.rya/function#> " //n
+                + "prefix time: <http://www.w3.org/2006/time#> " //n
+                + "select (count(?obs) as ?total) where {" //n
+                + "Filter(function:periodic(?time, 2, .5, time:hours)) " //n
+                + "?obs <uri:hasTime> ?time. " //n
+                + "?obs <uri:hasId> ?id }"; //n
+        
+        long period = 1800000;
+        long binId = (System.currentTimeMillis()/period)*period;
+        for(String sparql : Arrays.asList(groupedSparql, countSparql)) {
+            String queryId = UUID.randomUUID().toString().replace("-", "");
+            boolean grouped = sparql.equals(groupedSparql);
+            
+            Set<VisibilityBindingSet> storageResults = new HashSet<>();
+            Set<BindingSet> expected = new HashSet<>();
+            for(int i = 0; i < 4; i++) {
+                for(int j = 0; j < (grouped ? 3 : 1); j++) {
+                    MapBindingSet bs = new MapBindingSet();
+                    bs.addBinding("total", VF.createLiteral("1", XMLSchema.INTEGER));
+                    if(grouped) {
+                        bs.addBinding("id", VF.createLiteral("id_" + j, XMLSchema.STRING));
+                    }
+                    bs.addBinding("periodicBinId", VF.createLiteral(binId + i*period));
+                    storageResults.add(new VisibilityBindingSet(bs));
+                    if(i == 1 || i == 3) {
+                        expected.add(bs);
+                    }
+                }
+            }
+            
+            rangeStorage.createPeriodicQuery(queryId, sparql);
+            rangeStorage.addPeriodicQueryResults(queryId, storageResults);
+            // A single bin is still deleted with a BatchDeleter.
+            rangeStorage.deletePeriodicQueryResults(queryId, binId);
+            rangeStorage.deletePeriodicQueryResults(queryId, Arrays.asList(binId, binId + 2*period));
+            
+            Set<BindingSet> actual = new HashSet<>();
+            try(CloseableIterator<BindingSet> iter = rangeStorage.listResults(queryId, Optional.empty())) {
+                iter.forEachRemaining(x -> actual.add(x));
+            }
+            Assert.assertEquals(expected, actual);
+            // The metadata of the query is not removed with the results.
+            Assert.assertEquals(sparql, rangeStorage.getPeriodicQueryMetadata(queryId).getSparql());
+            rangeStorage.deletePeriodicQuery(queryId);
+        }
+    }
 }
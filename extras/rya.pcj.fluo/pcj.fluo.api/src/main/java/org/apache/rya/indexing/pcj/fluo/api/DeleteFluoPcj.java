@@ -33,6 +33,7 @@ import org.apache.fluo.api.data.RowColumnValue;
 import org.apache.fluo.api.data.Span;
 import org.apache.rya.indexing.pcj.fluo.app.NodeType;
 import org.apache.rya.indexing.pcj.fluo.app.query.FluoQuery;
+import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryColumns;
 import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryMetadataDAO;
 import org.apache.rya.indexing.pcj.fluo.app.query.UnsupportedQueryException;
 import org.apache.rya.indexing.pcj.fluo.app.util.FluoQueryUtils;
@@ -93,7 +94,13 @@ public class DeleteFluoPcj {
 
         // Delete the binding sets associated with the query's nodes.
         for (final String nodeId : nodeIds) {
-            deleteData(client, nodeId);
+            final NodeType type = NodeType.fromNodeId(nodeId).get();
+            deleteData(client, nodeId, type.getResultColumn());
+
+            // Also delete any results that were still waiting to be exported.
+            if (type == NodeType.QUERY) {
+                deleteData(client, nodeId, FluoQueryColumns.QUERY_EXPORT_QUEUE);
+            }
         }
     }
 
@@ -134,6 +141,9 @@ public class DeleteFluoPcj {
             for (final String nodeId : nodeIds) {
                 final NodeType type = NodeType.fromNodeId(nodeId).get();
                 deleteMetadataColumns(typeTx, nodeId, type.getMetaDataColumns());
+                if (type == NodeType.STATEMENT_PATTERN) {
+                    dao.deleteStatementPatternIndexEntry(typeTx, nodeId);
+                }
             }
             typeTx.commit();
         }
@@ -162,14 +172,15 @@ public class DeleteFluoPcj {
      *
      * @param nodeId - nodeId whose {@link BindingSet}s will be deleted. (not null)
      * @param client - Used to delete the data. (not null)
+     * @param column - The column the results are stored in. (not null)
      */
-    private void deleteData(final FluoClient client, final String nodeId) {
+    private void deleteData(final FluoClient client, final String nodeId, final Column column) {
         requireNonNull(client);
         requireNonNull(nodeId);
+        requireNonNull(column);
 
-        final NodeType type = NodeType.fromNodeId(nodeId).get();
         Transaction tx = client.newTransaction();
-        while (deleteDataBatch(tx, getIterator(tx, nodeId, type.getResultColumn()), type.getResultColumn())) {
+        while (deleteDataBatch(tx, getIterator(tx, nodeId, column), column)) {
             tx = client.newTransaction();
         }
     }
@@ -31,6 +31,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -43,13 +44,17 @@ import org.apache.rya.indexing.pcj.fluo.app.query.AggregationMetadata.Aggregatio
 import org.apache.rya.indexing.pcj.fluo.app.query.AggregationMetadata.AggregationType;
 import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryColumns;
 import org.apache.rya.indexing.pcj.fluo.app.util.RowKeyUtil;
+import org.apache.rya.indexing.pcj.storage.accumulo.CompactBindingSetCodec;
 import org.apache.rya.indexing.pcj.storage.accumulo.VariableOrder;
 import org.apache.rya.indexing.pcj.storage.accumulo.VisibilityBindingSet;
+import org.apache.rya.indexing.pcj.storage.accumulo.VisibilityBindingSetSerDe;
+import org.apache.rya.indexing.pcj.storage.accumulo.VisibilityBindingSetSerDe.Format;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.datatypes.XMLDatatypeUtil;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.Binding;
 import org.eclipse.rdf4j.query.algebra.MathExpr.MathOp;
 import org.eclipse.rdf4j.query.algebra.evaluation.ValueExprEvaluationException;
 import org.eclipse.rdf4j.query.algebra.evaluation.util.MathUtil;
@@ -68,7 +73,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 public class AggregationResultUpdater {
     private static final Logger log = Logger.getLogger(AggregationResultUpdater.class);
 
-    private static final AggregationStateSerDe AGG_STATE_SERDE = new ObjectSerializationAggregationStateSerDe();
+    private static final AggregationStateSerDe AGG_STATE_SERDE = makeAggregationStateSerDe();
 
     private static final ImmutableMap<AggregationType, AggregationFunction> FUNCTIONS;
     static {
@@ -81,6 +86,18 @@ public class AggregationResultUpdater {
         FUNCTIONS = builder.build();
     }
 
+    /**
+     * @return The {@link AggregationStateSerDe} that writes using the format named by the
+     *   {@value VisibilityBindingSetSerDe#FORMAT_PROPERTY} system property. Either implementation
+     *   is able to read states that were written by the other.
+     */
+    public static AggregationStateSerDe makeAggregationStateSerDe() {
+        if(Format.fromSystemProperty() == Format.COMPACT) {
+            return new CompactAggregationStateSerDe();
+        }
+        return new ObjectSerializationAggregationStateSerDe();
+    }
+
     /**
      * Updates the results of an Aggregation node where its child has emitted a new Binding Set.
      *
@@ -403,6 +420,11 @@ public class AggregationResultUpdater {
         public AggregationState deserialize(final byte[] bytes) {
             requireNonNull(bytes);
 
+            // States may have been written by the compact SerDe if the format has been switched back.
+            if(CompactBindingSetCodec.isCompact(bytes)) {
+                return new CompactAggregationStateSerDe().deserialize(bytes);
+            }
+
             final AggregationState state;
 
             final ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
@@ -421,6 +443,65 @@ public class AggregationResultUpdater {
         }
     }
 
+    /**
+     * An implementation of {@link AggregationStateSerDe} that uses the {@link CompactBindingSetCodec}
+     * encoding. States that were written using Java Serialization are still readable.
+     */
+    public static final class CompactAggregationStateSerDe implements AggregationStateSerDe {
+
+        @Override
+        public byte[] serialize(final AggregationState state) {
+            requireNonNull(state);
+
+            final CompactBindingSetCodec.Writer writer = new CompactBindingSetCodec.Writer();
+            writer.writeHeader(0);
+            writer.writeString(state.getVisibility());
+            writer.writeBindings(state.getBindingSet(), null);
+
+            final Map<String, AverageState> avgStates = state.getAverageStates();
+            writer.writeVarInt(avgStates.size());
+            for(final Entry<String, AverageState> entry : avgStates.entrySet()) {
+                final AverageState avgState = entry.getValue();
+                writer.writeString(entry.getKey());
+                writer.writeVarInt(avgState.getSum().scale());
+                writer.writeBytes(avgState.getSum().unscaledValue().toByteArray());
+                writer.writeBytes(avgState.getCount().toByteArray());
+            }
+
+            return writer.toByteArray();
+        }
+
+        @Override
+        public AggregationState deserialize(final byte[] bytes) {
+            requireNonNull(bytes);
+
+            if(!CompactBindingSetCodec.isCompact(bytes)) {
+                return new ObjectSerializationAggregationStateSerDe().deserialize(bytes);
+            }
+
+            final CompactBindingSetCodec.Reader reader = new CompactBindingSetCodec.Reader(bytes);
+            reader.readHeader();
+            final String visibility = reader.readString();
+
+            final MapBindingSet bindingSet = new MapBindingSet();
+            for(final Binding binding : reader.readBindings(false, null)) {
+                bindingSet.addBinding(binding);
+            }
+
+            final int avgStatesSize = reader.readVarInt();
+            final Map<String, AverageState> avgStates = new HashMap<>();
+            for(int i = 0; i < avgStatesSize; i++) {
+                final String name = reader.readString();
+                final int scale = reader.readVarInt();
+                final BigDecimal sum = new BigDecimal(new BigInteger(reader.readBytes()), scale);
+                final BigInteger count = new BigInteger(reader.readBytes());
+                avgStates.put(name, new AverageState(sum, count));
+            }
+
+            return new AggregationState(visibility, bindingSet, avgStates);
+        }
+    }
+
     /**
      * Keeps track information required to update and build the resulting Binding Set for a set of Group By values.
      */
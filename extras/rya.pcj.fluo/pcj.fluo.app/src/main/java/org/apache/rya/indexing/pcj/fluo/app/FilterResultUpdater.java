@@ -98,18 +98,39 @@ public class FilterResultUpdater {
             final TransactionBase tx,
             final VisibilityBindingSet childBindingSet,
             final FilterMetadata filterMetadata) throws Exception {
-        checkNotNull(tx);
-        checkNotNull(childBindingSet);
         checkNotNull(filterMetadata);
 
-        log.trace("Transaction ID: {}\nFilter Node ID: {}\nBinding Set:\n{}\n", tx.getStartTimestamp(), filterMetadata.getNodeId(), childBindingSet);
-
         // Parse the original query and find the Filter that represents filterId.
         final String sparql = filterMetadata.getFilterSparql();
         final Filter filter = FilterSerializer.deserialize(sparql);
 
+        updateFilterResults(tx, childBindingSet, filterMetadata, filter.getCondition());
+    }
+
+    /**
+     * Updates the results of a Filter node when one of its child has added a
+     * new Binding Set to its results. The filter's condition has already been
+     * parsed, so the filter's SPARQL is not read.
+     *
+     * @param tx - The transaction all Fluo queries will use. (not null)
+     * @param childBindingSet - A binding set that the query's child node has emitted. (not null)
+     * @param filterMetadata - The metadata of the Filter whose results will be updated. (not null)
+     * @param condition - The condition of the Filter whose results will be updated. (not null)
+     * @throws Exception Something caused the update to fail.
+     */
+    public void updateFilterResults(
+            final TransactionBase tx,
+            final VisibilityBindingSet childBindingSet,
+            final FilterMetadata filterMetadata,
+            final ValueExpr condition) throws Exception {
+        checkNotNull(tx);
+        checkNotNull(childBindingSet);
+        checkNotNull(filterMetadata);
+        checkNotNull(condition);
+
+        log.trace("Transaction ID: {}\nFilter Node ID: {}\nBinding Set:\n{}\n", tx.getStartTimestamp(), filterMetadata.getNodeId(), childBindingSet);
+
         // Evaluate whether the child BindingSet satisfies the filter's condition.
-        final ValueExpr condition = filter.getCondition();
         if (isTrue(condition, childBindingSet)) {
 
             // Create the Row Key for the emitted binding set. It does not contain visibilities.
@@ -117,7 +138,7 @@ public class FilterResultUpdater {
             final Bytes resultRow = RowKeyUtil.makeRowKey(filterMetadata.getNodeId(), filterVarOrder, childBindingSet);
 
             // Serialize and emit BindingSet
-            final Bytes nodeValueBytes = BS_SERDE.serialize(childBindingSet);
+            final Bytes nodeValueBytes = BS_SERDE.serialize(childBindingSet, filterVarOrder);
             log.trace("Transaction ID: {}\nNew Binding Set: {}\n", tx.getStartTimestamp(), childBindingSet);
 
             tx.set(resultRow, FluoQueryColumns.FILTER_BINDING_SET, nodeValueBytes);
@@ -43,6 +43,7 @@ import org.apache.rya.indexing.pcj.fluo.app.batch.BatchInformation.Task;
 import org.apache.rya.indexing.pcj.fluo.app.batch.BatchInformationDAO;
 import org.apache.rya.indexing.pcj.fluo.app.batch.JoinBatchInformation;
 import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryColumns;
+import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryMetadataCache;
 import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryMetadataDAO;
 import org.apache.rya.indexing.pcj.fluo.app.query.JoinMetadata;
 import org.apache.rya.indexing.pcj.fluo.app.util.RowKeyUtil;
@@ -72,7 +73,7 @@ public class JoinResultUpdater {
     private static final VisibilityBindingSetSerDe BS_SERDE = new VisibilityBindingSetSerDe();
     private static final VisibilityBindingSetStringConverter VIS_BS_CONVERTER = new VisibilityBindingSetStringConverter();
 
-    private final FluoQueryMetadataDAO queryDao = new FluoQueryMetadataDAO();
+    private final FluoQueryMetadataDAO queryDao = FluoQueryMetadataCache.getInstance();
 
     /**
      * Updates the results of a Join node when one of its children has added a
@@ -129,7 +130,8 @@ public class JoinResultUpdater {
         Set<VisibilityBindingSet> siblingBindingSets = new HashSet<>();
         Span siblingSpan = getSpan(tx, childNodeId, childBindingSet, siblingId);
         Column siblingColumn = getScanColumnFamily(siblingId);
-        Optional<RowColumn> rowColumn = fillSiblingBatch(tx, siblingSpan, siblingColumn, siblingBindingSets, joinMetadata.getJoinBatchSize());
+        VariableOrder siblingVarOrder = queryDao.readVariableOrder(tx, siblingId);
+        Optional<RowColumn> rowColumn = fillSiblingBatch(tx, siblingSpan, siblingColumn, siblingVarOrder, siblingBindingSets, joinMetadata.getJoinBatchSize());
         
         // Iterates over the resulting BindingSets from the join.
         final Iterator<VisibilityBindingSet> newJoinResults;
@@ -150,7 +152,7 @@ public class JoinResultUpdater {
             // Only insert the join Binding Set if it is new or BindingSet contains values not used in resultRow.
             if(tx.get(resultRow, FluoQueryColumns.JOIN_BINDING_SET) == null || joinVarOrder.getVariableOrders().size() < newJoinResult.size()) {
                 // Create the Node Value. It does contain visibilities.
-                final Bytes nodeValueBytes = BS_SERDE.serialize(newJoinResult);
+                final Bytes nodeValueBytes = BS_SERDE.serialize(newJoinResult, joinVarOrder);
 
                 log.trace(
                         "Transaction ID: " + tx.getStartTimestamp() + "\n" +
@@ -192,11 +194,12 @@ public class JoinResultUpdater {
      * 
      * @param tx - Fluo transaction in which batch operation is performed
      * @param siblingSpan - span of sibling to retrieve elements to join with
+     * @param siblingVarOrder - variable order the sibling's results were serialized with
      * @param bsSet- set that batch results are added to
      * @return Set - containing results of sibling scan.
      * @throws Exception 
      */
-    private Optional<RowColumn> fillSiblingBatch(TransactionBase tx, Span siblingSpan, Column siblingColumn, Set<VisibilityBindingSet> bsSet, int batchSize) throws Exception {
+    private Optional<RowColumn> fillSiblingBatch(TransactionBase tx, Span siblingSpan, Column siblingColumn, VariableOrder siblingVarOrder, Set<VisibilityBindingSet> bsSet, int batchSize) throws Exception {
 
         RowScanner rs = tx.scanner().over(siblingSpan).fetch(siblingColumn).byRow().build();
         Iterator<ColumnScanner> colScannerIter = rs.iterator();
@@ -208,7 +211,7 @@ public class JoinResultUpdater {
             row = colScanner.getRow();
             Iterator<ColumnValue> iter = colScanner.iterator();
             while (iter.hasNext() && !batchLimitMet) {
-                bsSet.add(BS_SERDE.deserialize(iter.next().getValue()));
+                bsSet.add(BS_SERDE.deserialize(iter.next().getValue(), siblingVarOrder));
                 //check if batch size has been met and set flag if it has been met
                 if (bsSet.size() >= batchSize) {
                     batchLimitMet = true;
@@ -269,19 +272,7 @@ public class JoinResultUpdater {
         checkNotNull(tx);
         checkNotNull(nodeId);
 
-        final NodeType nodeType = NodeType.fromNodeId(nodeId).get();
-        switch(nodeType) {
-            case STATEMENT_PATTERN:
-                return removeBinIdFromVarOrder(queryDao.readStatementPatternMetadata(tx, nodeId).getVariableOrder());
-            case FILTER:
-                return removeBinIdFromVarOrder(queryDao.readFilterMetadata(tx, nodeId).getVariableOrder());
-            case JOIN:
-                return removeBinIdFromVarOrder(queryDao.readJoinMetadata(tx, nodeId).getVariableOrder());
-            case PROJECTION: 
-                return removeBinIdFromVarOrder(queryDao.readProjectionMetadata(tx, nodeId).getVariableOrder());
-            default:
-                throw new IllegalArgumentException("Could not figure out the variable order for node with ID: " + nodeId);
-        }
+        return removeBinIdFromVarOrder(queryDao.readVariableOrder(tx, nodeId));
     }
     
     private VariableOrder removeBinIdFromVarOrder(VariableOrder varOrder) {
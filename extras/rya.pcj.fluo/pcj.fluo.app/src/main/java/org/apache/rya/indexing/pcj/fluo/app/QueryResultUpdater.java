@@ -80,5 +80,12 @@ public class QueryResultUpdater {
                 "New Binding Set: " + childBindingSet + "\n");
 
         tx.set(resultRow, FluoQueryColumns.QUERY_BINDING_SET, nodeValueBytes);
+
+        // Queue the result for export. The export observer is only notified once for
+        // every result that is queued before it runs, so it exports them as a batch.
+        final String queryId = queryMetadata.getNodeId();
+        final Bytes queueRow = RowKeyUtil.makeRowKey(queryId + IncrementalUpdateConstants.EXPORT_QUEUE_DELIM, queryVarOrder, childBindingSet);
+        tx.set(queueRow, FluoQueryColumns.QUERY_EXPORT_QUEUE, nodeValueBytes);
+        tx.setWeakNotification(queryId, FluoQueryColumns.QUERY_EXPORT_NOTIFY);
     }
 }
\ No newline at end of file
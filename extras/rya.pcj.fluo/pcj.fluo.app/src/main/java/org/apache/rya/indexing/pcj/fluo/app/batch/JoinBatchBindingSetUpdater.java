@@ -31,12 +31,14 @@ import org.apache.fluo.api.data.ColumnValue;
 import org.apache.fluo.api.data.RowColumn;
 import org.apache.fluo.api.data.Span;
 import org.apache.log4j.Logger;
+import org.apache.rya.indexing.pcj.fluo.app.BindingSetRow;
 import org.apache.rya.indexing.pcj.fluo.app.JoinResultUpdater.IterativeJoin;
 import org.apache.rya.indexing.pcj.fluo.app.JoinResultUpdater.LeftOuterJoin;
 import org.apache.rya.indexing.pcj.fluo.app.JoinResultUpdater.NaturalJoin;
 import org.apache.rya.indexing.pcj.fluo.app.JoinResultUpdater.Side;
 import org.apache.rya.indexing.pcj.fluo.app.batch.BatchInformation.Task;
 import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryColumns;
+import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryMetadataCache;
 import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryMetadataDAO;
 import org.apache.rya.indexing.pcj.fluo.app.query.JoinMetadata;
 import org.apache.rya.indexing.pcj.fluo.app.util.RowKeyUtil;
@@ -53,7 +55,7 @@ public class JoinBatchBindingSetUpdater extends AbstractBatchBindingSetUpdater {
 
     private static final Logger log = Logger.getLogger(JoinBatchBindingSetUpdater.class);
     private static final VisibilityBindingSetSerDe BS_SERDE = new VisibilityBindingSetSerDe();
-    private static final FluoQueryMetadataDAO dao = new FluoQueryMetadataDAO();
+    private static final FluoQueryMetadataDAO dao = FluoQueryMetadataCache.getInstance();
 
     /**
      * Processes {@link JoinBatchInformation}. Updates the BindingSets
@@ -106,7 +108,7 @@ public class JoinBatchBindingSetUpdater extends AbstractBatchBindingSetUpdater {
         while (newJoinResults.hasNext()) {
             final VisibilityBindingSet newJoinResult = newJoinResults.next();
             //create BindingSet value
-            Bytes bsBytes = BS_SERDE.serialize(newJoinResult);
+            Bytes bsBytes = BS_SERDE.serialize(newJoinResult, joinVarOrder);
             //make rowId
             Bytes rowKey = RowKeyUtil.makeRowKey(nodeId, joinVarOrder, newJoinResult);
             final Column col = FluoQueryColumns.JOIN_BINDING_SET;
@@ -157,6 +159,10 @@ public class JoinBatchBindingSetUpdater extends AbstractBatchBindingSetUpdater {
         Column column = batch.getColumn();
         int batchSize = batch.getBatchSize();
 
+        // The span is over the sibling's results, so its start row holds the sibling's Node ID.
+        String siblingId = BindingSetRow.make(span.getStart().getRow()).getNodeId();
+        VariableOrder siblingVarOrder = dao.readVariableOrder(tx, siblingId);
+
         RowScanner rs = tx.scanner().over(span).fetch(column).byRow().build();
         Iterator<ColumnScanner> colScannerIter = rs.iterator();
 
@@ -171,7 +177,7 @@ public class JoinBatchBindingSetUpdater extends AbstractBatchBindingSetUpdater {
                     batchLimitMet = true;
                     break;
                 }
-                bsSet.add(BS_SERDE.deserialize(iter.next().getValue()));
+                bsSet.add(BS_SERDE.deserialize(iter.next().getValue(), siblingVarOrder));
             }
         }
 
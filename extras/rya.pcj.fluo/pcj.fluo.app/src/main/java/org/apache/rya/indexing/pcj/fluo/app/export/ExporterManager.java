@@ -19,8 +19,11 @@
 package org.apache.rya.indexing.pcj.fluo.app.export;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -74,30 +77,47 @@ public class ExporterManager implements AutoCloseable {
      * @throws ResultExportException 
      */
     public void export(QueryType type, Set<ExportStrategy> strategies, String queryId, Bytes data) throws ResultExportException {
+        export(type, strategies, queryId, Collections.singletonList(data));
+    }
+    
+    /**
+     * Maps a batch of results to the correct {@link IncrementalResultExporter} using the provided
+     * QueryType and ExportStrategies to be exported. Each exporter is handed the whole batch, so
+     * exporters that export asynchronously only wait once per batch.
+     * @param type - QueryType that produced the results
+     * @param strategies - ExportStrategies used to export the results
+     * @param queryId - Fluo Query Id for the query that produced the results
+     * @param data - Serialized results to be exported
+     * @throws ResultExportException 
+     */
+    public void export(QueryType type, Set<ExportStrategy> strategies, String queryId, Collection<Bytes> data) throws ResultExportException {
         
         String pcjId = FluoQueryUtils.convertFluoQueryIdToPcjId(queryId);
         
         if(type == QueryType.CONSTRUCT) {
-            exportSubGraph(exporters.get(type), strategies, pcjId, data);
+            exportSubGraphs(exporters.get(type), strategies, pcjId, data);
         } else {
-            exportBindingSet(exporters.get(type), strategies, pcjId, data);
+            exportBindingSets(exporters.get(type), strategies, pcjId, data);
         }
         
     }
     
     /**
-     * Exports BindingSet using the exporters for a given {@link QueryType}.
+     * Exports BindingSets using the exporters for a given {@link QueryType}.
      * @param exporters - exporters corresponding to a given queryType
      * @param strategies - export strategies used to export results (possibly a subset of those in the exporters map)
      * @param pcjId - id of the query whose results are being exported
-     * @param data - serialized BindingSet result
+     * @param data - serialized BindingSet results
      * @throws ResultExportException
      */
-    private void exportBindingSet(Map<ExportStrategy, IncrementalResultExporter> exporters, Set<ExportStrategy> strategies, String pcjId, Bytes data) throws ResultExportException {
-        VisibilityBindingSet bs;
+    private void exportBindingSets(Map<ExportStrategy, IncrementalResultExporter> exporters, Set<ExportStrategy> strategies, String pcjId, Collection<Bytes> data) throws ResultExportException {
+        List<VisibilityBindingSet> bindingSets = new ArrayList<>(data.size());
         try {
-            bs = BS_SERDE.deserialize(data);
-            simplifyVisibilities(bs);
+            for(Bytes bytes : data) {
+                VisibilityBindingSet bs = BS_SERDE.deserialize(bytes);
+                simplifyVisibilities(bs);
+                bindingSets.add(bs);
+            }
         } catch (Exception e) {
             throw new ResultExportException("Unable to deserialize the given BindingSet.", e);
         }
@@ -105,26 +125,29 @@ public class ExporterManager implements AutoCloseable {
         try{
             for(ExportStrategy strategy: strategies) {
                 IncrementalBindingSetExporter exporter = (IncrementalBindingSetExporter) exporters.get(strategy);
-                exporter.export(pcjId, bs);
+                exporter.export(pcjId, bindingSets);
             }
         } catch (Exception e) {
-            throw new ResultExportException("Unable to export the given BindingSet " + bs + " with the given set of ExportStrategies " + strategies, e);
+            throw new ResultExportException("Unable to export the given BindingSets " + bindingSets + " with the given set of ExportStrategies " + strategies, e);
         }
     }
     
     /**
-     * Exports RyaSubGraph using the exporters for a given {@link QueryType}.
+     * Exports RyaSubGraphs using the exporters for a given {@link QueryType}.
      * @param exporters - exporters corresponding to a given queryType
      * @param strategies - export strategies used to export results (possibly a subset of those in the exporters map)
      * @param pcjId - id of the query whose results are being exported
-     * @param data - serialized RyaSubGraph result
+     * @param data - serialized RyaSubGraph results
      * @throws ResultExportException
      */
-    private void exportSubGraph(Map<ExportStrategy, IncrementalResultExporter> exporters, Set<ExportStrategy> strategies, String pcjId, Bytes data) throws ResultExportException {
-        RyaSubGraph subGraph = SG_SERDE.fromBytes(data.toArray());
-        
+    private void exportSubGraphs(Map<ExportStrategy, IncrementalResultExporter> exporters, Set<ExportStrategy> strategies, String pcjId, Collection<Bytes> data) throws ResultExportException {
+        List<RyaSubGraph> subGraphs = new ArrayList<>(data.size());
         try {
-            simplifyVisibilities(subGraph);
+            for(Bytes bytes : data) {
+                RyaSubGraph subGraph = SG_SERDE.fromBytes(bytes.toArray());
+                simplifyVisibilities(subGraph);
+                subGraphs.add(subGraph);
+            }
         } catch (UnsupportedEncodingException e) {
             throw new ResultExportException("Undable to deserialize provided RyaSubgraph", e);
         }
@@ -132,11 +155,11 @@ public class ExporterManager implements AutoCloseable {
         try {
             for (ExportStrategy strategy : strategies) {
                 IncrementalRyaSubGraphExporter exporter = (IncrementalRyaSubGraphExporter) exporters.get(strategy);
-                exporter.export(pcjId, subGraph);
+                exporter.export(pcjId, subGraphs);
             }
         } catch (Exception e) {
             throw new ResultExportException(
-                    "Unable to export the given subgraph " + subGraph + " using all of the ExportStrategies " + strategies);
+                    "Unable to export the given subgraphs " + subGraphs + " using all of the ExportStrategies " + strategies, e);
         }
     }
     
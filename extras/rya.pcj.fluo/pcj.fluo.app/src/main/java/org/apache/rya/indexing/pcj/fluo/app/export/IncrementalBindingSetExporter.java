@@ -18,6 +18,8 @@
  */
 package org.apache.rya.indexing.pcj.fluo.app.export;
 
+import java.util.Collection;
+
 import org.apache.rya.indexing.pcj.storage.accumulo.VisibilityBindingSet;
 
 import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
@@ -39,6 +41,21 @@ public interface IncrementalBindingSetExporter extends IncrementalResultExporter
      */
     public void export(String queryId, VisibilityBindingSet result) throws ResultExportException;
 
+    /**
+     * Export a batch of Binding Sets that are results of a SPARQL query that does not include
+     * a Group By clause. Exporters that are able to export results concurrently should override
+     * this method so that the batch does not wait on each result in turn.
+     *
+     * @param queryId - The PCJ ID of the SPARQL query the binding sets are results of. (not null)
+     * @param results - The Binding Sets as they were represented within the Fluo application. (not null)
+     * @throws ResultExportException At least one of the results could not be exported.
+     */
+    public default void export(final String queryId, final Collection<VisibilityBindingSet> results) throws ResultExportException {
+        for (final VisibilityBindingSet result : results) {
+            export(queryId, result);
+        }
+    }
+
     /**
      * A result could not be exported.
      */
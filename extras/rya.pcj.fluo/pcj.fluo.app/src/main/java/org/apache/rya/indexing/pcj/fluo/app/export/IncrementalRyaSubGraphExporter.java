@@ -17,6 +17,8 @@ package org.apache.rya.indexing.pcj.fluo.app.export;
  * specific language governing permissions and limitations
  * under the License.
  */
+import java.util.Collection;
+
 import org.apache.rya.api.domain.RyaSubGraph;
 import org.apache.rya.indexing.pcj.fluo.app.export.IncrementalBindingSetExporter.ResultExportException;
 
@@ -35,5 +37,20 @@ public interface IncrementalRyaSubGraphExporter extends IncrementalResultExporte
      * @throws ResultExportException The result could not be exported.
      */
     public void export(String constructID, RyaSubGraph subgraph) throws ResultExportException;
+
+    /**
+     * Export a batch of RyaSubGraphs that are results of a SPARQL Construct Query. Exporters that
+     * are able to export results concurrently should override this method so that the batch does
+     * not wait on each result in turn.
+     *
+     * @param constructID - The Fluo Id of the construct query the created the RyaSubGraphs
+     * @param subgraphs - The RyaSubGraphs to export (non-null)
+     * @throws ResultExportException At least one of the results could not be exported.
+     */
+    public default void export(final String constructID, final Collection<RyaSubGraph> subgraphs) throws ResultExportException {
+        for (final RyaSubGraph subgraph : subgraphs) {
+            export(constructID, subgraph);
+        }
+    }
     
 }
@@ -20,13 +20,15 @@ package org.apache.rya.indexing.pcj.fluo.app.export.kafka;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
-import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.fluo.api.metrics.MetricsReporter;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.rya.api.client.CreatePCJ.ExportStrategy;
 import org.apache.rya.api.client.CreatePCJ.QueryType;
 import org.apache.rya.indexing.pcj.fluo.app.export.IncrementalBindingSetExporter;
@@ -34,6 +36,7 @@ import org.apache.rya.indexing.pcj.storage.accumulo.VisibilityBindingSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Sets;
 
 /**
@@ -42,19 +45,34 @@ import com.google.common.collect.Sets;
 public class KafkaBindingSetExporter implements IncrementalBindingSetExporter {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaBindingSetExporter.class);
-    private final KafkaProducer<String, VisibilityBindingSet> producer;
 
+    /**
+     * The prefix of the names of the metrics this exporter reports.
+     */
+    public static final String METRICS_PREFIX = "rya.export.kafka.bindingSets";
+
+    private final KafkaResultSender<String, VisibilityBindingSet> sender;
+
+    /**
+     * Constructs an instance given a Kafka producer.
+     *
+     * @param producer for sending result set alerts to a broker. (not null) Can be created and configured by
+     *            {@link KafkaBindingSetExporterFactory}
+     */
+    public KafkaBindingSetExporter(final Producer<String, VisibilityBindingSet> producer) {
+        this(producer, Optional.absent());
+    }
 
     /**
      * Constructs an instance given a Kafka producer.
      *
      * @param producer for sending result set alerts to a broker. (not null) Can be created and configured by
      *            {@link KafkaBindingSetExporterFactory}
+     * @param metrics - Reports the in flight records, batch sizes, and acknowledgement latency of the exports. (not null)
      */
-    public KafkaBindingSetExporter(final KafkaProducer<String, VisibilityBindingSet> producer) {
-        super();
+    public KafkaBindingSetExporter(final Producer<String, VisibilityBindingSet> producer, final Optional<MetricsReporter> metrics) {
         checkNotNull(producer, "Producer is required.");
-        this.producer = producer;
+        this.sender = new KafkaResultSender<>(producer, metrics, METRICS_PREFIX);
     }
 
     /**
@@ -62,26 +80,34 @@ public class KafkaBindingSetExporter implements IncrementalBindingSetExporter {
      */
     @Override
     public void export(final String queryId, final VisibilityBindingSet result) throws ResultExportException {
-        checkNotNull(queryId);
         checkNotNull(result);
-        try {
-            // Send the result to the topic whose name matches the PCJ ID.
-            final ProducerRecord<String, VisibilityBindingSet> rec = new ProducerRecord<>(queryId, result);
-            final Future<RecordMetadata> future = producer.send(rec);
-
-            // Don't let the export return until the result has been written to the topic. Otherwise we may lose results.
-            future.get();
+        export(queryId, Collections.singletonList(result));
+    }
 
-            log.debug("Producer successfully sent record with queryId: {} and visbilityBindingSet: \n{}", queryId, result);
+    /**
+     * Send the results to the topic using the queryID as the topicname. All of the results
+     * are sent before waiting for any of them to be written to the topic.
+     */
+    @Override
+    public void export(final String queryId, final Collection<VisibilityBindingSet> results) throws ResultExportException {
+        checkNotNull(queryId);
+        checkNotNull(results);
 
-        } catch (final Throwable e) {
-            throw new ResultExportException("A result could not be exported to Kafka.", e);
+        // Send the results to the topic whose name matches the PCJ ID.
+        final List<ProducerRecord<String, VisibilityBindingSet>> records = new ArrayList<>(results.size());
+        for (final VisibilityBindingSet result : results) {
+            records.add(new ProducerRecord<>(queryId, result));
         }
+
+        // Don't let the export return until the results have been written to the topic. Otherwise we may lose results.
+        sender.send(records);
+
+        log.debug("Producer successfully sent {} record(s) with queryId: {} and visbilityBindingSets: \n{}", records.size(), queryId, results);
     }
 
     @Override
     public void close() throws Exception {
-        producer.close(5, TimeUnit.SECONDS);
+        sender.close();
     }
 
     @Override
@@ -57,7 +57,7 @@ public class KafkaBindingSetExporterFactory implements IncrementalResultExporter
             // Setup Kafka connection
             final KafkaProducer<String, VisibilityBindingSet> producer = new KafkaProducer<>(exportParams.listAllConfig());
             // Create the exporter
-            final IncrementalBindingSetExporter exporter = new KafkaBindingSetExporter(producer);
+            final IncrementalBindingSetExporter exporter = new KafkaBindingSetExporter(producer, Optional.of(context.getMetricsReporter()));
             return Optional.of(exporter);
         } else {
             return Optional.absent();
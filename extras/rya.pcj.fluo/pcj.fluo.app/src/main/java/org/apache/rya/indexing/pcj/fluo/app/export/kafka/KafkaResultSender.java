@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.fluo.app.export.kafka;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.fluo.api.metrics.Counter;
+import org.apache.fluo.api.metrics.Histogram;
+import org.apache.fluo.api.metrics.MetricsReporter;
+import org.apache.fluo.api.metrics.Timer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.rya.indexing.pcj.fluo.app.export.IncrementalBindingSetExporter.ResultExportException;
+
+import com.google.common.base.Optional;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Sends batches of results to Kafka. Every record in a batch is handed to the
+ * producer before any acknowledgement is waited on, so a batch costs about one
+ * broker round trip instead of one round trip per record. A batch is not
+ * acknowledged until every record in it has been written to its topic, so results
+ * are not lost if the Fluo transaction that exports them fails afterwards.
+ * <p>
+ * If a {@link MetricsReporter} is provided, the following metrics are reported
+ * using the metric name prefix:
+ * <ul>
+ *   <li><b>prefix.inFlight</b> - A counter of the records that have been sent but not acknowledged.</li>
+ *   <li><b>prefix.batchSize</b> - A histogram of the number of records in each batch.</li>
+ *   <li><b>prefix.ackLatency</b> - A timer of how long each batch took to be acknowledged.</li>
+ * </ul>
+ *
+ * @param <K> - The type of the records' keys.
+ * @param <V> - The type of the records' values.
+ */
+@DefaultAnnotation(NonNull.class)
+public class KafkaResultSender<K, V> implements AutoCloseable {
+
+    private final Producer<K, V> producer;
+    private final AtomicLong inFlight = new AtomicLong(0);
+
+    private final Optional<Counter> inFlightCounter;
+    private final Optional<Histogram> batchSizeHistogram;
+    private final Optional<Timer> ackLatencyTimer;
+
+    /**
+     * Constructs an instance of {@link KafkaResultSender}.
+     *
+     * @param producer - Sends the records to Kafka. (not null)
+     * @param metrics - Reports the sender's metrics, if present. (not null)
+     * @param metricsPrefix - The prefix of the names of the reported metrics. (not null)
+     */
+    public KafkaResultSender(final Producer<K, V> producer, final Optional<MetricsReporter> metrics, final String metricsPrefix) {
+        this.producer = checkNotNull(producer);
+        checkNotNull(metrics);
+        checkNotNull(metricsPrefix);
+
+        if (metrics.isPresent()) {
+            inFlightCounter = Optional.of(metrics.get().counter(metricsPrefix + ".inFlight"));
+            batchSizeHistogram = Optional.of(metrics.get().histogram(metricsPrefix + ".batchSize"));
+            ackLatencyTimer = Optional.of(metrics.get().timer(metricsPrefix + ".ackLatency"));
+        } else {
+            inFlightCounter = Optional.absent();
+            batchSizeHistogram = Optional.absent();
+            ackLatencyTimer = Optional.absent();
+        }
+    }
+
+    /**
+     * Sends a batch of records to Kafka and waits until all of them have been acknowledged.
+     *
+     * @param records - The records that will be sent. (not null)
+     * @throws ResultExportException At least one of the records could not be written to its topic.
+     */
+    public void send(final List<ProducerRecord<K, V>> records) throws ResultExportException {
+        checkNotNull(records);
+        if (records.isEmpty()) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+        if (batchSizeHistogram.isPresent()) {
+            batchSizeHistogram.get().update(records.size());
+        }
+
+        // Hand every record to the producer so that they may share requests to the brokers.
+        final List<Future<RecordMetadata>> futures = new ArrayList<>(records.size());
+        Throwable failure = null;
+        for (final ProducerRecord<K, V> record : records) {
+            try {
+                futures.add(producer.send(record));
+                changeInFlight(1);
+            } catch (final Throwable e) {
+                failure = e;
+                break;
+            }
+        }
+
+        // Wait for all of the records that were sent, even if one of them failed.
+        for (final Future<RecordMetadata> future : futures) {
+            try {
+                future.get();
+            } catch (final Throwable e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            } finally {
+                changeInFlight(-1);
+            }
+        }
+
+        if (ackLatencyTimer.isPresent()) {
+            ackLatencyTimer.get().update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (failure != null) {
+            throw new ResultExportException("A batch of " + records.size() + " results could not be exported to Kafka.", failure);
+        }
+    }
+
+    /**
+     * @return The number of records that have been sent but not acknowledged.
+     */
+    public long getInFlightCount() {
+        return inFlight.get();
+    }
+
+    private void changeInFlight(final long delta) {
+        inFlight.addAndGet(delta);
+        if (inFlightCounter.isPresent()) {
+            inFlightCounter.get().inc(delta);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        producer.close(5, TimeUnit.SECONDS);
+    }
+}
@@ -19,13 +19,15 @@ package org.apache.rya.indexing.pcj.fluo.app.export.kafka;
  */
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
-import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.fluo.api.metrics.MetricsReporter;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.rya.api.client.CreatePCJ.ExportStrategy;
 import org.apache.rya.api.client.CreatePCJ.QueryType;
 import org.apache.rya.api.domain.RyaSubGraph;
@@ -34,6 +36,7 @@ import org.apache.rya.indexing.pcj.fluo.app.export.IncrementalRyaSubGraphExporte
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Sets;
 
 /**
@@ -42,17 +45,31 @@ import com.google.common.collect.Sets;
  */
 public class KafkaRyaSubGraphExporter implements IncrementalRyaSubGraphExporter {
 
-    private final KafkaProducer<String, RyaSubGraph> producer;
     private static final Logger log = LoggerFactory.getLogger(KafkaRyaSubGraphExporter.class);
 
+    /**
+     * The prefix of the names of the metrics this exporter reports.
+     */
+    public static final String METRICS_PREFIX = "rya.export.kafka.subGraphs";
+
+    private final KafkaResultSender<String, RyaSubGraph> sender;
+
+    /**
+     *
+     * @param producer - The producer used by this exporter.
+     */
+    public KafkaRyaSubGraphExporter(final Producer<String, RyaSubGraph> producer) {
+        this(producer, Optional.absent());
+    }
 
     /**
      *
      * @param producer - The producer used by this exporter.
+     * @param metrics - Reports the in flight records, batch sizes, and acknowledgement latency of the exports.
      */
-    public KafkaRyaSubGraphExporter(final KafkaProducer<String, RyaSubGraph> producer) {
+    public KafkaRyaSubGraphExporter(final Producer<String, RyaSubGraph> producer, final Optional<MetricsReporter> metrics) {
         checkNotNull(producer);
-        this.producer = producer;
+        this.sender = new KafkaResultSender<>(producer, metrics, METRICS_PREFIX);
     }
 
     /**
@@ -62,21 +79,31 @@ public class KafkaRyaSubGraphExporter implements IncrementalRyaSubGraphExporter
      */
     @Override
     public void export(final String constructID, final RyaSubGraph subGraph) throws ResultExportException {
-        checkNotNull(constructID);
         checkNotNull(subGraph);
-        try {
-            // Send the result to the topic whose name matches the PCJ ID.
-            final ProducerRecord<String, RyaSubGraph> rec = new ProducerRecord<>(subGraph.getId(), subGraph);
-            final Future<RecordMetadata> future = producer.send(rec);
-
-            // Don't let the export return until the result has been written to the topic. Otherwise we may lose results.
-            future.get();
+        export(constructID, Collections.singletonList(subGraph));
+    }
 
-            log.debug("Producer successfully sent record with id: {} and statements: {}", constructID, subGraph.getStatements());
+    /**
+     * Exports each RyaSubGraph to a Kafka topic equivalent to the result returned by {@link RyaSubGraph#getId()}.
+     * All of the subgraphs are sent before waiting for any of them to be written to their topics.
+     * @param subgraphs - RyaSubGraphs exported to Kafka
+     * @param contructID - rowID of result that is exported. Used for logging purposes.
+     */
+    @Override
+    public void export(final String constructID, final Collection<RyaSubGraph> subGraphs) throws ResultExportException {
+        checkNotNull(constructID);
+        checkNotNull(subGraphs);
 
-        } catch (final Throwable e) {
-            throw new ResultExportException("A result could not be exported to Kafka.", e);
+        // Send the results to the topics whose names match the PCJ ID.
+        final List<ProducerRecord<String, RyaSubGraph>> records = new ArrayList<>(subGraphs.size());
+        for (final RyaSubGraph subGraph : subGraphs) {
+            records.add(new ProducerRecord<>(subGraph.getId(), subGraph));
         }
+
+        // Don't let the export return until the results have been written to the topics. Otherwise we may lose results.
+        sender.send(records);
+
+        log.debug("Producer successfully sent {} record(s) with id: {}", records.size(), constructID);
     }
 
     /**
@@ -84,7 +111,7 @@ public class KafkaRyaSubGraphExporter implements IncrementalRyaSubGraphExporter
      */
     @Override
     public void close() throws Exception {
-        producer.close(5, TimeUnit.SECONDS);
+        sender.close();
     }
 
     @Override
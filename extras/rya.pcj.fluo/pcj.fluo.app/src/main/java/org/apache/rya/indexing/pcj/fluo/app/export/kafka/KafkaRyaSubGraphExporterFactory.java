@@ -54,7 +54,7 @@ public class KafkaRyaSubGraphExporterFactory implements IncrementalResultExporte
             // Setup Kafka connection
             final KafkaProducer<String, RyaSubGraph> producer = new KafkaProducer<String, RyaSubGraph>(exportParams.listAllConfig());
             // Create the exporter
-            final IncrementalRyaSubGraphExporter exporter = new KafkaRyaSubGraphExporter(producer);
+            final IncrementalRyaSubGraphExporter exporter = new KafkaRyaSubGraphExporter(producer, Optional.of(context.getMetricsReporter()));
             return Optional.of(exporter);
         } else {
             return Optional.absent();
@@ -21,6 +21,7 @@ package org.apache.rya.indexing.pcj.fluo.app.export.rya;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.Objects.requireNonNull;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 
@@ -61,6 +62,21 @@ public class RyaBindingSetExporter implements IncrementalBindingSetExporter {
         }
     }
 
+    /**
+     * Adds the whole batch to the PCJ storage at once so that it is written with a single flush.
+     */
+    @Override
+    public void export(final String queryId, final Collection<VisibilityBindingSet> results) throws ResultExportException {
+        requireNonNull(queryId);
+        requireNonNull(results);
+
+        try {
+            pcjStorage.addResults(queryId, results);
+        } catch (PCJStorageException e) {
+            throw new ResultExportException("Unable to successfully export a batch of " + results.size() + " results.", e);
+        }
+    }
+
     @Override
     public void close() throws Exception {
         pcjStorage.close();
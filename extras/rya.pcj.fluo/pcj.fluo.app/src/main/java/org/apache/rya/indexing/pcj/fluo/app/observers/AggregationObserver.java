@@ -22,9 +22,9 @@ import static java.util.Objects.requireNonNull;
 
 import org.apache.fluo.api.client.TransactionBase;
 import org.apache.fluo.api.data.Bytes;
+import org.apache.rya.indexing.pcj.fluo.app.AggregationResultUpdater;
 import org.apache.rya.indexing.pcj.fluo.app.AggregationResultUpdater.AggregationState;
 import org.apache.rya.indexing.pcj.fluo.app.AggregationResultUpdater.AggregationStateSerDe;
-import org.apache.rya.indexing.pcj.fluo.app.AggregationResultUpdater.ObjectSerializationAggregationStateSerDe;
 import org.apache.rya.indexing.pcj.fluo.app.BindingSetRow;
 import org.apache.rya.indexing.pcj.fluo.app.query.AggregationMetadata;
 import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryColumns;
@@ -42,7 +42,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 @DefaultAnnotation(NonNull.class)
 public class AggregationObserver extends BindingSetUpdater {
 
-    private static final AggregationStateSerDe STATE_SERDE = new ObjectSerializationAggregationStateSerDe();
+    private static final AggregationStateSerDe STATE_SERDE = AggregationResultUpdater.makeAggregationStateSerDe();
 
     @Override
     public ObservedColumn getObservedColumn() {
@@ -54,7 +54,7 @@ public class FilterObserver extends BindingSetUpdater {
 
         // Read the Visibility Binding Set from the value.
         final Bytes valueBytes = tx.get(row, FluoQueryColumns.FILTER_BINDING_SET);
-        final VisibilityBindingSet filterBindingSet = BS_SERDE.deserialize(valueBytes);
+        final VisibilityBindingSet filterBindingSet = BS_SERDE.deserialize(valueBytes, filterMetadata.getVariableOrder());
 
         // Figure out which node needs to handle the new metadata.
         final String parentNodeId = filterMetadata.getParentNodeId();
@@ -54,7 +54,7 @@ public class JoinObserver extends BindingSetUpdater {
 
         // Read the Visibility Binding Set from the value.
         final Bytes valueBytes = tx.get(row, FluoQueryColumns.JOIN_BINDING_SET);
-        final VisibilityBindingSet joinBindingSet = BS_SERDE.deserialize(valueBytes);
+        final VisibilityBindingSet joinBindingSet = BS_SERDE.deserialize(valueBytes, joinMetadata.getVariableOrder());
 
         // Figure out which node needs to handle the new metadata.
         final String parentNodeId = joinMetadata.getParentNodeId();
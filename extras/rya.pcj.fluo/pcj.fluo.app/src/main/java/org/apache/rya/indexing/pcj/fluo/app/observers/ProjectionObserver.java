@@ -53,7 +53,7 @@ public class ProjectionObserver extends BindingSetUpdater {
 
         // Read the Visibility Binding Set from the value.
         final Bytes valueBytes = tx.get(row, FluoQueryColumns.PROJECTION_BINDING_SET);
-        final VisibilityBindingSet projectionBindingSet = BS_SERDE.deserialize(valueBytes);
+        final VisibilityBindingSet projectionBindingSet = BS_SERDE.deserialize(valueBytes, projectionMetadata.getVariableOrder());
 
         // Figure out which node needs to handle the new metadata.
         final String parentNodeId = projectionMetadata.getParentNodeId();
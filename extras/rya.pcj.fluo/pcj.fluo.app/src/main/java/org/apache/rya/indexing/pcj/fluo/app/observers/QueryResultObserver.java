@@ -18,12 +18,21 @@
  */
 package org.apache.rya.indexing.pcj.fluo.app.observers;
 
-import static org.apache.rya.indexing.pcj.fluo.app.IncrementalUpdateConstants.NODEID_BS_DELIM;
-import static org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryColumns.QUERY_BINDING_SET;
+import static org.apache.rya.indexing.pcj.fluo.app.IncrementalUpdateConstants.EXPORT_QUEUE_DELIM;
+import static org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryColumns.QUERY_EXPORT_NOTIFY;
+import static org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryColumns.QUERY_EXPORT_QUEUE;
+import static org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryColumns.QUERY_NODE_ID;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 import org.apache.fluo.api.client.TransactionBase;
+import org.apache.fluo.api.client.scanner.CellScanner;
 import org.apache.fluo.api.data.Bytes;
 import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.data.RowColumnValue;
+import org.apache.fluo.api.data.Span;
 import org.apache.fluo.api.observer.AbstractObserver;
 import org.apache.rya.indexing.pcj.fluo.app.export.ExporterManager;
 import org.apache.rya.indexing.pcj.fluo.app.export.IncrementalBindingSetExporter;
@@ -35,6 +44,7 @@ import org.apache.rya.indexing.pcj.fluo.app.export.kafka.KafkaRyaSubGraphExporte
 import org.apache.rya.indexing.pcj.fluo.app.export.rya.PeriodicBindingSetExporterFactory;
 import org.apache.rya.indexing.pcj.fluo.app.export.rya.RyaBindingSetExporterFactory;
 import org.apache.rya.indexing.pcj.fluo.app.export.rya.RyaSubGraphExporterFactory;
+import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryMetadataCache;
 import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryMetadataDAO;
 import org.apache.rya.indexing.pcj.fluo.app.query.QueryMetadata;
 import org.slf4j.Logger;
@@ -45,11 +55,27 @@ import com.google.common.collect.ImmutableSet;
 
 /**
  * Performs incremental result exporting to the configured destinations.
+ * <p>
+ * New results are queued by the {@link org.apache.rya.indexing.pcj.fluo.app.QueryResultUpdater},
+ * which also sets a weak notification on the query's row. Weak notifications that are set
+ * before the observer runs are only processed once, so each transaction exports every
+ * result that has been queued for the query, up to {@link #EXPORT_BATCH_SIZE_PARAM} of them,
+ * as a single batch.
  */
 public class QueryResultObserver extends AbstractObserver {
 
     private static final Logger log = LoggerFactory.getLogger(QueryResultObserver.class);
-    private static final FluoQueryMetadataDAO DAO = new FluoQueryMetadataDAO();
+    private static final FluoQueryMetadataDAO DAO = FluoQueryMetadataCache.getInstance();
+
+    /**
+     * The observer parameter that holds the maximum number of results exported by a single transaction.
+     */
+    public static final String EXPORT_BATCH_SIZE_PARAM = "rya.fluo.export.batchSize";
+
+    /**
+     * The maximum number of results exported by a single transaction when {@link #EXPORT_BATCH_SIZE_PARAM} is not set.
+     */
+    public static final int DEFAULT_EXPORT_BATCH_SIZE = 1000;
 
     /**
      * Builders for each type of {@link IncrementalBindingSetExporter} we support.
@@ -64,10 +90,11 @@ public class QueryResultObserver extends AbstractObserver {
                 .build();
 
     private ExporterManager exporterManager;
+    private int exportBatchSize = DEFAULT_EXPORT_BATCH_SIZE;
 
     @Override
     public ObservedColumn getObservedColumn() {
-        return new ObservedColumn(QUERY_BINDING_SET, NotificationType.STRONG);
+        return new ObservedColumn(QUERY_EXPORT_NOTIFY, NotificationType.WEAK);
     }
 
     /**
@@ -92,21 +119,45 @@ public class QueryResultObserver extends AbstractObserver {
         }
 
         exporterManager = managerBuilder.build();
+        exportBatchSize = context.getObserverConfiguration().getInt(EXPORT_BATCH_SIZE_PARAM, DEFAULT_EXPORT_BATCH_SIZE);
     }
 
 
     @Override
     public void process(final TransactionBase tx, final Bytes brow, final Column col) throws Exception {
-        final String row = brow.toString();
+        // The notification is set on the row of the query whose results were queued.
+        final String queryId = brow.toString();
 
-        // Read the queryId from the row and get the QueryMetadata.
-        final String queryId = row.split(NODEID_BS_DELIM)[0];
+        // The query may have been deleted after its results were queued. Deleting it also deletes the queue.
+        if(tx.gets(queryId, QUERY_NODE_ID) == null) {
+            log.debug("Query {} was deleted before its queued results were exported.", queryId);
+            return;
+        }
         final QueryMetadata metadata = DAO.readQueryMetadata(tx, queryId);
 
-        // Read the Child Binding Set that will be exported.
-        final Bytes valueBytes = tx.get(brow, col);
+        // Read up to a batch of the results that are queued for export.
+        final CellScanner scanner = tx.scanner()
+                .over(Span.prefix(queryId + EXPORT_QUEUE_DELIM))
+                .fetch(QUERY_EXPORT_QUEUE)
+                .build();
+
+        final List<Bytes> batch = new ArrayList<>();
+        final Iterator<RowColumnValue> it = scanner.iterator();
+        while(it.hasNext() && batch.size() < exportBatchSize) {
+            final RowColumnValue queued = it.next();
+            batch.add(queued.getValue());
+            tx.delete(queued.getRow(), queued.getColumn());
+        }
 
-        exporterManager.export(metadata.getQueryType(), metadata.getExportStrategies(), queryId, valueBytes);
+        if(!batch.isEmpty()) {
+            log.trace("Transaction ID: {}\nExporting {} results for query {}\n", tx.getStartTimestamp(), batch.size(), queryId);
+            exporterManager.export(metadata.getQueryType(), metadata.getExportStrategies(), queryId, batch);
+        }
+
+        // Results that did not fit in this batch are exported by the next transaction.
+        if(it.hasNext()) {
+            tx.setWeakNotification(brow, col);
+        }
     }
 
     @Override
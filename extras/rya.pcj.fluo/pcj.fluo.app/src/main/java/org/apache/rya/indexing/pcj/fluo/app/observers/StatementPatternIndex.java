@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.fluo.app.observers;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.rya.indexing.pcj.fluo.app.IncrementalUpdateConstants.DELIM;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.rya.api.domain.VarNameUtils;
+import org.apache.rya.indexing.pcj.fluo.app.query.StatementPatternMetadata;
+import org.apache.rya.indexing.pcj.storage.accumulo.VariableOrder;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import net.jcip.annotations.Immutable;
+
+/**
+ * An in memory index of the Statement Patterns that are being maintained by the Fluo
+ * application. Patterns are grouped by which of their subject, predicate, and object
+ * positions are constants and then keyed by those constant values, so a triple is only
+ * compared against the patterns it could possibly match instead of every pattern.
+ * <p>
+ * The index is immutable. A new one is built whenever the set of Statement Patterns changes.
+ */
+@Immutable
+@DefaultAnnotation(NonNull.class)
+public final class StatementPatternIndex {
+
+    /**
+     * An index that does not hold any patterns.
+     */
+    public static final StatementPatternIndex EMPTY = new StatementPatternIndex(Collections.<StatementPatternMetadata>emptyList());
+
+    /**
+     * Constant position mask -> constant values at those positions -> patterns.
+     */
+    private final Map<Integer, Map<List<String>, List<IndexedPattern>>> patterns = new HashMap<>();
+
+    /**
+     * Node ID -> Statement Pattern of every pattern that is indexed.
+     */
+    private final Map<String, String> indexedPatterns = new HashMap<>();
+
+    /**
+     * Constructs an instance of {@link StatementPatternIndex}.
+     *
+     * @param metadata - The Statement Patterns that will be indexed. (not null)
+     */
+    public StatementPatternIndex(final Collection<StatementPatternMetadata> metadata) {
+        requireNonNull(metadata);
+
+        for(final StatementPatternMetadata spMetadata : metadata) {
+            final IndexedPattern pattern = new IndexedPattern(spMetadata);
+            patterns.computeIfAbsent(pattern.constantMask, mask -> new HashMap<>())
+                .computeIfAbsent(pattern.constants, constants -> new ArrayList<>())
+                .add(pattern);
+            indexedPatterns.put(spMetadata.getNodeId(), spMetadata.getStatementPattern());
+        }
+    }
+
+    /**
+     * @return The number of Statement Patterns that are indexed.
+     */
+    public int size() {
+        return indexedPatterns.size();
+    }
+
+    /**
+     * Indicates whether this index was built from exactly the provided Statement Patterns.
+     * A new index must be built when this returns false.
+     *
+     * @param patterns - Node ID -> Statement Pattern of the patterns that are currently registered. (not null)
+     * @return {@code true} if this index holds the same patterns; otherwise {@code false}.
+     */
+    public boolean isCurrent(final Map<String, String> patterns) {
+        requireNonNull(patterns);
+        return indexedPatterns.equals(patterns);
+    }
+
+    /**
+     * Finds the Statement Patterns whose constants all match a triple.
+     *
+     * @param tripleParts - The subject, predicate, and object of the triple in the
+     *   {@link org.apache.rya.indexing.pcj.fluo.app.IncUpdateDAO#getTripleString} format. (not null)
+     * @return The patterns whose constants match the triple.
+     */
+    public List<IndexedPattern> getCandidates(final String[] tripleParts) {
+        requireNonNull(tripleParts);
+        if(tripleParts.length != 3) {
+            throw new IllegalArgumentException("Invald number of components");
+        }
+
+        final List<IndexedPattern> candidates = new ArrayList<>();
+        for(final Entry<Integer, Map<List<String>, List<IndexedPattern>>> entry : patterns.entrySet()) {
+            final List<IndexedPattern> matches = entry.getValue().get( getConstants(entry.getKey(), tripleParts) );
+            if(matches != null) {
+                candidates.addAll(matches);
+            }
+        }
+        return candidates;
+    }
+
+    private static List<String> getConstants(final int constantMask, final String[] parts) {
+        final List<String> constants = new ArrayList<>(3);
+        for(int i = 0; i < 3; i++) {
+            if((constantMask & (1 << i)) != 0) {
+                constants.add(parts[i]);
+            }
+        }
+        return constants;
+    }
+
+    /**
+     * A Statement Pattern that has been parsed once so that it may be matched against many triples.
+     */
+    @Immutable
+    public static final class IndexedPattern {
+        private final String nodeId;
+        private final VariableOrder varOrder;
+        private final String[] varOrderArray;
+
+        // The variable name at each position, or null if the position is a constant.
+        private final String[] varNames = new String[3];
+        private final int constantMask;
+        private final List<String> constants;
+
+        private IndexedPattern(final StatementPatternMetadata metadata) {
+            nodeId = metadata.getNodeId();
+            varOrder = metadata.getVariableOrder();
+            varOrderArray = varOrder.toArray();
+
+            final String[] patternArray = metadata.getStatementPattern().split(DELIM);
+            if(patternArray.length != 3) {
+                throw new IllegalArgumentException("Invald number of components");
+            }
+
+            int mask = 0;
+            final List<String> constantValues = new ArrayList<>(3);
+            for(int i = 0; i < 3; i++) {
+                if(VarNameUtils.isConstant(patternArray[i])) {
+                    mask |= 1 << i;
+                    constantValues.add(VarNameUtils.removeConstant(patternArray[i]));
+                } else {
+                    varNames[i] = patternArray[i];
+                }
+            }
+            constantMask = mask;
+            constants = constantValues;
+        }
+
+        /**
+         * @return The Node ID of the Statement Pattern.
+         */
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        /**
+         * @return The Variable Order binding sets are emitted with.
+         */
+        public VariableOrder getVariableOrder() {
+            return varOrder;
+        }
+
+        /**
+         * Generates the string representation of the Binding Set that is produced by matching a
+         * triple against this pattern. The triple's constants must already be known to match.
+         *
+         * @param tripleParts - The subject, predicate, and object of the triple. (not null)
+         * @return The Binding Set String whose order is determined by the pattern's variable order.
+         */
+        public String getBindingSet(final String[] tripleParts) {
+            final Map<String, String> bindingValues = new HashMap<>(4);
+            for(int i = 0; i < 3; i++) {
+                if(varNames[i] != null) {
+                    bindingValues.put(varNames[i], tripleParts[i]);
+                }
+            }
+
+            final StringBuilder bindingSetString = new StringBuilder();
+            for(final String bindingName : varOrderArray) {
+                if(bindingSetString.length() != 0) {
+                    bindingSetString.append(DELIM);
+                }
+                bindingSetString.append(bindingValues.get(bindingName));
+            }
+            return bindingSetString.toString();
+        }
+
+        @Override
+        public String toString() {
+            return nodeId + " " + Arrays.toString(varNames) + " " + constants;
+        }
+    }
+}
@@ -54,7 +54,7 @@ public class StatementPatternObserver extends BindingSetUpdater {
 
         // Read the Visibility Binding Set from the value.
         final Bytes valueBytes = tx.get(row, FluoQueryColumns.STATEMENT_PATTERN_BINDING_SET);
-        final VisibilityBindingSet spBindingSet = BS_SERDE.deserialize(valueBytes);
+        final VisibilityBindingSet spBindingSet = BS_SERDE.deserialize(valueBytes, spMetadata.getVariableOrder());
 
         // Figure out which node needs to handle the new metadata.
         final String parentNodeId = spMetadata.getParentNodeId();
@@ -22,18 +22,26 @@ import static org.apache.rya.indexing.pcj.fluo.app.IncrementalUpdateConstants.DE
 import static org.apache.rya.indexing.pcj.fluo.app.IncrementalUpdateConstants.NODEID_BS_DELIM;
 import static org.apache.rya.indexing.pcj.fluo.app.IncrementalUpdateConstants.SP_PREFIX;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.fluo.api.client.TransactionBase;
 import org.apache.fluo.api.client.scanner.ColumnScanner;
 import org.apache.fluo.api.client.scanner.RowScanner;
 import org.apache.fluo.api.data.Bytes;
 import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.data.ColumnValue;
 import org.apache.fluo.api.data.Span;
+import org.apache.fluo.api.metrics.Histogram;
 import org.apache.fluo.api.observer.AbstractObserver;
 import org.apache.rya.api.domain.RyaStatement;
-import org.apache.rya.api.domain.VarNameUtils;
 import org.apache.rya.indexing.pcj.fluo.app.IncUpdateDAO;
+import org.apache.rya.indexing.pcj.fluo.app.observers.StatementPatternIndex.IndexedPattern;
 import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryColumns;
 import org.apache.rya.indexing.pcj.fluo.app.query.FluoQueryMetadataDAO;
 import org.apache.rya.indexing.pcj.fluo.app.query.StatementPatternMetadata;
@@ -45,12 +53,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Charsets;
-import com.google.common.collect.Maps;
 
 /**
  * An observer that matches new Triples to the Statement Patterns that are part
  * of any PCJ that is being maintained. If the triple matches a pattern, then
  * the new result is stored as a binding set for the pattern.
+ * <p>
+ * Triples are only compared against the patterns whose constant subject, predicate,
+ * and object values match the triple. See {@link StatementPatternIndex}.
  */
 public class TripleObserver extends AbstractObserver {
     private static final Logger log = LoggerFactory.getLogger(TripleObserver.class);
@@ -59,6 +69,19 @@ public class TripleObserver extends AbstractObserver {
     private static final FluoQueryMetadataDAO QUERY_METADATA_DAO = new FluoQueryMetadataDAO();
     private static final VisibilityBindingSetStringConverter VIS_BS_CONVERTER = new VisibilityBindingSetStringConverter();
 
+    /**
+     * The name of the histogram that records how many Statement Patterns each triple is checked against.
+     */
+    public static final String CANDIDATES_METRIC = "rya_triple_sp_candidates";
+
+    /**
+     * Shared by every instance of this observer that runs within the same Fluo worker.
+     */
+    private static final AtomicReference<VersionedIndex> SP_INDEX =
+            new AtomicReference<>(new VersionedIndex(Collections.emptyMap(), StatementPatternIndex.EMPTY));
+
+    private Histogram candidatesHistogram = null;
+
     public TripleObserver() {}
 
     @Override
@@ -66,6 +89,11 @@ public class TripleObserver extends AbstractObserver {
         return new ObservedColumn(FluoQueryColumns.TRIPLES, NotificationType.STRONG);
     }
 
+    @Override
+    public void init(final Context context) {
+        candidatesHistogram = context.getMetricsReporter().histogram(CANDIDATES_METRIC);
+    }
+
     @Override
     public void process(final TransactionBase tx, final Bytes brow, final Column column) {
         // Get string representation of triple.
@@ -73,54 +101,42 @@ public class TripleObserver extends AbstractObserver {
         log.trace("Transaction ID: {}\nRya Statement: {}\n", tx.getStartTimestamp(), ryaStatement);
 
         final String triple = IncUpdateDAO.getTripleString(ryaStatement);
+        final String[] tripleParts = triple.split(DELIM);
 
-        // Iterate over each of the Statement Patterns that are being matched against.
-        final RowScanner spScanner = tx.scanner()
-                .over(Span.prefix(SP_PREFIX))
-
-                // Only fetch rows that have the pattern in them. There will only be a single row with a pattern per SP.
-                .fetch(FluoQueryColumns.STATEMENT_PATTERN_PATTERN)
-                .byRow()
-                .build();
-
-        //see if triple matches conditions of any of the SP
-        for (final ColumnScanner colScanner : spScanner) {
-            // Get the Statement Pattern's node id.
-            final String spID = colScanner.getsRow();
-
-            // Fetch its metadata.
-            final StatementPatternMetadata spMetadata = QUERY_METADATA_DAO.readStatementPatternMetadata(tx, spID);
+        // Only the Statement Patterns whose constants match the triple need to be checked.
+        final List<IndexedPattern> candidates = getStatementPatternIndex(tx).getCandidates(tripleParts);
+        if(candidatesHistogram != null) {
+            candidatesHistogram.update(candidates.size());
+        }
+        log.trace("Transaction ID: {}\nCandidate Statement Patterns: {}\n", tx.getStartTimestamp(), candidates.size());
 
-            // Attempt to match the triple against the pattern.
-            final String pattern = spMetadata.getStatementPattern();
-            final VariableOrder varOrder = spMetadata.getVariableOrder();
-            final String bindingSetString = getBindingSet(triple, pattern, varOrder);
+        // Fetch the triple's visibility label.
+        final String visibility = candidates.isEmpty() ? "" : tx.gets(brow.toString(), FluoQueryColumns.TRIPLES, "");
 
-            // Statement matches to a binding set.
-            if(bindingSetString.length() != 0) {
-                // Fetch the triple's visibility label.
-                final String visibility = tx.gets(brow.toString(), FluoQueryColumns.TRIPLES, "");
+        for(final IndexedPattern candidate : candidates) {
+            final String spID = candidate.getNodeId();
+            final VariableOrder varOrder = candidate.getVariableOrder();
+            final String bindingSetString = candidate.getBindingSet(tripleParts);
 
-                // Create the Row ID for the emitted binding set. It does not contain visibilities.
-                final String row = spID + NODEID_BS_DELIM + bindingSetString;
-                final Bytes rowBytes = Bytes.of( row.getBytes(Charsets.UTF_8) );
+            // Create the Row ID for the emitted binding set. It does not contain visibilities.
+            final String row = spID + NODEID_BS_DELIM + bindingSetString;
+            final Bytes rowBytes = Bytes.of( row.getBytes(Charsets.UTF_8) );
 
-                // If this is a new Binding Set, then emit it.
-                if(tx.get(rowBytes, FluoQueryColumns.STATEMENT_PATTERN_BINDING_SET) == null) {
-                    // Create the Binding Set that goes in the Node Value. It does contain visibilities.
-                    final VisibilityBindingSet visBindingSet = VIS_BS_CONVERTER.convert(bindingSetString, varOrder);
-                    visBindingSet.setVisibility(visibility);
+            // If this is a new Binding Set, then emit it.
+            if(tx.get(rowBytes, FluoQueryColumns.STATEMENT_PATTERN_BINDING_SET) == null) {
+                // Create the Binding Set that goes in the Node Value. It does contain visibilities.
+                final VisibilityBindingSet visBindingSet = VIS_BS_CONVERTER.convert(bindingSetString, varOrder);
+                visBindingSet.setVisibility(visibility);
 
-                    try {
-                        final Bytes valueBytes = BS_SERDE.serialize(visBindingSet);
+                try {
+                    final Bytes valueBytes = BS_SERDE.serialize(visBindingSet, varOrder);
 
-                        log.trace("Transaction ID: {}\nMatched Statement Pattern: {}\nBinding Set: {}\n",
-                                tx.getStartTimestamp(), spID, visBindingSet);
+                    log.trace("Transaction ID: {}\nMatched Statement Pattern: {}\nBinding Set: {}\n",
+                            tx.getStartTimestamp(), spID, visBindingSet);
 
-                        tx.set(rowBytes, FluoQueryColumns.STATEMENT_PATTERN_BINDING_SET, valueBytes);
-                    } catch(final Exception e) {
-                        log.error("Couldn't serialize a Binding Set. This value will be skipped.", e);
-                    }
+                    tx.set(rowBytes, FluoQueryColumns.STATEMENT_PATTERN_BINDING_SET, valueBytes);
+                } catch(final Exception e) {
+                    log.error("Couldn't serialize a Binding Set. This value will be skipped.", e);
                 }
             }
         }
@@ -130,47 +146,81 @@ public class TripleObserver extends AbstractObserver {
     }
 
     /**
-     * Determines whether a triple matches a Statement Pattern. If so, it generates a string representation of a
-     * BindingSet whose order is determined by varOrder.
+     * Fetches the {@link StatementPatternIndex} that holds the Statement Patterns that are
+     * visible to a transaction. Each Statement Pattern has an entry in the Statement Pattern
+     * index rows that is written and deleted together with its metadata, so only those rows
+     * are read for each triple. The patterns' metadata is only read when the entries differ
+     * from the ones the cached index was built from.
+     * <p>
+     * Statement Patterns that were created before the index rows were written do not have an
+     * entry. When there are no entries at all, the patterns themselves are scanned instead.
      *
-     * @param triple - The triple to consider.
-     * @param pattern - The pattern the triple must match.
-     * @param varOrder - The variable order of the Binding Set String that is produced by this method.
-     * @return The string representation of a Binding Set that is generated by matching the triple to the pattern;
-     *   otherwise an empty string if the pattern couldn't be matched.
+     * @param tx - The transaction that is processing a triple. (not null)
+     * @return An index over the Statement Patterns that are registered with the Fluo application.
      */
-    private static String getBindingSet(final String triple, final String pattern, final VariableOrder varOrder) {
-        final String[] patternArray = pattern.split(DELIM);
-        final String[] tripleArray = triple.split(DELIM);
-        final String[] varOrderArray = varOrder.toArray();
-        final Map<String,String> bindingValues = Maps.newHashMap();
-
-        if(patternArray.length != 3 || tripleArray.length != 3) {
-            throw new IllegalArgumentException("Invald number of components");
+    private static StatementPatternIndex getStatementPatternIndex(final TransactionBase tx) {
+        final Map<String, String> versions = QUERY_METADATA_DAO.readStatementPatternIndex(tx);
+        final VersionedIndex cached = SP_INDEX.get();
+        if(versions.isEmpty()) {
+            return getUnversionedStatementPatternIndex(tx, cached);
+        }
+        if(versions.equals(cached.versions)) {
+            return cached.index;
         }
 
-        // Extract the binding names and values.
-        for(int i = 0; i < 3; i ++) {
-            if(VarNameUtils.isConstant(patternArray[i])) {
-                // If a constant value does not match, then the triple does not match the pattern.
-                if(!patternArray[i].substring(7).equals(tripleArray[i])) {
-                    return "";
-                }
-            } else{
-                bindingValues.put(patternArray[i], tripleArray[i]);
+        // The set of Statement Patterns changed, so rebuild the index from their metadata.
+        final StatementPatternIndex index = buildIndex(tx, versions.keySet());
+        log.debug("Rebuilt the Statement Pattern index. It now holds {} patterns.", index.size());
+        SP_INDEX.set(new VersionedIndex(versions, index));
+        return index;
+    }
+
+    /**
+     * Fetches the {@link StatementPatternIndex} by scanning for the patterns of the Statement
+     * Patterns. This is only used when no Statement Pattern index entries have been written.
+     */
+    private static StatementPatternIndex getUnversionedStatementPatternIndex(final TransactionBase tx, final VersionedIndex cached) {
+        // Only fetch rows that have the pattern in them. There will only be a single row with a pattern per SP.
+        final RowScanner spScanner = tx.scanner()
+                .over(Span.prefix(SP_PREFIX))
+                .fetch(FluoQueryColumns.STATEMENT_PATTERN_PATTERN)
+                .byRow()
+                .build();
+
+        final Map<String, String> patterns = new HashMap<>();
+        for(final ColumnScanner colScanner : spScanner) {
+            for(final ColumnValue colValue : colScanner) {
+                patterns.put(colScanner.getsRow(), colValue.getsValue());
             }
         }
 
-        // Create the returned binding set string from the extracted values.
-        String bindingSetString = "";
-        for (final String bindingName : varOrderArray) {
-            if(bindingSetString.length() == 0) {
-                bindingSetString = bindingValues.get(bindingName);
-            } else {
-                bindingSetString = bindingSetString + DELIM + bindingValues.get(bindingName);
-            }
+        if(cached.versions.isEmpty() && cached.index.isCurrent(patterns)) {
+            return cached.index;
+        }
+
+        final StatementPatternIndex index = buildIndex(tx, patterns.keySet());
+        SP_INDEX.set(new VersionedIndex(Collections.emptyMap(), index));
+        return index;
+    }
+
+    private static StatementPatternIndex buildIndex(final TransactionBase tx, final Collection<String> spIDs) {
+        final List<StatementPatternMetadata> metadata = new ArrayList<>(spIDs.size());
+        for(final String spID : spIDs) {
+            metadata.add( QUERY_METADATA_DAO.readStatementPatternMetadata(tx, spID) );
         }
+        return new StatementPatternIndex(metadata);
+    }
 
-        return bindingSetString;
+    /**
+     * A {@link StatementPatternIndex} and the Statement Pattern index entries it was built from.
+     */
+    private static final class VersionedIndex {
+        private final Map<String, String> versions;
+        private final StatementPatternIndex index;
+
+        private VersionedIndex(final Map<String, String> versions, final StatementPatternIndex index) {
+            this.versions = versions;
+            this.index = index;
+        }
     }
-}
\ No newline at end of file
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import org.apache.fluo.api.data.Column;
 import org.apache.rya.api.client.CreatePCJ.QueryType;
 import org.apache.rya.indexing.pcj.fluo.app.AggregationResultUpdater.AggregationState;
+import org.apache.rya.indexing.pcj.fluo.app.IncrementalUpdateConstants;
 import org.apache.rya.indexing.pcj.storage.accumulo.VisibilityBindingSet;
 
 import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
@@ -45,7 +46,10 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  *     <tr> <td>Node ID</td> <td>queryMetadata:childNodeId</td> <td>The Node ID of the child who feeds this node.</td> </tr>
  *     <tr> <td>Node ID</td> <td>queryMetadata:queryType</td> <td>The {@link QueryType} of this query.</td> </tr>
  *     <tr> <td>Node ID</td> <td>queryMetadata:exportStrategies</td> <td>Strategies for exporting results from Rya Fluo app</td> </tr>
+ *     <tr> <td>Node ID</td> <td>queryMetadata:metadataVersion</td> <td>Changes every time the node's metadata is written. Used to validate cached metadata.</td> </tr>
  *     <tr> <td>Node ID + DELIM + Binding Set String</td> <td>queryMetadata:bindingSet</td> <td>A {@link VisibilityBindingSet} object.</td> </tr>
+ *     <tr> <td>Node ID + EXPORT_QUEUE_DELIM + DELIM + Binding Set String</td> <td>queryMetadata:exportQueue</td> <td>A {@link VisibilityBindingSet} that has not been exported yet.</td> </tr>
+ *     <tr> <td>Node ID</td> <td>queryMetadata:exportNotify</td> <td>Only used for the weak notification that tells the export observer there are queued results.</td> </tr>
  *   </table>
  * </p>
  * <p>
@@ -57,6 +61,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  *     <tr> <td>Node ID</td> <td>projectionMetadata:variableOrder</td> <td>The Variable Order that Binding values are written in in the Row to identify solutions.</td> </tr>
  *     <tr> <td>Node ID</td> <td>projectionMetadata:childNodeId</td> <td>The Node ID of the child who feeds this node.</td> </tr>
  *     <tr> <td>Node ID</td> <td>projectionMetadata:parentNodeId</td> <td>The Node ID of the parent of this node.</td> </tr>
+ *     <tr> <td>Node ID</td> <td>projectionMetadata:metadataVersion</td> <td>Changes every time the node's metadata is written. Used to validate cached metadata.</td> </tr>
  *     <tr> <td>Node ID + DELIM + Binding Set String</td> <td>queryMetadata:bindingSet</td> <td>A {@link VisibilityBindingSet} object.</td> </tr>
  *   </table>
  * </p>
@@ -69,6 +74,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  *     <tr> <td>Node ID</td> <td>constructMetadata:graph</td> <td>The construct graph used to project BindingSets to statements.</td> </tr>
  *     <tr> <td>Node ID</td> <td>constructMetadata:childNodeId</td> <td>The Node ID of the child who feeds this node.</td> </tr>
  *     <tr> <td>Node ID</td> <td>constructMetadata:parentNodeId</td> <td>The Node ID of the parent that this node feeds.</td> </tr>
+ *     <tr> <td>Node ID</td> <td>constructMetadata:metadataVersion</td> <td>Changes every time the node's metadata is written. Used to validate cached metadata.</td> </tr>
  *     <tr> <td>Node ID + DELIM + Binding Set String</td> <td>constructMetadata:statements</td> <td>The RDF statements produced by this construct query node.</td> </tr>
  *   </table>
  * </p>
@@ -81,6 +87,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  *     <tr> <td>Node ID</td> <td>filterMetadata:filterSparql</td> <td>A SPARQL query representing this filter.</td> </tr>
  *     <tr> <td>Node ID</td> <td>filterMetadata:parentNodeId</td> <td>The Node ID this filter emits Binding Sets to.</td> </tr>
  *     <tr> <td>Node ID</td> <td>filterMetadata:childNodeId</td> <td>The Node ID of the node that feeds this node Binding Sets.</td> </tr>
+ *     <tr> <td>Node ID</td> <td>filterMetadata:metadataVersion</td> <td>Changes every time the node's metadata is written. Used to validate cached metadata.</td> </tr>
  *     <tr> <td>Node ID + DELIM + Binding Set String</td> <td>filterMetadata:bindingSet</td> <td>A {@link VisibilityBindingSet} object.</td> </tr>
  *   </table>
  * </p>
@@ -96,6 +103,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  *     <tr> <td>Node ID</td> <td>periodicQueryMetadata:temporalVariable</td> <td>The BindingSet variable corresponding to event time.</td> </tr>
  *     <tr> <td>Node ID</td> <td>periodicQueryMetadata:parentNodeId</td> <td>The parent node for this node.</td> </tr>
  *     <tr> <td>Node ID</td> <td>periodicQueryMetadata:childNodeId</td> <td>The child node for this node.</td> </tr>
+ *     <tr> <td>Node ID</td> <td>periodicQueryMetadata:metadataVersion</td> <td>Changes every time the node's metadata is written. Used to validate cached metadata.</td> </tr>
  *     <tr> <td>Node ID + DELIM + Binding set String</td> <td>periodicQueryMetadata:bindingSet</td> <td>A binned BindingSet.</td> </tr>
  *   </table>
  * </p>
@@ -110,6 +118,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  *     <tr> <td>Node ID</td> <td>joinMetadata:leftChildNodeId</td> <td>A Node ID of the node that feeds this node Binding Sets.</td> </tr>
  *     <tr> <td>Node ID</td> <td>joinMetadata:rightChildNodeId</td> <td>A Node ID of the node that feeds this node Binding Sets.</td> </tr>
  *     <tr> <td>Node ID</td> <td>joinMetadata:joinBatchSize</td> <td>Batch size used for processing joins</td> </tr> 
+ *     <tr> <td>Node ID</td> <td>joinMetadata:metadataVersion</td> <td>Changes every time the node's metadata is written. Used to validate cached metadata.</td> </tr>
  *     <tr> <td>Node ID + DELIM + Binding Set String</td> <td>joinMetadata:bindingSet</td> <td>A {@link VisibilityBindingSet} object.</td> </tr>
  *   </table>
  * </p>
@@ -121,6 +130,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  *     <tr> <td>Node ID</td> <td>statementPatternMetadata:variableOrder</td> <td>The Variable Order binding sets are emitted with.</td> </tr>
  *     <tr> <td>Node ID</td> <td>statementPatternMetadata:pattern</td> <td>The pattern that defines which Statements will be matched.</td> </tr>
  *     <tr> <td>Node ID</td> <td>statementPatternMetadata:parentNodeId</td> <td>The Node ID this statement pattern emits Binding Sets to.</td> </tr>
+ *     <tr> <td>Node ID</td> <td>statementPatternMetadata:metadataVersion</td> <td>Changes every time the node's metadata is written. Used to validate cached metadata.</td> </tr>
  *     <tr> <td>Node ID + DELIM + Binding Set String</td> <td>statementPatternMetadata:bindingSet</td> <td>A {@link VisibilityBindingSet} object.</td> </tr>
  *   </table>
  * </p>
@@ -134,6 +144,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  *     <tr> <td>Node ID</td> <td>aggregationMetadata:childNodeId</td> <td>The Node ID of the node that feeds this node Binding Sets.</td> </tr>
  *     <tr> <td>Node ID</td> <td>aggregationMetadata:groupByBindingNames</td> <td>An ordered list of the binding names the aggregation's results will be grouped by.</td> </tr>
  *     <tr> <td>Node ID</td> <td>aggregationMetadata:aggregations</td> <td>A serialized form of the aggregations that need to be performed by this aggregation node.</td> </tr>
+ *     <tr> <td>Node ID</td> <td>aggregationMetadata:metadataVersion</td> <td>Changes every time the node's metadata is written. Used to validate cached metadata.</td> </tr>
  *     <tr> <td>Node ID + DELIM + Group By Values Binding Set String</td> <td>aggregationMetadata:bindingSet</td><td>An {@link AggregationState} object.</td> </tr>
  *   </table>
  * </p>
@@ -163,17 +174,41 @@ public class FluoQueryColumns {
      */
     public static final Column TRIPLES = new Column("triples", "SPO");
 
+    /**
+     * Every Statement Pattern has an entry in the Statement Pattern index. The entry is written
+     * and deleted along with the pattern's metadata, so observers that cache the registered
+     * Statement Patterns only need to scan these rows, instead of every Statement Pattern
+     * binding set, to know whether their copy is still current.
+     * <p>
+     *   <table border="1" style="width:100%">
+     *     <tr> <th>Fluo Row</td> <th>Fluo Column</td> <th>Fluo Value</td> </tr>
+     *     <tr> <td>statementPatternIndex&lt;&lt;:&gt;&gt;Node ID</td> <td>statementPatternIndex:metadataVersion</td> <td>The metadata version of the Statement Pattern.</td> </tr>
+     *   </table>
+     * </p>
+     */
+    public static final Column STATEMENT_PATTERN_INDEX_VERSION = new Column("statementPatternIndex", "metadataVersion");
+
+    /**
+     * The prefix of the rows {@link #STATEMENT_PATTERN_INDEX_VERSION} is stored in. It does not
+     * start with a Node ID prefix so that it is never mistaken for a query node.
+     */
+    public static final String STATEMENT_PATTERN_INDEX_PREFIX = "statementPatternIndex" + IncrementalUpdateConstants.NODEID_BS_DELIM;
+
     // Query Metadata columns.
     public static final Column QUERY_NODE_ID = new Column(QUERY_METADATA_CF, "nodeId");
+    public static final Column QUERY_METADATA_VERSION = new Column(QUERY_METADATA_CF, "metadataVersion");
     public static final Column QUERY_VARIABLE_ORDER = new Column(QUERY_METADATA_CF, "variableOrder");
     public static final Column QUERY_SPARQL = new Column(QUERY_METADATA_CF, "sparql");
     public static final Column QUERY_CHILD_NODE_ID = new Column(QUERY_METADATA_CF, "childNodeId");
     public static final Column QUERY_BINDING_SET = new Column(QUERY_METADATA_CF, "bindingSet");
     public static final Column QUERY_EXPORT_STRATEGIES = new Column(QUERY_METADATA_CF, "exportStrategies");
     public static final Column QUERY_TYPE = new Column(QUERY_METADATA_CF, "queryType");
+    public static final Column QUERY_EXPORT_QUEUE = new Column(QUERY_METADATA_CF, "exportQueue");
+    public static final Column QUERY_EXPORT_NOTIFY = new Column(QUERY_METADATA_CF, "exportNotify");
     
     // Query Metadata columns.
     public static final Column PROJECTION_NODE_ID = new Column(PROJECTION_METADATA_CF, "nodeId");
+    public static final Column PROJECTION_METADATA_VERSION = new Column(PROJECTION_METADATA_CF, "metadataVersion");
     public static final Column PROJECTION_PROJECTED_VARS = new Column(PROJECTION_METADATA_CF, "projectedVars");
     public static final Column PROJECTION_VARIABLE_ORDER = new Column(PROJECTION_METADATA_CF, "variableOrder");
     public static final Column PROJECTION_CHILD_NODE_ID = new Column(PROJECTION_METADATA_CF, "childNodeId");
@@ -182,6 +217,7 @@ public class FluoQueryColumns {
 
  // Construct Query Metadata columns.
     public static final Column CONSTRUCT_NODE_ID = new Column(CONSTRUCT_METADATA_CF, "nodeId");
+    public static final Column CONSTRUCT_METADATA_VERSION = new Column(CONSTRUCT_METADATA_CF, "metadataVersion");
     public static final Column CONSTRUCT_VARIABLE_ORDER = new Column(CONSTRUCT_METADATA_CF, "variableOrder");
     public static final Column CONSTRUCT_GRAPH = new Column(CONSTRUCT_METADATA_CF, "graph");
     public static final Column CONSTRUCT_CHILD_NODE_ID = new Column(CONSTRUCT_METADATA_CF, "childNodeId");
@@ -190,6 +226,7 @@ public class FluoQueryColumns {
 
     // Filter Metadata columns.
     public static final Column FILTER_NODE_ID = new Column(FILTER_METADATA_CF, "nodeId");
+    public static final Column FILTER_METADATA_VERSION = new Column(FILTER_METADATA_CF, "metadataVersion");
     public static final Column FILTER_VARIABLE_ORDER = new Column(FILTER_METADATA_CF, "variableOrder");
     public static final Column FILTER_SPARQL = new Column(FILTER_METADATA_CF, "filterSparql");
     public static final Column FILTER_PARENT_NODE_ID = new Column(FILTER_METADATA_CF, "parentNodeId");
@@ -198,6 +235,7 @@ public class FluoQueryColumns {
     
     // Periodic Bin Metadata columns.
     public static final Column PERIODIC_QUERY_NODE_ID = new Column(PERIODIC_QUERY_METADATA_CF, "nodeId");
+    public static final Column PERIODIC_QUERY_METADATA_VERSION = new Column(PERIODIC_QUERY_METADATA_CF, "metadataVersion");
     public static final Column PERIODIC_QUERY_VARIABLE_ORDER = new Column(PERIODIC_QUERY_METADATA_CF, "variableOrder");
     public static final Column PERIODIC_QUERY_PARENT_NODE_ID = new Column(PERIODIC_QUERY_METADATA_CF, "parentNodeId");
     public static final Column PERIODIC_QUERY_CHILD_NODE_ID = new Column(PERIODIC_QUERY_METADATA_CF, "childNodeId");
@@ -209,6 +247,7 @@ public class FluoQueryColumns {
     
     // Join Metadata columns.
     public static final Column JOIN_NODE_ID = new Column(JOIN_METADATA_CF, "nodeId");
+    public static final Column JOIN_METADATA_VERSION = new Column(JOIN_METADATA_CF, "metadataVersion");
     public static final Column JOIN_VARIABLE_ORDER = new Column(JOIN_METADATA_CF, "variableOrder");
     public static final Column JOIN_TYPE = new Column(JOIN_METADATA_CF, "joinType");
     public static final Column JOIN_PARENT_NODE_ID = new Column(JOIN_METADATA_CF, "parentNodeId");
@@ -219,6 +258,7 @@ public class FluoQueryColumns {
 
     // Statement Pattern Metadata columns.
     public static final Column STATEMENT_PATTERN_NODE_ID = new Column(STATEMENT_PATTERN_METADATA_CF, "nodeId");
+    public static final Column STATEMENT_PATTERN_METADATA_VERSION = new Column(STATEMENT_PATTERN_METADATA_CF, "metadataVersion");
     public static final Column STATEMENT_PATTERN_VARIABLE_ORDER = new Column(STATEMENT_PATTERN_METADATA_CF, "variableOrder");
     public static final Column STATEMENT_PATTERN_PATTERN = new Column(STATEMENT_PATTERN_METADATA_CF, "pattern");
     public static final Column STATEMENT_PATTERN_PARENT_NODE_ID = new Column(STATEMENT_PATTERN_METADATA_CF, "parentNodeId");
@@ -226,6 +266,7 @@ public class FluoQueryColumns {
 
     // Aggregation Metadata columns.
     public static final Column AGGREGATION_NODE_ID = new Column(AGGREGATION_METADATA_CF, "nodeId");
+    public static final Column AGGREGATION_METADATA_VERSION = new Column(AGGREGATION_METADATA_CF, "metadataVersion");
     public static final Column AGGREGATION_VARIABLE_ORDER = new Column(AGGREGATION_METADATA_CF, "variableOrder");
     public static final Column AGGREGATION_PARENT_NODE_ID = new Column(AGGREGATION_METADATA_CF, "parentNodeId");
     public static final Column AGGREGATION_CHILD_NODE_ID = new Column(AGGREGATION_METADATA_CF, "childNodeId");
@@ -256,6 +297,7 @@ public class FluoQueryColumns {
          */
         QUERY_COLUMNS(
                 Arrays.asList(QUERY_NODE_ID,
+                        QUERY_METADATA_VERSION,
                         QUERY_VARIABLE_ORDER,
                         QUERY_SPARQL,
                         QUERY_TYPE,
@@ -267,6 +309,7 @@ public class FluoQueryColumns {
          */
         PROJECTION_COLUMNS(
                 Arrays.asList(PROJECTION_NODE_ID,
+                        PROJECTION_METADATA_VERSION,
                         PROJECTION_PROJECTED_VARS,
                         PROJECTION_VARIABLE_ORDER,
                         PROJECTION_PARENT_NODE_ID,
@@ -278,6 +321,7 @@ public class FluoQueryColumns {
          */
         PERIODIC_QUERY_COLUMNS(
                 Arrays.asList(PERIODIC_QUERY_NODE_ID,
+                        PERIODIC_QUERY_METADATA_VERSION,
                         PERIODIC_QUERY_VARIABLE_ORDER,
                         PERIODIC_QUERY_PERIOD,
                         PERIODIC_QUERY_WINDOWSIZE,
@@ -291,6 +335,7 @@ public class FluoQueryColumns {
          */
         CONSTRUCT_COLUMNS(
                 Arrays.asList(CONSTRUCT_NODE_ID,
+                        CONSTRUCT_METADATA_VERSION,
                         CONSTRUCT_VARIABLE_ORDER,
                         CONSTRUCT_GRAPH,
                         CONSTRUCT_CHILD_NODE_ID,
@@ -303,6 +348,7 @@ public class FluoQueryColumns {
          */
         FILTER_COLUMNS(
                 Arrays.asList(FILTER_NODE_ID,
+                        FILTER_METADATA_VERSION,
                         FILTER_VARIABLE_ORDER,
                         FILTER_SPARQL,
                         FILTER_PARENT_NODE_ID,
@@ -313,6 +359,7 @@ public class FluoQueryColumns {
          */
         JOIN_COLUMNS(
                 Arrays.asList(JOIN_NODE_ID,
+                        JOIN_METADATA_VERSION,
                         JOIN_VARIABLE_ORDER,
                         JOIN_TYPE,
                         JOIN_PARENT_NODE_ID,
@@ -325,6 +372,7 @@ public class FluoQueryColumns {
          */
         STATEMENTPATTERN_COLUMNS(
                 Arrays.asList(STATEMENT_PATTERN_NODE_ID,
+                        STATEMENT_PATTERN_METADATA_VERSION,
                         STATEMENT_PATTERN_VARIABLE_ORDER,
                         STATEMENT_PATTERN_PATTERN,
                         STATEMENT_PATTERN_PARENT_NODE_ID)),
@@ -334,6 +382,7 @@ public class FluoQueryColumns {
          */
         AGGREGATION_COLUMNS(
                 Arrays.asList(AGGREGATION_NODE_ID,
+                        AGGREGATION_METADATA_VERSION,
                         AGGREGATION_VARIABLE_ORDER,
                         AGGREGATION_PARENT_NODE_ID,
                         AGGREGATION_CHILD_NODE_ID,
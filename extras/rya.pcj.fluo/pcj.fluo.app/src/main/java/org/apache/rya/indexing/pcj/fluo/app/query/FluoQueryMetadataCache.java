@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.fluo.app.query;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Supplier;
+
+import org.apache.fluo.api.client.SnapshotBase;
+import org.apache.rya.indexing.pcj.fluo.app.util.FilterSerializer;
+import org.apache.rya.indexing.pcj.fluo.app.util.FilterSerializer.FilterParseException;
+import org.eclipse.rdf4j.query.algebra.ValueExpr;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A {@link FluoQueryMetadataDAO} that keeps the metadata it reads in memory so that
+ * the observers of a Fluo worker do not have to read and parse a node's metadata
+ * every time they are notified.
+ * <p>
+ * Every time a node's metadata is written, a new version of it is written as well.
+ * Creating a PCJ writes the first version and deleting the PCJ deletes it
+ * along with the rest of the node's metadata. A cached copy is only used when the
+ * version that is visible to the reading transaction matches the version the copy
+ * was read with, so a transaction never sees metadata that differs from what the
+ * Fluo table holds at its snapshot. Checking the version costs a single cell read.
+ * Nodes whose metadata was written before versions were stored are never cached.
+ * <p>
+ * The conditions of Filter nodes are also kept in their compiled form so that the
+ * filter's SPARQL does not have to be parsed for every Binding Set it evaluates.
+ * <p>
+ * This class is thread-safe. Use {@link #getInstance()} to share one cache between
+ * all of the observers that run within a worker.
+ */
+@DefaultAnnotation(NonNull.class)
+public class FluoQueryMetadataCache extends FluoQueryMetadataDAO {
+
+    /**
+     * The default number of nodes whose metadata is kept in memory.
+     */
+    public static final long DEFAULT_MAX_SIZE = 10000;
+
+    private static final FluoQueryMetadataCache INSTANCE = new FluoQueryMetadataCache(DEFAULT_MAX_SIZE);
+
+    private final Cache<String, VersionedMetadata> metadataCache;
+    private final Cache<String, ValueExpr> conditionCache;
+
+    /**
+     * Constructs an instance of {@link FluoQueryMetadataCache}.
+     *
+     * @param maxSize - The maximum number of nodes whose metadata is kept in memory. (> 0)
+     */
+    public FluoQueryMetadataCache(final long maxSize) {
+        checkArgument(maxSize > 0, "The maximum size must be greater than 0.");
+        metadataCache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        conditionCache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * @return The cache that is shared by everything that runs within this JVM.
+     */
+    public static FluoQueryMetadataCache getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public QueryMetadata readQueryMetadata(final SnapshotBase sx, final String nodeId) {
+        return read(sx, nodeId, QueryMetadata.class, () -> super.readQueryMetadata(sx, nodeId));
+    }
+
+    @Override
+    public ProjectionMetadata readProjectionMetadata(final SnapshotBase sx, final String nodeId) {
+        return read(sx, nodeId, ProjectionMetadata.class, () -> super.readProjectionMetadata(sx, nodeId));
+    }
+
+    @Override
+    public ConstructQueryMetadata readConstructQueryMetadata(final SnapshotBase sx, final String nodeId) {
+        return read(sx, nodeId, ConstructQueryMetadata.class, () -> super.readConstructQueryMetadata(sx, nodeId));
+    }
+
+    @Override
+    public FilterMetadata readFilterMetadata(final SnapshotBase sx, final String nodeId) {
+        return read(sx, nodeId, FilterMetadata.class, () -> super.readFilterMetadata(sx, nodeId));
+    }
+
+    @Override
+    public PeriodicQueryMetadata readPeriodicQueryMetadata(final SnapshotBase sx, final String nodeId) {
+        return read(sx, nodeId, PeriodicQueryMetadata.class, () -> super.readPeriodicQueryMetadata(sx, nodeId));
+    }
+
+    @Override
+    public JoinMetadata readJoinMetadata(final SnapshotBase sx, final String nodeId) {
+        return read(sx, nodeId, JoinMetadata.class, () -> super.readJoinMetadata(sx, nodeId));
+    }
+
+    @Override
+    public StatementPatternMetadata readStatementPatternMetadata(final SnapshotBase sx, final String nodeId) {
+        return read(sx, nodeId, StatementPatternMetadata.class, () -> super.readStatementPatternMetadata(sx, nodeId));
+    }
+
+    @Override
+    public AggregationMetadata readAggregationMetadata(final SnapshotBase sx, final String nodeId) {
+        return read(sx, nodeId, AggregationMetadata.class, () -> super.readAggregationMetadata(sx, nodeId));
+    }
+
+    /**
+     * Get the compiled condition of a Filter node. The condition only depends on the
+     * filter's SPARQL, so it does not need to be validated against the Fluo table.
+     *
+     * @param filterMetadata - The metadata of the Filter whose condition will be returned. (not null)
+     * @return The condition Binding Sets must satisfy to pass through the filter.
+     * @throws FilterParseException The filter's SPARQL could not be parsed.
+     */
+    public ValueExpr readFilterCondition(final FilterMetadata filterMetadata) throws FilterParseException {
+        requireNonNull(filterMetadata);
+
+        final String sparql = filterMetadata.getFilterSparql();
+        ValueExpr condition = conditionCache.getIfPresent(sparql);
+        if (condition == null) {
+            condition = FilterSerializer.deserialize(sparql).getCondition();
+            conditionCache.put(sparql, condition);
+        }
+        return condition;
+    }
+
+    /**
+     * Removes everything from the cache.
+     */
+    public void clear() {
+        metadataCache.invalidateAll();
+        conditionCache.invalidateAll();
+    }
+
+    private <T> T read(final SnapshotBase sx, final String nodeId, final Class<T> type, final Supplier<T> reader) {
+        requireNonNull(sx);
+        requireNonNull(nodeId);
+
+        final Optional<String> version = readMetadataVersion(sx, nodeId);
+        if (!version.isPresent()) {
+            // The metadata has been deleted or predates versioning, so it may not be cached.
+            metadataCache.invalidate(nodeId);
+            return reader.get();
+        }
+
+        final VersionedMetadata cached = metadataCache.getIfPresent(nodeId);
+        if (cached != null && cached.version.equals(version.get()) && type.isInstance(cached.metadata)) {
+            return type.cast(cached.metadata);
+        }
+
+        // The metadata is read with the same snapshot as the version, so they match.
+        final T metadata = reader.get();
+        metadataCache.put(nodeId, new VersionedMetadata(version.get(), metadata));
+        return metadata;
+    }
+
+    /**
+     * A node's metadata and the version it was read with.
+     */
+    private static final class VersionedMetadata {
+        private final String version;
+        private final Object metadata;
+
+        public VersionedMetadata(final String version, final Object metadata) {
+            this.version = requireNonNull(version);
+            this.metadata = requireNonNull(metadata);
+        }
+    }
+}
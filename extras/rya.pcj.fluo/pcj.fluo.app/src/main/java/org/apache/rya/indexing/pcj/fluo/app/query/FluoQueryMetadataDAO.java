@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -32,8 +33,11 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.fluo.api.client.SnapshotBase;
 import org.apache.fluo.api.client.TransactionBase;
+import org.apache.fluo.api.client.scanner.CellScanner;
 import org.apache.fluo.api.data.Bytes;
 import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.data.RowColumnValue;
+import org.apache.fluo.api.data.Span;
 import org.apache.rya.api.client.CreatePCJ.ExportStrategy;
 import org.apache.rya.api.client.CreatePCJ.QueryType;
 import org.apache.rya.indexing.pcj.fluo.app.ConstructGraph;
@@ -74,6 +78,7 @@ public class FluoQueryMetadataDAO {
 
         final String rowId = metadata.getNodeId();
         tx.set(rowId, FluoQueryColumns.QUERY_NODE_ID, rowId);
+        tx.set(rowId, FluoQueryColumns.QUERY_METADATA_VERSION, metadataVersion(tx));
         tx.set(rowId, FluoQueryColumns.QUERY_VARIABLE_ORDER, metadata.getVariableOrder().toString());
         tx.set(rowId, FluoQueryColumns.QUERY_SPARQL, metadata.getSparql() );
         tx.set(rowId, FluoQueryColumns.QUERY_EXPORT_STRATEGIES, joiner.join(metadata.getExportStrategies()));
@@ -142,6 +147,7 @@ public class FluoQueryMetadataDAO {
 
         final String rowId = metadata.getNodeId();
         tx.set(rowId, FluoQueryColumns.PROJECTION_NODE_ID, rowId);
+        tx.set(rowId, FluoQueryColumns.PROJECTION_METADATA_VERSION, metadataVersion(tx));
         tx.set(rowId, FluoQueryColumns.PROJECTION_VARIABLE_ORDER, metadata.getVariableOrder().toString());
         tx.set(rowId, FluoQueryColumns.PROJECTION_PROJECTED_VARS, metadata.getProjectedVars().toString());
         tx.set(rowId, FluoQueryColumns.PROJECTION_PARENT_NODE_ID, metadata.getParentNodeId());
@@ -200,6 +206,7 @@ public class FluoQueryMetadataDAO {
 
         final String rowId = metadata.getNodeId();
         tx.set(rowId, FluoQueryColumns.CONSTRUCT_NODE_ID, rowId);
+        tx.set(rowId, FluoQueryColumns.CONSTRUCT_METADATA_VERSION, metadataVersion(tx));
         tx.set(rowId, FluoQueryColumns.CONSTRUCT_VARIABLE_ORDER, metadata.getVariableOrder().toString());
         tx.set(rowId, FluoQueryColumns.CONSTRUCT_CHILD_NODE_ID, metadata.getChildNodeId() );
         tx.set(rowId, FluoQueryColumns.CONSTRUCT_PARENT_NODE_ID, metadata.getParentNodeId() );
@@ -257,6 +264,7 @@ public class FluoQueryMetadataDAO {
 
         final String rowId = metadata.getNodeId();
         tx.set(rowId, FluoQueryColumns.FILTER_NODE_ID, rowId);
+        tx.set(rowId, FluoQueryColumns.FILTER_METADATA_VERSION, metadataVersion(tx));
         tx.set(rowId, FluoQueryColumns.FILTER_VARIABLE_ORDER, metadata.getVariableOrder().toString());
         tx.set(rowId, FluoQueryColumns.FILTER_SPARQL, metadata.getFilterSparql() );
         tx.set(rowId, FluoQueryColumns.FILTER_PARENT_NODE_ID, metadata.getParentNodeId() );
@@ -314,6 +322,7 @@ public class FluoQueryMetadataDAO {
 
         final String rowId = metadata.getNodeId();
         tx.set(rowId, FluoQueryColumns.PERIODIC_QUERY_NODE_ID, rowId);
+        tx.set(rowId, FluoQueryColumns.PERIODIC_QUERY_METADATA_VERSION, metadataVersion(tx));
         tx.set(rowId, FluoQueryColumns.PERIODIC_QUERY_VARIABLE_ORDER, metadata.getVariableOrder().toString());
         tx.set(rowId, FluoQueryColumns.PERIODIC_QUERY_PARENT_NODE_ID, metadata.getParentNodeId());
         tx.set(rowId, FluoQueryColumns.PERIODIC_QUERY_CHILD_NODE_ID, metadata.getChildNodeId());
@@ -385,6 +394,7 @@ public class FluoQueryMetadataDAO {
 
         final String rowId = metadata.getNodeId();
         tx.set(rowId, FluoQueryColumns.JOIN_NODE_ID, rowId);
+        tx.set(rowId, FluoQueryColumns.JOIN_METADATA_VERSION, metadataVersion(tx));
         tx.set(rowId, FluoQueryColumns.JOIN_VARIABLE_ORDER, metadata.getVariableOrder().toString());
         tx.set(rowId, FluoQueryColumns.JOIN_TYPE, metadata.getJoinType().toString() );
         tx.set(rowId, FluoQueryColumns.JOIN_PARENT_NODE_ID, metadata.getParentNodeId() );
@@ -450,10 +460,49 @@ public class FluoQueryMetadataDAO {
         requireNonNull(metadata);
 
         final String rowId = metadata.getNodeId();
+        final String version = metadataVersion(tx);
         tx.set(rowId, FluoQueryColumns.STATEMENT_PATTERN_NODE_ID, rowId);
+        tx.set(rowId, FluoQueryColumns.STATEMENT_PATTERN_METADATA_VERSION, version);
         tx.set(rowId, FluoQueryColumns.STATEMENT_PATTERN_VARIABLE_ORDER, metadata.getVariableOrder().toString());
         tx.set(rowId, FluoQueryColumns.STATEMENT_PATTERN_PATTERN, metadata.getStatementPattern() );
         tx.set(rowId, FluoQueryColumns.STATEMENT_PATTERN_PARENT_NODE_ID, metadata.getParentNodeId());
+        tx.set(FluoQueryColumns.STATEMENT_PATTERN_INDEX_PREFIX + rowId, FluoQueryColumns.STATEMENT_PATTERN_INDEX_VERSION, version);
+    }
+
+    /**
+     * Delete a Statement Pattern's entry in the Statement Pattern index. This must be done
+     * by the transaction that deletes the Statement Pattern's metadata.
+     *
+     * @param tx - The transaction that is deleting the Statement Pattern. (not null)
+     * @param nodeId - The Node ID of the Statement Pattern. (not null)
+     */
+    public void deleteStatementPatternIndexEntry(final TransactionBase tx, final String nodeId) {
+        requireNonNull(tx);
+        requireNonNull(nodeId);
+        tx.delete(FluoQueryColumns.STATEMENT_PATTERN_INDEX_PREFIX + nodeId, FluoQueryColumns.STATEMENT_PATTERN_INDEX_VERSION);
+    }
+
+    /**
+     * Read the entries of the Statement Pattern index. Only the index rows are scanned, so
+     * this does not read any Statement Pattern binding sets.
+     *
+     * @param sx - The snapshot that will be used to read the index. (not null)
+     * @return Node ID -> metadata version of every Statement Pattern that has an index entry.
+     *   Statement Patterns that were written before index entries were stored do not have one.
+     */
+    public Map<String, String> readStatementPatternIndex(final SnapshotBase sx) {
+        requireNonNull(sx);
+
+        final Map<String, String> entries = new HashMap<>();
+        final int prefixLength = FluoQueryColumns.STATEMENT_PATTERN_INDEX_PREFIX.length();
+        final CellScanner scanner = sx.scanner()
+                .over(Span.prefix(FluoQueryColumns.STATEMENT_PATTERN_INDEX_PREFIX))
+                .fetch(FluoQueryColumns.STATEMENT_PATTERN_INDEX_VERSION)
+                .build();
+        for(final RowColumnValue entry : scanner) {
+            entries.put(entry.getsRow().substring(prefixLength), entry.getsValue());
+        }
+        return entries;
     }
 
     /**
@@ -501,6 +550,7 @@ public class FluoQueryMetadataDAO {
 
         final String rowId = metadata.getNodeId();
         tx.set(rowId, FluoQueryColumns.AGGREGATION_NODE_ID, rowId);
+        tx.set(rowId, FluoQueryColumns.AGGREGATION_METADATA_VERSION, metadataVersion(tx));
         tx.set(rowId, FluoQueryColumns.AGGREGATION_VARIABLE_ORDER, metadata.getVariableOrder().toString());
         tx.set(rowId, FluoQueryColumns.AGGREGATION_PARENT_NODE_ID, metadata.getParentNodeId());
         tx.set(rowId, FluoQueryColumns.AGGREGATION_CHILD_NODE_ID, metadata.getChildNodeId());
@@ -579,6 +629,95 @@ public class FluoQueryMetadataDAO {
         return builder;
     }
 
+    /**
+     * Read the version of a query node's metadata from the Fluo table. A new version is
+     * written every time the node's metadata is written and it is deleted along with the
+     * rest of the node's metadata, so it may be used to tell if a copy of the metadata is
+     * still current.
+     *
+     * @param sx - The snapshot that will be used to read the version. (not null)
+     * @param nodeId - The nodeId of the node whose metadata version will be read. (not null)
+     * @return The version of the node's metadata, or absent if the node does not have
+     *   metadata or it was written before versions were stored.
+     */
+    public Optional<String> readMetadataVersion(final SnapshotBase sx, final String nodeId) {
+        requireNonNull(sx);
+        requireNonNull(nodeId);
+
+        final NodeType nodeType = NodeType.fromNodeId(nodeId).get();
+        final Column versionColumn;
+        switch (nodeType) {
+        case QUERY:
+            versionColumn = FluoQueryColumns.QUERY_METADATA_VERSION;
+            break;
+        case PROJECTION:
+            versionColumn = FluoQueryColumns.PROJECTION_METADATA_VERSION;
+            break;
+        case CONSTRUCT:
+            versionColumn = FluoQueryColumns.CONSTRUCT_METADATA_VERSION;
+            break;
+        case PERIODIC_QUERY:
+            versionColumn = FluoQueryColumns.PERIODIC_QUERY_METADATA_VERSION;
+            break;
+        case AGGREGATION:
+            versionColumn = FluoQueryColumns.AGGREGATION_METADATA_VERSION;
+            break;
+        case JOIN:
+            versionColumn = FluoQueryColumns.JOIN_METADATA_VERSION;
+            break;
+        case FILTER:
+            versionColumn = FluoQueryColumns.FILTER_METADATA_VERSION;
+            break;
+        case STATEMENT_PATTERN:
+            versionColumn = FluoQueryColumns.STATEMENT_PATTERN_METADATA_VERSION;
+            break;
+        default:
+            throw new IllegalArgumentException("Could not figure out the metadata version column for node with ID: " + nodeId);
+        }
+
+        return Optional.fromNullable(sx.gets(nodeId, versionColumn));
+    }
+
+    /**
+     * Read the {@link VariableOrder} of a query node whose results are stored as binding sets.
+     *
+     * @param sx - The snapshot that will be used to read the variable order. (not null)
+     * @param nodeId - The nodeId of the node whose variable order will be read. (not null)
+     * @return The variable order the node's results are written with.
+     */
+    public VariableOrder readVariableOrder(final SnapshotBase sx, final String nodeId) {
+        requireNonNull(sx);
+        requireNonNull(nodeId);
+
+        final NodeType nodeType = NodeType.fromNodeId(nodeId).get();
+        switch (nodeType) {
+        case QUERY:
+            return readQueryMetadata(sx, nodeId).getVariableOrder();
+        case PROJECTION:
+            return readProjectionMetadata(sx, nodeId).getVariableOrder();
+        case PERIODIC_QUERY:
+            return readPeriodicQueryMetadata(sx, nodeId).getVariableOrder();
+        case AGGREGATION:
+            return readAggregationMetadata(sx, nodeId).getVariableOrder();
+        case JOIN:
+            return readJoinMetadata(sx, nodeId).getVariableOrder();
+        case FILTER:
+            return readFilterMetadata(sx, nodeId).getVariableOrder();
+        case STATEMENT_PATTERN:
+            return readStatementPatternMetadata(sx, nodeId).getVariableOrder();
+        default:
+            throw new IllegalArgumentException("Could not figure out the variable order for node with ID: " + nodeId);
+        }
+    }
+
+    /**
+     * The start timestamps of Fluo transactions are unique, so they are used as the
+     * version of the metadata the transaction writes.
+     */
+    private static String metadataVersion(final TransactionBase tx) {
+        return Long.toString(tx.getStartTimestamp());
+    }
+
     /**
      * Write an instance of {@link FluoQuery} to the Fluo table.
      *
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.fluo.app;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.rya.indexing.pcj.fluo.app.AggregationResultUpdater.AggregationState;
+import org.apache.rya.indexing.pcj.fluo.app.AggregationResultUpdater.AverageState;
+import org.apache.rya.indexing.pcj.fluo.app.AggregationResultUpdater.CompactAggregationStateSerDe;
+import org.apache.rya.indexing.pcj.fluo.app.AggregationResultUpdater.ObjectSerializationAggregationStateSerDe;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.junit.Test;
+
+/**
+ * Tests the implementations of {@link AggregationResultUpdater.AggregationStateSerDe}.
+ */
+public class AggregationStateSerDeTest {
+
+    @Test
+    public void compact_roundTrip() {
+        final AggregationState original = makeState();
+        final CompactAggregationStateSerDe serde = new CompactAggregationStateSerDe();
+        assertEquals(original, serde.deserialize(serde.serialize(original)));
+    }
+
+    @Test
+    public void readsEitherFormat() {
+        final AggregationState original = makeState();
+        final ObjectSerializationAggregationStateSerDe javaSerDe = new ObjectSerializationAggregationStateSerDe();
+        final CompactAggregationStateSerDe compactSerDe = new CompactAggregationStateSerDe();
+
+        assertEquals(original, compactSerDe.deserialize(javaSerDe.serialize(original)));
+        assertEquals(original, javaSerDe.deserialize(compactSerDe.serialize(original)));
+    }
+
+    private static AggregationState makeState() {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+
+        final MapBindingSet bindingSet = new MapBindingSet();
+        bindingSet.addBinding("item", vf.createIRI("urn:apple"));
+        bindingSet.addBinding("avgPrice", vf.createLiteral(new BigDecimal("2.75")));
+
+        final Map<String, AverageState> avgStates = new HashMap<>();
+        avgStates.put("avgPrice", new AverageState(new BigDecimal("-11.00"), BigInteger.valueOf(4)));
+
+        return new AggregationState("a|b", bindingSet, avgStates);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.fluo.app.export.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.fluo.api.metrics.MetricsReporter;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.rya.indexing.pcj.fluo.app.export.IncrementalBindingSetExporter.ResultExportException;
+import org.junit.Test;
+
+import com.google.common.base.Optional;
+
+/**
+ * Tests the methods of {@link KafkaResultSender}.
+ */
+public class KafkaResultSenderTest {
+
+    @Test
+    public void send_sendsBeforeWaiting() throws Exception {
+        final MockProducer<String, String> producer = new MockProducer<>(false, new StringSerializer(), new StringSerializer());
+        final KafkaResultSender<String, String> sender = new KafkaResultSender<>(producer, Optional.<MetricsReporter>absent(), "test");
+
+        // Only acknowledge the records once all of them have been handed to the producer.
+        final Thread acknowledger = new Thread(() -> {
+            while (producer.history().size() < 3) {
+                Thread.yield();
+            }
+            while (producer.completeNext()) {
+                // Acknowledge the next record.
+            }
+        });
+        acknowledger.start();
+
+        sender.send(records(3));
+        acknowledger.join();
+
+        assertEquals(3, producer.history().size());
+        assertEquals(0, sender.getInFlightCount());
+    }
+
+    @Test
+    public void send_failure() throws Exception {
+        final MockProducer<String, String> producer = new MockProducer<>(false, new StringSerializer(), new StringSerializer());
+        final KafkaResultSender<String, String> sender = new KafkaResultSender<>(producer, Optional.<MetricsReporter>absent(), "test");
+
+        final Thread acknowledger = new Thread(() -> {
+            while (producer.history().size() < 3) {
+                Thread.yield();
+            }
+            producer.completeNext();
+            producer.errorNext(new RuntimeException("Broker unavailable."));
+            producer.completeNext();
+        });
+        acknowledger.start();
+
+        try {
+            sender.send(records(3));
+            fail("The failed record should have failed the batch.");
+        } catch (final ResultExportException e) {
+            // Expected.
+        }
+        acknowledger.join();
+
+        // Every record was waited on, even though one of them failed.
+        assertEquals(0, sender.getInFlightCount());
+    }
+
+    private static List<ProducerRecord<String, String>> records(final int count) {
+        final List<ProducerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(new ProducerRecord<>("topic", "value" + i));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.fluo.app.observers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.rya.indexing.pcj.fluo.app.IncrementalUpdateConstants;
+import org.apache.rya.indexing.pcj.fluo.app.observers.StatementPatternIndex.IndexedPattern;
+import org.apache.rya.indexing.pcj.fluo.app.query.StatementPatternMetadata;
+import org.apache.rya.indexing.pcj.storage.accumulo.VariableOrder;
+import org.junit.Test;
+
+/**
+ * Tests the methods of {@link StatementPatternIndex}.
+ */
+public class StatementPatternIndexTest {
+
+    private static final String DELIM = IncrementalUpdateConstants.DELIM;
+    private static final String TYPE = IncrementalUpdateConstants.TYPE_DELIM + IncrementalUpdateConstants.URI_TYPE;
+
+    @Test
+    public void getCandidates() {
+        final List<StatementPatternMetadata> metadata = new ArrayList<>();
+        metadata.add( makeMetadata("STATEMENT_PATTERN_talksTo", "x" + DELIM + "_const_urn:talksTo" + TYPE + DELIM + "y", "x;y") );
+        metadata.add( makeMetadata("STATEMENT_PATTERN_worksAt", "x" + DELIM + "_const_urn:worksAt" + TYPE + DELIM + "y", "x;y") );
+        metadata.add( makeMetadata("STATEMENT_PATTERN_aliceTalksTo", "_const_urn:Alice" + TYPE + DELIM + "_const_urn:talksTo" + TYPE + DELIM + "y", "y") );
+        metadata.add( makeMetadata("STATEMENT_PATTERN_all", "s" + DELIM + "p" + DELIM + "o", "o;p;s") );
+        final StatementPatternIndex index = new StatementPatternIndex(metadata);
+        assertEquals(4, index.size());
+
+        final String[] aliceTalksToBob = new String[] { "urn:Alice" + TYPE, "urn:talksTo" + TYPE, "urn:Bob" + TYPE };
+        final Set<String> expected = new HashSet<>();
+        expected.add("STATEMENT_PATTERN_talksTo");
+        expected.add("STATEMENT_PATTERN_aliceTalksTo");
+        expected.add("STATEMENT_PATTERN_all");
+        assertEquals(expected, getNodeIds(index.getCandidates(aliceTalksToBob)));
+
+        final String[] bobTalksToAlice = new String[] { "urn:Bob" + TYPE, "urn:talksTo" + TYPE, "urn:Alice" + TYPE };
+        expected.remove("STATEMENT_PATTERN_aliceTalksTo");
+        assertEquals(expected, getNodeIds(index.getCandidates(bobTalksToAlice)));
+    }
+
+    @Test
+    public void getBindingSet() {
+        final List<StatementPatternMetadata> metadata = new ArrayList<>();
+        metadata.add( makeMetadata("STATEMENT_PATTERN_all", "s" + DELIM + "p" + DELIM + "o", "o;p;s") );
+        final StatementPatternIndex index = new StatementPatternIndex(metadata);
+
+        final String[] triple = new String[] { "urn:Alice" + TYPE, "urn:talksTo" + TYPE, "urn:Bob" + TYPE };
+        final List<IndexedPattern> candidates = index.getCandidates(triple);
+        assertEquals(1, candidates.size());
+        assertEquals(triple[2] + DELIM + triple[1] + DELIM + triple[0], candidates.get(0).getBindingSet(triple));
+    }
+
+    @Test
+    public void isCurrent() {
+        final List<StatementPatternMetadata> metadata = new ArrayList<>();
+        metadata.add( makeMetadata("STATEMENT_PATTERN_all", "s" + DELIM + "p" + DELIM + "o", "o;p;s") );
+        final StatementPatternIndex index = new StatementPatternIndex(metadata);
+
+        final Map<String, String> patterns = new HashMap<>();
+        patterns.put("STATEMENT_PATTERN_all", "s" + DELIM + "p" + DELIM + "o");
+        assertTrue(index.isCurrent(patterns));
+
+        patterns.put("STATEMENT_PATTERN_talksTo", "x" + DELIM + "_const_urn:talksTo" + TYPE + DELIM + "y");
+        assertFalse(index.isCurrent(patterns));
+        assertTrue(StatementPatternIndex.EMPTY.isCurrent(new HashMap<>()));
+    }
+
+    private static StatementPatternMetadata makeMetadata(final String nodeId, final String pattern, final String varOrder) {
+        return StatementPatternMetadata.builder(nodeId)
+                .setStatementPattern(pattern)
+                .setVarOrder(new VariableOrder(varOrder))
+                .setParentNodeId("QUERY_parent")
+                .build();
+    }
+
+    private static Set<String> getNodeIds(final List<IndexedPattern> patterns) {
+        final Set<String> nodeIds = new HashSet<>();
+        for(final IndexedPattern pattern : patterns) {
+            nodeIds.add(pattern.getNodeId());
+        }
+        return nodeIds;
+    }
+}
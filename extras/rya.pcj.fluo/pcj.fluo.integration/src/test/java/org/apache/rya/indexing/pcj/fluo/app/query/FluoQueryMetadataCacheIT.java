@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.fluo.app.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import org.apache.fluo.api.client.FluoClient;
+import org.apache.fluo.api.client.FluoFactory;
+import org.apache.fluo.api.client.Snapshot;
+import org.apache.fluo.api.client.Transaction;
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.rya.indexing.pcj.fluo.app.NodeType;
+import org.apache.rya.indexing.pcj.storage.accumulo.VariableOrder;
+import org.apache.rya.pcj.fluo.test.base.RyaExportITBase;
+import org.junit.Test;
+
+/**
+ * Integration tests the methods of {@link FluoQueryMetadataCache}.
+ */
+public class FluoQueryMetadataCacheIT extends RyaExportITBase {
+
+    @Test
+    public void cachedUntilRewritten() {
+        final FluoQueryMetadataCache cache = new FluoQueryMetadataCache(100);
+        final String nodeId = NodeType.generateNewFluoIdForType(NodeType.STATEMENT_PATTERN);
+
+        try(FluoClient fluoClient = FluoFactory.newClient(super.getFluoConfiguration())) {
+            final StatementPatternMetadata original = StatementPatternMetadata.builder(nodeId)
+                    .setVarOrder(new VariableOrder("a;b;c"))
+                    .setStatementPattern("statementPattern")
+                    .setParentNodeId("parentNodeId")
+                    .build();
+            write(fluoClient, cache, original);
+
+            // The second read returns the cached copy.
+            final StatementPatternMetadata first = read(fluoClient, cache, nodeId);
+            assertEquals(original, first);
+            assertSame(first, read(fluoClient, cache, nodeId));
+
+            // Rewriting the metadata changes its version, so the new metadata is read.
+            final StatementPatternMetadata updated = StatementPatternMetadata.builder(nodeId)
+                    .setVarOrder(new VariableOrder("c;b;a"))
+                    .setStatementPattern("statementPattern")
+                    .setParentNodeId("parentNodeId")
+                    .build();
+            write(fluoClient, cache, updated);
+            assertEquals(updated, read(fluoClient, cache, nodeId));
+
+            // Deleting the metadata deletes its version.
+            try(Transaction tx = fluoClient.newTransaction()) {
+                for(final Column column : NodeType.STATEMENT_PATTERN.getMetaDataColumns()) {
+                    tx.delete(Bytes.of(nodeId), column);
+                }
+                tx.commit();
+            }
+            try(Snapshot sx = fluoClient.newSnapshot()) {
+                assertFalse(cache.readMetadataVersion(sx, nodeId).isPresent());
+            }
+        }
+    }
+
+    @Test
+    public void filterConditionCached() throws Exception {
+        final FluoQueryMetadataCache cache = new FluoQueryMetadataCache(100);
+        final FilterMetadata filter = FilterMetadata.builder("nodeId")
+                .setVarOrder(new VariableOrder("x"))
+                .setParentNodeId("parentNodeId")
+                .setChildNodeId("childNodeId")
+                .setFilterSparql("select ?x where { ?x <urn:p> ?y . filter(?y > 10) }")
+                .build();
+
+        assertSame(cache.readFilterCondition(filter), cache.readFilterCondition(filter));
+    }
+
+    private static void write(final FluoClient fluoClient, final FluoQueryMetadataDAO dao, final StatementPatternMetadata metadata) {
+        try(Transaction tx = fluoClient.newTransaction()) {
+            dao.write(tx, metadata);
+            tx.commit();
+        }
+    }
+
+    private static StatementPatternMetadata read(final FluoClient fluoClient, final FluoQueryMetadataCache cache, final String nodeId) {
+        try(Snapshot sx = fluoClient.newSnapshot()) {
+            return cache.readStatementPatternMetadata(sx, nodeId);
+        }
+    }
+}
@@ -19,10 +19,13 @@
 package org.apache.rya.indexing.pcj.fluo.app.query;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.fluo.api.client.FluoClient;
@@ -80,6 +83,46 @@ public class FluoQueryMetadataDAOIT extends RyaExportITBase {
         }
     }
 
+    @Test
+    public void statementPatternIndexTest() throws RepositoryException {
+        final FluoQueryMetadataDAO dao = new FluoQueryMetadataDAO();
+
+        final StatementPatternMetadata metadata = StatementPatternMetadata.builder("nodeId")
+                .setVarOrder(new VariableOrder("a;b;c"))
+                .setStatementPattern("statementPattern")
+                .setParentNodeId("parentNodeId")
+                .build();
+
+        try(FluoClient fluoClient = FluoFactory.newClient(super.getFluoConfiguration())) {
+            // There are no entries before any Statement Pattern is created.
+            try(Snapshot sx = fluoClient.newSnapshot()) {
+                assertTrue(dao.readStatementPatternIndex(sx).isEmpty());
+            }
+
+            // Creating a Statement Pattern writes its entry.
+            try(Transaction tx = fluoClient.newTransaction()) {
+                dao.write(tx, metadata);
+                tx.commit();
+            }
+
+            try(Snapshot sx = fluoClient.newSnapshot()) {
+                final Map<String, String> expected = new HashMap<>();
+                expected.put("nodeId", dao.readMetadataVersion(sx, "nodeId").get());
+                assertEquals(expected, dao.readStatementPatternIndex(sx));
+            }
+
+            // Deleting the Statement Pattern deletes its entry.
+            try(Transaction tx = fluoClient.newTransaction()) {
+                dao.deleteStatementPatternIndexEntry(tx, "nodeId");
+                tx.commit();
+            }
+
+            try(Snapshot sx = fluoClient.newSnapshot()) {
+                assertTrue(dao.readStatementPatternIndex(sx).isEmpty());
+            }
+        }
+    }
+
     @Test
     public void filterMetadataTest() {
         final FluoQueryMetadataDAO dao = new FluoQueryMetadataDAO();
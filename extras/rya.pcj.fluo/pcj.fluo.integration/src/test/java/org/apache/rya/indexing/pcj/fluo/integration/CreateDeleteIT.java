@@ -77,9 +77,9 @@ public class CreateDeleteIT extends RyaExportITBase {
         final String pcjId = loadData(sparql, statements);
 
         try(FluoClient fluoClient = FluoFactory.newClient(super.getFluoConfiguration())) {
-            // Ensure the data was loaded.
+            // Ensure the data was loaded. Each Statement Pattern also has a Statement Pattern index row.
             final List<Bytes> rows = getFluoTableEntries(fluoClient);
-            assertEquals(18, rows.size());
+            assertEquals(20, rows.size());
 
             // Delete the PCJ from the Fluo application.
             new DeleteFluoPcj(1).deletePcj(fluoClient, pcjId);
@@ -109,9 +109,9 @@ public class CreateDeleteIT extends RyaExportITBase {
         final String pcjId = loadData(sparql, statements);
 
         try(FluoClient fluoClient = FluoFactory.newClient(super.getFluoConfiguration())) {
-            // Ensure the data was loaded.
+            // Ensure the data was loaded. Each Statement Pattern also has a Statement Pattern index row.
             final List<Bytes> rows = getFluoTableEntries(fluoClient);
-            assertEquals(10, rows.size());
+            assertEquals(11, rows.size());
 
             // Delete the PCJ from the Fluo application.
             new DeleteFluoPcj(1).deletePcj(fluoClient, pcjId);
@@ -109,7 +109,7 @@ public class CreateDeletePeriodicPCJ extends KafkaExportITBase {
                         vf.createLiteral(dtf.newXMLGregorianCalendar(time4))),
                 vf.createStatement(vf.createIRI("urn:obs_4"), vf.createIRI("uri:hasId"), vf.createLiteral("id_4")));
 
-        runTest(query, statements, 29);
+        runTest(query, statements, 31);
 
     }
 
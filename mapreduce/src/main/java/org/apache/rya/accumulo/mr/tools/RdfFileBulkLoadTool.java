@@ -0,0 +1,441 @@
+package org.apache.rya.accumulo.mr.tools;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.mapreduce.AccumuloFileOutputFormat;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.output.LazyOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.AccumuloRdfConstants;
+import org.apache.rya.accumulo.AccumuloRdfUtils;
+import org.apache.rya.accumulo.bulk.BulkImport;
+import org.apache.rya.accumulo.bulk.EvalStatsMerger;
+import org.apache.rya.accumulo.mr.AbstractAccumuloMRTool;
+import org.apache.rya.accumulo.mr.MRUtils;
+import org.apache.rya.accumulo.mr.RyaStatementWritable;
+import org.apache.rya.api.RdfCloudTripleStoreConstants;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaURI;
+import org.apache.rya.api.resolver.RyaTripleContext;
+import org.apache.rya.api.resolver.triple.TripleRow;
+import org.apache.rya.api.resolver.triple.TripleRowResolverException;
+import org.apache.rya.indexing.accumulo.ConfigUtils;
+import org.eclipse.rdf4j.rio.RDFFormat;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Reads RDF data from one or more file(s) and bulk loads the statements into Rya.
+ * <p>
+ * Unlike {@link RdfFileInputTool}, the statements are not written through batch writers.
+ * The job sorts the statements into RFiles for the SPO, PO, and OSP tables, and the files
+ * are imported into those tables once the job has finished. The subjects and predicates of
+ * the statements are counted and added to the counts that are already in the eval table,
+ * unless {@link AccumuloRdfConfiguration#CONF_BULK_EVAL_STATS} is false. A statement that
+ * is read more than once is only counted once, and statements that are already stored in
+ * the SPO table are not counted again.
+ * <p>
+ * Takes two arguments: the file or directory to read (from HDFS) and a work directory the
+ * RFiles are written beneath. The work directory may also be named by the parameter
+ * {@link #WORK_DIR_PROP}. It must be on a file system the Accumulo tablet servers can read.
+ * The directories that are imported are given the permission
+ * {@link AccumuloRdfConfiguration#CONF_BULK_DIR_PERMISSION}, which defaults to 770.
+ * <p>
+ * Expects the same configuration as {@link RdfFileInputTool}, except that secondary indexes
+ * are not updated.
+ */
+public class RdfFileBulkLoadTool extends AbstractAccumuloMRTool implements Tool {
+
+    /**
+     * The configuration parameter that names the work directory the RFiles are written beneath.
+     */
+    public static final String WORK_DIR_PROP = "ac.bulk.workdir";
+
+    public static void main(String[] args) {
+        try {
+            ToolRunner.run(new Configuration(), new RdfFileBulkLoadTool(), args);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public int run(String[] args) throws Exception {
+        init();
+        Job job = Job.getInstance(conf, "Rdf File Bulk Load");
+        job.setJarByClass(RdfFileBulkLoadTool.class);
+
+        String inputPath = conf.get(MRUtils.INPUT_PATH, args[0]);
+        String workDir = conf.get(WORK_DIR_PROP, args.length > 1 ? args[1] : null);
+        Preconditions.checkNotNull(workDir, "Bulk load work directory [" + WORK_DIR_PROP + "] not set.");
+        Path outputPath = new Path(workDir, "rya-bulk-" + UUID.randomUUID());
+
+        setupFileInput(job, inputPath, RDFFormat.RDFXML);
+        job.setMapperClass(BulkLoadMapper.class);
+        job.setCombinerClass(BulkLoadCombiner.class);
+        job.setPartitionerClass(TableKeyPartitioner.class);
+        job.setReducerClass(BulkLoadReducer.class);
+        job.setMapOutputKeyClass(TableKey.class);
+        job.setMapOutputValueClass(Value.class);
+        job.setOutputKeyClass(Key.class);
+        job.setOutputValueClass(Value.class);
+        AccumuloFileOutputFormat.setOutputPath(job, outputPath);
+        LazyOutputFormat.setOutputFormatClass(job, AccumuloFileOutputFormat.class);
+
+        List<String> tables = new ArrayList<>();
+        tables.add(tablePrefix + RdfCloudTripleStoreConstants.TBL_SPO_SUFFIX);
+        tables.add(tablePrefix + RdfCloudTripleStoreConstants.TBL_PO_SUFFIX);
+        tables.add(tablePrefix + RdfCloudTripleStoreConstants.TBL_OSP_SUFFIX);
+        if (conf.getBoolean(AccumuloRdfConfiguration.CONF_BULK_EVAL_STATS, true)) {
+            tables.add(tablePrefix + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX);
+        }
+        Connector connector = getConnector();
+        for (String table : tables) {
+            AccumuloRdfUtils.createTableIfNotExist(connector.tableOperations(), table);
+        }
+
+        Date startTime = new Date();
+        System.out.println("Job started: " + startTime);
+        int exitCode = job.waitForCompletion(true) ? 0 : 1;
+
+        if (exitCode == 0) {
+            FileSystem fs = outputPath.getFileSystem(conf);
+            for (String table : tables) {
+                Path tableDir = new Path(outputPath, table);
+                if (fs.exists(new Path(tableDir, BulkImport.FILES_DIR))) {
+                    BulkImport.importDirectory(connector, fs, table, tableDir, BulkImport.getDirPermission(conf));
+                }
+            }
+            fs.delete(outputPath, true);
+
+            Date end_time = new Date();
+            System.out.println("Job ended: " + end_time);
+            System.out.println("The job took "
+                    + (end_time.getTime() - startTime.getTime()) / 1000
+                    + " seconds.");
+            long n = job.getCounters()
+                    .findCounter("org.apache.hadoop.mapred.Task$Counter", "MAP_INPUT_RECORDS").getValue();
+            System.out.println(n + " statement(s) bulk loaded into Rya.");
+        } else {
+            System.out.println("Job Failed!!!");
+        }
+        return exitCode;
+    }
+
+    /**
+     * An Accumulo key paired with the name of the table it will be imported into. Keys are
+     * sorted by table first so that each reducer writes every table's entries in order.
+     * <p>
+     * The counts of the eval table also hold the SPO key of the statement that is counted,
+     * so that each statement is only counted once. The counts of one eval table key are
+     * next to each other because the statement is compared last.
+     */
+    public static class TableKey implements WritableComparable<TableKey> {
+        private final Text table = new Text();
+        private final Key key = new Key();
+        private final Key statement = new Key();
+
+        public TableKey() {
+        }
+
+        public TableKey(String table, Key key) {
+            this.table.set(table);
+            this.key.set(key);
+        }
+
+        public TableKey(String table, Key key, Key statement) {
+            this(table, key);
+            this.statement.set(statement);
+        }
+
+        public Text getTable() {
+            return table;
+        }
+
+        public Key getKey() {
+            return key;
+        }
+
+        /**
+         * @return The SPO key of the statement an eval table count is for. It is empty for the
+         *   entries of the triple tables.
+         */
+        public Key getStatement() {
+            return statement;
+        }
+
+        @Override
+        public void write(DataOutput out) throws IOException {
+            table.write(out);
+            key.write(out);
+            statement.write(out);
+        }
+
+        @Override
+        public void readFields(DataInput in) throws IOException {
+            table.readFields(in);
+            key.readFields(in);
+            statement.readFields(in);
+        }
+
+        @Override
+        public int compareTo(TableKey other) {
+            int result = table.compareTo(other.table);
+            if (result == 0) {
+                result = key.compareTo(other.key);
+            }
+            return result != 0 ? result : statement.compareTo(other.statement);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TableKey)) {
+                return false;
+            }
+            TableKey other = (TableKey) o;
+            return table.equals(other.table) && key.equals(other.key) && statement.equals(other.statement);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * table.hashCode() + key.hashCode()) + statement.hashCode();
+        }
+    }
+
+    /**
+     * Sends every count of an eval table key to the same reducer, whichever statement it is for.
+     */
+    public static class TableKeyPartitioner extends Partitioner<TableKey, Value> {
+        @Override
+        public int getPartition(TableKey key, Value value, int numPartitions) {
+            int hash = 31 * key.getTable().hashCode() + key.getKey().hashCode();
+            return (hash & Integer.MAX_VALUE) % numPartitions;
+        }
+    }
+
+    /**
+     * Serializes each statement into the entries of the triple tables and, if the eval table
+     * is updated, a count of one for its subject and its predicate.
+     */
+    public static class BulkLoadMapper extends Mapper<LongWritable, RyaStatementWritable, TableKey, Value> {
+        private static final Value ONE = new Value("1".getBytes(StandardCharsets.UTF_8));
+        private static final TABLE_LAYOUT[] LAYOUTS = { TABLE_LAYOUT.SPO, TABLE_LAYOUT.PO, TABLE_LAYOUT.OSP };
+
+        private RyaTripleContext ryaContext;
+        private final Map<TABLE_LAYOUT, String> tables = new EnumMap<>(TABLE_LAYOUT.class);
+        private String evalTable = null;
+        private byte[] cv = null;
+        private RyaURI defaultContext = null;
+
+        @Override
+        protected void setup(Context context) throws IOException, InterruptedException {
+            super.setup(context);
+            Configuration conf = context.getConfiguration();
+            ryaContext = RyaTripleContext.getInstance(new AccumuloRdfConfiguration(conf));
+            String tablePrefix = MRUtils.getTablePrefix(conf);
+            tables.put(TABLE_LAYOUT.SPO, tablePrefix + RdfCloudTripleStoreConstants.TBL_SPO_SUFFIX);
+            tables.put(TABLE_LAYOUT.PO, tablePrefix + RdfCloudTripleStoreConstants.TBL_PO_SUFFIX);
+            tables.put(TABLE_LAYOUT.OSP, tablePrefix + RdfCloudTripleStoreConstants.TBL_OSP_SUFFIX);
+            if (conf.getBoolean(AccumuloRdfConfiguration.CONF_BULK_EVAL_STATS, true)) {
+                evalTable = tablePrefix + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX;
+            }
+            String visibility = conf.get(MRUtils.AC_CV_PROP);
+            if (visibility != null) {
+                cv = visibility.getBytes(StandardCharsets.UTF_8);
+            }
+            String graph = conf.get(MRUtils.NAMED_GRAPH_PROP);
+            if (graph != null && !graph.isEmpty()) {
+                defaultContext = new RyaURI(graph);
+            }
+        }
+
+        @Override
+        protected void map(LongWritable key, RyaStatementWritable value, Context context) throws IOException, InterruptedException {
+            RyaStatement statement = value.getRyaStatement();
+            if (statement.getColumnVisibility() == null) {
+                statement.setColumnVisibility(cv);
+            }
+            if (statement.getContext() == null) {
+                statement.setContext(defaultContext);
+            }
+
+            Key spoKey;
+            try {
+                Map<TABLE_LAYOUT, TripleRow> rows = ryaContext.serializeTriple(statement);
+                for (TABLE_LAYOUT layout : LAYOUTS) {
+                    TripleRow row = rows.get(layout);
+                    context.write(new TableKey(tables.get(layout), AccumuloRdfUtils.from(row)), AccumuloRdfUtils.extractValue(row));
+                }
+                spoKey = AccumuloRdfUtils.from(rows.get(TABLE_LAYOUT.SPO));
+            } catch (TripleRowResolverException e) {
+                throw new IOException(e);
+            }
+
+            if (evalTable != null) {
+                // The timestamp does not identify the statement, so it is left out.
+                Key counted = new Key(spoKey.getRow(), spoKey.getColumnFamily(), spoKey.getColumnQualifier(), spoKey.getColumnVisibility());
+                context.write(new TableKey(evalTable, EvalStatsMerger.subjectKey(statement), counted), ONE);
+                context.write(new TableKey(evalTable, EvalStatsMerger.predicateKey(statement), counted), ONE);
+            }
+        }
+    }
+
+    /**
+     * Drops duplicate triple table entries and duplicate counts of the same statement.
+     */
+    public static class BulkLoadCombiner extends Reducer<TableKey, Value, TableKey, Value> {
+        @Override
+        protected void reduce(TableKey key, Iterable<Value> values, Context context) throws IOException, InterruptedException {
+            context.write(key, values.iterator().next());
+        }
+    }
+
+    /**
+     * Writes each table's entries to its own RFiles. Each eval table key is counted once per
+     * statement that is not stored in the SPO table yet, and the counts are added to the
+     * counts that are already stored before they are written.
+     */
+    public static class BulkLoadReducer extends Reducer<TableKey, Value, Key, Value> {
+        private static final int EVAL_BATCH_SIZE = 10000;
+
+        private MultipleOutputs<Key, Value> mos;
+        private Text evalTable;
+        private String evalOutput;
+        private String spoTable;
+        private EvalStatsMerger merger;
+        private ColumnVisibility cv = AccumuloRdfConstants.EMPTY_CV;
+        private long timestamp;
+        private final TreeMap<Key, Long> evalCounts = new TreeMap<>();
+        private final List<Entry<Key, Key>> pending = new ArrayList<>();
+
+        @Override
+        protected void setup(Context context) throws IOException, InterruptedException {
+            super.setup(context);
+            Configuration conf = context.getConfiguration();
+            mos = new MultipleOutputs<>(context);
+            String evalTableName = MRUtils.getTablePrefix(conf) + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX;
+            evalTable = new Text(evalTableName);
+            evalOutput = outputPath(evalTableName);
+            spoTable = MRUtils.getTablePrefix(conf) + RdfCloudTripleStoreConstants.TBL_SPO_SUFFIX;
+            String visibility = conf.get(MRUtils.AC_CV_PROP);
+            if (visibility != null) {
+                cv = new ColumnVisibility(visibility);
+            }
+            timestamp = System.currentTimeMillis();
+
+            if (conf.getBoolean(AccumuloRdfConfiguration.CONF_BULK_EVAL_STATS, true)) {
+                try {
+                    merger = new EvalStatsMerger(ConfigUtils.getConnector(conf), evalTableName, ConfigUtils.getAuthorizations(conf),
+                            new AccumuloRdfConfiguration(conf).getStatsNumThreads());
+                } catch (AccumuloException | AccumuloSecurityException e) {
+                    throw new IOException("Could not connect to Accumulo to read the eval table.", e);
+                }
+            }
+        }
+
+        @Override
+        protected void reduce(TableKey key, Iterable<Value> values, Context context) throws IOException, InterruptedException {
+            if (key.getTable().equals(evalTable)) {
+                // Only count a full batch once every statement of the previous eval table key has been seen.
+                if (pending.size() >= EVAL_BATCH_SIZE && !pending.get(pending.size() - 1).getKey().equals(key.getKey())) {
+                    writeEvalCounts();
+                }
+                pending.add(new SimpleImmutableEntry<>(new Key(key.getKey()), new Key(key.getStatement())));
+            } else {
+                mos.write(key.getKey(), values.iterator().next(), outputPath(key.getTable().toString()));
+            }
+        }
+
+        private void writeEvalCounts() throws IOException, InterruptedException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                List<Key> statements = new ArrayList<>(pending.size());
+                for (Entry<Key, Key> count : pending) {
+                    statements.add(count.getValue());
+                }
+                Set<Key> stored = merger.findStored(spoTable, statements);
+                for (Entry<Key, Key> count : pending) {
+                    if (!stored.contains(count.getValue())) {
+                        evalCounts.merge(count.getKey(), 1L, Long::sum);
+                    }
+                }
+                pending.clear();
+
+                for (Entry<Key, Value> entry : merger.merge(evalCounts, cv, timestamp)) {
+                    mos.write(entry.getKey(), entry.getValue(), evalOutput);
+                }
+            } catch (TableNotFoundException e) {
+                throw new IOException(e);
+            }
+            evalCounts.clear();
+        }
+
+        @Override
+        protected void cleanup(Context context) throws IOException, InterruptedException {
+            writeEvalCounts();
+            mos.close();
+            super.cleanup(context);
+        }
+
+        private static String outputPath(String table) {
+            return table + "/" + BulkImport.FILES_DIR + "/part";
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.apache.rya.accumulo.mr.tools;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.util.ToolRunner;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.mr.TestUtils;
+import org.apache.rya.api.RdfCloudTripleStoreConstants;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaURI;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the methods of {@link RdfFileBulkLoadTool}.
+ */
+public class RdfFileBulkLoadToolTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final String user = "root";
+    private final String pwd = "";
+    private final String instance = RdfFileBulkLoadToolTest.class.getSimpleName() + ".myinstance";
+    private final String tablePrefix = "bulk_";
+    private Connector connector;
+
+    @Before
+    public void setUp() throws Exception {
+        connector = new MockInstance(instance).getConnector(user, new PasswordToken(pwd));
+    }
+
+    @Test
+    public void testNTriplesInput() throws Exception {
+        final File input = tempFolder.newFile("input.nt");
+        final StringBuilder ntriples = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            ntriples.append("<urn:student" + i + "> <urn:takesCourse> <urn:course" + i + "> .\n");
+        }
+        // Duplicates are only counted once.
+        ntriples.append("<urn:student0> <urn:takesCourse> <urn:course0> .\n");
+        Files.write(input.toPath(), ntriples.toString().getBytes(StandardCharsets.UTF_8));
+        final File workDir = tempFolder.newFolder("work");
+
+        assertEquals(0, runTool(input, workDir));
+
+        final AccumuloRdfConfiguration conf = new AccumuloRdfConfiguration();
+        conf.setTablePrefix(tablePrefix);
+        TestUtils.verify(connector, conf, new RyaStatement(new RyaURI("urn:student3"), new RyaURI("urn:takesCourse"), new RyaURI("urn:course3")));
+        TestUtils.verify(connector, conf, new RyaStatement(new RyaURI("urn:student10"), new RyaURI("urn:takesCourse"), new RyaURI("urn:course10")));
+
+        final Map<String, String> evalCounts = readEvalTable();
+        assertEquals(1, evalCounts.size());
+        assertEquals("12", evalCounts.get("urn:takesCourse"));
+
+        // The RFiles are removed once they have been imported.
+        assertEquals(0, workDir.list().length);
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        final File input = tempFolder.newFile("input.nt");
+        final StringBuilder ntriples = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            ntriples.append("<urn:student" + i + "> <urn:takesCourse> <urn:course" + i + "> .\n");
+        }
+        Files.write(input.toPath(), ntriples.toString().getBytes(StandardCharsets.UTF_8));
+        final File workDir = tempFolder.newFolder("work");
+        assertEquals(0, runTool(input, workDir));
+
+        // Loading the same file again only counts the statement that is new.
+        ntriples.append("<urn:student12> <urn:takesCourse> <urn:course12> .\n");
+        Files.write(input.toPath(), ntriples.toString().getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, runTool(input, workDir));
+
+        final Map<String, String> evalCounts = readEvalTable();
+        assertEquals(1, evalCounts.size());
+        assertEquals("13", evalCounts.get("urn:takesCourse"));
+    }
+
+    private int runTool(final File input, final File workDir) throws Exception {
+        return ToolRunner.run(new Configuration(), new RdfFileBulkLoadTool(), new String[]{
+                "-Dac.mock=true",
+                "-Dac.instance=" + instance,
+                "-Dac.username=" + user,
+                "-Dac.pwd=" + pwd,
+                "-Drdf.tablePrefix=" + tablePrefix,
+                "-Drdf.format=" + RDFFormat.NTRIPLES.getName(),
+                input.getAbsolutePath(),
+                workDir.getAbsolutePath(),
+        });
+    }
+
+    private Map<String, String> readEvalTable() throws Exception {
+        final Map<String, String> evalCounts = new HashMap<>();
+        final Scanner scanner = connector.createScanner(tablePrefix + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX, new Authorizations());
+        for (final Entry<Key, Value> entry : scanner) {
+            evalCounts.put(entry.getKey().getRow().toString(), entry.getValue().toString());
+        }
+        return evalCounts;
+    }
+}
@@ -0,0 +1,230 @@
+package org.apache.rya.rdftriplestore.evaluation;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+
+/**
+ * Joins the binding sets of a left argument with a right argument that is able to
+ * evaluate many binding sets at once. The left binding sets are gathered into batches
+ * and each batch is handed to {@link #evaluateBatch(Collection)}.
+ * <p>
+ * When the {@link ParallelEvaluationStrategyImpl} pipelines joins, the next batches
+ * are evaluated on its executor while the results of the current batch are consumed.
+ * At most {@link ParallelEvaluationStrategyImpl#getPipelineMaxInFlight()} batches are
+ * submitted and not yet consumed, and the batch size is adjusted so that each batch
+ * takes about {@link ParallelEvaluationStrategyImpl#getPipelineTargetLatencyMs()} to evaluate.
+ */
+public abstract class BatchedBindingSetsIterator extends LookAheadIteration<BindingSet, QueryEvaluationException> {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int MIN_BATCH_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    private final CloseableIteration<BindingSet, QueryEvaluationException> leftIter;
+
+    // Used when the batches are evaluated one at a time.
+    private CloseableIteration<BindingSet, QueryEvaluationException> iter;
+
+    // Used when the batches are pipelined. Null otherwise.
+    private final ExecutorService executorService;
+    private final int maxInFlight;
+    private final long targetLatencyMs;
+    private final Deque<Future<List<BindingSet>>> inFlight = new ArrayDeque<>();
+    private Iterator<BindingSet> currentBatch = Collections.emptyIterator();
+
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+    protected BatchedBindingSetsIterator(ParallelEvaluationStrategyImpl strategy, CloseableIteration<BindingSet, QueryEvaluationException> leftIter) {
+        this.leftIter = leftIter;
+        if (strategy.isPipelineJoins()) {
+            executorService = strategy.getExecutorService();
+            maxInFlight = strategy.getPipelineMaxInFlight();
+            targetLatencyMs = strategy.getPipelineTargetLatencyMs();
+        } else {
+            executorService = null;
+            maxInFlight = 1;
+            targetLatencyMs = 0;
+        }
+    }
+
+    /**
+     * Evaluates the right argument of the join for a batch of left binding sets.
+     *
+     * @param batch - The binding sets that were read from the left argument.
+     * @return The joined binding sets.
+     * @throws QueryEvaluationException The batch could not be evaluated.
+     */
+    protected abstract CloseableIteration<BindingSet, QueryEvaluationException> evaluateBatch(Collection<BindingSet> batch)
+            throws QueryEvaluationException;
+
+    /**
+     * @return The number of left binding sets that will be placed in the next batch.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    protected void initIter() throws QueryEvaluationException {
+        try {
+            Collection<BindingSet> sets = nextBatch();
+            if (iter != null) iter.close();
+            iter = evaluateBatch(sets);
+        } catch (Exception e) {
+            throw new QueryEvaluationException(e);
+        }
+    }
+
+    private Collection<BindingSet> nextBatch() throws QueryEvaluationException {
+        final int size = batchSize;
+        Collection<BindingSet> sets = new ArrayList<BindingSet>(size);
+        int i = 0;
+        while (i < size && leftIter.hasNext()) {
+            sets.add(leftIter.next());
+            i++;
+        }
+        return sets;
+    }
+
+    @Override
+    protected BindingSet getNextElement()
+            throws QueryEvaluationException {
+        if (executorService != null) {
+            return getNextPipelinedElement();
+        }
+
+        try {
+            while (true) {
+                if (iter != null && iter.hasNext()) {
+                    return iter.next();
+                }
+
+                if (leftIter.hasNext() || iter == null) {
+                    initIter();
+                } else
+                    return null;
+            }
+        } catch (Exception e) {
+            throw new QueryEvaluationException(e);
+        }
+    }
+
+    private BindingSet getNextPipelinedElement() throws QueryEvaluationException {
+        while (true) {
+            if (currentBatch.hasNext()) {
+                return currentBatch.next();
+            }
+
+            fillPipeline();
+            final Future<List<BindingSet>> next = inFlight.poll();
+            if (next == null) {
+                return null;
+            }
+            currentBatch = getResults(next).iterator();
+
+            // Start the batch that replaces the one that was just taken while its results are consumed.
+            fillPipeline();
+        }
+    }
+
+    /**
+     * Reads batches from the left argument and submits them to the executor until
+     * the maximum number of batches are in flight or the left argument is exhausted.
+     */
+    private void fillPipeline() throws QueryEvaluationException {
+        while (inFlight.size() < maxInFlight && leftIter.hasNext()) {
+            final Collection<BindingSet> batch = nextBatch();
+            inFlight.add(executorService.submit(() -> evaluatePipelinedBatch(batch)));
+        }
+    }
+
+    private List<BindingSet> evaluatePipelinedBatch(Collection<BindingSet> batch) throws QueryEvaluationException {
+        final long start = System.nanoTime();
+        final List<BindingSet> results = new ArrayList<>();
+        final CloseableIteration<BindingSet, QueryEvaluationException> batchIter = evaluateBatch(batch);
+        try {
+            while (batchIter.hasNext()) {
+                results.add(batchIter.next());
+            }
+        } finally {
+            batchIter.close();
+        }
+        adjustBatchSize(batch.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return results;
+    }
+
+    /**
+     * Doubles the batch size when a full batch is evaluated well within the target
+     * latency and halves it when a batch takes much longer than the target latency.
+     */
+    private void adjustBatchSize(int evaluatedBatchSize, long latencyMs) {
+        final int current = batchSize;
+        if (latencyMs > targetLatencyMs * 2) {
+            batchSize = Math.max(MIN_BATCH_SIZE, current / 2);
+        } else if (latencyMs < targetLatencyMs / 2 && evaluatedBatchSize >= current) {
+            batchSize = Math.min(MAX_BATCH_SIZE, current * 2);
+        }
+    }
+
+    private static List<BindingSet> getResults(Future<List<BindingSet>> future) throws QueryEvaluationException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryEvaluationException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof QueryEvaluationException) {
+                throw (QueryEvaluationException) e.getCause();
+            }
+            throw new QueryEvaluationException(e.getCause());
+        }
+    }
+
+    @Override
+    protected void handleClose()
+            throws QueryEvaluationException {
+        try {
+            super.handleClose();
+            for (Future<List<BindingSet>> future : inFlight) {
+                future.cancel(true);
+            }
+            inFlight.clear();
+            leftIter.close();
+            if (iter != null) iter.close();
+        } catch (Exception e) {
+            throw new QueryEvaluationException(e);
+        }
+    }
+}
@@ -19,88 +19,40 @@ package org.apache.rya.rdftriplestore.evaluation;
  * under the License.
  */
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
-import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
 
 /**
+ * Joins the left binding sets with a {@link StatementPattern} one batch at a time.
  */
-public class MultipleBindingSetsIterator extends LookAheadIteration<BindingSet, QueryEvaluationException> {
+public class MultipleBindingSetsIterator extends BatchedBindingSetsIterator {
 
     private final ParallelEvaluationStrategyImpl strategy;
-    private final CloseableIteration leftIter;
     private StatementPattern stmtPtrn;
-    private CloseableIteration<BindingSet, QueryEvaluationException> iter;
-    //TODO: configurable
-    private int batchSize = 1000;
 
     public MultipleBindingSetsIterator(ParallelEvaluationStrategyImpl strategy, TupleExpr leftArg, StatementPattern stmtPattern, BindingSet bindings)
             throws QueryEvaluationException {
+        super(strategy, strategy.evaluate(leftArg, bindings));
         this.strategy = strategy;
-        leftIter = strategy.evaluate(leftArg, bindings);
         this.stmtPtrn = stmtPattern;
-        initIter();
     }
 
+    @SuppressWarnings("unchecked")
     public MultipleBindingSetsIterator(ParallelEvaluationStrategyImpl strategy, CloseableIteration leftIter, StatementPattern stmtPattern, BindingSet bindings)
             throws QueryEvaluationException {
+        super(strategy, leftIter);
         this.strategy = strategy;
-        this.leftIter = leftIter;
         this.stmtPtrn = stmtPattern;
-        initIter();
     }
 
-    protected void initIter() throws QueryEvaluationException {
-        try {
-            Collection<BindingSet> sets = new ArrayList<BindingSet>();
-            int i = 0;
-            while (leftIter.hasNext()) {
-                //default to 1K for the batch size
-                if (i >= batchSize) {
-                    break;
-                }
-                sets.add((BindingSet) leftIter.next());
-                i++;
-            }
-            if (iter != null) iter.close();
-            iter = strategy.evaluate(stmtPtrn, sets);
-        } catch (Exception e) {
-            throw new QueryEvaluationException(e);
-        }
-    }
-
-    protected BindingSet getNextElement()
-            throws QueryEvaluationException {
-        try {
-            while (true) {
-                if (iter.hasNext()) {
-                    return iter.next();
-                }
-
-                if (leftIter.hasNext()) {
-                    initIter();
-                } else
-                    return null;
-            }
-        } catch (Exception e) {
-            throw new QueryEvaluationException(e);
-        }
-    }
-
-    protected void handleClose()
+    @Override
+    protected CloseableIteration<BindingSet, QueryEvaluationException> evaluateBatch(Collection<BindingSet> batch)
             throws QueryEvaluationException {
-        try {
-            super.handleClose();
-            leftIter.close();
-            iter.close();
-        } catch (Exception e) {
-            throw new QueryEvaluationException(e);
-        }
+        return strategy.evaluate(stmtPtrn, batch);
     }
 }
@@ -74,6 +74,9 @@ public class ParallelEvaluationStrategyImpl extends StrictEvaluationStrategy {
     private int numOfThreads = 10;
     private boolean performant = true;
     private boolean displayQueryPlan = false;
+    private boolean pipelineJoins = false;
+    private int pipelineMaxInFlight = 2;
+    private long pipelineTargetLatencyMs = 250;
     private ExecutorService executorService;
     private InferenceEngine inferenceEngine;
 
@@ -86,6 +89,12 @@ public class ParallelEvaluationStrategyImpl extends StrictEvaluationStrategy {
         this.performant = (val != null) ? val : this.performant;
         val = conf.isDisplayQueryPlan();
         this.displayQueryPlan = (val != null) ? val : this.displayQueryPlan;
+        val = conf.isPipelineJoins();
+        this.pipelineJoins = (val != null) ? val : this.pipelineJoins;
+        Integer maxInFlight = conf.getPipelineMaxInFlight();
+        this.pipelineMaxInFlight = (maxInFlight != null) ? maxInFlight : this.pipelineMaxInFlight;
+        Long targetLatency = conf.getPipelineTargetLatencyMs();
+        this.pipelineTargetLatencyMs = (targetLatency != null) ? targetLatency : this.pipelineTargetLatencyMs;
         this.executorService = Executors.newFixedThreadPool(this.numOfThreads);
         this.inferenceEngine = inferenceEngine;
     }
@@ -271,6 +280,35 @@ public class ParallelEvaluationStrategyImpl extends StrictEvaluationStrategy {
             return var.getValue();
     }
 
+    /**
+     * @return {@code true} if batched joins evaluate their next batches on the
+     *   executor while the current batch is consumed; otherwise {@code false}.
+     */
+    public boolean isPipelineJoins() {
+        return pipelineJoins;
+    }
+
+    /**
+     * @return The number of batches a pipelined join may have submitted but not yet consumed.
+     */
+    public int getPipelineMaxInFlight() {
+        return pipelineMaxInFlight;
+    }
+
+    /**
+     * @return How long, in milliseconds, a pipelined join aims to spend evaluating each batch.
+     */
+    public long getPipelineTargetLatencyMs() {
+        return pipelineTargetLatencyMs;
+    }
+
+    /**
+     * @return The executor that pipelined joins evaluate their batches on.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
     public void shutdown() {
         executorService.shutdownNow();
     }
@@ -64,6 +64,10 @@ public class QueryJoinOptimizer implements QueryOptimizer {
      */
     public void optimize(TupleExpr tupleExpr, Dataset dataset, BindingSet bindings) {
         if (!(statistics instanceof DefaultStatistics)) {
+            if (statistics instanceof RdfCloudTripleStoreEvaluationStatistics) {
+                // Resolve every statement pattern's cardinality with one lookup instead of one per join argument.
+                ((RdfCloudTripleStoreEvaluationStatistics) statistics).prefetchCardinalities(tupleExpr);
+            }
             tupleExpr.visit(new JoinVisitor());
         }
     }
@@ -55,6 +55,9 @@ public class QueryJoinSelectOptimizer implements QueryOptimizer {
    * @param tupleExpr
    */
   public void optimize(TupleExpr tupleExpr, Dataset dataset, BindingSet bindings) {
+    if (statistics instanceof RdfCloudTripleStoreEvaluationStatistics) {
+      ((RdfCloudTripleStoreEvaluationStatistics) statistics).prefetchCardinalities(tupleExpr);
+    }
     tupleExpr.visit(new JoinVisitor());
   }
 
@@ -24,10 +24,14 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
+import org.apache.rya.api.persist.CardinalityRequest;
+import org.apache.rya.api.persist.RdfDAOException;
 import org.apache.rya.api.persist.RdfEvalStatsDAO;
 import org.apache.rya.api.persist.RdfEvalStatsDAO.CARDINALITY_OF;
 import org.apache.rya.rdftriplestore.inference.DoNotExpandSP;
@@ -47,6 +51,7 @@ import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.eclipse.rdf4j.query.algebra.UnaryTupleOperator;
 import org.eclipse.rdf4j.query.algebra.Var;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.query.algebra.helpers.StatementPatternCollector;
 
 /**
  * Class RdfCloudTripleStoreEvaluationStatistics
@@ -59,6 +64,7 @@ public class RdfCloudTripleStoreEvaluationStatistics extends EvaluationStatistic
     private RdfEvalStatsDAO rdfEvalStatsDAO;
     protected boolean pushEmptyRdfTypeDown = true;
     protected boolean useCompositeCardinalities = true;
+    private final Map<CardinalityRequest, Double> prefetched = new HashMap<>();
 
     public RdfCloudTripleStoreEvaluationStatistics(RdfCloudTripleStoreConfiguration conf, RdfEvalStatsDAO rdfEvalStatsDAO) {
         checkNotNull(conf);
@@ -96,6 +102,95 @@ public class RdfCloudTripleStoreEvaluationStatistics extends EvaluationStatistic
         this.rdfEvalStatsDAO = rdfEvalStatsDAO;
     }
 
+    /**
+     * Looks up the cardinalities of every statement pattern within a query using a single
+     * call to {@link RdfEvalStatsDAO#getCardinalities(RdfCloudTripleStoreConfiguration, Collection)}
+     * so that the per pattern lookups made while reordering joins are answered from memory.
+     * The cardinalities prefetched for the previous query are discarded, so a statistics object
+     * that is reused across queries never holds more than one query's cardinalities and never
+     * answers from values the DAO's cache has already expired.
+     *
+     * @param expr - The query whose statement patterns will be looked up. (not null)
+     */
+    public void prefetchCardinalities(TupleExpr expr) {
+        checkNotNull(expr);
+        prefetched.clear();
+        Set<CardinalityRequest> requests = new LinkedHashSet<>();
+        for (StatementPattern sp : StatementPatternCollector.process(expr)) {
+            if (sp instanceof FixedStatementPattern) {
+                continue;
+            }
+            CardinalityRequest request = createCardinalityRequest(
+                    (Resource) getConstantValue(sp.getSubjectVar()),
+                    (IRI) getConstantValue(sp.getPredicateVar()),
+                    getConstantValue(sp.getObjectVar()),
+                    (Resource) getConstantValue(sp.getContextVar()));
+            if (request != null) {
+                requests.add(request);
+            }
+        }
+
+        if (!requests.isEmpty()) {
+            prefetched.putAll(rdfEvalStatsDAO.getCardinalities(conf, requests));
+        }
+    }
+
+    /**
+     * @param request - The cardinality to look up. (not null)
+     * @return The prefetched cardinality if there is one, otherwise the value read from the DAO.
+     */
+    protected double lookupCardinality(CardinalityRequest request) throws RdfDAOException {
+        Double cardinality = prefetched.get(request);
+        if (cardinality == null) {
+            cardinality = rdfEvalStatsDAO.getCardinality(conf, request.getCard(), request.getValues(), request.getContext());
+        }
+        return cardinality;
+    }
+
+    /**
+     * Creates the request for the most specific cardinality that describes a statement pattern.
+     *
+     * @return The request, or {@code null} if none of the positions are constants.
+     */
+    protected CardinalityRequest createCardinalityRequest(Resource subj, IRI pred, Value obj, Resource context) {
+        List<Value> values = new ArrayList<Value>();
+        if (subj != null) {
+            CARDINALITY_OF card = RdfEvalStatsDAO.CARDINALITY_OF.SUBJECT;
+            values.add(subj);
+            if (useCompositeCardinalities) {
+                if (pred != null) {
+                    values.add(pred);
+                    card = RdfEvalStatsDAO.CARDINALITY_OF.SUBJECTPREDICATE;
+                } else if (obj != null) {
+                    values.add(obj);
+                    card = RdfEvalStatsDAO.CARDINALITY_OF.SUBJECTOBJECT;
+                }
+            }
+            return new CardinalityRequest(card, values, context);
+        } else if (pred != null) {
+            CARDINALITY_OF card = RdfEvalStatsDAO.CARDINALITY_OF.PREDICATE;
+            values.add(pred);
+            if (useCompositeCardinalities) {
+                if (obj != null) {
+                    values.add(obj);
+                    card = RdfEvalStatsDAO.CARDINALITY_OF.PREDICATEOBJECT;
+                }
+            }
+            return new CardinalityRequest(card, values, context);
+        } else if (obj != null) {
+            values.add(obj);
+            return new CardinalityRequest(RdfEvalStatsDAO.CARDINALITY_OF.OBJECT, values, context);
+        }
+        return null;
+    }
+
+    protected static Value getConstantValue(Var var) {
+        if (var != null)
+            return var.getValue();
+        else
+            return null;
+    }
+
     public class RdfCloudTripleStoreCardinalityCalculator extends CardinalityCalculator {
         private RdfCloudTripleStoreEvaluationStatistics statistics;
         protected Map<Var, Collection<Statement>> fspMap;
@@ -162,7 +257,7 @@ public class RdfCloudTripleStoreEvaluationStatistics extends EvaluationStatistic
                     for (Statement statement : statements) {
                     	List<Value> values = new ArrayList<Value>();
                     	values.add(statement.getSubject());
-                    	fspCard  += rdfEvalStatsDAO.getCardinality(conf, cardinality_of, values, context);
+                    	fspCard  += statistics.lookupCardinality(new CardinalityRequest(cardinality_of, values, context));
                     }
                     return fspCard;
                 }
@@ -174,58 +269,19 @@ public class RdfCloudTripleStoreEvaluationStatistics extends EvaluationStatistic
              * asking the full rdf:type of everything.
              */
             double cardinality = Double.MAX_VALUE - 1;
-            try {
-                if (subj != null) {
-                	List<Value> values = new ArrayList<Value>();
-                	CARDINALITY_OF card = RdfEvalStatsDAO.CARDINALITY_OF.SUBJECT;
-            		values.add(subj);
-            		if (useCompositeCardinalities){
-                   	    if (pred != null){
-                    		values.add(pred);
-                    		card = RdfEvalStatsDAO.CARDINALITY_OF.SUBJECTPREDICATE;
-                    	}
-                   	    else if (obj != null){
-                    		values.add(obj);
-                    		card = RdfEvalStatsDAO.CARDINALITY_OF.SUBJECTOBJECT;
-                   	    }
-            		}
-                	double evalCard = evalCard = rdfEvalStatsDAO.getCardinality(conf, card, values, context);
-                	// the cardinality will be -1 if there was no value found (if the index does not exist)
-                    if (evalCard >= 0) {
-                        cardinality = Math.min(cardinality, evalCard);
-                    } else {
-                        cardinality = 1;
-                    }
-                }
-                else if (pred != null) {
-                	List<Value> values = new ArrayList<Value>();
-                	CARDINALITY_OF card = RdfEvalStatsDAO.CARDINALITY_OF.PREDICATE;
-            		values.add(pred);
-            		if (useCompositeCardinalities){
-                   	    if (obj != null){
-                    		values.add(obj);
-                    		card = RdfEvalStatsDAO.CARDINALITY_OF.PREDICATEOBJECT;
-                   	    }
-            		}
-                	double evalCard = evalCard = rdfEvalStatsDAO.getCardinality(conf, card, values, context);
+            final CardinalityRequest request = createCardinalityRequest(subj, pred, obj, context);
+            if (request != null) {
+                try {
+                    double evalCard = statistics.lookupCardinality(request);
+                    // the cardinality will be -1 if there was no value found (if the index does not exist)
                     if (evalCard >= 0) {
                         cardinality = Math.min(cardinality, evalCard);
                     } else {
                         cardinality = 1;
                     }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
                 }
-                else if (obj != null) {
-                	List<Value> values = new ArrayList<Value>();
-            		values.add(obj);
-                    double evalCard = rdfEvalStatsDAO.getCardinality(conf, RdfEvalStatsDAO.CARDINALITY_OF.OBJECT, values, context);
-                    if (evalCard >= 0) {
-                        cardinality = Math.min(cardinality, evalCard);
-                    } else {
-                        cardinality = 1;
-                    }
-                }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
             }
 
             return cardinality;
@@ -263,13 +319,6 @@ public class RdfCloudTripleStoreEvaluationStatistics extends EvaluationStatistic
                 cardinality = leftArgCost;    //TODO: Is this ok?
             }
         }
-
-        protected Value getConstantValue(Var var) {
-            if (var != null)
-                return var.getValue();
-            else
-                return null;
-        }
     }
 
 }
@@ -0,0 +1,148 @@
+package org.apache.rya.rdftriplestore.evaluation;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchedBindingSetsIteratorTest {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private ParallelEvaluationStrategyImpl eval;
+
+    @After
+    public void close() {
+        if (eval != null) {
+            eval.shutdown();
+        }
+    }
+
+    @Test
+    public void synchronous() throws Exception {
+        eval = makeStrategy(false, 250L);
+        Assert.assertEquals(makeBindingSets(2500), drain(new PassThroughIterator(eval, makeBindingSets(2500), 0)));
+    }
+
+    @Test
+    public void pipelined() throws Exception {
+        eval = makeStrategy(true, 250L);
+        Assert.assertEquals(makeBindingSets(2500), drain(new PassThroughIterator(eval, makeBindingSets(2500), 0)));
+    }
+
+    @Test
+    public void pipelined_batchSizeGrows() throws Exception {
+        eval = makeStrategy(true, 60000L);
+        final PassThroughIterator iter = new PassThroughIterator(eval, makeBindingSets(5000), 0);
+        Assert.assertEquals(5000, drain(iter).size());
+        Assert.assertTrue(iter.getBatchSize() > BatchedBindingSetsIterator.DEFAULT_BATCH_SIZE);
+    }
+
+    @Test
+    public void pipelined_batchSizeShrinks() throws Exception {
+        eval = makeStrategy(true, 1L);
+        final PassThroughIterator iter = new PassThroughIterator(eval, makeBindingSets(2000), 20);
+        Assert.assertEquals(2000, drain(iter).size());
+        Assert.assertTrue(iter.getBatchSize() < BatchedBindingSetsIterator.DEFAULT_BATCH_SIZE);
+    }
+
+    @Test(expected = QueryEvaluationException.class)
+    public void pipelined_batchFails() throws Exception {
+        eval = makeStrategy(true, 250L);
+        final BatchedBindingSetsIterator iter = new BatchedBindingSetsIterator(eval, iterate(makeBindingSets(10))) {
+            @Override
+            protected CloseableIteration<BindingSet, QueryEvaluationException> evaluateBatch(Collection<BindingSet> batch)
+                    throws QueryEvaluationException {
+                throw new QueryEvaluationException("Could not evaluate the batch.");
+            }
+        };
+        drain(iter);
+    }
+
+    private static ParallelEvaluationStrategyImpl makeStrategy(boolean pipeline, long targetLatencyMs) {
+        AccumuloRdfConfiguration conf = new AccumuloRdfConfiguration();
+        conf.setPipelineJoins(pipeline);
+        conf.setPipelineTargetLatencyMs(targetLatencyMs);
+        return new ParallelEvaluationStrategyImpl(null, null, null, conf);
+    }
+
+    private static List<BindingSet> makeBindingSets(int count) {
+        List<BindingSet> bindingSets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            QueryBindingSet bs = new QueryBindingSet();
+            bs.addBinding("x", VF.createLiteral(i));
+            bindingSets.add(bs);
+        }
+        return bindingSets;
+    }
+
+    private static CloseableIteration<BindingSet, QueryEvaluationException> iterate(Collection<BindingSet> bindingSets) {
+        return new CloseableIteratorIteration<>(bindingSets.iterator());
+    }
+
+    private static List<BindingSet> drain(BatchedBindingSetsIterator iter) throws QueryEvaluationException {
+        List<BindingSet> results = new ArrayList<>();
+        try {
+            while (iter.hasNext()) {
+                results.add(iter.next());
+            }
+        } finally {
+            iter.close();
+        }
+        return results;
+    }
+
+    /**
+     * Joins each left binding set with nothing, optionally taking some time to evaluate each batch.
+     */
+    private static class PassThroughIterator extends BatchedBindingSetsIterator {
+        private final long delayMs;
+
+        public PassThroughIterator(ParallelEvaluationStrategyImpl strategy, Collection<BindingSet> left, long delayMs) {
+            super(strategy, iterate(left));
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        protected CloseableIteration<BindingSet, QueryEvaluationException> evaluateBatch(Collection<BindingSet> batch)
+                throws QueryEvaluationException {
+            if (delayMs > 0) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    throw new QueryEvaluationException(e);
+                }
+            }
+            return iterate(new ArrayList<>(batch));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.apache.rya.rdftriplestore.evaluation;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.List;
+
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
+import org.apache.rya.api.persist.RdfDAOException;
+import org.apache.rya.api.persist.RdfEvalStatsDAO;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.helpers.StatementPatternCollector;
+import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the methods of {@link RdfCloudTripleStoreEvaluationStatistics}.
+ */
+public class RdfCloudTripleStoreEvaluationStatisticsTest {
+
+    private final CountingEvalStatsDAO dao = new CountingEvalStatsDAO();
+    private RdfCloudTripleStoreEvaluationStatistics statistics;
+
+    @Before
+    public void init() {
+        statistics = new RdfCloudTripleStoreEvaluationStatistics(new AccumuloRdfConfiguration(), dao);
+    }
+
+    @Test
+    public void prefetchCardinalities() throws Exception {
+        final TupleExpr query = parse("SELECT ?h { ?h <uri:barksAt> <uri:cat> . ?h <uri:peesOn> <uri:hydrant> . }");
+        statistics.prefetchCardinalities(query);
+        final int lookups = dao.lookups;
+
+        // The patterns of the query are answered without going back to the DAO.
+        for (final StatementPattern sp : StatementPatternCollector.process(query)) {
+            statistics.getCardinality(sp);
+        }
+        assertEquals(lookups, dao.lookups);
+    }
+
+    @Test
+    public void prefetchCardinalities_refetchedForEachQuery() throws Exception {
+        final TupleExpr query = parse("SELECT ?h { ?h <uri:barksAt> <uri:cat> . }");
+        final StatementPattern sp = StatementPatternCollector.process(query).get(0);
+
+        statistics.prefetchCardinalities(query);
+        final double before = statistics.getCardinality(sp);
+
+        // A reused statistics object sees the DAO's current value the next time the query is optimized.
+        dao.cardinality = 1000;
+        statistics.prefetchCardinalities(query);
+        assertNotEquals(before, statistics.getCardinality(sp), 0.0);
+    }
+
+    @Test
+    public void prefetchCardinalities_previousQueryDiscarded() throws Exception {
+        final TupleExpr first = parse("SELECT ?h { ?h <uri:barksAt> <uri:cat> . }");
+        final TupleExpr second = parse("SELECT ?h { ?h <uri:peesOn> <uri:hydrant> . }");
+
+        statistics.prefetchCardinalities(first);
+        statistics.prefetchCardinalities(second);
+
+        // Only the most recent query's cardinalities are held.
+        final int lookups = dao.lookups;
+        statistics.getCardinality(StatementPatternCollector.process(first).get(0));
+        assertEquals(lookups + 1, dao.lookups);
+    }
+
+    private static TupleExpr parse(final String sparql) throws Exception {
+        return new SPARQLParser().parseQuery(sparql, null).getTupleExpr();
+    }
+
+    /**
+     * Answers every lookup with the same cardinality and counts the lookups.
+     */
+    private static class CountingEvalStatsDAO implements RdfEvalStatsDAO<RdfCloudTripleStoreConfiguration> {
+        private double cardinality = 10;
+        private int lookups = 0;
+
+        @Override
+        public void init() throws RdfDAOException {
+        }
+
+        @Override
+        public boolean isInitialized() throws RdfDAOException {
+            return true;
+        }
+
+        @Override
+        public void destroy() throws RdfDAOException {
+        }
+
+        @Override
+        public double getCardinality(final RdfCloudTripleStoreConfiguration conf, final CARDINALITY_OF card, final List<Value> val) throws RdfDAOException {
+            return getCardinality(conf, card, val, null);
+        }
+
+        @Override
+        public double getCardinality(final RdfCloudTripleStoreConfiguration conf, final CARDINALITY_OF card, final List<Value> val, final Resource context) throws RdfDAOException {
+            lookups++;
+            return cardinality;
+        }
+
+        @Override
+        public void setConf(final RdfCloudTripleStoreConfiguration conf) {
+        }
+
+        @Override
+        public RdfCloudTripleStoreConfiguration getConf() {
+            return null;
+        }
+    }
+}